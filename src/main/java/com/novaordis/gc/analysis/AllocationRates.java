@@ -0,0 +1,444 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.List;
+
+/**
+ * Allocation and promotion rates derived from the new generation collections, in a single streaming pass with constant
+ * memory. Works with any collector that reports the new generation occupancy (PSYoungGen, ParNew, DefNew); if only the
+ * heap occupancy is available, the allocation is derived from the heap.
+ *
+ * The allocation between two consecutive collections is the young generation occupancy before a collection minus the
+ * young generation occupancy after the previous collection (full collections included). It is spread evenly over the
+ * time between the collections. The bytes promoted by a collection are the bytes that left the young generation but
+ * did not leave the heap, and they are attributed to the moment of the collection.
+ *
+ * The timeline is divided into buckets of fixed size. When a bucket is complete, its rates are recorded into
+ * histograms, so the average, percentiles and peak per bucket are available at the end without keeping the buckets.
+ *
+ * Premature promotion indicators:
+ *
+ * 1. The promotion ratio - the fraction of the allocated bytes that get promoted.
+ *
+ * 2. The fraction of the promoted bytes reclaimed by the following full collections. Objects that die shortly after
+ *    being promoted were promoted prematurely.
+ *
+ * 3. The number of new generation collections that promote more than PREMATURE_PROMOTION_THRESHOLD of the bytes that
+ *    leave the young generation.
+ *
+ * The events must be recorded in chronological order; an event older than the previous one starts a new sequence.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class AllocationRates
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final long DEFAULT_BUCKET_SIZE = 60000L;
+
+    public static final double PREMATURE_PROMOTION_THRESHOLD = 0.25d;
+
+    // the rates are recorded in KB/s; 1 TB/s
+    private static final long HIGHEST_TRACKABLE_RATE = 1024L * 1024 * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long bucketSize;
+
+    // the previous collection, -1 if unknown
+    private long previousTime;
+    private long previousNgAfter;
+    private long previousHeapAfter;
+
+    // the current bucket
+    private long bucketStart;
+    private long bucketCovered;
+    private double bucketAllocated;
+    private long bucketPromoted;
+
+    private PauseHistogram allocationRates;
+    private PauseHistogram promotionRates;
+
+    private long ngCount;
+    private long totalCovered;
+    private double totalAllocated;
+    private long totalPromoted;
+    private long totalCollected;
+    private long prematurePromotionCount;
+
+    private long promotedSinceFull;
+    private long promotedBeforeFull;
+    private long reclaimedByFull;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public AllocationRates()
+    {
+        this(DEFAULT_BUCKET_SIZE);
+    }
+
+    /**
+     * @param bucketSize milliseconds.
+     */
+    public AllocationRates(long bucketSize)
+    {
+        if (bucketSize <= 0)
+        {
+            throw new IllegalArgumentException("invalid bucket size " + bucketSize);
+        }
+
+        this.bucketSize = bucketSize;
+        this.allocationRates = new PauseHistogram(PauseHistogram.DEFAULT_PRECISION, HIGHEST_TRACKABLE_RATE);
+        this.promotionRates = new PauseHistogram(PauseHistogram.DEFAULT_PRECISION, HIGHEST_TRACKABLE_RATE);
+        this.previousTime = -1L;
+        this.previousNgAfter = -1L;
+        this.previousHeapAfter = -1L;
+        this.bucketStart = -1L;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        CollectionType ct = e.getCollectionType();
+
+        boolean ng = CollectionType.NEW_GENERATION_COLLECTION.equals(ct);
+        boolean full = CollectionType.FULL_COLLECTION.equals(ct);
+
+        if (!ng && !full)
+        {
+            return;
+        }
+
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t == null || t < 0)
+        {
+            t = e.getOffset();
+
+            if (t == null || t < 0)
+            {
+                return;
+            }
+        }
+
+        long ngBefore = get(e, FieldType.NG_BEFORE);
+        long ngAfter = get(e, FieldType.NG_AFTER);
+        long heapBefore = get(e, FieldType.HEAP_BEFORE);
+        long heapAfter = get(e, FieldType.HEAP_AFTER);
+
+        if (previousTime >= 0 && t < previousTime)
+        {
+            // a new sequence, the previous occupancy is meaningless
+            close();
+            previousNgAfter = -1L;
+            previousHeapAfter = -1L;
+        }
+        else if (previousTime >= 0)
+        {
+            long allocated = -1L;
+
+            if (ngBefore >= 0 && previousNgAfter >= 0)
+            {
+                allocated = ngBefore - previousNgAfter;
+            }
+            else if (heapBefore >= 0 && previousHeapAfter >= 0)
+            {
+                allocated = heapBefore - previousHeapAfter;
+            }
+
+            if (allocated >= 0)
+            {
+                spread(previousTime, t, allocated);
+            }
+        }
+
+        if (ng)
+        {
+            ngCount ++;
+
+            if (ngBefore >= 0 && ngAfter >= 0 && heapBefore >= 0 && heapAfter >= 0)
+            {
+                long collected = ngBefore - ngAfter;
+                long promoted = Math.max(0L, collected - (heapBefore - heapAfter));
+
+                advanceTo(t);
+                bucketPromoted += promoted;
+                totalPromoted += promoted;
+                promotedSinceFull += promoted;
+
+                if (collected > 0)
+                {
+                    totalCollected += collected;
+
+                    if (promoted > collected * PREMATURE_PROMOTION_THRESHOLD)
+                    {
+                        prematurePromotionCount ++;
+                    }
+                }
+            }
+        }
+        else
+        {
+            long ogBefore = get(e, FieldType.OG_BEFORE);
+            long ogAfter = get(e, FieldType.OG_AFTER);
+
+            if (ogBefore >= 0 && ogAfter >= 0 && promotedSinceFull > 0)
+            {
+                promotedBeforeFull += promotedSinceFull;
+                reclaimedByFull += Math.min(promotedSinceFull, Math.max(0L, ogBefore - ogAfter));
+            }
+
+            promotedSinceFull = 0L;
+        }
+
+        previousTime = t;
+        previousNgAfter = ngAfter;
+        previousHeapAfter = heapAfter;
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Records the last, possibly incomplete, bucket. Must be called once, after the last event was recorded.
+     */
+    public void close()
+    {
+        closeBucket();
+        bucketStart = -1L;
+    }
+
+    public long getBucketSize()
+    {
+        return bucketSize;
+    }
+
+    public long getNewGenerationCollectionCount()
+    {
+        return ngCount;
+    }
+
+    /**
+     * @return the per-bucket allocation rates, in KB/s.
+     */
+    public PauseHistogram getAllocationRates()
+    {
+        return allocationRates;
+    }
+
+    /**
+     * @return the per-bucket promotion rates, in KB/s.
+     */
+    public PauseHistogram getPromotionRates()
+    {
+        return promotionRates;
+    }
+
+    /**
+     * @return bytes.
+     */
+    public long getTotalAllocated()
+    {
+        return (long)totalAllocated;
+    }
+
+    /**
+     * @return bytes.
+     */
+    public long getTotalPromoted()
+    {
+        return totalPromoted;
+    }
+
+    /**
+     * @return the average allocation rate over the whole log, in bytes per second. 0 if not known.
+     */
+    public double getAverageAllocationRate()
+    {
+        return totalCovered == 0 ? 0d : totalAllocated * 1000 / totalCovered;
+    }
+
+    /**
+     * @return the average promotion rate over the whole log, in bytes per second. 0 if not known.
+     */
+    public double getAveragePromotionRate()
+    {
+        return totalCovered == 0 ? 0d : (double)totalPromoted * 1000 / totalCovered;
+    }
+
+    /**
+     * @return the fraction of the allocated bytes that were promoted, or null if nothing was allocated.
+     */
+    public Double getPromotionRatio()
+    {
+        return totalAllocated <= 0 ? null : totalPromoted / totalAllocated;
+    }
+
+    /**
+     * @return the fraction of the bytes leaving the young generation that were promoted, or null if not known.
+     */
+    public Double getSurvivalRatio()
+    {
+        return totalCollected == 0 ? null : (double)totalPromoted / totalCollected;
+    }
+
+    /**
+     * @return the fraction of the bytes promoted before a full collection that were reclaimed by it, or null if there
+     *         was no full collection following a promotion.
+     */
+    public Double getPromotedReclaimedRatio()
+    {
+        return promotedBeforeFull == 0 ? null : (double)reclaimedByFull / promotedBeforeFull;
+    }
+
+    /**
+     * @return the number of new generation collections that promoted more than PREMATURE_PROMOTION_THRESHOLD of the
+     *         bytes that left the young generation.
+     */
+    public long getPrematurePromotionCount()
+    {
+        return prematurePromotionCount;
+    }
+
+    /**
+     * @return a human readable table with the average, the percentiles and the peak of the per-bucket rates, in MB/s.
+     */
+    public String toTable()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("%-20s %10s", "", "average"));
+
+        for(double p: PauseDistribution.REPORTED_PERCENTILES)
+        {
+            sb.append(String.format(" %10s", "p" + (p == Math.rint(p) ? Long.toString((long)p) : Double.toString(p))));
+        }
+
+        sb.append(String.format(" %10s\n", "peak"));
+
+        appendRow(sb, "allocation", getAverageAllocationRate(), allocationRates);
+        appendRow(sb, "promotion", getAveragePromotionRate(), promotionRates);
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AllocationRates[" + ngCount + " NG collections]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static long get(GCEvent e, FieldType t)
+    {
+        Value v = e.get(t);
+
+        if (v == null || !(v.getValue() instanceof Long))
+        {
+            return -1L;
+        }
+
+        return (Long)v.getValue();
+    }
+
+    private static void appendRow(StringBuilder sb, String label, double average, PauseHistogram h)
+    {
+        sb.append(String.format("%-20s %10.2f", label, average / (1024 * 1024)));
+
+        for(double p: PauseDistribution.REPORTED_PERCENTILES)
+        {
+            sb.append(String.format(" %10.2f", (double)h.getValueAtPercentile(p) / 1024));
+        }
+
+        sb.append(String.format(" %10.2f\n", (double)h.getMax() / 1024));
+    }
+
+    /**
+     * Distributes the allocated bytes evenly over [start, end), bucket by bucket.
+     */
+    private void spread(long start, long end, long allocated)
+    {
+        if (end == start)
+        {
+            advanceTo(end);
+            bucketAllocated += allocated;
+            totalAllocated += allocated;
+            return;
+        }
+
+        double perMs = (double)allocated / (end - start);
+
+        for(long t = start; t < end; )
+        {
+            advanceTo(t);
+
+            long segmentEnd = Math.min(end, bucketStart + bucketSize);
+            long covered = segmentEnd - t;
+
+            bucketCovered += covered;
+            bucketAllocated += perMs * covered;
+            totalCovered += covered;
+            totalAllocated += perMs * covered;
+
+            t = segmentEnd;
+        }
+    }
+
+    /**
+     * Makes the bucket containing t current, recording the buckets left behind.
+     */
+    private void advanceTo(long t)
+    {
+        if (bucketStart < 0)
+        {
+            bucketStart = t;
+            return;
+        }
+
+        if (t < bucketStart + bucketSize)
+        {
+            return;
+        }
+
+        closeBucket();
+
+        bucketStart += ((t - bucketStart) / bucketSize) * bucketSize;
+    }
+
+    private void closeBucket()
+    {
+        if (bucketCovered > 0)
+        {
+            allocationRates.record((long)(bucketAllocated * 1000 / bucketCovered / 1024));
+            promotionRates.record(bucketPromoted * 1000 / bucketCovered / 1024);
+        }
+
+        bucketCovered = 0L;
+        bucketAllocated = 0d;
+        bucketPromoted = 0L;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
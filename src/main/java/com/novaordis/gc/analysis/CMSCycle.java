@@ -0,0 +1,238 @@
+package com.novaordis.gc.analysis;
+
+/**
+ * A CMS cycle, from the initial mark to the end of the concurrent reset, or to the event that interrupted it.
+ *
+ * The wall clock time of a stop-the-world phase is the pause; its CPU time is not known. The stop-the-world time of the
+ * cycle includes the initial mark, the remark and, if the cycle ended in a concurrent mode failure, the full
+ * collection that replaced it.
+ *
+ * @see CMSCycleAssembler
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSCycle
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long start;
+    private long end;
+    private Long initiatingOccupancy;
+    private Long initiatingCapacity;
+
+    // indexed by the phase ordinal, -1 if not known
+    private long[] wallTimes;
+    private long[] cpuTimes;
+
+    private long stopTheWorldTime;
+    private long failureTime;
+    private boolean promotionFailure;
+    private CMSCycleOutcome outcome;
+    private boolean open;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param start milliseconds, the beginning of the initial mark.
+     * @param initiatingOccupancy the old generation occupancy at the initial mark, in bytes. May be null.
+     * @param initiatingCapacity the old generation capacity at the initial mark, in bytes. May be null.
+     */
+    public CMSCycle(long start, Long initiatingOccupancy, Long initiatingCapacity)
+    {
+        this.start = start;
+        this.end = start;
+        this.initiatingOccupancy = initiatingOccupancy;
+        this.initiatingCapacity = initiatingCapacity;
+        this.wallTimes = new long[CMSPhase.values().length];
+        this.cpuTimes = new long[CMSPhase.values().length];
+        this.outcome = CMSCycleOutcome.INCOMPLETE;
+        this.open = true;
+
+        for(int i = 0; i < wallTimes.length; i ++)
+        {
+            wallTimes[i] = -1L;
+            cpuTimes[i] = -1L;
+        }
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return milliseconds.
+     */
+    public long getStart()
+    {
+        return start;
+    }
+
+    /**
+     * @return the time of the last event that belongs to the cycle, in milliseconds.
+     */
+    public long getEnd()
+    {
+        return end;
+    }
+
+    public long getDuration()
+    {
+        return end - start;
+    }
+
+    /**
+     * @return bytes, may be null.
+     */
+    public Long getInitiatingOccupancy()
+    {
+        return initiatingOccupancy;
+    }
+
+    /**
+     * @return bytes, may be null.
+     */
+    public Long getInitiatingCapacity()
+    {
+        return initiatingCapacity;
+    }
+
+    /**
+     * @return the old generation occupancy at the beginning of the cycle as a fraction of its capacity, or null if not
+     *         known.
+     */
+    public Double getInitiatingOccupancyFraction()
+    {
+        if (initiatingOccupancy == null || initiatingCapacity == null || initiatingCapacity == 0)
+        {
+            return null;
+        }
+
+        return (double)initiatingOccupancy / initiatingCapacity;
+    }
+
+    /**
+     * @return the wall clock time of the phase in milliseconds, or -1 if the phase was not logged.
+     */
+    public long getWallTime(CMSPhase phase)
+    {
+        return wallTimes[phase.ordinal()];
+    }
+
+    /**
+     * @return the CPU time of the phase in milliseconds, or -1 if not known.
+     */
+    public long getCpuTime(CMSPhase phase)
+    {
+        return cpuTimes[phase.ordinal()];
+    }
+
+    /**
+     * @return the total time the application was stopped by the cycle, in milliseconds.
+     */
+    public long getStopTheWorldTime()
+    {
+        return stopTheWorldTime;
+    }
+
+    /**
+     * @return the duration of the full collection that ended the cycle with a concurrent mode failure, in milliseconds.
+     *         0 if the cycle did not fail.
+     */
+    public long getFailureTime()
+    {
+        return failureTime;
+    }
+
+    /**
+     * @return true if a young generation collection failed to promote while the cycle was running.
+     */
+    public boolean isPromotionFailure()
+    {
+        return promotionFailure;
+    }
+
+    public CMSCycleOutcome getOutcome()
+    {
+        return outcome;
+    }
+
+    /**
+     * @return true while the cycle may still receive events.
+     */
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CMSCycle[" + start + ", " + outcome + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param wall milliseconds.
+     * @param cpu milliseconds, -1 if not known.
+     */
+    void recordPhase(CMSPhase phase, long time, long wall, long cpu)
+    {
+        // a phase may be logged more than once if it is aborted and restarted
+        int i = phase.ordinal();
+        wallTimes[i] = wallTimes[i] < 0 ? wall : wallTimes[i] + wall;
+
+        if (cpu >= 0)
+        {
+            cpuTimes[i] = cpuTimes[i] < 0 ? cpu : cpuTimes[i] + cpu;
+        }
+
+        if (phase.isStopTheWorld())
+        {
+            stopTheWorldTime += wall;
+        }
+
+        extendTo(time);
+    }
+
+    void recordPromotionFailure(long time)
+    {
+        promotionFailure = true;
+        extendTo(time);
+    }
+
+    /**
+     * @param duration the duration of the full collection, milliseconds.
+     */
+    void recordConcurrentModeFailure(long time, long duration)
+    {
+        failureTime = duration;
+        stopTheWorldTime += duration;
+        extendTo(time + duration);
+        close(CMSCycleOutcome.CONCURRENT_MODE_FAILURE);
+    }
+
+    void close(CMSCycleOutcome outcome)
+    {
+        this.outcome = outcome;
+        this.open = false;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void extendTo(long time)
+    {
+        if (time > end)
+        {
+            end = time;
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,409 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A state machine that assembles the CMS events into cycles, in a single pass over the events, in the order they were
+ * logged:
+ *
+ * 1. An initial mark starts a new cycle. If the previous cycle is still open, it is closed as INTERRUPTED.
+ *
+ * 2. The end of a concurrent phase (the event that carries the CPU and wall clock times) and the remark are recorded
+ *    into the current cycle. The phase start events are not needed.
+ *
+ * 3. The end of the concurrent reset closes the cycle as COMPLETED.
+ *
+ * 4. A full collection closes the current cycle as CONCURRENT_MODE_FAILURE if it is noted as such, and as INTERRUPTED
+ *    otherwise.
+ *
+ * 5. A young generation collection that fails promotion marks the current cycle.
+ *
+ * CMS events that arrive while no cycle is open (the log starts in the middle of a cycle) are ignored. An event older
+ * than the previous one (a restarted JVM) closes the current cycle as INCOMPLETE.
+ *
+ * The summary statistics are updated as the cycles close, so close() must be called after the last event.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSCycleAssembler
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private List<CMSCycle> cycles;
+    private CMSCycle current;
+
+    private long previousTime;
+    private boolean absolute;
+
+    private long[] outcomeCounts;
+    private long promotionFailureCount;
+
+    // the intervals between consecutive cycle starts
+    private long lastStart;
+    private long intervalSum;
+    private long intervalCount;
+
+    private long occupancyCount;
+    private double occupancySum;
+    private double occupancyMin;
+    private double occupancyMax;
+
+    private long stopTheWorldSum;
+    private long stopTheWorldMax;
+
+    // indexed by the phase ordinal
+    private long[] wallSums;
+    private long[] wallCounts;
+    private long[] cpuSums;
+    private long[] cpuCounts;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public CMSCycleAssembler()
+    {
+        this.cycles = new ArrayList<CMSCycle>();
+        this.previousTime = -1L;
+        this.outcomeCounts = new long[CMSCycleOutcome.values().length];
+        this.wallSums = new long[CMSPhase.values().length];
+        this.wallCounts = new long[CMSPhase.values().length];
+        this.cpuSums = new long[CMSPhase.values().length];
+        this.cpuCounts = new long[CMSPhase.values().length];
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        CollectionType ct = e.getCollectionType();
+        CMSPhase phase = CMSPhase.fromCollectionType(ct);
+
+        boolean ng = CollectionType.NEW_GENERATION_COLLECTION.equals(ct);
+        boolean full = CollectionType.FULL_COLLECTION.equals(ct);
+
+        if (phase == null && !ng && !full)
+        {
+            return;
+        }
+
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t == null || t < 0)
+        {
+            t = e.getOffset();
+
+            if (t == null || t < 0)
+            {
+                return;
+            }
+        }
+        else
+        {
+            absolute = true;
+        }
+
+        if (previousTime >= 0 && t < previousTime)
+        {
+            closeCurrent(CMSCycleOutcome.INCOMPLETE);
+        }
+
+        previousTime = t;
+
+        if (CMSPhase.INITIAL_MARK.equals(phase))
+        {
+            closeCurrent(CMSCycleOutcome.INTERRUPTED);
+
+            current = new CMSCycle(t, get(e, FieldType.OG), get(e, FieldType.OG_CAPACITY));
+            current.recordPhase(phase, t + e.getDuration(), e.getDuration(), -1L);
+            cycles.add(current);
+            return;
+        }
+
+        if (ng)
+        {
+            Value notes = e.get(FieldType.NOTES);
+
+            if (notes != null && NewGenerationCollection.PROMOTION_FAILED.equals(notes.getValue()))
+            {
+                promotionFailureCount ++;
+
+                if (current != null)
+                {
+                    current.recordPromotionFailure(t);
+                }
+            }
+
+            return;
+        }
+
+        if (current == null)
+        {
+            return;
+        }
+
+        if (full)
+        {
+            Value notes = e.get(FieldType.NOTES);
+
+            if (notes != null && FullCollection.CONCURRENT_MODE_FAILURE.equals(notes.getValue()))
+            {
+                current.recordConcurrentModeFailure(t, e.getDuration());
+                closeCurrent(CMSCycleOutcome.CONCURRENT_MODE_FAILURE);
+            }
+            else
+            {
+                closeCurrent(CMSCycleOutcome.INTERRUPTED);
+            }
+
+            return;
+        }
+
+        if (phase.isStopTheWorld())
+        {
+            current.recordPhase(phase, t + e.getDuration(), e.getDuration(), -1L);
+            return;
+        }
+
+        if (!(e instanceof CMSConcurrentPhase) || !((CMSConcurrentPhase)e).isEnd())
+        {
+            return;
+        }
+
+        CMSConcurrentPhase c = (CMSConcurrentPhase)e;
+        current.recordPhase(phase, t, c.getWallTime(), c.getCpuTime() == null ? -1L : c.getCpuTime());
+
+        if (CMSPhase.RESET.equals(phase))
+        {
+            closeCurrent(CMSCycleOutcome.COMPLETED);
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Closes the cycle still open, if any, as INCOMPLETE. Must be called once, after the last event was recorded.
+     */
+    public void close()
+    {
+        closeCurrent(CMSCycleOutcome.INCOMPLETE);
+    }
+
+    /**
+     * @return all cycles, in chronological order.
+     */
+    public List<CMSCycle> getCycles()
+    {
+        return cycles;
+    }
+
+    public long getCycleCount()
+    {
+        return cycles.size();
+    }
+
+    public long getCount(CMSCycleOutcome outcome)
+    {
+        return outcomeCounts[outcome.ordinal()];
+    }
+
+    /**
+     * @return the number of young generation collections that failed promotion, whether a cycle was running or not.
+     */
+    public long getPromotionFailureCount()
+    {
+        return promotionFailureCount;
+    }
+
+    /**
+     * @return the average time between the beginnings of two consecutive cycles, in milliseconds, or null if there are
+     *         fewer than two cycles.
+     */
+    public Double getAverageInterval()
+    {
+        return intervalCount == 0 ? null : (double)intervalSum / intervalCount;
+    }
+
+    /**
+     * @return the number of cycles per hour, or null if there are fewer than two cycles.
+     */
+    public Double getCyclesPerHour()
+    {
+        Double interval = getAverageInterval();
+        return interval == null || interval == 0d ? null : 3600d * 1000 / interval;
+    }
+
+    /**
+     * @return the lowest old generation occupancy fraction a cycle started at, or null if not known.
+     */
+    public Double getMinInitiatingOccupancyFraction()
+    {
+        return occupancyCount == 0 ? null : occupancyMin;
+    }
+
+    public Double getAverageInitiatingOccupancyFraction()
+    {
+        return occupancyCount == 0 ? null : occupancySum / occupancyCount;
+    }
+
+    public Double getMaxInitiatingOccupancyFraction()
+    {
+        return occupancyCount == 0 ? null : occupancyMax;
+    }
+
+    /**
+     * @return the average stop-the-world time per cycle, in milliseconds. 0 if there are no closed cycles.
+     */
+    public double getAverageStopTheWorldTime()
+    {
+        long closed = getClosedCount();
+        return closed == 0 ? 0d : (double)stopTheWorldSum / closed;
+    }
+
+    public long getMaxStopTheWorldTime()
+    {
+        return stopTheWorldMax;
+    }
+
+    /**
+     * @return the average wall clock time of the phase, in milliseconds, or null if the phase was never logged.
+     */
+    public Double getAverageWallTime(CMSPhase phase)
+    {
+        int i = phase.ordinal();
+        return wallCounts[i] == 0 ? null : (double)wallSums[i] / wallCounts[i];
+    }
+
+    /**
+     * @return the average CPU time of the phase, in milliseconds, or null if not known.
+     */
+    public Double getAverageCpuTime(CMSPhase phase)
+    {
+        int i = phase.ordinal();
+        return cpuCounts[i] == 0 ? null : (double)cpuSums[i] / cpuCounts[i];
+    }
+
+    /**
+     * @return true if the times are absolute (UTC milliseconds), false if they are offsets from the JVM start.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CMSCycleAssembler[" + cycles.size() + " cycles]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static Long get(GCEvent e, FieldType t)
+    {
+        Value v = e.get(t);
+
+        if (v == null || !(v.getValue() instanceof Long))
+        {
+            return null;
+        }
+
+        return (Long)v.getValue();
+    }
+
+    private long getClosedCount()
+    {
+        long closed = 0L;
+
+        for(long c: outcomeCounts)
+        {
+            closed += c;
+        }
+
+        return closed;
+    }
+
+    private void closeCurrent(CMSCycleOutcome outcome)
+    {
+        if (current == null)
+        {
+            return;
+        }
+
+        CMSCycle c = current;
+        current = null;
+
+        if (c.isOpen())
+        {
+            c.close(outcome);
+        }
+
+        outcomeCounts[c.getOutcome().ordinal()] ++;
+
+        if (cycles.size() > 1 && c.getStart() >= lastStart)
+        {
+            intervalSum += c.getStart() - lastStart;
+            intervalCount ++;
+        }
+
+        lastStart = c.getStart();
+
+        Double f = c.getInitiatingOccupancyFraction();
+
+        if (f != null)
+        {
+            occupancyMin = occupancyCount == 0 ? f : Math.min(occupancyMin, f);
+            occupancyMax = occupancyCount == 0 ? f : Math.max(occupancyMax, f);
+            occupancySum += f;
+            occupancyCount ++;
+        }
+
+        stopTheWorldSum += c.getStopTheWorldTime();
+        stopTheWorldMax = Math.max(stopTheWorldMax, c.getStopTheWorldTime());
+
+        for(CMSPhase p: CMSPhase.values())
+        {
+            int i = p.ordinal();
+
+            if (c.getWallTime(p) >= 0)
+            {
+                wallSums[i] += c.getWallTime(p);
+                wallCounts[i] ++;
+            }
+
+            if (c.getCpuTime(p) >= 0)
+            {
+                cpuSums[i] += c.getCpuTime(p);
+                cpuCounts[i] ++;
+            }
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
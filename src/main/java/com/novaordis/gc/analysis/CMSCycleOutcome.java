@@ -0,0 +1,21 @@
+package com.novaordis.gc.analysis;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public enum CMSCycleOutcome
+{
+    // the concurrent reset ended
+    COMPLETED,
+
+    // the old generation filled up before the cycle ended and a full collection replaced it
+    CONCURRENT_MODE_FAILURE,
+
+    // a new cycle or a full collection (System.gc(), for example) started before the cycle ended
+    INTERRUPTED,
+
+    // the log ended, or was restarted, before the cycle ended
+    INCOMPLETE
+}
@@ -0,0 +1,81 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+
+/**
+ * The phases of a CMS cycle, in the order they are executed.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public enum CMSPhase
+{
+    INITIAL_MARK("initial mark", CollectionType.CMS_INITIAL_MARK, true),
+    MARK("mark", CollectionType.CMS_CONCURRENT_MARK, false),
+    PRECLEAN("preclean", CollectionType.CMS_CONCURRENT_PRECLEAN, false),
+    ABORTABLE_PRECLEAN("abortable preclean", CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN, false),
+    REMARK("remark", CollectionType.CMS_REMARK, true),
+    SWEEP("sweep", CollectionType.CMS_CONCURRENT_SWEEP, false),
+    RESET("reset", CollectionType.CMS_CONCURRENT_RESET, false);
+
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the phase the given collection type belongs to, or null if the type is not a CMS phase.
+     */
+    public static CMSPhase fromCollectionType(CollectionType ct)
+    {
+        for(CMSPhase p: values())
+        {
+            if (p.collectionType.equals(ct))
+            {
+                return p;
+            }
+        }
+
+        return null;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String label;
+    private CollectionType collectionType;
+    private boolean stopTheWorld;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    CMSPhase(String label, CollectionType collectionType, boolean stopTheWorld)
+    {
+        this.label = label;
+        this.collectionType = collectionType;
+        this.stopTheWorld = stopTheWorld;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public String getLabel()
+    {
+        return label;
+    }
+
+    public CollectionType getCollectionType()
+    {
+        return collectionType;
+    }
+
+    public boolean isStopTheWorld()
+    {
+        return stopTheWorld;
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
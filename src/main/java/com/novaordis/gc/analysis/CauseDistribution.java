@@ -0,0 +1,236 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pause duration histograms, one per GC cause, built in a single streaming pass over the events. The causes are
+ * reported in the descending order of the total pause time they triggered, so the most expensive triggers come first.
+ *
+ * Only the stop-the-world events are recorded. The pauses logged without a cause (JDK 6 and older, or collectors that
+ * do not report it) are only counted. Distributions built over separate files or chunks can be merged.
+ *
+ * Not thread safe.
+ *
+ * @see PauseDistribution
+ * @see com.novaordis.gc.model.GCCause
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CauseDistribution
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // the causes are interned, the map only holds references to the canonical instances
+    private Map<String, PauseHistogram> histograms;
+
+    private long unknownCount;
+    private long unknownTime;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public CauseDistribution()
+    {
+        this.histograms = new HashMap<String, PauseHistogram>();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Records the duration of a stop-the-world event under its cause. Other events are ignored.
+     */
+    public void record(GCEvent e)
+    {
+        CollectionType t = e.getCollectionType();
+
+        if (t == null || !t.stopTheWorld)
+        {
+            return;
+        }
+
+        Value v = e.get(FieldType.CAUSE);
+
+        if (v == null)
+        {
+            unknownCount ++;
+            unknownTime += e.getDuration();
+            return;
+        }
+
+        getOrCreate((String)v.getValue()).record(e.getDuration());
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Adds the content of the other distribution to this one. The other distribution is not modified.
+     */
+    public void merge(CauseDistribution other)
+    {
+        for(Map.Entry<String, PauseHistogram> e: other.histograms.entrySet())
+        {
+            getOrCreate(e.getKey()).merge(e.getValue());
+        }
+
+        unknownCount += other.unknownCount;
+        unknownTime += other.unknownTime;
+    }
+
+    /**
+     * @return the histogram for the given cause, or null if no pause with that cause was recorded.
+     */
+    public PauseHistogram getHistogram(String cause)
+    {
+        return histograms.get(cause);
+    }
+
+    /**
+     * @return the causes for which at least one pause was recorded, in the descending order of their total pause time.
+     */
+    public List<String> getCauses()
+    {
+        List<String> causes = new ArrayList<String>(histograms.keySet());
+
+        Collections.sort(causes, new Comparator<String>()
+        {
+            @Override
+            public int compare(String c, String c2)
+            {
+                long t = histograms.get(c).getTotal();
+                long t2 = histograms.get(c2).getTotal();
+                return t < t2 ? 1 : t > t2 ? -1 : c.compareTo(c2);
+            }
+        });
+
+        return causes;
+    }
+
+    /**
+     * @return the number of pauses logged without a cause.
+     */
+    public long getUnknownCount()
+    {
+        return unknownCount;
+    }
+
+    /**
+     * @return the total duration of the pauses logged without a cause, in milliseconds.
+     */
+    public long getUnknownTime()
+    {
+        return unknownTime;
+    }
+
+    /**
+     * @return the total duration of all recorded pauses, with or without cause, in milliseconds.
+     */
+    public long getTotalTime()
+    {
+        long total = unknownTime;
+
+        for(PauseHistogram h: histograms.values())
+        {
+            total += h.getTotal();
+        }
+
+        return total;
+    }
+
+    /**
+     * @return a human readable table, one line per cause, most expensive first, with durations in milliseconds.
+     */
+    public String toTable()
+    {
+        StringBuilder sb = new StringBuilder();
+        long total = getTotalTime();
+
+        sb.append(String.format("%-30s %8s %12s %8s", "cause", "count", "total", "%"));
+
+        for(double p: PauseDistribution.REPORTED_PERCENTILES)
+        {
+            sb.append(String.format(" %8s", "p" + toString(p)));
+        }
+
+        sb.append(String.format(" %8s\n", "max"));
+
+        for(String c: getCauses())
+        {
+            PauseHistogram h = histograms.get(c);
+
+            sb.append(String.format("%-30s %8d %12d %8s", c, h.getCount(), h.getTotal(), toPercentage(h.getTotal(), total)));
+
+            for(double p: PauseDistribution.REPORTED_PERCENTILES)
+            {
+                sb.append(String.format(" %8d", h.getValueAtPercentile(p)));
+            }
+
+            sb.append(String.format(" %8d\n", h.getMax()));
+        }
+
+        if (unknownCount > 0)
+        {
+            sb.append(String.format("%-30s %8d %12d %8s\n",
+                "(not logged)", unknownCount, unknownTime, toPercentage(unknownTime, total)));
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CauseDistribution" + histograms.keySet();
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private PauseHistogram getOrCreate(String cause)
+    {
+        PauseHistogram h = histograms.get(cause);
+
+        if (h == null)
+        {
+            h = new PauseHistogram();
+            histograms.put(cause, h);
+        }
+
+        return h;
+    }
+
+    private static String toPercentage(long value, long total)
+    {
+        return total == 0 ? "" : String.format("%.1f", (double)value * 100 / total);
+    }
+
+    private static String toString(double percentile)
+    {
+        return percentile == Math.rint(percentile) ? Long.toString((long)percentile) : Double.toString(percentile);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
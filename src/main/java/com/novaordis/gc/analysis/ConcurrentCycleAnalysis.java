@@ -0,0 +1,517 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes the ZGC and Shenandoah cycles, in a single pass over the events: the cycle frequency and duration, the
+ * pauses, the time spent in each concurrent phase, the allocation stalls and the pacing delays per thread, and the
+ * heap headroom (the free heap) the cycles start with.
+ *
+ * The pauses of these collectors are short, what hurts the application are the allocation stalls (the allocating
+ * threads wait for the cycle to free memory) and the pacing delays (Shenandoah slows down the allocating threads to
+ * let the cycle keep up). Both mean the cycles start with too little headroom, so the headroom of the cycles that
+ * stalled is reported separately.
+ *
+ * The summary statistics are updated as the events are recorded, per phase name and per thread name, so the memory
+ * used does not depend on the number of cycles. The cycles are only kept if requested.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ConcurrentCycleAnalysis
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // the indexes of the per phase and per thread statistics
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int MAX = 2;
+
+    private static final Comparator<Map.Entry<String, long[]>> DESCENDING_SUM = new Comparator<Map.Entry<String, long[]>>()
+    {
+        @Override
+        public int compare(Map.Entry<String, long[]> e, Map.Entry<String, long[]> e2)
+        {
+            long s = e.getValue()[SUM];
+            long s2 = e2.getValue()[SUM];
+            return s > s2 ? -1 : s < s2 ? 1 : 0;
+        }
+    };
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean keepCycles;
+    private List<ConcurrentCycle> cycles;
+
+    private CollectionType collectionType;
+    private boolean absolute;
+
+    private long cycleCount;
+    private long durationSum;
+    private long durationMax;
+
+    // the intervals between consecutive cycle starts
+    private long lastStart;
+    private long intervalSum;
+    private long intervalCount;
+
+    // microseconds
+    private long pauseCount;
+    private long pauseSum;
+    private long pauseMax;
+
+    // count, sum (microseconds) and max (microseconds), in the order the phases were first logged
+    private Map<String, long[]> phases;
+
+    private long stallCount;
+    private long stallSum;
+    private long stallMax;
+    private long stalledCycleCount;
+    private Map<String, long[]> stallsPerThread;
+
+    private long pacingSum;
+    private Map<String, long[]> pacingPerThread;
+
+    private long headroomCount;
+    private long headroomMin;
+    private double headroomFractionSum;
+    private double headroomFractionMin;
+
+    private long stalledHeadroomCount;
+    private double stalledHeadroomFractionSum;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public ConcurrentCycleAnalysis()
+    {
+        this(false);
+    }
+
+    /**
+     * @param keepCycles true if the individual cycles should be kept, to be listed.
+     */
+    public ConcurrentCycleAnalysis(boolean keepCycles)
+    {
+        this.keepCycles = keepCycles;
+        this.cycles = new ArrayList<ConcurrentCycle>();
+        this.lastStart = -1L;
+        this.phases = new LinkedHashMap<String, long[]>();
+        this.stallsPerThread = new LinkedHashMap<String, long[]>();
+        this.pacingPerThread = new LinkedHashMap<String, long[]>();
+        this.headroomMin = -1L;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        if (!(e instanceof ConcurrentCycle))
+        {
+            return;
+        }
+
+        ConcurrentCycle c = (ConcurrentCycle)e;
+
+        if (collectionType == null)
+        {
+            collectionType = c.getCollectionType();
+        }
+
+        cycleCount ++;
+        durationSum += c.getDuration();
+        durationMax = Math.max(durationMax, c.getDuration());
+
+        if (keepCycles)
+        {
+            cycles.add(c);
+        }
+
+        // the events report -1 instead of missing time or offset
+        Long t = c.getTime();
+
+        if (t == null || t < 0)
+        {
+            t = c.getOffset();
+        }
+        else
+        {
+            absolute = true;
+        }
+
+        if (t != null && t >= 0)
+        {
+            // a restarted JVM starts a new sequence
+            if (lastStart >= 0 && t >= lastStart)
+            {
+                intervalSum += t - lastStart;
+                intervalCount ++;
+            }
+
+            lastStart = t;
+        }
+
+        for(int i = 0; i < c.getPhaseCount(); i ++)
+        {
+            String phase = c.getPhase(i);
+            int micros = c.getPhaseMicroseconds(i);
+
+            add(phases, phase, micros);
+
+            if (ConcurrentCycle.isPause(phase))
+            {
+                pauseCount ++;
+                pauseSum += micros;
+                pauseMax = Math.max(pauseMax, micros);
+            }
+        }
+
+        for(int i = 0; i < c.getStallCount(); i ++)
+        {
+            int micros = c.getStallMicroseconds(i);
+
+            add(stallsPerThread, c.getStallThread(i), micros);
+
+            stallCount ++;
+            stallSum += micros;
+            stallMax = Math.max(stallMax, micros);
+        }
+
+        for(int i = 0; i < c.getPacingCount(); i ++)
+        {
+            add(pacingPerThread, c.getPacingThread(i), c.getPacingMicroseconds(i));
+            pacingSum += c.getPacingMicroseconds(i);
+        }
+
+        if (c.getStallCount() > 0)
+        {
+            stalledCycleCount ++;
+        }
+
+        long headroom = c.getHeadroomAtStart();
+
+        if (headroom >= 0 && c.getHeapCapacityAtStart() > 0)
+        {
+            double fraction = (double)headroom / c.getHeapCapacityAtStart();
+
+            if (headroomCount == 0 || headroom < headroomMin)
+            {
+                headroomMin = headroom;
+            }
+
+            if (headroomCount == 0 || fraction < headroomFractionMin)
+            {
+                headroomFractionMin = fraction;
+            }
+
+            headroomCount ++;
+            headroomFractionSum += fraction;
+
+            if (c.getStallCount() > 0 || c.getPacingCount() > 0)
+            {
+                stalledHeadroomCount ++;
+                stalledHeadroomFractionSum += fraction;
+            }
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * @return ZGC_CYCLE or SHENANDOAH_CYCLE, or null if no cycle was recorded.
+     */
+    public CollectionType getCollectionType()
+    {
+        return collectionType;
+    }
+
+    /**
+     * @return true if the cycles were logged with absolute times, false if only with offsets.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    /**
+     * @return the cycles, in the order they were recorded, if they were kept, an empty list otherwise.
+     */
+    public List<ConcurrentCycle> getCycles()
+    {
+        return cycles;
+    }
+
+    public long getCycleCount()
+    {
+        return cycleCount;
+    }
+
+    /**
+     * @return the average cycle wall clock time in milliseconds, or null if there are no cycles.
+     */
+    public Double getAverageDuration()
+    {
+        return cycleCount == 0 ? null : (double)durationSum / cycleCount;
+    }
+
+    /**
+     * @return milliseconds.
+     */
+    public long getMaxDuration()
+    {
+        return durationMax;
+    }
+
+    /**
+     * @return the average interval between the start of consecutive cycles, in milliseconds, or null if there are
+     *         fewer than two cycles.
+     */
+    public Double getAverageInterval()
+    {
+        return intervalCount == 0 ? null : (double)intervalSum / intervalCount;
+    }
+
+    public long getPauseCount()
+    {
+        return pauseCount;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getPauseTime()
+    {
+        return pauseSum;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxPause()
+    {
+        return pauseMax;
+    }
+
+    /**
+     * @return the phase names (pauses and concurrent phases), in the order they were first logged.
+     */
+    public List<String> getPhases()
+    {
+        return new ArrayList<String>(phases.keySet());
+    }
+
+    public long getPhaseCount(String phase)
+    {
+        return get(phases, phase, COUNT);
+    }
+
+    /**
+     * @return the total time spent in the phase, in microseconds.
+     */
+    public long getPhaseTime(String phase)
+    {
+        return get(phases, phase, SUM);
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxPhaseTime(String phase)
+    {
+        return get(phases, phase, MAX);
+    }
+
+    public long getStallCount()
+    {
+        return stallCount;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getStallTime()
+    {
+        return stallSum;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxStall()
+    {
+        return stallMax;
+    }
+
+    /**
+     * @return the number of cycles during which at least one thread stalled.
+     */
+    public long getStalledCycleCount()
+    {
+        return stalledCycleCount;
+    }
+
+    /**
+     * @return the names of the threads that stalled, in descending order of their total stall time.
+     */
+    public List<String> getStalledThreads()
+    {
+        return sorted(stallsPerThread);
+    }
+
+    public long getStallCount(String thread)
+    {
+        return get(stallsPerThread, thread, COUNT);
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getStallTime(String thread)
+    {
+        return get(stallsPerThread, thread, SUM);
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxStall(String thread)
+    {
+        return get(stallsPerThread, thread, MAX);
+    }
+
+    /**
+     * @return the total pacing delay, in microseconds.
+     */
+    public long getPacingTime()
+    {
+        return pacingSum;
+    }
+
+    /**
+     * @return the names of the threads that were paced, in descending order of their total pacing delay.
+     */
+    public List<String> getPacedThreads()
+    {
+        return sorted(pacingPerThread);
+    }
+
+    /**
+     * @return the number of cycles during which the thread was paced.
+     */
+    public long getPacingCount(String thread)
+    {
+        return get(pacingPerThread, thread, COUNT);
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getPacingTime(String thread)
+    {
+        return get(pacingPerThread, thread, SUM);
+    }
+
+    /**
+     * @return the average free fraction of the heap at the start of the cycles, or null if the heap occupancy was not
+     *         logged.
+     */
+    public Double getAverageHeadroomFraction()
+    {
+        return headroomCount == 0 ? null : headroomFractionSum / headroomCount;
+    }
+
+    /**
+     * @return the smallest free fraction of the heap at the start of a cycle, or null if the heap occupancy was not
+     *         logged.
+     */
+    public Double getMinHeadroomFraction()
+    {
+        return headroomCount == 0 ? null : headroomFractionMin;
+    }
+
+    /**
+     * @return the smallest free heap at the start of a cycle, in bytes, or -1 if the heap occupancy was not logged.
+     */
+    public long getMinHeadroom()
+    {
+        return headroomMin;
+    }
+
+    /**
+     * @return the average free fraction of the heap at the start of the cycles during which threads stalled or were
+     *         paced, or null if there are no such cycles.
+     */
+    public Double getAverageStalledHeadroomFraction()
+    {
+        return stalledHeadroomCount == 0 ? null : stalledHeadroomFractionSum / stalledHeadroomCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentCycleAnalysis[" + cycleCount + " cycles]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static void add(Map<String, long[]> statistics, String name, long micros)
+    {
+        long[] s = statistics.get(name);
+
+        if (s == null)
+        {
+            s = new long[3];
+            statistics.put(name, s);
+        }
+
+        s[COUNT] ++;
+        s[SUM] += micros;
+        s[MAX] = Math.max(s[MAX], micros);
+    }
+
+    private static long get(Map<String, long[]> statistics, String name, int index)
+    {
+        long[] s = statistics.get(name);
+        return s == null ? 0L : s[index];
+    }
+
+    private static List<String> sorted(Map<String, long[]> statistics)
+    {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<Map.Entry<String, long[]>>(statistics.entrySet());
+        Collections.sort(entries, DESCENDING_SUM);
+
+        List<String> names = new ArrayList<String>();
+
+        for(Map.Entry<String, long[]> e: entries)
+        {
+            names.add(e.getKey());
+        }
+
+        return names;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,331 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statistics derived from the user, sys and real times of the stop-the-world collections:
+ *
+ * 1. The GC parallelism, (user + sys) / real. A parallel collector running on N threads that are not competing for the
+ *    CPU approaches N; a value close to 1 for a parallel collector means the GC threads did not run in parallel.
+ *
+ * 2. Sys-heavy pauses - pauses in which the kernel time exceeds SYS_HEAVY_FRACTION of the CPU time. They usually point
+ *    to page faults, memory being zeroed or transparent huge page compaction.
+ *
+ * 3. Starved pauses - pauses in which the real time exceeds STARVED_FACTOR times the CPU time. The GC threads were
+ *    waiting instead of running, which points to swapping, or to CPU starvation on the host (other processes,
+ *    hypervisor steal). Only the pauses at least MIN_STARVED_REAL_TIME long are considered, as the times are logged
+ *    with a 10 ms resolution. The worst MAX_REPORTED_PAUSES are retained.
+ *
+ * Concurrent phases are not pauses and they are ignored.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CpuTimes
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final double SYS_HEAVY_FRACTION = 0.3d;
+
+    public static final double STARVED_FACTOR = 1.5d;
+
+    // milliseconds
+    public static final long MIN_STARVED_REAL_TIME = 100L;
+
+    // milliseconds, shorter pauses are not considered sys-heavy, their times are mostly rounding
+    public static final long MIN_SYS_HEAVY_CPU_TIME = 50L;
+
+    public static final int MAX_REPORTED_PAUSES = 10;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long count;
+    private long userSum;
+    private long sysSum;
+    private long realSum;
+
+    private double minParallelism;
+    private double maxParallelism;
+    private long parallelismCount;
+
+    private long sysHeavyCount;
+    private long starvedCount;
+
+    // the worst starved pauses, in descending order of their excess real time
+    private List<Pause> starved;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public CpuTimes()
+    {
+        this.starved = new ArrayList<Pause>();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        CollectionType ct = e.getCollectionType();
+
+        if (ct == null || !ct.stopTheWorld)
+        {
+            return;
+        }
+
+        long user = get(e, FieldType.USER_TIME);
+        long sys = get(e, FieldType.SYS_TIME);
+        long real = get(e, FieldType.REAL_TIME);
+
+        if (user < 0 || sys < 0 || real < 0)
+        {
+            return;
+        }
+
+        count ++;
+        userSum += user;
+        sysSum += sys;
+        realSum += real;
+
+        long cpu = user + sys;
+
+        if (real > 0)
+        {
+            double p = (double)cpu / real;
+            minParallelism = parallelismCount == 0 ? p : Math.min(minParallelism, p);
+            maxParallelism = parallelismCount == 0 ? p : Math.max(maxParallelism, p);
+            parallelismCount ++;
+        }
+
+        if (cpu >= MIN_SYS_HEAVY_CPU_TIME && sys > SYS_HEAVY_FRACTION * cpu)
+        {
+            sysHeavyCount ++;
+        }
+
+        if (real >= MIN_STARVED_REAL_TIME && real > STARVED_FACTOR * cpu)
+        {
+            starvedCount ++;
+            retain(new Pause(e, user, sys, real));
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * @return the number of pauses whose times are known.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return milliseconds.
+     */
+    public long getUserTime()
+    {
+        return userSum;
+    }
+
+    /**
+     * @return milliseconds.
+     */
+    public long getSysTime()
+    {
+        return sysSum;
+    }
+
+    /**
+     * @return milliseconds.
+     */
+    public long getRealTime()
+    {
+        return realSum;
+    }
+
+    /**
+     * @return the overall GC parallelism, the total CPU time over the total real time, or null if not known.
+     */
+    public Double getParallelism()
+    {
+        return realSum == 0 ? null : (double)(userSum + sysSum) / realSum;
+    }
+
+    public Double getMinParallelism()
+    {
+        return parallelismCount == 0 ? null : minParallelism;
+    }
+
+    public Double getMaxParallelism()
+    {
+        return parallelismCount == 0 ? null : maxParallelism;
+    }
+
+    /**
+     * @return the fraction of the GC CPU time spent in the kernel, or null if not known.
+     */
+    public Double getSysFraction()
+    {
+        return userSum + sysSum == 0 ? null : (double)sysSum / (userSum + sysSum);
+    }
+
+    public long getSysHeavyCount()
+    {
+        return sysHeavyCount;
+    }
+
+    public long getStarvedCount()
+    {
+        return starvedCount;
+    }
+
+    /**
+     * @return the worst starved pauses, at most MAX_REPORTED_PAUSES, worst first.
+     */
+    public List<Pause> getStarvedPauses()
+    {
+        return starved;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CpuTimes[" + count + " pauses]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static long get(GCEvent e, FieldType t)
+    {
+        Value v = e.get(t);
+
+        if (v == null || !(v.getValue() instanceof Long))
+        {
+            return -1L;
+        }
+
+        return (Long)v.getValue();
+    }
+
+    private void retain(Pause p)
+    {
+        int i = starved.size();
+
+        while(i > 0 && starved.get(i - 1).getExcess() < p.getExcess())
+        {
+            i --;
+        }
+
+        if (i >= MAX_REPORTED_PAUSES)
+        {
+            return;
+        }
+
+        starved.add(i, p);
+
+        if (starved.size() > MAX_REPORTED_PAUSES)
+        {
+            starved.remove(starved.size() - 1);
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+
+    public static class Pause
+    {
+        private long time;
+        private boolean absolute;
+        private CollectionType collectionType;
+        private long user;
+        private long sys;
+        private long real;
+
+        Pause(GCEvent e, long user, long sys, long real)
+        {
+            Long t = e.getTime();
+
+            if (t != null && t >= 0)
+            {
+                this.time = t;
+                this.absolute = true;
+            }
+            else
+            {
+                t = e.getOffset();
+                this.time = t == null ? -1L : t;
+            }
+
+            this.collectionType = e.getCollectionType();
+            this.user = user;
+            this.sys = sys;
+            this.real = real;
+        }
+
+        /**
+         * @return the time of the pause, or its offset if isAbsolute() is false, in milliseconds. -1 if not known.
+         */
+        public long getTime()
+        {
+            return time;
+        }
+
+        public boolean isAbsolute()
+        {
+            return absolute;
+        }
+
+        public CollectionType getCollectionType()
+        {
+            return collectionType;
+        }
+
+        public long getUser()
+        {
+            return user;
+        }
+
+        public long getSys()
+        {
+            return sys;
+        }
+
+        public long getReal()
+        {
+            return real;
+        }
+
+        /**
+         * @return the real time not accounted for by the CPU time, in milliseconds.
+         */
+        public long getExcess()
+        {
+            return real - user - sys;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Pause[" + time + ", user=" + user + ", sys=" + sys + ", real=" + real + "]";
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.List;
+
+/**
+ * Tracks the live data size trends, the old generation and the heap, as sampled after the collections that are
+ * expected to leave only live objects behind:
+ *
+ * 1. Full collections - OG_AFTER for the old generation, HEAP_AFTER for the heap.
+ *
+ * 2. CMS remarks - the old generation occupancy at the end of the marking. It includes the garbage promoted since the
+ *    beginning of the cycle, so it is an upper bound of the live data.
+ *
+ * The events can be recorded one by one as they are parsed and the trends can be queried at any time.
+ *
+ * Not thread safe.
+ *
+ * @see LiveSetTrend
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LeakDetector
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private LiveSetTrend oldGeneration;
+    private LiveSetTrend heap;
+    private boolean absolute;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public LeakDetector()
+    {
+        this.oldGeneration = new LiveSetTrend("old generation");
+        this.heap = new LiveSetTrend("heap");
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        CollectionType ct = e.getCollectionType();
+
+        if (!CollectionType.FULL_COLLECTION.equals(ct) && !CollectionType.CMS_REMARK.equals(ct))
+        {
+            return;
+        }
+
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t == null || t < 0)
+        {
+            t = e.getOffset();
+
+            if (t == null || t < 0)
+            {
+                return;
+            }
+        }
+        else
+        {
+            absolute = true;
+        }
+
+        if (CollectionType.FULL_COLLECTION.equals(ct))
+        {
+            record(oldGeneration, t, e, FieldType.OG_AFTER, FieldType.OG_CAPACITY);
+            record(heap, t, e, FieldType.HEAP_AFTER, FieldType.HEAP_CAPACITY);
+        }
+        else
+        {
+            record(oldGeneration, t, e, FieldType.OG, FieldType.OG_CAPACITY);
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    public LiveSetTrend getOldGeneration()
+    {
+        return oldGeneration;
+    }
+
+    public LiveSetTrend getHeap()
+    {
+        return heap;
+    }
+
+    /**
+     * @return true if the times are absolute (UTC milliseconds), false if they are offsets from the JVM start.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LeakDetector[" + oldGeneration + ", " + heap + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static void record(LiveSetTrend trend, long time, GCEvent e, FieldType value, FieldType capacity)
+    {
+        Long v = get(e, value);
+
+        if (v == null)
+        {
+            return;
+        }
+
+        trend.record(time, v, get(e, capacity));
+    }
+
+    private static Long get(GCEvent e, FieldType t)
+    {
+        Value v = e.get(t);
+
+        if (v == null || !(v.getValue() instanceof Long))
+        {
+            return null;
+        }
+
+        return (Long)v.getValue();
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
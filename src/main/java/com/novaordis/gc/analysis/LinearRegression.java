@@ -0,0 +1,135 @@
+package com.novaordis.gc.analysis;
+
+/**
+ * Streaming ordinary least squares fit of y = intercept + slope * x. Only the means and the centered second moments
+ * are kept, updated with Welford's method, so the memory is constant and the result does not suffer from the
+ * cancellation that the naive sums have on large time values.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LinearRegression
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long count;
+    private double meanX;
+    private double meanY;
+
+    // sums of the squared (cross) deviations from the means
+    private double sxx;
+    private double syy;
+    private double sxy;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void add(double x, double y)
+    {
+        count ++;
+
+        double dx = x - meanX;
+        double dy = y - meanY;
+
+        meanX += dx / count;
+        meanY += dy / count;
+
+        // uses the old deviation of one variable and the new deviation of the other
+        sxx += dx * (x - meanX);
+        syy += dy * (y - meanY);
+        sxy += dx * (y - meanY);
+    }
+
+    public void reset()
+    {
+        count = 0L;
+        meanX = 0d;
+        meanY = 0d;
+        sxx = 0d;
+        syy = 0d;
+        sxy = 0d;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public double getMeanX()
+    {
+        return meanX;
+    }
+
+    public double getMeanY()
+    {
+        return meanY;
+    }
+
+    /**
+     * @return 0 if fewer than two distinct x values were added.
+     */
+    public double getSlope()
+    {
+        return sxx == 0d ? 0d : sxy / sxx;
+    }
+
+    public double getIntercept()
+    {
+        return meanY - getSlope() * meanX;
+    }
+
+    public double predict(double x)
+    {
+        return meanY + getSlope() * (x - meanX);
+    }
+
+    /**
+     * @return the coefficient of determination, between 0 and 1. 0 if it cannot be computed.
+     */
+    public double getRSquared()
+    {
+        if (sxx == 0d || syy == 0d)
+        {
+            return 0d;
+        }
+
+        return (sxy * sxy) / (sxx * syy);
+    }
+
+    /**
+     * @return the standard deviation of the residuals. 0 if there are fewer than three points.
+     */
+    public double getResidualStandardDeviation()
+    {
+        if (count < 3)
+        {
+            return 0d;
+        }
+
+        double sse = syy - (sxx == 0d ? 0d : sxy * sxy / sxx);
+
+        return sse <= 0d ? 0d : Math.sqrt(sse / (count - 2));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LinearRegression[" + count + " points, slope " + getSlope() + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
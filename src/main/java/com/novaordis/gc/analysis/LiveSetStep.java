@@ -0,0 +1,60 @@
+package com.novaordis.gc.analysis;
+
+/**
+ * A sudden, lasting change of the live data size.
+ *
+ * @see LiveSetTrend
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LiveSetStep
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long time;
+    private long size;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param time the time of the first sample at the new level, in milliseconds.
+     * @param size the change in bytes, negative if the live data dropped.
+     */
+    public LiveSetStep(long time, long size)
+    {
+        this.time = time;
+        this.size = size;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LiveSetStep[" + time + ", " + size + " bytes]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,318 @@
+package com.novaordis.gc.analysis;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The trend of a live data size series (occupancy after a collection that is expected to leave only live objects),
+ * fitted incrementally with least squares. Samples can be added at any time and the trend queried in between, so the
+ * analysis can follow a log that is still being written. The memory is bounded: the regressions keep constant state and
+ * only the most recent MAX_REPORTED_STEPS step changes are retained.
+ *
+ * Step detection: once the current segment has MIN_SEGMENT_SAMPLES samples, each new sample is compared with the
+ * segment's prediction. A sample that deviates by more than STEP_DEVIATIONS residual standard deviations, and by more
+ * than STEP_FRACTION of the capacity (or of the mean, if the capacity is not known), is held back. If the next
+ * sample deviates in the same direction as well, a step change is recorded and a new segment starts with the held
+ * samples; otherwise, the held sample is considered an outlier and added to the segment. Growth and time to exhaustion
+ * are estimated from the current segment, so a one-off step does not pass for a leak.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LiveSetTrend
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final int MIN_SEGMENT_SAMPLES = 3;
+
+    public static final int STEP_CONFIRMATION_SAMPLES = 2;
+
+    public static final double STEP_DEVIATIONS = 4d;
+
+    public static final double STEP_FRACTION = 0.05d;
+
+    public static final int MIN_TREND_SAMPLES = 5;
+
+    public static final double MIN_R_SQUARED = 0.5d;
+
+    // the growth over the segment, relative to the capacity, that qualifies as sustained
+    public static final double MIN_GROWTH_FRACTION = 0.01d;
+
+    public static final int MAX_REPORTED_STEPS = 20;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String name;
+
+    private long origin;
+    private long sampleCount;
+    private long firstTime;
+    private long lastTime;
+    private long lastValue;
+    private long segmentStart;
+    private Long capacity;
+
+    private LinearRegression overall;
+    private LinearRegression segment;
+
+    // samples held back while deciding whether they are a step change
+    private long[] heldTimes;
+    private long[] heldValues;
+    private int heldCount;
+
+    private LinkedList<LiveSetStep> steps;
+    private long stepCount;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public LiveSetTrend(String name)
+    {
+        this.name = name;
+        this.overall = new LinearRegression();
+        this.segment = new LinearRegression();
+        this.heldTimes = new long[STEP_CONFIRMATION_SAMPLES];
+        this.heldValues = new long[STEP_CONFIRMATION_SAMPLES];
+        this.steps = new LinkedList<LiveSetStep>();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param time milliseconds.
+     * @param value bytes.
+     * @param capacity bytes, may be null if not known.
+     */
+    public void record(long time, long value, Long capacity)
+    {
+        if (sampleCount == 0)
+        {
+            origin = time;
+            firstTime = time;
+            segmentStart = time;
+        }
+
+        sampleCount ++;
+        lastTime = time;
+        lastValue = value;
+
+        if (capacity != null)
+        {
+            this.capacity = capacity;
+        }
+
+        double x = time - origin;
+        overall.add(x, value);
+
+        if (segment.getCount() < MIN_SEGMENT_SAMPLES)
+        {
+            segment.add(x, value);
+            return;
+        }
+
+        double deviation = value - segment.predict(x);
+
+        if (!isStep(deviation))
+        {
+            // the held samples, if any, were outliers
+            releaseHeld();
+            segment.add(x, value);
+            return;
+        }
+
+        if (heldCount > 0 && Math.signum(heldValues[0] - segment.predict(heldTimes[0] - origin)) != Math.signum(deviation))
+        {
+            releaseHeld();
+        }
+
+        heldTimes[heldCount] = time;
+        heldValues[heldCount] = value;
+        heldCount ++;
+
+        if (heldCount < STEP_CONFIRMATION_SAMPLES)
+        {
+            return;
+        }
+
+        // confirmed, start a new segment with the held samples
+
+        long size = 0L;
+
+        for(int i = 0; i < heldCount; i ++)
+        {
+            size += heldValues[i] - (long)segment.predict(heldTimes[i] - origin);
+        }
+
+        steps.add(new LiveSetStep(heldTimes[0], size / heldCount));
+        stepCount ++;
+
+        if (steps.size() > MAX_REPORTED_STEPS)
+        {
+            steps.removeFirst();
+        }
+
+        segment.reset();
+        segmentStart = heldTimes[0];
+
+        for(int i = 0; i < heldCount; i ++)
+        {
+            segment.add(heldTimes[i] - origin, heldValues[i]);
+        }
+
+        heldCount = 0;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getSampleCount()
+    {
+        return sampleCount;
+    }
+
+    public long getFirstTime()
+    {
+        return firstTime;
+    }
+
+    public long getLastTime()
+    {
+        return lastTime;
+    }
+
+    public long getLastValue()
+    {
+        return lastValue;
+    }
+
+    /**
+     * @return the time the current segment (the samples after the last step change) starts at.
+     */
+    public long getSegmentStart()
+    {
+        return segmentStart;
+    }
+
+    /**
+     * @return the most recently reported capacity, may be null.
+     */
+    public Long getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the regression over all the samples. The time (x) is in milliseconds relative to the first sample.
+     */
+    public LinearRegression getOverall()
+    {
+        return overall;
+    }
+
+    /**
+     * @return the regression over the current segment. The time (x) is in milliseconds relative to the first sample.
+     */
+    public LinearRegression getSegment()
+    {
+        return segment;
+    }
+
+    /**
+     * @return the growth rate of the current segment, in bytes per hour.
+     */
+    public double getGrowthRate()
+    {
+        return segment.getSlope() * 3600 * 1000;
+    }
+
+    /**
+     * @return true if the live data grows steadily over the current segment.
+     */
+    public boolean isGrowing()
+    {
+        if (segment.getCount() < MIN_TREND_SAMPLES || segment.getSlope() <= 0 ||
+            segment.getRSquared() < MIN_R_SQUARED)
+        {
+            return false;
+        }
+
+        double growth = segment.getSlope() * (lastTime - segmentStart);
+
+        return growth >= MIN_GROWTH_FRACTION * getReference();
+    }
+
+    /**
+     * @return the estimated time, in milliseconds after the last sample, until the live data reaches the capacity if the
+     *         current growth continues. Null if the live data is not growing or the capacity is not known.
+     */
+    public Long getTimeToExhaustion()
+    {
+        if (capacity == null || !isGrowing())
+        {
+            return null;
+        }
+
+        double remaining = capacity - segment.predict(lastTime - origin);
+
+        return remaining <= 0 ? 0L : (long)(remaining / segment.getSlope());
+    }
+
+    /**
+     * @return the most recent step changes, at most MAX_REPORTED_STEPS, in chronological order.
+     */
+    public List<LiveSetStep> getSteps()
+    {
+        return new ArrayList<LiveSetStep>(steps);
+    }
+
+    /**
+     * @return the total number of step changes detected, including the ones that are no longer retained.
+     */
+    public long getStepCount()
+    {
+        return stepCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LiveSetTrend[" + name + ", " + sampleCount + " samples]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private double getReference()
+    {
+        return capacity != null ? capacity : segment.getMeanY();
+    }
+
+    private boolean isStep(double deviation)
+    {
+        double d = Math.abs(deviation);
+
+        return d > STEP_DEVIATIONS * segment.getResidualStandardDeviation() && d > STEP_FRACTION * getReference();
+    }
+
+    private void releaseHeld()
+    {
+        for(int i = 0; i < heldCount; i ++)
+        {
+            segment.add(heldTimes[i] - origin, heldValues[i]);
+        }
+
+        heldCount = 0;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
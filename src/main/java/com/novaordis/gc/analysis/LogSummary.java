@@ -0,0 +1,158 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.Restart;
+
+import java.util.List;
+
+/**
+ * The few numbers that summarize a GC log in a fleet report, built in a single streaming pass over the events: the
+ * pause distribution, the number of full collections and the GC overhead, the fraction of the elapsed time spent in
+ * stop-the-world pauses. The summaries of several logs can be merged.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSummary
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private PauseDistribution pauses;
+    private long fullCollectionCount;
+
+    // the sum of the elapsed times of the completed runs and of the merged summaries, in milliseconds
+    private long elapsed;
+
+    // the offsets of the beginning of the first event and of the end of the last event of the current run, null
+    // until an event with an offset is recorded
+    private Long begin;
+    private Long end;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public LogSummary()
+    {
+        this.pauses = new PauseDistribution();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        pauses.record(e);
+
+        if (e instanceof FullCollection)
+        {
+            fullCollectionCount ++;
+        }
+
+        if (e instanceof Restart)
+        {
+            // the offsets of the next run start over
+            closeRun();
+            return;
+        }
+
+        Long t = e.getOffset();
+
+        if (t == null || t < 0)
+        {
+            // no offset, fall back to the time
+            t = e.getTime();
+        }
+
+        if (t == null || t < 0)
+        {
+            return;
+        }
+
+        begin = begin == null ? t : Math.min(begin, t);
+        end = end == null ? t + e.getDuration() : Math.max(end, t + e.getDuration());
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Adds the content of the other summary to this one. The other summary is not modified.
+     */
+    public void merge(LogSummary other)
+    {
+        pauses.merge(other.pauses);
+        fullCollectionCount += other.fullCollectionCount;
+        elapsed += other.getElapsed();
+    }
+
+    public PauseDistribution getPauses()
+    {
+        return pauses;
+    }
+
+    /**
+     * @return the number of stop-the-world pauses.
+     */
+    public long getPauseCount()
+    {
+        return pauses.getAll().getCount();
+    }
+
+    public long getFullCollectionCount()
+    {
+        return fullCollectionCount;
+    }
+
+    /**
+     * @return the time between the beginning of the first event and the end of the last one, summed over the runs of
+     *         the log (separated by restarts) and over the merged summaries, in milliseconds.
+     */
+    public long getElapsed()
+    {
+        return elapsed + (begin == null ? 0L : end - begin);
+    }
+
+    /**
+     * @return the fraction of the elapsed time spent in stop-the-world pauses, or null if no time elapsed.
+     */
+    public Double getOverhead()
+    {
+        long t = getElapsed();
+        return t <= 0 ? null : (double)pauses.getAll().getTotal() / t;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LogSummary[" + getPauseCount() + " pauses, " + fullCollectionCount + " full]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void closeRun()
+    {
+        if (begin != null)
+        {
+            elapsed += end - begin;
+            begin = null;
+            end = null;
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,269 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.List;
+
+/**
+ * The class metadata footprint and the collections it triggers:
+ *
+ * 1. The metaspace occupancy after each full collection, which is the live class metadata. A minimum that keeps
+ *    growing from one full collection to the next points to a class loader leak.
+ *
+ * 2. The full collections triggered by the metadata rather than by the heap ("Metadata GC Threshold",
+ *    "Last ditch collection", "Permanent Generation Full"). They are wasted heap work: the heap is collected because
+ *    the metaspace reached its high water mark, which is usually a sign that MetaspaceSize is too small. The metaspace
+ *    occupancy they start at is the high water mark at the time.
+ *
+ * 3. The young collections with the same cause: the Parallel collector and G1 run a young collection before the full
+ *    collection.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MetaspaceAnalysis
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long fullCollectionCount;
+    private long fullCollectionTime;
+
+    // full collections that logged the metaspace
+    private long metaspaceCount;
+    private long minAfter;
+    private long maxAfter;
+    private long lastAfter;
+    private long lastReserved;
+    private long reclaimed;
+
+    private long triggeredCount;
+    private long triggeredTime;
+    private long minThreshold;
+    private long maxThreshold;
+    private long thresholdCount;
+
+    private long youngTriggeredCount;
+    private long youngTriggeredTime;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public MetaspaceAnalysis()
+    {
+        this.lastReserved = -1L;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        if (e instanceof FullCollection)
+        {
+            record((FullCollection)e);
+        }
+        else if (CollectionType.NEW_GENERATION_COLLECTION.equals(e.getCollectionType()))
+        {
+            Value cause = e.get(FieldType.CAUSE);
+
+            if (cause != null && GCCause.METADATA_GC_THRESHOLD == cause.getValue())
+            {
+                youngTriggeredCount ++;
+                youngTriggeredTime += e.getDuration();
+            }
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    public long getFullCollectionCount()
+    {
+        return fullCollectionCount;
+    }
+
+    /**
+     * @return the number of full collections that logged the metaspace occupancy (JDK 8 and newer).
+     */
+    public long getMetaspaceCount()
+    {
+        return metaspaceCount;
+    }
+
+    /**
+     * @return the lowest metaspace occupancy after a full collection, in bytes, or null if not known.
+     */
+    public Long getMinAfter()
+    {
+        return metaspaceCount == 0 ? null : minAfter;
+    }
+
+    public Long getMaxAfter()
+    {
+        return metaspaceCount == 0 ? null : maxAfter;
+    }
+
+    /**
+     * @return the metaspace occupancy after the last full collection, in bytes, or null if not known.
+     */
+    public Long getLastAfter()
+    {
+        return metaspaceCount == 0 ? null : lastAfter;
+    }
+
+    /**
+     * @return the reserved metaspace logged by the last full collection, in bytes, or null if not known.
+     */
+    public Long getLastReserved()
+    {
+        return lastReserved < 0 ? null : lastReserved;
+    }
+
+    /**
+     * @return the metadata reclaimed by all full collections, in bytes.
+     */
+    public long getReclaimed()
+    {
+        return reclaimed;
+    }
+
+    /**
+     * @return the number of full collections triggered by the class metadata.
+     */
+    public long getTriggeredCount()
+    {
+        return triggeredCount;
+    }
+
+    /**
+     * @return the total duration of the full collections triggered by the class metadata, in milliseconds.
+     */
+    public long getTriggeredTime()
+    {
+        return triggeredTime;
+    }
+
+    /**
+     * @return the fraction of the full collection time spent in collections triggered by the class metadata, or null
+     *         if there were no full collections.
+     */
+    public Double getTriggeredTimeFraction()
+    {
+        return fullCollectionTime == 0 ? null : (double)triggeredTime / fullCollectionTime;
+    }
+
+    /**
+     * @return the lowest metaspace occupancy a metadata-triggered full collection started at, in bytes, or null if not
+     *         known.
+     */
+    public Long getMinThreshold()
+    {
+        return thresholdCount == 0 ? null : minThreshold;
+    }
+
+    public Long getMaxThreshold()
+    {
+        return thresholdCount == 0 ? null : maxThreshold;
+    }
+
+    public long getYoungTriggeredCount()
+    {
+        return youngTriggeredCount;
+    }
+
+    /**
+     * @return milliseconds.
+     */
+    public long getYoungTriggeredTime()
+    {
+        return youngTriggeredTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MetaspaceAnalysis[" + metaspaceCount + " full collections, " + triggeredCount + " triggered]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void record(FullCollection e)
+    {
+        fullCollectionCount ++;
+        fullCollectionTime += e.getDuration();
+
+        long before = get(e, FieldType.METASPACE_BEFORE);
+        long after = get(e, FieldType.METASPACE_AFTER);
+
+        if (after >= 0)
+        {
+            minAfter = metaspaceCount == 0 ? after : Math.min(minAfter, after);
+            maxAfter = metaspaceCount == 0 ? after : Math.max(maxAfter, after);
+            lastAfter = after;
+            metaspaceCount ++;
+
+            if (before > after)
+            {
+                reclaimed += before - after;
+            }
+
+            long reserved = get(e, FieldType.METASPACE_RESERVED);
+
+            if (reserved >= 0)
+            {
+                lastReserved = reserved;
+            }
+        }
+
+        if (!e.isMetadataTriggered())
+        {
+            return;
+        }
+
+        triggeredCount ++;
+        triggeredTime += e.getDuration();
+
+        // the permanent generation fills up at its capacity, the metaspace threshold is only visible in the occupancy
+        long threshold = before >= 0 ? before : get(e, FieldType.PG_BEFORE);
+
+        if (threshold >= 0)
+        {
+            minThreshold = thresholdCount == 0 ? threshold : Math.min(minThreshold, threshold);
+            maxThreshold = thresholdCount == 0 ? threshold : Math.max(maxThreshold, threshold);
+            thresholdCount ++;
+        }
+    }
+
+    private static long get(GCEvent e, FieldType t)
+    {
+        Value v = e.get(t);
+
+        if (v == null || !(v.getValue() instanceof Long))
+        {
+            return -1L;
+        }
+
+        return (Long)v.getValue();
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
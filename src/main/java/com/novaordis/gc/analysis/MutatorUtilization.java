@@ -0,0 +1,414 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * GC overhead over sliding time windows and minimum mutator utilization (MMU).
+ *
+ * The stop-the-world pauses are recorded as [start, end) intervals, in primitive arrays. For a given window size, the
+ * window with the most GC time either starts at the beginning of a pause or ends at the end of one, so it is enough to
+ * evaluate those 2n candidate windows. The candidates are visited in increasing order, and both ends of the window
+ * only move forward, so the cumulated GC time at the window ends is maintained with two cursors over a prefix sum
+ * array: one O(n) sweep per window size.
+ *
+ * Windows are kept within the span of the log (from the first event start to the last event end); a window larger than
+ * the span covers the whole log.
+ *
+ * Times are absolute (UTC milliseconds) when the events have them, offsets from the JVM start otherwise.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MutatorUtilization
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Window sizes (milliseconds) the MMU curve is computed for, by default.
+     */
+    public static final long[] DEFAULT_CURVE_WINDOW_SIZES = new long[]
+        {
+            10L, 50L, 100L, 500L, 1000L, 5000L, 10000L, 30000L, 60000L, 300000L, 600000L, 3600000L
+        };
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long[] starts;
+    private long[] ends;
+    private int size;
+
+    private long logStart;
+    private long logEnd;
+    private boolean absolute;
+    private boolean sorted;
+
+    // prefix sums, cumulated[i] is the GC time of the first i pauses; lazily computed
+    private long[] cumulated;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public MutatorUtilization()
+    {
+        this.starts = new long[INITIAL_CAPACITY];
+        this.ends = new long[INITIAL_CAPACITY];
+        this.logStart = Long.MAX_VALUE;
+        this.logEnd = Long.MIN_VALUE;
+        this.sorted = true;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * All events extend the log span, only stop-the-world events contribute pauses. Events without timing information
+     * are ignored.
+     */
+    public void record(GCEvent e)
+    {
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t == null || t < 0)
+        {
+            t = e.getOffset();
+
+            if (t == null || t < 0)
+            {
+                return;
+            }
+        }
+        else
+        {
+            absolute = true;
+        }
+
+        CollectionType ct = e.getCollectionType();
+
+        if (ct != null && ct.stopTheWorld)
+        {
+            record(t, e.getDuration());
+        }
+        else
+        {
+            extendSpan(t, t);
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Records a pause.
+     *
+     * @param start milliseconds.
+     * @param duration milliseconds.
+     */
+    public void record(long start, long duration)
+    {
+        long end = start + duration;
+
+        extendSpan(start, end);
+
+        if (duration <= 0)
+        {
+            return;
+        }
+
+        cumulated = null;
+
+        if (size > 0)
+        {
+            if (start < starts[size - 1])
+            {
+                sorted = false;
+            }
+            else if (start <= ends[size - 1])
+            {
+                // overlaps or touches the previous pause, coalesce
+                ends[size - 1] = Math.max(ends[size - 1], end);
+                return;
+            }
+        }
+
+        if (size == starts.length)
+        {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        size ++;
+    }
+
+    /**
+     * @return true if the times are absolute (UTC milliseconds), false if they are offsets from the JVM start.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    /**
+     * @return the number of distinct pause intervals (overlapping pauses are coalesced).
+     */
+    public int getPauseCount()
+    {
+        normalize();
+        return size;
+    }
+
+    /**
+     * @return null if nothing was recorded.
+     */
+    public Long getLogStart()
+    {
+        return logStart == Long.MAX_VALUE ? null : logStart;
+    }
+
+    /**
+     * @return null if nothing was recorded.
+     */
+    public Long getLogEnd()
+    {
+        return logEnd == Long.MIN_VALUE ? null : logEnd;
+    }
+
+    /**
+     * @return the total stop-the-world time.
+     */
+    public long getTotalGcTime()
+    {
+        normalize();
+        return cumulated[size];
+    }
+
+    /**
+     * @param windowSize milliseconds, positive.
+     *
+     * @return the window with the largest stop-the-world time, the earliest one if there are several. Null if nothing
+     *         was recorded.
+     */
+    public WorstWindow getWorstWindow(long windowSize)
+    {
+        if (windowSize <= 0)
+        {
+            throw new IllegalArgumentException("invalid window size " + windowSize);
+        }
+
+        if (logStart == Long.MAX_VALUE)
+        {
+            return null;
+        }
+
+        normalize();
+
+        long latestStart = Math.max(logStart, logEnd - windowSize);
+
+        long bestStart = logStart;
+        long bestGcTime = -1L;
+
+        // windows that start at a pause start, then windows that end at a pause end
+        for(int pass = 0; pass < 2; pass ++)
+        {
+            Cursor lo = new Cursor();
+            Cursor hi = new Cursor();
+
+            for(int i = 0; i < size; i ++)
+            {
+                long a = pass == 0 ? starts[i] : ends[i] - windowSize;
+                a = Math.min(Math.max(a, logStart), latestStart);
+
+                long gcTime = hi.gcTimeBefore(a + windowSize) - lo.gcTimeBefore(a);
+
+                if (gcTime > bestGcTime || (gcTime == bestGcTime && a < bestStart))
+                {
+                    bestGcTime = gcTime;
+                    bestStart = a;
+                }
+            }
+        }
+
+        return new WorstWindow(windowSize, bestStart, Math.max(bestGcTime, 0L));
+    }
+
+    /**
+     * @return the worst window for each of the given sizes, in the same order. The minimum mutator utilization for each
+     *         size is WorstWindow.getMutatorUtilization(). Empty if nothing was recorded.
+     */
+    public List<WorstWindow> getCurve(long[] windowSizes)
+    {
+        List<WorstWindow> result = new ArrayList<WorstWindow>(windowSizes.length);
+
+        for(long w: windowSizes)
+        {
+            WorstWindow ww = getWorstWindow(w);
+
+            if (ww != null)
+            {
+                result.add(ww);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The GC overhead in the window that ends at the end of each pause, as a time series.
+     *
+     * @param times will be filled with the pause end times. Must have at least getPauseCount() elements.
+     * @param overheads will be filled with the overhead (between 0 and 1) in the trailing window. At the beginning of
+     *        the log, where the trailing window would extend before the log start, only the part within the log counts.
+     *
+     * @return the number of elements filled.
+     */
+    public int getTrailingOverhead(long windowSize, long[] times, double[] overheads)
+    {
+        if (windowSize <= 0)
+        {
+            throw new IllegalArgumentException("invalid window size " + windowSize);
+        }
+
+        normalize();
+
+        Cursor lo = new Cursor();
+
+        for(int i = 0; i < size; i ++)
+        {
+            long b = ends[i];
+            long a = Math.max(logStart, b - windowSize);
+            long gcTime = cumulated[i + 1] - lo.gcTimeBefore(a);
+
+            times[i] = b;
+            overheads[i] = b == a ? 0d : (double)gcTime / (b - a);
+        }
+
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MutatorUtilization[" + size + " pauses]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void extendSpan(long start, long end)
+    {
+        if (start < logStart)
+        {
+            logStart = start;
+        }
+
+        if (end > logEnd)
+        {
+            logEnd = end;
+        }
+    }
+
+    /**
+     * Sorts and coalesces the intervals if they were not recorded in order, and computes the prefix sums.
+     */
+    private void normalize()
+    {
+        if (!sorted)
+        {
+            long[][] pairs = new long[size][];
+
+            for(int i = 0; i < size; i ++)
+            {
+                pairs[i] = new long[] { starts[i], ends[i] };
+            }
+
+            Arrays.sort(pairs, new Comparator<long[]>()
+            {
+                @Override
+                public int compare(long[] o1, long[] o2)
+                {
+                    return o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1);
+                }
+            });
+
+            int n = 0;
+
+            for(long[] p: pairs)
+            {
+                if (n > 0 && p[0] <= ends[n - 1])
+                {
+                    ends[n - 1] = Math.max(ends[n - 1], p[1]);
+                }
+                else
+                {
+                    starts[n] = p[0];
+                    ends[n] = p[1];
+                    n ++;
+                }
+            }
+
+            size = n;
+            sorted = true;
+            cumulated = null;
+        }
+
+        if (cumulated == null)
+        {
+            cumulated = new long[size + 1];
+
+            for(int i = 0; i < size; i ++)
+            {
+                cumulated[i + 1] = cumulated[i] + ends[i] - starts[i];
+            }
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Computes the GC time elapsed before a given moment. The successive moments must not decrease, so the cursor only
+     * moves forward.
+     */
+    private class Cursor
+    {
+        // the first pause that ends after the last queried moment
+        private int index;
+
+        long gcTimeBefore(long t)
+        {
+            while(index < size && ends[index] <= t)
+            {
+                index ++;
+            }
+
+            long result = cumulated[index];
+
+            if (index < size && starts[index] < t)
+            {
+                result += t - starts[index];
+            }
+
+            return result;
+        }
+    }
+}
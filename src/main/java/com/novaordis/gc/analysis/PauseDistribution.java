@@ -0,0 +1,184 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pause duration histograms, one per stop-the-world collection type, built in a single streaming pass over the events.
+ * Distributions built over separate files or chunks can be merged.
+ *
+ * Not thread safe.
+ *
+ * @see PauseHistogram
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PauseDistribution
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final double[] REPORTED_PERCENTILES = new double[] { 50d, 90d, 99d, 99.9d };
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private Map<CollectionType, PauseHistogram> histograms;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public PauseDistribution()
+    {
+        this.histograms = new EnumMap<CollectionType, PauseHistogram>(CollectionType.class);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Records the duration of a stop-the-world event. Other events are ignored.
+     */
+    public void record(GCEvent e)
+    {
+        CollectionType t = e.getCollectionType();
+
+        if (t == null || !t.stopTheWorld)
+        {
+            return;
+        }
+
+        PauseHistogram h = histograms.get(t);
+
+        if (h == null)
+        {
+            h = new PauseHistogram();
+            histograms.put(t, h);
+        }
+
+        h.record(e.getDuration());
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Adds the content of the other distribution to this one. The other distribution is not modified.
+     */
+    public void merge(PauseDistribution other)
+    {
+        for(Map.Entry<CollectionType, PauseHistogram> e: other.histograms.entrySet())
+        {
+            PauseHistogram h = histograms.get(e.getKey());
+
+            if (h == null)
+            {
+                h = new PauseHistogram();
+                histograms.put(e.getKey(), h);
+            }
+
+            h.merge(e.getValue());
+        }
+    }
+
+    /**
+     * @return the histogram for the given type, or null if no event of that type was recorded.
+     */
+    public PauseHistogram getHistogram(CollectionType t)
+    {
+        return histograms.get(t);
+    }
+
+    /**
+     * @return the collection types for which at least one event was recorded, in declaration order.
+     */
+    public List<CollectionType> getCollectionTypes()
+    {
+        return new ArrayList<CollectionType>(histograms.keySet());
+    }
+
+    /**
+     * @return a histogram combining all collection types.
+     */
+    public PauseHistogram getAll()
+    {
+        PauseHistogram all = new PauseHistogram();
+
+        for(PauseHistogram h: histograms.values())
+        {
+            all.merge(h);
+        }
+
+        return all;
+    }
+
+    /**
+     * @return a human readable table, one line per collection type, with durations in milliseconds.
+     */
+    public String toTable()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("%-20s %10s", "", "count"));
+
+        for(double p: REPORTED_PERCENTILES)
+        {
+            sb.append(String.format(" %10s", "p" + toString(p)));
+        }
+
+        sb.append(String.format(" %10s\n", "max"));
+
+        for(CollectionType t: histograms.keySet())
+        {
+            appendRow(sb, t.label, histograms.get(t));
+        }
+
+        if (histograms.size() > 1)
+        {
+            appendRow(sb, "ALL", getAll());
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PauseDistribution" + histograms;
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static void appendRow(StringBuilder sb, String label, PauseHistogram h)
+    {
+        sb.append(String.format("%-20s %10d", label, h.getCount()));
+
+        for(double p: REPORTED_PERCENTILES)
+        {
+            sb.append(String.format(" %10d", h.getValueAtPercentile(p)));
+        }
+
+        sb.append(String.format(" %10d\n", h.getMax()));
+    }
+
+    private static String toString(double percentile)
+    {
+        return percentile == Math.rint(percentile) ? Long.toString((long)percentile) : Double.toString(percentile);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
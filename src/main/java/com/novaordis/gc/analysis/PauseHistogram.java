@@ -0,0 +1,311 @@
+package com.novaordis.gc.analysis;
+
+/**
+ * A fixed-memory, log-linear histogram of pause durations, in the style of HdrHistogram. Values are grouped in buckets
+ * whose width doubles from one bucket to the next, and each bucket is divided into the same number of linear
+ * sub-buckets, so the relative error of any reported value is bounded (less than 1% with the default precision) no
+ * matter how large the value is. Values small enough to fit in the first bucket are recorded exactly.
+ *
+ * The memory footprint depends only on the precision and the highest trackable value, not on the number of recorded
+ * values. Values above the highest trackable value are counted in the last sub-bucket; the maximum is always tracked
+ * exactly.
+ *
+ * Histograms with the same configuration can be merged, so histograms built over separate files or chunks can be
+ * combined without keeping the raw durations.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PauseHistogram
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // 2^7 = 128 sub-buckets per half bucket, a relative error below 1%
+    public static final int DEFAULT_PRECISION = 7;
+
+    // one day, in milliseconds
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 24L * 3600 * 1000;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private int subBucketHalfCountMagnitude;
+    private int subBucketHalfCount;
+    private long subBucketMask;
+    private int leadingZeroCountBase;
+    private long highestTrackableValue;
+
+    private long[] counts;
+
+    private long totalCount;
+    private long totalValue;
+    private long min;
+    private long max;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public PauseHistogram()
+    {
+        this(DEFAULT_PRECISION, DEFAULT_HIGHEST_TRACKABLE_VALUE);
+    }
+
+    /**
+     * @param precision the binary logarithm of the number of linear sub-buckets in half a bucket, between 1 and 20. The
+     *        relative error of the recorded values is less than 1/2^precision.
+     * @param highestTrackableValue values above it are recorded in the last sub-bucket.
+     */
+    public PauseHistogram(int precision, long highestTrackableValue)
+    {
+        if (precision < 1 || precision > 20)
+        {
+            throw new IllegalArgumentException("precision should be between 1 and 20, and it is " + precision);
+        }
+
+        this.subBucketHalfCountMagnitude = precision;
+        this.subBucketHalfCount = 1 << precision;
+
+        int subBucketCount = subBucketHalfCount << 1;
+
+        if (highestTrackableValue < subBucketCount)
+        {
+            throw new IllegalArgumentException(
+                "the highest trackable value must be at least " + subBucketCount + ", and it is " + highestTrackableValue);
+        }
+
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+        this.highestTrackableValue = highestTrackableValue;
+
+        // the number of buckets needed to cover the highest trackable value
+        int bucketCount = 1;
+        long smallestUntrackableValue = subBucketCount;
+
+        while(smallestUntrackableValue <= highestTrackableValue)
+        {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2)
+            {
+                bucketCount ++;
+                break;
+            }
+
+            smallestUntrackableValue <<= 1;
+            bucketCount ++;
+        }
+
+        this.counts = new long[(bucketCount + 1) << subBucketHalfCountMagnitude];
+        this.min = Long.MAX_VALUE;
+        this.max = 0L;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param value a non-negative duration.
+     *
+     * @exception IllegalArgumentException on negative values.
+     */
+    public void record(long value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("negative value " + value);
+        }
+
+        int index = countsIndex(Math.min(value, highestTrackableValue));
+        counts[index] ++;
+
+        totalCount ++;
+        totalValue += value;
+
+        if (value < min)
+        {
+            min = value;
+        }
+
+        if (value > max)
+        {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds the content of the other histogram to this one. The other histogram is not modified.
+     *
+     * @exception IllegalArgumentException if the histograms are not configured identically.
+     */
+    public void merge(PauseHistogram other)
+    {
+        if (other.subBucketHalfCountMagnitude != subBucketHalfCountMagnitude ||
+            other.highestTrackableValue != highestTrackableValue)
+        {
+            throw new IllegalArgumentException("cannot merge histograms with different configurations");
+        }
+
+        if (other.totalCount == 0)
+        {
+            return;
+        }
+
+        for(int i = 0; i < counts.length; i ++)
+        {
+            counts[i] += other.counts[i];
+        }
+
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount()
+    {
+        return totalCount;
+    }
+
+    /**
+     * @return the sum of all recorded values.
+     */
+    public long getTotal()
+    {
+        return totalValue;
+    }
+
+    /**
+     * @return 0 if the histogram is empty.
+     */
+    public long getMin()
+    {
+        return totalCount == 0 ? 0L : min;
+    }
+
+    /**
+     * @return the exact maximum, 0 if the histogram is empty.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * @return 0 if the histogram is empty.
+     */
+    public double getMean()
+    {
+        return totalCount == 0 ? 0d : (double)totalValue / totalCount;
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     *
+     * @return the smallest value such that at least the given percentage of the recorded values are smaller or equal
+     *         with it, within the precision of the histogram. Never exceeds the maximum. 0 if the histogram is empty.
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (percentile < 0 || percentile > 100)
+        {
+            throw new IllegalArgumentException("invalid percentile " + percentile);
+        }
+
+        if (totalCount == 0)
+        {
+            return 0L;
+        }
+
+        long countAtPercentile = (long)Math.ceil(percentile / 100 * totalCount);
+
+        if (countAtPercentile < 1)
+        {
+            countAtPercentile = 1;
+        }
+
+        long cumulated = 0;
+
+        for(int i = 0; i < counts.length; i ++)
+        {
+            cumulated += counts[i];
+
+            if (cumulated >= countAtPercentile)
+            {
+                long v = highestEquivalentValue(i);
+
+                // the slot the values above the highest trackable value are clamped to is represented by the maximum
+                return v >= highestTrackableValue ? max : Math.min(max, v);
+            }
+        }
+
+        return max;
+    }
+
+    public void reset()
+    {
+        for(int i = 0; i < counts.length; i ++)
+        {
+            counts[i] = 0;
+        }
+
+        totalCount = 0;
+        totalValue = 0;
+        min = Long.MAX_VALUE;
+        max = 0L;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PauseHistogram[count=" + totalCount + ", max=" + max + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Exposed for testing.
+     */
+    int getCountsLength()
+    {
+        return counts.length;
+    }
+
+    int countsIndex(long value)
+    {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int)(value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    /**
+     * @return the lowest value that is recorded in the given counts slot.
+     */
+    long lowestEquivalentValue(int index)
+    {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+
+        if (bucketIndex < 0)
+        {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+
+        return ((long)subBucketIndex) << bucketIndex;
+    }
+
+    /**
+     * @return the highest value that is recorded in the given counts slot.
+     */
+    long highestEquivalentValue(int index)
+    {
+        int bucketIndex = Math.max(0, (index >> subBucketHalfCountMagnitude) - 1);
+        return lowestEquivalentValue(index) + (1L << bucketIndex) - 1;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
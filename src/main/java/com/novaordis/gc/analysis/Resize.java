@@ -0,0 +1,141 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+
+/**
+ * A change of the capacity of the young generation, the old generation or the survivor spaces, observed at a
+ * collection. The capacities are in bytes, -1 if not known.
+ *
+ * @see ResizingAnalysis
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class Resize
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long time;
+    private CollectionType collectionType;
+
+    private long youngBefore;
+    private long youngAfter;
+    private long oldBefore;
+    private long oldAfter;
+    private long survivorBefore;
+    private long survivorAfter;
+
+    private String reason;
+    private boolean gcTimeLimitExceeded;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param time the time of the collection, in milliseconds.
+     * @param reason the goal of the adaptive size policy, null if not known.
+     */
+    public Resize(long time, CollectionType collectionType, long youngBefore, long youngAfter, long oldBefore,
+                  long oldAfter, long survivorBefore, long survivorAfter, String reason, boolean gcTimeLimitExceeded)
+    {
+        this.time = time;
+        this.collectionType = collectionType;
+        this.youngBefore = youngBefore;
+        this.youngAfter = youngAfter;
+        this.oldBefore = oldBefore;
+        this.oldAfter = oldAfter;
+        this.survivorBefore = survivorBefore;
+        this.survivorAfter = survivorAfter;
+        this.reason = reason;
+        this.gcTimeLimitExceeded = gcTimeLimitExceeded;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    public CollectionType getCollectionType()
+    {
+        return collectionType;
+    }
+
+    public long getYoungBefore()
+    {
+        return youngBefore;
+    }
+
+    public long getYoungAfter()
+    {
+        return youngAfter;
+    }
+
+    public long getOldBefore()
+    {
+        return oldBefore;
+    }
+
+    public long getOldAfter()
+    {
+        return oldAfter;
+    }
+
+    public long getSurvivorBefore()
+    {
+        return survivorBefore;
+    }
+
+    public long getSurvivorAfter()
+    {
+        return survivorAfter;
+    }
+
+    /**
+     * @return AdaptiveSizePolicy.THROUGHPUT, PAUSE or FOOTPRINT, or null if not known.
+     */
+    public String getReason()
+    {
+        return reason;
+    }
+
+    public boolean isGcTimeLimitExceeded()
+    {
+        return gcTimeLimitExceeded;
+    }
+
+    public boolean isYoungResized()
+    {
+        return youngBefore != youngAfter;
+    }
+
+    public boolean isOldResized()
+    {
+        return oldBefore >= 0 && oldAfter >= 0 && oldBefore != oldAfter;
+    }
+
+    public boolean isSurvivorResized()
+    {
+        return survivorBefore >= 0 && survivorAfter >= 0 && survivorBefore != survivorAfter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Resize[" + time + ", young " + youngBefore + "->" + youngAfter + ", old " + oldBefore + "->" + oldAfter +
+            ", survivor " + survivorBefore + "->" + survivorAfter + (reason == null ? "" : ", " + reason) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
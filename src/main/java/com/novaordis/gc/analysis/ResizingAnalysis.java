@@ -0,0 +1,358 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.AdaptiveSizePolicy;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.GCEventBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reconstructs the resizing timeline of the generations from the capacities logged after each collection, in a single
+ * pass over the events:
+ *
+ * 1. The young and old generation capacities. The old generation capacity is only logged by the full collections, it
+ *    is the heap capacity minus the young generation capacity for the others.
+ *
+ * 2. The survivor space size decided by the parallel scavenge adaptive size policy, if logged with
+ *    -XX:+PrintAdaptiveSizePolicy. The collections that do not log it keep the previous size.
+ *
+ * Each collection that changes one of them is recorded as a Resize, with the goal the adaptive size policy resized for.
+ * The young generation resizes are also counted by direction and by goal, and the direction reversals (a growth
+ * followed by a shrink or the other way around) are counted: frequent reversals mean the policy is oscillating between
+ * conflicting goals, and each resize costs throughput.
+ *
+ * Not thread safe.
+ *
+ * @see AdaptiveSizePolicy
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ResizingAnalysis
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String[] REASONS =
+        new String[] { AdaptiveSizePolicy.THROUGHPUT, AdaptiveSizePolicy.PAUSE, AdaptiveSizePolicy.FOOTPRINT };
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private List<Resize> resizes;
+
+    private long collectionCount;
+    private long policyCount;
+    private long gcTimeLimitCount;
+
+    private long youngGrowCount;
+    private long youngShrinkCount;
+    private long youngReversalCount;
+    private int lastYoungDirection;
+    private long minYoung;
+    private long maxYoung;
+
+    private long oldGrowCount;
+    private long oldShrinkCount;
+    private long survivorResizeCount;
+
+    // the young generation resizes, indexed like REASONS, the last element counts those without a known reason
+    private long[] reasonCounts;
+
+    private long lastYoung;
+    private long lastOld;
+    private long lastSurvivor;
+
+    private boolean absolute;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public ResizingAnalysis()
+    {
+        this.resizes = new ArrayList<Resize>();
+        this.reasonCounts = new long[REASONS.length + 1];
+        this.lastYoung = -1L;
+        this.lastOld = -1L;
+        this.lastSurvivor = -1L;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        if (!(e instanceof GCEventBase) || !e.getCollectionType().stopTheWorld)
+        {
+            return;
+        }
+
+        Value f = e.get(FieldType.NG_CAPACITY);
+
+        if (f == null)
+        {
+            return;
+        }
+
+        collectionCount ++;
+
+        long young = (Long)f.getValue();
+        long old = -1L;
+
+        if ((f = e.get(FieldType.OG_CAPACITY)) != null)
+        {
+            old = (Long)f.getValue();
+        }
+        else if ((f = e.get(FieldType.HEAP_CAPACITY)) != null)
+        {
+            old = (Long)f.getValue() - young;
+        }
+
+        AdaptiveSizePolicy p = ((GCEventBase)e).getAdaptiveSizePolicy();
+        long survivor = lastSurvivor;
+        String reason = null;
+        boolean gcTimeLimitExceeded = false;
+
+        if (p != null)
+        {
+            policyCount ++;
+            reason = p.getReason();
+            gcTimeLimitExceeded = p.isGcTimeLimitExceeded();
+
+            if (gcTimeLimitExceeded)
+            {
+                gcTimeLimitCount ++;
+            }
+
+            if (p.getTargetSurvivorSize() >= 0)
+            {
+                survivor = p.getTargetSurvivorSize();
+            }
+        }
+
+        minYoung = collectionCount == 1 ? young : Math.min(minYoung, young);
+        maxYoung = collectionCount == 1 ? young : Math.max(maxYoung, young);
+
+        if (lastYoung >= 0)
+        {
+            Resize r = new Resize(getTime(e), e.getCollectionType(), lastYoung, young, old < 0 ? -1L : lastOld, old,
+                lastSurvivor, survivor, reason, gcTimeLimitExceeded);
+
+            if (r.isYoungResized() || r.isOldResized() || r.isSurvivorResized())
+            {
+                count(r);
+                resizes.add(r);
+            }
+        }
+
+        lastYoung = young;
+        lastOld = old < 0 ? lastOld : old;
+        lastSurvivor = survivor;
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * @return the number of collections that logged the young generation capacity.
+     */
+    public long getCollectionCount()
+    {
+        return collectionCount;
+    }
+
+    /**
+     * @return the number of collections that logged the adaptive size policy decisions.
+     */
+    public long getPolicyCount()
+    {
+        return policyCount;
+    }
+
+    /**
+     * @return the number of collections whose GC time exceeded GCTimeLimit.
+     */
+    public long getGcTimeLimitCount()
+    {
+        return gcTimeLimitCount;
+    }
+
+    /**
+     * @return the resizes, in the order of the collections.
+     */
+    public List<Resize> getResizes()
+    {
+        return resizes;
+    }
+
+    public long getYoungGrowCount()
+    {
+        return youngGrowCount;
+    }
+
+    public long getYoungShrinkCount()
+    {
+        return youngShrinkCount;
+    }
+
+    /**
+     * @return the number of young generation resizes in the opposite direction of the previous one.
+     */
+    public long getYoungReversalCount()
+    {
+        return youngReversalCount;
+    }
+
+    /**
+     * @return the fraction of the young generation resizes that reverse the previous one, or null if the young
+     *         generation was resized less than twice.
+     */
+    public Double getYoungReversalRate()
+    {
+        long n = youngGrowCount + youngShrinkCount;
+        return n < 2 ? null : (double)youngReversalCount / (n - 1);
+    }
+
+    /**
+     * @return bytes.
+     */
+    public long getMinYoung()
+    {
+        return minYoung;
+    }
+
+    /**
+     * @return bytes.
+     */
+    public long getMaxYoung()
+    {
+        return maxYoung;
+    }
+
+    public long getOldGrowCount()
+    {
+        return oldGrowCount;
+    }
+
+    public long getOldShrinkCount()
+    {
+        return oldShrinkCount;
+    }
+
+    public long getSurvivorResizeCount()
+    {
+        return survivorResizeCount;
+    }
+
+    /**
+     * @param reason one of REASONS, or null for the resizes whose reason is not known.
+     *
+     * @return the number of young generation resizes made for the given goal.
+     */
+    public long getYoungResizeCount(String reason)
+    {
+        for(int i = 0; i < REASONS.length; i ++)
+        {
+            if (REASONS[i].equals(reason))
+            {
+                return reasonCounts[i];
+            }
+        }
+
+        return reason == null ? reasonCounts[REASONS.length] : 0L;
+    }
+
+    /**
+     * @return true if the times are absolute (UTC milliseconds), false if they are offsets from the JVM start.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ResizingAnalysis[" + collectionCount + " collections, " + resizes.size() + " resizes]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void count(Resize r)
+    {
+        if (r.isYoungResized())
+        {
+            int direction = r.getYoungAfter() > r.getYoungBefore() ? 1 : -1;
+
+            if (direction > 0)
+            {
+                youngGrowCount ++;
+            }
+            else
+            {
+                youngShrinkCount ++;
+            }
+
+            if (lastYoungDirection != 0 && lastYoungDirection != direction)
+            {
+                youngReversalCount ++;
+            }
+
+            lastYoungDirection = direction;
+
+            int i = 0;
+
+            while(i < REASONS.length && !REASONS[i].equals(r.getReason()))
+            {
+                i ++;
+            }
+
+            reasonCounts[i] ++;
+        }
+
+        if (r.isOldResized())
+        {
+            if (r.getOldAfter() > r.getOldBefore())
+            {
+                oldGrowCount ++;
+            }
+            else
+            {
+                oldShrinkCount ++;
+            }
+        }
+
+        if (r.isSurvivorResized())
+        {
+            survivorResizeCount ++;
+        }
+    }
+
+    private long getTime(GCEvent e)
+    {
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t != null && t >= 0)
+        {
+            absolute = true;
+            return t;
+        }
+
+        t = e.getOffset();
+        return t == null ? -1L : t;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,293 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Restart;
+import com.novaordis.gc.model.event.Shutdown;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summarizes each JVM run of a log appended to across restarts: the runs are delimited by the Restart events the parser
+ * inserts between them. A log written by a single run has a single summary.
+ *
+ * Not thread safe.
+ *
+ * @see com.novaordis.gc.model.event.Restart
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class RunAnalysis
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private List<RunSummary> runs;
+    private RunSummary current;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public RunAnalysis()
+    {
+        this.runs = new ArrayList<RunSummary>();
+        this.current = new RunSummary(0, null);
+        this.runs.add(current);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        if (e instanceof Restart)
+        {
+            Restart r = (Restart)e;
+            current = new RunSummary(r.getRun(), r.getBoundary());
+            runs.add(current);
+            return;
+        }
+
+        current.record(e);
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * @return the runs, in the order they were recorded.
+     */
+    public List<RunSummary> getRuns()
+    {
+        return runs;
+    }
+
+    public int getRunCount()
+    {
+        return runs.size();
+    }
+
+    /**
+     * @return a human readable table, one line per run, with durations in milliseconds.
+     */
+    public String toTable()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format("%-4s %-25s %-25s %12s %8s %8s %12s %10s %6s  %s\n", "run", "beginning", "end",
+            "elapsed (s)", "ng", "full", "pauses (ms)", "max (ms)", "exit", "started by"));
+
+        for(RunSummary r: runs)
+        {
+            Long elapsed = r.getElapsed();
+
+            sb.append(String.format("%-4d %-25s %-25s %12s %8d %8d %12d %10d %6s", r.getIndex(),
+                toTimeLabel(r.getBeginning()), toTimeLabel(r.getEnd()),
+                elapsed == null ? "N/A" : Configuration.DURATION_SECONDS_FORMAT.format((double)elapsed / 1000),
+                r.getNewGenerationCollectionCount(), r.getFullCollectionCount(), r.getPauseTime(), r.getMaxPause(),
+                r.isShutdown() ? "yes" : "no"));
+
+            if (r.getBoundary() != null)
+            {
+                sb.append("  ").append(r.getBoundary());
+            }
+
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RunAnalysis[" + runs.size() + " runs]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toTimeLabel(Long time)
+    {
+        return time == null ? "N/A" : Configuration.TIMESTAMP_DISPLAY_FORMAT.format(time);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+
+    public static class RunSummary
+    {
+        private int index;
+        private String boundary;
+
+        private Long beginning;
+        private Long end;
+
+        private int eventCount;
+        private int newGenerationCollectionCount;
+        private int fullCollectionCount;
+
+        private int pauseCount;
+        private long pauseTime;
+        private long maxPause;
+
+        private boolean shutdown;
+
+        RunSummary(int index, String boundary)
+        {
+            this.index = index;
+            this.boundary = boundary;
+        }
+
+        /**
+         * @return the index of the segment the run was written in, starting with 0.
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * @return what the start of the run was recognized by, null for the first run.
+         */
+        public String getBoundary()
+        {
+            return boundary;
+        }
+
+        /**
+         * @return the time of the first timestamped event of the run, or null if there is none.
+         */
+        public Long getBeginning()
+        {
+            return beginning;
+        }
+
+        /**
+         * @return the time of the last timestamped event of the run, or null if there is none.
+         */
+        public Long getEnd()
+        {
+            return end;
+        }
+
+        /**
+         * @return the time between the first and the last timestamped events of the run, in milliseconds, or null if
+         *         there is no timestamped event.
+         */
+        public Long getElapsed()
+        {
+            return beginning == null ? null : end - beginning;
+        }
+
+        public int getEventCount()
+        {
+            return eventCount;
+        }
+
+        public int getNewGenerationCollectionCount()
+        {
+            return newGenerationCollectionCount;
+        }
+
+        public int getFullCollectionCount()
+        {
+            return fullCollectionCount;
+        }
+
+        /**
+         * @return the number of stop-the-world collections.
+         */
+        public int getPauseCount()
+        {
+            return pauseCount;
+        }
+
+        /**
+         * @return the total duration of the stop-the-world collections, in milliseconds.
+         */
+        public long getPauseTime()
+        {
+            return pauseTime;
+        }
+
+        public long getMaxPause()
+        {
+            return maxPause;
+        }
+
+        /**
+         * @return true if the run logged the heap summary the JVM writes on exit. A run that was killed or crashed
+         *         does not have one.
+         */
+        public boolean isShutdown()
+        {
+            return shutdown;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "RunSummary[" + index + ", " + eventCount + " events]";
+        }
+
+        private void record(GCEvent e)
+        {
+            eventCount ++;
+
+            Long t = e.getTime();
+
+            if (t != null)
+            {
+                if (beginning == null)
+                {
+                    beginning = t;
+                }
+
+                end = t;
+            }
+
+            if (e instanceof NewGenerationCollection)
+            {
+                newGenerationCollectionCount ++;
+            }
+            else if (e instanceof FullCollection)
+            {
+                fullCollectionCount ++;
+            }
+            else if (e instanceof Shutdown)
+            {
+                shutdown = true;
+            }
+
+            CollectionType type = e.getCollectionType();
+
+            if (type != null && type.stopTheWorld)
+            {
+                long d = e.getDuration();
+
+                pauseCount ++;
+                pauseTime += d;
+
+                if (d > maxPause)
+                {
+                    maxPause = d;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+
+/**
+ * A stop of the application threads, as logged by -XX:+PrintGCApplicationStoppedTime, and the collection it is
+ * attributed to, if any.
+ *
+ * @see SafepointAccounting
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class Safepoint
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long end;
+    private long stoppedMicroseconds;
+    private long timeToSafepointMicroseconds;
+    private CollectionType cause;
+    private int collectionCount;
+    private long collectionTime;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param end the time the stop was logged at, which is the end of the stop, in milliseconds.
+     * @param timeToSafepointMicroseconds -1 if not known.
+     */
+    public Safepoint(long end, long stoppedMicroseconds, long timeToSafepointMicroseconds)
+    {
+        this.end = end;
+        this.stoppedMicroseconds = stoppedMicroseconds;
+        this.timeToSafepointMicroseconds = timeToSafepointMicroseconds;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return milliseconds.
+     */
+    public long getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * @return the beginning of the stop, in milliseconds, computed from its end and its duration.
+     */
+    public long getStart()
+    {
+        return end - (stoppedMicroseconds + 999) / 1000;
+    }
+
+    public long getStoppedMicroseconds()
+    {
+        return stoppedMicroseconds;
+    }
+
+    /**
+     * @return -1 if not known.
+     */
+    public long getTimeToSafepointMicroseconds()
+    {
+        return timeToSafepointMicroseconds;
+    }
+
+    /**
+     * @return the type of the (first) collection that ran during the stop, or null if the stop was not caused by a
+     *         collection.
+     */
+    public CollectionType getCause()
+    {
+        return cause;
+    }
+
+    public boolean isGc()
+    {
+        return cause != null;
+    }
+
+    /**
+     * @return the number of collections that ran during the stop. A young generation collection may be followed by a
+     *         full collection in the same stop.
+     */
+    public int getCollectionCount()
+    {
+        return collectionCount;
+    }
+
+    /**
+     * @return the sum of the durations of the collections that ran during the stop, in milliseconds.
+     */
+    public long getCollectionTime()
+    {
+        return collectionTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Safepoint[" + end + ", " + stoppedMicroseconds + " us, " + (cause == null ? "non-GC" : cause.label) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    void attribute(CollectionType type, long duration)
+    {
+        if (cause == null)
+        {
+            cause = type;
+        }
+
+        collectionCount ++;
+        collectionTime += duration;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,392 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.event.ApplicationConcurrentTime;
+import com.novaordis.gc.model.event.ApplicationStoppedTime;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accounts for the time the application threads were stopped, as logged by -XX:+PrintGCApplicationStoppedTime, in a
+ * single pass over the events, in the order they were logged. The stops include the collection pauses, but also the
+ * non-GC safepoints (biased lock revocation, deoptimization, thread dumps, etc.) and the time it took to bring the
+ * threads to the safepoint, so their total is the real pause budget of the application.
+ *
+ * A stop is logged when it ends, after the collections that ran during it. The stop-the-world collections logged since
+ * the previous stop, and starting within the stop (allowing ATTRIBUTION_TOLERANCE for the millisecond resolution of
+ * the timestamps), are attributed to it. A stop no collection is attributed to is a non-GC stop. Collections that
+ * cannot be attributed to any stop are counted separately, they usually mean the stops were not logged for a part of
+ * the file.
+ *
+ * The application time records (-XX:+PrintGCApplicationConcurrentTime) measure the time the application ran between
+ * stops, and are used to compute the stopped fraction.
+ *
+ * The summary statistics are updated as the events are recorded. The individual stops are only kept if requested, the
+ * worst MAX_REPORTED_STOPS non-GC stops are always kept. close() must be called after the last event.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class SafepointAccounting
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // milliseconds
+    public static final long ATTRIBUTION_TOLERANCE = 1L;
+
+    public static final int MAX_REPORTED_STOPS = 10;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean keepStops;
+    private List<Safepoint> stops;
+
+    // the worst non-GC stops, in descending order of their stopped time
+    private List<Safepoint> worstNonGcStops;
+
+    // the stop-the-world collections logged since the previous stop
+    private List<GCEvent> pending;
+
+    private boolean absolute;
+
+    private long count;
+    private long stoppedSum;
+    private long stoppedMax;
+
+    private long gcCount;
+    private long gcStoppedSum;
+    private long gcCollectionTimeSum;
+
+    private long nonGcCount;
+    private long nonGcStoppedSum;
+    private long nonGcStoppedMax;
+
+    private long timeToSafepointCount;
+    private long timeToSafepointSum;
+    private long timeToSafepointMax;
+
+    private long applicationCount;
+    private long applicationSum;
+
+    private long unattributedCollectionCount;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public SafepointAccounting()
+    {
+        this(false);
+    }
+
+    /**
+     * @param keepStops true if the individual stops should be kept, to be listed.
+     */
+    public SafepointAccounting(boolean keepStops)
+    {
+        this.keepStops = keepStops;
+        this.stops = new ArrayList<Safepoint>();
+        this.worstNonGcStops = new ArrayList<Safepoint>();
+        this.pending = new ArrayList<GCEvent>();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        if (e instanceof ApplicationConcurrentTime)
+        {
+            applicationCount ++;
+            applicationSum += ((ApplicationConcurrentTime)e).getApplicationMicroseconds();
+            return;
+        }
+
+        if (e instanceof ApplicationStoppedTime)
+        {
+            long t = getTime(e);
+
+            if (t < 0)
+            {
+                return;
+            }
+
+            ApplicationStoppedTime ast = (ApplicationStoppedTime)e;
+            recordStop(new Safepoint(t, ast.getStoppedMicroseconds(), ast.getTimeToSafepointMicroseconds()));
+            return;
+        }
+
+        CollectionType ct = e.getCollectionType();
+
+        if (ct != null && ct.stopTheWorld)
+        {
+            pending.add(e);
+        }
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * Must be called once, after the last event was recorded.
+     */
+    public void close()
+    {
+        unattributedCollectionCount += pending.size();
+        pending.clear();
+    }
+
+    /**
+     * @return the stops, in the order they were logged. Empty unless the instance was created to keep them.
+     */
+    public List<Safepoint> getStops()
+    {
+        return stops;
+    }
+
+    /**
+     * @return the longest non-GC stops, at most MAX_REPORTED_STOPS, longest first.
+     */
+    public List<Safepoint> getWorstNonGcStops()
+    {
+        return worstNonGcStops;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getStoppedTime()
+    {
+        return stoppedSum;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxStoppedTime()
+    {
+        return stoppedMax;
+    }
+
+    public long getGcCount()
+    {
+        return gcCount;
+    }
+
+    /**
+     * @return the time the application was stopped by collections, in microseconds.
+     */
+    public long getGcStoppedTime()
+    {
+        return gcStoppedSum;
+    }
+
+    /**
+     * @return the sum of the durations of the collections attributed to stops, as logged by the collector, in
+     *         milliseconds. The difference between the GC stopped time and this value is spent reaching the safepoint
+     *         and outside the collector.
+     */
+    public long getGcCollectionTime()
+    {
+        return gcCollectionTimeSum;
+    }
+
+    public long getNonGcCount()
+    {
+        return nonGcCount;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getNonGcStoppedTime()
+    {
+        return nonGcStoppedSum;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxNonGcStoppedTime()
+    {
+        return nonGcStoppedMax;
+    }
+
+    /**
+     * @return the average time to safepoint, in microseconds, or null if not logged.
+     */
+    public Double getAverageTimeToSafepoint()
+    {
+        return timeToSafepointCount == 0 ? null : (double)timeToSafepointSum / timeToSafepointCount;
+    }
+
+    /**
+     * @return microseconds.
+     */
+    public long getMaxTimeToSafepoint()
+    {
+        return timeToSafepointMax;
+    }
+
+    /**
+     * @return the time the application ran between stops, in microseconds, as logged by
+     *         -XX:+PrintGCApplicationConcurrentTime.
+     */
+    public long getApplicationTime()
+    {
+        return applicationSum;
+    }
+
+    /**
+     * @return the fraction of the time the application was stopped, or null if the application time was not logged.
+     */
+    public Double getStoppedFraction()
+    {
+        if (applicationCount == 0 || applicationSum + stoppedSum == 0)
+        {
+            return null;
+        }
+
+        return (double)stoppedSum / (applicationSum + stoppedSum);
+    }
+
+    /**
+     * @return the number of stop-the-world collections that could not be attributed to any stop.
+     */
+    public long getUnattributedCollectionCount()
+    {
+        return unattributedCollectionCount;
+    }
+
+    /**
+     * @return true if the times are absolute (UTC milliseconds), false if they are offsets from the JVM start.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SafepointAccounting[" + count + " stops]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the time of the event, or its offset, in milliseconds. -1 if neither is known.
+     */
+    private long getTime(GCEvent e)
+    {
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t != null && t >= 0)
+        {
+            absolute = true;
+            return t;
+        }
+
+        t = e.getOffset();
+        return t == null ? -1L : t;
+    }
+
+    private void recordStop(Safepoint s)
+    {
+        long start = s.getStart() - ATTRIBUTION_TOLERANCE;
+        long end = s.getEnd() + ATTRIBUTION_TOLERANCE;
+
+        for(GCEvent e: pending)
+        {
+            long t = getTime(e);
+
+            if (t >= start && t <= end)
+            {
+                s.attribute(e.getCollectionType(), e.getDuration());
+            }
+            else
+            {
+                unattributedCollectionCount ++;
+            }
+        }
+
+        pending.clear();
+
+        long stopped = s.getStoppedMicroseconds();
+
+        count ++;
+        stoppedSum += stopped;
+        stoppedMax = Math.max(stoppedMax, stopped);
+
+        if (s.isGc())
+        {
+            gcCount ++;
+            gcStoppedSum += stopped;
+            gcCollectionTimeSum += s.getCollectionTime();
+        }
+        else
+        {
+            nonGcCount ++;
+            nonGcStoppedSum += stopped;
+            nonGcStoppedMax = Math.max(nonGcStoppedMax, stopped);
+            retain(s);
+        }
+
+        long ttsp = s.getTimeToSafepointMicroseconds();
+
+        if (ttsp >= 0)
+        {
+            timeToSafepointCount ++;
+            timeToSafepointSum += ttsp;
+            timeToSafepointMax = Math.max(timeToSafepointMax, ttsp);
+        }
+
+        if (keepStops)
+        {
+            stops.add(s);
+        }
+    }
+
+    private void retain(Safepoint s)
+    {
+        int i = worstNonGcStops.size();
+
+        while(i > 0 && worstNonGcStops.get(i - 1).getStoppedMicroseconds() < s.getStoppedMicroseconds())
+        {
+            i --;
+        }
+
+        if (i >= MAX_REPORTED_STOPS)
+        {
+            return;
+        }
+
+        worstNonGcStops.add(i, s);
+
+        if (worstNonGcStops.size() > MAX_REPORTED_STOPS)
+        {
+            worstNonGcStops.remove(worstNonGcStops.size() - 1);
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
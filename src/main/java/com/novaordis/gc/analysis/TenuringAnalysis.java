@@ -0,0 +1,399 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.TenuringDistribution;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+
+import java.util.List;
+
+/**
+ * Summarizes the tenuring distributions of the new generation collections, in a single pass over the events:
+ *
+ * 1. Survivor overflow - the collections whose surviving objects exceed the desired survivor size. The collector lowers
+ *    the threshold in response, and the objects are promoted before they had a chance to die. The overflow rate is
+ *    also computed over the last RECENT_COLLECTIONS collections, to tell whether the situation is getting better or
+ *    worse.
+ *
+ * 2. Threshold trend - the distribution of the tenuring threshold, how often it is below MaxTenuringThreshold, how
+ *    often it changes, and its least squares slope over time.
+ *
+ * 3. Age profile - the average bytes at each age and the survival rate from one age to the next, computed over
+ *    consecutive collections: the bytes of age n + 1 in a collection over the bytes of age n in the previous one. A
+ *    survival rate close to 1 means the objects of that age are long lived and copying them again is wasted work.
+ *
+ * The memory used is proportional to the maximum age, not to the number of collections.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuringAnalysis
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final int RECENT_COLLECTIONS = 100;
+
+    // the ages are kept in 4 bits, so the threshold cannot exceed 15
+    private static final int MAX_AGE = 15;
+
+    private static final double MILLISECONDS_PER_HOUR = 3600d * 1000;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long count;
+    private long agedCount;
+
+    private long overflowCount;
+
+    // a ring of the overflow flags of the last RECENT_COLLECTIONS collections
+    private boolean[] recentOverflows;
+    private int recentCount;
+    private int recentOverflowCount;
+
+    private int maxThreshold;
+    private long thresholdSum;
+    private int thresholdMin;
+    private int thresholdMax;
+
+    // indexed by threshold
+    private long[] thresholdCounts;
+    private long belowMaxThresholdCount;
+    private long thresholdChangeCount;
+    private int lastThreshold;
+
+    private long desiredSurvivorSizeSum;
+    private long survivorSum;
+    private long survivorMax;
+
+    // indexed by age - 1
+    private long[] ageSums;
+    private long[] survivalNumerators;
+    private long[] survivalDenominators;
+
+    private TenuringDistribution previous;
+
+    private boolean absolute;
+    private long firstTime;
+    private LinearRegression thresholdTrend;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public TenuringAnalysis()
+    {
+        this.recentOverflows = new boolean[RECENT_COLLECTIONS];
+        this.thresholdCounts = new long[MAX_AGE + 1];
+        this.ageSums = new long[MAX_AGE];
+        this.survivalNumerators = new long[MAX_AGE];
+        this.survivalDenominators = new long[MAX_AGE];
+        this.lastThreshold = -1;
+        this.thresholdTrend = new LinearRegression();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public void record(GCEvent e)
+    {
+        if (!(e instanceof NewGenerationCollection))
+        {
+            return;
+        }
+
+        TenuringDistribution d = ((NewGenerationCollection)e).getTenuringDistribution();
+
+        if (d == null)
+        {
+            return;
+        }
+
+        count ++;
+
+        int threshold = Math.min(d.getThreshold(), MAX_AGE);
+
+        maxThreshold = Math.max(maxThreshold, d.getMaxThreshold());
+        thresholdSum += threshold;
+        thresholdMin = count == 1 ? threshold : Math.min(thresholdMin, threshold);
+        thresholdMax = count == 1 ? threshold : Math.max(thresholdMax, threshold);
+        thresholdCounts[threshold] ++;
+
+        if (threshold < d.getMaxThreshold())
+        {
+            belowMaxThresholdCount ++;
+        }
+
+        if (lastThreshold >= 0 && lastThreshold != threshold)
+        {
+            thresholdChangeCount ++;
+        }
+
+        lastThreshold = threshold;
+        desiredSurvivorSizeSum += d.getDesiredSurvivorSize();
+
+        long t = getTime(e);
+
+        if (t >= 0)
+        {
+            if (thresholdTrend.getCount() == 0)
+            {
+                firstTime = t;
+            }
+
+            thresholdTrend.add((t - firstTime) / MILLISECONDS_PER_HOUR, threshold);
+        }
+
+        if (d.getMaxAge() == 0)
+        {
+            // the parallel scavenge collector does not log the ages
+            previous = null;
+            return;
+        }
+
+        agedCount ++;
+
+        long total = d.getTotal();
+        survivorSum += total;
+        survivorMax = Math.max(survivorMax, total);
+
+        boolean overflow = d.isOverflow();
+
+        if (overflow)
+        {
+            overflowCount ++;
+        }
+
+        int slot = recentCount % RECENT_COLLECTIONS;
+
+        if (recentCount >= RECENT_COLLECTIONS && recentOverflows[slot])
+        {
+            recentOverflowCount --;
+        }
+
+        recentOverflows[slot] = overflow;
+        recentOverflowCount += overflow ? 1 : 0;
+        recentCount ++;
+
+        int ages = Math.min(d.getMaxAge(), MAX_AGE);
+
+        for(int age = 1; age <= ages; age ++)
+        {
+            ageSums[age - 1] += d.getBytes(age);
+        }
+
+        if (previous != null)
+        {
+            for(int age = 1; age < MAX_AGE; age ++)
+            {
+                long before = previous.getBytes(age);
+
+                if (before > 0)
+                {
+                    survivalDenominators[age - 1] += before;
+                    survivalNumerators[age - 1] += d.getBytes(age + 1);
+                }
+            }
+        }
+
+        previous = d;
+    }
+
+    public void recordAll(List<GCEvent> events)
+    {
+        for(GCEvent e: events)
+        {
+            record(e);
+        }
+    }
+
+    /**
+     * @return the number of collections logged with a tenuring distribution.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the number of collections whose ages were logged. The parallel scavenge collector only logs the
+     *         threshold.
+     */
+    public long getAgedCount()
+    {
+        return agedCount;
+    }
+
+    public long getOverflowCount()
+    {
+        return overflowCount;
+    }
+
+    /**
+     * @return the fraction of the collections whose survivors exceeded the desired survivor size, or null if the ages
+     *         were not logged.
+     */
+    public Double getOverflowRate()
+    {
+        return agedCount == 0 ? null : (double)overflowCount / agedCount;
+    }
+
+    /**
+     * @return the overflow rate over the last RECENT_COLLECTIONS collections, or null if the ages were not logged.
+     */
+    public Double getRecentOverflowRate()
+    {
+        int n = Math.min(recentCount, RECENT_COLLECTIONS);
+        return n == 0 ? null : (double)recentOverflowCount / n;
+    }
+
+    /**
+     * @return MaxTenuringThreshold, the largest logged.
+     */
+    public int getMaxTenuringThreshold()
+    {
+        return maxThreshold;
+    }
+
+    public int getMinThreshold()
+    {
+        return thresholdMin;
+    }
+
+    public int getMaxThreshold()
+    {
+        return thresholdMax;
+    }
+
+    /**
+     * @return the average threshold, or null if there are no collections.
+     */
+    public Double getAverageThreshold()
+    {
+        return count == 0 ? null : (double)thresholdSum / count;
+    }
+
+    /**
+     * @return the number of collections that computed the given threshold.
+     */
+    public long getThresholdCount(int threshold)
+    {
+        return threshold < 0 || threshold >= thresholdCounts.length ? 0L : thresholdCounts[threshold];
+    }
+
+    /**
+     * @return the number of collections whose threshold was lowered below MaxTenuringThreshold.
+     */
+    public long getBelowMaxThresholdCount()
+    {
+        return belowMaxThresholdCount;
+    }
+
+    public long getThresholdChangeCount()
+    {
+        return thresholdChangeCount;
+    }
+
+    /**
+     * @return the slope of the threshold over time, in ages per hour, or null if there are fewer than two collections.
+     */
+    public Double getThresholdTrend()
+    {
+        return thresholdTrend.getCount() < 2 ? null : thresholdTrend.getSlope();
+    }
+
+    /**
+     * @return bytes, or null if there are no collections.
+     */
+    public Double getAverageDesiredSurvivorSize()
+    {
+        return count == 0 ? null : (double)desiredSurvivorSizeSum / count;
+    }
+
+    /**
+     * @return the average survivor occupancy after collection, in bytes, or null if the ages were not logged.
+     */
+    public Double getAverageSurvivor()
+    {
+        return agedCount == 0 ? null : (double)survivorSum / agedCount;
+    }
+
+    public long getMaxSurvivor()
+    {
+        return survivorMax;
+    }
+
+    /**
+     * @return the oldest age ever logged.
+     */
+    public int getMaxAge()
+    {
+        for(int i = ageSums.length - 1; i >= 0; i --)
+        {
+            if (ageSums[i] > 0)
+            {
+                return i + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return the average bytes of the given age per collection, or null if the ages were not logged.
+     */
+    public Double getAverageBytes(int age)
+    {
+        return agedCount == 0 || age < 1 || age > MAX_AGE ? null : (double)ageSums[age - 1] / agedCount;
+    }
+
+    /**
+     * @return the fraction of the bytes of the given age that survive to the next age, or null if not known.
+     */
+    public Double getSurvivalRate(int age)
+    {
+        if (age < 1 || age >= MAX_AGE || survivalDenominators[age - 1] == 0)
+        {
+            return null;
+        }
+
+        return (double)survivalNumerators[age - 1] / survivalDenominators[age - 1];
+    }
+
+    /**
+     * @return true if the times are absolute (UTC milliseconds), false if they are offsets from the JVM start.
+     */
+    public boolean isAbsolute()
+    {
+        return absolute;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TenuringAnalysis[" + count + " collections]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private long getTime(GCEvent e)
+    {
+        // the events report -1 instead of missing time or offset
+        Long t = e.getTime();
+
+        if (t != null && t >= 0)
+        {
+            absolute = true;
+            return t;
+        }
+
+        t = e.getOffset();
+        return t == null ? -1L : t;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
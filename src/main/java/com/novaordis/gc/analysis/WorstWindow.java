@@ -0,0 +1,90 @@
+package com.novaordis.gc.analysis;
+
+/**
+ * The time window of a given size that contains the most stop-the-world GC time.
+ *
+ * @see MutatorUtilization#getWorstWindow(long)
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class WorstWindow
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long size;
+    private long start;
+    private long gcTime;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param size the window size, in milliseconds.
+     * @param start the window start time, in milliseconds.
+     * @param gcTime the stop-the-world time within the window, in milliseconds.
+     */
+    public WorstWindow(long size, long start, long gcTime)
+    {
+        this.size = size;
+        this.start = start;
+        this.gcTime = gcTime;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    public long getStart()
+    {
+        return start;
+    }
+
+    public long getEnd()
+    {
+        return start + size;
+    }
+
+    public long getGcTime()
+    {
+        return gcTime;
+    }
+
+    /**
+     * @return the fraction of the window spent in stop-the-world GC, between 0 and 1.
+     */
+    public double getOverhead()
+    {
+        return size == 0 ? 0d : (double)gcTime / size;
+    }
+
+    /**
+     * @return the fraction of the window the application threads were running, between 0 and 1. For the worst window,
+     *         this is the minimum mutator utilization (MMU) for the window size.
+     */
+    public double getMutatorUtilization()
+    {
+        return 1d - getOverhead();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "WorstWindow[" + size + " ms at " + start + ", " + gcTime + " ms GC]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,7 +1,15 @@
 package com.novaordis.gc.cli;
 
+import com.novaordis.gc.cli.command.BatchCommand;
+import com.novaordis.gc.cli.command.CMSCommand;
+import com.novaordis.gc.cli.command.ConcurrentCommand;
 import com.novaordis.gc.cli.command.ExportCommand;
 import com.novaordis.gc.cli.command.InfoCommand;
+import com.novaordis.gc.cli.command.LeakCommand;
+import com.novaordis.gc.cli.command.OverheadCommand;
+import com.novaordis.gc.cli.command.SafepointsCommand;
+import com.novaordis.gc.cli.command.ResizingCommand;
+import com.novaordis.gc.cli.command.TenuringCommand;
 import com.novaordis.gc.cli.command.TestCommand;
 import com.novaordis.gc.cli.command.VersionCommand;
 import com.novaordis.gc.cli.command.tccs.TomsCommand;
@@ -42,6 +50,38 @@ public class CommandFactory
         {
             return new ExportCommand(c, args);
         }
+        else if ("overhead".equals(name))
+        {
+            return new OverheadCommand(c, args);
+        }
+        else if ("leak".equals(name))
+        {
+            return new LeakCommand(c, args);
+        }
+        else if ("cms".equals(name))
+        {
+            return new CMSCommand(c, args);
+        }
+        else if ("concurrent".equals(name))
+        {
+            return new ConcurrentCommand(c, args);
+        }
+        else if ("safepoints".equals(name))
+        {
+            return new SafepointsCommand(c, args);
+        }
+        else if ("tenuring".equals(name))
+        {
+            return new TenuringCommand(c, args);
+        }
+        else if ("resizing".equals(name))
+        {
+            return new ResizingCommand(c, args);
+        }
+        else if ("batch".equals(name))
+        {
+            return new BatchCommand(c, args);
+        }
         else if ("toms".equals(name) || "tots".equals(name))
         {
             if (name.equals("toms"))
@@ -2,6 +2,11 @@ package com.novaordis.gc.cli;
 
 import com.novaordis.gc.UserErrorException;
 import com.novaordis.gc.cli.command.InfoCommand;
+import com.novaordis.gc.model.MemoryFormat;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.TimeRange;
 import org.apache.log4j.Logger;
 
 import java.io.File;
@@ -57,7 +62,8 @@ public class Configuration
     public static final SimpleDateFormat TIMESTAMP_DISPLAY_FORMAT = new SimpleDateFormat("MM/dd/yy hh:mm:ss.SSS a");
     public static final DecimalFormat DURATION_SECONDS_FORMAT = new DecimalFormat("####.000");
     public static final DecimalFormat PERCENTAGE_FORMAT = new DecimalFormat("#.00");
-    public static final DecimalFormat MEMORY_FORMAT = new DecimalFormat("#.0");
+    // renders identically to new DecimalFormat("#.0"), but much faster for memory values
+    public static final DecimalFormat MEMORY_FORMAT = new MemoryFormat();
     public static final DecimalFormat DOUBLE_TWO_DIGITS_AFTER_DECIMAL_SEPARATOR = new DecimalFormat("#0.00");
 
 
@@ -69,6 +75,13 @@ public class Configuration
     private Long timeOrigin;
     private Command command;
     private boolean suppressTimestampWarning;
+    private boolean skipHeapAtGC;
+
+    // null if neither --from nor --to was specified
+    private TimeRange timeRange;
+
+    // null if --where was not specified
+    private Predicate filter;
 
     // Constructors ------------------------------------------------------------------------------------------------------------------------
 
@@ -126,6 +139,31 @@ public class Configuration
         return suppressTimestampWarning;
     }
 
+    /**
+     * @return true if --skip-heap-at-gc was specified: the -XX:+PrintHeapAtGC snapshots are skipped without being
+     *         decoded.
+     */
+    public boolean isSkipHeapAtGC()
+    {
+        return skipHeapAtGC;
+    }
+
+    /**
+     * @return the time range specified with --from/--to, or null if the whole log should be processed.
+     */
+    public TimeRange getTimeRange()
+    {
+        return timeRange;
+    }
+
+    /**
+     * @return the event filter specified with --where, or null if all events should be processed.
+     */
+    public Predicate getFilter()
+    {
+        return filter;
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     /**
@@ -165,11 +203,76 @@ public class Configuration
     }
 
     /**
+     * Configures one end of the time range. The value can be an offset in seconds relative to the JVM start ("3600",
+     * "3600.500"), a GC log date stamp ("2014-08-14T01:12:28.620-0700") or a timestamp in the time origin format.
+     *
      * Package protection exposure for testing.
      *
+     * @param lower true for --from, false for --to
+     */
+    static void toTimeRangeBound(TimeRange range, boolean lower, String s) throws UserErrorException
+    {
+        if (s.matches("\\d+(\\.\\d{1,3})?"))
+        {
+            int dot = s.indexOf('.');
+            long offset;
+
+            if (dot == -1)
+            {
+                offset = Long.parseLong(s) * 1000L;
+            }
+            else
+            {
+                String millis = (s.substring(dot + 1) + "00").substring(0, 3);
+                offset = Long.parseLong(s.substring(0, dot)) * 1000L + Integer.parseInt(millis);
+            }
+
+            if (lower)
+            {
+                range.setFromOffset(offset);
+            }
+            else
+            {
+                range.setToOffset(offset);
+            }
+
+            return;
+        }
+
+        long time;
+
+        if (s.matches("\\d\\d\\d\\d-\\d\\d-\\d\\dT.*"))
+        {
+            try
+            {
+                time = Timestamp.dateStampToTime(s, null);
+            }
+            catch(ParserException e)
+            {
+                throw new UserErrorException(e.getMessage(), e);
+            }
+        }
+        else
+        {
+            time = toTimeOrigin(s);
+        }
+
+        if (lower)
+        {
+            range.setFromTime(time);
+        }
+        else
+        {
+            range.setToTime(time);
+        }
+    }
+
+    /**
+     * Also used by the batch command, for each of the files.
+     *
      * @return null if no meaningful time origin can be extracted from the file name.
      */
-    static Long fileNameToTimeOrigin(String fileName) throws UserErrorException
+    public static Long fileNameToTimeOrigin(String fileName) throws UserErrorException
     {
         if (fileName == null)
         {
@@ -265,10 +368,50 @@ public class Configuration
 
                 timeOrigin = toTimeOrigin(tos);
             }
+            else if ("--from".equals(crt) || "--to".equals(crt))
+            {
+                if (!i.hasNext())
+                {
+                    throw new UserErrorException("an offset or a time stamp should follow " + crt);
+                }
+
+                String value = i.next();
+
+                if (value.matches("\\d\\d/\\d\\d/\\d\\d") && i.hasNext())
+                {
+                    // the shell broke the timestamp in two tokens, same as for --time-origin
+                    value += " " + i.next();
+                }
+
+                if (timeRange == null)
+                {
+                    timeRange = new TimeRange();
+                }
+
+                toTimeRangeBound(timeRange, "--from".equals(crt), value);
+            }
+            else if ("--where".equals(crt))
+            {
+                if (!i.hasNext())
+                {
+                    throw new UserErrorException("a filter expression should follow " + crt);
+                }
+
+                if (filter != null)
+                {
+                    throw new UserErrorException("--where can only be specified once, use && to combine conditions");
+                }
+
+                filter = Predicate.parse(i.next());
+            }
             else if ("--suppress-timestamp-warning".equals(crt))
             {
                 suppressTimestampWarning=true;
             }
+            else if ("--skip-heap-at-gc".equals(crt))
+            {
+                skipHeapAtGC = true;
+            }
             else if (crt.startsWith("--"))
             {
                 throw new UserErrorException("unknown global option " + crt);
@@ -305,6 +448,18 @@ public class Configuration
 
         // the command will parse the file, and there is a chance we'll find timestamps inside, so don't complain about missing timestamps
         // yet
+
+        if (timeRange != null)
+        {
+            Long from = timeRange.getFromTime() != null ? timeRange.getFromTime() : timeRange.getFromOffset();
+            Long to = timeRange.getToTime() != null ? timeRange.getToTime() : timeRange.getToOffset();
+            boolean sameKind = (timeRange.getFromTime() == null) == (timeRange.getToTime() == null);
+
+            if (from != null && to != null && sameKind && from > to)
+            {
+                throw new UserErrorException("--from must not follow --to");
+            }
+        }
     }
 
     private void inferConfiguration() throws UserErrorException
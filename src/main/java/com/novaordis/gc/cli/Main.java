@@ -57,7 +57,8 @@ public class Main
 
                 TimeOrigin timeOrigin = new TimeOrigin(c.getTimeOrigin());
 
-                GCLogParser gcParser = GCLogParserFactory.getParser(gcLogFile);
+                GCLogParser gcParser = GCLogParserFactory.getParser(gcLogFile, c.getTimeRange(), c.getFilter(),
+                    !c.isSkipHeapAtGC());
 
                 events = gcParser.parse(timeOrigin);
             }
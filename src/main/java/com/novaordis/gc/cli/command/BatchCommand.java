@@ -0,0 +1,690 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.LogSummary;
+import com.novaordis.gc.analysis.PauseHistogram;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.expression.Expression;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.linear.MultiRunParser;
+import com.novaordis.series.Series;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Analyzes a fleet of GC logs - all the files of a directory, or the files listed in a manifest - and reports one
+ * summary line per log: pause percentiles, GC overhead and full collection count.
+ *
+ * The logs are parsed concurrently on a bounded pool (one thread per core by default). Since a parsed log is held in
+ * memory while it is summarized, the logs are also admitted against a memory budget: each log reserves an estimate
+ * proportional to its size before it is parsed, so a few very large logs do not run concurrently and exhaust the heap.
+ * The largest logs are started first, so they do not end up alone at the tail of the batch.
+ *
+ * A log that fails to parse is reported as failed, it does not abort the batch.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class BatchCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(BatchCommand.class);
+
+    private static final long MB = 1024 * 1024;
+
+    // rough heap footprint of the parsed events, per byte of log
+    static final long HEAP_BYTES_PER_LOG_BYTE = 8;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private Configuration configuration;
+
+    private int threads;
+
+    // MB
+    private long memoryBudget;
+
+    // null if the per-log CSV files are not required
+    private File exportDirectory;
+
+    // copied for each log, the output file is ignored
+    private ExportSpecification exportTemplate;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public BatchCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        this.configuration = c;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.memoryBudget = Math.max(1L, Runtime.getRuntime().maxMemory() / MB * 3 / 4);
+
+        String crt = null;
+
+        while(crt != null || args.hasNext())
+        {
+            if (crt == null)
+            {
+                crt = args.next();
+            }
+
+            if ("--threads".equals(crt))
+            {
+                threads = toPositiveInt(crt, args);
+            }
+            else if ("--memory".equals(crt))
+            {
+                memoryBudget = toPositiveInt(crt, args);
+            }
+            else if ("--export".equals(crt))
+            {
+                if (!args.hasNext())
+                {
+                    throw new UserErrorException("a directory should follow --export");
+                }
+
+                exportDirectory = new File(args.next());
+                exportTemplate = new ExportSpecification();
+            }
+            else if (exportTemplate != null && ("-u".equals(crt) || "--unit".equals(crt)))
+            {
+                if (!args.hasNext())
+                {
+                    throw new UserErrorException("a memory unit should follow " + crt);
+                }
+
+                exportTemplate.setOutputMemoryUnit(Unit.extendedValueOf(args.next()));
+            }
+            else if (exportTemplate != null && ("-c".equals(crt) || "--collection-type".equals(crt)))
+            {
+                crt = exportTemplate.processCollectionTypeArguments(args);
+                continue;
+            }
+            else if (exportTemplate != null && ("-f".equals(crt) || "--fields".equals(crt)))
+            {
+                crt = exportTemplate.processFieldsArguments(args);
+                continue;
+            }
+            else
+            {
+                throw new UserErrorException("unknown batch option: " + crt);
+            }
+
+            crt = null;
+        }
+
+        if (exportTemplate != null)
+        {
+            exportTemplate.applyDefaults();
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The logs are parsed by the command itself.
+     */
+    @Override
+    public boolean needsGcData()
+    {
+        return false;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        File input = configuration.getGCLogFile();
+
+        if (input == null)
+        {
+            throw new UserErrorException("no GC log directory or manifest specified");
+        }
+
+        List<File> files = resolve(input);
+
+        if (files.isEmpty())
+        {
+            throw new UserErrorException(input + " does not contain any GC log");
+        }
+
+        if (exportDirectory != null && !exportDirectory.isDirectory() && !exportDirectory.mkdirs())
+        {
+            throw new UserErrorException("cannot create the export directory " + exportDirectory);
+        }
+
+        System.out.print(toReport(run(files)));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * @return MB.
+     */
+    public long getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    /**
+     * @return null if the per-log CSV files are not required.
+     */
+    public File getExportDirectory()
+    {
+        return exportDirectory;
+    }
+
+    /**
+     * @return null if the per-log CSV files are not required.
+     */
+    public ExportSpecification getExportTemplate()
+    {
+        return exportTemplate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BatchCommand[" + threads + " threads, " + memoryBudget + " MB" +
+            (exportDirectory == null ? "" : ", export to " + exportDirectory) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param input a directory, in which case all its regular, non-hidden files are returned in name order, or a
+     *              manifest: one log path per line, empty lines and lines starting with '#' ignored, relative paths
+     *              resolved against the directory of the manifest.
+     */
+    static List<File> resolve(File input) throws Exception
+    {
+        List<File> result = new ArrayList<File>();
+
+        if (input.isDirectory())
+        {
+            File[] content = input.listFiles();
+
+            if (content != null)
+            {
+                for(File f: content)
+                {
+                    if (f.isFile() && !f.isHidden())
+                    {
+                        result.add(f);
+                    }
+                }
+            }
+
+            Collections.sort(result);
+            return result;
+        }
+
+        if (!input.isFile() || !input.canRead())
+        {
+            throw new UserErrorException("GC log directory or manifest " + input + " does not exist or cannot be read");
+        }
+
+        BufferedReader r = null;
+
+        try
+        {
+            r = new BufferedReader(new FileReader(input));
+
+            String line;
+
+            while((line = r.readLine()) != null)
+            {
+                line = line.trim();
+
+                if (line.length() == 0 || line.startsWith("#"))
+                {
+                    continue;
+                }
+
+                File f = new File(line);
+
+                if (!f.isAbsolute())
+                {
+                    f = new File(input.getAbsoluteFile().getParentFile(), line);
+                }
+
+                result.add(f);
+            }
+        }
+        finally
+        {
+            if (r != null)
+            {
+                r.close();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the outcomes, in the order of the files.
+     */
+    List<Outcome> run(List<File> files) throws Exception
+    {
+        List<Outcome> outcomes = new ArrayList<Outcome>();
+        Set<String> exportNames = new HashSet<String>();
+
+        for(File f: files)
+        {
+            // the file name time origin formats are shared, infer on this thread
+            Long origin = configuration == null ? null : configuration.getTimeOrigin();
+            Outcome o = new Outcome(f, origin != null ? origin : Configuration.fileNameToTimeOrigin(f.getName()),
+                estimate(f.length(), memoryBudget));
+
+            // logs listed in a manifest may have the same name in different directories
+            String name = f.getName() + ".csv";
+
+            for(int i = 2; !exportNames.add(name); i ++)
+            {
+                name = f.getName() + "-" + i + ".csv";
+            }
+
+            o.setExportName(name);
+            outcomes.add(o);
+        }
+
+        List<Outcome> largestFirst = new ArrayList<Outcome>(outcomes);
+
+        Collections.sort(largestFirst, new Comparator<Outcome>()
+        {
+            @Override
+            public int compare(Outcome o, Outcome o2)
+            {
+                long l = o.getFile().length();
+                long l2 = o2.getFile().length();
+                return l < l2 ? 1 : (l == l2 ? 0 : -1);
+            }
+        });
+
+        int n = Math.min(threads, files.size());
+
+        if (n <= 1 || log.isDebugEnabled())
+        {
+            // the debug messages render events with formats that are not thread safe
+            // one log at a time, so a log with several runs may parse them in parallel
+            for(Outcome o: largestFirst)
+            {
+                try
+                {
+                    analyze(o, threads);
+                }
+                catch(Error e)
+                {
+                    failed(o, e);
+                }
+            }
+
+            return outcomes;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(n);
+        final Semaphore memory = new Semaphore((int)memoryBudget);
+
+        try
+        {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+
+            for(final Outcome o: largestFirst)
+            {
+                // admission: wait until enough of the budget is released by the logs already in progress
+                memory.acquire(o.getEstimate());
+
+                futures.add(executor.submit(new Callable<Object>()
+                {
+                    @Override
+                    public Object call() throws Exception
+                    {
+                        try
+                        {
+                            // the pool already keeps the processors busy, the runs of a log are parsed in sequence
+                            analyze(o, 1);
+                            return null;
+                        }
+                        finally
+                        {
+                            memory.release(o.getEstimate());
+                        }
+                    }
+                }));
+            }
+
+            for(int i = 0; i < futures.size(); i ++)
+            {
+                try
+                {
+                    futures.get(i).get();
+                }
+                catch(ExecutionException e)
+                {
+                    // an error analyze() does not handle (StackOverflowError on a pathological log, for example) only
+                    // fails its own log
+                    failed(largestFirst.get(i), e.getCause());
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * Parses and summarizes one log, exporting it if required. Never throws, the failure is recorded instead.
+     *
+     * @param parserThreads the number of threads the log's runs may be parsed on, if the JVM was restarted.
+     */
+    void analyze(Outcome o, int parserThreads)
+    {
+        File f = o.getFile();
+
+        try
+        {
+            GCLogParser parser = getParser(f, parserThreads);
+
+            List<GCEvent> events = parser.parse(new TimeOrigin(o.getTimeOrigin()));
+
+            LogSummary s = new LogSummary();
+            s.recordAll(events);
+
+            if (exportTemplate != null)
+            {
+                export(new File(exportDirectory, o.getExportName()), events);
+            }
+
+            o.setSummary(s);
+            log.debug(f + " summarized: " + s);
+        }
+        catch(ParserException e)
+        {
+            o.setFailure("line " + e.getLineNumber() + ": " + e.getMessage());
+        }
+        catch(Exception e)
+        {
+            o.setFailure(e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+        catch(OutOfMemoryError e)
+        {
+            // the events of this log are unreachable by now, the others may still fit
+            o.setFailure("not enough memory, increase the heap or lower --memory");
+        }
+
+        if (o.getFailure() != null)
+        {
+            log.warn(f + " failed: " + o.getFailure());
+        }
+    }
+
+    /**
+     * Records the failure of a log whose analysis threw.
+     */
+    void failed(Outcome o, Throwable t)
+    {
+        // the class name tells more than the message of an error
+        o.setFailure(t.toString());
+        log.warn(o.getFile() + " failed: " + o.getFailure());
+    }
+
+    /**
+     * @param parserThreads the number of threads the runs are parsed on, if the log contains more than one JVM run.
+     */
+    GCLogParser getParser(File f, int parserThreads) throws Exception
+    {
+        GCLogParser parser = GCLogParserFactory.getParser(f, configuration == null ? null : configuration.getTimeRange(),
+            configuration == null ? null : configuration.getFilter(),
+            configuration == null || !configuration.isSkipHeapAtGC());
+
+        if (parser instanceof MultiRunParser)
+        {
+            ((MultiRunParser)parser).setThreads(parserThreads);
+        }
+
+        return parser;
+    }
+
+    static String toReport(List<Outcome> outcomes)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        int width = "total".length();
+
+        for(Outcome o: outcomes)
+        {
+            width = Math.max(width, o.getFile().getPath().length());
+        }
+
+        String format = "%-" + width + "s %10s %6s %10s %10s %10s %10s %10s\n";
+
+        sb.append('\n').append(String.format(format,
+            "log", "pauses", "full", "p50 (ms)", "p90 (ms)", "p99 (ms)", "max (ms)", "overhead"));
+
+        LogSummary total = new LogSummary();
+        List<Outcome> failed = new ArrayList<Outcome>();
+
+        for(Outcome o: outcomes)
+        {
+            LogSummary s = o.getSummary();
+
+            if (s == null)
+            {
+                failed.add(o);
+                sb.append(String.format("%-" + width + "s %10s\n", o.getFile().getPath(), "failed"));
+                continue;
+            }
+
+            total.merge(s);
+            append(sb, format, o.getFile().getPath(), s);
+        }
+
+        if (outcomes.size() > failed.size())
+        {
+            append(sb, format, "total", total);
+        }
+
+        if (!failed.isEmpty())
+        {
+            sb.append('\n').append(failed.size()).append(" of ").append(outcomes.size()).append(" logs failed:\n\n");
+
+            for(Outcome o: failed)
+            {
+                sb.append(o.getFile().getPath()).append(": ").append(o.getFailure()).append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @return MB, at least 1 and at most the budget, so any log can eventually be admitted.
+     */
+    static int estimate(long fileLength, long memoryBudget)
+    {
+        long mb = (fileLength * HEAP_BYTES_PER_LOG_BYTE + MB - 1) / MB;
+        return (int)Math.max(1L, Math.min(mb, memoryBudget));
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static int toPositiveInt(String option, Iterator<String> args) throws UserErrorException
+    {
+        if (!args.hasNext())
+        {
+            throw new UserErrorException("a positive integer should follow " + option);
+        }
+
+        String s = args.next();
+
+        try
+        {
+            int i = Integer.parseInt(s);
+
+            if (i > 0)
+            {
+                return i;
+            }
+        }
+        catch(NumberFormatException e)
+        {
+            // fall through
+        }
+
+        throw new UserErrorException("a positive integer should follow " + option + ", not " + s);
+    }
+
+    private static void append(StringBuilder sb, String format, String label, LogSummary s)
+    {
+        PauseHistogram h = s.getPauses().getAll();
+        boolean empty = h.getCount() == 0;
+        Double overhead = s.getOverhead();
+
+        sb.append(String.format(format, label, h.getCount(), s.getFullCollectionCount(),
+            empty ? "" : h.getValueAtPercentile(50d), empty ? "" : h.getValueAtPercentile(90d),
+            empty ? "" : h.getValueAtPercentile(99d), empty ? "" : h.getMax(),
+            overhead == null ? "" : String.format("%.2f%%", overhead * 100)));
+    }
+
+    /**
+     * Writes the events of a log into the given CSV file, according to the export template.
+     */
+    private void export(File output, List<GCEvent> events) throws Exception
+    {
+        ExportSpecification spec = new ExportSpecification();
+        spec.setOutputFile(output);
+        spec.setOutputMemoryUnit(exportTemplate.getOutputMemoryUnit());
+        spec.setCollectionTypes(exportTemplate.getCollectionTypes());
+        spec.setExpressions(new ArrayList<Expression>(exportTemplate.getExpressions()));
+
+        // the series are rendered with the shared timestamp display format
+        synchronized(Configuration.TIMESTAMP_DISPLAY_FORMAT)
+        {
+            Series s = spec.toSeries(events);
+            spec.write(s);
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The result of analyzing one log: a summary, or the reason it failed.
+     */
+    static class Outcome
+    {
+        private File file;
+        private Long timeOrigin;
+        private int estimate;
+        private String exportName;
+
+        private volatile LogSummary summary;
+        private volatile String failure;
+
+        Outcome(File file, Long timeOrigin, int estimate)
+        {
+            this.file = file;
+            this.timeOrigin = timeOrigin;
+            this.estimate = estimate;
+        }
+
+        File getFile()
+        {
+            return file;
+        }
+
+        Long getTimeOrigin()
+        {
+            return timeOrigin;
+        }
+
+        /**
+         * @return MB.
+         */
+        int getEstimate()
+        {
+            return estimate;
+        }
+
+        /**
+         * @return the name of the CSV file, in the export directory.
+         */
+        String getExportName()
+        {
+            return exportName;
+        }
+
+        void setExportName(String exportName)
+        {
+            this.exportName = exportName;
+        }
+
+        /**
+         * @return null if the log failed.
+         */
+        LogSummary getSummary()
+        {
+            return summary;
+        }
+
+        void setSummary(LogSummary summary)
+        {
+            this.summary = summary;
+        }
+
+        /**
+         * @return null if the log was summarized.
+         */
+        String getFailure()
+        {
+            return failure;
+        }
+
+        void setFailure(String failure)
+        {
+            this.failure = failure;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Outcome[" + file + (failure == null ? "" : ", failed") + "]";
+        }
+    }
+}
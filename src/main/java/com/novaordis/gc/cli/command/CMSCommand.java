@@ -0,0 +1,191 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.CMSCycle;
+import com.novaordis.gc.analysis.CMSCycleAssembler;
+import com.novaordis.gc.analysis.CMSCycleOutcome;
+import com.novaordis.gc.analysis.CMSPhase;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.event.GCEvent;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reconstructs the CMS cycles and reports their outcome, frequency, per-phase times, stop-the-world time and the old
+ * generation occupancy the cycles start at.
+ *
+ * @see com.novaordis.gc.analysis.CMSCycleAssembler
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(CMSCommand.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean cycles;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public CMSCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        while(args.hasNext())
+        {
+            String arg = args.next();
+
+            if ("--cycles".equals(arg))
+            {
+                cycles = true;
+            }
+            else
+            {
+                throw new UserErrorException("unknown cms option: " + arg);
+            }
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        CMSCycleAssembler a = new CMSCycleAssembler();
+        a.recordAll(events);
+        a.close();
+
+        System.out.print(toReport(a, cycles));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the individual cycles are listed.
+     */
+    public boolean isCycles()
+    {
+        return cycles;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CMSCommand[" + (cycles ? "cycles" : "") + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    static String toReport(CMSCycleAssembler a, boolean listCycles)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        if (a.getCycleCount() == 0)
+        {
+            sb.append("\nNo CMS cycle found.\n");
+            return sb.toString();
+        }
+
+        sb.append("\nCMS cycles:\n\n");
+        sb.append("Cycles:                         ").append(a.getCycleCount()).append('\n');
+
+        for(CMSCycleOutcome o: CMSCycleOutcome.values())
+        {
+            sb.append(String.format("    %-28s%d\n", toLabel(o) + ":", a.getCount(o)));
+        }
+
+        sb.append("Promotion failures:             ").append(a.getPromotionFailureCount()).append('\n');
+
+        Double interval = a.getAverageInterval();
+
+        if (interval != null)
+        {
+            sb.append("Average interval:               ").
+                append(Configuration.DURATION_SECONDS_FORMAT.format(interval / 1000)).append(" seconds (").
+                append(String.format("%.2f", a.getCyclesPerHour())).append(" cycles/hour)\n");
+        }
+
+        if (a.getAverageInitiatingOccupancyFraction() != null)
+        {
+            sb.append("Initiating OG occupancy:        ").
+                append(String.format("%.1f%% average, %.1f%% min, %.1f%% max\n",
+                    a.getAverageInitiatingOccupancyFraction() * 100, a.getMinInitiatingOccupancyFraction() * 100,
+                    a.getMaxInitiatingOccupancyFraction() * 100));
+        }
+
+        sb.append("Stop-the-world time per cycle:  ").
+            append(String.format("%.0f ms average, %d ms max\n", a.getAverageStopTheWorldTime(), a.getMaxStopTheWorldTime()));
+
+        sb.append('\n').append(String.format("%-20s %12s %12s\n", "phase", "wall (ms)", "cpu (ms)"));
+
+        for(CMSPhase p: CMSPhase.values())
+        {
+            Double wall = a.getAverageWallTime(p);
+
+            if (wall == null)
+            {
+                continue;
+            }
+
+            Double cpu = a.getAverageCpuTime(p);
+
+            sb.append(String.format("%-20s %12.0f %12s\n",
+                p.getLabel() + (p.isStopTheWorld() ? " (STW)" : ""), wall, cpu == null ? "" : String.format("%.0f", cpu)));
+        }
+
+        if (listCycles)
+        {
+            sb.append('\n').append(String.format("%-25s %-24s %12s %14s %10s %4s\n",
+                "start", "outcome", "OG at start", "duration (ms)", "STW (ms)", "PF"));
+
+            for(CMSCycle c: a.getCycles())
+            {
+                Double f = c.getInitiatingOccupancyFraction();
+
+                sb.append(String.format("%-25s %-24s %12s %14d %10d %4s\n",
+                    toTimeLabel(a, c.getStart()), toLabel(c.getOutcome()),
+                    f == null ? "" : String.format("%.1f%%", f * 100), c.getDuration(), c.getStopTheWorldTime(),
+                    c.isPromotionFailure() ? "yes" : ""));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toLabel(CMSCycleOutcome o)
+    {
+        return o.name().toLowerCase().replace('_', ' ');
+    }
+
+    private static String toTimeLabel(CMSCycleAssembler a, long t)
+    {
+        if (a.isAbsolute())
+        {
+            return Configuration.TIMESTAMP_DISPLAY_FORMAT.format(t);
+        }
+
+        return Configuration.DURATION_SECONDS_FORMAT.format((double)t / 1000) + " s";
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
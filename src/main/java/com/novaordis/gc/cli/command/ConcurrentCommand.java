@@ -0,0 +1,239 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.ConcurrentCycleAnalysis;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reports the ZGC and Shenandoah cycles: their frequency and duration, the pauses, the time spent in each concurrent
+ * phase, the allocation stalls and the pacing delays per thread, and the heap headroom the cycles start with.
+ *
+ * @see com.novaordis.gc.analysis.ConcurrentCycleAnalysis
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ConcurrentCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ConcurrentCommand.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean cycles;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public ConcurrentCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        while(args.hasNext())
+        {
+            String arg = args.next();
+
+            if ("--cycles".equals(arg))
+            {
+                cycles = true;
+            }
+            else
+            {
+                throw new UserErrorException("unknown concurrent option: " + arg);
+            }
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        ConcurrentCycleAnalysis a = new ConcurrentCycleAnalysis(cycles);
+        a.recordAll(events);
+
+        System.out.print(toReport(a, cycles));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the individual cycles are listed.
+     */
+    public boolean isCycles()
+    {
+        return cycles;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentCommand[" + (cycles ? "cycles" : "") + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    static String toReport(ConcurrentCycleAnalysis a, boolean listCycles)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        if (a.getCycleCount() == 0)
+        {
+            sb.append("\nNo ZGC or Shenandoah cycle found, the log must be produced with unified logging (-Xlog:gc*).\n");
+            return sb.toString();
+        }
+
+        sb.append('\n').append(CollectionType.ZGC_CYCLE.equals(a.getCollectionType()) ? "ZGC" : "Shenandoah").
+            append(" cycles:\n\n");
+        sb.append("Cycles:                         ").append(a.getCycleCount()).append('\n');
+
+        Double interval = a.getAverageInterval();
+
+        if (interval != null)
+        {
+            sb.append("Average interval:               ").
+                append(Configuration.DURATION_SECONDS_FORMAT.format(interval / 1000)).append(" seconds\n");
+        }
+
+        sb.append("Cycle duration:                 ").
+            append(String.format("%.0f ms average, %d ms max\n", a.getAverageDuration(), a.getMaxDuration()));
+
+        sb.append("Pauses:                         ").append(a.getPauseCount()).append(", ").
+            append(toMilliseconds(a.getPauseTime())).append(" ms total, ").append(toMilliseconds(a.getMaxPause())).
+            append(" ms max\n");
+
+        sb.append("Allocation stalls:              ").append(a.getStallCount());
+
+        if (a.getStallCount() > 0)
+        {
+            sb.append(", ").append(toMilliseconds(a.getStallTime())).append(" ms total, ").
+                append(toMilliseconds(a.getMaxStall())).append(" ms max, in ").append(a.getStalledCycleCount()).
+                append(" cycles");
+        }
+
+        sb.append('\n');
+
+        if (!a.getPacedThreads().isEmpty())
+        {
+            sb.append("Pacing delays:                  ").append(toMilliseconds(a.getPacingTime())).
+                append(" ms total\n");
+        }
+
+        if (a.getAverageHeadroomFraction() != null)
+        {
+            sb.append("Heap headroom at cycle start:   ").
+                append(String.format("%.1f%% average, %.1f%% min (%s)\n", a.getAverageHeadroomFraction() * 100,
+                    a.getMinHeadroomFraction() * 100, toMegabytes(a.getMinHeadroom())));
+
+            Double stalled = a.getAverageStalledHeadroomFraction();
+
+            if (stalled != null)
+            {
+                sb.append("    of the cycles that stalled: ").
+                    append(String.format("%.1f%% average\n", stalled * 100));
+            }
+        }
+
+        sb.append('\n').append(String.format("%-48s %8s %12s %12s %12s\n", "phase", "count", "total (ms)",
+            "average (ms)", "max (ms)"));
+
+        for(String p: a.getPhases())
+        {
+            long count = a.getPhaseCount(p);
+
+            sb.append(String.format("%-48s %8d %12s %12s %12s\n", p, count, toMilliseconds(a.getPhaseTime(p)),
+                toMilliseconds(a.getPhaseTime(p) / count), toMilliseconds(a.getMaxPhaseTime(p))));
+        }
+
+        if (a.getStallCount() > 0)
+        {
+            sb.append('\n').append(String.format("%-48s %8s %12s %12s\n", "stalled thread", "stalls", "total (ms)",
+                "max (ms)"));
+
+            for(String t: a.getStalledThreads())
+            {
+                sb.append(String.format("%-48s %8d %12s %12s\n", t, a.getStallCount(t), toMilliseconds(a.getStallTime(t)),
+                    toMilliseconds(a.getMaxStall(t))));
+            }
+        }
+
+        if (!a.getPacedThreads().isEmpty())
+        {
+            sb.append('\n').append(String.format("%-48s %8s %12s\n", "paced thread", "cycles", "total (ms)"));
+
+            for(String t: a.getPacedThreads())
+            {
+                sb.append(String.format("%-48s %8d %12s\n", t, a.getPacingCount(t), toMilliseconds(a.getPacingTime(t))));
+            }
+        }
+
+        if (listCycles)
+        {
+            sb.append('\n').append(String.format("%-25s %14s %12s %14s %8s %12s\n",
+                "start", "duration (ms)", "pauses (ms)", "headroom", "stalls", "stalls (ms)"));
+
+            for(ConcurrentCycle c: a.getCycles())
+            {
+                long stalled = 0L;
+
+                for(int i = 0; i < c.getStallCount(); i ++)
+                {
+                    stalled += c.getStallMicroseconds(i);
+                }
+
+                long headroom = c.getHeadroomAtStart();
+
+                sb.append(String.format("%-25s %14d %12s %14s %8d %12s\n",
+                    toTimeLabel(a, c), c.getDuration(), toMilliseconds(c.getPauseMicroseconds()),
+                    headroom < 0 ? "" : String.format("%.1f%%", (double)headroom * 100 / c.getHeapCapacityAtStart()),
+                    c.getStallCount(), c.getStallCount() == 0 ? "" : toMilliseconds(stalled)));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toMilliseconds(long microseconds)
+    {
+        return String.format("%.3f", (double)microseconds / 1000);
+    }
+
+    private static String toMegabytes(long bytes)
+    {
+        return String.format("%.1fM", (double)bytes / (1024 * 1024));
+    }
+
+    private static String toTimeLabel(ConcurrentCycleAnalysis a, ConcurrentCycle c)
+    {
+        if (a.isAbsolute())
+        {
+            return Configuration.TIMESTAMP_DISPLAY_FORMAT.format(c.getTime());
+        }
+
+        Long offset = c.getOffset();
+        return offset == null || offset < 0 ? "" : Configuration.DURATION_SECONDS_FORMAT.format((double)offset / 1000) + " s";
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,28 +1,31 @@
 package com.novaordis.gc.cli.command;
 
-import com.novaordis.gc.StringTokenizerIterator;
 import com.novaordis.gc.UserErrorException;
 import com.novaordis.gc.cli.Command;
 import com.novaordis.gc.cli.Configuration;
-import com.novaordis.gc.model.*;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Unit;
 import com.novaordis.gc.model.event.GCEvent;
 import com.novaordis.gc.model.expression.Expression;
-import com.novaordis.gc.model.expression.Expressions;
-import com.novaordis.series.Header;
-import com.novaordis.series.LinkedListSeries;
-import com.novaordis.series.Metric;
 import com.novaordis.series.Series;
-import com.novaordis.series.csv.CsvOutput;
 import org.apache.log4j.Logger;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Exports the parsed content into a CSV file.
  *
+ * Several output specifications, separated by SPECIFICATION_SEPARATOR, can be handled in one invocation. In that case
+ * the events are walked once and fanned out to all matching specifications, then the outputs are written one after
+ * another. The events are already parsed, so writing the outputs concurrently would not overlap anything, while the
+ * series share the timestamp display format, which is not thread safe.
+ *
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
  *
  * Copyright 2013 Nova Ordis LLC
@@ -33,17 +36,15 @@ public class ExportCommand implements Command
 
     private static final Logger log = Logger.getLogger(ExportCommand.class);
 
+    // separates multiple output specifications on the command line
+    public static final String SPECIFICATION_SEPARATOR = "+";
+
     // Static ------------------------------------------------------------------------------------------------------------------------------
 
     // Attributes --------------------------------------------------------------------------------------------------------------------------
 
-    private File output;
-    private Unit outputMemoryUnit;
-    private Set<CollectionType> collectionTypes;
-
-    // it does NOT contain the timestamp - the timestamp is handled separately, as is a required element and always on the first position
-    // in the row
-    private List<Expression> expressionsToBeExported;
+    // at least one, in the order they were specified on the command line
+    private List<ExportSpecification> specifications;
 
     // Constructors ------------------------------------------------------------------------------------------------------------------------
 
@@ -51,6 +52,8 @@ public class ExportCommand implements Command
     {
         this();
 
+        ExportSpecification current = specifications.get(0);
+
         String crt = null;
 
         //noinspection LoopStatementThatDoesntLoop
@@ -62,26 +65,37 @@ public class ExportCommand implements Command
                 crt = args.next();
             }
 
-            if ("-o".equals(crt) || "--output".equals(crt))
+            if (SPECIFICATION_SEPARATOR.equals(crt))
+            {
+                if (!args.hasNext())
+                {
+                    throw new UserErrorException(SPECIFICATION_SEPARATOR + " should be followed by an output specification");
+                }
+
+                current.applyDefaults();
+                current = new ExportSpecification();
+                specifications.add(current);
+            }
+            else if ("-o".equals(crt) || "--output".equals(crt))
             {
                 String arg = insureNotLastOrFollowedBySwitch(crt, args);
-                output = new File(arg);
+                current.setOutputFile(new File(arg));
             }
             else if ("-u".equals(crt) || "--unit".equals(crt))
             {
                 String arg = insureNotLastOrFollowedBySwitch(crt, args);
-                outputMemoryUnit = Unit.extendedValueOf(arg);
+                current.setOutputMemoryUnit(Unit.extendedValueOf(arg));
             }
             else if ("-c".equals(crt) || "--collection-type".equals(crt))
             {
-                crt = processCollectionTypeArguments(args);
+                crt = current.processCollectionTypeArguments(args);
                 continue;
             }
             else if ("-f".equals(crt) || "--fields".equals(crt))
             {
-                crt = processFieldsArguments(args);
+                crt = current.processFieldsArguments(args);
 
-                if (expressionsToBeExported.isEmpty())
+                if (current.getExpressions().isEmpty())
                 {
                     throw new UserErrorException("-f|--fields should be followed by a comma-separated combination of field definitions");
                 }
@@ -96,28 +110,9 @@ public class ExportCommand implements Command
             crt = null;
         }
 
-        // don't do anything if output is null, we will simply write at stdout ...
-
-        if (outputMemoryUnit == null)
-        {
-            outputMemoryUnit = Unit.M;
-        }
+        current.applyDefaults();
 
-        if (collectionTypes.isEmpty())
-        {
-            collectionTypes.addAll(Arrays.asList(CollectionType.values()));
-        }
-
-        // if we did not specify types, install default
-        if (expressionsToBeExported.isEmpty())
-        {
-            // only timestamp
-            expressionsToBeExported.add(FieldType.OFFSET);
-            expressionsToBeExported.add(FieldType.COLLECTION_TYPE);
-            expressionsToBeExported.add(FieldType.DURATION);
-            expressionsToBeExported.add(FieldType.OG_CAPACITY);
-            expressionsToBeExported.add(FieldType.OG_AFTER);
-        }
+        validateOutputs();
 
         log.debug(this + " constructed, configuration: " + c);
     }
@@ -127,8 +122,8 @@ public class ExportCommand implements Command
      */
     ExportCommand()
     {
-        this.collectionTypes = new HashSet<CollectionType>();
-        this.expressionsToBeExported = new ArrayList<Expression>();
+        this.specifications = new ArrayList<ExportSpecification>();
+        this.specifications.add(new ExportSpecification());
     }
 
     // Command implementation --------------------------------------------------------------------------------------------------------------
@@ -144,65 +139,78 @@ public class ExportCommand implements Command
     {
         log.debug("executing " + this);
 
-        // filter interesting events into a series
-
-        Series s = toSeries(events);
-
-        // write
-
-        OutputStream os = null;
-
-        try
+        if (specifications.size() == 1)
         {
-            os = output == null ? System.out : new FileOutputStream(output);
-
-            CsvOutput o = new CsvOutput(os);
-            o.write(s);
+            // filter interesting events into a series and write it, there is nothing to fan out
 
-            if (output != null)
-            {
-                log.info(output + " written");
-            }
-        }
-        finally
-        {
-            if (os != null)
-            {
-                os.close();
-            }
+            ExportSpecification spec = specifications.get(0);
+            Series s = spec.toSeries(events);
+            spec.write(s);
+            return;
         }
+
+        fanOut(events);
     }
 
     // Public ------------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return true if the argument is one of the export command options, or the specification separator.
+     */
+    public static boolean isExportOption(String arg)
+    {
+        return SPECIFICATION_SEPARATOR.equals(arg) ||
+            "-o".equals(arg) || "--output".equals(arg) ||
+            "-u".equals(arg) || "--unit".equals(arg) ||
+            "-c".equals(arg) || "--collection-type".equals(arg) ||
+            "-f".equals(arg) || "--fields".equals(arg);
+    }
+
+    public List<ExportSpecification> getSpecifications()
+    {
+        return specifications;
+    }
+
+    /**
+     * @return the output file of the first specification.
+     */
     public File getOutputFile()
     {
-        return output;
+        return specifications.get(0).getOutputFile();
     }
 
+    /**
+     * @return the output memory unit of the first specification.
+     */
     public Unit getOutputMemoryUnit()
     {
-        return outputMemoryUnit;
+        return specifications.get(0).getOutputMemoryUnit();
     }
 
+    /**
+     * @return the collection types of the first specification.
+     */
     public Set<CollectionType> getCollectionTypes()
     {
-        return collectionTypes;
+        return specifications.get(0).getCollectionTypes();
     }
 
+    /**
+     * @return the expressions of the first specification.
+     */
     public List<Expression> getExpressions()
     {
-        return expressionsToBeExported;
+        return specifications.get(0).getExpressions();
     }
 
-    // Package protected -----------------------------------------------------------------------------------------------
+    // Package protected -------------------------------------------------------------------------------------------------------------------
 
     /**
      * Package-exposed for testing.
      */
     void setExpressions(List<Expression> es)
     {
-        this.expressionsToBeExported = es;
+        specifications.get(0).setExpressions(es);
     }
 
     /**
@@ -210,77 +218,55 @@ public class ExportCommand implements Command
      */
     void setCollectionTypes(Set<CollectionType> cts)
     {
-        this.collectionTypes = cts;
+        specifications.get(0).setCollectionTypes(cts);
     }
 
     /**
-     * Convert the list of GC events to a generic series, after filtering the events we're not interested in and
-     * performing any unit conversions that might be required.
+     * Convert the list of GC events to a generic series, according to the first specification.
      *
      * Package-exposed for testing.
      */
     Series toSeries(List<GCEvent> events) throws Exception
     {
-        // we need to make sure that distinct GC events with the same timestamp are accepted, this is sometimes
-        // the case for quick CMS event successions
-        Series s = new LinkedListSeries(true);
-        List<Header> headers = new ArrayList<Header>();
+        return specifications.get(0).toSeries(events);
+    }
+
+    /**
+     * Walks the event list once and adds each event to the series of all specifications that accept it, then writes
+     * the series, in the order of the specifications.
+     *
+     * Package-exposed for testing.
+     *
+     * @return the series, in the order of the specifications.
+     */
+    List<Series> fanOut(List<GCEvent> events) throws Exception
+    {
+        int count = specifications.size();
+        ExportSpecification[] specs = specifications.toArray(new ExportSpecification[count]);
+        Series[] series = new Series[count];
 
-        for(Expression exp: expressionsToBeExported)
+        for(int i = 0; i < count; i ++)
         {
-            // we only perform unit conversion for memory values so far
-            Unit toUnit = FieldCategory.MEMORY.equals(exp.getCategory()) ? outputMemoryUnit : null;
-            Header h = exp.toHeader(toUnit);
-            headers.add(h);
+            series[i] = specs[i].newSeries();
         }
 
-        s.setHeaders(headers);
-
         for(GCEvent e: events)
         {
-            // drop events we're not interested in ...
-
-            if (!collectionTypes.contains(e.getCollectionType()))
-            {
-                continue;
-            }
-
-            // add fields
-
-            List<Metric> metrics = new ArrayList<Metric>();
-
-            for(Expression exp: expressionsToBeExported)
+            for(int i = 0; i < count; i ++)
             {
-                Metric m = Metric.EMPTY_METRIC;
-
-                Value v = exp.evaluate(e);
-
-                // we only perform unit conversion for memory values so far
-                Unit toUnit = FieldCategory.MEMORY.equals(exp.getCategory()) ? outputMemoryUnit : null;
-
-                if (v != null)
+                if (specs[i].accepts(e))
                 {
-                    m = v.toMetric(toUnit);
+                    specs[i].add(series[i], e);
                 }
-
-                metrics.add(m);
-            }
-
-            try
-            {
-                s.add(e.getTime(), metrics);
-            }
-            catch(Exception e2)
-            {
-                throw new UserErrorException(
-                    "failed to add the following event to the series: " + e + ", offset " + e.getOffset() + ". Underlying cause: " + e2.getMessage(), e2);
             }
         }
 
-        // enforce our own timestamp format
-        s.setTimestampFormat(Configuration.TIMESTAMP_DISPLAY_FORMAT);
+        for(int i = 0; i < count; i ++)
+        {
+            specs[i].write(series[i]);
+        }
 
-        return s;
+        return Arrays.asList(series);
     }
 
     // Protected ---------------------------------------------------------------------------------------------------------------------------
@@ -304,7 +290,7 @@ public class ExportCommand implements Command
 
         String arg = args.next();
 
-        if (arg.startsWith("-"))
+        if (arg.startsWith("-") || SPECIFICATION_SEPARATOR.equals(arg))
         {
             throw new UserErrorException(crtSwitch + " should be followed by an argument, not by " + arg);
         }
@@ -313,122 +299,31 @@ public class ExportCommand implements Command
     }
 
     /**
-     * The iterator is set to return the immediately next argument after "-c|--collection-type".
-     */
-    private String processCollectionTypeArguments(Iterator<String> args) throws UserErrorException
-    {
-        if (!args.hasNext())
-        {
-            throw new UserErrorException(
-                    "-c|--collection-type should be followed by a comma-separated combination of " +
-                            CollectionType.getCommandLineLabels() + " or \"all\"");
-        }
-
-        while(args.hasNext())
-        {
-            String s = args.next();
-            if (s.endsWith(","))
-            {
-                s = s.substring(0, s.length() - 1);
-
-                if (s.length() == 0)
-                {
-                    // comma by itself, ignore
-                    continue;
-                }
-            }
-
-            CollectionType t;
-
-            if ((t = CollectionType.fromCommandLineLabel(s)) != null)
-            {
-                // is a collection type
-                collectionTypes.add(t);
-            }
-            else if (CollectionType.ALL.equalsIgnoreCase(s))
-            {
-                collectionTypes.addAll(Arrays.asList(CollectionType.values()));
-            }
-            else
-            {
-                // not a collection type, return control to the upper layer
-                return s;
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * The iterator is set to return the immediately next argument after "-f|--fields".
-     *
-     * Side-effecy: updates the content of expressionsToBeExported list.
+     * Multiple outputs cannot share a destination.
      */
-    private String processFieldsArguments(Iterator<String> args) throws UserErrorException
+    private void validateOutputs() throws UserErrorException
     {
-        Iterator<String> prevArgIterator = null;
-        Iterator<String> crtArgIterator = args;
-        String arg;
+        Set<File> files = new HashSet<File>();
+        boolean stdout = false;
 
-        outer: while(true)
+        for(ExportSpecification spec: specifications)
         {
-            if (!crtArgIterator.hasNext())
-            {
-                if (prevArgIterator != null)
-                {
-                    crtArgIterator = prevArgIterator;
-                    prevArgIterator = null;
-                    continue;
-                }
-
-                break;
-            }
-
-            arg = crtArgIterator.next();
-
-            while (arg.endsWith(","))
-            {
-                arg = arg.substring(0, arg.length() - 1);
-
-                if (arg.length() == 0)
-                {
-                    // comma by itself, ignore
-                    continue outer;
-                }
-            }
+            File f = spec.getOutputFile();
 
-            while (arg.startsWith(","))
+            if (f == null)
             {
-                arg = arg.substring(1);
-
-                if (arg.length() == 0)
+                if (stdout)
                 {
-                    // comma by itself, ignore
-                    continue outer;
+                    throw new UserErrorException("only one export specification can write at stdout, use -o|--output for the others");
                 }
-            }
 
-            if (arg.contains(","))
-            {
-                prevArgIterator = crtArgIterator;
-                crtArgIterator = new StringTokenizerIterator(arg, ",");
-                continue;
+                stdout = true;
             }
-
-            Expression e;
-
-            if ((e = Expressions.parse(arg)) != null)
+            else if (!files.add(f.getAbsoluteFile()))
             {
-                expressionsToBeExported.add(e);
-            }
-            else
-            {
-                // could not identify a field expression
-                return arg;
+                throw new UserErrorException("more than one export specification writes into " + f);
             }
         }
-
-        return null;
     }
 
     // Inner classes -----------------------------------------------------------------------------------------------------------------------
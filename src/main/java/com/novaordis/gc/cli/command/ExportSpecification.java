@@ -0,0 +1,405 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.StringTokenizerIterator;
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldCategory;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.expression.Expression;
+import com.novaordis.gc.model.expression.Expressions;
+import com.novaordis.series.Header;
+import com.novaordis.series.LinkedListSeries;
+import com.novaordis.series.Metric;
+import com.novaordis.series.Series;
+import com.novaordis.series.csv.CsvOutput;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A single export output: where to write (-o), in what memory unit (-u), which collection types (-c) and which fields
+ * (-f). An export command may carry several specifications, all of them fed from the same parsed event list.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ExportSpecification
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ExportSpecification.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private File output;
+    private Unit outputMemoryUnit;
+    private Set<CollectionType> collectionTypes;
+
+    // it does NOT contain the timestamp - the timestamp is handled separately, as is a required element and always on the first position
+    // in the row
+    private List<Expression> expressionsToBeExported;
+
+    // resolved when the series is created, so the per-event path does not repeat the lookups
+    private Expression[] expressions;
+    private Unit[] targetUnits;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public ExportSpecification()
+    {
+        this.collectionTypes = new HashSet<CollectionType>();
+        this.expressionsToBeExported = new ArrayList<Expression>();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public File getOutputFile()
+    {
+        return output;
+    }
+
+    public Unit getOutputMemoryUnit()
+    {
+        return outputMemoryUnit;
+    }
+
+    public Set<CollectionType> getCollectionTypes()
+    {
+        return collectionTypes;
+    }
+
+    public List<Expression> getExpressions()
+    {
+        return expressionsToBeExported;
+    }
+
+    /**
+     * @return true if events of this type should be exported by this specification.
+     */
+    public boolean accepts(GCEvent e)
+    {
+        return collectionTypes.contains(e.getCollectionType());
+    }
+
+    /**
+     * Creates an empty series, with headers built according to this specification.
+     */
+    public Series newSeries() throws Exception
+    {
+        // we need to make sure that distinct GC events with the same timestamp are accepted, this is sometimes
+        // the case for quick CMS event successions
+        Series s = new LinkedListSeries(true);
+        List<Header> headers = new ArrayList<Header>();
+
+        int columns = expressionsToBeExported.size();
+        expressions = expressionsToBeExported.toArray(new Expression[columns]);
+        targetUnits = new Unit[columns];
+
+        for(int i = 0; i < columns; i ++)
+        {
+            // we only perform unit conversion for memory values so far
+            targetUnits[i] = FieldCategory.MEMORY.equals(expressions[i].getCategory()) ? outputMemoryUnit : null;
+            Header h = expressions[i].toHeader(targetUnits[i]);
+            headers.add(h);
+        }
+
+        s.setHeaders(headers);
+
+        // enforce our own timestamp format
+        s.setTimestampFormat(Configuration.TIMESTAMP_DISPLAY_FORMAT);
+
+        return s;
+    }
+
+    /**
+     * Evaluates the expressions against the event and adds the resulting row to the series. The event is assumed to
+     * have been accepted already. The series must have been created with newSeries().
+     */
+    public void add(Series s, GCEvent e) throws Exception
+    {
+        int columns = expressions.length;
+        List<Metric> metrics = new ArrayList<Metric>(columns);
+
+        for(int i = 0; i < columns; i ++)
+        {
+            Metric m = Metric.EMPTY_METRIC;
+
+            Value v = expressions[i].evaluate(e);
+
+            if (v != null)
+            {
+                m = v.toMetric(targetUnits[i]);
+            }
+
+            metrics.add(m);
+        }
+
+        try
+        {
+            s.add(e.getTime(), metrics);
+        }
+        catch(Exception e2)
+        {
+            throw new UserErrorException(
+                "failed to add the following event to the series: " + e + ", offset " + e.getOffset() + ". Underlying cause: " + e2.getMessage(), e2);
+        }
+    }
+
+    /**
+     * Convert the list of GC events to a generic series, after filtering the events we're not interested in and
+     * performing any unit conversions that might be required.
+     */
+    public Series toSeries(List<GCEvent> events) throws Exception
+    {
+        Series s = newSeries();
+
+        for(GCEvent e: events)
+        {
+            // drop events we're not interested in ...
+
+            if (!accepts(e))
+            {
+                continue;
+            }
+
+            add(s, e);
+        }
+
+        return s;
+    }
+
+    /**
+     * Writes the series as CSV into the output file, or at stdout if no output file was specified.
+     */
+    public void write(Series s) throws Exception
+    {
+        OutputStream os = null;
+
+        try
+        {
+            os = output == null ? System.out : new FileOutputStream(output);
+
+            CsvOutput o = new CsvOutput(os);
+            o.write(s);
+
+            if (output != null)
+            {
+                log.info(output + " written");
+            }
+        }
+        finally
+        {
+            if (os != null)
+            {
+                os.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ExportSpecification[" + (output == null ? "stdout" : output) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    void setOutputFile(File output)
+    {
+        this.output = output;
+    }
+
+    void setOutputMemoryUnit(Unit unit)
+    {
+        this.outputMemoryUnit = unit;
+    }
+
+    void setExpressions(List<Expression> es)
+    {
+        this.expressionsToBeExported = es;
+    }
+
+    void setCollectionTypes(Set<CollectionType> cts)
+    {
+        this.collectionTypes = cts;
+    }
+
+    /**
+     * Installs the defaults for everything that was not explicitly specified on the command line.
+     */
+    void applyDefaults()
+    {
+        // don't do anything if output is null, we will simply write at stdout ...
+
+        if (outputMemoryUnit == null)
+        {
+            outputMemoryUnit = Unit.M;
+        }
+
+        if (collectionTypes.isEmpty())
+        {
+            collectionTypes.addAll(Arrays.asList(CollectionType.values()));
+        }
+
+        // if we did not specify types, install default
+        if (expressionsToBeExported.isEmpty())
+        {
+            // only timestamp
+            expressionsToBeExported.add(FieldType.OFFSET);
+            expressionsToBeExported.add(FieldType.COLLECTION_TYPE);
+            expressionsToBeExported.add(FieldType.DURATION);
+            expressionsToBeExported.add(FieldType.OG_CAPACITY);
+            expressionsToBeExported.add(FieldType.OG_AFTER);
+        }
+    }
+
+    /**
+     * The iterator is set to return the immediately next argument after "-c|--collection-type".
+     *
+     * @return the first argument that is not a collection type, or null if the arguments were exhausted.
+     */
+    String processCollectionTypeArguments(Iterator<String> args) throws UserErrorException
+    {
+        if (!args.hasNext())
+        {
+            throw new UserErrorException(
+                    "-c|--collection-type should be followed by a comma-separated combination of " +
+                            CollectionType.getCommandLineLabels() + " or \"all\"");
+        }
+
+        while(args.hasNext())
+        {
+            String s = args.next();
+            if (s.endsWith(","))
+            {
+                s = s.substring(0, s.length() - 1);
+
+                if (s.length() == 0)
+                {
+                    // comma by itself, ignore
+                    continue;
+                }
+            }
+
+            CollectionType t;
+
+            if ((t = CollectionType.fromCommandLineLabel(s)) != null)
+            {
+                // is a collection type
+                collectionTypes.add(t);
+            }
+            else if (CollectionType.ALL.equalsIgnoreCase(s))
+            {
+                collectionTypes.addAll(Arrays.asList(CollectionType.values()));
+            }
+            else
+            {
+                // not a collection type, return control to the upper layer
+                return s;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The iterator is set to return the immediately next argument after "-f|--fields".
+     *
+     * Side-effecy: updates the content of expressionsToBeExported list.
+     *
+     * @return the first argument that is not a field expression, or null if the arguments were exhausted.
+     */
+    String processFieldsArguments(Iterator<String> args) throws UserErrorException
+    {
+        Iterator<String> prevArgIterator = null;
+        Iterator<String> crtArgIterator = args;
+        String arg;
+
+        outer: while(true)
+        {
+            if (!crtArgIterator.hasNext())
+            {
+                if (prevArgIterator != null)
+                {
+                    crtArgIterator = prevArgIterator;
+                    prevArgIterator = null;
+                    continue;
+                }
+
+                break;
+            }
+
+            arg = crtArgIterator.next();
+
+            if (prevArgIterator == null && ExportCommand.isExportOption(arg))
+            {
+                // the field list ended, return control to the upper layer
+                return arg;
+            }
+
+            while (arg.endsWith(","))
+            {
+                arg = arg.substring(0, arg.length() - 1);
+
+                if (arg.length() == 0)
+                {
+                    // comma by itself, ignore
+                    continue outer;
+                }
+            }
+
+            while (arg.startsWith(","))
+            {
+                arg = arg.substring(1);
+
+                if (arg.length() == 0)
+                {
+                    // comma by itself, ignore
+                    continue outer;
+                }
+            }
+
+            if (arg.contains(","))
+            {
+                prevArgIterator = crtArgIterator;
+                crtArgIterator = new StringTokenizerIterator(arg, ",");
+                continue;
+            }
+
+            Expression e;
+
+            if ((e = Expressions.parse(arg)) != null)
+            {
+                expressionsToBeExported.add(e);
+            }
+            else
+            {
+                // could not identify a field expression
+                return arg;
+            }
+        }
+
+        return null;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,9 +1,21 @@
 package com.novaordis.gc.cli.command;
 
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.AllocationRates;
+import com.novaordis.gc.analysis.CauseDistribution;
+import com.novaordis.gc.analysis.CpuTimes;
+import com.novaordis.gc.analysis.MetaspaceAnalysis;
+import com.novaordis.gc.analysis.PauseDistribution;
+import com.novaordis.gc.analysis.RunAnalysis;
+import com.novaordis.gc.analysis.SafepointAccounting;
 import com.novaordis.gc.cli.Command;
 import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.event.*;
 import com.novaordis.gc.model.event.cms.CMSEvent;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.model.event.j9.J9Collection;
+import com.novaordis.gc.model.event.serial.SerialCollection;
 import org.apache.log4j.Logger;
 
 import java.util.Iterator;
@@ -47,36 +59,47 @@ public class InfoCommand implements Command
     @Override
     public void execute(List<GCEvent> events) throws Exception
     {
-        int fullCCnt = 0;
-        int ngCCnt = 0;
-        int sdCnt = 0;
-        String algorithm = "Parallel";
-        long tfc = 0L;
+        EventCounts counts = new EventCounts();
+        PauseDistribution pauses = new PauseDistribution();
+        CauseDistribution causes = new CauseDistribution();
+        AllocationRates rates = new AllocationRates();
+        CpuTimes times = new CpuTimes();
+        SafepointAccounting safepoints = new SafepointAccounting();
+        MetaspaceAnalysis metaspace = new MetaspaceAnalysis();
+        RunAnalysis runs = new RunAnalysis();
+        Long begin = null;
+        Long end = null;
 
         for(GCEvent e: events)
         {
-            if (e instanceof FullCollection)
-            {
-                fullCCnt ++;
-                tfc += e.getDuration();
-            }
-            else if (e instanceof NewGenerationCollection)
-            {
-                ngCCnt ++;
-            }
-            else if (e instanceof Shutdown)
-            {
-                sdCnt ++;
-            }
-            else if (e instanceof CMSEvent)
+            runs.record(e);
+
+            if (e.getTime() != null && !(e instanceof Restart))
             {
-                algorithm = "CMS";
+                if (begin == null)
+                {
+                    begin = e.getTime();
+                }
+
+                end = e.getTime();
             }
+
+            pauses.record(e);
+            causes.record(e);
+            rates.record(e);
+            times.record(e);
+            safepoints.record(e);
+            metaspace.record(e);
+            counts.record(e);
+        }
+
+        if (begin == null)
+        {
+            throw new UserErrorException("no timestamped event found in " + c.getGCLogFile());
         }
 
-        long begin = events.get(0).getTime();
-        long end = events.get(events.size() - 1).getTime();
         long elapsedMs = end - begin;
+        long tfc = counts.getFullCollectionTime();
 
         System.out.println("");
         System.out.println("File:                           " + c.getGCLogFile().getAbsolutePath());
@@ -85,27 +108,305 @@ public class InfoCommand implements Command
                 (timeOrigin == null ? "N/A" : Configuration.TIMESTAMP_DISPLAY_FORMAT.format(c.getTimeOrigin())));
         System.out.println("Beginning:                      " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(begin));
         System.out.println("End:                            " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(end));
-        System.out.println("GC collection algorithm:        " + algorithm);
-        System.out.println("New generation collections:     " + ngCCnt);
-        System.out.println("Full collections:               " + fullCCnt);
-        System.out.println("Shutdown events:                " + sdCnt);
+        System.out.println("GC collection algorithm:        " + counts.getAlgorithm());
+        System.out.println("New generation collections:     " + counts.getYoungCollectionCount());
+        System.out.println("Full collections:               " + counts.getFullCollectionCount());
+
+        if (counts.getConcurrentCycleCount() > 0)
+        {
+            System.out.println("Concurrent cycles:              " + counts.getConcurrentCycleCount());
+        }
+
+        System.out.println("Shutdown events:                " + counts.getShutdownCount());
+
+        if (runs.getRunCount() > 1)
+        {
+            System.out.println("JVM runs:                       " + runs.getRunCount());
+        }
+
         System.out.println("Elapsed time:                   " +
                 Configuration.DURATION_SECONDS_FORMAT.format((float) elapsedMs / 1000) + " seconds");
         System.out.println("Time spent in full collections: " +
                 Configuration.DURATION_SECONDS_FORMAT.format((float)tfc / 1000) + " seconds");
         System.out.println("Percentage:                     " +
                 Configuration.PERCENTAGE_FORMAT.format(((float) tfc / (float) elapsedMs) * 100) + "%");
+
+        if (runs.getRunCount() > 1)
+        {
+            System.out.println("");
+            System.out.println("JVM runs (the elapsed time above includes the time between runs):");
+            System.out.println("");
+            System.out.print(runs.toTable());
+        }
+
+        if (!pauses.getCollectionTypes().isEmpty())
+        {
+            System.out.println("");
+            System.out.println("Pause time distribution (ms):");
+            System.out.println("");
+            System.out.print(pauses.toTable());
+        }
+
+        if (!causes.getCauses().isEmpty())
+        {
+            System.out.println("");
+            System.out.println("Pause time by GC cause (ms):");
+            System.out.println("");
+            System.out.print(causes.toTable());
+        }
+
+        rates.close();
+
+        if (rates.getTotalAllocated() > 0)
+        {
+            System.out.println("");
+            System.out.println("Allocation and promotion rates (MB/s, " +
+                rates.getBucketSize() / 1000 + " second buckets):");
+            System.out.println("");
+            System.out.print(rates.toTable());
+            System.out.println("");
+            System.out.println("Promoted/allocated:             " + toPercentage(rates.getPromotionRatio()));
+            System.out.println("Promoted/left young generation: " + toPercentage(rates.getSurvivalRatio()));
+            System.out.println("Promoted, reclaimed by full GC: " + toPercentage(rates.getPromotedReclaimedRatio()));
+            System.out.println("NG collections promoting > " +
+                (int)(AllocationRates.PREMATURE_PROMOTION_THRESHOLD * 100) + "%: " +
+                rates.getPrematurePromotionCount() + " of " + rates.getNewGenerationCollectionCount());
+        }
+
+        if (times.getCount() > 0)
+        {
+            System.out.println("");
+            System.out.println("GC CPU times (" + times.getCount() + " pauses):");
+            System.out.println("");
+            System.out.print(toCpuTimesReport(times));
+        }
+
+        if (metaspace.getMetaspaceCount() > 0 || metaspace.getTriggeredCount() > 0 ||
+            metaspace.getYoungTriggeredCount() > 0)
+        {
+            System.out.println("");
+            System.out.println("Class metadata:");
+            System.out.println("");
+            System.out.print(toMetaspaceReport(metaspace));
+        }
+
+        safepoints.close();
+
+        if (safepoints.getCount() > 0)
+        {
+            System.out.println("");
+            System.out.println("Application stopped time (" + safepoints.getCount() + " stops):");
+            System.out.println("");
+            System.out.print(SafepointsCommand.toReport(safepoints, false));
+        }
     }
 
     // Public ------------------------------------------------------------------------------------------------------------------------------
 
     // Package protected -------------------------------------------------------------------------------------------------------------------
 
+    static String toCpuTimesReport(CpuTimes times)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("User/sys/real:                  ").
+            append(Configuration.DURATION_SECONDS_FORMAT.format((double)times.getUserTime() / 1000)).append("/").
+            append(Configuration.DURATION_SECONDS_FORMAT.format((double)times.getSysTime() / 1000)).append("/").
+            append(Configuration.DURATION_SECONDS_FORMAT.format((double)times.getRealTime() / 1000)).append(" seconds\n");
+
+        Double p = times.getParallelism();
+
+        if (p != null)
+        {
+            sb.append(String.format("GC parallelism:                 %.2f (%.2f min, %.2f max)\n",
+                p, times.getMinParallelism(), times.getMaxParallelism()));
+        }
+
+        sb.append("Sys/CPU time:                   ").append(toPercentage(times.getSysFraction())).append('\n');
+        sb.append(String.format("%-32s", "Sys-heavy pauses (sys > " + (int)(CpuTimes.SYS_HEAVY_FRACTION * 100) + "%):")).
+            append(times.getSysHeavyCount()).append('\n');
+        sb.append(String.format("%-32s", "Pauses with real > " + CpuTimes.STARVED_FACTOR + " x CPU:")).
+            append(times.getStarvedCount());
+
+        if (times.getStarvedCount() > 0)
+        {
+            sb.append(" - the GC threads were waiting, check the host for swapping or CPU starvation");
+        }
+
+        sb.append('\n');
+
+        for(CpuTimes.Pause s: times.getStarvedPauses())
+        {
+            String t = s.getTime() < 0 ? "N/A" :
+                s.isAbsolute() ?
+                    Configuration.TIMESTAMP_DISPLAY_FORMAT.format(s.getTime()) :
+                    Configuration.DURATION_SECONDS_FORMAT.format((double)s.getTime() / 1000) + " s";
+
+            sb.append(String.format("    %-25s %-30s user=%d sys=%d real=%d ms\n",
+                t, s.getCollectionType().label, s.getUser(), s.getSys(), s.getReal()));
+        }
+
+        return sb.toString();
+    }
+
+    static String toMetaspaceReport(MetaspaceAnalysis m)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Metadata-triggered full GCs:    ").append(m.getTriggeredCount()).append(" of ").
+            append(m.getFullCollectionCount());
+
+        if (m.getTriggeredCount() > 0)
+        {
+            sb.append(" (").append(Configuration.DURATION_SECONDS_FORMAT.format((double)m.getTriggeredTime() / 1000)).
+                append(" seconds, ").append(toPercentage(m.getTriggeredTimeFraction())).
+                append(" of the full collection time)");
+        }
+
+        sb.append('\n');
+
+        if (m.getYoungTriggeredCount() > 0)
+        {
+            sb.append("Metadata-triggered young GCs:   ").append(m.getYoungTriggeredCount()).append(" (").
+                append(Configuration.DURATION_SECONDS_FORMAT.format((double)m.getYoungTriggeredTime() / 1000)).
+                append(" seconds)\n");
+        }
+
+        if (m.getMinThreshold() != null)
+        {
+            sb.append("Occupancy that triggered them:  ").append(toMB(m.getMinThreshold())).append(" min, ").
+                append(toMB(m.getMaxThreshold())).append(" max\n");
+        }
+
+        if (m.getMetaspaceCount() > 0)
+        {
+            sb.append("Metaspace after full GC:        ").append(toMB(m.getMinAfter())).append(" min, ").
+                append(toMB(m.getMaxAfter())).append(" max, ").append(toMB(m.getLastAfter())).append(" last\n");
+            sb.append("Reclaimed by full GCs:          ").append(toMB(m.getReclaimed())).append('\n');
+        }
+
+        if (m.getLastReserved() != null)
+        {
+            sb.append("Metaspace reserved:             ").append(toMB(m.getLastReserved())).append('\n');
+        }
+
+        return sb.toString();
+    }
+
     // Protected ---------------------------------------------------------------------------------------------------------------------------
 
     // Private -----------------------------------------------------------------------------------------------------------------------------
 
+    private static String toMB(long bytes)
+    {
+        return String.format("%.2f MB", bytes / (1024d * 1024));
+    }
+
+    private static String toPercentage(Double ratio)
+    {
+        return ratio == null ? "N/A" : Configuration.PERCENTAGE_FORMAT.format(ratio * 100) + "%";
+    }
+
     // Inner classes -----------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Counts the collections by kind and identifies the collector from the types of the events.
+     */
+    static class EventCounts
+    {
+        private int fullCollectionCount;
+        private int youngCollectionCount;
+        private int shutdownCount;
+        private int concurrentCycleCount;
+        private long fullCollectionTime;
+        private String algorithm = "Parallel";
+
+        void record(GCEvent e)
+        {
+            CollectionType t = e.getCollectionType();
+
+            if (CollectionType.FULL_COLLECTION.equals(t))
+            {
+                fullCollectionCount ++;
+                fullCollectionTime += e.getDuration();
+            }
+            else if (CollectionType.NEW_GENERATION_COLLECTION.equals(t) ||
+                CollectionType.G1_YOUNG.equals(t) || CollectionType.G1_MIXED.equals(t))
+            {
+                // the G1 mixed collections also collect the young generation
+                youngCollectionCount ++;
+            }
+            else if (CollectionType.SHUTDOWN.equals(t))
+            {
+                shutdownCount ++;
+            }
+            else if (CollectionType.ZGC_CYCLE.equals(t))
+            {
+                concurrentCycleCount ++;
+                algorithm = "ZGC";
+            }
+            else if (CollectionType.SHENANDOAH_CYCLE.equals(t))
+            {
+                concurrentCycleCount ++;
+                algorithm = "Shenandoah";
+            }
+
+            if (e instanceof CMSEvent)
+            {
+                algorithm = "CMS";
+            }
+            else if (e instanceof G1Pause)
+            {
+                algorithm = "G1";
+            }
+            else if (e instanceof J9Collection)
+            {
+                String policy = ((J9Collection)e).getGcPolicy();
+                algorithm = policy == null ? "J9" : "J9 " + policy;
+            }
+            else if (e instanceof SerialCollection && !"CMS".equals(algorithm))
+            {
+                // CMS may be configured with the DefNew young generation collector
+                algorithm = "Serial";
+            }
+        }
+
+        int getFullCollectionCount()
+        {
+            return fullCollectionCount;
+        }
+
+        int getYoungCollectionCount()
+        {
+            return youngCollectionCount;
+        }
+
+        int getShutdownCount()
+        {
+            return shutdownCount;
+        }
+
+        /**
+         * @return the number of ZGC and Shenandoah cycles.
+         */
+        int getConcurrentCycleCount()
+        {
+            return concurrentCycleCount;
+        }
+
+        /**
+         * @return milliseconds.
+         */
+        long getFullCollectionTime()
+        {
+            return fullCollectionTime;
+        }
+
+        String getAlgorithm()
+        {
+            return algorithm;
+        }
+    }
 }
 
 
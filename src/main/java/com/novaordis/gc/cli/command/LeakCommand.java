@@ -0,0 +1,173 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.LeakDetector;
+import com.novaordis.gc.analysis.LinearRegression;
+import com.novaordis.gc.analysis.LiveSetStep;
+import com.novaordis.gc.analysis.LiveSetTrend;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.event.GCEvent;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reports the live data trend after full collections and CMS remarks: growth rate, sustained growth, estimated time to
+ * old generation exhaustion and step changes.
+ *
+ * @see com.novaordis.gc.analysis.LeakDetector
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LeakCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LeakCommand.class);
+
+    private static final double MB = 1024 * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public LeakCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        if (args.hasNext())
+        {
+            throw new UserErrorException("unknown leak option: " + args.next());
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        LeakDetector d = new LeakDetector();
+        d.recordAll(events);
+
+        System.out.print(toReport(d));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "LeakCommand[]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    static String toReport(LeakDetector d)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        LiveSetTrend og = d.getOldGeneration();
+
+        if (og.getSampleCount() == 0)
+        {
+            sb.append("\nNo full collection or CMS remark found, the live data trend cannot be estimated.\n");
+            return sb.toString();
+        }
+
+        append(sb, d, og);
+
+        if (d.getHeap().getSampleCount() > 0)
+        {
+            append(sb, d, d.getHeap());
+        }
+
+        return sb.toString();
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static void append(StringBuilder sb, LeakDetector d, LiveSetTrend t)
+    {
+        LinearRegression overall = t.getOverall();
+        LinearRegression segment = t.getSegment();
+
+        sb.append("\nLive data, ").append(t.getName()).append(":\n\n");
+        sb.append("Samples:                        ").append(t.getSampleCount()).append(", ").
+            append(toTimeLabel(d, t.getFirstTime())).append(" - ").append(toTimeLabel(d, t.getLastTime())).append('\n');
+
+        sb.append("Last:                           ").append(toMB(t.getLastValue()));
+
+        if (t.getCapacity() != null)
+        {
+            sb.append(" of ").append(toMB(t.getCapacity()));
+        }
+
+        sb.append('\n');
+        sb.append("Overall trend:                  ").append(toRate(overall.getSlope())).
+            append(" (R^2 ").append(String.format("%.2f", overall.getRSquared())).append(")\n");
+
+        if (t.getStepCount() > 0)
+        {
+            sb.append("Trend since the last step:      ").append(toRate(segment.getSlope())).
+                append(" (R^2 ").append(String.format("%.2f", segment.getRSquared())).append(")\n");
+        }
+
+        sb.append("Sustained growth:               ").append(t.isGrowing() ? "YES" : "no").append('\n');
+
+        Long tte = t.getTimeToExhaustion();
+
+        if (tte != null)
+        {
+            sb.append("Estimated time to exhaustion:   ").
+                append(Configuration.DURATION_SECONDS_FORMAT.format((double)tte / 1000)).append(" seconds (").
+                append(toTimeLabel(d, t.getLastTime() + tte)).append(")\n");
+        }
+
+        sb.append("Step changes:                   ").append(t.getStepCount()).append('\n');
+
+        for(LiveSetStep s: t.getSteps())
+        {
+            sb.append("    ").append(toTimeLabel(d, s.getTime())).append(": ").
+                append(s.getSize() > 0 ? "+" : "").append(toMB(s.getSize())).append('\n');
+        }
+    }
+
+    private static String toMB(long bytes)
+    {
+        return String.format("%.2f MB", bytes / MB);
+    }
+
+    /**
+     * @param slope bytes per millisecond.
+     */
+    private static String toRate(double slope)
+    {
+        return String.format("%+.2f MB/hour", slope * 3600 * 1000 / MB);
+    }
+
+    private static String toTimeLabel(LeakDetector d, long t)
+    {
+        if (d.isAbsolute())
+        {
+            return Configuration.TIMESTAMP_DISPLAY_FORMAT.format(t);
+        }
+
+        return Configuration.DURATION_SECONDS_FORMAT.format((double)t / 1000) + " s";
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
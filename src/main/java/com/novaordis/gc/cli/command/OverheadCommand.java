@@ -0,0 +1,322 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.MutatorUtilization;
+import com.novaordis.gc.analysis.WorstWindow;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.series.Header;
+import com.novaordis.series.LinkedListSeries;
+import com.novaordis.series.Metric;
+import com.novaordis.series.Series;
+import com.novaordis.series.csv.CsvOutput;
+import com.novaordis.series.metric.DoubleHeader;
+import com.novaordis.series.metric.DoubleMetric;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * Reports the GC overhead in the worst sliding windows of the given sizes and the minimum mutator utilization (MMU)
+ * curve. Optionally exports the overhead in the trailing windows, at the end of each pause, as a series.
+ *
+ * @see com.novaordis.gc.analysis.MutatorUtilization
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class OverheadCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(OverheadCommand.class);
+
+    public static final long[] DEFAULT_WINDOW_SIZES = new long[] { 1000L, 10000L, 60000L };
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the duration in milliseconds. Accepts "500ms", "10s", "5m" and plain numbers, which are seconds.
+     *
+     * Package protection exposure for testing.
+     */
+    static long toWindowSize(String s) throws UserErrorException
+    {
+        long multiplier = 1000L;
+        String number = s;
+
+        if (s.endsWith("ms"))
+        {
+            multiplier = 1L;
+            number = s.substring(0, s.length() - 2);
+        }
+        else if (s.endsWith("s"))
+        {
+            number = s.substring(0, s.length() - 1);
+        }
+        else if (s.endsWith("m"))
+        {
+            multiplier = 60000L;
+            number = s.substring(0, s.length() - 1);
+        }
+
+        long value;
+
+        try
+        {
+            value = Long.parseLong(number);
+        }
+        catch(NumberFormatException e)
+        {
+            throw new UserErrorException("invalid window size \"" + s + "\"", e);
+        }
+
+        if (value <= 0)
+        {
+            throw new UserErrorException("invalid window size \"" + s + "\", it must be positive");
+        }
+
+        return value * multiplier;
+    }
+
+    /**
+     * @return a short rendering of a window size: "500ms", "10s", "5m".
+     */
+    static String toLabel(long windowSize)
+    {
+        if (windowSize % 60000L == 0)
+        {
+            return (windowSize / 60000L) + "m";
+        }
+
+        if (windowSize % 1000L == 0)
+        {
+            return (windowSize / 1000L) + "s";
+        }
+
+        return windowSize + "ms";
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long[] windowSizes;
+    private File output;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public OverheadCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        this.windowSizes = DEFAULT_WINDOW_SIZES;
+
+        while(args.hasNext())
+        {
+            String crt = args.next();
+
+            if ("-w".equals(crt) || "--windows".equals(crt))
+            {
+                if (!args.hasNext())
+                {
+                    throw new UserErrorException(crt + " should be followed by a comma-separated list of window sizes");
+                }
+
+                List<Long> sizes = new ArrayList<Long>();
+
+                for(StringTokenizer st = new StringTokenizer(args.next(), ","); st.hasMoreTokens(); )
+                {
+                    sizes.add(toWindowSize(st.nextToken().trim()));
+                }
+
+                if (sizes.isEmpty())
+                {
+                    throw new UserErrorException(crt + " should be followed by a comma-separated list of window sizes");
+                }
+
+                windowSizes = new long[sizes.size()];
+
+                for(int i = 0; i < windowSizes.length; i ++)
+                {
+                    windowSizes[i] = sizes.get(i);
+                }
+            }
+            else if ("-o".equals(crt) || "--output".equals(crt))
+            {
+                if (!args.hasNext())
+                {
+                    throw new UserErrorException(crt + " should be followed by a file name");
+                }
+
+                output = new File(args.next());
+            }
+            else
+            {
+                throw new UserErrorException("unknown overhead option: " + crt);
+            }
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        MutatorUtilization mu = new MutatorUtilization();
+        mu.recordAll(events);
+
+        if (mu.getLogStart() == null)
+        {
+            throw new UserErrorException("no timed GC events found");
+        }
+
+        System.out.println("");
+        System.out.println("Worst GC overhead windows:");
+        System.out.println("");
+        System.out.println(String.format("%10s %12s %10s %10s   %s", "window", "GC time (ms)", "overhead", "MMU", "window start"));
+
+        for(WorstWindow w: mu.getCurve(windowSizes))
+        {
+            System.out.println(String.format("%10s %12d %9s%% %9s%%   %s",
+                toLabel(w.getSize()), w.getGcTime(), Configuration.PERCENTAGE_FORMAT.format(w.getOverhead() * 100),
+                Configuration.PERCENTAGE_FORMAT.format(w.getMutatorUtilization() * 100), toTimeLabel(mu, w.getStart())));
+        }
+
+        System.out.println("");
+        System.out.println("Minimum mutator utilization:");
+        System.out.println("");
+        System.out.println(String.format("%10s %10s", "window", "MMU"));
+
+        long span = mu.getLogEnd() - mu.getLogStart();
+
+        for(WorstWindow w: mu.getCurve(MutatorUtilization.DEFAULT_CURVE_WINDOW_SIZES))
+        {
+            if (w.getSize() > span)
+            {
+                break;
+            }
+
+            System.out.println(String.format("%10s %9s%%",
+                toLabel(w.getSize()), Configuration.PERCENTAGE_FORMAT.format(w.getMutatorUtilization() * 100)));
+        }
+
+        if (output != null)
+        {
+            write(toSeries(mu));
+        }
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long[] getWindowSizes()
+    {
+        return windowSizes;
+    }
+
+    /**
+     * May return null, if no output file was specified.
+     */
+    public File getOutputFile()
+    {
+        return output;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OverheadCommand[" + (output == null ? "" : output) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * One row per pause end, one column per window size, containing the GC overhead percentage in the window that ends
+     * at the pause end.
+     */
+    Series toSeries(MutatorUtilization mu) throws Exception
+    {
+        Series s = new LinkedListSeries(true);
+
+        List<Header> headers = new ArrayList<Header>();
+
+        for(long w: windowSizes)
+        {
+            headers.add(new DoubleHeader(
+                "GC overhead " + toLabel(w) + " (%)", null, Configuration.DOUBLE_TWO_DIGITS_AFTER_DECIMAL_SEPARATOR));
+        }
+
+        s.setHeaders(headers);
+        s.setTimestampFormat(Configuration.TIMESTAMP_DISPLAY_FORMAT);
+
+        int n = mu.getPauseCount();
+        long[] times = new long[n];
+        double[][] overheads = new double[windowSizes.length][n];
+
+        for(int i = 0; i < windowSizes.length; i ++)
+        {
+            mu.getTrailingOverhead(windowSizes[i], times, overheads[i]);
+        }
+
+        for(int j = 0; j < n; j ++)
+        {
+            List<Metric> metrics = new ArrayList<Metric>(windowSizes.length);
+
+            for(int i = 0; i < windowSizes.length; i ++)
+            {
+                metrics.add(new DoubleMetric(overheads[i][j] * 100));
+            }
+
+            s.add(times[j], metrics);
+        }
+
+        return s;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toTimeLabel(MutatorUtilization mu, long t)
+    {
+        if (mu.isAbsolute())
+        {
+            return Configuration.TIMESTAMP_DISPLAY_FORMAT.format(t);
+        }
+
+        return Configuration.DURATION_SECONDS_FORMAT.format((double)t / 1000) + " s after JVM start";
+    }
+
+    private void write(Series s) throws Exception
+    {
+        OutputStream os = null;
+
+        try
+        {
+            os = new FileOutputStream(output);
+            new CsvOutput(os).write(s);
+            log.info(output + " written");
+        }
+        finally
+        {
+            if (os != null)
+            {
+                os.close();
+            }
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
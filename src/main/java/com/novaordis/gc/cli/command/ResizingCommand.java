@@ -0,0 +1,220 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.Resize;
+import com.novaordis.gc.analysis.ResizingAnalysis;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.event.GCEvent;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reports how the young generation, old generation and survivor spaces were resized, and why: the goal of the
+ * adaptive size policy logged with -XX:+PrintAdaptiveSizePolicy.
+ *
+ * @see com.novaordis.gc.analysis.ResizingAnalysis
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ResizingCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ResizingCommand.class);
+
+    private static final double MB = 1024 * 1024;
+
+    // the young generation is considered oscillating above this reversal rate
+    private static final double OSCILLATION_THRESHOLD = 0.5d;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean timeline;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public ResizingCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        while(args.hasNext())
+        {
+            String arg = args.next();
+
+            if ("--timeline".equals(arg))
+            {
+                timeline = true;
+            }
+            else
+            {
+                throw new UserErrorException("unknown resizing option: " + arg);
+            }
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        ResizingAnalysis a = new ResizingAnalysis();
+        a.recordAll(events);
+
+        System.out.print(toReport(a, timeline));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the individual resizes are listed.
+     */
+    public boolean isTimeline()
+    {
+        return timeline;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ResizingCommand[" + (timeline ? "timeline" : "") + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    static String toReport(ResizingAnalysis a, boolean listResizes)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        if (a.getCollectionCount() == 0)
+        {
+            sb.append("\nNo collection logged the generation capacities.\n");
+            return sb.toString();
+        }
+
+        sb.append("\nGeneration resizing (").append(a.getCollectionCount()).append(" collections, ").
+            append(a.getResizes().size()).append(" resizes):\n\n");
+
+        sb.append("Young generation:               ").append(a.getYoungGrowCount() + a.getYoungShrinkCount()).
+            append(" resizes (").append(a.getYoungGrowCount()).append(" grown, ").append(a.getYoungShrinkCount()).
+            append(" shrunk), ").append(toMB(a.getMinYoung())).append(" min, ").append(toMB(a.getMaxYoung())).
+            append(" max\n");
+
+        Double reversals = a.getYoungReversalRate();
+
+        if (reversals != null)
+        {
+            sb.append("Direction reversals:            ").append(a.getYoungReversalCount()).append(" (").
+                append(String.format("%.1f%%", reversals * 100)).append(" of the resizes)\n");
+
+            if (reversals > OSCILLATION_THRESHOLD)
+            {
+                sb.append("                                the young generation oscillates - the goals conflict, " +
+                    "consider fixing its size (-Xmn) or relaxing the goals (GCTimeRatio, MaxGCPauseMillis)\n");
+            }
+        }
+
+        sb.append("Old generation:                 ").append(a.getOldGrowCount() + a.getOldShrinkCount()).
+            append(" resizes (").append(a.getOldGrowCount()).append(" grown, ").append(a.getOldShrinkCount()).
+            append(" shrunk)\n");
+
+        if (a.getPolicyCount() == 0)
+        {
+            sb.append("\nThe adaptive size policy decisions were not logged, the log must be produced with " +
+                "-XX:+PrintAdaptiveSizePolicy to tell the survivor resizes and the reasons.\n");
+        }
+        else
+        {
+            sb.append("Survivor spaces:                ").append(a.getSurvivorResizeCount()).append(" resizes\n");
+            sb.append("GC time limit exceeded:         ").append(a.getGcTimeLimitCount()).append(" collections\n");
+
+            sb.append('\n').append(String.format("%-20s %12s\n", "young resizes for", "resizes"));
+
+            for(String reason: ResizingAnalysis.REASONS)
+            {
+                sb.append(String.format("%-20s %12d\n", reason, a.getYoungResizeCount(reason)));
+            }
+
+            long unknown = a.getYoungResizeCount(null);
+
+            if (unknown > 0)
+            {
+                sb.append(String.format("%-20s %12d\n", "not logged", unknown));
+            }
+        }
+
+        if (listResizes && !a.getResizes().isEmpty())
+        {
+            sb.append('\n').append(String.format("%-25s %-6s %22s %22s %22s %s\n",
+                "time", "type", "young (MB)", "old (MB)", "survivor (MB)", "reason"));
+
+            for(Resize r: a.getResizes())
+            {
+                String reason = r.getReason() == null ? "" : r.getReason();
+
+                if (r.isGcTimeLimitExceeded())
+                {
+                    reason += reason.length() == 0 ? "gc time limit" : ", gc time limit";
+                }
+
+                sb.append(String.format("%-25s %-6s %22s %22s %22s %s",
+                    toTimeLabel(a, r.getTime()), r.getCollectionType().commandLineLabel,
+                    toTransition(r.getYoungBefore(), r.getYoungAfter()), toTransition(r.getOldBefore(), r.getOldAfter()),
+                    toTransition(r.getSurvivorBefore(), r.getSurvivorAfter()), reason).trim()).append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toMB(long bytes)
+    {
+        return String.format("%.2f MB", bytes / MB);
+    }
+
+    /**
+     * @return "64.0 -> 73.0", "64.0" if the capacity did not change, or "" if it is not known.
+     */
+    private static String toTransition(long before, long after)
+    {
+        if (after < 0)
+        {
+            return "";
+        }
+
+        if (before < 0 || before == after)
+        {
+            return String.format("%.1f", after / MB);
+        }
+
+        return String.format("%.1f -> %.1f", before / MB, after / MB);
+    }
+
+    private static String toTimeLabel(ResizingAnalysis a, long t)
+    {
+        if (a.isAbsolute())
+        {
+            return Configuration.TIMESTAMP_DISPLAY_FORMAT.format(t);
+        }
+
+        return Configuration.DURATION_SECONDS_FORMAT.format((double)t / 1000) + " s";
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
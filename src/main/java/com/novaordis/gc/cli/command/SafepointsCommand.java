@@ -0,0 +1,191 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.Safepoint;
+import com.novaordis.gc.analysis.SafepointAccounting;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.event.GCEvent;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Accounts for the time the application threads were stopped, including the non-GC safepoints, and attributes each
+ * stop to the collection that caused it, if any. Needs a log produced with -XX:+PrintGCApplicationStoppedTime.
+ *
+ * @see com.novaordis.gc.analysis.SafepointAccounting
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class SafepointsCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(SafepointsCommand.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean stops;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public SafepointsCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        while(args.hasNext())
+        {
+            String arg = args.next();
+
+            if ("--stops".equals(arg))
+            {
+                stops = true;
+            }
+            else
+            {
+                throw new UserErrorException("unknown safepoints option: " + arg);
+            }
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting(stops);
+        a.recordAll(events);
+        a.close();
+
+        if (a.getCount() == 0)
+        {
+            System.out.print("\nNo application stopped time record found, the log must be produced with " +
+                "-XX:+PrintGCApplicationStoppedTime.\n");
+            return;
+        }
+
+        System.out.print("\nApplication stopped time (" + a.getCount() + " stops):\n\n");
+        System.out.print(toReport(a, stops));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the individual stops are listed.
+     */
+    public boolean isStops()
+    {
+        return stops;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SafepointsCommand[" + (stops ? "stops" : "") + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    static String toReport(SafepointAccounting a, boolean listStops)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Stopped time:                   ").append(toSeconds(a.getStoppedTime())).append(" seconds");
+
+        Double f = a.getStoppedFraction();
+
+        if (f != null)
+        {
+            sb.append(" (").append(Configuration.PERCENTAGE_FORMAT.format(f * 100)).append("% of the run time)");
+        }
+
+        sb.append(", max ").append(toMilliseconds(a.getMaxStoppedTime())).append(" ms\n");
+
+        sb.append("GC stops:                       ").append(a.getGcCount()).append(", ").
+            append(toSeconds(a.getGcStoppedTime())).append(" seconds, of which ").
+            append(Configuration.DURATION_SECONDS_FORMAT.format((double)a.getGcCollectionTime() / 1000)).
+            append(" seconds in the collector\n");
+
+        sb.append("Non-GC stops:                   ").append(a.getNonGcCount()).append(", ").
+            append(toSeconds(a.getNonGcStoppedTime())).append(" seconds, max ").
+            append(toMilliseconds(a.getMaxNonGcStoppedTime())).append(" ms\n");
+
+        Double ttsp = a.getAverageTimeToSafepoint();
+
+        if (ttsp != null)
+        {
+            sb.append("Time to safepoint:              ").
+                append(String.format("%.3f ms average, %s ms max\n", ttsp / 1000, toMilliseconds(a.getMaxTimeToSafepoint())));
+        }
+
+        if (a.getUnattributedCollectionCount() > 0)
+        {
+            sb.append("Collections outside any stop:   ").append(a.getUnattributedCollectionCount()).
+                append(" - the stops were not logged for all collections\n");
+        }
+
+        if (!a.getWorstNonGcStops().isEmpty())
+        {
+            sb.append("Longest non-GC stops:\n");
+
+            for(Safepoint s: a.getWorstNonGcStops())
+            {
+                sb.append(String.format("    %-25s %12s ms\n", toTimeLabel(a, s.getEnd()), toMilliseconds(s.getStoppedMicroseconds())));
+            }
+        }
+
+        if (listStops)
+        {
+            sb.append('\n').append(String.format("%-25s %12s %12s %-30s %10s\n", "end", "stopped (ms)", "ttsp (ms)", "cause", "GC (ms)"));
+
+            for(Safepoint s: a.getStops())
+            {
+                long t = s.getTimeToSafepointMicroseconds();
+
+                sb.append(String.format("%-25s %12s %12s %-30s %10s\n",
+                    toTimeLabel(a, s.getEnd()), toMilliseconds(s.getStoppedMicroseconds()), t < 0 ? "" : toMilliseconds(t),
+                    s.isGc() ? s.getCause().label : "non-GC", s.isGc() ? Long.toString(s.getCollectionTime()) : ""));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toSeconds(long microseconds)
+    {
+        return Configuration.DURATION_SECONDS_FORMAT.format((double)microseconds / 1000000);
+    }
+
+    private static String toMilliseconds(long microseconds)
+    {
+        return String.format("%.3f", (double)microseconds / 1000);
+    }
+
+    private static String toTimeLabel(SafepointAccounting a, long t)
+    {
+        if (a.isAbsolute())
+        {
+            return Configuration.TIMESTAMP_DISPLAY_FORMAT.format(t);
+        }
+
+        return Configuration.DURATION_SECONDS_FORMAT.format((double)t / 1000) + " s";
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
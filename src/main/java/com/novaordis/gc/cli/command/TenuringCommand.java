@@ -0,0 +1,166 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.TenuringAnalysis;
+import com.novaordis.gc.cli.Command;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.event.GCEvent;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Summarizes the tenuring distributions logged with -XX:+PrintTenuringDistribution: survivor overflow, the tenuring
+ * threshold trend and the age profile.
+ *
+ * @see com.novaordis.gc.analysis.TenuringAnalysis
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuringCommand implements Command
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(TenuringCommand.class);
+
+    private static final double MB = 1024 * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public TenuringCommand(Configuration c, Iterator<String> args) throws Exception
+    {
+        if (args.hasNext())
+        {
+            throw new UserErrorException("unknown tenuring option: " + args.next());
+        }
+
+        log.debug(this + " constructed, configuration: " + c);
+    }
+
+    // Command implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean needsGcData()
+    {
+        return true;
+    }
+
+    @Override
+    public void execute(List<GCEvent> events) throws Exception
+    {
+        TenuringAnalysis a = new TenuringAnalysis();
+        a.recordAll(events);
+
+        System.out.print(toReport(a));
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "TenuringCommand[]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    static String toReport(TenuringAnalysis a)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        if (a.getCount() == 0)
+        {
+            sb.append("\nNo tenuring distribution found, the log must be produced with -XX:+PrintTenuringDistribution.\n");
+            return sb.toString();
+        }
+
+        sb.append("\nTenuring distribution (").append(a.getCount()).append(" collections):\n\n");
+
+        sb.append("Desired survivor size:          ").append(toMB(a.getAverageDesiredSurvivorSize())).append(" average\n");
+
+        if (a.getAgedCount() > 0)
+        {
+            sb.append("Survivor occupancy:             ").append(toMB(a.getAverageSurvivor())).append(" average, ").
+                append(toMB((double)a.getMaxSurvivor())).append(" max\n");
+
+            sb.append("Survivor overflow:              ").append(a.getOverflowCount()).append(" of ").
+                append(a.getAgedCount()).append(" collections (").append(toPercentage(a.getOverflowRate())).
+                append("), ").append(toPercentage(a.getRecentOverflowRate())).append(" in the last ").
+                append(TenuringAnalysis.RECENT_COLLECTIONS).append('\n');
+
+            if (a.getOverflowCount() > 0)
+            {
+                sb.append("                                the survivors do not fit, objects are promoted prematurely - " +
+                    "consider larger survivor spaces (SurvivorRatio, TargetSurvivorRatio)\n");
+            }
+        }
+
+        sb.append("Tenuring threshold:             ").
+            append(String.format("%.1f average, %d min, %d max (MaxTenuringThreshold %d)\n",
+                a.getAverageThreshold(), a.getMinThreshold(), a.getMaxThreshold(), a.getMaxTenuringThreshold()));
+
+        sb.append("Below MaxTenuringThreshold:     ").append(a.getBelowMaxThresholdCount()).append(" collections (").
+            append(toPercentage((double)a.getBelowMaxThresholdCount() / a.getCount())).append(")\n");
+
+        sb.append("Threshold changes:              ").append(a.getThresholdChangeCount()).append('\n');
+
+        Double trend = a.getThresholdTrend();
+
+        if (trend != null)
+        {
+            sb.append("Threshold trend:                ").append(String.format("%+.3f per hour\n", trend));
+        }
+
+        sb.append('\n').append(String.format("%-10s %12s\n", "threshold", "collections"));
+
+        for(int t = 0; t <= a.getMaxThreshold(); t ++)
+        {
+            long n = a.getThresholdCount(t);
+
+            if (n > 0)
+            {
+                sb.append(String.format("%-10d %12d\n", t, n));
+            }
+        }
+
+        int maxAge = a.getMaxAge();
+
+        if (maxAge > 0)
+        {
+            sb.append('\n').append(String.format("%-5s %14s %16s\n", "age", "average (MB)", "survival to next"));
+
+            for(int age = 1; age <= maxAge; age ++)
+            {
+                Double rate = a.getSurvivalRate(age);
+
+                sb.append(String.format("%-5d %14.2f %16s\n",
+                    age, a.getAverageBytes(age) / MB, rate == null || age == maxAge ? "" : toPercentage(rate)));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toMB(Double bytes)
+    {
+        return bytes == null ? "N/A" : String.format("%.2f MB", bytes / MB);
+    }
+
+    private static String toPercentage(Double ratio)
+    {
+        return ratio == null ? "N/A" : String.format("%.1f%%", ratio * 100);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,489 @@
+package com.novaordis.gc.model;
+
+/**
+ * The decisions of the parallel scavenge adaptive size policy, logged by -XX:+PrintAdaptiveSizePolicy within the
+ * collection that made them:
+ *
+ * 1.011: [GC (Allocation Failure) AdaptiveSizePolicy::update_averages:  survived: 2129960  promoted: 8192  overflow: false
+ * AdaptiveSizeStart: 1.015 collection: 1
+ *   avg_survived_padded_avg: 2129960.000000  avg_promoted_padded_avg: 8192.000000  avg_pretenured_padded_avg: 0.000000  tenuring_thresh: 7  target_size: 10485760
+ * PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.003877 major_cost: 0.000000 mutator_cost: 0.996123 throughput_goal: 0.990000 live_space: 270565536 free_space: 201326592 old_eden_size: 65536000 desired_eden_size: 65536000
+ * AdaptiveSizeStop: collection: 1
+ * [PSYoungGen: 64000K->2080K(74752K)] 64000K->2088K(245760K), 0.0038846 secs] [Times: user=0.01 sys=0.00, real=0.00 secs]
+ *
+ * A full collection also logs the old generation decision ("PSAdaptiveSizePolicy::compute_old_gen_free_space: costs
+ * ... old_promo_size: 112197632 desired_promo_size: 112197632"), and the "limits:" and "gc time limit" lines when the
+ * desired sizes are capped or the GC time exceeds GCTimeLimit.
+ *
+ * The reason of a resize is only logged with -XX:+Verbose ("PSAdaptiveSizePolicy::adjust_eden_for_throughput ...").
+ * Otherwise it is inferred from the costs, the way the policy decides: a generation grows only to meet the throughput
+ * goal; it shrinks to meet the pause goal while the throughput goal is not met, and to reduce the footprint once it is.
+ *
+ * The lines are decoded in place, without regular expressions.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class AdaptiveSizePolicy
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // all policy lines start with it, possibly preceded by "PS"; it also follows the header on the first line
+    public static final String MARKER = "AdaptiveSize";
+
+    private static final String PS_MARKER = "PS" + MARKER;
+
+    private static final String START_PREFIX = "AdaptiveSizeStart: ";
+    private static final String STOP_PREFIX = "AdaptiveSizeStop: ";
+    private static final String AVERAGES_PREFIX = "AdaptiveSizePolicy::update_averages:";
+    private static final String EDEN_PREFIX = "PSAdaptiveSizePolicy::compute_eden_space_size";
+    private static final String PROMO_PREFIX = "PSAdaptiveSizePolicy::compute_old_gen_free_space";
+
+    // the survivor averages line is indented, and starts with "avg_survived: " if -XX:+Verbose is on
+    private static final String SURVIVED_LABEL = "avg_survived";
+
+    public static final String THROUGHPUT = "throughput";
+    public static final String PAUSE = "pause";
+    public static final String FOOTPRINT = "footprint";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the line was logged by the adaptive size policy, and does not start a record.
+     */
+    public static boolean isPolicyLine(String line)
+    {
+        if (line.startsWith(MARKER) || line.startsWith(PS_MARKER))
+        {
+            return true;
+        }
+
+        int i = 0;
+
+        while(i < line.length() && line.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        return i > 0 && line.startsWith(SURVIVED_LABEL, i);
+    }
+
+    /**
+     * @return the position of the policy line that follows the header on the first line of a collection
+     *         ("[GC (Allocation Failure) AdaptiveSizeStart: ..."), or -1 if there is none.
+     */
+    public static int find(String line)
+    {
+        int i = line.indexOf(MARKER);
+
+        if (i == -1)
+        {
+            return -1;
+        }
+
+        int header = line.lastIndexOf('[', i);
+
+        return header != -1 && (line.startsWith("[GC", header) || line.startsWith("[Full GC", header)) ? i : -1;
+    }
+
+    /**
+     * @return the value of the digits found after the label, or -1 if the label or the digits are missing.
+     */
+    static long parseLong(String s, String label)
+    {
+        int i = s.indexOf(label);
+        return i == -1 ? -1L : TenuringDistribution.parseLong(s, i + label.length());
+    }
+
+    /**
+     * Parses "0.996123" without creating intermediate objects.
+     *
+     * @return the value of the decimal number found after the label, or -1 if the label or the number are missing.
+     */
+    static double parseDouble(String s, String label)
+    {
+        int i = s.indexOf(label);
+
+        if (i == -1)
+        {
+            return -1d;
+        }
+
+        long integer = 0L;
+        long fraction = 0L;
+        long scale = 1L;
+        boolean digits = false;
+        boolean decimal = false;
+
+        for(i += label.length(); i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                digits = true;
+
+                if (!decimal)
+                {
+                    integer = integer * 10 + (c - '0');
+                }
+                else if (scale < 1000000000000L)
+                {
+                    fraction = fraction * 10 + (c - '0');
+                    scale *= 10;
+                }
+            }
+            else if (c == '.' && !decimal)
+            {
+                decimal = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        return digits ? integer + (double)fraction / scale : -1d;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private int collection;
+
+    private long survived;
+    private long promoted;
+    private boolean overflow;
+
+    private double minorCost;
+    private double majorCost;
+    private double mutatorCost;
+    private double throughputGoal;
+
+    private long oldEdenSize;
+    private long desiredEdenSize;
+    private long oldPromoSize;
+    private long desiredPromoSize;
+
+    private long targetSurvivorSize;
+    private int tenuringThreshold;
+
+    private boolean edenLimited;
+    private boolean promoLimited;
+    private boolean gcTimeLimitExceeded;
+
+    // logged with -XX:+Verbose only
+    private String loggedReason;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public AdaptiveSizePolicy()
+    {
+        this.collection = -1;
+        this.survived = -1L;
+        this.promoted = -1L;
+        this.minorCost = -1d;
+        this.majorCost = -1d;
+        this.mutatorCost = -1d;
+        this.throughputGoal = -1d;
+        this.oldEdenSize = -1L;
+        this.desiredEdenSize = -1L;
+        this.oldPromoSize = -1L;
+        this.desiredPromoSize = -1L;
+        this.targetSurvivorSize = -1L;
+        this.tenuringThreshold = -1;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes a policy line. The lines that carry nothing of interest are accepted and ignored.
+     *
+     * @param line a line for which isPolicyLine() is true, or the tail of the first line of the collection, starting
+     *             with the marker.
+     *
+     * @return false if the line is malformed.
+     */
+    public boolean parseLine(String line)
+    {
+        if (line.startsWith(START_PREFIX))
+        {
+            collection = (int)parseLong(line, "collection: ");
+            return collection >= 0;
+        }
+
+        if (line.startsWith(STOP_PREFIX))
+        {
+            return true;
+        }
+
+        if (line.startsWith(AVERAGES_PREFIX))
+        {
+            survived = parseLong(line, "survived: ");
+            promoted = parseLong(line, "promoted: ");
+            overflow = line.indexOf("overflow: true") != -1;
+            return survived >= 0 && promoted >= 0;
+        }
+
+        if (!line.startsWith(PS_MARKER))
+        {
+            if (line.indexOf(SURVIVED_LABEL) == -1)
+            {
+                // other AdaptiveSizePolicy lines logged with -XX:+Verbose
+                return true;
+            }
+
+            targetSurvivorSize = parseLong(line, "target_size: ");
+            tenuringThreshold = (int)parseLong(line, "tenuring_thresh: ");
+            return targetSurvivorSize >= 0;
+        }
+
+        boolean eden = line.startsWith(EDEN_PREFIX);
+
+        if (eden || line.startsWith(PROMO_PREFIX))
+        {
+            int i = (eden ? EDEN_PREFIX : PROMO_PREFIX).length();
+
+            if (line.startsWith(" limits:", i))
+            {
+                edenLimited |= eden;
+                promoLimited |= !eden;
+                return true;
+            }
+
+            if (line.startsWith(": gc time limit", i))
+            {
+                gcTimeLimitExceeded = true;
+                return true;
+            }
+
+            if (!line.startsWith(": costs", i))
+            {
+                return true;
+            }
+
+            minorCost = parseDouble(line, "minor_time: ");
+            majorCost = parseDouble(line, "major_cost: ");
+            mutatorCost = parseDouble(line, "mutator_cost: ");
+            throughputGoal = parseDouble(line, "throughput_goal: ");
+
+            if (eden)
+            {
+                oldEdenSize = parseLong(line, "old_eden_size: ");
+                desiredEdenSize = parseLong(line, "desired_eden_size: ");
+                return oldEdenSize >= 0 && desiredEdenSize >= 0;
+            }
+
+            oldPromoSize = parseLong(line, "old_promo_size: ");
+            desiredPromoSize = parseLong(line, "desired_promo_size: ");
+            return oldPromoSize >= 0 && desiredPromoSize >= 0;
+        }
+
+        // "PSAdaptiveSizePolicy::adjust_eden_for_pause_time ...", "PSAdaptiveSizePolicy::adjust_promo_for_throughput
+        // ...", "PSAdaptiveSizePolicy::decrease_eden_for_footprint ..." (-XX:+Verbose)
+        if (line.indexOf("_for_pause") != -1 || line.indexOf("_for_minor_pause") != -1)
+        {
+            loggedReason = PAUSE;
+        }
+        else if (line.indexOf("_for_throughput") != -1)
+        {
+            loggedReason = THROUGHPUT;
+        }
+        else if (line.indexOf("_for_footprint") != -1)
+        {
+            loggedReason = FOOTPRINT;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of the collection, as counted by the JVM, or -1 if not logged.
+     */
+    public int getCollection()
+    {
+        return collection;
+    }
+
+    /**
+     * @return the bytes that survived the collection, or -1 if not logged.
+     */
+    public long getSurvived()
+    {
+        return survived;
+    }
+
+    /**
+     * @return the bytes promoted by the collection, or -1 if not logged.
+     */
+    public long getPromoted()
+    {
+        return promoted;
+    }
+
+    /**
+     * @return true if the survivors overflowed the survivor space.
+     */
+    public boolean isOverflow()
+    {
+        return overflow;
+    }
+
+    /**
+     * @return the fraction of the time spent in young collections, or -1 if not logged.
+     */
+    public double getMinorCost()
+    {
+        return minorCost;
+    }
+
+    /**
+     * @return the fraction of the time spent in full collections, or -1 if not logged.
+     */
+    public double getMajorCost()
+    {
+        return majorCost;
+    }
+
+    /**
+     * @return the fraction of the time the application runs, or -1 if not logged.
+     */
+    public double getMutatorCost()
+    {
+        return mutatorCost;
+    }
+
+    /**
+     * @return the application time fraction the policy aims for (1 - 1 / (1 + GCTimeRatio)), or -1 if not logged.
+     */
+    public double getThroughputGoal()
+    {
+        return throughputGoal;
+    }
+
+    /**
+     * @return the eden size before the decision, in bytes, or -1 if not logged.
+     */
+    public long getOldEdenSize()
+    {
+        return oldEdenSize;
+    }
+
+    /**
+     * @return the eden size decided by the policy, in bytes, or -1 if not logged.
+     */
+    public long getDesiredEdenSize()
+    {
+        return desiredEdenSize;
+    }
+
+    /**
+     * @return the old generation free space before the decision, in bytes, or -1 if not logged (young collections).
+     */
+    public long getOldPromoSize()
+    {
+        return oldPromoSize;
+    }
+
+    /**
+     * @return the old generation free space decided by the policy, in bytes, or -1 if not logged.
+     */
+    public long getDesiredPromoSize()
+    {
+        return desiredPromoSize;
+    }
+
+    /**
+     * @return the survivor space size decided by the policy, in bytes, or -1 if not logged.
+     */
+    public long getTargetSurvivorSize()
+    {
+        return targetSurvivorSize;
+    }
+
+    /**
+     * @return the tenuring threshold decided by the policy, or -1 if not logged.
+     */
+    public int getTenuringThreshold()
+    {
+        return tenuringThreshold;
+    }
+
+    /**
+     * @return true if the desired eden size was capped by the young generation limit.
+     */
+    public boolean isEdenLimited()
+    {
+        return edenLimited;
+    }
+
+    /**
+     * @return true if the desired old generation free space was capped by the old generation limit.
+     */
+    public boolean isPromoLimited()
+    {
+        return promoLimited;
+    }
+
+    /**
+     * @return true if the GC time exceeded GCTimeLimit.
+     */
+    public boolean isGcTimeLimitExceeded()
+    {
+        return gcTimeLimitExceeded;
+    }
+
+    /**
+     * @return THROUGHPUT, PAUSE or FOOTPRINT: the goal the policy resized the eden for (or, if it kept the eden size,
+     *         the old generation free space), as logged with -XX:+Verbose or inferred from the costs. Null if the
+     *         policy did not resize, or the decision was not logged.
+     */
+    public String getReason()
+    {
+        long from = oldEdenSize;
+        long to = desiredEdenSize;
+
+        if (from == to)
+        {
+            from = oldPromoSize;
+            to = desiredPromoSize;
+        }
+
+        if (from == to || from < 0 || to < 0)
+        {
+            return null;
+        }
+
+        if (loggedReason != null)
+        {
+            return loggedReason;
+        }
+
+        if (mutatorCost < 0 || throughputGoal < 0)
+        {
+            return null;
+        }
+
+        if (to > from)
+        {
+            return THROUGHPUT;
+        }
+
+        return mutatorCost < throughputGoal ? PAUSE : FOOTPRINT;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AdaptiveSizePolicy[collection " + collection + ", eden " + oldEdenSize + "->" + desiredEdenSize +
+            ", promo " + oldPromoSize + "->" + desiredPromoSize + ", survivor " + targetSurvivorSize + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -9,14 +9,38 @@ package com.novaordis.gc.model;
  */
 public enum CollectionType
 {
-    FULL_COLLECTION("FULL", "full"),
-    NEW_GENERATION_COLLECTION("NEW GENERATION", "ng"),
-    SHUTDOWN("SHUTDOWN", "shutdown"),
-
-    CMS_INITIAL_MARK("CMS INITIAL MARK", "cms-initial-mark"),
-    CMS_CONCURRENT_MARK_START("CMS CONCURRENT MARK START", "cms-concurrent-mark-start"),
-    CMS_CONCURRENT_PRECLEAN("CMS CONCURRENT PRECLEAN", "cms-concurrent-preclean"),
-    CMS_CONCURRENT_MARK("CMS CONCURRENT MARK", "cms-concurrent-mark");
+    FULL_COLLECTION("FULL", "full", true),
+    NEW_GENERATION_COLLECTION("NEW GENERATION", "ng", true),
+    SHUTDOWN("SHUTDOWN", "shutdown", false),
+
+    // the start of a new JVM run in a log appended to across restarts
+    RESTART("RESTART", "restart", false),
+
+    CMS_INITIAL_MARK("CMS INITIAL MARK", "cms-initial-mark", true),
+    CMS_CONCURRENT_MARK_START("CMS CONCURRENT MARK START", "cms-concurrent-mark-start", false),
+    CMS_CONCURRENT_PRECLEAN("CMS CONCURRENT PRECLEAN", "cms-concurrent-preclean", false),
+    CMS_CONCURRENT_MARK("CMS CONCURRENT MARK", "cms-concurrent-mark", false),
+    CMS_REMARK("CMS REMARK", "cms-remark", true),
+    CMS_CONCURRENT_ABORTABLE_PRECLEAN("CMS CONCURRENT ABORTABLE PRECLEAN", "cms-concurrent-abortable-preclean", false),
+    CMS_CONCURRENT_SWEEP("CMS CONCURRENT SWEEP", "cms-concurrent-sweep", false),
+    CMS_CONCURRENT_RESET("CMS CONCURRENT RESET", "cms-concurrent-reset", false),
+
+    // G1 evacuation pauses and the stop-the-world phases of the concurrent marking cycle. The G1 full collections are
+    // FULL_COLLECTION events
+    G1_YOUNG("G1 YOUNG", "g1-young", true),
+    G1_MIXED("G1 MIXED", "g1-mixed", true),
+    G1_REMARK("G1 REMARK", "g1-remark", true),
+    G1_CLEANUP("G1 CLEANUP", "g1-cleanup", true),
+
+    // the ZGC and Shenandoah cycles, one event per cycle. Their pauses are short and most of the work is concurrent, so
+    // the cycles are not flagged as stop-the-world
+    ZGC_CYCLE("ZGC CYCLE", "zgc-cycle", false),
+    SHENANDOAH_CYCLE("SHENANDOAH CYCLE", "shenandoah-cycle", false),
+
+    // safepoint records, logged with -XX:+PrintGCApplicationStoppedTime and -XX:+PrintGCApplicationConcurrentTime.
+    // They are not collections: the stops overlap the collection pauses, so they are not counted as pauses
+    APPLICATION_STOPPED("APPLICATION STOPPED", "application-stopped", false),
+    APPLICATION_CONCURRENT("APPLICATION CONCURRENT", "application-concurrent", false);
 
     // Constants ---------------------------------------------------------------------------------------------------------------------------
 
@@ -59,19 +83,12 @@ public enum CollectionType
             return null;
         }
 
-        s = s.toLowerCase();
-
-        if ("full".equals(s))
-        {
-            return FULL_COLLECTION;
-        }
-        else if ("ng".equals(s))
-        {
-            return NEW_GENERATION_COLLECTION;
-        }
-        else if ("cms-initial-mark".equals(s))
+        for(CollectionType ct: values())
         {
-            return CMS_INITIAL_MARK;
+            if (ct.commandLineLabel.equalsIgnoreCase(s))
+            {
+                return ct;
+            }
         }
 
         return null;
@@ -89,12 +106,19 @@ public enum CollectionType
      */
     public String commandLineLabel;
 
+    /**
+     * True if the event is a collection that stops the application threads for its duration, so the duration is a
+     * pause. The safepoint records are not collections and are not flagged, even if they account for stopped time.
+     */
+    public boolean stopTheWorld;
+
     // Constructors ------------------------------------------------------------------------------------------------------------------------
 
-    CollectionType(String label, String commandLineLabel)
+    CollectionType(String label, String commandLineLabel, boolean stopTheWorld)
     {
         this.label = label;
         this.commandLineLabel = commandLineLabel;
+        this.stopTheWorld = stopTheWorld;
     }
 
     // Public ------------------------------------------------------------------------------------------------------------------------------
@@ -38,6 +38,28 @@ public enum FieldType implements Expression
     // event duration (in ms)
     DURATION("Duration", "duration", Unit.ms, Long.class, null),
 
+    // CPU time spent by the GC threads in user mode (in ms), from "[Times: user=0.64 sys=0.30, real=0.17 secs]"
+    USER_TIME("User CPU Time", "user-time", Unit.ms, Long.class, null),
+
+    // CPU time spent by the GC threads in kernel mode (in ms)
+    SYS_TIME("System CPU Time", "sys-time", Unit.ms, Long.class, null),
+
+    // wall clock time (in ms), as measured by the GC
+    REAL_TIME("Real Time", "real-time", Unit.ms, Long.class, null),
+
+    // double value, (user + sys) / real; only present if the real time is not zero
+    PARALLELISM("GC Parallelism", "parallelism", null, Double.class, null),
+
+    // double value (in ms, microsecond resolution), from "Total time for which application threads were stopped: ..."
+    STOPPED_TIME("Application Stopped Time", "stopped-time", Unit.ms, Double.class, null),
+
+    // double value (in ms, microsecond resolution), from "Stopping threads took: ...", the time to reach the safepoint
+    TIME_TO_SAFEPOINT("Time to Safepoint", "ttsp", Unit.ms, Double.class, null),
+
+    // double value (in ms, microsecond resolution), from "Application time: ...", the time the application ran since
+    // the previous safepoint
+    APPLICATION_TIME("Application Time", "application-time", Unit.ms, Double.class, null),
+
     // long value (in bytes)
     NG_BEFORE("New Generation Initial Occupancy", "ng-before", Unit.b, Long.class, FieldCategory.MEMORY),
 
@@ -74,6 +96,51 @@ public enum FieldType implements Expression
     // long value (in bytes)
     PG_CAPACITY("Permanent Generation Capacity", "pg-capacity", Unit.b, Long.class, FieldCategory.MEMORY),
 
+    // long value (in bytes), JDK 8 and newer, from "[Metaspace: 256350K->256350K(1290240K)]"
+    METASPACE_BEFORE("Metaspace Initial Occupancy", "metaspace-before", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes)
+    METASPACE_AFTER("Metaspace Final Occupancy", "metaspace-after", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), from the heap summary: "Metaspace used 2994K, capacity 4486K, committed 4864K, ..."
+    METASPACE("Metaspace Current Occupancy", "metaspace", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), the memory committed for metadata, from the heap summary
+    METASPACE_COMMITTED("Metaspace Committed", "metaspace-committed", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), the address space reserved for metadata; this is the value the collections log in
+    // parentheses, not a limit the occupancy grows towards, unless MaxMetaspaceSize is set
+    METASPACE_RESERVED("Metaspace Reserved", "metaspace-reserved", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), the compressed class space part of the metaspace, from the heap summary:
+    // "class space used 327K, capacity 386K, committed 512K, reserved 1048576K"
+    CLASS_SPACE("Class Space Current Occupancy", "class-space", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes)
+    CLASS_SPACE_COMMITTED("Class Space Committed", "class-space-committed", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), CompressedClassSpaceSize
+    CLASS_SPACE_RESERVED("Class Space Reserved", "class-space-reserved", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), G1, from "[Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: ...]"
+    EDEN_BEFORE("Eden Initial Occupancy", "eden-before", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), G1
+    EDEN_AFTER("Eden Final Occupancy", "eden-after", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), G1, the eden size after the collection, which is the eden available to the application
+    // until the next evacuation pause
+    EDEN_CAPACITY("Eden Capacity", "eden-capacity", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), G1
+    SURVIVOR_BEFORE("Survivor Initial Occupancy", "survivor-before", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), G1
+    SURVIVOR_AFTER("Survivor Final Occupancy", "survivor-after", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value, G1, the number of parallel GC worker threads, from "[Parallel Time: 2.4 ms, GC Workers: 4]"
+    GC_WORKERS("GC Workers", "gc-workers", null, Long.class, null),
+
     // long value (in bytes)
     HEAP_BEFORE("Heap (NG and OG) Initial Occupancy", "heap-before", Unit.b, Long.class, FieldCategory.MEMORY),
 
@@ -86,6 +153,33 @@ public enum FieldType implements Expression
     // long value (in bytes)
     HEAP_CAPACITY("Heap (NG and OG) Capacity", "heap-capacity", Unit.b, Long.class, FieldCategory.MEMORY),
 
+    // long value (in bytes), from "Desired survivor size ... bytes" (-XX:+PrintTenuringDistribution)
+    DESIRED_SURVIVOR_SIZE("Desired Survivor Size", "desired-survivor-size", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), the total of the tenuring distribution ages, which is the survivor space occupancy after
+    // the collection
+    SURVIVOR("Survivor Occupancy", "survivor", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value, the tenuring threshold computed by the collection
+    TENURING_THRESHOLD("Tenuring Threshold", "tenuring-threshold", null, Long.class, null),
+
+    // long value, MaxTenuringThreshold
+    MAX_TENURING_THRESHOLD("Max Tenuring Threshold", "max-tenuring-threshold", null, Long.class, null),
+
+    // long value (in bytes), the eden size decided by the parallel scavenge adaptive size policy
+    // (-XX:+PrintAdaptiveSizePolicy)
+    DESIRED_EDEN_SIZE("Desired Eden Size", "desired-eden-size", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), the old generation free space decided by the adaptive size policy, full collections only
+    DESIRED_PROMO_SIZE("Desired Promotion Size", "desired-promo-size", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // long value (in bytes), the survivor space size decided by the adaptive size policy
+    TARGET_SURVIVOR_SIZE("Target Survivor Size", "target-survivor-size", Unit.b, Long.class, FieldCategory.MEMORY),
+
+    // the GC cause logged by JDK 7u and newer, "Allocation Failure", "System.gc()", "Ergonomics" etc. The values are
+    // interned, see GCCause
+    CAUSE("GC Cause", "cause", null, String.class, null),
+
     // special event notes, such as "promotion failed" etc.
     NOTES("Notes", "notes", null, String.class, null),
 
@@ -0,0 +1,447 @@
+package com.novaordis.gc.model;
+
+import java.util.Arrays;
+
+/**
+ * The per-phase times logged by G1 for an evacuation pause (-XX:+PrintGCDetails, JDK 7 and 8):
+ *
+ *    [Parallel Time: 3.1 ms, GC Workers: 4]
+ *       [GC Worker Start (ms): Min: 269.3, Avg: 269.4, Max: 269.4, Diff: 0.1]
+ *       [Ext Root Scanning (ms): Min: 0.6, Avg: 0.8, Max: 1.2, Diff: 0.6, Sum: 3.1]
+ *       ...
+ *    [Code Root Fixup: 0.0 ms]
+ *    [Other: 1.0 ms]
+ *       [Choose CSet: 0.0 ms]
+ *       [Ref Proc: 0.7 ms]
+ *
+ * The phases executed by the parallel GC workers are recorded with their per-worker average, the others with their
+ * time. The worker start and end timestamps and the counters (processed buffers, termination attempts) are not times,
+ * so they are not recorded. JDK 7 logs the per-worker values on the phase line and the average on the next one, which
+ * is also handled.
+ *
+ * JDK 9 and newer log the phases with unified logging (-Xlog:gc+phases), without brackets, see parseUnifiedLine().
+ *
+ * The lines are decoded in place, without regular expressions. The known phase names are shared, so a pause does not
+ * allocate a name per phase.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1PhaseTimes
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String PARALLEL_TIME = "Parallel Time";
+    public static final String EXT_ROOT_SCANNING = "Ext Root Scanning";
+    public static final String UPDATE_RS = "Update RS";
+    public static final String SCAN_RS = "Scan RS";
+    public static final String CODE_ROOT_SCANNING = "Code Root Scanning";
+    public static final String OBJECT_COPY = "Object Copy";
+    public static final String TERMINATION = "Termination";
+    public static final String GC_WORKER_OTHER = "GC Worker Other";
+    public static final String GC_WORKER_TOTAL = "GC Worker Total";
+    public static final String CODE_ROOT_FIXUP = "Code Root Fixup";
+    public static final String CODE_ROOT_PURGE = "Code Root Purge";
+    public static final String CLEAR_CT = "Clear CT";
+    public static final String OTHER = "Other";
+    public static final String CHOOSE_CSET = "Choose CSet";
+    public static final String REF_PROC = "Ref Proc";
+    public static final String REF_ENQ = "Ref Enq";
+    public static final String REDIRTY_CARDS = "Redirty Cards";
+    public static final String HUMONGOUS_REGISTER = "Humongous Register";
+    public static final String HUMONGOUS_RECLAIM = "Humongous Reclaim";
+    public static final String FREE_CSET = "Free CSet";
+
+    // JDK 9 and newer, unified logging
+    public static final String PRE_EVACUATE_COLLECTION_SET = "Pre Evacuate Collection Set";
+    public static final String MERGE_HEAP_ROOTS = "Merge Heap Roots";
+    public static final String EVACUATE_COLLECTION_SET = "Evacuate Collection Set";
+    public static final String POST_EVACUATE_COLLECTION_SET = "Post Evacuate Collection Set";
+
+    private static final String[] KNOWN_PHASES = new String[]
+        {
+            EXT_ROOT_SCANNING, UPDATE_RS, SCAN_RS, CODE_ROOT_SCANNING, OBJECT_COPY, TERMINATION, GC_WORKER_OTHER,
+            GC_WORKER_TOTAL, CODE_ROOT_FIXUP, CODE_ROOT_PURGE, CLEAR_CT, OTHER, CHOOSE_CSET, REF_PROC, REF_ENQ,
+            REDIRTY_CARDS, HUMONGOUS_REGISTER, HUMONGOUS_RECLAIM, FREE_CSET, PRE_EVACUATE_COLLECTION_SET,
+            MERGE_HEAP_ROOTS, EVACUATE_COLLECTION_SET, POST_EVACUATE_COLLECTION_SET
+        };
+
+    // the worker timestamps, logged with the phases, but not durations
+    private static final String[] TIMESTAMP_PHASES = new String[] { "GC Worker Start", "GC Worker End" };
+
+    private static final String WORKER_PHASE_SUFFIX = " (ms):";
+
+    private static final String WORKERS_LABEL = "GC Workers:";
+
+    private static final String AVERAGE_LABEL = "Avg:";
+
+    private static final int INITIAL_CAPACITY = 24;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // milliseconds, -1 if not logged
+    private double parallelTime;
+    private int workers;
+
+    private String[] names;
+    private double[] times;
+    private int size;
+
+    // a JDK 7 worker phase whose average is logged on the next line, null if none
+    private String pendingPhase;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public G1PhaseTimes()
+    {
+        this.parallelTime = -1d;
+        this.workers = -1;
+        this.names = new String[INITIAL_CAPACITY];
+        this.times = new double[INITIAL_CAPACITY];
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes a phase line. The leading whitespace is ignored.
+     *
+     * @return false if the line does not contain a phase time, in which case nothing is recorded.
+     */
+    public boolean parseLine(String line)
+    {
+        int i = 0;
+
+        while(i < line.length() && Character.isWhitespace(line.charAt(i)))
+        {
+            i ++;
+        }
+
+        if (pendingPhase != null && line.startsWith(AVERAGE_LABEL, i))
+        {
+            double avg = parseDecimal(line, i + AVERAGE_LABEL.length());
+            String phase = pendingPhase;
+            pendingPhase = null;
+
+            if (avg < 0)
+            {
+                return false;
+            }
+
+            if (phase == TIMESTAMP_PHASES[0])
+            {
+                return true;
+            }
+
+            add(phase, avg);
+            return true;
+        }
+
+        if (i == line.length() || line.charAt(i) != '[')
+        {
+            return false;
+        }
+
+        int nameStart = i + 1;
+
+        if (line.startsWith(PARALLEL_TIME + ": ", nameStart))
+        {
+            parallelTime = parseDecimal(line, nameStart + PARALLEL_TIME.length() + 2);
+
+            // JDK 7 does not log the number of workers on the same line
+            int w = line.indexOf(WORKERS_LABEL, nameStart);
+
+            if (w != -1)
+            {
+                workers = (int)parseDecimal(line, w + WORKERS_LABEL.length());
+            }
+
+            return parallelTime >= 0;
+        }
+
+        int colon = line.indexOf(':', nameStart);
+
+        if (colon == -1)
+        {
+            return false;
+        }
+
+        boolean workerPhase = line.startsWith(WORKER_PHASE_SUFFIX, colon - WORKER_PHASE_SUFFIX.length() + 1);
+        int nameEnd = workerPhase ? colon - WORKER_PHASE_SUFFIX.length() + 1 : colon;
+
+        if (workerPhase)
+        {
+            // the worker timestamps are recognized, but they are not durations
+            boolean timestamp = lookup(TIMESTAMP_PHASES, line, nameStart, nameEnd) != null;
+            String name = timestamp ? TIMESTAMP_PHASES[0] : name(line, nameStart, nameEnd);
+            int avg = line.indexOf(AVERAGE_LABEL, colon);
+
+            if (avg == -1)
+            {
+                // JDK 7, the average follows on the next line
+                pendingPhase = name;
+                return true;
+            }
+
+            if (timestamp)
+            {
+                return true;
+            }
+
+            double value = parseDecimal(line, avg + AVERAGE_LABEL.length());
+
+            if (value < 0)
+            {
+                return false;
+            }
+
+            add(name, value);
+            return true;
+        }
+
+        // "[Code Root Fixup: 0.0 ms]"; the counters ("[Processed Buffers: Min: 0, ...]") have no " ms]" ending
+        if (!line.endsWith(" ms]"))
+        {
+            return line.indexOf(AVERAGE_LABEL, colon) != -1;
+        }
+
+        double value = parseDecimal(line, colon + 1);
+
+        if (value < 0)
+        {
+            return false;
+        }
+
+        add(name(line, nameStart, nameEnd), value);
+        return true;
+    }
+
+    /**
+     * Decodes the message of a unified logging phase line (-Xlog:gc+phases, JDK 9 and newer), the part that follows
+     * the decorations and the GC id:
+     *
+     *   Evacuate Collection Set: 4.1ms
+     *     Ext Root Scanning (ms):   Min:  0.6, Avg:  0.8, Max:  1.2, Diff:  0.6, Sum:  3.1, Workers: 4
+     *
+     * @param from the index the message starts at. The leading whitespace is ignored.
+     *
+     * @return false if the line does not contain a phase time, in which case nothing is recorded.
+     */
+    public boolean parseUnifiedLine(String line, int from)
+    {
+        int nameStart = from;
+
+        while(nameStart < line.length() && line.charAt(nameStart) == ' ')
+        {
+            nameStart ++;
+        }
+
+        int colon = line.indexOf(':', nameStart);
+
+        if (colon <= nameStart)
+        {
+            return false;
+        }
+
+        double value;
+        int nameEnd;
+
+        if (line.startsWith(WORKER_PHASE_SUFFIX, colon - WORKER_PHASE_SUFFIX.length() + 1))
+        {
+            nameEnd = colon - WORKER_PHASE_SUFFIX.length() + 1;
+
+            if (lookup(TIMESTAMP_PHASES, line, nameStart, nameEnd) != null)
+            {
+                return true;
+            }
+
+            int avg = line.indexOf(AVERAGE_LABEL, colon);
+            value = avg == -1 ? -1d : parseDecimal(line, avg + AVERAGE_LABEL.length());
+        }
+        else
+        {
+            // the counters ("Processed Buffers:  Min: 0, ...") are not times
+            nameEnd = colon;
+            value = line.endsWith("ms") ? parseDecimal(line, colon + 1) : -1d;
+        }
+
+        if (value < 0)
+        {
+            return false;
+        }
+
+        add(name(line, nameStart, nameEnd), value);
+        return true;
+    }
+
+    /**
+     * JDK 9 and newer log the number of workers on a separate line ("Using 4 workers of 4 for evacuation").
+     */
+    public void setWorkers(int workers)
+    {
+        this.workers = workers;
+    }
+
+    /**
+     * @return the wall clock time of the parallel part of the pause, in milliseconds, or -1 if not logged.
+     */
+    public double getParallelTime()
+    {
+        return parallelTime;
+    }
+
+    /**
+     * @return the number of parallel GC worker threads, or -1 if not logged.
+     */
+    public int getWorkers()
+    {
+        return workers;
+    }
+
+    /**
+     * @return the number of phases recorded.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param index 0 to size() - 1, in the order the phases were logged.
+     */
+    public String getName(int index)
+    {
+        return names[index];
+    }
+
+    /**
+     * @param index 0 to size() - 1, in the order the phases were logged.
+     *
+     * @return milliseconds - the per-worker average for the phases executed by the parallel workers.
+     */
+    public double getTime(int index)
+    {
+        return times[index];
+    }
+
+    /**
+     * @return milliseconds - the per-worker average for the phases executed by the parallel workers - or -1 if the
+     *         phase was not logged.
+     */
+    public double getTime(String phase)
+    {
+        for(int i = 0; i < size; i ++)
+        {
+            if (names[i].equals(phase))
+            {
+                return times[i];
+            }
+        }
+
+        return -1d;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "G1PhaseTimes[parallel " + parallelTime + " ms, " + workers + " workers, " + size + " phases]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses a decimal number ("0.8", " 110.1") without creating intermediate objects. Leading spaces are skipped.
+     *
+     * @return the value, or -1 if there is no number at the given position.
+     */
+    static double parseDecimal(String s, int from)
+    {
+        int i = from;
+
+        while(i < s.length() && s.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        long integer = 0L;
+        long fraction = 0L;
+        long fractionScale = 1L;
+        boolean digits = false;
+        boolean decimal = false;
+
+        for(; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                digits = true;
+
+                if (!decimal)
+                {
+                    integer = integer * 10 + (c - '0');
+                }
+                else if (fractionScale < 1000000L)
+                {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionScale *= 10;
+                }
+            }
+            else if (c == '.' && !decimal)
+            {
+                decimal = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        return digits ? integer + (double)fraction / fractionScale : -1d;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void add(String name, double value)
+    {
+        if (size == names.length)
+        {
+            names = Arrays.copyOf(names, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+        }
+
+        names[size] = name;
+        times[size] = value;
+        size ++;
+    }
+
+    /**
+     * @return the shared instance of a known phase name, or a new string for the phases we don't know about.
+     */
+    private static String name(String s, int from, int to)
+    {
+        String name = lookup(KNOWN_PHASES, s, from, to);
+        return name != null ? name : s.substring(from, to);
+    }
+
+    private static String lookup(String[] table, String s, int from, int to)
+    {
+        int length = to - from;
+
+        for(String n: table)
+        {
+            if (n.length() == length && s.regionMatches(from, n, 0, length))
+            {
+                return n;
+            }
+        }
+
+        return null;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,304 @@
+package com.novaordis.gc.model;
+
+/**
+ * The region-level occupancy logged by G1 at the end of a pause (-XX:+PrintGCDetails, JDK 7 and 8):
+ *
+ * [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->6320.1K(256.0M)]
+ *
+ * The eden and the heap are logged as occupancy(capacity) before and after the pause. The eden capacity after the pause
+ * is the eden size G1 chose for the next mutator interval. The values are decimal, with a unit that varies from value
+ * to value (B, K, M, G); they are converted to bytes.
+ *
+ * The line is decoded in place, without regular expressions.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1Regions
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String PREFIX = "[Eden: ";
+
+    private static final String SURVIVORS_LABEL = "Survivors: ";
+
+    private static final String HEAP_LABEL = "Heap: ";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param from the position the "[Eden: " block is looked up from.
+     *
+     * @return the occupancy described by the first "[Eden: " block found at or after the given position, or null if
+     *         there is no such block, or it is malformed.
+     */
+    public static G1Regions parse(String s, int from)
+    {
+        int i = s.indexOf(PREFIX, from);
+
+        if (i == -1)
+        {
+            return null;
+        }
+
+        long[] values = new long[10];
+
+        // eden before(capacity)->after(capacity)
+        i += PREFIX.length();
+        i = parseBeforeAfter(s, i, values, 0, true);
+
+        // survivors before->after
+        i = i == -1 ? -1 : s.indexOf(SURVIVORS_LABEL, i);
+        i = i == -1 ? -1 : parseBeforeAfter(s, i + SURVIVORS_LABEL.length(), values, 4, false);
+
+        // heap before(capacity)->after(capacity)
+        i = i == -1 ? -1 : s.indexOf(HEAP_LABEL, i);
+        i = i == -1 ? -1 : parseBeforeAfter(s, i + HEAP_LABEL.length(), values, 6, true);
+
+        if (i == -1)
+        {
+            return null;
+        }
+
+        return new G1Regions(values);
+    }
+
+    /**
+     * Parses a decimal memory value followed by its unit ("6320.1K", "0.0B", "24M") without creating intermediate
+     * objects.
+     *
+     * @return the value in bytes, rounded, or -1 if there is no memory value at the given position.
+     */
+    public static long parseMemory(String s, int from)
+    {
+        return parseMemory(s, from, null);
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long edenBefore;
+    private long edenCapacityBefore;
+    private long edenAfter;
+    private long edenCapacityAfter;
+    private long survivorBefore;
+    private long survivorAfter;
+    private long heapBefore;
+    private long heapCapacityBefore;
+    private long heapAfter;
+    private long heapCapacityAfter;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param values eden before, eden capacity before, eden after, eden capacity after, survivor before, survivor after,
+     *        heap before, heap capacity before, heap after, heap capacity after, all in bytes.
+     */
+    public G1Regions(long[] values)
+    {
+        this.edenBefore = values[0];
+        this.edenCapacityBefore = values[1];
+        this.edenAfter = values[2];
+        this.edenCapacityAfter = values[3];
+        this.survivorBefore = values[4];
+        this.survivorAfter = values[5];
+        this.heapBefore = values[6];
+        this.heapCapacityBefore = values[7];
+        this.heapAfter = values[8];
+        this.heapCapacityAfter = values[9];
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long getEdenBefore()
+    {
+        return edenBefore;
+    }
+
+    public long getEdenCapacityBefore()
+    {
+        return edenCapacityBefore;
+    }
+
+    public long getEdenAfter()
+    {
+        return edenAfter;
+    }
+
+    public long getEdenCapacityAfter()
+    {
+        return edenCapacityAfter;
+    }
+
+    public long getSurvivorBefore()
+    {
+        return survivorBefore;
+    }
+
+    public long getSurvivorAfter()
+    {
+        return survivorAfter;
+    }
+
+    public long getHeapBefore()
+    {
+        return heapBefore;
+    }
+
+    public long getHeapCapacityBefore()
+    {
+        return heapCapacityBefore;
+    }
+
+    public long getHeapAfter()
+    {
+        return heapAfter;
+    }
+
+    public long getHeapCapacityAfter()
+    {
+        return heapCapacityAfter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "G1Regions[eden " + edenBefore + "->" + edenAfter + ", survivors " + survivorBefore + "->" +
+            survivorAfter + ", heap " + heapBefore + "->" + heapAfter + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses "before(capacity)->after(capacity)" or "before->after" into four, respectively two consecutive elements of
+     * the array.
+     *
+     * @return the position that follows the parsed values, or -1 if the values are malformed.
+     */
+    private static int parseBeforeAfter(String s, int i, long[] values, int index, boolean capacities)
+    {
+        int[] end = new int[1];
+
+        for(int k = 0; k < 2; k ++)
+        {
+            if (k == 1)
+            {
+                if (!s.startsWith("->", i))
+                {
+                    return -1;
+                }
+
+                i += 2;
+            }
+
+            long v = parseMemory(s, i, end);
+
+            if (v < 0)
+            {
+                return -1;
+            }
+
+            values[index ++] = v;
+            i = end[0];
+
+            if (capacities)
+            {
+                if (i >= s.length() || s.charAt(i) != '(')
+                {
+                    return -1;
+                }
+
+                v = parseMemory(s, i + 1, end);
+
+                if (v < 0 || end[0] >= s.length() || s.charAt(end[0]) != ')')
+                {
+                    return -1;
+                }
+
+                values[index ++] = v;
+                i = end[0] + 1;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * @param end if not null, its first element receives the position that follows the unit.
+     */
+    private static long parseMemory(String s, int from, int[] end)
+    {
+        long integer = 0L;
+        long fraction = 0L;
+        long fractionScale = 1L;
+        boolean digits = false;
+        boolean decimal = false;
+        int i = from;
+
+        for(; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                digits = true;
+
+                if (!decimal)
+                {
+                    integer = integer * 10 + (c - '0');
+                }
+                else if (fractionScale < 1000000L)
+                {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionScale *= 10;
+                }
+            }
+            else if (c == '.' && !decimal)
+            {
+                decimal = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if (!digits || i == s.length())
+        {
+            return -1L;
+        }
+
+        long multiplier;
+
+        switch(s.charAt(i))
+        {
+            case 'B':
+                multiplier = 1L;
+                break;
+            case 'K':
+                multiplier = Unit.K.multiplier;
+                break;
+            case 'M':
+                multiplier = Unit.M.multiplier;
+                break;
+            case 'G':
+                multiplier = Unit.G.multiplier;
+                break;
+            default:
+                return -1L;
+        }
+
+        if (end != null)
+        {
+            end[0] = i + 1;
+        }
+
+        return integer * multiplier + (fraction * multiplier + fractionScale / 2) / fractionScale;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,142 @@
+package com.novaordis.gc.model;
+
+import java.util.Arrays;
+
+/**
+ * The causes logged by JDK 7u and newer in the collection header ("[GC (Allocation Failure) ...",
+ * "[Full GC (System.gc()) ..."), maintained as interned strings: there is only one instance per distinct cause, shared
+ * by all events, no matter how many events are parsed. Since the instances are canonical, they can be compared by
+ * reference.
+ *
+ * The well known causes are pre-registered; the causes not known in advance are added to the table the first time they
+ * are seen. The lookup works on a region of the line, so no intermediate string is created for a cause that was seen
+ * before.
+ *
+ * The older JDKs only advertise System.gc() invocations, as "Full GC (System)"; they are folded into SYSTEM_GC.
+ *
+ * Thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class GCCause
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String ALLOCATION_FAILURE = "Allocation Failure";
+    public static final String SYSTEM_GC = "System.gc()";
+    public static final String ERGONOMICS = "Ergonomics";
+    public static final String METADATA_GC_THRESHOLD = "Metadata GC Threshold";
+    public static final String LAST_DITCH_COLLECTION = "Last ditch collection";
+    public static final String PERM_GENERATION_FULL = "Permanent Generation Full";
+    public static final String CMS_INITIAL_MARK = "CMS Initial Mark";
+    public static final String CMS_FINAL_REMARK = "CMS Final Remark";
+    public static final String GC_LOCKER = "GCLocker Initiated GC";
+    public static final String HEAP_INSPECTION = "Heap Inspection Initiated GC";
+    public static final String HEAP_DUMP = "Heap Dump Initiated GC";
+    public static final String PROMOTION_FAILED = "Promotion Failed";
+    public static final String G1_EVACUATION_PAUSE = "G1 Evacuation Pause";
+    public static final String G1_HUMONGOUS_ALLOCATION = "G1 Humongous Allocation";
+
+    // the JDK 6 label of a System.gc() collection
+    private static final String LEGACY_SYSTEM_GC = "System";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // copy-on-write, the readers don't lock
+    private static volatile String[] causes = new String[]
+        {
+            ALLOCATION_FAILURE, SYSTEM_GC, ERGONOMICS, METADATA_GC_THRESHOLD, LAST_DITCH_COLLECTION,
+            PERM_GENERATION_FULL, CMS_INITIAL_MARK, CMS_FINAL_REMARK, GC_LOCKER, HEAP_INSPECTION, HEAP_DUMP,
+            PROMOTION_FAILED, G1_EVACUATION_PAUSE, G1_HUMONGOUS_ALLOCATION
+        };
+
+    /**
+     * @return the canonical instance of the cause, or null if the argument is null.
+     */
+    public static String intern(String cause)
+    {
+        return cause == null ? null : intern(cause, 0, cause.length());
+    }
+
+    /**
+     * @param from the index of the first character of the cause.
+     * @param to the index after the last character of the cause.
+     *
+     * @return the canonical instance of the cause found in the given region of the string.
+     */
+    public static String intern(String s, int from, int to)
+    {
+        int length = to - from;
+
+        if (length == LEGACY_SYSTEM_GC.length() && s.regionMatches(from, LEGACY_SYSTEM_GC, 0, length))
+        {
+            return SYSTEM_GC;
+        }
+
+        String c = find(causes, s, from, length);
+
+        if (c != null)
+        {
+            return c;
+        }
+
+        synchronized(GCCause.class)
+        {
+            String[] current = causes;
+
+            // another thread may have added it in the meantime
+            c = find(current, s, from, length);
+
+            if (c == null)
+            {
+                c = s.substring(from, to);
+                String[] extended = Arrays.copyOf(current, current.length + 1);
+                extended[current.length] = c;
+                causes = extended;
+            }
+
+            return c;
+        }
+    }
+
+    /**
+     * @return the number of distinct causes known so far, including the pre-registered ones.
+     */
+    public static int getKnownCauseCount()
+    {
+        return causes.length;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    private GCCause()
+    {
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String find(String[] table, String s, int from, int length)
+    {
+        for(String c: table)
+        {
+            if (c.length() == length && s.regionMatches(from, c, 0, length))
+            {
+                return c;
+            }
+        }
+
+        return null;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
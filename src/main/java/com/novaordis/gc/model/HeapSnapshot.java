@@ -0,0 +1,507 @@
+package com.novaordis.gc.model;
+
+/**
+ * The heap layout and occupancy logged by -XX:+PrintHeapAtGC before and after each collection, or on exit:
+ *
+ * {Heap before GC invocations=1 (full 0):
+ *  PSYoungGen      total 76288K, used 65536K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)
+ *   eden space 65536K, 100% used [0x000000076ab00000,0x000000076eb00000,0x000000076eb00000)
+ *   from space 10752K, 0% used [0x000000076f580000,0x000000076f580000,0x0000000770000000)
+ *   to   space 10752K, 0% used [0x000000076eb00000,0x000000076eb00000,0x000000076f580000)
+ *  ParOldGen       total 175104K, used 0K [0x00000006c0000000, 0x00000006cab00000, 0x000000076ab00000)
+ *   object space 175104K, 0% used [0x00000006c0000000,0x00000006c0000000,0x00000006cab00000)
+ *  PSPermGen       total 21504K, used 2668K [0x00000006bae00000, 0x00000006bc300000, 0x00000006c0000000)
+ *   object space 21504K, 12% used [0x00000006bae00000,0x00000006bd09b0d0,0x00000006bc300000)
+ *
+ * The generations are logged in the same order by all collectors (young, old, permanent generation), so they are
+ * identified by their position, not by their name. JDK 8 and newer log the metaspace instead of the permanent
+ * generation, its committed size is kept as the permanent generation total. G1 logs a single "garbage-first heap"
+ * line, followed by the number of young and survivor regions, which are kept as the young generation and survivor
+ * occupancy.
+ *
+ * The survivor and eden spaces are logged with their capacity and an occupancy percentage, so their occupancy is
+ * approximate.
+ *
+ * A log may contain two snapshots per collection, so the values are kept as kilobytes, in int fields. The lines are
+ * decoded in place, without regular expressions.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class HeapSnapshot
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String BEFORE_PREFIX = "{Heap before GC invocations=";
+
+    public static final String AFTER_PREFIX = "Heap after GC invocations=";
+
+    public static final String END = "}";
+
+    private static final String FULL_LABEL = "(full ";
+    private static final String TOTAL_LABEL = " total ";
+    private static final String USED_LABEL = "used ";
+    private static final String COMMITTED_LABEL = "committed ";
+    private static final String SPACE_LABEL = "space ";
+    private static final String METASPACE = "Metaspace";
+    private static final String G1_HEAP = "garbage-first heap";
+    private static final String PERM = "perm";
+    private static final String PERM_GEN = "PermGen";
+    private static final String REGION_SIZE = "region size ";
+    private static final String YOUNG_LABEL = " young (";
+    private static final String SURVIVORS_LABEL = " survivors (";
+
+    private static final int UNKNOWN = -1;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the (empty) snapshot introduced by the "{Heap before GC invocations=1 (full 0):" or "Heap after GC
+     *         invocations=1 (full 0):" line, or null if the line is malformed.
+     */
+    public static HeapSnapshot parseHeader(String line)
+    {
+        boolean before;
+        int i;
+
+        if (line.startsWith(BEFORE_PREFIX))
+        {
+            before = true;
+            i = BEFORE_PREFIX.length();
+        }
+        else if (line.startsWith(AFTER_PREFIX))
+        {
+            before = false;
+            i = AFTER_PREFIX.length();
+        }
+        else
+        {
+            return null;
+        }
+
+        long invocations = parseLong(line, i);
+
+        i = line.indexOf(FULL_LABEL, i);
+        long fullInvocations = i == -1 ? -1L : parseLong(line, i + FULL_LABEL.length());
+
+        if (invocations < 0 || fullInvocations < 0)
+        {
+            return null;
+        }
+
+        return new HeapSnapshot(before, (int)invocations, (int)fullInvocations);
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean before;
+    private int invocations;
+    private int fullInvocations;
+
+    // the number of young and old generation lines decoded so far
+    private int generations;
+
+    // kilobytes, UNKNOWN if not logged
+
+    private int youngTotal = UNKNOWN;
+    private int youngUsed = UNKNOWN;
+    private int edenTotal = UNKNOWN;
+    private int edenUsed = UNKNOWN;
+    private int fromTotal = UNKNOWN;
+    private int fromUsed = UNKNOWN;
+    private int toTotal = UNKNOWN;
+    private int toUsed = UNKNOWN;
+    private int oldTotal = UNKNOWN;
+    private int oldUsed = UNKNOWN;
+    private int permTotal = UNKNOWN;
+    private int permUsed = UNKNOWN;
+
+    // G1 only
+    private int heapTotal = UNKNOWN;
+    private int heapUsed = UNKNOWN;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * A snapshot with no invocation counts, such as the heap summary logged on exit.
+     */
+    public HeapSnapshot()
+    {
+        this(false, -1, -1);
+    }
+
+    public HeapSnapshot(boolean before, int invocations, int fullInvocations)
+    {
+        this.before = before;
+        this.invocations = invocations;
+        this.fullInvocations = fullInvocations;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes a line of the block ("  eden space 65536K, 100% used [..."). The lines that carry no information we
+     * keep ("  object space ...", "  class space ...") are accepted and ignored.
+     *
+     * @return false if the line is a generation or a space line, but it is malformed.
+     */
+    public boolean parseLine(String line)
+    {
+        int start = 0;
+
+        while(start < line.length() && line.charAt(start) == ' ')
+        {
+            start ++;
+        }
+
+        if (line.startsWith(METASPACE, start))
+        {
+            permUsed = parseKilobytes(line, USED_LABEL, start);
+            permTotal = parseKilobytes(line, COMMITTED_LABEL, start);
+            return permUsed != UNKNOWN && permTotal != UNKNOWN;
+        }
+
+        int total = line.indexOf(TOTAL_LABEL, start);
+
+        if (total != -1)
+        {
+            return parseGeneration(line, start, total);
+        }
+
+        if (line.startsWith("eden ", start))
+        {
+            return parseSpace(line, start, 0);
+        }
+
+        if (line.startsWith("from ", start))
+        {
+            return parseSpace(line, start, 1);
+        }
+
+        if (line.startsWith("to ", start))
+        {
+            return parseSpace(line, start, 2);
+        }
+
+        if (line.startsWith(REGION_SIZE, start))
+        {
+            return parseRegions(line, start);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true for the snapshot logged before the collection, false for the one logged after it or on exit.
+     */
+    public boolean isBefore()
+    {
+        return before;
+    }
+
+    /**
+     * @return the number of collections that preceded this one, -1 if not known.
+     */
+    public int getInvocations()
+    {
+        return invocations;
+    }
+
+    /**
+     * @return the number of full collections that preceded this one, -1 if not known.
+     */
+    public int getFullInvocations()
+    {
+        return fullInvocations;
+    }
+
+    /**
+     * The memory values are in bytes, -1 if not logged.
+     */
+    public long getYoungCapacity()
+    {
+        return toBytes(youngTotal);
+    }
+
+    public long getYoungUsed()
+    {
+        return toBytes(youngUsed);
+    }
+
+    public long getEdenCapacity()
+    {
+        return toBytes(edenTotal);
+    }
+
+    public long getEdenUsed()
+    {
+        return toBytes(edenUsed);
+    }
+
+    public long getFromCapacity()
+    {
+        return toBytes(fromTotal);
+    }
+
+    public long getFromUsed()
+    {
+        return toBytes(fromUsed);
+    }
+
+    public long getToCapacity()
+    {
+        return toBytes(toTotal);
+    }
+
+    public long getToUsed()
+    {
+        return toBytes(toUsed);
+    }
+
+    public long getOldCapacity()
+    {
+        return toBytes(oldTotal);
+    }
+
+    public long getOldUsed()
+    {
+        return toBytes(oldUsed);
+    }
+
+    /**
+     * @return the permanent generation capacity, or the metaspace committed size.
+     */
+    public long getPermCapacity()
+    {
+        return toBytes(permTotal);
+    }
+
+    public long getPermUsed()
+    {
+        return toBytes(permUsed);
+    }
+
+    /**
+     * @return the whole heap (young and old generation) capacity, -1 if not logged.
+     */
+    public long getHeapCapacity()
+    {
+        if (heapTotal != UNKNOWN)
+        {
+            return toBytes(heapTotal);
+        }
+
+        return youngTotal == UNKNOWN || oldTotal == UNKNOWN ? -1L : toBytes(youngTotal) + toBytes(oldTotal);
+    }
+
+    public long getHeapUsed()
+    {
+        if (heapUsed != UNKNOWN)
+        {
+            return toBytes(heapUsed);
+        }
+
+        return youngUsed == UNKNOWN || oldUsed == UNKNOWN ? -1L : toBytes(youngUsed) + toBytes(oldUsed);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HeapSnapshot[" + (before ? "before" : "after") + " " + invocations + ", " + getHeapUsed() + "/" +
+            getHeapCapacity() + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * " PSYoungGen      total 76288K, used 65536K [...", " concurrent-mark-sweep perm gen total 21248K, used 5321K [..."
+     */
+    private boolean parseGeneration(String line, int start, int total)
+    {
+        int capacity = parseKilobytes(line, total + TOTAL_LABEL.length());
+        int used = parseKilobytes(line, USED_LABEL, total);
+
+        if (capacity == UNKNOWN || used == UNKNOWN)
+        {
+            return false;
+        }
+
+        if (line.startsWith(G1_HEAP, start))
+        {
+            heapTotal = capacity;
+            heapUsed = used;
+        }
+        else if (contains(line, PERM, start, total) || contains(line, PERM_GEN, start, total))
+        {
+            permTotal = capacity;
+            permUsed = used;
+        }
+        else if (generations == 0)
+        {
+            youngTotal = capacity;
+            youngUsed = used;
+            generations ++;
+        }
+        else if (generations == 1)
+        {
+            oldTotal = capacity;
+            oldUsed = used;
+            generations ++;
+        }
+
+        return true;
+    }
+
+    /**
+     * "  eden space 65536K, 100% used [...", "  to   space 10752K, 0% used [..."
+     *
+     * @param space 0 for eden, 1 for from, 2 for to.
+     */
+    private boolean parseSpace(String line, int start, int space)
+    {
+        int i = line.indexOf(SPACE_LABEL, start);
+
+        if (i == -1)
+        {
+            return false;
+        }
+
+        i += SPACE_LABEL.length();
+        int capacity = parseKilobytes(line, i);
+
+        i = line.indexOf(", ", i);
+        long percent = i == -1 ? -1L : parseLong(line, i + 2);
+
+        if (capacity == UNKNOWN || percent < 0)
+        {
+            return false;
+        }
+
+        int used = (int)((long)capacity * percent / 100);
+
+        if (space == 0)
+        {
+            edenTotal = capacity;
+            edenUsed = used;
+        }
+        else if (space == 1)
+        {
+            fromTotal = capacity;
+            fromUsed = used;
+        }
+        else
+        {
+            toTotal = capacity;
+            toUsed = used;
+        }
+
+        return true;
+    }
+
+    /**
+     * G1: "  region size 1024K, 24 young (24576K), 0 survivors (0K)"
+     */
+    private boolean parseRegions(String line, int start)
+    {
+        int i = line.indexOf(YOUNG_LABEL, start);
+        int young = i == -1 ? UNKNOWN : parseKilobytes(line, i + YOUNG_LABEL.length());
+
+        i = line.indexOf(SURVIVORS_LABEL, start);
+        int survivors = i == -1 ? UNKNOWN : parseKilobytes(line, i + SURVIVORS_LABEL.length());
+
+        if (young == UNKNOWN || survivors == UNKNOWN)
+        {
+            return false;
+        }
+
+        youngUsed = young;
+        fromUsed = survivors;
+        edenUsed = young - survivors;
+        return true;
+    }
+
+    private static boolean contains(String s, String what, int from, int to)
+    {
+        for(int i = from; i <= to - what.length(); i ++)
+        {
+            if (s.startsWith(what, i))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the "<digits>K" value that follows the label, searched from the given position, or UNKNOWN.
+     */
+    private static int parseKilobytes(String line, String label, int from)
+    {
+        int i = line.indexOf(label, from);
+        return i == -1 ? UNKNOWN : parseKilobytes(line, i + label.length());
+    }
+
+    /**
+     * @return the "<digits>K" value that starts at the given position, or UNKNOWN.
+     */
+    private static int parseKilobytes(String line, int from)
+    {
+        long value = 0L;
+        int i = from;
+
+        for(; i < line.length(); i ++)
+        {
+            char c = line.charAt(i);
+
+            if (c < '0' || c > '9')
+            {
+                break;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        if (i == from || i == line.length() || line.charAt(i) != 'K' || value > Integer.MAX_VALUE)
+        {
+            return UNKNOWN;
+        }
+
+        return (int)value;
+    }
+
+    /**
+     * @return the non-negative integer that starts at the given position, or -1.
+     */
+    private static long parseLong(String line, int from)
+    {
+        long value = 0L;
+        int i = from;
+
+        for(; i < line.length(); i ++)
+        {
+            char c = line.charAt(i);
+
+            if (c < '0' || c > '9')
+            {
+                break;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return i == from ? -1L : value;
+    }
+
+    private static long toBytes(int kilobytes)
+    {
+        return kilobytes == UNKNOWN ? -1L : kilobytes * 1024L;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
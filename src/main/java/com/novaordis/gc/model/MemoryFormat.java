@@ -0,0 +1,430 @@
+package com.novaordis.gc.model;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+
+/**
+ * A drop-in replacement for DecimalFormat("#.0") (or "#.00", etc.) that renders memory values without going through
+ * the generic DecimalFormat digit list machinery.
+ *
+ * Memory values are maintained internally in bytes, and the only conversions we perform are to K, M and G, which
+ * are divisions by powers of two. The result of such a division is always exactly representable in binary, so we can
+ * perform the HALF_EVEN rounding DecimalFormat would perform using integer arithmetic only, and write the digits
+ * directly into a char buffer. The primitive entry point is format(long, Unit, char[], int), which does not allocate.
+ *
+ * The rendering is identical to what DecimalFormat produces for the same pattern, including the "#" semantics (no
+ * leading zero: 0.5 is rendered as ".5") and the negative sign on negative values that round to zero ("-.0"). Values
+ * that cannot be handled exactly on the integer path (very large values, NaN, infinities, negative zero, values
+ * that are not dyadic fractions) are delegated to DecimalFormat.
+ *
+ * The StringBuffer overrides, which are invoked by the series writer, render into a per-thread buffer that is reused
+ * across calls. Like DecimalFormat, instances are otherwise not thread safe, with the exception of
+ * format(long, Unit, char[], int), which only writes into the caller's buffer.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MemoryFormat extends DecimalFormat
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_FRACTION_DIGITS = 9;
+
+    /**
+     * The largest buffer format(long, Unit, char[], int) will ever need: sign, 19 integer digits, decimal separator
+     * and MAX_FRACTION_DIGITS fraction digits.
+     */
+    public static final int MAX_LENGTH = 1 + 19 + 1 + MAX_FRACTION_DIGITS;
+
+    // doubles are exact integers up to 2^53, past that DecimalFormat would see a rounded value
+    private static final long EXACT_LIMIT = 1L << 53;
+
+    // DecimalFormat works with the shortest decimal representation of the double, which is only guaranteed to match the
+    // exact binary value if the rounded result has at most 15 significant digits
+    private static final int SIGNIFICANT_DIGITS = 15;
+
+    // all K/M/G conversion results are multiples of 2^-30
+    private static final int DOUBLE_SHIFT = 30;
+    private static final double DOUBLE_SCALE = (double)(1L << DOUBLE_SHIFT);
+
+    private static final long[] POWERS_OF_TEN = new long[SIGNIFICANT_DIGITS + 1];
+
+    // scratch space for the StringBuffer overrides, so writing a series does not allocate per value
+    private static final ThreadLocal<char[]> BUFFERS = new ThreadLocal<char[]>()
+    {
+        @Override
+        protected char[] initialValue()
+        {
+            return new char[MAX_LENGTH];
+        }
+    };
+
+    static
+    {
+        long p = 1L;
+
+        for(int i = 0; i <= SIGNIFICANT_DIGITS; i ++)
+        {
+            POWERS_OF_TEN[i] = p;
+            p *= 10L;
+        }
+    }
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the binary shift corresponding to a memory unit (0 for b, 10 for K, 20 for M, 30 for G).
+     *
+     * @exception IllegalArgumentException if the unit is not a memory unit.
+     */
+    public static int toShift(Unit unit)
+    {
+        if (Unit.b.equals(unit))
+        {
+            return 0;
+        }
+        else if (Unit.K.equals(unit))
+        {
+            return 10;
+        }
+        else if (Unit.M.equals(unit))
+        {
+            return 20;
+        }
+        else if (Unit.G.equals(unit))
+        {
+            return 30;
+        }
+
+        throw new IllegalArgumentException(unit + " is not a memory unit");
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private int fractionDigits;
+    private long powerOfTen;
+
+    // indexed by shift / 10: the magnitude under which the integer path renders exactly what DecimalFormat renders
+    private long[] magnitudeLimits;
+
+    private char decimalSeparator;
+    private char minusSign;
+    private char zeroDigit;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Equivalent with new DecimalFormat("#.0")
+     */
+    public MemoryFormat()
+    {
+        this(1);
+    }
+
+    /**
+     * @param fractionDigits the fixed number of digits after the decimal separator, between 0 and MAX_FRACTION_DIGITS.
+     *        1 is equivalent with "#.0", 2 with "#.00", etc.
+     */
+    public MemoryFormat(int fractionDigits)
+    {
+        super(toPattern(fractionDigits));
+
+        this.fractionDigits = fractionDigits;
+        this.powerOfTen = POWERS_OF_TEN[fractionDigits];
+        this.magnitudeLimits = new long[4];
+
+        long significantLimit = POWERS_OF_TEN[SIGNIFICANT_DIGITS - fractionDigits];
+
+        for(int i = 0; i < magnitudeLimits.length; i ++)
+        {
+            int shift = i * 10;
+            long limit = Math.min(EXACT_LIMIT, Long.MAX_VALUE / powerOfTen);
+
+            if (significantLimit <= (limit >> shift))
+            {
+                limit = significantLimit << shift;
+            }
+
+            magnitudeLimits[i] = limit;
+        }
+
+        cacheSymbols();
+    }
+
+    // DecimalFormat overrides -------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public StringBuffer format(double number, StringBuffer result, FieldPosition fieldPosition)
+    {
+        if (isPristine() && !Double.isNaN(number) && !Double.isInfinite(number) &&
+            (number != 0d || 1d / number > 0))
+        {
+            // exact for all dyadic fractions with at most 30 fractional bits, which includes all K/M/G conversions
+            double scaled = number * DOUBLE_SCALE;
+            long n = (long)scaled;
+
+            long limit = magnitudeLimits[DOUBLE_SHIFT / 10];
+
+            if (n == scaled && n > -limit && n < limit)
+            {
+                char[] buffer = BUFFERS.get();
+                int start = result.length();
+                int length = render(n, DOUBLE_SHIFT, buffer, 0);
+                result.append(buffer, 0, length);
+                setFieldPosition(fieldPosition, buffer, start, length);
+                return result;
+            }
+        }
+
+        return super.format(number, result, fieldPosition);
+    }
+
+    @Override
+    public StringBuffer format(long number, StringBuffer result, FieldPosition fieldPosition)
+    {
+        if (isPristine() && isExact(number, 0))
+        {
+            char[] buffer = BUFFERS.get();
+            int start = result.length();
+            int length = render(number, 0, buffer, 0);
+            result.append(buffer, 0, length);
+            setFieldPosition(fieldPosition, buffer, start, length);
+            return result;
+        }
+
+        return super.format(number, result, fieldPosition);
+    }
+
+    @Override
+    public void setDecimalFormatSymbols(DecimalFormatSymbols newSymbols)
+    {
+        super.setDecimalFormatSymbols(newSymbols);
+        cacheSymbols();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts the byte count to the given unit and writes the formatted result in the buffer, starting with the given
+     * offset. The method does not allocate, unless the value is too large to be handled exactly on the integer path,
+     * and it is safe to call concurrently on a shared instance.
+     *
+     * @param unit one of b, K, M, G.
+     *
+     * @param buffer must have at least MAX_LENGTH positions available after offset.
+     *
+     * @return the buffer position immediately following the last written character.
+     *
+     * @exception IllegalArgumentException if the unit is not a memory unit.
+     */
+    public int format(long bytes, Unit unit, char[] buffer, int offset)
+    {
+        int shift = toShift(unit);
+
+        if (isExact(bytes, shift))
+        {
+            return offset + render(bytes, shift, buffer, offset);
+        }
+
+        // rare, delegate and copy; DecimalFormat keeps state while formatting
+        String s;
+
+        synchronized(this)
+        {
+            s = super.format((double)bytes / unit.multiplier, new StringBuffer(), new FieldPosition(0)).toString();
+        }
+
+        s.getChars(0, s.length(), buffer, offset);
+        return offset + s.length();
+    }
+
+    /**
+     * Convenience method, allocates.
+     *
+     * @see MemoryFormat#format(long, Unit, char[], int)
+     */
+    public String format(long bytes, Unit unit)
+    {
+        char[] b = new char[MAX_LENGTH];
+        int length = format(bytes, unit, b, 0);
+        return new String(b, 0, length);
+    }
+
+    public int getFractionDigits()
+    {
+        return fractionDigits;
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the value is rendered on the integer path, false if it is delegated to DecimalFormat.
+     */
+    boolean isExact(long bytes, int shift)
+    {
+        long limit = magnitudeLimits[shift / 10];
+        return bytes > -limit && bytes < limit;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static String toPattern(int fractionDigits)
+    {
+        if (fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS)
+        {
+            throw new IllegalArgumentException(
+                "fraction digits must be between 0 and " + MAX_FRACTION_DIGITS + ", but we got " + fractionDigits);
+        }
+
+        if (fractionDigits == 0)
+        {
+            return "#";
+        }
+
+        StringBuilder sb = new StringBuilder("#.");
+
+        for(int i = 0; i < fractionDigits; i ++)
+        {
+            sb.append('0');
+        }
+
+        return sb.toString();
+    }
+
+    private void cacheSymbols()
+    {
+        DecimalFormatSymbols symbols = getDecimalFormatSymbols();
+        decimalSeparator = symbols.getDecimalSeparator();
+        minusSign = symbols.getMinusSign();
+        zeroDigit = symbols.getZeroDigit();
+    }
+
+    /**
+     * The integer path is only valid as long as nobody re-configured the instance via the DecimalFormat setters.
+     */
+    private boolean isPristine()
+    {
+        return getMaximumFractionDigits() == fractionDigits &&
+            getMinimumFractionDigits() == fractionDigits &&
+            getMinimumIntegerDigits() == 0 &&
+            getMultiplier() == 1 &&
+            !isGroupingUsed() &&
+            RoundingMode.HALF_EVEN.equals(getRoundingMode());
+    }
+
+    /**
+     * Renders (value / 2^shift), rounded HALF_EVEN to fractionDigits digits. The caller must guarantee that
+     * |value| is under the magnitude limit corresponding to the shift.
+     *
+     * @return the number of characters written.
+     */
+    private int render(long value, int shift, char[] b, int offset)
+    {
+        boolean negative = value < 0;
+        long scaled = (negative ? -value : value) * powerOfTen;
+
+        long quotient = scaled >>> shift;
+
+        if (shift > 0)
+        {
+            long remainder = scaled & ((1L << shift) - 1);
+            long half = 1L << (shift - 1);
+
+            if (remainder > half || (remainder == half && (quotient & 1L) != 0))
+            {
+                quotient ++;
+            }
+        }
+
+        long integerPart = quotient / powerOfTen;
+        long fractionPart = quotient - integerPart * powerOfTen;
+
+        int i = offset;
+
+        if (negative)
+        {
+            b[i ++] = minusSign;
+        }
+
+        if (integerPart != 0 || fractionDigits == 0)
+        {
+            // write the integer digits backwards, then reverse them in place
+            int digitsStart = i;
+
+            do
+            {
+                long next = integerPart / 10;
+                b[i ++] = (char)(zeroDigit + (int)(integerPart - next * 10));
+                integerPart = next;
+            }
+            while(integerPart != 0);
+
+            for(int l = digitsStart, r = i - 1; l < r; l ++, r --)
+            {
+                char c = b[l];
+                b[l] = b[r];
+                b[r] = c;
+            }
+        }
+
+        if (fractionDigits > 0)
+        {
+            b[i ++] = decimalSeparator;
+
+            for(int j = i + fractionDigits - 1; j >= i; j --)
+            {
+                long next = fractionPart / 10;
+                b[j] = (char)(zeroDigit + (int)(fractionPart - next * 10));
+                fractionPart = next;
+            }
+
+            i += fractionDigits;
+        }
+
+        return i - offset;
+    }
+
+    private void setFieldPosition(FieldPosition fieldPosition, char[] buffer, int start, int length)
+    {
+        if (fieldPosition == null)
+        {
+            return;
+        }
+
+        // mirror DecimalFormat's INTEGER_FIELD/FRACTION_FIELD reporting
+        int signLength = (length > 0 && buffer[0] == minusSign) ? 1 : 0;
+        int separator = -1;
+
+        for(int i = 0; i < length; i ++)
+        {
+            if (fractionDigits > 0 && buffer[i] == decimalSeparator)
+            {
+                separator = i;
+                break;
+            }
+        }
+
+        int integerEnd = separator == -1 ? length : separator;
+
+        if (fieldPosition.getField() == NumberFormat.INTEGER_FIELD && fieldPosition.getFieldAttribute() == null)
+        {
+            fieldPosition.setBeginIndex(start + signLength);
+            fieldPosition.setEndIndex(start + integerEnd);
+        }
+        else if (fieldPosition.getField() == NumberFormat.FRACTION_FIELD && fieldPosition.getFieldAttribute() == null)
+        {
+            fieldPosition.setBeginIndex(separator == -1 ? start + length : start + separator + 1);
+            fieldPosition.setEndIndex(start + length);
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
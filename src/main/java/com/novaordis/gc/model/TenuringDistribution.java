@@ -0,0 +1,236 @@
+package com.novaordis.gc.model;
+
+/**
+ * The tenuring distribution logged by -XX:+PrintTenuringDistribution for a new generation collection:
+ *
+ * Desired survivor size 3342336 bytes, new threshold 1 (max 6)
+ * - age   1:    6548496 bytes,    6548496 total
+ * - age   2:     124528 bytes,    6673024 total
+ *
+ * The bytes at each age are kept in a primitive array indexed by age - 1. The parallel scavenge collector only logs
+ * the first line, so the distribution may have no ages.
+ *
+ * The lines are decoded in place, without regular expressions.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuringDistribution
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String HEADER_PREFIX = "Desired survivor size ";
+
+    public static final String AGE_PREFIX = "- age ";
+
+    private static final String THRESHOLD_LABEL = "new threshold ";
+
+    private static final String MAX_LABEL = "(max ";
+
+    // the age is kept in 4 bits of the object header, so there are at most 15 ages
+    private static final int INITIAL_AGE_CAPACITY = 15;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the distribution described by the "Desired survivor size ..." line, or null if the line is malformed.
+     */
+    public static TenuringDistribution parseHeader(String line)
+    {
+        if (!line.startsWith(HEADER_PREFIX))
+        {
+            return null;
+        }
+
+        long desiredSurvivorSize = parseLong(line, HEADER_PREFIX.length());
+
+        int i = line.indexOf(THRESHOLD_LABEL, HEADER_PREFIX.length());
+        long threshold = i == -1 ? -1L : parseLong(line, i + THRESHOLD_LABEL.length());
+
+        i = i == -1 ? -1 : line.indexOf(MAX_LABEL, i);
+        long maxThreshold = i == -1 ? -1L : parseLong(line, i + MAX_LABEL.length());
+
+        if (desiredSurvivorSize < 0 || threshold < 0 || maxThreshold < 0)
+        {
+            return null;
+        }
+
+        return new TenuringDistribution(desiredSurvivorSize, (int)threshold, (int)maxThreshold);
+    }
+
+    /**
+     * @return the value of the digits found at the given position, after optional spaces, or -1 if there are none.
+     */
+    static long parseLong(String s, int from)
+    {
+        int i = from;
+
+        while(i < s.length() && s.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        long value = 0L;
+        boolean digits = false;
+
+        for(; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c < '0' || c > '9')
+            {
+                break;
+            }
+
+            value = value * 10 + (c - '0');
+            digits = true;
+        }
+
+        return digits ? value : -1L;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long desiredSurvivorSize;
+    private int threshold;
+    private int maxThreshold;
+
+    // bytes, indexed by age - 1
+    private long[] ages;
+    private int maxAge;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public TenuringDistribution(long desiredSurvivorSize, int threshold, int maxThreshold)
+    {
+        this.desiredSurvivorSize = desiredSurvivorSize;
+        this.threshold = threshold;
+        this.maxThreshold = maxThreshold;
+        this.ages = new long[INITIAL_AGE_CAPACITY];
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Adds the bytes of the age described by a "- age   1:    6548496 bytes,    6548496 total" line.
+     *
+     * @return false if the line is malformed, in which case the distribution is not modified.
+     */
+    public boolean parseAge(String line)
+    {
+        if (!line.startsWith(AGE_PREFIX))
+        {
+            return false;
+        }
+
+        long age = parseLong(line, AGE_PREFIX.length());
+        int colon = line.indexOf(':', AGE_PREFIX.length());
+        long bytes = colon == -1 ? -1L : parseLong(line, colon + 1);
+
+        if (age < 1 || bytes < 0)
+        {
+            return false;
+        }
+
+        setBytes((int)age, bytes);
+        return true;
+    }
+
+    /**
+     * @param age 1 based.
+     */
+    public void setBytes(int age, long bytes)
+    {
+        if (age > ages.length)
+        {
+            long[] a = new long[age];
+            System.arraycopy(ages, 0, a, 0, ages.length);
+            ages = a;
+        }
+
+        ages[age - 1] = bytes;
+        maxAge = Math.max(maxAge, age);
+    }
+
+    /**
+     * @return the survivor space size the collector targets (TargetSurvivorRatio of the survivor space), in bytes.
+     */
+    public long getDesiredSurvivorSize()
+    {
+        return desiredSurvivorSize;
+    }
+
+    /**
+     * @return the tenuring threshold computed at the end of the collection, for the next collection.
+     */
+    public int getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * @return MaxTenuringThreshold.
+     */
+    public int getMaxThreshold()
+    {
+        return maxThreshold;
+    }
+
+    /**
+     * @return the oldest age logged, 0 if no age was logged.
+     */
+    public int getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @param age 1 based.
+     *
+     * @return the bytes of the given age that survived the collection, 0 if not logged.
+     */
+    public long getBytes(int age)
+    {
+        return age < 1 || age > maxAge ? 0L : ages[age - 1];
+    }
+
+    /**
+     * @return the total bytes of all ages, which is the survivor space occupancy after the collection.
+     */
+    public long getTotal()
+    {
+        long total = 0L;
+
+        for(int i = 0; i < maxAge; i ++)
+        {
+            total += ages[i];
+        }
+
+        return total;
+    }
+
+    /**
+     * @return true if the surviving objects exceed the desired survivor size. The threshold is lowered in response,
+     *         so objects are promoted prematurely.
+     */
+    public boolean isOverflow()
+    {
+        return getTotal() > desiredSurvivorSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TenuringDistribution[" + desiredSurvivorSize + " bytes, threshold " + threshold + "/" + maxThreshold +
+            ", " + maxAge + " ages]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -30,6 +30,16 @@ public class Timestamp
     public static final String DATESTAMP_FORMAT_LITERAL = "yyyy-MM-dd'T'HH:mm:ss.SSSZZZZ";
     public static final SimpleDateFormat DATESTAMP_FORMAT = new SimpleDateFormat(DATESTAMP_FORMAT_LITERAL);
 
+    // the segments of a log are parsed in parallel, and SimpleDateFormat is not thread safe
+    private static final ThreadLocal<SimpleDateFormat> DATESTAMP_FORMATS = new ThreadLocal<SimpleDateFormat>()
+    {
+        @Override
+        protected SimpleDateFormat initialValue()
+        {
+            return new SimpleDateFormat(DATESTAMP_FORMAT_LITERAL);
+        }
+    };
+
     public static final String OFFSET_FORMAT_LITERAL = "#0.000";
     public static final DecimalFormat OFFSET_FORMAT = new DecimalFormat(OFFSET_FORMAT_LITERAL);
 
@@ -91,12 +101,21 @@ public class Timestamp
         }
     }
 
+    /**
+     * @return the time rendered as a GC log date stamp ("2014-08-14T01:12:28.620-0700"). Safe to use from several
+     *         threads, unlike DATESTAMP_FORMAT.
+     */
+    public static String timeToDateStamp(long time)
+    {
+        return DATESTAMP_FORMATS.get().format(time);
+    }
+
     public static long dateStampToTime(String dateStamp, Long lineNumber) throws ParserException
     {
         try
         {
             //noinspection UnnecessaryLocalVariable
-            long value = DATESTAMP_FORMAT.parse(dateStamp).getTime();
+            long value = DATESTAMP_FORMATS.get().parse(dateStamp).getTime();
             return value;
         }
         catch(Exception e)
@@ -207,6 +226,47 @@ public class Timestamp
         return result;
     }
 
+    /**
+     * For the parsers that decode the time and the offset themselves, such as the unified logging parser, which reads
+     * them from the line decorations. The values are not parsed again, so no date format is involved.
+     *
+     * @param dateStampLiteral the date stamp as logged. Must be not null if the time is not null.
+     * @param time null if the log does not contain date stamps.
+     * @param offset null if the log does not contain offsets (uptime). At least one of time and offset must be not
+     *               null.
+     *
+     * @exception java.lang.IllegalArgumentException if both time and offset are null.
+     */
+    public static Timestamp decoded(String dateStampLiteral, Long time, Long offset)
+    {
+        if (time == null && offset == null)
+        {
+            throw new IllegalArgumentException("both offset and time are null");
+        }
+
+        if (time != null && dateStampLiteral == null)
+        {
+            throw new IllegalArgumentException("null date stamp literal");
+        }
+
+        Timestamp ts = new Timestamp();
+        ts.time = time;
+        ts.offset = offset;
+        ts.dateStampLiteral = time == null ? null : dateStampLiteral;
+        ts.offsetLiteral = offset == null ? null : longToOffsetLiteral(offset);
+
+        if (ts.dateStampLiteral != null && ts.offsetLiteral != null)
+        {
+            ts.literal = ts.dateStampLiteral + " " + ts.offsetLiteral;
+        }
+        else
+        {
+            ts.literal = ts.dateStampLiteral != null ? ts.dateStampLiteral : ts.offsetLiteral;
+        }
+
+        return ts;
+    }
+
     // Attributes ------------------------------------------------------------------------------------------------------
 
     private Long time;
@@ -225,6 +285,13 @@ public class Timestamp
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
+    /**
+     * Used by decoded().
+     */
+    private Timestamp()
+    {
+    }
+
     /**
      * For testing only.
      *
@@ -426,7 +493,7 @@ public class Timestamp
 
         if (time != null)
         {
-            result = DATESTAMP_FORMAT.format(time);
+            result = DATESTAMP_FORMATS.get().format(time);
         }
 
         if (offset != null)
@@ -493,7 +560,7 @@ public class Timestamp
         {
             try
             {
-                tmp = DATESTAMP_FORMAT.parse(dateStampLiteral).getTime();
+                tmp = DATESTAMP_FORMATS.get().parse(dateStampLiteral).getTime();
             }
             catch(Exception e)
             {
@@ -0,0 +1,69 @@
+package com.novaordis.gc.model.event;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Field;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * The time the application ran between two safepoints, as logged by -XX:+PrintGCApplicationConcurrentTime:
+ *
+ * 2.000: Application time: 0.9470000 seconds
+ *
+ * The record is logged when the next safepoint begins. It does not stop the application, so its duration is zero.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ApplicationConcurrentTime extends GCEventBase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long applicationMicroseconds;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public ApplicationConcurrentTime(Timestamp ts, long applicationMicroseconds)
+    {
+        super(ts, 0L);
+
+        this.applicationMicroseconds = applicationMicroseconds;
+
+        setCollectionType(CollectionType.APPLICATION_CONCURRENT);
+        setField(FieldType.APPLICATION_TIME, new Field(FieldType.APPLICATION_TIME, (double)applicationMicroseconds / 1000));
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.APPLICATION_CONCURRENT;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long getApplicationMicroseconds()
+    {
+        return applicationMicroseconds;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "APPLICATION CONCURRENT[" + applicationMicroseconds + " us]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
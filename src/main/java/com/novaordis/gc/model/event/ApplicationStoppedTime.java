@@ -0,0 +1,92 @@
+package com.novaordis.gc.model.event;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Field;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * A safepoint, as logged by -XX:+PrintGCApplicationStoppedTime:
+ *
+ * 1.053: Total time for which application threads were stopped: 0.0523450 seconds, Stopping threads took: 0.0001230 seconds
+ *
+ * The record is logged when the safepoint ends. The safepoint may have been caused by a collection or by a non-GC VM
+ * operation (biased lock revocation, deoptimization, thread dumps, etc.). The duration is the stopped time rounded to
+ * the millisecond; the exact value is available as microseconds.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ApplicationStoppedTime extends GCEventBase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private long stoppedMicroseconds;
+    private long timeToSafepointMicroseconds;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param stoppedMicroseconds the time the application threads were stopped.
+     * @param timeToSafepointMicroseconds the time it took to stop the threads, included in the stopped time, or -1 if
+     *                                    not logged (JDK 7 and older).
+     */
+    public ApplicationStoppedTime(Timestamp ts, long stoppedMicroseconds, long timeToSafepointMicroseconds)
+    {
+        super(ts, (stoppedMicroseconds + 500) / 1000);
+
+        this.stoppedMicroseconds = stoppedMicroseconds;
+        this.timeToSafepointMicroseconds = timeToSafepointMicroseconds;
+
+        setCollectionType(CollectionType.APPLICATION_STOPPED);
+        setField(FieldType.STOPPED_TIME, new Field(FieldType.STOPPED_TIME, (double)stoppedMicroseconds / 1000));
+
+        if (timeToSafepointMicroseconds >= 0)
+        {
+            setField(FieldType.TIME_TO_SAFEPOINT,
+                new Field(FieldType.TIME_TO_SAFEPOINT, (double)timeToSafepointMicroseconds / 1000));
+        }
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.APPLICATION_STOPPED;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public long getStoppedMicroseconds()
+    {
+        return stoppedMicroseconds;
+    }
+
+    /**
+     * @return the time it took to bring the application threads to the safepoint, in microseconds, or -1 if not known.
+     */
+    public long getTimeToSafepointMicroseconds()
+    {
+        return timeToSafepointMicroseconds;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "APPLICATION STOPPED[" + stoppedMicroseconds + " us]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -4,7 +4,9 @@ import com.novaordis.gc.cli.Configuration;
 import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.Field;
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.GCCause;
 import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
 import com.novaordis.gc.model.Util;
 import com.novaordis.gc.parser.BeforeAfterMax;
 
@@ -17,6 +19,12 @@ public class FullCollection extends GCEventBase
 {
     // Constants ---------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * The notes of a CMS collection that could not complete before the old generation filled up, so the application
+     * was stopped for a full collection.
+     */
+    public static final String CONCURRENT_MODE_FAILURE = "concurrent mode failure";
+
     // Static ------------------------------------------------------------------------------------------------------------------------------
 
     // Attributes --------------------------------------------------------------------------------------------------------------------------
@@ -29,7 +37,14 @@ public class FullCollection extends GCEventBase
                           BeforeAfterMax ng, BeforeAfterMax og, BeforeAfterMax pg, BeforeAfterMax heap,
                           boolean system)
     {
-        super(ts, duration);
+        this(ts, duration, ng, og, pg, heap, system, null); // no notes
+    }
+
+    public FullCollection(Timestamp ts, long duration,
+                          BeforeAfterMax ng, BeforeAfterMax og, BeforeAfterMax pg, BeforeAfterMax heap,
+                          boolean system, String notes)
+    {
+        super(ts, duration, notes);
         this.system = system;
         setCollectionType(CollectionType.FULL_COLLECTION);
 
@@ -73,11 +88,42 @@ public class FullCollection extends GCEventBase
     // Public ------------------------------------------------------------------------------------------------------------------------------
 
     /**
-     * A "system" Full GC (advertised in log as "Full GC (System)".
+     * Sets the metaspace occupancy, logged by JDK 8 and newer instead of the permanent generation occupancy:
+     * "[Metaspace: 256350K->256350K(1290240K)]". The value in parentheses is the reserved metaspace. A negative max
+     * means the reserved metaspace was not logged.
+     */
+    public void setMetaspace(BeforeAfterMax metaspace)
+    {
+        Unit u = metaspace.getUnit();
+        setField(FieldType.METASPACE_BEFORE, new Field(FieldType.METASPACE_BEFORE, Util.convertToBytes(u, metaspace.getBefore())));
+        setField(FieldType.METASPACE_AFTER, new Field(FieldType.METASPACE_AFTER, Util.convertToBytes(u, metaspace.getAfter())));
+
+        if (metaspace.getMax() >= 0)
+        {
+            setField(FieldType.METASPACE_RESERVED, new Field(FieldType.METASPACE_RESERVED, Util.convertToBytes(u, metaspace.getMax())));
+        }
+    }
+
+    /**
+     * @return true if the collection was triggered by the class metadata filling up its space, as opposed to the heap:
+     *         the metaspace reaching its high water mark (MetaspaceSize, then the dynamically adjusted threshold) or
+     *         MaxMetaspaceSize, or the permanent generation filling up. Only the collections logged with a cause can be
+     *         identified.
+     */
+    public boolean isMetadataTriggered()
+    {
+        String cause = getCause();
+
+        return GCCause.METADATA_GC_THRESHOLD == cause || GCCause.LAST_DITCH_COLLECTION == cause ||
+            GCCause.PERM_GENERATION_FULL == cause;
+    }
+
+    /**
+     * A "system" Full GC (advertised in log as "Full GC (System)", or as "Full GC (System.gc())" by the newer JDKs).
      */
     public boolean isSystem()
     {
-        return system;
+        return system || GCCause.SYSTEM_GC == getCause();
     }
 
     @Override
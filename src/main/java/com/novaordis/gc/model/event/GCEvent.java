@@ -3,7 +3,6 @@ package com.novaordis.gc.model.event;
 import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.FieldType;
 import com.novaordis.gc.model.Value;
-import com.novaordis.gc.parser.GCEventParser;
 
 /**
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
@@ -39,20 +38,4 @@ public interface GCEvent
      */
     Value get(FieldType t);
 
-    /**
-     * <b>Multi-line events</b>
-     *
-     * There are two mechanisms to deal with multi-line events: GCEvent.getActiveParser() (used by Shutdown, so far)
-     * and the read-ahead parsing (used by the '(concurrent mode failure)' events so far). Both are valid and time will
-     * decide whether we should keep both or refactor and coalesce.
-     *
-     * For read-ahead parsing:
-     *
-     * @see com.novaordis.gc.parser.linear.LinearScanParser#parse(Long timeOrigin)
-     *
-     * @return the active parser in case of a multi-line events. A null result here means there's no active parser for
-     * ths event.
-     */
-    GCEventParser getActiveParser();
-
 }
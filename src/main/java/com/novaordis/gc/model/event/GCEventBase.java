@@ -1,10 +1,13 @@
 package com.novaordis.gc.model.event;
 
+import com.novaordis.gc.model.AdaptiveSizePolicy;
 import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.Field;
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.G1Regions;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.HeapSnapshot;
 import com.novaordis.gc.model.Timestamp;
-import com.novaordis.gc.parser.GCEventParser;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,6 +32,13 @@ public abstract class GCEventBase implements GCEvent
 
     private Map<FieldType, Field> fields;
 
+    // the -XX:+PrintHeapAtGC snapshots, null if not logged
+    private HeapSnapshot heapBefore;
+    private HeapSnapshot heapAfter;
+
+    // the -XX:+PrintAdaptiveSizePolicy decisions, null if not logged
+    private AdaptiveSizePolicy adaptiveSizePolicy;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     protected GCEventBase(Timestamp ts, long duration)
@@ -129,14 +139,137 @@ public abstract class GCEventBase implements GCEvent
             return fields.get(t);
         }
     }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
 
-    @Override
-    public GCEventParser getActiveParser()
+    /**
+     * Sets the CPU and wall clock times reported by "[Times: user=... sys=..., real=... secs]" and the GC parallelism
+     * derived from them.
+     *
+     * @param user milliseconds.
+     * @param sys milliseconds.
+     * @param real milliseconds.
+     */
+    public void setTimes(long user, long sys, long real)
     {
-        return null;
+        fields.put(FieldType.USER_TIME, new Field(FieldType.USER_TIME, user));
+        fields.put(FieldType.SYS_TIME, new Field(FieldType.SYS_TIME, sys));
+        fields.put(FieldType.REAL_TIME, new Field(FieldType.REAL_TIME, real));
+
+        if (real > 0)
+        {
+            fields.put(FieldType.PARALLELISM, new Field(FieldType.PARALLELISM, (double)(user + sys) / real));
+        }
+        else
+        {
+            fields.remove(FieldType.PARALLELISM);
+        }
     }
 
-    // Public ------------------------------------------------------------------------------------------------------------------------------
+    /**
+     * @param cause the GC cause, as logged. It is interned, so the events share a single instance per distinct cause.
+     *              null removes the cause.
+     *
+     * @see com.novaordis.gc.model.GCCause
+     */
+    public void setCause(String cause)
+    {
+        if (cause == null)
+        {
+            fields.remove(FieldType.CAUSE);
+            return;
+        }
+
+        fields.put(FieldType.CAUSE, new Field(FieldType.CAUSE, GCCause.intern(cause)));
+    }
+
+    /**
+     * @return the interned GC cause, or null if the collection was not logged with a cause.
+     */
+    public String getCause()
+    {
+        Field f = fields.get(FieldType.CAUSE);
+        return f == null ? null : (String)f.getValue();
+    }
+
+    /**
+     * Exposes the G1 region occupancy as fields. The young generation fields are derived from it: the G1 young
+     * generation is the eden plus the survivor regions.
+     */
+    public void setRegions(G1Regions r)
+    {
+        set(FieldType.EDEN_BEFORE, r.getEdenBefore());
+        set(FieldType.EDEN_AFTER, r.getEdenAfter());
+        set(FieldType.EDEN_CAPACITY, r.getEdenCapacityAfter());
+        set(FieldType.SURVIVOR_BEFORE, r.getSurvivorBefore());
+        set(FieldType.SURVIVOR_AFTER, r.getSurvivorAfter());
+        set(FieldType.NG_BEFORE, r.getEdenBefore() + r.getSurvivorBefore());
+        set(FieldType.NG_AFTER, r.getEdenAfter() + r.getSurvivorAfter());
+        set(FieldType.NG_CAPACITY, r.getEdenCapacityAfter() + r.getSurvivorAfter());
+        set(FieldType.HEAP_BEFORE, r.getHeapBefore());
+        set(FieldType.HEAP_AFTER, r.getHeapAfter());
+        set(FieldType.HEAP_CAPACITY, r.getHeapCapacityAfter());
+    }
+
+    /**
+     * Attaches the snapshots logged by -XX:+PrintHeapAtGC around the collection. They are kept as they are, the fields
+     * decoded from the collection line are not modified.
+     *
+     * @param before may be null.
+     * @param after may be null.
+     */
+    public void setHeapAtGC(HeapSnapshot before, HeapSnapshot after)
+    {
+        this.heapBefore = before;
+        this.heapAfter = after;
+    }
+
+    /**
+     * @return the snapshot logged by -XX:+PrintHeapAtGC before the collection, or null.
+     */
+    public HeapSnapshot getHeapBefore()
+    {
+        return heapBefore;
+    }
+
+    /**
+     * @return the snapshot logged by -XX:+PrintHeapAtGC after the collection, or null.
+     */
+    public HeapSnapshot getHeapAfter()
+    {
+        return heapAfter;
+    }
+
+    /**
+     * Attaches the adaptive size policy decisions made by the collection, and exposes the sizes it decided as fields.
+     */
+    public void setAdaptiveSizePolicy(AdaptiveSizePolicy p)
+    {
+        this.adaptiveSizePolicy = p;
+
+        if (p.getDesiredEdenSize() >= 0)
+        {
+            set(FieldType.DESIRED_EDEN_SIZE, p.getDesiredEdenSize());
+        }
+
+        if (p.getDesiredPromoSize() >= 0)
+        {
+            set(FieldType.DESIRED_PROMO_SIZE, p.getDesiredPromoSize());
+        }
+
+        if (p.getTargetSurvivorSize() >= 0)
+        {
+            set(FieldType.TARGET_SURVIVOR_SIZE, p.getTargetSurvivorSize());
+        }
+    }
+
+    /**
+     * @return the decisions logged by -XX:+PrintAdaptiveSizePolicy within the collection, or null.
+     */
+    public AdaptiveSizePolicy getAdaptiveSizePolicy()
+    {
+        return adaptiveSizePolicy;
+    }
 
     // Package protected -------------------------------------------------------------------------------------------------------------------
 
@@ -160,6 +293,11 @@ public abstract class GCEventBase implements GCEvent
 
     // Private -----------------------------------------------------------------------------------------------------------------------------
 
+    private void set(FieldType t, long bytes)
+    {
+        fields.put(t, new Field(t, bytes));
+    }
+
     // Inner classes -----------------------------------------------------------------------------------------------------------------------
 }
 
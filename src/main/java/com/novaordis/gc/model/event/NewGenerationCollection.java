@@ -4,6 +4,7 @@ import com.novaordis.gc.cli.Configuration;
 import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.Field;
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.TenuringDistribution;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.Util;
 import com.novaordis.gc.parser.BeforeAfterMax;
@@ -17,10 +18,17 @@ public class NewGenerationCollection extends GCEventBase
 {
     // Constants -------------------------------------------------------------------------------------------------------
 
+    /**
+     * The notes of a collection that could not promote all the surviving objects into the old generation.
+     */
+    public static final String PROMOTION_FAILED = "promotion failed";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    private TenuringDistribution tenuringDistribution;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public NewGenerationCollection(Timestamp ts, long duration, BeforeAfterMax ng, BeforeAfterMax heap)
@@ -70,6 +78,31 @@ public class NewGenerationCollection extends GCEventBase
 
     // Public ------------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return the tenuring distribution logged with the collection, or null if it was not logged.
+     */
+    public TenuringDistribution getTenuringDistribution()
+    {
+        return tenuringDistribution;
+    }
+
+    /**
+     * Attaches the tenuring distribution and exposes its summary as fields.
+     */
+    public void setTenuringDistribution(TenuringDistribution d)
+    {
+        this.tenuringDistribution = d;
+
+        setField(FieldType.DESIRED_SURVIVOR_SIZE, new Field(FieldType.DESIRED_SURVIVOR_SIZE, d.getDesiredSurvivorSize()));
+        setField(FieldType.TENURING_THRESHOLD, new Field(FieldType.TENURING_THRESHOLD, (long)d.getThreshold()));
+        setField(FieldType.MAX_TENURING_THRESHOLD, new Field(FieldType.MAX_TENURING_THRESHOLD, (long)d.getMaxThreshold()));
+
+        if (d.getMaxAge() > 0)
+        {
+            setField(FieldType.SURVIVOR, new Field(FieldType.SURVIVOR, d.getTotal()));
+        }
+    }
+
     @Override
     public String toString()
     {
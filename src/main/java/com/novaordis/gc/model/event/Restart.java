@@ -0,0 +1,111 @@
+package com.novaordis.gc.model.event;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+
+/**
+ * Marks the start of a new JVM run in a log appended to across restarts. It is inserted in the event list between the
+ * events of successive runs, so the consumers can tell the runs apart: the offsets of the events that follow it start
+ * again from zero.
+ *
+ * @see com.novaordis.gc.parser.LogSegmenter
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class Restart implements GCEvent
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private int run;
+    private String boundary;
+    private Long time;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param run the index of the run that starts, the first run of the log is 0.
+     * @param boundary what the restart was recognized by.
+     * @param time the time the run started, which is its time origin. May be null if unknown.
+     *
+     * @see com.novaordis.gc.parser.LogSegment#getBoundary()
+     */
+    public Restart(int run, String boundary, Long time)
+    {
+        this.run = run;
+        this.boundary = boundary;
+        this.time = time;
+    }
+
+    // GCEvent overrides -----------------------------------------------------------------------------------------------
+
+    /**
+     * @return the time the run started, or null if unknown.
+     */
+    @Override
+    public Long getTime()
+    {
+        return time;
+    }
+
+    /**
+     * There is no actual restart duration, it conventionally returns 0.
+     */
+    @Override
+    public long getDuration()
+    {
+        return 0L;
+    }
+
+    @Override
+    public Long getOffset()
+    {
+        return null;
+    }
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.RESTART;
+    }
+
+    @Override
+    public Value get(FieldType t)
+    {
+        return null;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public int getRun()
+    {
+        return run;
+    }
+
+    public String getBoundary()
+    {
+        return boundary;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RESTART " + run + (time == null ? "" : " " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(time)) +
+            " (" + boundary + ")";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -1,14 +1,16 @@
 package com.novaordis.gc.model.event;
 
 import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Field;
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.HeapSnapshot;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.Value;
-import com.novaordis.gc.parser.GCEventParser;
-import com.novaordis.gc.parser.linear.ShutdownParser;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -26,16 +28,20 @@ public class Shutdown implements GCEvent
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
-    private ShutdownParser activeParser;
-
     private List<String> lines;
 
+    // the heap summary, decoded
+    private HeapSnapshot heap;
+
+    // the values decoded from the heap summary, null until the first one is set
+    private Map<FieldType, Field> fields;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
-    public Shutdown(ShutdownParser parser)
+    public Shutdown()
     {
-        this.activeParser = parser;
         this.lines = new ArrayList<String>();
+        this.heap = new HeapSnapshot();
     }
 
     // GCEvent overrides -----------------------------------------------------------------------------------------------
@@ -67,18 +73,18 @@ public class Shutdown implements GCEvent
         return CollectionType.SHUTDOWN;
     }
 
+    /**
+     * Only the metaspace and class space values are exposed as fields, the rest of the heap summary is available as a
+     * snapshot.
+     *
+     * @see Shutdown#getHeapSnapshot()
+     */
     @Override
     public Value get(FieldType t)
     {
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return fields == null ? null : fields.get(t);
     }
-
-    @Override
-    public GCEventParser getActiveParser()
-    {
-        return activeParser;
-    }
-
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     @Override
@@ -87,9 +93,22 @@ public class Shutdown implements GCEvent
         return "SHUTDOWN";
     }
 
-    public void setActiveParser(ShutdownParser p)
+    /**
+     * @return the heap layout and occupancy on exit, as decoded from the heap summary.
+     */
+    public HeapSnapshot getHeapSnapshot()
+    {
+        return heap;
+    }
+
+    public void setField(FieldType t, Field f)
     {
-        this.activeParser = p;
+        if (fields == null)
+        {
+            fields = new HashMap<FieldType, Field>();
+        }
+
+        fields.put(t, f);
     }
 
     /**
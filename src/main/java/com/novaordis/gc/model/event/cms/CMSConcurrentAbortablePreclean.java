@@ -0,0 +1,51 @@
+package com.novaordis.gc.model.event.cms;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSConcurrentAbortablePreclean extends CMSConcurrentPhase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public CMSConcurrentAbortablePreclean(Timestamp ts)
+    {
+        super(ts);
+    }
+
+    public CMSConcurrentAbortablePreclean(Timestamp ts, Long cpuTime, Long wallTime)
+    {
+        super(ts, cpuTime, wallTime);
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
+
+
+
@@ -8,7 +8,7 @@ import com.novaordis.gc.model.Timestamp;
  *
  * Copyright 2013 Nova Ordis LLC
  */
-public class CMSConcurrentMark extends CMSEvent
+public class CMSConcurrentMark extends CMSConcurrentPhase
 {
     // Constants ---------------------------------------------------------------------------------------------------------------------------
 
@@ -20,7 +20,12 @@ public class CMSConcurrentMark extends CMSEvent
 
     public CMSConcurrentMark(Timestamp ts)
     {
-        super(ts, 0L);
+        super(ts);
+    }
+
+    public CMSConcurrentMark(Timestamp ts, Long cpuTime, Long wallTime)
+    {
+        super(ts, cpuTime, wallTime);
     }
 
     // GCEvent implementation --------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,82 @@
+package com.novaordis.gc.model.event.cms;
+
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * A concurrent CMS phase, logged twice: once when it starts ("[CMS-concurrent-sweep-start]") and once when it ends, with
+ * its CPU and wall clock times ("[CMS-concurrent-sweep: 0.010/0.012 secs]"). The events do not stop the application
+ * threads, so their duration is zero.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public abstract class CMSConcurrentPhase extends CMSEvent
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private Long cpuTime;
+    private Long wallTime;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The beginning of the phase, or the end of a phase whose times are not known.
+     */
+    protected CMSConcurrentPhase(Timestamp ts)
+    {
+        this(ts, null, null);
+    }
+
+    /**
+     * The end of the phase.
+     *
+     * @param cpuTime milliseconds, may be null.
+     * @param wallTime milliseconds, may be null.
+     */
+    protected CMSConcurrentPhase(Timestamp ts, Long cpuTime, Long wallTime)
+    {
+        super(ts, 0L);
+        this.cpuTime = cpuTime;
+        this.wallTime = wallTime;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the CPU time spent by the concurrent GC threads in the phase, in milliseconds. Null for the beginning of
+     *         the phase.
+     */
+    public Long getCpuTime()
+    {
+        return cpuTime;
+    }
+
+    /**
+     * @return the wall clock duration of the phase, in milliseconds. Null for the beginning of the phase.
+     */
+    public Long getWallTime()
+    {
+        return wallTime;
+    }
+
+    /**
+     * @return true if this event marks the end of the phase.
+     */
+    public boolean isEnd()
+    {
+        return wallTime != null;
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
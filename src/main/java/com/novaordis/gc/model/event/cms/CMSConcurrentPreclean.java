@@ -8,7 +8,7 @@ import com.novaordis.gc.model.Timestamp;
  *
  * Copyright 2013 Nova Ordis LLC
  */
-public class CMSConcurrentPreclean extends CMSEvent
+public class CMSConcurrentPreclean extends CMSConcurrentPhase
 {
     // Constants ---------------------------------------------------------------------------------------------------------------------------
 
@@ -20,7 +20,12 @@ public class CMSConcurrentPreclean extends CMSEvent
 
     public CMSConcurrentPreclean(Timestamp ts)
     {
-        super(ts, 0L);
+        super(ts);
+    }
+
+    public CMSConcurrentPreclean(Timestamp ts, Long cpuTime, Long wallTime)
+    {
+        super(ts, cpuTime, wallTime);
     }
 
     // GCEvent implementation --------------------------------------------------------------------------------------------------------------
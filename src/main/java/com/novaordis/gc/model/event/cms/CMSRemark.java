@@ -0,0 +1,72 @@
+package com.novaordis.gc.model.event.cms;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Field;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Util;
+import com.novaordis.gc.parser.CurrentMax;
+
+/**
+ * The stop-the-world remark phase of a CMS cycle. The old generation occupancy is the occupancy at the end of the
+ * marking, before the sweep.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSRemark extends CMSEvent
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param ng the young generation occupancy, may be null if not logged.
+     */
+    public CMSRemark(Timestamp ts, long duration, CurrentMax ng, CurrentMax og, CurrentMax heap)
+    {
+        super(ts, duration);
+        setCollectionType(CollectionType.CMS_REMARK);
+
+        if (ng != null)
+        {
+            setField(FieldType.NG, new Field(FieldType.NG, Util.convertToBytes(ng.getUnit(), ng.getCurrent())));
+            setField(FieldType.NG_CAPACITY, new Field(FieldType.NG_CAPACITY, Util.convertToBytes(ng.getUnit(), ng.getMax())));
+        }
+
+        setField(FieldType.OG, new Field(FieldType.OG, Util.convertToBytes(og.getUnit(), og.getCurrent())));
+        setField(FieldType.OG_CAPACITY, new Field(FieldType.OG_CAPACITY, Util.convertToBytes(og.getUnit(), og.getMax())));
+        setField(FieldType.HEAP, new Field(FieldType.HEAP, Util.convertToBytes(heap.getUnit(), heap.getCurrent())));
+        setField(FieldType.HEAP_CAPACITY, new Field(FieldType.HEAP_CAPACITY, Util.convertToBytes(heap.getUnit(), heap.getMax())));
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.CMS_REMARK;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "CMS-remark " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(getTime()) + " (" + getDuration() + " ms)";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,228 @@
+package com.novaordis.gc.model.event.concurrent;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Field;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.GCEventBase;
+
+/**
+ * A ZGC or Shenandoah collection cycle, as logged with unified logging: the pauses and the concurrent phases, in the
+ * order they were logged, the allocation stalls and the pacing delays the application threads incurred while the cycle
+ * was running, and the heap occupancy when the cycle started.
+ *
+ * The pauses of these collectors are short, most of the time is spent in the concurrent phases, so the cycle is not a
+ * stop-the-world event: its duration is the wall clock time from its first to its last line.
+ *
+ * A log may contain millions of cycles, so a cycle is a single event that keeps its phases, stalls and pacing delays in
+ * arrays of interned names and microseconds, not as one object per phase. The arrays are not copied, the parser hands
+ * them over.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ConcurrentCycle extends GCEventBase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final String PAUSE_PREFIX = "Pause ";
+
+    private static final String[] NO_NAMES = new String[0];
+    private static final int[] NO_VALUES = new int[0];
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the phase is a stop-the-world pause ("Pause Mark Start", "Pause Init Mark").
+     */
+    public static boolean isPause(String phase)
+    {
+        return phase.startsWith(PAUSE_PREFIX);
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private CollectionType type;
+
+    private String[] phases;
+    private int[] phaseMicroseconds;
+
+    private String[] stallThreads;
+    private int[] stallMicroseconds;
+
+    private String[] pacingThreads;
+    private int[] pacingMicroseconds;
+
+    // bytes, -1 if not logged
+    private long heapUsedAtStart;
+    private long heapCapacityAtStart;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param type ZGC_CYCLE or SHENANDOAH_CYCLE.
+     * @param duration the wall clock time of the cycle, in milliseconds.
+     * @param phases the interned phase names ("Pause Mark Start", "Concurrent Mark"), in the order they were logged.
+     * @param phaseMicroseconds the duration of each phase.
+     * @param stallThreads the interned names of the threads that stalled, one entry per stall. May be null.
+     * @param stallMicroseconds the duration of each stall. May be null.
+     * @param pacingThreads the interned names of the threads that were paced. May be null.
+     * @param pacingMicroseconds the pacing delay accrued by each thread during the cycle. May be null.
+     * @param heapUsedAtStart bytes, -1 if not logged.
+     * @param heapCapacityAtStart bytes, -1 if not logged.
+     */
+    public ConcurrentCycle(Timestamp ts, long duration, CollectionType type,
+                           String[] phases, int[] phaseMicroseconds,
+                           String[] stallThreads, int[] stallMicroseconds,
+                           String[] pacingThreads, int[] pacingMicroseconds,
+                           long heapUsedAtStart, long heapCapacityAtStart)
+    {
+        super(ts, duration);
+
+        if (!CollectionType.ZGC_CYCLE.equals(type) && !CollectionType.SHENANDOAH_CYCLE.equals(type))
+        {
+            throw new IllegalArgumentException("not a concurrent cycle type: " + type);
+        }
+
+        if (phases.length != phaseMicroseconds.length)
+        {
+            throw new IllegalArgumentException("the phase names and durations do not match");
+        }
+
+        this.type = type;
+        this.phases = phases;
+        this.phaseMicroseconds = phaseMicroseconds;
+        this.stallThreads = stallThreads == null ? NO_NAMES : stallThreads;
+        this.stallMicroseconds = stallMicroseconds == null ? NO_VALUES : stallMicroseconds;
+        this.pacingThreads = pacingThreads == null ? NO_NAMES : pacingThreads;
+        this.pacingMicroseconds = pacingMicroseconds == null ? NO_VALUES : pacingMicroseconds;
+        this.heapUsedAtStart = heapUsedAtStart;
+        this.heapCapacityAtStart = heapCapacityAtStart;
+
+        setCollectionType(type);
+
+        if (heapUsedAtStart >= 0)
+        {
+            setField(FieldType.HEAP_BEFORE, new Field(FieldType.HEAP_BEFORE, heapUsedAtStart));
+        }
+
+        if (heapCapacityAtStart >= 0)
+        {
+            setField(FieldType.HEAP_CAPACITY, new Field(FieldType.HEAP_CAPACITY, heapCapacityAtStart));
+        }
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return type;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public int getPhaseCount()
+    {
+        return phases.length;
+    }
+
+    public String getPhase(int i)
+    {
+        return phases[i];
+    }
+
+    public int getPhaseMicroseconds(int i)
+    {
+        return phaseMicroseconds[i];
+    }
+
+    /**
+     * @return the sum of the pause durations, in microseconds.
+     */
+    public long getPauseMicroseconds()
+    {
+        long sum = 0L;
+
+        for(int i = 0; i < phases.length; i ++)
+        {
+            if (isPause(phases[i]))
+            {
+                sum += phaseMicroseconds[i];
+            }
+        }
+
+        return sum;
+    }
+
+    public int getStallCount()
+    {
+        return stallThreads.length;
+    }
+
+    public String getStallThread(int i)
+    {
+        return stallThreads[i];
+    }
+
+    public int getStallMicroseconds(int i)
+    {
+        return stallMicroseconds[i];
+    }
+
+    public int getPacingCount()
+    {
+        return pacingThreads.length;
+    }
+
+    public String getPacingThread(int i)
+    {
+        return pacingThreads[i];
+    }
+
+    public int getPacingMicroseconds(int i)
+    {
+        return pacingMicroseconds[i];
+    }
+
+    /**
+     * @return bytes, -1 if not logged.
+     */
+    public long getHeapUsedAtStart()
+    {
+        return heapUsedAtStart;
+    }
+
+    /**
+     * @return bytes, -1 if not logged.
+     */
+    public long getHeapCapacityAtStart()
+    {
+        return heapCapacityAtStart;
+    }
+
+    /**
+     * @return the free heap when the cycle started, in bytes, or -1 if the occupancy was not logged.
+     */
+    public long getHeadroomAtStart()
+    {
+        return heapUsedAtStart < 0 || heapCapacityAtStart < 0 ? -1L : Math.max(0L, heapCapacityAtStart - heapUsedAtStart);
+    }
+
+    @Override
+    public String toString()
+    {
+        return type.label + " " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(getTime()) + " (" + getDuration() +
+            " ms, " + phases.length + " phases, " + stallThreads.length + " stalls)";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
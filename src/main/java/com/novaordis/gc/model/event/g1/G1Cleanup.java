@@ -0,0 +1,55 @@
+package com.novaordis.gc.model.event.g1;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * The stop-the-world cleanup of a G1 concurrent marking cycle, which reclaims the regions found empty by the marking:
+ * "[GC cleanup 9458K->9458K(256M), 0.0002304 secs]".
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1Cleanup extends G1Pause
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public G1Cleanup(Timestamp ts, long duration, BeforeAfterMax heap)
+    {
+        super(ts, duration, null, heap);
+        setCollectionType(CollectionType.G1_CLEANUP);
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.G1_CLEANUP;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "G1 cleanup " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(getTime()) + " (" + getDuration() + " ms)";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
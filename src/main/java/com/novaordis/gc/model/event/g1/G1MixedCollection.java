@@ -0,0 +1,59 @@
+package com.novaordis.gc.model.event.g1;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A G1 evacuation pause that collects the young regions and some of the old regions selected by the last marking cycle:
+ * "[GC pause (G1 Evacuation Pause) (mixed), 0.0041890 secs]". JDK 7 logs it as "(partial)".
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1MixedCollection extends G1Pause
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param notes G1Pause.TO_SPACE_EXHAUSTED if the evacuation failed, null otherwise.
+     * @param heap the heap occupancy logged in the header, when the details are not logged. May be null.
+     */
+    public G1MixedCollection(Timestamp ts, long duration, String notes, BeforeAfterMax heap)
+    {
+        super(ts, duration, notes, heap);
+        setCollectionType(CollectionType.G1_MIXED);
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.G1_MIXED;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "G1 mixed " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(getTime()) + " (" + getDuration() + " ms)";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
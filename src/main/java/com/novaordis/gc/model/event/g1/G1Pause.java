@@ -0,0 +1,82 @@
+package com.novaordis.gc.model.event.g1;
+
+import com.novaordis.gc.model.Field;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.G1PhaseTimes;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Util;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A G1 stop-the-world pause. The region occupancy and the phase times are logged on the lines that follow the pause
+ * header, so they are added after the event is created.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public abstract class G1Pause extends GCEventBase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The notes of an evacuation pause that ran out of free regions to copy the live objects to. JDK 7 logs it as
+     * "to-space overflow".
+     */
+    public static final String TO_SPACE_EXHAUSTED = "to-space exhausted";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private G1PhaseTimes phaseTimes;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param heap the heap occupancy logged in the header, when the details are not logged. May be null.
+     */
+    protected G1Pause(Timestamp ts, long duration, String notes, BeforeAfterMax heap)
+    {
+        super(ts, duration, notes);
+
+        if (heap != null)
+        {
+            setField(FieldType.HEAP_BEFORE, new Field(FieldType.HEAP_BEFORE, Util.convertToBytes(heap.getUnit(), heap.getBefore())));
+            setField(FieldType.HEAP_AFTER, new Field(FieldType.HEAP_AFTER, Util.convertToBytes(heap.getUnit(), heap.getAfter())));
+            setField(FieldType.HEAP_CAPACITY, new Field(FieldType.HEAP_CAPACITY, Util.convertToBytes(heap.getUnit(), heap.getMax())));
+        }
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the phase times logged with the pause, or null if they were not logged.
+     */
+    public G1PhaseTimes getPhaseTimes()
+    {
+        return phaseTimes;
+    }
+
+    /**
+     * Attaches the phase times and exposes the number of GC workers as a field.
+     */
+    public void setPhaseTimes(G1PhaseTimes t)
+    {
+        this.phaseTimes = t;
+
+        if (t.getWorkers() >= 0)
+        {
+            setField(FieldType.GC_WORKERS, new Field(FieldType.GC_WORKERS, (long)t.getWorkers()));
+        }
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
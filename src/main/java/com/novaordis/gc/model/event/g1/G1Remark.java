@@ -0,0 +1,54 @@
+package com.novaordis.gc.model.event.g1;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * The stop-the-world remark of a G1 concurrent marking cycle. JDK 8 logs its sub-phases with their own timestamps:
+ * "[GC remark 0.7: [Finalize Marking, 0.0001 secs] 0.7: [GC ref-proc, 0.0001 secs] 0.7: [Unloading, 0.001 secs], 0.0021 secs]".
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1Remark extends G1Pause
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public G1Remark(Timestamp ts, long duration)
+    {
+        super(ts, duration, null, null);
+        setCollectionType(CollectionType.G1_REMARK);
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.G1_REMARK;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "G1 remark " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(getTime()) + " (" + getDuration() + " ms)";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,70 @@
+package com.novaordis.gc.model.event.g1;
+
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A G1 evacuation pause that collects the young regions only: "[GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]".
+ * The pause may also start a concurrent marking cycle: "[GC pause (G1 Humongous Allocation) (young) (initial-mark), ...".
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1YoungCollection extends G1Pause
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private boolean initialMark;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param notes G1Pause.TO_SPACE_EXHAUSTED if the evacuation failed, null otherwise.
+     * @param heap the heap occupancy logged in the header, when the details are not logged. May be null.
+     */
+    public G1YoungCollection(Timestamp ts, long duration, String notes, boolean initialMark, BeforeAfterMax heap)
+    {
+        super(ts, duration, notes, heap);
+        setCollectionType(CollectionType.G1_YOUNG);
+        this.initialMark = initialMark;
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return CollectionType.G1_YOUNG;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the pause also performed the initial mark of a concurrent marking cycle.
+     */
+    public boolean isInitialMark()
+    {
+        return initialMark;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "G1 young " + Configuration.TIMESTAMP_DISPLAY_FORMAT.format(getTime()) + " (" + getDuration() + " ms)";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,17 @@
+package com.novaordis.gc.model.event.j9;
+
+/**
+ * A collection logged by an IBM J9 or Eclipse OpenJ9 virtual machine.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public interface J9Collection
+{
+    /**
+     * @return the collection policy the virtual machine was started with ("gencon", "optthruput" ...), or null if the
+     *         log does not start with the initialization element.
+     */
+    String getGcPolicy();
+}
@@ -0,0 +1,57 @@
+package com.novaordis.gc.model.event.j9;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A J9 global collection, recorded as a full collection.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class J9GlobalCollection extends FullCollection implements J9Collection
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String gcPolicy;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param nursery the nursery occupancy, may be null.
+     * @param tenure the tenure occupancy, may be null.
+     * @param heap may be null.
+     * @param system true if the collection was explicitly requested.
+     * @param gcPolicy null if not known.
+     */
+    public J9GlobalCollection(Timestamp ts, long duration, BeforeAfterMax nursery, BeforeAfterMax tenure,
+                              BeforeAfterMax heap, boolean system, String gcPolicy)
+    {
+        super(ts, duration, nursery, tenure, null, heap, system);
+        this.gcPolicy = gcPolicy;
+    }
+
+    // J9Collection implementation ---------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String getGcPolicy()
+    {
+        return gcPolicy;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,54 @@
+package com.novaordis.gc.model.event.j9;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A J9 scavenge: a collection of the nursery, recorded as a new generation collection.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class J9Scavenge extends NewGenerationCollection implements J9Collection
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String gcPolicy;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param nursery the nursery occupancy, may be null.
+     * @param heap may be null.
+     * @param gcPolicy null if not known.
+     */
+    public J9Scavenge(Timestamp ts, long duration, BeforeAfterMax nursery, BeforeAfterMax heap, String gcPolicy)
+    {
+        super(ts, duration, nursery, heap);
+        this.gcPolicy = gcPolicy;
+    }
+
+    // J9Collection implementation ---------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String getGcPolicy()
+    {
+        return gcPolicy;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
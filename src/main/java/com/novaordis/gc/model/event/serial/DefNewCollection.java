@@ -0,0 +1,43 @@
+package com.novaordis.gc.model.event.serial;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A "DefNew" young generation collection. The serial collector logs it, but so does CMS when configured with the
+ * serial young generation collector.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class DefNewCollection extends NewGenerationCollection implements SerialCollection
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @see NewGenerationCollection#NewGenerationCollection(Timestamp, long, BeforeAfterMax, BeforeAfterMax, String, String)
+     */
+    public DefNewCollection(Timestamp ts, long duration, BeforeAfterMax ng, BeforeAfterMax heap,
+                            String notes, String embeddedTimestampLiteral)
+    {
+        super(ts, duration, ng, heap, notes, embeddedTimestampLiteral);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
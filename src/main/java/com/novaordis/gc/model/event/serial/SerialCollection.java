@@ -0,0 +1,12 @@
+package com.novaordis.gc.model.event.serial;
+
+/**
+ * Implemented by the events logged by the serial collector (DefNew/Tenured).
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public interface SerialCollection
+{
+}
@@ -0,0 +1,45 @@
+package com.novaordis.gc.model.event.serial;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * A full collection of the serial collector's "Tenured" old generation, either logged as such or as the fallback of a
+ * DefNew collection that failed promotion.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuredCollection extends FullCollection implements SerialCollection
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param ng may be null.
+     * @param pg null if the JVM has a metaspace.
+     */
+    public TenuredCollection(Timestamp ts, long duration,
+                             BeforeAfterMax ng, BeforeAfterMax og, BeforeAfterMax pg, BeforeAfterMax heap,
+                             boolean system, String notes)
+    {
+        super(ts, duration, ng, og, pg, heap, system, notes);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,752 @@
+package com.novaordis.gc.model.expression;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A boolean condition over GC events, compiled from a --where expression such as
+ *
+ * duration>500 && collection-type==full
+ *
+ * Conditions compare an expression (field, constant or arithmetic expression) with another one, using ==, !=, <, <=, >
+ * or >=, and can be combined with &&, ||, ! and parentheses. Numeric literals may carry a unit: memory literals are
+ * converted to bytes (512M) and time literals to milliseconds (2s). collection-type can only be compared for equality
+ * with a collection type label. The text fields (cause, notes) can only be compared for equality with a string, which
+ * must be quoted if it contains spaces, operators or parentheses: cause=='System.gc()'.
+ *
+ * Besides the complete evaluation against an event, the predicate can be evaluated partially, knowing only the
+ * collection type and possibly the duration. This is what allows the parsers to drop an event before decoding the rest
+ * of the line. Partial evaluation is three-valued: a null result means the answer depends on fields not known yet.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class Predicate
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Pattern LITERAL = Pattern.compile("(-?\\d+(\\.\\d+)?)([a-zA-Z]+)?");
+
+    private static final String[] COMPARISON_OPERATORS = new String[] { "==", "!=", ">=", "<=", ">", "<", "=" };
+
+    // the fields that can be compared with a string
+    private static final FieldType[] TEXT_FIELDS = new FieldType[] { FieldType.CAUSE, FieldType.NOTES };
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @exception UserErrorException if the expression cannot be compiled.
+     */
+    public static Predicate parse(String s) throws UserErrorException
+    {
+        if (s == null || s.trim().length() == 0)
+        {
+            throw new UserErrorException("empty filter expression");
+        }
+
+        Compiler c = new Compiler(s);
+        Node root = c.or();
+
+        if (c.peek() != null)
+        {
+            throw new UserErrorException("unexpected \"" + c.peek() + "\" in filter expression \"" + s + "\"");
+        }
+
+        return new Predicate(s, root);
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String literal;
+    private Node root;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    private Predicate(String literal, Node root)
+    {
+        this.literal = literal;
+        this.root = root;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Partial evaluation, for events that have not been fully parsed yet.
+     *
+     * @param duration the duration in milliseconds, or null if not known yet.
+     *
+     * @return TRUE or FALSE if the outcome can be decided based on the collection type and duration alone, null
+     *         otherwise.
+     */
+    public Boolean evaluate(CollectionType type, Long duration)
+    {
+        return root.evaluate(type, duration);
+    }
+
+    /**
+     * @return true if the predicate may be true for events of the given type; false if all events of the given type are
+     *         rejected, no matter what their other fields are.
+     */
+    public boolean admits(CollectionType type)
+    {
+        return !Boolean.FALSE.equals(root.evaluate(type, null));
+    }
+
+    /**
+     * Complete evaluation. A comparison involving a field the event does not have is false.
+     */
+    public boolean accepts(GCEvent e) throws Exception
+    {
+        return root.accepts(e);
+    }
+
+    @Override
+    public String toString()
+    {
+        return literal;
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static Boolean not(Boolean b)
+    {
+        return b == null ? null : !b;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+
+    private static interface Node
+    {
+        Boolean evaluate(CollectionType type, Long duration);
+
+        boolean accepts(GCEvent e) throws Exception;
+    }
+
+    private static class Or implements Node
+    {
+        private Node left;
+        private Node right;
+
+        private Or(Node left, Node right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Boolean evaluate(CollectionType type, Long duration)
+        {
+            Boolean l = left.evaluate(type, duration);
+
+            if (Boolean.TRUE.equals(l))
+            {
+                return true;
+            }
+
+            Boolean r = right.evaluate(type, duration);
+
+            if (Boolean.TRUE.equals(r))
+            {
+                return true;
+            }
+
+            return l == null || r == null ? null : Boolean.FALSE;
+        }
+
+        @Override
+        public boolean accepts(GCEvent e) throws Exception
+        {
+            return left.accepts(e) || right.accepts(e);
+        }
+    }
+
+    private static class And implements Node
+    {
+        private Node left;
+        private Node right;
+
+        private And(Node left, Node right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Boolean evaluate(CollectionType type, Long duration)
+        {
+            Boolean l = left.evaluate(type, duration);
+
+            if (Boolean.FALSE.equals(l))
+            {
+                return false;
+            }
+
+            Boolean r = right.evaluate(type, duration);
+
+            if (Boolean.FALSE.equals(r))
+            {
+                return false;
+            }
+
+            return l == null || r == null ? null : Boolean.TRUE;
+        }
+
+        @Override
+        public boolean accepts(GCEvent e) throws Exception
+        {
+            return left.accepts(e) && right.accepts(e);
+        }
+    }
+
+    private static class Not implements Node
+    {
+        private Node operand;
+
+        private Not(Node operand)
+        {
+            this.operand = operand;
+        }
+
+        @Override
+        public Boolean evaluate(CollectionType type, Long duration)
+        {
+            return not(operand.evaluate(type, duration));
+        }
+
+        @Override
+        public boolean accepts(GCEvent e) throws Exception
+        {
+            return !operand.accepts(e);
+        }
+    }
+
+    private static class CollectionTypeCondition implements Node
+    {
+        private CollectionType collectionType;
+        private boolean equal;
+
+        private CollectionTypeCondition(CollectionType collectionType, boolean equal)
+        {
+            this.collectionType = collectionType;
+            this.equal = equal;
+        }
+
+        @Override
+        public Boolean evaluate(CollectionType type, Long duration)
+        {
+            return (collectionType == type) == equal;
+        }
+
+        @Override
+        public boolean accepts(GCEvent e)
+        {
+            return (collectionType == e.getCollectionType()) == equal;
+        }
+    }
+
+    private static class TextCondition implements Node
+    {
+        private FieldType field;
+        private String value;
+        private boolean equal;
+
+        private TextCondition(FieldType field, String value, boolean equal)
+        {
+            this.field = field;
+            this.value = value;
+            this.equal = equal;
+        }
+
+        @Override
+        public Boolean evaluate(CollectionType type, Long duration)
+        {
+            // depends on a field that is not known yet
+            return null;
+        }
+
+        @Override
+        public boolean accepts(GCEvent e)
+        {
+            Value v = e.get(field);
+            return (v != null && value.equals(v.getValue())) == equal;
+        }
+    }
+
+    private static class Comparison implements Node
+    {
+        private Expression left;
+        private String operator;
+        private Expression right;
+
+        // true if the comparison can be decided knowing only the duration
+        private boolean durationOnly;
+
+        private Comparison(Expression left, String operator, Expression right)
+        {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+            this.durationOnly =
+                (FieldType.DURATION.equals(left) || left instanceof Constant) &&
+                    (FieldType.DURATION.equals(right) || right instanceof Constant);
+        }
+
+        @Override
+        public Boolean evaluate(CollectionType type, Long duration)
+        {
+            if (!durationOnly || duration == null)
+            {
+                return null;
+            }
+
+            return compare(toDouble(left, duration), toDouble(right, duration));
+        }
+
+        @Override
+        public boolean accepts(GCEvent e) throws Exception
+        {
+            Double l = toDouble(left, e);
+            Double r = toDouble(right, e);
+
+            return l != null && r != null && compare(l, r);
+        }
+
+        private boolean compare(double l, double r)
+        {
+            if ("==".equals(operator))
+            {
+                return l == r;
+            }
+            else if ("!=".equals(operator))
+            {
+                return l != r;
+            }
+            else if (">".equals(operator))
+            {
+                return l > r;
+            }
+            else if (">=".equals(operator))
+            {
+                return l >= r;
+            }
+            else if ("<".equals(operator))
+            {
+                return l < r;
+            }
+            else
+            {
+                return l <= r;
+            }
+        }
+
+        private static Double toDouble(Expression x, long duration)
+        {
+            if (x instanceof Constant)
+            {
+                return ((Number)((Constant)x).getValue()).doubleValue();
+            }
+
+            return (double)duration;
+        }
+
+        private static Double toDouble(Expression x, GCEvent e) throws Exception
+        {
+            if (FieldType.DURATION.equals(x))
+            {
+                // the duration is a primitive, no need to go through the field lookup
+                return (double)e.getDuration();
+            }
+
+            Value v = x.evaluate(e);
+
+            if (v == null)
+            {
+                return null;
+            }
+
+            Object o = v.getValue();
+
+            if (o instanceof Number)
+            {
+                return ((Number)o).doubleValue();
+            }
+
+            try
+            {
+                return Double.parseDouble(o.toString());
+            }
+            catch(NumberFormatException ex)
+            {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Recursive descent compiler.
+     *
+     * or         := and ( "||" and )*
+     * and        := unary ( "&&" unary )*
+     * unary      := "!" unary | "(" or ")" | comparison
+     * comparison := operand operator operand
+     */
+    private static class Compiler
+    {
+        private String source;
+        private List<String> tokens;
+        private int next;
+
+        private Compiler(String source) throws UserErrorException
+        {
+            this.source = source;
+            this.tokens = tokenize(source);
+            this.next = 0;
+        }
+
+        private String peek()
+        {
+            return next < tokens.size() ? tokens.get(next) : null;
+        }
+
+        private String consume() throws UserErrorException
+        {
+            if (next >= tokens.size())
+            {
+                throw new UserErrorException("incomplete filter expression \"" + source + "\"");
+            }
+
+            return tokens.get(next ++);
+        }
+
+        private Node or() throws UserErrorException
+        {
+            Node n = and();
+
+            while("||".equals(peek()))
+            {
+                next ++;
+                n = new Or(n, and());
+            }
+
+            return n;
+        }
+
+        private Node and() throws UserErrorException
+        {
+            Node n = unary();
+
+            while("&&".equals(peek()))
+            {
+                next ++;
+                n = new And(n, unary());
+            }
+
+            return n;
+        }
+
+        private Node unary() throws UserErrorException
+        {
+            String t = consume();
+
+            if ("!".equals(t))
+            {
+                return new Not(unary());
+            }
+
+            if ("(".equals(t))
+            {
+                Node n = or();
+
+                if (!")".equals(consume()))
+                {
+                    throw new UserErrorException("missing \")\" in filter expression \"" + source + "\"");
+                }
+
+                return n;
+            }
+
+            if (isDelimiter(t))
+            {
+                throw new UserErrorException("unexpected \"" + t + "\" in filter expression \"" + source + "\"");
+            }
+
+            String operator = consume();
+
+            if (!isComparisonOperator(operator))
+            {
+                throw new UserErrorException(
+                    "expecting a comparison operator after \"" + t + "\" and got \"" + operator + "\" in filter expression \"" +
+                        source + "\"");
+            }
+
+            if ("=".equals(operator))
+            {
+                operator = "==";
+            }
+
+            String u = consume();
+
+            if (isDelimiter(u))
+            {
+                throw new UserErrorException("unexpected \"" + u + "\" in filter expression \"" + source + "\"");
+            }
+
+            boolean leftIsType = FieldType.COLLECTION_TYPE.commandLineLabel.equals(t);
+            boolean rightIsType = FieldType.COLLECTION_TYPE.commandLineLabel.equals(u);
+
+            if (leftIsType || rightIsType)
+            {
+                return collectionTypeCondition(leftIsType ? u : t, operator);
+            }
+
+            FieldType textField = toTextField(t);
+            FieldType rightTextField = toTextField(u);
+
+            if (textField != null || rightTextField != null)
+            {
+                return textCondition(textField != null ? textField : rightTextField, textField != null ? u : t, operator);
+            }
+
+            return new Comparison(operand(t), operator, operand(u));
+        }
+
+        private Node collectionTypeCondition(String label, String operator) throws UserErrorException
+        {
+            CollectionType ct = CollectionType.fromCommandLineLabel(label);
+
+            if (ct == null)
+            {
+                throw new UserErrorException(
+                    "\"" + label + "\" is not a collection type, expecting one of " + CollectionType.getCommandLineLabels());
+            }
+
+            if (!"==".equals(operator) && !"!=".equals(operator))
+            {
+                throw new UserErrorException(FieldType.COLLECTION_TYPE.commandLineLabel + " can only be compared with == or !=");
+            }
+
+            return new CollectionTypeCondition(ct, "==".equals(operator));
+        }
+
+        private Node textCondition(FieldType field, String literal, String operator) throws UserErrorException
+        {
+            if (!"==".equals(operator) && !"!=".equals(operator))
+            {
+                throw new UserErrorException(field.commandLineLabel + " can only be compared with == or !=");
+            }
+
+            if (toTextField(literal) != null)
+            {
+                throw new UserErrorException(field.commandLineLabel + " can only be compared with a string");
+            }
+
+            String value = isQuoted(literal) ? literal.substring(1, literal.length() - 1) : literal;
+
+            if (FieldType.CAUSE.equals(field))
+            {
+                value = GCCause.intern(value);
+            }
+
+            return new TextCondition(field, value, "==".equals(operator));
+        }
+
+        private Expression operand(String s) throws UserErrorException
+        {
+            if (isQuoted(s))
+            {
+                throw new UserErrorException(
+                    "string " + s + " can only be compared with " + TEXT_FIELDS[0].commandLineLabel + " or " +
+                        TEXT_FIELDS[1].commandLineLabel + " in filter expression \"" + source + "\"");
+            }
+
+            Matcher m = LITERAL.matcher(s);
+
+            if (m.matches())
+            {
+                return literal(m);
+            }
+
+            Expression e = Expressions.parse(s);
+
+            if (e == null)
+            {
+                throw new UserErrorException("invalid operand \"" + s + "\" in filter expression \"" + source + "\"");
+            }
+
+            if (FieldType.COLLECTION_TYPE.equals(e))
+            {
+                throw new UserErrorException(FieldType.COLLECTION_TYPE.commandLineLabel + " can only be compared with a collection type");
+            }
+
+            return e;
+        }
+
+        /**
+         * Numeric literals, optionally followed by a memory or time unit. Memory values are converted to bytes and time
+         * values to milliseconds, which is how the events maintain them internally.
+         */
+        private static Expression literal(Matcher m) throws UserErrorException
+        {
+            String number = m.group(1);
+            String unit = m.group(3);
+            boolean integral = m.group(2) == null;
+
+            if (unit == null)
+            {
+                return integral ? new Constant(Long.parseLong(number)) : new Constant(Double.parseDouble(number));
+            }
+
+            Unit u = Unit.extendedValueOf(unit);
+
+            if (integral)
+            {
+                return new Constant(Long.parseLong(number) * u.multiplier);
+            }
+
+            double d = Double.parseDouble(number) * u.multiplier;
+
+            if (d == Math.rint(d))
+            {
+                return new Constant((long)d);
+            }
+
+            return new Constant(d);
+        }
+
+        /**
+         * @return the text field the token designates, or null if the token is not a text field.
+         */
+        private static FieldType toTextField(String s)
+        {
+            for(FieldType f: TEXT_FIELDS)
+            {
+                if (f.commandLineLabel.equals(s))
+                {
+                    return f;
+                }
+            }
+
+            return null;
+        }
+
+        private static boolean isQuoted(String s)
+        {
+            return s.length() >= 2 && (s.charAt(0) == '\'' || s.charAt(0) == '"') && s.charAt(s.length() - 1) == s.charAt(0);
+        }
+
+        private static boolean isComparisonOperator(String s)
+        {
+            for(String o: COMPARISON_OPERATORS)
+            {
+                if (o.equals(s))
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static boolean isDelimiter(String s)
+        {
+            return "(".equals(s) || ")".equals(s) || "!".equals(s) || "&&".equals(s) || "||".equals(s) ||
+                isComparisonOperator(s);
+        }
+
+        private static List<String> tokenize(String s) throws UserErrorException
+        {
+            List<String> result = new ArrayList<String>();
+            int i = 0;
+            int length = s.length();
+
+            while(i < length)
+            {
+                char c = s.charAt(i);
+
+                if (Character.isWhitespace(c))
+                {
+                    i ++;
+                    continue;
+                }
+
+                if (c == '\'' || c == '"')
+                {
+                    // quoted string, the quotes are kept so the token can be told apart from a field name
+                    int end = s.indexOf(c, i + 1);
+
+                    if (end == -1)
+                    {
+                        throw new UserErrorException("unterminated string in filter expression \"" + s + "\"");
+                    }
+
+                    result.add(s.substring(i, end + 1));
+                    i = end + 1;
+                    continue;
+                }
+
+                if (c == '(' || c == ')')
+                {
+                    result.add(String.valueOf(c));
+                    i ++;
+                    continue;
+                }
+
+                if (c == '&' || c == '|')
+                {
+                    if (i + 1 >= length || s.charAt(i + 1) != c)
+                    {
+                        throw new UserErrorException("use \"" + c + c + "\" instead of \"" + c + "\" in filter expression \"" + s + "\"");
+                    }
+
+                    result.add(s.substring(i, i + 2));
+                    i += 2;
+                    continue;
+                }
+
+                if (c == '!' || c == '=' || c == '<' || c == '>')
+                {
+                    if (i + 1 < length && s.charAt(i + 1) == '=')
+                    {
+                        result.add(s.substring(i, i + 2));
+                        i += 2;
+                    }
+                    else
+                    {
+                        result.add(String.valueOf(c));
+                        i ++;
+                    }
+
+                    continue;
+                }
+
+                int start = i;
+
+                while(i < length && !Character.isWhitespace(c = s.charAt(i)) && "()&|!=<>'\"".indexOf(c) == -1)
+                {
+                    i ++;
+                }
+
+                result.add(s.substring(start, i));
+            }
+
+            return result;
+        }
+    }
+}
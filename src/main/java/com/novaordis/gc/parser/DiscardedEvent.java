@@ -0,0 +1,82 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Value;
+import com.novaordis.gc.model.event.GCEvent;
+
+/**
+ * Returned by a GCEventParser that recognized the line it was given, but determined that the corresponding event is
+ * rejected by the filter, so it stopped parsing it. The line is claimed, so it is not offered to the rest of the
+ * pipeline, but nothing is recorded. Always compared by identity with INSTANCE.
+ *
+ * @see GCEventParserBase#setFilter(com.novaordis.gc.model.expression.Predicate)
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public final class DiscardedEvent implements GCEvent
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final DiscardedEvent INSTANCE = new DiscardedEvent();
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    private DiscardedEvent()
+    {
+    }
+
+    // GCEvent implementation --------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public Long getTime()
+    {
+        return null;
+    }
+
+    @Override
+    public long getDuration()
+    {
+        return 0L;
+    }
+
+    @Override
+    public Long getOffset()
+    {
+        return null;
+    }
+
+    @Override
+    public CollectionType getCollectionType()
+    {
+        return null;
+    }
+
+    @Override
+    public Value get(FieldType t)
+    {
+        return null;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "DISCARDED";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
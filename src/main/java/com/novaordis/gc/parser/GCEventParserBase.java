@@ -1,5 +1,8 @@
 package com.novaordis.gc.parser;
 
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.expression.Predicate;
+
 /**
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
  *
@@ -15,6 +18,11 @@ public abstract class GCEventParserBase implements GCEventParser
 
     private GCEventParser next;
 
+    private Predicate filter;
+
+    // true if the filter rejects all the collection types this parser produces
+    private boolean excluded;
+
     // GCEventParser implementation --------------------------------------------------------------------------------------------------------
 
     @Override
@@ -33,14 +41,79 @@ public abstract class GCEventParserBase implements GCEventParser
 
     // Public ------------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Installs a filter the parser may use to stop parsing early: lines belonging to events the filter rejects are
+     * recognized and claimed, but the parser returns DiscardedEvent.INSTANCE instead of building the event. The check
+     * is only an optimization, the caller still has to apply the filter on the events that are returned.
+     *
+     * @param filter null means no filtering.
+     */
+    public void setFilter(Predicate filter)
+    {
+        this.filter = filter;
+
+        excluded = false;
+
+        CollectionType[] types = getCollectionTypes();
+
+        if (filter == null || types == null)
+        {
+            return;
+        }
+
+        for(CollectionType t: types)
+        {
+            if (filter.admits(t))
+            {
+                return;
+            }
+        }
+
+        excluded = true;
+    }
+
+    /**
+     * May return null.
+     */
+    public Predicate getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * @return the collection types of the events this parser produces, or null if unknown. Only parsers that declare
+     *         their types can be excluded by a filter as a whole.
+     */
+    public CollectionType[] getCollectionTypes()
+    {
+        return null;
+    }
+
     // Package protected -------------------------------------------------------------------------------------------------------------------
 
     // Protected ---------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return true if the filter rejects all events this parser can produce, so the parser should only recognize its
+     *         lines, and do nothing else.
+     */
+    protected boolean isExcluded()
+    {
+        return excluded;
+    }
+
+    /**
+     * @param duration milliseconds, or null if not known yet.
+     *
+     * @return true if the filter is known to reject an event with the given collection type and duration, regardless
+     *         of its other fields.
+     */
+    protected boolean isFilteredOut(CollectionType type, Long duration)
+    {
+        return filter != null && Boolean.FALSE.equals(filter.evaluate(type, duration));
+    }
+
     // Private -----------------------------------------------------------------------------------------------------------------------------
 
     // Inner classes -----------------------------------------------------------------------------------------------------------------------
 }
-
-
-
@@ -0,0 +1,62 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.parser.linear.ContinuationRule;
+
+import java.util.List;
+
+/**
+ * Service provider interface for the parsers of log lines the built-in parsers do not know about, such as the extra
+ * lines a patched JVM writes. The providers are discovered with java.util.ServiceLoader: a jar on the classpath lists
+ * its implementations in META-INF/services/com.novaordis.gc.parser.GCEventParserProvider. They apply to the logs parsed
+ * by the LinearScanParser, not to the unified logging logs.
+ *
+ * The factory probes each provider with the first lines of the log, and only installs the parsers of the providers
+ * that recognize them. The installed parsers are placed in front of the built-in parsers, so they can also claim lines
+ * the built-in parsers would otherwise parse, and they are only handed the fragments that start with one of the
+ * declared prefixes: the fragments they do not claim cost a lookup in a table indexed by their first character.
+ *
+ * @see GCLogParserFactory
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public interface GCEventParserProvider
+{
+    /**
+     * @return the prefixes of the fragments the parser handles, as they follow the timestamp ("[GC", "[Compiler Stats"),
+     *         or start the line if there is no timestamp. The parser is not invoked for other fragments. Must not be
+     *         null or empty.
+     */
+    String[] getPrefixes();
+
+    /**
+     * A cheap probe, invoked before the parsing starts.
+     *
+     * @param firstLines the first lines of the log, among which the banner ("Java HotSpot(TM) ...",
+     *        "CommandLine flags: ...") if the JVM wrote one. May be empty.
+     *
+     * @return true if the log is in the provider's format, so its parser must be installed.
+     */
+    boolean detect(List<String> firstLines);
+
+    /**
+     * The thread safety contract: the segments of a log written by successive JVM runs are parsed in parallel, each
+     * with its own pipeline.
+     *
+     * @return true if a single parser instance may be used by several pipelines at the same time, in which case
+     *         newParser() is invoked once per log. Otherwise newParser() is invoked once per pipeline.
+     */
+    boolean isThreadSafe();
+
+    /**
+     * @return a new parser. The pipeline wraps the parser, so its getNext()/setNext() are not used.
+     */
+    GCEventParser newParser();
+
+    /**
+     * @return the rules that join the lines of the multi-line events of the format to their first line, or null if
+     *         there are none.
+     */
+    ContinuationRule[] getContinuationRules();
+}
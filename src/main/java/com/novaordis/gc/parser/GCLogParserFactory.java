@@ -1,12 +1,30 @@
 package com.novaordis.gc.parser;
 
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.j9.J9LogParser;
+import com.novaordis.gc.parser.linear.ContinuationRule;
 import com.novaordis.gc.parser.linear.LinearScanParser;
+import com.novaordis.gc.parser.linear.MultiRunParser;
+import com.novaordis.gc.parser.linear.PrefixContinuationRule;
+import com.novaordis.gc.parser.linear.TransitionContinuationRule;
+import com.novaordis.gc.parser.unified.Decorations;
+import com.novaordis.gc.parser.unified.UnifiedLogParser;
 import org.apache.log4j.Logger;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.Reader;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 /**
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
@@ -19,23 +37,263 @@ public class GCLogParserFactory
 
     private static final Logger log = Logger.getLogger(GCLogParserFactory.class);
 
+    // the number of leading lines looked at to recognize the log format, and the number of characters they may span
+    private static final int SNIFFED_LINES = 8;
+    private static final int SNIFFED_CHARACTERS = 64 * 1024;
+
     // Static ----------------------------------------------------------------------------------------------------------
 
+    // the providers found on the classpath, discovered once
+    private static List<GCEventParserProvider> providers;
+
     public static GCLogParser getParser(File f) throws Exception
     {
-        FileReader r = new FileReader(f);
-        return getParser(r);
+        return getParser(f, null);
     }
 
-    public static GCLogParser getParser(Reader r) throws Exception
+    /**
+     * @param timeRange null means the whole file is parsed.
+     */
+    public static GCLogParser getParser(File f, TimeRange timeRange) throws Exception
     {
-        LinearScanParser p = new LinearScanParser(r);
-        p.installDefaultPipeline();
-        p.addSecondLinePattern(Pattern.compile("\\s*\\(concurrent mode failure\\).*"));
+        return getParser(f, timeRange, null);
+    }
+
+    /**
+     * The logs written with unified logging (-Xlog:gc*, JDK 9 and newer) are recognized by their first lines, and are
+     * parsed by a UnifiedLogParser, the J9 verbose GC logs (XML) by a J9LogParser, all the others by a
+     * LinearScanParser.
+     *
+     * @param timeRange null means the whole file is parsed.
+     * @param filter null means all events are returned.
+     */
+    public static GCLogParser getParser(File f, TimeRange timeRange, Predicate filter) throws Exception
+    {
+        return getParser(f, timeRange, filter, true);
+    }
+
+    /**
+     * A file that was appended to across JVM restarts is split into the segments written by each run, and it is parsed
+     * by a MultiRunParser, unless it is a unified log.
+     *
+     * The parsers of the GCEventParserProviders that recognize the first lines of the log are installed in front of
+     * the built-in parsers.
+     *
+     * @param timeRange null means the whole file is parsed.
+     * @param filter null means all events are returned.
+     * @param decodeHeapAtGC false to skip the -XX:+PrintHeapAtGC snapshots without decoding them.
+     *
+     * @see LogSegmenter
+     */
+    public static GCLogParser getParser(File f, TimeRange timeRange, Predicate filter, boolean decodeHeapAtGC)
+        throws Exception
+    {
+        if (!f.isFile() || !f.canRead())
+        {
+            throw new FileNotFoundException(f + " does not exist or cannot be read");
+        }
+
+        List<String> firstLines;
+        BufferedReader br = new BufferedReader(new FileReader(f));
+
+        try
+        {
+            firstLines = sniff(br);
+        }
+        finally
+        {
+            br.close();
+        }
+
+        if (isUnifiedLog(firstLines))
+        {
+            UnifiedLogParser p = new UnifiedLogParser(f, timeRange);
+            p.setFilter(filter);
+            log.debug("created " + p);
+            return p;
+        }
+
+        if (J9LogParser.isJ9Log(firstLines))
+        {
+            J9LogParser p = new J9LogParser(f, timeRange);
+            p.setFilter(filter);
+            log.debug("created " + p);
+            return p;
+        }
+
+        List<GCEventParserProvider> detected = detectProviders(firstLines);
+        Map<GCEventParserProvider, GCEventParser> shared = newSharedParsers(detected);
+
+        List<LogSegment> segments = LogSegmenter.split(f);
+
+        if (segments.size() == 1)
+        {
+            LinearScanParser p = new LinearScanParser(f, timeRange);
+            p.setFilter(filter);
+            p.setDecodeHeapAtGC(decodeHeapAtGC);
+            configure(p, detected, shared);
+            return p;
+        }
+
+        log.info(f + " was written by " + segments.size() + " JVM runs, parsing them separately");
+
+        List<LinearScanParser> parsers = new ArrayList<LinearScanParser>();
+
+        for(LogSegment s: segments)
+        {
+            LinearScanParser p = new LinearScanParser(f, s, timeRange);
+            p.setFilter(filter);
+            p.setDecodeHeapAtGC(decodeHeapAtGC);
+            configure(p, detected, shared);
+            parsers.add(p);
+        }
+
+        MultiRunParser p = new MultiRunParser(parsers);
+        p.setFilter(filter);
         log.debug("created " + p);
         return p;
     }
 
+    /**
+     * @see GCLogParserFactory#getParser(java.io.File, TimeRange, com.novaordis.gc.model.expression.Predicate)
+     */
+    public static GCLogParser getParser(Reader r) throws Exception
+    {
+        BufferedReader br = new BufferedReader(r);
+        br.mark(SNIFFED_CHARACTERS);
+        List<String> firstLines = sniff(br);
+        br.reset();
+
+        if (isUnifiedLog(firstLines))
+        {
+            return new UnifiedLogParser(br);
+        }
+
+        if (J9LogParser.isJ9Log(firstLines))
+        {
+            return new J9LogParser(br);
+        }
+
+        List<GCEventParserProvider> detected = detectProviders(firstLines);
+
+        LinearScanParser p = new LinearScanParser(br);
+        configure(p, detected, newSharedParsers(detected));
+        return p;
+    }
+
+    /**
+     * @return true if the first non-empty line among the first lines of the log is decorated the way unified logging
+     *         decorates its lines ("[0.005s][info][gc] Using G1"). Consumes the lines it looks at.
+     */
+    static boolean isUnifiedLog(BufferedReader br) throws IOException
+    {
+        return isUnifiedLog(sniff(br));
+    }
+
+    /**
+     * @return the GCEventParserProviders found on the classpath, in discovery order. They are discovered once, the
+     *         providers that cannot be loaded are logged and ignored.
+     */
+    public static synchronized List<GCEventParserProvider> getProviders()
+    {
+        if (providers != null)
+        {
+            return providers;
+        }
+
+        List<GCEventParserProvider> found = new ArrayList<GCEventParserProvider>();
+        Iterator<GCEventParserProvider> i = ServiceLoader.load(GCEventParserProvider.class).iterator();
+
+        while(true)
+        {
+            try
+            {
+                if (!i.hasNext())
+                {
+                    break;
+                }
+
+                GCEventParserProvider p = i.next();
+                log.debug("found parser provider " + p);
+                found.add(p);
+            }
+            catch(ServiceConfigurationError e)
+            {
+                log.warn("failed to load a parser provider: " + e.getMessage());
+            }
+        }
+
+        providers = Collections.unmodifiableList(found);
+        return providers;
+    }
+
+    /**
+     * Reads the first lines of the log, at most SNIFFED_LINES lines, and stops earlier if they span more than
+     * SNIFFED_CHARACTERS / 2 characters.
+     */
+    static List<String> sniff(BufferedReader br) throws IOException
+    {
+        List<String> lines = new ArrayList<String>();
+        int read = 0;
+
+        for(int i = 0; i < SNIFFED_LINES && read < SNIFFED_CHARACTERS / 2; i ++)
+        {
+            String line = br.readLine();
+
+            if (line == null)
+            {
+                break;
+            }
+
+            read += line.length() + 1;
+            lines.add(line);
+        }
+
+        return lines;
+    }
+
+    /**
+     * @return true if the first non-empty line is decorated the way unified logging decorates its lines.
+     */
+    static boolean isUnifiedLog(List<String> firstLines)
+    {
+        for(String line: firstLines)
+        {
+            if (line.trim().length() > 0)
+            {
+                return Decorations.isDecorated(line);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the providers whose probe recognizes the first lines of the log.
+     */
+    static List<GCEventParserProvider> detectProviders(List<String> firstLines)
+    {
+        List<GCEventParserProvider> detected = new ArrayList<GCEventParserProvider>();
+
+        for(GCEventParserProvider p: getProviders())
+        {
+            try
+            {
+                if (p.detect(firstLines))
+                {
+                    log.debug(p + " recognizes the log");
+                    detected.add(p);
+                }
+            }
+            catch(RuntimeException e)
+            {
+                log.warn(p + " failed to probe the log, not installed: " + e);
+            }
+        }
+
+        return detected;
+    }
+
     // Attributes ------------------------------------------------------------------------------------------------------
 
     // Constructors ----------------------------------------------------------------------------------------------------
@@ -52,6 +310,58 @@ public class GCLogParserFactory
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return one parser for each thread safe provider, to be shared by all pipelines.
+     */
+    private static Map<GCEventParserProvider, GCEventParser> newSharedParsers(List<GCEventParserProvider> detected)
+    {
+        Map<GCEventParserProvider, GCEventParser> shared = new IdentityHashMap<GCEventParserProvider, GCEventParser>();
+
+        for(GCEventParserProvider p: detected)
+        {
+            if (p.isThreadSafe())
+            {
+                shared.put(p, p.newParser());
+            }
+        }
+
+        return shared;
+    }
+
+    /**
+     * @param detected the providers whose parsers are installed.
+     * @param shared the parsers of the thread safe providers.
+     */
+    private static void configure(LinearScanParser p, List<GCEventParserProvider> detected,
+                                  Map<GCEventParserProvider, GCEventParser> shared)
+    {
+        p.installDefaultPipeline();
+
+        for(GCEventParserProvider provider: detected)
+        {
+            GCEventParser parser = shared.get(provider);
+            p.addProvidedParser(parser != null ? parser : provider.newParser(), provider.getPrefixes());
+
+            ContinuationRule[] rules = provider.getContinuationRules();
+
+            if (rules != null)
+            {
+                for(ContinuationRule r: rules)
+                {
+                    p.addContinuationRule(r);
+                }
+            }
+        }
+
+        p.addContinuationRule(new PrefixContinuationRule("(concurrent mode failure)"));
+
+        // the remainder of a new generation collection interrupted by its tenuring distribution:
+        // ": 58943K->6528K(58944K), 0.0234560 secs] ..." (ParNew, DefNew) and " [PSYoungGen: ..." (parallel scavenge)
+        p.addContinuationRule(new TransitionContinuationRule());
+        p.addContinuationRule(new PrefixContinuationRule("[PSYoungGen: "));
+        log.debug("created " + p);
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 }
 
@@ -0,0 +1,297 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.model.Timestamp;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Locates the beginning of a time range in a GC log file without reading the whole file. The timestamps within one JVM
+ * run increase monotonically, so we binary search by byte position: seek, re-synchronize on the next line start, read
+ * the first timestamp that follows and narrow the interval.
+ *
+ * The file content can be accessed either through a FileChannel (positional reads, with a small read window) or
+ * through a ByteBuffer, typically a MappedByteBuffer obtained from FileChannel.map().
+ *
+ * Line re-synchronization relies on '\n' being encoded as a single byte that does not occur in multi-byte sequences,
+ * which is true for all the ASCII-compatible encodings GC logs are written in.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSeeker
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LogSeeker.class);
+
+    // once the interval narrows below this size, we stop seeking and let the linear scan take over
+    public static final int DEFAULT_LINEAR_SCAN_THRESHOLD = 64 * 1024;
+
+    // a probe gives up looking for a timestamped line after this many bytes
+    public static final int MAX_PROBE_LENGTH = 64 * 1024;
+
+    private static final int WINDOW_SIZE = 8192;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long length;
+
+    // the channel position of the first byte seeked in
+    private long base;
+
+    // channel read window
+    private ByteBuffer window;
+    private long windowStart;
+
+    private int linearScanThreshold;
+
+    private StringBuilder lineBuffer;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Seeks using positional reads. The channel position is not modified.
+     */
+    public LogSeeker(FileChannel channel) throws IOException
+    {
+        this(channel, 0L, channel.size());
+    }
+
+    /**
+     * Seeks within a region of the file, using positional reads. The positions are relative to the region's start. The
+     * channel position is not modified.
+     *
+     * @param start the position of the region's first byte, a line start.
+     * @param end the position that follows the region's last byte.
+     */
+    public LogSeeker(FileChannel channel, long start, long end)
+    {
+        this.channel = channel;
+        this.base = start;
+        this.length = end - start;
+        this.window = ByteBuffer.allocate(WINDOW_SIZE);
+        this.window.limit(0);
+        this.windowStart = 0;
+        this.linearScanThreshold = DEFAULT_LINEAR_SCAN_THRESHOLD;
+        this.lineBuffer = new StringBuilder();
+    }
+
+    /**
+     * Seeks within a (memory mapped) buffer. The buffer position is not modified, all reads are absolute.
+     */
+    public LogSeeker(ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+        this.length = buffer.limit();
+        this.linearScanThreshold = DEFAULT_LINEAR_SCAN_THRESHOLD;
+        this.lineBuffer = new StringBuilder();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param timeOrigin may be null, if unknown.
+     *
+     * @return a line start position so that all timestamped lines preceding it are known to be before the range. The
+     *         linear scan starting from here may still encounter a few lines before the range. Returns 0 if the range
+     *         has no lower bound, or if the timestamps found in the file cannot be compared with it.
+     */
+    public long seek(TimeRange range, Long timeOrigin) throws IOException
+    {
+        if (range == null || !range.hasLowerBound())
+        {
+            return 0L;
+        }
+
+        // invariant: lo is a line start and everything before lo precedes the range; the first timestamped line
+        // starting at or after hi is not before the range (or there is none)
+
+        long lo = 0L;
+        long hi = length;
+        int probes = 0;
+
+        while(hi - lo > linearScanThreshold)
+        {
+            long mid = lo + (hi - lo) / 2;
+
+            long lineStart = nextLineStart(mid);
+            Probe p = probe(lineStart, hi);
+            probes ++;
+
+            if (p == null)
+            {
+                // no timestamped line between mid and hi
+                hi = mid;
+                continue;
+            }
+
+            int position = range.position(p.timestamp, timeOrigin);
+
+            if (position == TimeRange.BEFORE)
+            {
+                lo = p.lineStart;
+            }
+            else if (position == TimeRange.AFTER || isComparable(range, p.timestamp, timeOrigin))
+            {
+                hi = mid;
+            }
+            else
+            {
+                // we cannot compare the timestamps in this file with the range, seeking is not possible
+                log.debug("timestamp " + p.timestamp + " cannot be compared with " + range + ", not seeking");
+                return 0L;
+            }
+        }
+
+        log.debug("seeked to " + lo + " after " + probes + " probe(s)");
+
+        return lo;
+    }
+
+    public long getLength()
+    {
+        return length;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * Exposed for testing.
+     */
+    void setLinearScanThreshold(int threshold)
+    {
+        this.linearScanThreshold = threshold;
+    }
+
+    /**
+     * @return the start of the first line that begins at or after the given position. A position is a line start if
+     *         it is 0 or it immediately follows a '\n'. May return the length of the file.
+     */
+    long nextLineStart(long position) throws IOException
+    {
+        if (position <= 0)
+        {
+            return 0L;
+        }
+
+        long p = position;
+
+        while(p < length && byteAt(p - 1) != '\n')
+        {
+            p ++;
+        }
+
+        return p;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads lines starting with lineStart until it finds one that carries a timestamp. Does not look past limit.
+     *
+     * @return null if no timestamped line is found.
+     */
+    private Probe probe(long lineStart, long limit) throws IOException
+    {
+        long p = lineStart;
+        long end = Math.min(limit, lineStart + MAX_PROBE_LENGTH);
+
+        while(p < end)
+        {
+            lineBuffer.setLength(0);
+
+            long q = p;
+            int b;
+
+            while(q < length && (b = byteAt(q)) != '\n')
+            {
+                // timestamps are ASCII, anything else does not matter for detection
+                lineBuffer.append((char)(b & 0xff));
+                q ++;
+            }
+
+            Timestamp ts = null;
+
+            try
+            {
+                ts = Timestamp.find(lineBuffer.toString(), 0, null);
+            }
+            catch(ParserException e)
+            {
+                // not a usable timestamp, keep looking
+            }
+
+            if (ts != null && ts.getStartPosition() == 0)
+            {
+                return new Probe(p, ts);
+            }
+
+            p = q + 1;
+        }
+
+        return null;
+    }
+
+    private static boolean isComparable(TimeRange range, Timestamp ts, Long timeOrigin)
+    {
+        if (range.getFromOffset() != null)
+        {
+            return ts.getOffset() != null || (ts.getTime() != null && timeOrigin != null);
+        }
+
+        return ts.getTime() != null || (ts.getOffset() != null && timeOrigin != null);
+    }
+
+    /**
+     * @return the unsigned byte value at the given position.
+     */
+    private int byteAt(long position) throws IOException
+    {
+        if (buffer != null)
+        {
+            return buffer.get((int)position) & 0xff;
+        }
+
+        if (position < windowStart || position >= windowStart + window.limit())
+        {
+            window.clear();
+            windowStart = position;
+
+            while(window.hasRemaining())
+            {
+                if (channel.read(window, base + windowStart + window.position()) == -1)
+                {
+                    break;
+                }
+            }
+
+            window.flip();
+        }
+
+        return window.get((int)(position - windowStart)) & 0xff;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private static class Probe
+    {
+        private long lineStart;
+        private Timestamp timestamp;
+
+        private Probe(long lineStart, Timestamp timestamp)
+        {
+            this.lineStart = lineStart;
+            this.timestamp = timestamp;
+        }
+    }
+}
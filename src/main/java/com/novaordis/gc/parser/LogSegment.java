@@ -0,0 +1,135 @@
+package com.novaordis.gc.parser;
+
+/**
+ * A part of a GC log file written by a single JVM run. A log that is appended to across JVM restarts contains several
+ * runs, each with its own offsets, starting from zero, so each segment is parsed with its own time origin.
+ *
+ * @see LogSegmenter
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSegment
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // the reasons a segment is started
+
+    public static final String OFFSET_RESET = "offset reset";
+    public static final String JVM_BANNER = "JVM banner";
+    public static final String DATE_STAMP_DISCONTINUITY = "date stamp discontinuity";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private int index;
+    private String boundary;
+
+    private long start;
+    private long end;
+    private long firstLineNumber;
+
+    private Long timeOrigin;
+    private Long lastOffset;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param boundary the reason the segment was started, null for the first segment of the file.
+     * @param start the position of the segment's first byte, always a line start.
+     * @param firstLineNumber the number of the segment's first line in the file.
+     */
+    public LogSegment(int index, String boundary, long start, long firstLineNumber)
+    {
+        this.index = index;
+        this.boundary = boundary;
+        this.start = start;
+        this.end = -1L;
+        this.firstLineNumber = firstLineNumber;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the position of the segment in the file, starting with 0.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * @return the reason the segment was started (OFFSET_RESET, JVM_BANNER or DATE_STAMP_DISCONTINUITY), null for the
+     *         first segment of the file.
+     */
+    public String getBoundary()
+    {
+        return boundary;
+    }
+
+    public long getStart()
+    {
+        return start;
+    }
+
+    /**
+     * @return the position that follows the segment's last byte, or -1 if the segment was not closed yet.
+     */
+    public long getEnd()
+    {
+        return end;
+    }
+
+    public void setEnd(long end)
+    {
+        this.end = end;
+    }
+
+    public long getFirstLineNumber()
+    {
+        return firstLineNumber;
+    }
+
+    /**
+     * @return the time origin of the run, as inferred from the first line that carries both a date stamp and an
+     *         offset, or null if the segment has no such line.
+     */
+    public Long getTimeOrigin()
+    {
+        return timeOrigin;
+    }
+
+    public void setTimeOrigin(Long timeOrigin)
+    {
+        this.timeOrigin = timeOrigin;
+    }
+
+    /**
+     * @return the offset of the last timestamped line of the segment, or null if no line carries an offset.
+     */
+    public Long getLastOffset()
+    {
+        return lastOffset;
+    }
+
+    public void setLastOffset(Long lastOffset)
+    {
+        this.lastOffset = lastOffset;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LogSegment[" + index + ", " + start + "-" + end + (boundary == null ? "" : ", " + boundary) + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,372 @@
+package com.novaordis.gc.parser;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a GC log file into the segments written by successive JVM runs. When the JVM is restarted with the same
+ * -Xloggc file and the log is not overwritten, the new run appends to it, and its offsets start again from zero. A new
+ * segment starts on:
+ *
+ * 1. An offset reset: a line whose leading offset is smaller than the offset of the previous timestamped line
+ *    ("27036.837: ..." followed by "4.911: ...").
+ *
+ * 2. A JVM banner: the "Java HotSpot(TM) ..."/"OpenJDK ..." and "CommandLine flags: ..." lines a JVM writes at the top
+ *    of its log.
+ *
+ * 3. A date stamp discontinuity: the run start implied by a line that carries both a date stamp and an offset (the date
+ *    stamp minus the offset) moves by more than DATE_STAMP_TOLERANCE. This catches the restarts whose first offset is
+ *    larger than the last offset of the previous run.
+ *
+ * A boundary is only recognized after the current segment has at least one timestamped line, so the banner lines that
+ * start a run, and the first line that follows them, open a single segment.
+ *
+ * The file is scanned as bytes, without decoding it, and only the first characters of each line are looked at. The
+ * timestamps are decoded by hand, there is no regular expression matching and no per-line allocation, so the scan is
+ * much faster than the parsing it precedes.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSegmenter
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LogSegmenter.class);
+
+    // wall clock adjustments smaller than this are not taken for restarts
+    public static final long DATE_STAMP_TOLERANCE = 60 * 1000L;
+
+    public static final String[] BANNER_PREFIXES = new String[] { "Java HotSpot(TM) ", "OpenJDK ", "CommandLine flags: " };
+
+    // enough for "2014-08-14T01:12:28.621-0700: 27036.837: "
+    private static final int PREFIX_LENGTH = 64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // "2014-08-14T01:12:28.621-0700: "
+    private static final int DATE_STAMP_LENGTH = 30;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    public static List<LogSegment> split(File f) throws IOException
+    {
+        InputStream is = new FileInputStream(f);
+
+        try
+        {
+            return split(is);
+        }
+        finally
+        {
+            is.close();
+        }
+    }
+
+    /**
+     * Reads the stream to the end, but does not close it.
+     *
+     * @return the segments, in the order they occur in the stream. There is always at least one segment.
+     */
+    public static List<LogSegment> split(InputStream is) throws IOException
+    {
+        LogSegmenter s = new LogSegmenter();
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = 0L;
+        int n;
+
+        while((n = is.read(buffer)) != -1)
+        {
+            for(int i = 0; i < n; i ++)
+            {
+                s.add(buffer[i], position + i);
+            }
+
+            position += n;
+        }
+
+        s.close(position);
+
+        log.debug(s.segments.size() + " segment(s) found in " + position + " bytes");
+
+        return s.segments;
+    }
+
+    /**
+     * @return the offset of a "27036.837: " timestamp that starts at the given index, in milliseconds, or -1 if there
+     *         is no such timestamp.
+     */
+    static long parseOffset(char[] c, int from, int length)
+    {
+        long seconds = 0L;
+        int i = from;
+
+        while(i < length && isDigit(c[i]))
+        {
+            seconds = seconds * 10 + (c[i ++] - '0');
+        }
+
+        if (i == from || i + 5 >= length || c[i] != '.' ||
+            !isDigit(c[i + 1]) || !isDigit(c[i + 2]) || !isDigit(c[i + 3]) || c[i + 4] != ':' || c[i + 5] != ' ')
+        {
+            return -1L;
+        }
+
+        return seconds * 1000 + (c[i + 1] - '0') * 100 + (c[i + 2] - '0') * 10 + (c[i + 3] - '0');
+    }
+
+    /**
+     * @return the time of a "2014-08-14T01:12:28.621-0700: " date stamp that starts the line, in milliseconds since the
+     *         epoch, or -1 if the line does not start with a date stamp.
+     */
+    static long parseDateStamp(char[] c, int length)
+    {
+        if (length < DATE_STAMP_LENGTH ||
+            c[4] != '-' || c[7] != '-' || c[10] != 'T' || c[13] != ':' || c[16] != ':' || c[19] != '.' ||
+            (c[23] != '-' && c[23] != '+') || c[28] != ':' || c[29] != ' ')
+        {
+            return -1L;
+        }
+
+        int year = number(c, 0, 4);
+        int month = number(c, 5, 2);
+        int day = number(c, 8, 2);
+        int hour = number(c, 11, 2);
+        int minute = number(c, 14, 2);
+        int second = number(c, 17, 2);
+        int millis = number(c, 20, 3);
+        int zoneHours = number(c, 24, 2);
+        int zoneMinutes = number(c, 26, 2);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || minute < 0 || second < 0 ||
+            millis < 0 || zoneHours < 0 || zoneMinutes < 0)
+        {
+            return -1L;
+        }
+
+        long zone = (zoneHours * 60 + zoneMinutes) * 60 * 1000L;
+
+        if (c[23] == '-')
+        {
+            zone = -zone;
+        }
+
+        return ((daysFromEpoch(year, month, day) * 24 + hour) * 60 + minute) * 60 * 1000L + second * 1000L + millis - zone;
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return the value of the given number of decimal digits, or -1 if one of them is not a digit.
+     */
+    private static int number(char[] c, int from, int digits)
+    {
+        int n = 0;
+
+        for(int i = from; i < from + digits; i ++)
+        {
+            if (!isDigit(c[i]))
+            {
+                return -1;
+            }
+
+            n = n * 10 + (c[i] - '0');
+        }
+
+        return n;
+    }
+
+    /**
+     * @return the number of days between 1970-01-01 and the given date of the proleptic Gregorian calendar.
+     */
+    private static long daysFromEpoch(int year, int month, int day)
+    {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<LogSegment> segments;
+    private LogSegment current;
+
+    // true if the current segment has at least one timestamped line
+    private boolean timestamped;
+
+    // the offset of the last timestamped line, -1 if none
+    private long lastOffset;
+
+    // the first characters of the current line
+    private char[] prefix;
+    private int prefixLength;
+
+    private long lineStart;
+    private long lineNumber;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    private LogSegmenter()
+    {
+        this.segments = new ArrayList<LogSegment>();
+        this.current = new LogSegment(0, null, 0L, 1L);
+        this.segments.add(current);
+        this.lastOffset = -1L;
+        this.prefix = new char[PREFIX_LENGTH];
+        this.lineStart = 0L;
+        this.lineNumber = 1L;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "LogSegmenter[" + segments.size() + " segments, line " + lineNumber + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private void add(byte b, long position)
+    {
+        if (b == '\n')
+        {
+            endLine();
+            lineStart = position + 1;
+            lineNumber ++;
+            prefixLength = 0;
+        }
+        else if (prefixLength < PREFIX_LENGTH)
+        {
+            // timestamps and banners are ASCII, anything else does not matter for detection
+            prefix[prefixLength ++] = (char)(b & 0xff);
+        }
+    }
+
+    private void close(long length)
+    {
+        if (lineStart < length)
+        {
+            endLine();
+        }
+
+        current.setEnd(length);
+    }
+
+    private void endLine()
+    {
+        if (prefixLength == 0)
+        {
+            return;
+        }
+
+        if (isBanner())
+        {
+            if (timestamped)
+            {
+                startSegment(LogSegment.JVM_BANNER);
+            }
+
+            return;
+        }
+
+        if (!isDigit(prefix[0]))
+        {
+            return;
+        }
+
+        long time = parseDateStamp(prefix, prefixLength);
+        long offset = parseOffset(prefix, time == -1L ? 0 : DATE_STAMP_LENGTH, prefixLength);
+
+        if (time == -1L && offset == -1L)
+        {
+            return;
+        }
+
+        Long origin = time != -1L && offset != -1L ? time - offset : null;
+
+        if (timestamped)
+        {
+            if (offset != -1L && offset < lastOffset)
+            {
+                startSegment(LogSegment.OFFSET_RESET);
+            }
+            else if (origin != null && current.getTimeOrigin() != null &&
+                Math.abs(origin - current.getTimeOrigin()) > DATE_STAMP_TOLERANCE)
+            {
+                startSegment(LogSegment.DATE_STAMP_DISCONTINUITY);
+            }
+        }
+
+        if (origin != null && current.getTimeOrigin() == null)
+        {
+            current.setTimeOrigin(origin);
+        }
+
+        if (offset != -1L)
+        {
+            lastOffset = offset;
+            current.setLastOffset(offset);
+        }
+
+        timestamped = true;
+    }
+
+    private boolean isBanner()
+    {
+        for(String p: BANNER_PREFIXES)
+        {
+            if (prefixLength < p.length())
+            {
+                continue;
+            }
+
+            int i = 0;
+
+            while(i < p.length() && prefix[i] == p.charAt(i))
+            {
+                i ++;
+            }
+
+            if (i == p.length())
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void startSegment(String boundary)
+    {
+        current.setEnd(lineStart);
+        current = new LogSegment(segments.size(), boundary, lineStart, lineNumber);
+        segments.add(current);
+        timestamped = false;
+        lastOffset = -1L;
+
+        log.debug("JVM restart (" + boundary + ") on line " + lineNumber);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,175 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * A closed time interval the parsing can be restricted to. Each end can be specified either as an absolute time (UTC
+ * milliseconds) or as an offset relative to the JVM start (milliseconds), and each end is optional.
+ *
+ * The range is used to seek into the GC log file and to skip the events outside it without parsing them. Timestamps
+ * the range cannot be compared with (for example an absolute bound, an offset-only timestamp and no time origin) are
+ * considered within the range, so nothing is lost.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TimeRange
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int BEFORE = -1;
+    public static final int WITHIN = 0;
+    public static final int AFTER = 1;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Long fromTime;
+    private Long fromOffset;
+    private Long toTime;
+    private Long toOffset;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * An unbounded range. Use the setters to configure the ends.
+     */
+    public TimeRange()
+    {
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param time UTC milliseconds, null clears the bound.
+     */
+    public void setFromTime(Long time)
+    {
+        this.fromTime = time;
+        this.fromOffset = null;
+    }
+
+    /**
+     * @param offset milliseconds relative to the JVM start, null clears the bound.
+     */
+    public void setFromOffset(Long offset)
+    {
+        this.fromOffset = offset;
+        this.fromTime = null;
+    }
+
+    /**
+     * @param time UTC milliseconds, null clears the bound.
+     */
+    public void setToTime(Long time)
+    {
+        this.toTime = time;
+        this.toOffset = null;
+    }
+
+    /**
+     * @param offset milliseconds relative to the JVM start, null clears the bound.
+     */
+    public void setToOffset(Long offset)
+    {
+        this.toOffset = offset;
+        this.toTime = null;
+    }
+
+    public Long getFromTime()
+    {
+        return fromTime;
+    }
+
+    public Long getFromOffset()
+    {
+        return fromOffset;
+    }
+
+    public Long getToTime()
+    {
+        return toTime;
+    }
+
+    public Long getToOffset()
+    {
+        return toOffset;
+    }
+
+    public boolean hasLowerBound()
+    {
+        return fromTime != null || fromOffset != null;
+    }
+
+    public boolean hasUpperBound()
+    {
+        return toTime != null || toOffset != null;
+    }
+
+    /**
+     * @param timeOrigin the time origin, may be null if not known.
+     *
+     * @return BEFORE if the timestamp is known to precede the range, AFTER if the timestamp is known to follow the
+     *         range, WITHIN otherwise (including when the timestamp is null or cannot be compared with the bounds).
+     */
+    public int position(Timestamp ts, Long timeOrigin)
+    {
+        if (ts == null)
+        {
+            return WITHIN;
+        }
+
+        Long time = ts.getTime();
+        Long offset = ts.getOffset();
+
+        if (time == null && offset != null && timeOrigin != null)
+        {
+            time = timeOrigin + offset;
+        }
+
+        if (offset == null && time != null && timeOrigin != null)
+        {
+            offset = time - timeOrigin;
+        }
+
+        if (fromTime != null && time != null && time < fromTime)
+        {
+            return BEFORE;
+        }
+
+        if (fromOffset != null && offset != null && offset < fromOffset)
+        {
+            return BEFORE;
+        }
+
+        if (toTime != null && time != null && time > toTime)
+        {
+            return AFTER;
+        }
+
+        if (toOffset != null && offset != null && offset > toOffset)
+        {
+            return AFTER;
+        }
+
+        return WITHIN;
+    }
+
+    @Override
+    public String toString()
+    {
+        String from = fromTime != null ? Long.toString(fromTime) : fromOffset != null ? "+" + fromOffset : "";
+        String to = toTime != null ? Long.toString(toTime) : toOffset != null ? "+" + toOffset : "";
+        return "[" + from + ", " + to + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
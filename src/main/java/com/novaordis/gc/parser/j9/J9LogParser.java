@@ -0,0 +1,629 @@
+package com.novaordis.gc.parser.j9;
+
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
+import org.apache.log4j.Logger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Parses the verbose GC logs written by the IBM J9 and Eclipse OpenJ9 virtual machines (-verbose:gc,
+ * -Xverbosegclog), which are XML documents:
+ *
+ * <verbosegc xmlns="http://www.ibm.com/j9/verbosegc" version="...">
+ * <initialized id="1" timestamp="2020-03-05T11:47:10.505"> ... </initialized>
+ * <af-start id="3" threadId="0000000001A3B400" totalBytesRequested="24" timestamp="..." intervalms="..." type="nursery" />
+ * <cycle-start id="4" type="scavenge" contextid="0" timestamp="2020-03-05T11:47:12.117" intervalms="1611.999" />
+ * ...
+ * <cycle-end id="10" type="scavenge" contextid="4" timestamp="2020-03-05T11:47:12.128" />
+ * <af-end id="12" timestamp="..." threadId="0000000001A3B400" success="true" />
+ *
+ * The document is read with a StAX stream reader, never loaded in memory: only the elements of the current collection
+ * cycle are correlated, by a PendingJ9Cycle, so the memory used does not depend on the size of the log. The scavenges
+ * are mapped on J9Scavenges (new generation collections) and the global collections on J9GlobalCollections (full
+ * collections), with the nursery occupancy mapped on the new generation fields and the tenure occupancy on the old
+ * generation fields. Both carry the collection policy logged by the initialized element. The cycles of the
+ * balanced and metronome policies are not recorded.
+ *
+ * The timestamps are local times. The time origin, if not specified, is the timestamp of the initialized element, or
+ * the timestamp of the first collection if the log does not start with it.
+ *
+ * A log being written by a live JVM does not end with the end of the root element; the parsing stops at the first
+ * element that is not well formed, and the collections read until then are returned.
+ *
+ * Like the other parsers, the parser can be used only a single time, and it closes the reader when parsing completes.
+ *
+ * @see PendingJ9Cycle
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class J9LogParser implements GCLogParser
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(J9LogParser.class);
+
+    public static final String ROOT = "verbosegc";
+
+    private static final String INITIALIZED = "initialized";
+    private static final String ATTRIBUTE = "attribute";
+    private static final String AF_START = "af-start";
+    private static final String AF_END = "af-end";
+    private static final String SYS_START = "sys-start";
+    private static final String SYS_END = "sys-end";
+    private static final String CYCLE_START = "cycle-start";
+    private static final String CYCLE_END = "cycle-end";
+    private static final String GC_START = "gc-start";
+    private static final String GC_END = "gc-end";
+    private static final String GC_OP = "gc-op";
+    private static final String MEM_INFO = "mem-info";
+    private static final String MEM = "mem";
+
+    private static final String SCAVENGE = "scavenge";
+    private static final String GLOBAL = "global";
+    private static final String NURSERY = "nursery";
+    private static final String TENURE = "tenure";
+    private static final String EXPLICIT = "explicit";
+    private static final String GC_POLICY = "gcPolicy";
+    private static final String GC_POLICY_OPTION = "-Xgcpolicy:";
+
+    // the mem-info being read
+    private static final int NONE = 0;
+    private static final int BEFORE = 1;
+    private static final int AFTER = 2;
+
+    private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses a decimal value in milliseconds ("10.345") without creating intermediate objects.
+     *
+     * @return the value in microseconds, the digits beyond the third decimal are ignored; -1 if the value is null or
+     *         is not a decimal value.
+     */
+    static long parseMicros(String s)
+    {
+        if (s == null || s.length() == 0)
+        {
+            return -1L;
+        }
+
+        long value = 0L;
+        int fractionDigits = -1;
+
+        for(int i = 0; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                if (fractionDigits < 3)
+                {
+                    value = value * 10 + (c - '0');
+
+                    if (fractionDigits >= 0)
+                    {
+                        fractionDigits ++;
+                    }
+                }
+            }
+            else if (c == '.' && fractionDigits == -1)
+            {
+                fractionDigits = 0;
+            }
+            else
+            {
+                return -1L;
+            }
+        }
+
+        for(int d = Math.max(fractionDigits, 0); d < 3; d ++)
+        {
+            value *= 10;
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the value of the integer attribute ("free", "total"), or -1 if the value is null or not an integer.
+     */
+    static long parseLong(String s)
+    {
+        if (s == null || s.length() == 0)
+        {
+            return -1L;
+        }
+
+        long value = 0L;
+
+        for(int i = 0; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c < '0' || c > '9')
+            {
+                return -1L;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * @return true if the first non-empty line looks like the beginning of a J9 verbose GC log: the XML declaration or
+     *         the root element.
+     */
+    public static boolean isJ9Log(List<String> firstLines)
+    {
+        for(String line: firstLines)
+        {
+            String s = line.trim();
+
+            if (s.length() > 0)
+            {
+                // a byte order mark may precede the declaration
+                if (s.charAt(0) == '\uFEFF')
+                {
+                    s = s.substring(1);
+                }
+
+                return s.startsWith("<?xml") || s.startsWith("<" + ROOT);
+            }
+        }
+
+        return false;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private Reader reader;
+
+    // the parser may be created for a file, in which case the stream is opened when parsing starts
+    private File file;
+
+    // null means no range restriction
+    private TimeRange timeRange;
+
+    // null means all events are kept
+    private Predicate filter;
+
+    private SimpleDateFormat timestampFormat;
+    private ParsePosition position;
+
+    // the time of the initialized element, or of the first collection if it is not logged; null until one is read
+    private Long start;
+
+    private PendingJ9Cycle cycle;
+
+    // "gencon", "optthruput" ..., as logged by the initialized element; null if not logged
+    private String gcPolicy;
+
+    // the cause of the next cycle, set by af-start and sys-start, and cleared by af-end and sys-end
+    private String cause;
+
+    // BEFORE inside the gc-start elements of the pending cycle, AFTER inside its gc-end elements, NONE otherwise
+    private int memInfo;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The parse() method will close the reader upon completion, whether the execution is successful or not.
+     */
+    public J9LogParser(Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * The file is opened when parse() is invoked.
+     *
+     * @param timeRange null means no restriction.
+     */
+    public J9LogParser(File file, TimeRange timeRange)
+    {
+        this.file = file;
+        this.timeRange = timeRange;
+    }
+
+    // GCLogParser implementation ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * This method will close the reader upon completion, successful or not.
+     *
+     * @see com.novaordis.gc.parser.GCLogParser#parse(com.novaordis.gc.parser.TimeOrigin)
+     */
+    @Override
+    public List<GCEvent> parse(TimeOrigin timeOrigin) throws Exception
+    {
+        if (timeOrigin == null)
+        {
+            throw new IllegalArgumentException("null time origin wrapper");
+        }
+
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        timestampFormat = new SimpleDateFormat(TIMESTAMP_FORMAT);
+        position = new ParsePosition(0);
+        start = null;
+        cycle = new PendingJ9Cycle();
+        gcPolicy = null;
+        cause = null;
+        memInfo = NONE;
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+
+        InputStream is = null;
+        XMLStreamReader r = null;
+        boolean root = false;
+
+        try
+        {
+            if (reader != null)
+            {
+                r = factory.createXMLStreamReader(reader);
+            }
+            else
+            {
+                // the encoding is the one declared by the document
+                is = new BufferedInputStream(new FileInputStream(file));
+                r = factory.createXMLStreamReader(is);
+            }
+
+            while(r.hasNext())
+            {
+                int type = r.next();
+
+                if (type == XMLStreamConstants.START_ELEMENT)
+                {
+                    root = true;
+
+                    if (!startElement(r, timeOrigin, events))
+                    {
+                        log.debug("line " + r.getLocation().getLineNumber() + " follows the time range " + timeRange +
+                            ", parsing done");
+                        break;
+                    }
+                }
+                else if (type == XMLStreamConstants.END_ELEMENT)
+                {
+                    endElement(r.getLocalName());
+                }
+            }
+
+            log.debug("parsing done");
+        }
+        catch(XMLStreamException e)
+        {
+            long lineNumber = e.getLocation() == null ? -1L : e.getLocation().getLineNumber();
+
+            if (!root)
+            {
+                throw new ParserException("not a J9 verbose GC log: " + e.getMessage(), e, lineNumber);
+            }
+
+            // the JVM may still be writing the log
+            log.warn("parsing stopped on line " + lineNumber + ", the log is incomplete or not well formed: " +
+                e.getMessage());
+        }
+        finally
+        {
+            if (r != null)
+            {
+                r.close();
+            }
+
+            if (reader != null)
+            {
+                reader.close();
+            }
+
+            if (is != null)
+            {
+                is.close();
+            }
+        }
+
+        return events;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param timeRange null means no restriction.
+     */
+    public void setTimeRange(TimeRange timeRange)
+    {
+        this.timeRange = timeRange;
+    }
+
+    public TimeRange getTimeRange()
+    {
+        return timeRange;
+    }
+
+    /**
+     * @param filter null means all events are kept.
+     */
+    public void setFilter(Predicate filter)
+    {
+        this.filter = filter;
+    }
+
+    public Predicate getFilter()
+    {
+        return filter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "J9LogParser[" + (file != null ? file : reader) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return false if the cycle that ended follows the time range, so parsing can stop.
+     */
+    private boolean startElement(XMLStreamReader r, TimeOrigin timeOrigin, List<GCEvent> events) throws Exception
+    {
+        String name = r.getLocalName();
+
+        if (memInfo != NONE)
+        {
+            // the memory areas of a mem-info of the pending cycle
+            if (MEM_INFO.equals(name) || MEM.equals(name))
+            {
+                int area = MEM_INFO.equals(name) ? PendingJ9Cycle.HEAP :
+                    NURSERY.equals(r.getAttributeValue(null, "type")) ? PendingJ9Cycle.NURSERY :
+                        TENURE.equals(r.getAttributeValue(null, "type")) ? PendingJ9Cycle.TENURE : -1;
+
+                long free = parseLong(r.getAttributeValue(null, "free"));
+                long total = parseLong(r.getAttributeValue(null, "total"));
+
+                if (area != -1 && free >= 0 && total >= free)
+                {
+                    cycle.setMemory(memInfo == BEFORE, area, free, total);
+                }
+            }
+
+            return true;
+        }
+
+        if (CYCLE_START.equals(name))
+        {
+            String type = r.getAttributeValue(null, "type");
+            boolean scavenge = SCAVENGE.equals(type);
+
+            if (!scavenge && !GLOBAL.equals(type))
+            {
+                log.debug("cycle of type \"" + type + "\" on line " + r.getLocation().getLineNumber() + " not recorded");
+                return true;
+            }
+
+            Timestamp ts = toTimestamp(r.getAttributeValue(null, "timestamp"), timeOrigin, r);
+
+            if (ts == null)
+            {
+                return true;
+            }
+
+            cycle.reset(r.getAttributeValue(null, "id"), !scavenge, ts, cause);
+            return true;
+        }
+
+        if (CYCLE_END.equals(name))
+        {
+            if (!cycle.isPending(r.getAttributeValue(null, "contextid")))
+            {
+                return true;
+            }
+
+            return complete(timeOrigin, events);
+        }
+
+        if (GC_START.equals(name) || GC_END.equals(name))
+        {
+            if (!cycle.isPending(r.getAttributeValue(null, "contextid")))
+            {
+                return true;
+            }
+
+            if (GC_START.equals(name))
+            {
+                memInfo = BEFORE;
+            }
+            else
+            {
+                memInfo = AFTER;
+                cycle.addPause(parseMicros(r.getAttributeValue(null, "durationms")),
+                    parseMicros(r.getAttributeValue(null, "usertimems")),
+                    parseMicros(r.getAttributeValue(null, "systemtimems")));
+            }
+
+            return true;
+        }
+
+        if (GC_OP.equals(name))
+        {
+            long micros = parseMicros(r.getAttributeValue(null, "timems"));
+
+            if (micros >= 0 && cycle.isPending(r.getAttributeValue(null, "contextid")))
+            {
+                cycle.addOperation(micros);
+            }
+
+            return true;
+        }
+
+        if (AF_START.equals(name))
+        {
+            cause = GCCause.ALLOCATION_FAILURE;
+        }
+        else if (SYS_START.equals(name))
+        {
+            cause = EXPLICIT.equals(r.getAttributeValue(null, "reason")) ? GCCause.SYSTEM_GC : null;
+        }
+        else if (ATTRIBUTE.equals(name) && GC_POLICY.equals(r.getAttributeValue(null, "name")))
+        {
+            // <attribute name="gcPolicy" value="-Xgcpolicy:gencon" />
+            String value = r.getAttributeValue(null, "value");
+
+            if (value != null)
+            {
+                gcPolicy = value.startsWith(GC_POLICY_OPTION) ? value.substring(GC_POLICY_OPTION.length()) : value;
+            }
+        }
+        else if (INITIALIZED.equals(name))
+        {
+            String literal = r.getAttributeValue(null, "timestamp");
+            long time = parseTime(literal);
+
+            if (time == -1L)
+            {
+                log.warn("invalid initialization timestamp \"" + literal + "\" on line " +
+                    r.getLocation().getLineNumber());
+            }
+            else
+            {
+                start = time;
+            }
+        }
+
+        return true;
+    }
+
+    private void endElement(String name)
+    {
+        if (GC_START.equals(name) || GC_END.equals(name))
+        {
+            memInfo = NONE;
+        }
+        else if (AF_END.equals(name) || SYS_END.equals(name))
+        {
+            cause = null;
+        }
+    }
+
+    /**
+     * Adds the pending cycle to the list, unless it is outside the time range or the filter rejects it.
+     *
+     * @return false if the cycle follows the time range.
+     */
+    private boolean complete(TimeOrigin timeOrigin, List<GCEvent> events) throws Exception
+    {
+        GCEventBase event = cycle.toEvent(gcPolicy);
+        Timestamp ts = cycle.getTimestamp();
+        String id = cycle.getId();
+
+        cycle.reset(null, false, null, null);
+
+        if (event == null)
+        {
+            log.debug("cycle " + id + " did not log its duration, ignoring it");
+            return true;
+        }
+
+        if (timeRange != null)
+        {
+            int position = timeRange.position(ts, timeOrigin.get());
+
+            if (position == TimeRange.AFTER)
+            {
+                return false;
+            }
+
+            if (position == TimeRange.BEFORE)
+            {
+                return true;
+            }
+        }
+
+        if (filter == null || filter.accepts(event))
+        {
+            events.add(event);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the timestamp, with the offset relative to the time origin, or null if the literal is invalid.
+     */
+    private Timestamp toTimestamp(String literal, TimeOrigin timeOrigin, XMLStreamReader r)
+    {
+        long time = parseTime(literal);
+
+        if (time == -1L)
+        {
+            log.warn("invalid timestamp \"" + literal + "\" on line " + r.getLocation().getLineNumber() +
+                ", ignoring the cycle");
+            return null;
+        }
+
+        if (start == null && !timeOrigin.isInitialized())
+        {
+            log.info("the log does not contain the JVM initialization, the offsets are relative to the first collection");
+            start = time;
+        }
+
+        if (start != null)
+        {
+            timeOrigin.initialize(start);
+        }
+
+        return Timestamp.decoded(literal, time, time - timeOrigin.get());
+    }
+
+    /**
+     * @return the time in milliseconds, or -1 if the literal is null or invalid.
+     */
+    private long parseTime(String literal)
+    {
+        if (literal == null)
+        {
+            return -1L;
+        }
+
+        position.setIndex(0);
+        position.setErrorIndex(-1);
+        Date d = timestampFormat.parse(literal, position);
+
+        return d == null ? -1L : d.getTime();
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,241 @@
+package com.novaordis.gc.parser.j9;
+
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.event.j9.J9GlobalCollection;
+import com.novaordis.gc.model.event.j9.J9Scavenge;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * The elements of a J9 collection cycle, correlated by the id of the cycle until the cycle ends:
+ *
+ * <cycle-start id="4" type="scavenge" contextid="0" timestamp="2020-03-05T11:47:12.117" intervalms="0.000" />
+ * <gc-start id="5" type="scavenge" contextid="4" timestamp="2020-03-05T11:47:12.117">
+ *   <mem-info id="6" free="313180160" total="536870912" percent="58">
+ *     <mem type="nursery" free="0" total="134217728" percent="0"> ... </mem>
+ *     <mem type="tenure" free="313180160" total="402653184" percent="77"> ... </mem>
+ *   </mem-info>
+ * </gc-start>
+ * <gc-op id="7" type="scavenge" timems="10.345" contextid="4" timestamp="2020-03-05T11:47:12.128"> ... </gc-op>
+ * <gc-end id="8" type="scavenge" contextid="4" durationms="10.602" usertimems="30.000" systemtimems="0.000" ...>
+ *   <mem-info id="9" free="418037760" total="536870912" percent="77"> ... </mem-info>
+ * </gc-end>
+ * <cycle-end id="10" type="scavenge" contextid="4" timestamp="2020-03-05T11:47:12.128" />
+ *
+ * The occupancy before the collection is read from the first gc-start, the occupancy after the collection from the
+ * last gc-end. A single instance is reused for all the cycles of a log.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+class PendingJ9Cycle
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // the memory areas reported by mem-info
+    static final int HEAP = 0;
+    static final int NURSERY = 1;
+    static final int TENURE = 2;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // the id of the cycle-start element, null if no cycle is pending
+    private String id;
+
+    private boolean full;
+    private Timestamp timestamp;
+    private String cause;
+
+    // microseconds, -1 if not logged
+    private long pause;
+    private long operations;
+    private long user;
+    private long sys;
+
+    // bytes, indexed by area, -1 if not logged
+    private final long[] freeBefore;
+    private final long[] totalBefore;
+    private final long[] freeAfter;
+    private final long[] totalAfter;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    PendingJ9Cycle()
+    {
+        this.freeBefore = new long[3];
+        this.totalBefore = new long[3];
+        this.freeAfter = new long[3];
+        this.totalAfter = new long[3];
+        reset(null, false, null, null);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "PendingJ9Cycle[" + (id == null ? "" : id + ", " + (full ? "global" : "scavenge")) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param id the id of the cycle-start element, null to discard the pending cycle.
+     * @param full true for a global collection, false for a scavenge.
+     * @param cause the cause of the collection, null if not known.
+     */
+    void reset(String id, boolean full, Timestamp timestamp, String cause)
+    {
+        this.id = id;
+        this.full = full;
+        this.timestamp = timestamp;
+        this.cause = cause;
+        this.pause = -1L;
+        this.operations = -1L;
+        this.user = -1L;
+        this.sys = -1L;
+
+        for(int i = 0; i < freeBefore.length; i ++)
+        {
+            freeBefore[i] = -1L;
+            totalBefore[i] = -1L;
+            freeAfter[i] = -1L;
+            totalAfter[i] = -1L;
+        }
+    }
+
+    /**
+     * @return true if the element with the given contextid belongs to the pending cycle.
+     */
+    boolean isPending(String contextId)
+    {
+        return id != null && id.equals(contextId);
+    }
+
+    String getId()
+    {
+        return id;
+    }
+
+    Timestamp getTimestamp()
+    {
+        return timestamp;
+    }
+
+    /**
+     * A gc-end: the cycles of the global collections may be made of several increments.
+     *
+     * @param duration microseconds, -1 if not logged.
+     * @param user microseconds, -1 if not logged.
+     * @param sys microseconds, -1 if not logged.
+     */
+    void addPause(long duration, long user, long sys)
+    {
+        if (duration >= 0)
+        {
+            this.pause = Math.max(this.pause, 0L) + duration;
+        }
+
+        if (user >= 0 && sys >= 0)
+        {
+            this.user = Math.max(this.user, 0L) + user;
+            this.sys = Math.max(this.sys, 0L) + sys;
+        }
+    }
+
+    /**
+     * A gc-op, only used if the gc-end elements do not log the duration.
+     *
+     * @param duration microseconds.
+     */
+    void addOperation(long duration)
+    {
+        this.operations = Math.max(this.operations, 0L) + duration;
+    }
+
+    /**
+     * @param before true for the mem-info of a gc-start, false for the mem-info of a gc-end.
+     * @param area HEAP, NURSERY or TENURE.
+     */
+    void setMemory(boolean before, int area, long free, long total)
+    {
+        if (before)
+        {
+            if (freeBefore[area] == -1L)
+            {
+                freeBefore[area] = free;
+                totalBefore[area] = total;
+            }
+        }
+        else
+        {
+            freeAfter[area] = free;
+            totalAfter[area] = total;
+        }
+    }
+
+    /**
+     * @param gcPolicy the collection policy the virtual machine was started with, null if not known.
+     *
+     * @return the collection, or null if the cycle did not log its duration.
+     */
+    GCEventBase toEvent(String gcPolicy)
+    {
+        long micros = pause >= 0 ? pause : operations;
+
+        if (micros < 0)
+        {
+            return null;
+        }
+
+        long duration = (micros + 500) / 1000;
+        GCEventBase event;
+
+        if (full)
+        {
+            event = new J9GlobalCollection(timestamp, duration, toTransition(NURSERY), toTransition(TENURE),
+                toTransition(HEAP), GCCause.SYSTEM_GC.equals(cause), gcPolicy);
+        }
+        else
+        {
+            event = new J9Scavenge(timestamp, duration, toTransition(NURSERY), toTransition(HEAP), gcPolicy);
+        }
+
+        if (cause != null)
+        {
+            event.setCause(cause);
+        }
+
+        if (user >= 0)
+        {
+            event.setTimes((user + 500) / 1000, (sys + 500) / 1000, duration);
+        }
+
+        return event;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the occupancy before and after the collection, and the capacity after, or null if not logged.
+     */
+    private BeforeAfterMax toTransition(int area)
+    {
+        if (freeBefore[area] < 0 || freeAfter[area] < 0)
+        {
+            return null;
+        }
+
+        return new BeforeAfterMax(totalBefore[area] - freeBefore[area], totalAfter[area] - freeAfter[area],
+            totalAfter[area], Unit.b);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,124 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.ApplicationConcurrentTime;
+import com.novaordis.gc.model.event.ApplicationStoppedTime;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.parser.DiscardedEvent;
+import com.novaordis.gc.parser.GCEventParserBase;
+import com.novaordis.gc.parser.ParserException;
+import org.apache.log4j.Logger;
+
+/**
+ * Parses the safepoint records logged with -XX:+PrintGCApplicationStoppedTime and
+ * -XX:+PrintGCApplicationConcurrentTime. The records are recognized by their fixed prefix and the numbers are decoded
+ * in place, as there are usually more of them than there are collections.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ApplicationTimeParser extends GCEventParserBase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ApplicationTimeParser.class);
+
+    public static final String STOPPED_PREFIX = "Total time for which application threads were stopped: ";
+
+    public static final String TIME_TO_SAFEPOINT_LABEL = "Stopping threads took: ";
+
+    public static final String CONCURRENT_PREFIX = "Application time: ";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // GCEventParser -----------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Example of recognized lines:
+     *
+     * Total time for which application threads were stopped: 0.0102000 seconds
+     * Total time for which application threads were stopped: 0.0523450 seconds, Stopping threads took: 0.0001230 seconds
+     * Application time: 0.9470000 seconds
+     *
+     * @see com.novaordis.gc.parser.GCEventParser#parse(com.novaordis.gc.model.Timestamp, String, long, GCEvent)
+     */
+    @Override
+    public GCEvent parse(Timestamp ts, String line, long lineNumber, GCEvent current) throws ParserException
+    {
+        boolean stopped = line.startsWith(STOPPED_PREFIX);
+
+        if (!stopped && !line.startsWith(CONCURRENT_PREFIX))
+        {
+            return null;
+        }
+
+        if (isExcluded())
+        {
+            return DiscardedEvent.INSTANCE;
+        }
+
+        if (ts == null)
+        {
+            throw new ParserException("safepoint record on line " + lineNumber + " has no timestamp", lineNumber);
+        }
+
+        GCEvent event;
+
+        if (stopped)
+        {
+            long total = LineUtil.parseSecondsAsMicroseconds(line, 0, STOPPED_PREFIX.length());
+
+            if (total < 0)
+            {
+                throw new ParserException("invalid stopped time on line " + lineNumber + ": \"" + line + "\"", lineNumber);
+            }
+
+            if (isFilteredOut(CollectionType.APPLICATION_STOPPED, (total + 500) / 1000))
+            {
+                return DiscardedEvent.INSTANCE;
+            }
+
+            // JDK 8 and newer also log the time to safepoint
+            long ttsp = LineUtil.parseSecondsAsMicroseconds(
+                line, line.indexOf(TIME_TO_SAFEPOINT_LABEL, STOPPED_PREFIX.length()), TIME_TO_SAFEPOINT_LABEL.length());
+
+            event = new ApplicationStoppedTime(ts, total, ttsp);
+        }
+        else
+        {
+            long running = LineUtil.parseSecondsAsMicroseconds(line, 0, CONCURRENT_PREFIX.length());
+
+            if (running < 0)
+            {
+                throw new ParserException("invalid application time on line " + lineNumber + ": \"" + line + "\"", lineNumber);
+            }
+
+            event = new ApplicationConcurrentTime(ts, running);
+        }
+
+        log.debug(event);
+        return event;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType[] getCollectionTypes()
+    {
+        return new CollectionType[] { CollectionType.APPLICATION_STOPPED, CollectionType.APPLICATION_CONCURRENT };
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,26 @@
+package com.novaordis.gc.parser.linear;
+
+/**
+ * Decides whether a physical line continues the logical record started on a previous line. The JVM interrupts some
+ * log lines with other output (the tenuring distribution, "(concurrent mode failure)"), and the remainder of the line
+ * has to be joined to its beginning before the record can be parsed.
+ *
+ * The rule is evaluated for every line of the log, so the implementations must be cheap: no regular expressions, no
+ * allocation. A line continues a record based on its own content only, so the records can be re-assembled starting at
+ * any line that no rule claims.
+ *
+ * @see EventAssembler
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public interface ContinuationRule
+{
+    /**
+     * @param line never null.
+     *
+     * @return true if the line must be appended to the record started on a previous line.
+     */
+    boolean continues(String line);
+}
@@ -0,0 +1,496 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.AdaptiveSizePolicy;
+import com.novaordis.gc.model.HeapSnapshot;
+import com.novaordis.gc.model.TenuringDistribution;
+import com.novaordis.gc.parser.linear.g1.G1Block;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Groups the physical lines of a log into logical records, each record being parsed as a unit. The JVM spreads some
+ * events over several lines, and a record is made of:
+ *
+ * 1. The text: the line that starts the record, with the lines the continuation rules claim appended to it, in order.
+ *    There is no limit on the number of continuation lines.
+ *
+ * 2. The tenuring distribution and the G1 block logged within the record. Their lines are decoded as they are read,
+ *    only the decoded values are kept.
+ *
+ * 3. The detail lines: the indented lines that follow the "Heap" header of the heap summary logged on exit. They are
+ *    kept as they are and handed over to the parser that recognizes the header.
+ *
+ * 4. The heap snapshots logged by -XX:+PrintHeapAtGC: the "{Heap before GC ..." block that precedes the first line of
+ *    the collection and the "Heap after GC ... }" block that follows it. They are decoded as they are read. When they
+ *    are not needed, they can be skipped instead: their lines are then only looked at to find where the block ends,
+ *    which brings back the scan speed of a log without them.
+ *
+ * 5. The decisions of the adaptive size policy, logged by -XX:+PrintAdaptiveSizePolicy between the header of a parallel
+ *    scavenge collection and its remainder. The first of them follows the header on the first line, and is cut out of
+ *    the text. They are decoded as they are read.
+ *
+ * Every line is read once, and classifying it costs a few character comparisons; there is no per-line regular
+ * expression matching. The classification of a line does not depend on the lines before it (except for the detail
+ * lines, which are only recognized after a header), so the assembly can start at any line: the lines that continue a
+ * record started before the first line read are skipped, and the first record starts at the first line no rule claims.
+ * This makes it possible to assemble the records starting from an arbitrary position in the file, as the LogSeeker
+ * does.
+ *
+ * The record state is reused from one record to the next, so the values returned by the getters are only valid until
+ * next() is invoked again.
+ *
+ * Not thread safe.
+ *
+ * @see ContinuationRule
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class EventAssembler
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(EventAssembler.class);
+
+    public static final String HEAP_HEADER = "Heap";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the line is the "Heap" header of the heap summary logged on exit, possibly followed by whitespace.
+     */
+    public static boolean isHeapHeader(String line)
+    {
+        if (!line.startsWith(HEAP_HEADER))
+        {
+            return false;
+        }
+
+        for(int i = HEAP_HEADER.length(); i < line.length(); i ++)
+        {
+            if (!Character.isWhitespace(line.charAt(i)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private BufferedReader reader;
+    private ContinuationRule[] rules;
+
+    // the number of the last line read
+    private long lineNumber;
+
+    // the line that was read ahead and starts the next record, null if not read yet or at the end of the input
+    private String next;
+    private long nextLineNumber;
+
+    private boolean started;
+
+    private boolean decodeHeapAtGC;
+
+    // the current record
+
+    private StringBuilder text;
+    private long recordLineNumber;
+    private TenuringDistribution tenuring;
+    private AdaptiveSizePolicy adaptiveSizePolicy;
+    private G1Block g1Block;
+    private List<String> details;
+    private long[] detailLineNumbers;
+    private HeapSnapshot heapBefore;
+    private HeapSnapshot heapAfter;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param rules the continuation rules of the log format. May be null or empty.
+     */
+    public EventAssembler(BufferedReader reader, List<ContinuationRule> rules)
+    {
+        this.reader = reader;
+        this.rules = rules == null ? new ContinuationRule[0] : rules.toArray(new ContinuationRule[rules.size()]);
+        this.text = new StringBuilder();
+        this.g1Block = new G1Block();
+        this.details = new ArrayList<String>();
+        this.detailLineNumbers = new long[16];
+        this.decodeHeapAtGC = true;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Assembles the next record.
+     *
+     * @return false if there are no more records.
+     */
+    public boolean next() throws IOException
+    {
+        String first = next;
+        long firstLineNumber = nextLineNumber;
+        next = null;
+
+        if (!started)
+        {
+            started = true;
+            first = readFirst();
+            firstLineNumber = lineNumber;
+        }
+
+        heapBefore = null;
+        heapAfter = null;
+
+        // the snapshot logged before a collection precedes its first line; a snapshot logged after the collection, or
+        // the end of a block, can only be found here if the reading started in the middle of a block
+
+        while(first != null)
+        {
+            if (first.startsWith(HeapSnapshot.BEFORE_PREFIX))
+            {
+                heapBefore = decodeHeapAtGC ? parseHeapHeader(first) : null;
+            }
+            else if (!first.startsWith(HeapSnapshot.AFTER_PREFIX) && !first.equals(HeapSnapshot.END))
+            {
+                break;
+            }
+
+            first = skipHeapBlock(first.equals(HeapSnapshot.END) ? null : heapBefore);
+            firstLineNumber = lineNumber;
+        }
+
+        if (first == null)
+        {
+            return false;
+        }
+
+        text.setLength(0);
+        recordLineNumber = firstLineNumber;
+        tenuring = null;
+        adaptiveSizePolicy = null;
+
+        // "1.011: [GC (Allocation Failure) AdaptiveSizePolicy::update_averages: ...", the remainder of the collection
+        // follows the policy lines
+        int policy = AdaptiveSizePolicy.find(first);
+
+        if (policy == -1)
+        {
+            text.append(first);
+        }
+        else
+        {
+            text.append(first, 0, policy);
+            parsePolicyLine(first.substring(policy));
+        }
+
+        g1Block.clear();
+        details.clear();
+
+        boolean heap = isHeapHeader(first);
+
+        // true while reading the lines of the snapshot logged after the collection
+        boolean heapAtGC = false;
+
+        String line;
+
+        while((line = reader.readLine()) != null)
+        {
+            lineNumber ++;
+
+            boolean indented = line.length() > 0 && Character.isWhitespace(line.charAt(0));
+
+            if (heapAtGC && indented)
+            {
+                if (heapAfter != null && !heapAfter.parseLine(line))
+                {
+                    log.warn("invalid heap snapshot line " + lineNumber + ": \"" + line + "\"");
+                }
+            }
+            else if (heapAtGC && line.equals(HeapSnapshot.END))
+            {
+                heapAtGC = false;
+            }
+            else if (line.startsWith(HeapSnapshot.AFTER_PREFIX))
+            {
+                heapAtGC = true;
+                heapAfter = decodeHeapAtGC ? parseHeapHeader(line) : null;
+            }
+            else if (heap && indented)
+            {
+                addDetail(line);
+            }
+            else if (line.startsWith(TenuringDistribution.HEADER_PREFIX))
+            {
+                tenuring = TenuringDistribution.parseHeader(line);
+
+                if (tenuring == null)
+                {
+                    log.warn("invalid tenuring distribution on line " + lineNumber + ": \"" + line + "\"");
+                }
+            }
+            else if (line.startsWith(TenuringDistribution.AGE_PREFIX))
+            {
+                if (tenuring != null && !tenuring.parseAge(line))
+                {
+                    log.warn("invalid tenuring distribution age on line " + lineNumber + ": \"" + line + "\"");
+                }
+            }
+            else if (AdaptiveSizePolicy.isPolicyLine(line))
+            {
+                parsePolicyLine(line);
+            }
+            else if (isContinuation(line))
+            {
+                text.append(line);
+            }
+            else if (G1Block.isBlockLine(line))
+            {
+                if (!g1Block.add(line, lineNumber))
+                {
+                    log.warn("invalid G1 pause detail on line " + lineNumber + ": \"" + line + "\"");
+                }
+            }
+            else
+            {
+                next = line;
+                nextLineNumber = lineNumber;
+                break;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the text of the current record: the first line and its continuation lines, joined.
+     */
+    public String getText()
+    {
+        return text.toString();
+    }
+
+    /**
+     * @return the number of the line the current record starts on.
+     */
+    public long getLineNumber()
+    {
+        return recordLineNumber;
+    }
+
+    /**
+     * @return the tenuring distribution logged within the current record, or null if there isn't one.
+     */
+    public TenuringDistribution getTenuringDistribution()
+    {
+        return tenuring;
+    }
+
+    /**
+     * @return the adaptive size policy decisions logged within the current record, or null if there are none.
+     */
+    public AdaptiveSizePolicy getAdaptiveSizePolicy()
+    {
+        return adaptiveSizePolicy;
+    }
+
+    /**
+     * @return the G1 block logged after the first line of the current record, possibly empty.
+     */
+    public G1Block getG1Block()
+    {
+        return g1Block;
+    }
+
+    public int getDetailCount()
+    {
+        return details.size();
+    }
+
+    public String getDetail(int i)
+    {
+        return details.get(i);
+    }
+
+    public long getDetailLineNumber(int i)
+    {
+        return detailLineNumbers[i];
+    }
+
+    /**
+     * @return the snapshot logged by -XX:+PrintHeapAtGC before the collection of the current record, or null if it
+     * was not logged or the snapshots are not decoded.
+     */
+    public HeapSnapshot getHeapBefore()
+    {
+        return heapBefore;
+    }
+
+    /**
+     * @return the snapshot logged by -XX:+PrintHeapAtGC after the collection of the current record, or null if it
+     * was not logged or the snapshots are not decoded.
+     */
+    public HeapSnapshot getHeapAfter()
+    {
+        return heapAfter;
+    }
+
+    /**
+     * @param b false to skip the -XX:+PrintHeapAtGC snapshots without decoding them. They are decoded by default.
+     */
+    public void setDecodeHeapAtGC(boolean b)
+    {
+        this.decodeHeapAtGC = b;
+    }
+
+    public boolean isDecodeHeapAtGC()
+    {
+        return decodeHeapAtGC;
+    }
+
+    /**
+     * @param n the number of the first line read, when the reading does not start at the beginning of the file. The
+     *          lines are numbered from 1 by default. Must be invoked before the first next().
+     */
+    public void setFirstLineNumber(long n)
+    {
+        this.lineNumber = n - 1;
+    }
+
+    /**
+     * @return true if the line is claimed by one of the continuation rules.
+     */
+    public boolean isContinuation(String line)
+    {
+        for(ContinuationRule r: rules)
+        {
+            if (r.continues(line))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EventAssembler[" + rules.length + " rules, line " + lineNumber + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the first line that starts a record, skipping the lines that continue a record started before the first
+     * line read, or null if there is none.
+     */
+    private String readFirst() throws IOException
+    {
+        String line;
+
+        while((line = reader.readLine()) != null)
+        {
+            lineNumber ++;
+
+            if (!line.startsWith(TenuringDistribution.HEADER_PREFIX) &&
+                !line.startsWith(TenuringDistribution.AGE_PREFIX) &&
+                !AdaptiveSizePolicy.isPolicyLine(line) &&
+                !isContinuation(line) &&
+                !G1Block.isBlockLine(line))
+            {
+                return line;
+            }
+
+            log.debug("line " + lineNumber + " continues a record started before the first line read, skipping it");
+        }
+
+        return null;
+    }
+
+    private void parsePolicyLine(String line)
+    {
+        if (adaptiveSizePolicy == null)
+        {
+            adaptiveSizePolicy = new AdaptiveSizePolicy();
+        }
+
+        if (!adaptiveSizePolicy.parseLine(line))
+        {
+            log.warn("invalid adaptive size policy line " + lineNumber + ": \"" + line + "\"");
+        }
+    }
+
+    /**
+     * Reads the indented lines of a -XX:+PrintHeapAtGC block, and its closing "}" if present.
+     *
+     * @param snapshot the snapshot to decode the lines into, null to skip them.
+     *
+     * @return the first line that follows the block, or null at the end of the input.
+     */
+    private String skipHeapBlock(HeapSnapshot snapshot) throws IOException
+    {
+        String line;
+
+        while((line = reader.readLine()) != null)
+        {
+            lineNumber ++;
+
+            if (line.length() == 0 || !Character.isWhitespace(line.charAt(0)))
+            {
+                if (line.equals(HeapSnapshot.END))
+                {
+                    continue;
+                }
+
+                return line;
+            }
+
+            if (snapshot != null && !snapshot.parseLine(line))
+            {
+                log.warn("invalid heap snapshot line " + lineNumber + ": \"" + line + "\"");
+            }
+        }
+
+        return null;
+    }
+
+    private HeapSnapshot parseHeapHeader(String line)
+    {
+        HeapSnapshot s = HeapSnapshot.parseHeader(line);
+
+        if (s == null)
+        {
+            log.warn("invalid heap snapshot header on line " + lineNumber + ": \"" + line + "\"");
+        }
+
+        return s;
+    }
+
+    private void addDetail(String line)
+    {
+        int i = details.size();
+
+        if (i == detailLineNumbers.length)
+        {
+            detailLineNumbers = Arrays.copyOf(detailLineNumbers, i * 2);
+        }
+
+        detailLineNumbers[i] = lineNumber;
+        details.add(line);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,7 +1,11 @@
 package com.novaordis.gc.parser.linear;
 
+import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.serial.TenuredCollection;
 import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.DiscardedEvent;
+import com.novaordis.gc.parser.Duration;
 import com.novaordis.gc.parser.GCEventParser;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.event.GCEvent;
@@ -22,8 +26,128 @@ public class FullCollectionParser extends GCEventParserBase
 
     private static final Logger log = Logger.getLogger(FullCollectionParser.class);
 
+    private static final String CONCURRENT_MODE_FAILURE_MARKER = "(concurrent mode failure):";
+
+    private static final String METASPACE_LABEL = "Metaspace: ";
+
+    private static final String TENURED_PREFIX = "[Tenured: ";
+
+    // the serial collector's permanent generation
+    private static final String PERM_LABEL = "Perm : ";
+
     // Static ------------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Parses a concurrent mode failure whose CMS segment is interrupted by the end of a concurrent phase, after the
+     * event assembler joined its two lines:
+     *
+     * [CMS598318.636: [CMS-concurrent-sweep: 30.176/31.191 secs] [Times: ...] (concurrent mode failure): 8527958K->7765164K(12049408K), 35.8110060 secs] 12653057K->7765164K(16567552K), [CMS Perm : 130459K->122567K(216772K)], 36.4568820 secs] [Times: ...]
+     * [Full GC 53365.009: [CMS53369.873: [CMS-concurrent-mark: 5.274/5.371 secs] [Times: ...] (concurrent mode failure): 11628290K->11661304K(11666432K), 23.5081640 secs] 15947092K->12535361K(16040192K), [CMS Perm : 117651K->117651K(208152K)], 23.5087140 secs] [Times: ...]
+     *
+     * The first form is the remainder of a young generation collection that failed promotion, which was already reported
+     * as a separate event, so only the duration of the CMS segment is attributed to the full collection. The second form
+     * is a full collection, and the total duration is used.
+     *
+     * JDK 8 logs "[Metaspace: 2994K->2994K(1056768K)]" instead of "[CMS Perm : ...]".
+     *
+     * @return the duration, in milliseconds, the old generation, heap and permanent generation (or metaspace)
+     *         occupancies, and Boolean.TRUE if the last one is the metaspace.
+     */
+    static Object[] parseInterruptedConcurrentModeFailure(String line, long lineNumber) throws ParserException
+    {
+        int i = line.indexOf(CONCURRENT_MODE_FAILURE_MARKER);
+        int comma = line.indexOf(',', i);
+        int cmsEnd = comma == -1 ? -1 : line.indexOf("secs]", comma);
+
+        if (i == -1 || cmsEnd == -1)
+        {
+            throw new ParserException("concurrent mode failure line does not contain the old generation occupancy", lineNumber);
+        }
+
+        BeforeAfterMax og = new BeforeAfterMax(line.substring(i + CONCURRENT_MODE_FAILURE_MARKER.length(), comma).trim(), lineNumber);
+        long cmsDuration = Duration.toLongMilliseconds(line.substring(comma + 1, cmsEnd + "secs".length()).trim(), lineNumber);
+
+        // " 12653057K->7765164K(16567552K), [CMS Perm : 130459K->122567K(216772K)], 36.4568820 secs]"
+
+        int heapEnd = line.indexOf(',', cmsEnd);
+        int permLabel = heapEnd == -1 ? -1 : line.indexOf("[CMS Perm", heapEnd);
+        boolean metaspace = permLabel == -1 && heapEnd != -1;
+
+        if (metaspace)
+        {
+            permLabel = line.indexOf("[" + METASPACE_LABEL, heapEnd);
+        }
+
+        int permStart = permLabel == -1 ? -1 : line.indexOf(": ", permLabel);
+        int permEnd = permStart == -1 ? -1 : line.indexOf(']', permStart);
+        int end = permEnd == -1 ? -1 : line.indexOf("secs]", permEnd);
+
+        if (end == -1)
+        {
+            throw new ParserException(
+                "concurrent mode failure line does not contain heap and permanent generation (or metaspace) occupancy", lineNumber);
+        }
+
+        BeforeAfterMax heap = new BeforeAfterMax(line.substring(cmsEnd + "secs]".length(), heapEnd).trim(), lineNumber);
+        BeforeAfterMax pg = new BeforeAfterMax(line.substring(permStart + ": ".length(), permEnd).trim(), lineNumber);
+
+        // the total duration may be preceded by "icms_dc=100 ,"
+        String total = line.substring(permEnd + 1, end + "secs".length());
+        total = total.substring(total.lastIndexOf(',') + 1).trim();
+
+        long duration = line.startsWith("[CMS") ? cmsDuration : Duration.toLongMilliseconds(total, lineNumber);
+
+        return new Object[] { duration, og, heap, pg, metaspace };
+    }
+
+    /**
+     * Parses the old generation collection the serial collector falls back to when a young generation collection fails
+     * promotion, or is not attempted because the old generation could not accommodate the promoted objects. The line
+     * is broken in two fragments at the timestamp that precedes the old generation segment:
+     *
+     * [GC 1080.181: [DefNew (promotion failed) : 256020K->243246K(307200K), 0.0986650 secs]1080.280: [Tenured: 803557K->495014K(819200K), 1.5640840 secs] 1043502K->495014K(1126400K), [Perm : 50323K->50323K(50432K)], 1.6629090 secs] [Times: ...]
+     * [GC (Allocation Failure) 10.123: [DefNew: 4928K->4928K(4928K), 0.0000160 secs]10.123: [Tenured: 10868K->10943K(10944K), 0.0232430 secs] 15796K->11246K(15872K), [Metaspace: 2062K->2062K(1056768K)], 0.0233120 secs] [Times: ...]
+     *
+     * This method parses the second fragment. The young generation segment was already reported as a separate event,
+     * so only the duration of the old generation segment is attributed to the full collection.
+     *
+     * @return the duration, in milliseconds, the old generation, heap and permanent generation (or metaspace)
+     *         occupancies, and Boolean.TRUE if the last one is the metaspace.
+     */
+    static Object[] parseTenured(String line, long lineNumber) throws ParserException
+    {
+        int comma = line.indexOf(',', TENURED_PREFIX.length());
+        int tenuredEnd = comma == -1 ? -1 : line.indexOf("secs]", comma);
+        long duration = comma == -1 ? -1L : LineUtil.parseSeconds(line, comma, ", ".length());
+
+        if (tenuredEnd == -1 || duration < 0)
+        {
+            throw new ParserException("tenured generation segment not in \"before->after(max), duration secs\" format", lineNumber);
+        }
+
+        // " 1043502K->495014K(1126400K), [Perm : 50323K->50323K(50432K)], 1.6629090 secs]"
+
+        int heapEnd = line.indexOf(',', tenuredEnd);
+        int permLabel = heapEnd == -1 ? -1 : line.indexOf('[', heapEnd);
+        boolean metaspace = permLabel != -1 && line.startsWith(METASPACE_LABEL, permLabel + 1);
+        int permEnd = permLabel == -1 ? -1 : line.indexOf(']', permLabel);
+
+        if (permEnd == -1 || (!metaspace && !line.startsWith(PERM_LABEL, permLabel + 1)))
+        {
+            throw new ParserException(
+                "tenured generation line does not contain heap and permanent generation (or metaspace) occupancy", lineNumber);
+        }
+
+        int permStart = permLabel + 1 + (metaspace ? METASPACE_LABEL.length() : PERM_LABEL.length());
+
+        BeforeAfterMax og = new BeforeAfterMax(line.substring(TENURED_PREFIX.length(), comma), lineNumber);
+        BeforeAfterMax heap = new BeforeAfterMax(line.substring(tenuredEnd + "secs]".length(), heapEnd).trim(), lineNumber);
+        BeforeAfterMax pg = new BeforeAfterMax(line.substring(permStart, permEnd), lineNumber);
+
+        return new Object[] { duration, og, heap, pg, metaspace };
+    }
+
+
     // Attributes --------------------------------------------------------------------------------------------------------------------------
 
     // Constructors ------------------------------------------------------------------------------------------------------------------------
@@ -37,16 +161,70 @@ public class FullCollectionParser extends GCEventParserBase
      * [Full GC [PSYoungGen: 1080K->1K(1398144K)] [PSOldGen: 4037629K->895254K(4194303K)] 4038710K->895254K(5592448K) [PSPermGen: 270279K->270279K(270336K)], 1.6447130 secs] [Times: user=1.64 sys=0.00, real=1.65 secs]
      * [Full GC (System) [PSYoungGen: 25762K->0K(887808K)] [ParOldGen: 377824K->217543K(1398144K)] 403587K->217543K(2285952K) [PSPermGen: 149513K->143503K(149696K)], 1.8638674 secs] [Times: user=5.80 sys=0.00, real=1.86 secs]
      *
+     * Serial collector:
+     *
+     * [Full GC 2.345: [Tenured: 7836K->1254K(10944K), 0.0124210 secs] 9876K->1254K(15872K), [Perm : 2062K->2062K(12288K)], 0.0124880 secs] [Times: user=0.01 sys=0.00, real=0.01 secs]
+     * [Tenured: 803557K->495014K(819200K), 1.5640840 secs] 1043502K->495014K(1126400K), [Perm : 50323K->50323K(50432K)], 1.6629090 secs] [Times: user=1.55 sys=0.01, real=1.66 secs]
+     *
+     * The second form is the remainder of a young generation collection that failed, see parseTenured().
+     *
      * @see GCEventParser#parse(com.novaordis.gc.model.Timestamp, String, long, GCEvent)
      */
     @Override
     public GCEvent parse(Timestamp ts, String line, long lineNumber, GCEvent current) throws ParserException
     {
-        if (!line.startsWith("[Full GC"))
+        boolean concurrentModeFailure = line.contains(CONCURRENT_MODE_FAILURE_MARKER);
+
+        boolean interrupted =
+            concurrentModeFailure &&
+                (line.startsWith("[CMS") || (line.startsWith("[Full GC") && line.contains("CMS-concurrent-")));
+
+        boolean tenured = line.startsWith(TENURED_PREFIX);
+
+        if (!interrupted && !tenured && !line.startsWith("[Full GC"))
         {
             return null;
         }
 
+        if (isExcluded())
+        {
+            return DiscardedEvent.INSTANCE;
+        }
+
+        String notes = concurrentModeFailure ? FullCollection.CONCURRENT_MODE_FAILURE : null;
+
+        if (interrupted || tenured)
+        {
+            Object[] parsed =
+                interrupted ? parseInterruptedConcurrentModeFailure(line, lineNumber) : parseTenured(line, lineNumber);
+
+            long duration = (Long)parsed[0];
+
+            if (isFilteredOut(CollectionType.FULL_COLLECTION, duration))
+            {
+                return DiscardedEvent.INSTANCE;
+            }
+
+            boolean metaspace = (Boolean)parsed[4];
+
+            BeforeAfterMax og = (BeforeAfterMax)parsed[1];
+            BeforeAfterMax pg = metaspace ? null : (BeforeAfterMax)parsed[3];
+            BeforeAfterMax heap = (BeforeAfterMax)parsed[2];
+            boolean system = line.startsWith("[Full GC (System)");
+
+            FullCollection event = tenured ?
+                new TenuredCollection(ts, duration, null, og, pg, heap, system, notes) :
+                new FullCollection(ts, duration, null, og, pg, heap, system, notes);
+
+            if (metaspace)
+            {
+                event.setMetaspace((BeforeAfterMax)parsed[3]);
+            }
+
+            log.debug(event);
+            return event;
+        }
+
         // all processing is done in a try/catch block, so we can cleanly handle parsing error (unrecognized lines, for example)
 
         try
@@ -75,7 +253,9 @@ public class FullCollectionParser extends GCEventParserBase
                 system = true;
             }
 
-            BeforeAfterMax ng = null, og = null;
+            // the memory information is decoded only after we know the event is not filtered out
+            String ngs = null, ogs = null;
+            boolean serial = false;
 
             String tok = tokens.get(crtTokenIndex ++);
 
@@ -87,16 +267,13 @@ public class FullCollectionParser extends GCEventParserBase
                 // PSYoungGen: 32861K->0K(1722048K)
                 //
 
-                String ngs = tok;
-                ngs = ngs.substring("PSYoungGen: ".length());
-
-                ng = new BeforeAfterMax(ngs, lineNumber);
+                ngs = tok.substring("PSYoungGen: ".length());
 
                 //
                 // PSOldGen: 1663616K->1696127K(4194304K)
                 //
 
-                String ogs = tokens.get(crtTokenIndex ++);
+                ogs = tokens.get(crtTokenIndex ++);
 
                 // sanity check - if we don't recognize the format, discard the line
                 int tokenLength;
@@ -114,7 +291,6 @@ public class FullCollectionParser extends GCEventParserBase
                 }
 
                 ogs = ogs.substring(tokenLength);
-                og = new BeforeAfterMax(ogs, lineNumber);
             }
             else if (tok.startsWith("CMS: ") || tok.startsWith("CMS (concurrent mode failure): "))
             {
@@ -136,9 +312,23 @@ public class FullCollectionParser extends GCEventParserBase
                     throw new Exception("(FCP-1): we don't know how to handle a non-comma CMS segment in line: " + line);
                 }
 
-                cmsOg = cmsOg.substring(0, i);
+                ogs = cmsOg.substring(0, i);
+            }
+            else if (tok.startsWith("Tenured: "))
+            {
+                //
+                // Tenured: 7836K->1254K(10944K), 0.0124210 secs
+                //
+
+                int i = tok.indexOf(", ");
+
+                if (i < 0)
+                {
+                    throw new Exception("expecting \"Tenured: before->after(max), duration secs\" and got \"" + tok + "\"");
+                }
 
-                og = new BeforeAfterMax(cmsOg, lineNumber);
+                ogs = tok.substring("Tenured: ".length(), i);
+                serial = true;
             }
             else if (tok.contains("CMS-concurrent-mark"))
             {
@@ -155,7 +345,7 @@ public class FullCollectionParser extends GCEventParserBase
             }
             else
             {
-                throw new Exception("expecting \"PSYoungGen:|CMS: ...\" and got \"" + tok + "\"");
+                throw new Exception("expecting \"PSYoungGen:|CMS:|Tenured: ...\" and got \"" + tok + "\"");
             }
 
             //
@@ -163,7 +353,6 @@ public class FullCollectionParser extends GCEventParserBase
             //
 
             String heaps = tokens.get(crtTokenIndex ++);
-            BeforeAfterMax heap = new BeforeAfterMax(heaps, lineNumber);
 
             //
             // PSPermGen: 292408K->292408K(292416K)
@@ -172,19 +361,28 @@ public class FullCollectionParser extends GCEventParserBase
             //
             // CMS Perm : 58673K->58575K(58800K)
             //
+            // or, serial collector
+            //
+            // Perm : 2062K->2062K(12288K)
+            //
+            // or, JDK 8 and newer
+            //
+            // Metaspace: 292408K->292408K(1290240K)
+            //
 
             String pgs = tokens.get(crtTokenIndex ++);
 
+            boolean metaspace = pgs.startsWith(METASPACE_LABEL);
+
             // sanity check - if we don't recognize the format, discard the line ...
-            if (!pgs.startsWith("PSPermGen: ") && !pgs.startsWith("CMS Perm : "))
+            if (!metaspace && !pgs.startsWith("PSPermGen: ") && !pgs.startsWith("CMS Perm : ") && !pgs.startsWith(PERM_LABEL))
             {
-                throw new Exception("expecting \"PSPermGen:|CMS Perm : ...\" and got \"" + pgs + "\"");
+                throw new Exception("expecting \"PSPermGen:|CMS Perm :|Perm :|Metaspace: ...\" and got \"" + pgs + "\"");
             }
 
             int i = pgs.indexOf(": ");
 
             pgs = pgs.substring(i + ": ".length());
-            BeforeAfterMax pg = new BeforeAfterMax(pgs, lineNumber);
 
             //
             // total time
@@ -202,11 +400,29 @@ public class FullCollectionParser extends GCEventParserBase
             {
                 durations = durations.substring(0, i);
             }
-            durations = durations.trim();
+            // JDK 8 separates the metaspace and the duration with a comma: "..., [Metaspace: ...], 2.4516460 secs]"
+            durations = durations.substring(durations.lastIndexOf(',') + 1).trim();
 
             long duration = Math.round(Float.parseFloat(durations) * 1000);
 
-            FullCollection event = new FullCollection(ts, duration, ng, og, pg, heap, system);
+            if (isFilteredOut(CollectionType.FULL_COLLECTION, duration))
+            {
+                return DiscardedEvent.INSTANCE;
+            }
+
+            BeforeAfterMax ng = ngs == null ? null : new BeforeAfterMax(ngs, lineNumber);
+            BeforeAfterMax og = ogs == null ? null : new BeforeAfterMax(ogs, lineNumber);
+            BeforeAfterMax heap = new BeforeAfterMax(heaps, lineNumber);
+            BeforeAfterMax pg = new BeforeAfterMax(pgs, lineNumber);
+
+            FullCollection event = serial ?
+                new TenuredCollection(ts, duration, ng, og, metaspace ? null : pg, heap, system, notes) :
+                new FullCollection(ts, duration, ng, og, metaspace ? null : pg, heap, system, notes);
+
+            if (metaspace)
+            {
+                event.setMetaspace(pg);
+            }
             log.debug(event);
             return event;
         }
@@ -226,6 +442,12 @@ public class FullCollectionParser extends GCEventParserBase
 
     // Public ------------------------------------------------------------------------------------------------------------------------------
 
+    @Override
+    public CollectionType[] getCollectionTypes()
+    {
+        return new CollectionType[] { CollectionType.FULL_COLLECTION };
+    }
+
     // Package protected -------------------------------------------------------------------------------------------------------------------
 
     // Protected ---------------------------------------------------------------------------------------------------------------------------
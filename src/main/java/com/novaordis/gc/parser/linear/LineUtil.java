@@ -113,6 +113,109 @@ public class LineUtil
         return result;
     }
 
+    /**
+     * Extracts the CPU and wall clock times from the last "[Times: user=0.64 sys=0.30, real=0.17 secs]" block of the
+     * string. The block that follows an event is the last one; blocks that precede it belong to concurrent phases logged
+     * in the middle of the event.
+     *
+     * @return a three element array containing the user, sys and real times, in milliseconds, or null if the string
+     *         does not contain a well formed block.
+     */
+    public static long[] parseTimes(String s)
+    {
+        int i = s.lastIndexOf("[Times: ");
+
+        if (i == -1)
+        {
+            return null;
+        }
+
+        long user = parseSeconds(s, s.indexOf("user=", i), "user=".length());
+        long sys = parseSeconds(s, s.indexOf("sys=", i), "sys=".length());
+        long real = parseSeconds(s, s.indexOf("real=", i), "real=".length());
+
+        if (user < 0 || sys < 0 || real < 0)
+        {
+            return null;
+        }
+
+        return new long[] { user, sys, real };
+    }
+
+    /**
+     * Locates the GC cause in the collection header: "[GC (Allocation Failure) [PSYoungGen: ...",
+     * "[Full GC (System.gc()) [PSYoungGen: ...". The cause may contain parentheses, so they are matched. The header is
+     * the part of the string that precedes the first nested block, a parenthesis that is not closed before it is not a
+     * cause.
+     *
+     * @return a two element array containing the index of the first character of the cause and the index of its closing
+     *         parenthesis, or null if the string does not start with a collection header that has a cause.
+     */
+    public static int[] findCause(String s)
+    {
+        int i;
+
+        if (s.startsWith("[GC ("))
+        {
+            i = "[GC (".length();
+        }
+        else if (s.startsWith("[Full GC ("))
+        {
+            i = "[Full GC (".length();
+        }
+        else
+        {
+            return null;
+        }
+
+        int depth = 1;
+
+        for(int j = i; j < s.length(); j ++)
+        {
+            char c = s.charAt(j);
+
+            if (c == '(')
+            {
+                depth ++;
+            }
+            else if (c == ')' && -- depth == 0)
+            {
+                return j == i ? null : new int[] { i, j };
+            }
+            else if (c == '[')
+            {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parses a decimal number of seconds ("0.64") into milliseconds without creating intermediate objects.
+     *
+     * @param i the position of the label that precedes the number, -1 if the label was not found.
+     *
+     * @return milliseconds, rounded, or -1 if there is no number at the position.
+     */
+    static long parseSeconds(String s, int i, int labelLength)
+    {
+        return parseSeconds(s, i, labelLength, 3);
+    }
+
+    /**
+     * Parses a decimal number of seconds ("0.0001230") into microseconds without creating intermediate objects. The
+     * safepoint times are logged with a microsecond resolution, and most of them are shorter than a millisecond.
+     *
+     * @param i the position of the label that precedes the number, -1 if the label was not found.
+     *
+     * @return microseconds, rounded, or -1 if there is no number at the position.
+     */
+    public static long parseSecondsAsMicroseconds(String s, int i, int labelLength)
+    {
+        return parseSeconds(s, i, labelLength, 6);
+    }
+
     // Attributes --------------------------------------------------------------------------------------------------------------------------
 
     // Constructors ------------------------------------------------------------------------------------------------------------------------
@@ -129,8 +232,73 @@ public class LineUtil
 
     // Private -----------------------------------------------------------------------------------------------------------------------------
 
-    // Inner classes -----------------------------------------------------------------------------------------------------------------------
-}
+    /**
+     * @param scale the number of fractional digits kept: 3 for milliseconds, 6 for microseconds.
+     *
+     * @return the number of seconds multiplied by 10^scale, rounded, or -1 if there is no number at the position.
+     */
+    private static long parseSeconds(String s, int i, int labelLength, int scale)
+    {
+        if (i == -1)
+        {
+            return -1L;
+        }
 
+        long integer = 0L;
+        long fraction = 0L;
+        int fractionDigits = 0;
+        boolean digits = false;
+        boolean decimal = false;
 
+        for(int j = i + labelLength; j < s.length(); j ++)
+        {
+            char c = s.charAt(j);
 
+            if (c >= '0' && c <= '9')
+            {
+                digits = true;
+
+                if (!decimal)
+                {
+                    integer = integer * 10 + (c - '0');
+                }
+                else if (fractionDigits <= scale)
+                {
+                    // one digit beyond the scale, for rounding
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits ++;
+                }
+            }
+            else if ((c == '.' || c == ',') && !decimal && j + 1 < s.length() && Character.isDigit(s.charAt(j + 1)))
+            {
+                // some locales use the comma as decimal separator
+                decimal = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if (!digits)
+        {
+            return -1L;
+        }
+
+        for(; fractionDigits <= scale; fractionDigits ++)
+        {
+            fraction *= 10;
+        }
+
+        long multiplier = 1L;
+
+        for(int k = 0; k < scale; k ++)
+        {
+            multiplier *= 10;
+        }
+
+        return integer * multiplier + (fraction + 5) / 10;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,20 +1,40 @@
 package com.novaordis.gc.parser.linear;
 
 import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.DiscardedEvent;
 import com.novaordis.gc.parser.GCEventParser;
+import com.novaordis.gc.parser.GCEventParserBase;
 import com.novaordis.gc.parser.GCLogParser;
 import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.HeapSnapshot;
+import com.novaordis.gc.model.AdaptiveSizePolicy;
+import com.novaordis.gc.model.TenuringDistribution;
 import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.parser.LogSegment;
+import com.novaordis.gc.parser.LogSeeker;
 import com.novaordis.gc.parser.ParserException;
 import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
 import com.novaordis.gc.parser.linear.cms.CMSParser;
+import com.novaordis.gc.parser.linear.g1.G1Block;
+import com.novaordis.gc.parser.linear.g1.G1Parser;
 import org.apache.log4j.Logger;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * The linear scan parser receives the reader at construction time, and automatically closes it after the parsing
@@ -22,6 +42,15 @@ import java.util.regex.Pattern;
  *
  * This is the preferred parser.
  *
+ * If a time range is installed, the fragments whose timestamps fall before the range are skipped without being parsed,
+ * and the parsing stops at the first fragment that follows the range. If the parser was created for a file, it also
+ * seeks directly in the vicinity of the range's beginning.
+ *
+ * A parser created for a segment of a file only reads the segment, as if it were the whole file. This is how the
+ * segments written by successive JVM runs are parsed, each with its own time origin.
+ *
+ * @see MultiRunParser
+ *
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
  *
  * Copyright 2013 Nova Ordis LLC
@@ -32,6 +61,8 @@ public class LinearScanParser implements GCLogParser
 
     private static final Logger log = Logger.getLogger(LinearScanParser.class);
 
+    public static final String ABORT_PRECLEAN_PREFIX = " CMS: abort preclean due to time ";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -40,8 +71,25 @@ public class LinearScanParser implements GCLogParser
 
     private Reader reader;
 
-    // patterns to detect multi-line events
-    private List<Pattern> multiLineEventPatterns;
+    // the parser may be created for a file, in which case the reader is created when parsing starts
+    private File file;
+
+    // null means the whole file
+    private LogSegment segment;
+
+    // the number of the first line read
+    private long firstLineNumber;
+
+    // null means no range restriction
+    private TimeRange timeRange;
+
+    // null means all events are kept
+    private Predicate filter;
+
+    // the rules that join the lines of multi-line events
+    private List<ContinuationRule> continuationRules;
+
+    private boolean decodeHeapAtGC;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
@@ -57,7 +105,39 @@ public class LinearScanParser implements GCLogParser
     public LinearScanParser(Reader reader)
     {
         this.reader = reader;
-        this.multiLineEventPatterns = new ArrayList<Pattern>();
+        this.continuationRules = new ArrayList<ContinuationRule>();
+        this.decodeHeapAtGC = true;
+        this.firstLineNumber = 1L;
+    }
+
+    /**
+     * The file is opened when parse() is invoked. If the time range has a lower bound, the parser seeks into the file
+     * instead of reading it from the beginning.
+     *
+     * @param timeRange null means no restriction.
+     *
+     * @see com.novaordis.gc.parser.linear.LinearScanParser#LinearScanParser(java.io.Reader)
+     */
+    public LinearScanParser(File file, TimeRange timeRange)
+    {
+        this(file, null, timeRange);
+    }
+
+    /**
+     * Only reads the given segment of the file. If the time range has a lower bound, the parser seeks within the
+     * segment.
+     *
+     * @param segment null means the whole file.
+     * @param timeRange null means no restriction.
+     */
+    public LinearScanParser(File file, LogSegment segment, TimeRange timeRange)
+    {
+        this.file = file;
+        this.segment = segment;
+        this.timeRange = timeRange;
+        this.continuationRules = new ArrayList<ContinuationRule>();
+        this.decodeHeapAtGC = true;
+        this.firstLineNumber = 1L;
     }
 
     // GCLogParser implementation --------------------------------------------------------------------------------------
@@ -67,13 +147,11 @@ public class LinearScanParser implements GCLogParser
      *
      * <b>Multi-line events</b>
      *
-     * There are two mechanisms to deal with multi-line events: GCEvent.getActiveParser() (used by Shutdown, so far)
-     * and the read-ahead parsing (used by the '(concurrent mode failure)' events so far). Both are valid and time will
-     * decide whether we should keep both or refactor and coalesce.
+     * The lines are grouped into records by an EventAssembler, using the continuation rules installed on this parser,
+     * and each record is parsed as a unit. Records made of a header and detail lines (the heap summary logged on exit)
+     * are parsed by the parser that recognizes the header, which is handed the detail lines one by one.
      *
-     * For getActiveParser():
-     *
-     * @see com.novaordis.gc.model.event.GCEvent#getActiveParser()
+     * @see EventAssembler
      *
      * @see com.novaordis.gc.parser.GCLogParser#parse(com.novaordis.gc.parser.TimeOrigin)
      */
@@ -87,76 +165,75 @@ public class LinearScanParser implements GCLogParser
 
         List<GCEvent> gcEvents = new ArrayList<GCEvent>();
 
+        installFilter();
+
         BufferedReader br = null;
 
         ParserException lastLineException = null;
 
         try
         {
-            br = new BufferedReader(reader);
-
-            String events;
-            String readAheadLine;
-            String currentLine = null;
-            boolean done = false;
-            long lineNumber = 0;
+            br = new BufferedReader(reader != null ? reader : openReader(timeOrigin));
 
             //
-            // we're doing "read ahead" where we read a line in advance but we parse the current line - this is because
-            // the GC logger spreads events over two lines, and it's easier to aggregate the content and parse it as
-            // a unit than to use the GCEvent.getActiveParser() mechanism.
+            // the lines are grouped into records before being parsed: the GC logger spreads some events over several
+            // lines, and it's easier to aggregate the content and parse it as a unit. The tenuring distribution and the
+            // G1 block lines are not aggregated, they are decoded as they are read and attached to the collection they
+            // are logged within.
             //
 
-            while(!done)
-            {
-                readAheadLine = br.readLine();
+            EventAssembler assembler = new EventAssembler(br, continuationRules);
+            assembler.setDecodeHeapAtGC(decodeHeapAtGC);
+            assembler.setFirstLineNumber(firstLineNumber);
 
-                if (readAheadLine == null)
+            while(assembler.next())
+            {
+                if (lastLineException != null)
                 {
-                    //
-                    // there are no more lines in the file, process the current line and exit the loop
-                    //
-
-                    done = true;
+                    // the previous record generated an exception, stop parsing and bubble the exception up
+                    throw lastLineException;
                 }
 
-                if (currentLine == null)
+                int before = gcEvents.size();
+
+                try
                 {
-                    if (isTheSecondLineOfTheEvent(readAheadLine))
+                    if (assembler.getDetailCount() > 0)
                     {
-                        // this detects a currently unsupported pattern of more than two-line multi-line events
-                        throw new UserErrorException(
-                            "multi-line events with more than two lines not supported at this time, line " + lineNumber);
+                        parseBlock(assembler, gcEvents, processorPipeline, filter);
+                        continue;
                     }
-                    currentLine = readAheadLine;
-                    lineNumber ++;
-                    continue;
-                }
 
-                if (isTheSecondLineOfTheEvent(readAheadLine))
-                {
-                    events = currentLine + readAheadLine;
-                    currentLine = null;
-                }
-                else
-                {
-                    events = currentLine;
-                    currentLine = readAheadLine;
-                }
+                    if (processLine(assembler.getText(), assembler.getLineNumber(), timeOrigin, gcEvents,
+                        processorPipeline, timeRange, filter, assembler.getG1Block()))
+                    {
+                        log.debug("line " + assembler.getLineNumber() + " follows the time range " + timeRange +
+                            ", parsing done");
+                        break;
+                    }
 
-                if (lastLineException != null)
-                {
-                    // last line generated an exception, stop parsing and bubble the exception up
-                    throw lastLineException;
-                }
+                    TenuringDistribution tenuring = assembler.getTenuringDistribution();
 
-                try
-                {
-                    processLine(events, lineNumber++, timeOrigin, gcEvents, processorPipeline);
+                    if (tenuring != null)
+                    {
+                        attach(tenuring, gcEvents, before);
+                    }
+
+                    AdaptiveSizePolicy policy = assembler.getAdaptiveSizePolicy();
+
+                    if (policy != null)
+                    {
+                        attach(policy, gcEvents, before);
+                    }
+
+                    if (assembler.getHeapBefore() != null || assembler.getHeapAfter() != null)
+                    {
+                        attach(assembler.getHeapBefore(), assembler.getHeapAfter(), gcEvents, before);
+                    }
                 }
                 catch(ParserException e)
                 {
-                    // we don't bubble the exception up right away, we wait until we read the next line; this way we
+                    // we don't bubble the exception up right away, we wait until we read the next record; this way we
                     // simply ignore (and warn about) incomplete last lines
                     lastLineException = e;
                 }
@@ -186,43 +263,126 @@ public class LinearScanParser implements GCLogParser
 
     public void installDefaultPipeline()
     {
-        // place the CMS parser on the first position in line, to pick the CMS events that start with [GS ...
+        // place the CMS parser on the first position in line, to pick the CMS events that start with [GS ... The G1
+        // parser only claims the G1 headers, and it must see the heap-only full collections before the full collection
+        // parser does
         installPipeline(
+            new G1Parser(),
             new CMSParser(),
             new NewGenerationCollectionParser(),
             new FullCollectionParser(),
-            new ShutdownParser());
+            new ShutdownParser(),
+            new ApplicationTimeParser());
     }
 
-    public void addSecondLinePattern(Pattern p)
+    /**
+     * Installs a parser supplied by a GCEventParserProvider in front of the pipeline, after the provided parsers
+     * installed before it. The parser is only handed the fragments that start with one of the prefixes.
+     *
+     * @see com.novaordis.gc.parser.GCEventParserProvider
+     */
+    public void addProvidedParser(GCEventParser p, String[] prefixes)
     {
-        multiLineEventPatterns.add(p);
+        ProvidedParser pp = new ProvidedParser(p, new PrefixTable(prefixes));
+
+        if (!(processorPipeline instanceof ProvidedParser))
+        {
+            pp.setNext(processorPipeline);
+            processorPipeline = pp;
+            return;
+        }
+
+        GCEventParser last = processorPipeline;
+
+        while(last.getNext() instanceof ProvidedParser)
+        {
+            last = last.getNext();
+        }
+
+        pp.setNext(last.getNext());
+        last.setNext(pp);
     }
 
     /**
-     * @return the underlying list so handle with care.
+     * @param timeRange null means no restriction.
+     */
+    public void setTimeRange(TimeRange timeRange)
+    {
+        this.timeRange = timeRange;
+    }
+
+    public TimeRange getTimeRange()
+    {
+        return timeRange;
+    }
+
+    /**
+     * @return the segment of the file this parser reads, or null if it reads the whole file or a reader.
      */
-    public List<Pattern> getSecondLinePatterns()
+    public LogSegment getSegment()
     {
-        return multiLineEventPatterns;
+        return segment;
     }
 
     /**
-     * Currently there's no relationship between the line content and the event type. If such a relationship can be
-     * determined in the future, refactor this method.
+     * The filter is pushed down into the parsers of the pipeline, so the events it rejects are dropped as early as
+     * possible, usually before the memory information is decoded.
      *
+     * @param filter null means all events are kept.
+     */
+    public void setFilter(Predicate filter)
+    {
+        this.filter = filter;
+    }
+
+    public Predicate getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * @param b false to skip the -XX:+PrintHeapAtGC snapshots without decoding them, when they are not needed. They are
+     *          decoded and attached to their collections by default.
+     */
+    public void setDecodeHeapAtGC(boolean b)
+    {
+        this.decodeHeapAtGC = b;
+    }
+
+    public boolean isDecodeHeapAtGC()
+    {
+        return decodeHeapAtGC;
+    }
+
+    public void addContinuationRule(ContinuationRule r)
+    {
+        continuationRules.add(r);
+    }
+
+    /**
+     * @return the underlying list so handle with care.
+     */
+    public List<ContinuationRule> getContinuationRules()
+    {
+        return continuationRules;
+    }
+
+    /**
      * @param s may be null, which should not break the call.
+     *
+     * @return true if the line continues the event started on a previous line, according to the installed continuation
+     * rules.
      */
-    public boolean isTheSecondLineOfTheEvent(String s)
+    public boolean isContinuation(String s)
     {
         if (s == null)
         {
             return false;
         }
 
-        for(Pattern p: multiLineEventPatterns)
+        for(ContinuationRule r: continuationRules)
         {
-            if (p.matcher(s).matches())
+            if (r.continues(s))
             {
                 return true;
             }
@@ -324,19 +484,91 @@ public class LinearScanParser implements GCLogParser
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private void installFilter()
+    {
+        for(GCEventParser p = processorPipeline; p != null; p = p.getNext())
+        {
+            if (p instanceof GCEventParserBase)
+            {
+                ((GCEventParserBase)p).setFilter(filter);
+            }
+        }
+    }
+
+    /**
+     * Opens the file, positioned at the beginning of the segment, or in the vicinity of the time range's beginning, if
+     * there is one.
+     */
+    private Reader openReader(TimeOrigin timeOrigin) throws Exception
+    {
+        if (file == null)
+        {
+            throw new IllegalStateException("no reader and no file");
+        }
+
+        FileInputStream fis = new FileInputStream(file);
+
+        try
+        {
+            FileChannel channel = fis.getChannel();
+            long start = segment == null ? 0L : segment.getStart();
+            long end = segment == null ? channel.size() : segment.getEnd();
+            long position = 0L;
+
+            firstLineNumber = segment == null ? 1L : segment.getFirstLineNumber();
+
+            if (timeRange != null && timeRange.hasLowerBound())
+            {
+                long size = end - start;
+
+                // map the file if we can, otherwise fall back to positional reads
+                LogSeeker seeker = size <= Integer.MAX_VALUE ?
+                    new LogSeeker(channel.map(FileChannel.MapMode.READ_ONLY, start, size)) :
+                    new LogSeeker(channel, start, end);
+
+                position = seeker.seek(timeRange, timeOrigin.get());
+
+                if (position > 0)
+                {
+                    log.info("seeking to byte " + (start + position) + " of " + file +
+                        ", line numbers will be relative to it");
+                    firstLineNumber = 1L;
+                }
+            }
+
+            channel.position(start + position);
+
+            // same encoding as FileReader
+            return new InputStreamReader(segment == null ? fis : new SegmentInputStream(fis, end - start - position));
+        }
+        catch(Exception e)
+        {
+            fis.close();
+            throw e;
+        }
+    }
+
     /**
      * Parse a line, which may contain multiple GC events.
      *
+     * @param timeRange may be null.
+     * @param filter may be null.
+     * @param g1Block the G1 block logged after the line, possibly empty.
+     *
+     * @return true if a fragment following the time range was encountered, so parsing can stop.
+     *
      * @throws Exception
      * @throws com.novaordis.gc.UserErrorException
      */
-    private static void processLine(String line, long lineNumber, TimeOrigin timeOrigin,
-                                    List<GCEvent> events, GCEventParser processorPipeline) throws Exception
+    private static boolean processLine(String line, long lineNumber, TimeOrigin timeOrigin, List<GCEvent> events,
+                                       GCEventParser processorPipeline, TimeRange timeRange, Predicate filter,
+                                       G1Block g1Block)
+        throws Exception
     {
         if (line == null)
         {
             // recursion exit
-            return;
+            return false;
         }
 
         if (events == null)
@@ -344,11 +576,20 @@ public class LinearScanParser implements GCLogParser
             throw new IllegalArgumentException("null events list");
         }
 
+        if (line.startsWith(ABORT_PRECLEAN_PREFIX))
+        {
+            // the abortable preclean end is prefixed with the abort reason, which hides its timestamp
+            line = line.substring(ABORT_PRECLEAN_PREFIX.length());
+        }
+
         // identify timestamps and break the line in pieces so each of the piece starts with a timestamp;
         // this is necessary because sometimes we encounter more than one timestamped event per line
 
         int from = 0;
 
+        // a cause cut out of a fragment that did not produce an event yet, see parseEvent()
+        String cause = null;
+
         while(from < line.length())
         {
             int fragmentStart, fragmentEnd;
@@ -381,10 +622,29 @@ public class LinearScanParser implements GCLogParser
 
             applyTimeOriginOnTimeStamps(timeOrigin, ts, ts2, lineNumber);
 
-            parseEvent(ts, eventFragment, events, processorPipeline, lineNumber);
+            if (timeRange != null && ts != null)
+            {
+                int position = timeRange.position(ts, timeOrigin.get());
+
+                if (position == TimeRange.AFTER)
+                {
+                    return true;
+                }
+
+                if (position == TimeRange.BEFORE)
+                {
+                    // skip without parsing
+                    from = fragmentEnd;
+                    continue;
+                }
+            }
+
+            cause = parseEvent(ts, eventFragment, cause, events, processorPipeline, filter, g1Block, lineNumber);
 
             from = fragmentEnd;
         }
+
+        return false;
     }
 
     /**
@@ -394,38 +654,80 @@ public class LinearScanParser implements GCLogParser
      * @param ts - the timestamp. Some GC events (such as SHUTDOWN) do not have a timestamp, so a null ts is legal.
      * @param eventFragment - guaranteed to contain data for a <b>single</b> GC event. If we identify a timestamp
      *                      in it, then there's something is wrong.
+     * @param pendingCause - the GC cause found on a previous fragment of the same line, that was not claimed by an
+     *                     event. Some events start with a fragment that does not produce an event by itself, the JDK 8
+     *                     CMS remark logs "[GC (CMS Final Remark) [YG occupancy: ...]" followed by the remark phases.
+     *                     May be null.
+     * @param filter - may be null.
+     * @param g1Block - the G1 block logged after the line. It belongs to the first event of the line, which is the G1
+     *                pause header.
+     *
+     * @return the cause to carry over to the next fragment of the line, or null.
      */
-    private static void parseEvent(Timestamp ts, String eventFragment, List<GCEvent> events,
-                                   GCEventParser processorPipeline, long lineNumber) throws Exception
+    private static String parseEvent(Timestamp ts, String eventFragment, String pendingCause, List<GCEvent> events,
+                                     GCEventParser processorPipeline, Predicate filter, G1Block g1Block,
+                                     long lineNumber) throws Exception
     {
-        // look up an appropriate parser - it's either one from the processing pipeline or the parser associated
-        // with the last event, in the case of a multi-line event
+        GCEventParser crtParser = processorPipeline;
 
-        GCEvent crtEvent;
-        GCEventParser crtParser;
+        // the cause ("[GC (Allocation Failure) ...") is the same for all event types, so it is handled here: it is cut
+        // out of the header, so the parsers only have to know the header without cause
+        String cause = pendingCause;
+        int[] c = LineUtil.findCause(eventFragment);
 
-        if (events.isEmpty() || ((crtParser = (crtEvent = events.get(events.size() - 1)).getActiveParser()) == null))
+        if (c != null)
         {
-            // no active parser associated with the last event, nullify the "current event" and use the pipeline for
-            // parsing
-            crtEvent = null;
-            crtParser = processorPipeline;
+            cause = GCCause.intern(eventFragment, c[0], c[1]);
+            eventFragment = eventFragment.substring(0, c[0] - 2) + eventFragment.substring(c[1] + 1);
         }
 
         while (crtParser != null)
         {
-            GCEvent event = crtParser.parse(ts, eventFragment, lineNumber, crtEvent);
+            GCEvent event = crtParser.parse(ts, eventFragment, lineNumber, null);
+
+            if (event == DiscardedEvent.INSTANCE)
+            {
+                // recognized, but rejected by the filter, or the beginning of an event that continues on the next
+                // fragment
+                return cause;
+            }
 
             if (event != null)
             {
-                // add it, unless it is already there
+                String unclaimed = cause;
+
+                if (event instanceof GCEventBase)
+                {
+                    // the "[Times: ...]" block is the same for all event types, so it is handled here
+                    long[] times = LineUtil.parseTimes(eventFragment);
+
+                    if (times != null)
+                    {
+                        ((GCEventBase)event).setTimes(times[0], times[1], times[2]);
+                    }
+
+                    // the block is added before the filter is applied, as it carries the memory information
+                    if (!g1Block.isEmpty())
+                    {
+                        g1Block.applyTo((GCEventBase)event);
+                    }
+
+                    // a carried over cause can only belong to a collection, not to a concurrent phase
+                    if (cause != null && (c != null || event.getCollectionType().stopTheWorld))
+                    {
+                        ((GCEventBase)event).setCause(cause);
+                        unclaimed = null;
+                    }
+                }
+
+                // add it, unless the filter rejects it
 
-                if (!event.equals(crtEvent))
+                if (filter == null || filter.accepts(event))
                 {
                     events.add(event);
                 }
 
-                return;
+                return unclaimed;
             }
             else
             {
@@ -437,7 +739,179 @@ public class LinearScanParser implements GCLogParser
         // we reached the bottom of the GCEventParser pipeline,  we weren't able to find any event in the fragment,
         // we don't know how to parse this log entry, bail out
         log.warn("don't know to parse line " + lineNumber + ", fragment \"" + eventFragment + "\"");
+        return null;
+    }
+
+    /**
+     * Parses a record made of a header and detail lines: the parser that recognizes the header creates the event, and
+     * it is handed the detail lines one by one, together with the event. The header has no timestamp.
+     *
+     * @param filter - may be null. It is applied after all detail lines were parsed, as they carry the event's values.
+     */
+    private static void parseBlock(EventAssembler assembler, List<GCEvent> events, GCEventParser processorPipeline,
+                                   Predicate filter) throws Exception
+    {
+        String header = assembler.getText();
+        long lineNumber = assembler.getLineNumber();
+
+        for(GCEventParser p = processorPipeline; p != null; p = p.getNext())
+        {
+            GCEvent event = p.parse(null, header, lineNumber, null);
+
+            if (event == null)
+            {
+                continue;
+            }
+
+            if (event == DiscardedEvent.INSTANCE)
+            {
+                return;
+            }
+
+            for(int i = 0; i < assembler.getDetailCount(); i ++)
+            {
+                p.parse(null, assembler.getDetail(i), assembler.getDetailLineNumber(i), event);
+            }
+
+            if (filter == null || filter.accepts(event))
+            {
+                events.add(event);
+            }
+
+            return;
+        }
+
+        log.warn("don't know to parse line " + lineNumber + ", fragment \"" + header + "\"");
+    }
+
+    /**
+     * Attaches the -XX:+PrintHeapAtGC snapshots to the last stop-the-world collection parsed from the event lines, if
+     * any.
+     *
+     * @param from the index of the first event parsed from the event lines.
+     */
+    private static void attach(HeapSnapshot before, HeapSnapshot after, List<GCEvent> events, int from)
+    {
+        for(int i = events.size() - 1; i >= from; i --)
+        {
+            GCEvent e = events.get(i);
+
+            if (e instanceof GCEventBase && e.getCollectionType().stopTheWorld)
+            {
+                ((GCEventBase)e).setHeapAtGC(before, after);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attaches the adaptive size policy decisions to the last stop-the-world collection parsed from the event lines, if
+     * any.
+     *
+     * @param from the index of the first event parsed from the event lines.
+     */
+    private static void attach(AdaptiveSizePolicy p, List<GCEvent> events, int from)
+    {
+        for(int i = events.size() - 1; i >= from; i --)
+        {
+            GCEvent e = events.get(i);
+
+            if (e instanceof GCEventBase && e.getCollectionType().stopTheWorld)
+            {
+                ((GCEventBase)e).setAdaptiveSizePolicy(p);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attaches the tenuring distribution to the last new generation collection parsed from the event lines, if any.
+     *
+     * @param from the index of the first event parsed from the event lines.
+     */
+    private static void attach(TenuringDistribution d, List<GCEvent> events, int from)
+    {
+        for(int i = events.size() - 1; i >= from; i --)
+        {
+            GCEvent e = events.get(i);
+
+            if (e instanceof NewGenerationCollection)
+            {
+                ((NewGenerationCollection)e).setTenuringDistribution(d);
+                return;
+            }
+        }
     }
 
     // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Ends the stream at the end of the segment.
+     */
+    private static class SegmentInputStream extends FilterInputStream
+    {
+        private long remaining;
+
+        private SegmentInputStream(InputStream in, long length)
+        {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (remaining <= 0)
+            {
+                return -1;
+            }
+
+            int b = in.read();
+
+            if (b != -1)
+            {
+                remaining --;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (remaining <= 0)
+            {
+                return -1;
+            }
+
+            int n = in.read(b, off, (int)Math.min(len, remaining));
+
+            if (n > 0)
+            {
+                remaining -= n;
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            return (int)Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,275 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.Restart;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.LogSegment;
+import com.novaordis.gc.parser.TimeOrigin;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a log appended to across JVM restarts: each segment written by a JVM run is parsed by its own LinearScanParser,
+ * with its own time origin, and the segments are parsed in parallel. The events are returned in the order of the
+ * segments, with a Restart event between the events of successive runs.
+ *
+ * The time origin of the first run is the one the parsing is invoked with. The time origin of each of the following
+ * runs is inferred from its date stamps. If the run is not date stamped, its time origin is estimated as the time of
+ * the last timestamped line of the previous run: the JVM could not have started earlier, and it is usually restarted
+ * shortly after. The estimate is logged.
+ *
+ * @see com.novaordis.gc.parser.LogSegmenter
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MultiRunParser implements GCLogParser
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(MultiRunParser.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<LinearScanParser> parsers;
+
+    // null means all events are kept
+    private Predicate filter;
+
+    private int threads;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param parsers one parser per segment, in the order of the segments. Each parser must be created for its segment
+     *        and fully configured.
+     *
+     * @see LinearScanParser#LinearScanParser(java.io.File, com.novaordis.gc.parser.LogSegment,
+     *      com.novaordis.gc.parser.TimeRange)
+     */
+    public MultiRunParser(List<LinearScanParser> parsers)
+    {
+        for(LinearScanParser p: parsers)
+        {
+            if (p.getSegment() == null)
+            {
+                throw new IllegalArgumentException(p + " was not created for a segment");
+            }
+        }
+
+        this.parsers = parsers;
+        this.threads = Math.min(parsers.size(), Runtime.getRuntime().availableProcessors());
+    }
+
+    // GCLogParser implementation --------------------------------------------------------------------------------------
+
+    @Override
+    public List<GCEvent> parse(TimeOrigin timeOrigin) throws Exception
+    {
+        if (timeOrigin == null)
+        {
+            throw new IllegalArgumentException("null time origin wrapper");
+        }
+
+        TimeOrigin[] origins = getTimeOrigins(timeOrigin);
+
+        List<List<GCEvent>> runs = new ArrayList<List<GCEvent>>();
+
+        if (threads <= 1 || log.isDebugEnabled())
+        {
+            // the debug messages render the events with shared, non thread safe formats
+            for(int i = 0; i < parsers.size(); i ++)
+            {
+                runs.add(parsers.get(i).parse(origins[i]));
+            }
+        }
+        else
+        {
+            runs = parseInParallel(origins);
+        }
+
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        for(int i = 0; i < runs.size(); i ++)
+        {
+            List<GCEvent> run = runs.get(i);
+
+            if (!events.isEmpty() && !run.isEmpty())
+            {
+                LogSegment s = parsers.get(i).getSegment();
+                Restart r = new Restart(s.getIndex(), s.getBoundary(), origins[i].get());
+
+                if (filter == null || filter.accepts(r))
+                {
+                    events.add(r);
+                }
+            }
+
+            events.addAll(run);
+        }
+
+        log.debug("parsing done, " + parsers.size() + " runs");
+
+        return events;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Only applies to the Restart events, the parsers of the segments are expected to have the filter installed.
+     *
+     * @param filter null means all events are kept.
+     */
+    public void setFilter(Predicate filter)
+    {
+        this.filter = filter;
+    }
+
+    public Predicate getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * @return the segments, in the order they occur in the file.
+     */
+    public List<LogSegment> getSegments()
+    {
+        List<LogSegment> segments = new ArrayList<LogSegment>();
+
+        for(LinearScanParser p: parsers)
+        {
+            segments.add(p.getSegment());
+        }
+
+        return segments;
+    }
+
+    /**
+     * @param threads the maximum number of segments parsed at the same time. Defaults to the number of processors.
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MultiRunParser[" + parsers.size() + " runs]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * @param first the time origin of the first run.
+     */
+    TimeOrigin[] getTimeOrigins(TimeOrigin first)
+    {
+        TimeOrigin[] origins = new TimeOrigin[parsers.size()];
+        origins[0] = first;
+
+        if (!first.isInitialized())
+        {
+            first.initialize(parsers.get(0).getSegment().getTimeOrigin());
+        }
+
+        for(int i = 1; i < origins.length; i ++)
+        {
+            LogSegment s = parsers.get(i).getSegment();
+            Long origin = s.getTimeOrigin();
+
+            if (origin == null)
+            {
+                Long previous = origins[i - 1].get();
+                Long lastOffset = parsers.get(i - 1).getSegment().getLastOffset();
+
+                if (previous != null && lastOffset != null)
+                {
+                    origin = previous + lastOffset;
+                    log.warn("run " + i + " starting on line " + s.getFirstLineNumber() +
+                        " is not date stamped, its time origin is estimated to be the end of the previous run");
+                }
+            }
+
+            origins[i] = new TimeOrigin(origin);
+        }
+
+        return origins;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private List<List<GCEvent>> parseInParallel(TimeOrigin[] origins) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try
+        {
+            List<Future<List<GCEvent>>> futures = new ArrayList<Future<List<GCEvent>>>();
+
+            for(int i = 0; i < parsers.size(); i ++)
+            {
+                final LinearScanParser p = parsers.get(i);
+                final TimeOrigin origin = origins[i];
+
+                futures.add(executor.submit(new Callable<List<GCEvent>>()
+                {
+                    @Override
+                    public List<GCEvent> call() throws Exception
+                    {
+                        return p.parse(origin);
+                    }
+                }));
+            }
+
+            List<List<GCEvent>> runs = new ArrayList<List<GCEvent>>();
+
+            for(Future<List<GCEvent>> f: futures)
+            {
+                try
+                {
+                    runs.add(f.get());
+                }
+                catch(ExecutionException e)
+                {
+                    // bubble up the parser's own exception, so user errors are reported as such
+                    Throwable cause = e.getCause();
+
+                    if (cause instanceof Exception)
+                    {
+                        throw (Exception)cause;
+                    }
+
+                    throw (Error)cause;
+                }
+            }
+
+            return runs;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
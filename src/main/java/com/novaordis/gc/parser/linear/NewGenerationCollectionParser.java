@@ -1,9 +1,12 @@
 package com.novaordis.gc.parser.linear;
 
+import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.event.GCEvent;
 import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.serial.DefNewCollection;
 import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.DiscardedEvent;
 import com.novaordis.gc.parser.Duration;
 import com.novaordis.gc.parser.GCEventParserBase;
 import com.novaordis.gc.parser.ParserException;
@@ -45,6 +48,11 @@ public class NewGenerationCollectionParser extends GCEventParserBase
      * [GC 1.985: [ParNew: 136320K->6357K(153344K), 0.0083580 secs] 136320K->6357K(4177280K), 0.0085020 secs] [Times: user=0.05 sys=0.01, real=0.01 secs]
      * [GC2014-08-13T21:55:10.974-0700: 15199.189: [ParNew: 430920K->12879K(471872K), 0.0136920 secs] 750819K->333153K(4141888K) icms_dc=0 , 0.0137990 secs] [Times: user=0.07 sys=0.00, real=0.01 secs]
      *
+     * Serial collector:
+     *
+     * [GC 4.993: [DefNew: 204800K->20403K(307200K), 0.0417850 secs] 204800K->20403K(1126400K), 0.0418540 secs] [Times: user=0.02 sys=0.02, real=0.04 secs]
+     * [GC 1080.181: [DefNew (promotion failed) : 256020K->243246K(307200K), 0.0986650 secs]
+     *
      * Note that at the time of writing, I did not know what the difference between "GC" and "GC--" is, and I am
      * considering them equivalent.
      *
@@ -65,6 +73,11 @@ public class NewGenerationCollectionParser extends GCEventParserBase
                 return null;
             }
 
+            if (isExcluded())
+            {
+                return DiscardedEvent.INSTANCE;
+            }
+
             List<String> tokens = LineUtil.toSquareBracketTokens(line, lineNumber);
 
             // only use the first token, go down one level
@@ -74,24 +87,26 @@ public class NewGenerationCollectionParser extends GCEventParserBase
 
             String hs = tokens.get(0);
 
-            // sanity check: verify that line start timestamp precedes embedded timestamp; save the embedded timestamp
-            // if the line start timestamp is smaller than the embedded timestamp
+            // save the embedded timestamp if it does not match the line start timestamp
             Timestamp embeddedTs;
             String embeddedTsLiteral = null;
 
             if (hs.startsWith("GC ") &&
-                ((embeddedTs = Timestamp.find(hs.substring("GC ".length()) + " ", 0, lineNumber)) != null))
+                ((embeddedTs = Timestamp.find(hs.substring("GC ".length()) + " ", 0, lineNumber)) != null) &&
+                ts.getOffset() != null && !ts.getOffset().equals(embeddedTs.getOffset()))
             {
-                if (ts.getOffset() > embeddedTs.getOffset())
-                {
-                    throw new IllegalStateException("embedded offset " + hs + " precedes line start offset " + ts.getLiteral() + " on line " + lineNumber);
-                }
-                else if (ts.getOffset() < embeddedTs.getOffset())
+                if (embeddedTs.getOffset() != null && ts.getOffset() > embeddedTs.getOffset())
                 {
-                    // we've seen this happening, the leading offset not matching the embedded offset; we keep
-                    // the embedded timestamp around just in case
-                    embeddedTsLiteral = embeddedTs.getLiteral();
+                    // the embedded offset precedes the line start offset: the line was torn by a JVM restart, and the
+                    // new run appended to the unfinished line of the previous one, or the offsets were rounded
+                    // differently; the line start offset is kept, as it is consistent with the lines around it
+                    log.warn("embedded offset " + hs + " precedes line start offset " + ts.getLiteral() + " on line " +
+                        lineNumber);
                 }
+
+                // we've seen this happening, the leading offset not matching the embedded offset; we keep the embedded
+                // timestamp around just in case
+                embeddedTsLiteral = embeddedTs.getLiteral();
             }
 
             //
@@ -102,6 +117,7 @@ public class NewGenerationCollectionParser extends GCEventParserBase
 
             String notes = null;
             String ngs = tokens.get(1);
+            boolean defNew = false;
 
             // sanity check - if we don't recognize the format, discard the line
 
@@ -121,7 +137,7 @@ public class NewGenerationCollectionParser extends GCEventParserBase
                     // record a new generation collection event that does not collect anything and mark it with
                     // a "promotion failed" badge
                     ngs = ngs.substring("ParNew (promotion failed): ".length());
-                    notes = "promotion failed";
+                    notes = NewGenerationCollection.PROMOTION_FAILED;
                 }
                 else
                 {
@@ -138,37 +154,34 @@ public class NewGenerationCollectionParser extends GCEventParserBase
             }
             else if (ngs.startsWith("DefNew"))
             {
+                defNew = true;
+
                 if (ngs.startsWith("DefNew: "))
                 {
                     ngs = ngs.substring("DefNew: ".length());
-
-                    // introduce duration back into the token list so we can process it with the standard code
-                    String duration = ngs.substring(ngs.indexOf(',') + 1).trim();
-                    // fill for heap
-                    tokens.add(null);
-                    // then add duration
-                    tokens.add(duration);
-                    ngs = ngs.replaceFirst(",.*", "");
                 }
                 else if (ngs.startsWith("DefNew (promotion failed) : "))
                 {
                     // record a new generation collection event that does not collect anything and mark it with
                     // a "promotion failed" badge
                     ngs = ngs.substring("DefNew (promotion failed) : ".length());
-                    notes = "promotion failed";
+                    notes = NewGenerationCollection.PROMOTION_FAILED;
                 }
                 else
                 {
                     throw new Exception("unknown new generation line: \"" + line + "\"");
                 }
 
-                // introduce duration back into the token list so we can process it with the standard code
-                String duration = ngs.substring(ngs.indexOf(',') + 1).trim();
-                // fill for heap
-                tokens.add(null);
-                // then add duration
-                tokens.add(duration);
-                ngs = ngs.replaceFirst(",.*", "");
+                // the young generation segment of a collection that fell back to the old generation ends the
+                // fragment, the old generation segment is parsed as a full collection
+                // (see FullCollectionParser.parseTenured())
+                if (tokens.size() == 2)
+                {
+                    tokens.add(null);
+                    tokens.add(ngs.substring(ngs.indexOf(',') + 1).trim());
+                }
+
+                ngs = ngs.substring(0, ngs.indexOf(','));
             }
             else if (line.contains("YG occupancy"))
             {
@@ -177,16 +190,33 @@ public class NewGenerationCollectionParser extends GCEventParserBase
             }
             else
             {
-                throw new Exception("expecting \"PSYoungGen:|ParNew ...\" and got \"" + ngs + "\"");
+                throw new Exception("expecting \"PSYoungGen:|ParNew ...|DefNew ...\" and got \"" + ngs + "\"");
+            }
+
+            long duration = 0L;
+
+            if (tokens.size() > 3)
+            {
+                //
+                // duration - extracted first, the filter may reject the event based on it, in which case we don't
+                // need to decode the memory information
+                //
+
+                String durationString = tokens.get(3);
+                duration = Duration.toLongMilliseconds(durationString, lineNumber);
+            }
+
+            if (isFilteredOut(CollectionType.NEW_GENERATION_COLLECTION, duration))
+            {
+                return DiscardedEvent.INSTANCE;
             }
 
             BeforeAfterMax ng = new BeforeAfterMax(ngs, lineNumber);
             BeforeAfterMax heap = null;
-            long duration = 0L;
 
             //
-            // verify we have "entire heap" ("1696478K->1696127K(5916352K)") and duration information and if we do,
-            // record that as well
+            // verify we have "entire heap" ("1696478K->1696127K(5916352K)") information and if we do, record that as
+            // well
             //
 
             if (tokens.size() > 2)
@@ -199,17 +229,9 @@ public class NewGenerationCollectionParser extends GCEventParserBase
                 }
             }
 
-            if (tokens.size() > 3)
-            {
-                //
-                // duration
-                //
-
-                String durationString = tokens.get(3);
-                duration = Duration.toLongMilliseconds(durationString, lineNumber);
-            }
-
-            NewGenerationCollection event = new NewGenerationCollection(ts, duration, ng, heap, notes, embeddedTsLiteral);
+            NewGenerationCollection event = defNew ?
+                new DefNewCollection(ts, duration, ng, heap, notes, embeddedTsLiteral) :
+                new NewGenerationCollection(ts, duration, ng, heap, notes, embeddedTsLiteral);
 
             log.debug(event);
             return event;
@@ -230,6 +252,12 @@ public class NewGenerationCollectionParser extends GCEventParserBase
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    @Override
+    public CollectionType[] getCollectionTypes()
+    {
+        return new CollectionType[] { CollectionType.NEW_GENERATION_COLLECTION };
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -0,0 +1,68 @@
+package com.novaordis.gc.parser.linear;
+
+/**
+ * Claims the lines that start with the given prefix, optionally preceded by whitespace: " (concurrent mode failure): ..."
+ * or " [PSYoungGen: ...".
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PrefixContinuationRule implements ContinuationRule
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String prefix;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public PrefixContinuationRule(String prefix)
+    {
+        if (prefix == null || prefix.length() == 0)
+        {
+            throw new IllegalArgumentException("null or empty prefix");
+        }
+
+        this.prefix = prefix;
+    }
+
+    // ContinuationRule implementation -----------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean continues(String line)
+    {
+        int i = 0;
+
+        while(i < line.length() && Character.isWhitespace(line.charAt(i)))
+        {
+            i ++;
+        }
+
+        return line.startsWith(prefix, i);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    public String getPrefix()
+    {
+        return prefix;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PrefixContinuationRule[\"" + prefix + "\"]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,123 @@
+package com.novaordis.gc.parser.linear;
+
+import java.util.Arrays;
+
+/**
+ * A set of prefixes, compiled into a table indexed by their first character, so that finding whether a string starts
+ * with one of them costs a table lookup, and a comparison with the few prefixes that share the first character of the
+ * string. The strings whose first character starts no prefix are rejected without any comparison.
+ *
+ * Immutable, thus thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PrefixTable
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // the prefixes starting with a character above this are kept in a single overflow bucket
+    private static final int TABLE_SIZE = 128;
+
+    private static final String[] NONE = new String[0];
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private String[][] table;
+    private String[] overflow;
+    private int size;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @exception IllegalArgumentException on a null or empty prefix.
+     */
+    public PrefixTable(String... prefixes)
+    {
+        this.table = new String[TABLE_SIZE][];
+        this.overflow = NONE;
+
+        for(String p: prefixes)
+        {
+            if (p == null || p.length() == 0)
+            {
+                throw new IllegalArgumentException("null or empty prefix");
+            }
+
+            char c = p.charAt(0);
+
+            if (c < TABLE_SIZE)
+            {
+                table[c] = add(table[c] == null ? NONE : table[c], p);
+            }
+            else
+            {
+                overflow = add(overflow, p);
+            }
+
+            size ++;
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param s never null.
+     *
+     * @return true if the string starts with one of the prefixes.
+     */
+    public boolean matches(String s)
+    {
+        if (s.length() == 0)
+        {
+            return false;
+        }
+
+        char c = s.charAt(0);
+        String[] bucket = c < TABLE_SIZE ? table[c] : overflow;
+
+        if (bucket == null)
+        {
+            return false;
+        }
+
+        for(String p: bucket)
+        {
+            if (s.startsWith(p))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PrefixTable[" + size + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static String[] add(String[] bucket, String p)
+    {
+        String[] extended = Arrays.copyOf(bucket, bucket.length + 1);
+        extended[bucket.length] = p;
+        return extended;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,86 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.GCEventParser;
+import com.novaordis.gc.parser.GCEventParserBase;
+
+/**
+ * The pipeline element of a parser installed by a GCEventParserProvider: only hands the parser the fragments that
+ * start with one of the provider's prefixes, and the detail lines of the records the parser claimed. The parser itself
+ * is not linked into the pipeline, so an instance can be shared by several pipelines.
+ *
+ * @see com.novaordis.gc.parser.GCEventParserProvider
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+class ProvidedParser extends GCEventParserBase
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private GCEventParser delegate;
+    private PrefixTable prefixes;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    ProvidedParser(GCEventParser delegate, PrefixTable prefixes)
+    {
+        this.delegate = delegate;
+        this.prefixes = prefixes;
+    }
+
+    // GCEventParser implementation ------------------------------------------------------------------------------------
+
+    @Override
+    public GCEvent parse(Timestamp ts, String line, long lineNumber, GCEvent current) throws Exception
+    {
+        if (current == null && !prefixes.matches(line))
+        {
+            return null;
+        }
+
+        return delegate.parse(ts, line, lineNumber, current);
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * The filter is passed on, if the parser accepts one.
+     */
+    @Override
+    public void setFilter(Predicate filter)
+    {
+        super.setFilter(filter);
+
+        if (delegate instanceof GCEventParserBase)
+        {
+            ((GCEventParserBase)delegate).setFilter(filter);
+        }
+    }
+
+    public GCEventParser getDelegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProvidedParser[" + delegate + ", " + prefixes + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
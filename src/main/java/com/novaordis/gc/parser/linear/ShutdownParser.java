@@ -1,10 +1,15 @@
 package com.novaordis.gc.parser.linear;
 
+import com.novaordis.gc.model.Field;
+import com.novaordis.gc.model.FieldType;
 import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.Util;
 import com.novaordis.gc.model.event.Shutdown;
 import com.novaordis.gc.model.event.GCEvent;
 import com.novaordis.gc.parser.GCEventParserBase;
 import com.novaordis.gc.parser.ParserException;
+import org.apache.log4j.Logger;
 
 /**
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
@@ -15,8 +20,68 @@ public class ShutdownParser extends GCEventParserBase
 {
     // Constants ---------------------------------------------------------------------------------------------------------------------------
 
+    private static final Logger log = Logger.getLogger(ShutdownParser.class);
+
+    private static final String METASPACE_PREFIX = "Metaspace ";
+
+    private static final String CLASS_SPACE_PREFIX = "class space ";
+
     // Static ------------------------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Parses a memory value that follows the given label ("used 2994K") without creating intermediate objects.
+     *
+     * @return the value in bytes, or -1 if the label is not present or it is not followed by a memory value.
+     */
+    static long parseMemory(String line, String label)
+    {
+        int i = line.indexOf(label);
+
+        if (i == -1)
+        {
+            return -1L;
+        }
+
+        long value = 0L;
+        boolean digits = false;
+        int j = i + label.length();
+
+        for(; j < line.length(); j ++)
+        {
+            char c = line.charAt(j);
+
+            if (c < '0' || c > '9')
+            {
+                break;
+            }
+
+            value = value * 10 + (c - '0');
+            digits = true;
+        }
+
+        if (!digits || j == line.length())
+        {
+            return -1L;
+        }
+
+        char u = line.charAt(j);
+
+        if (u == 'K')
+        {
+            return Util.convertToBytes(Unit.K, value);
+        }
+        else if (u == 'M')
+        {
+            return Util.convertToBytes(Unit.M, value);
+        }
+        else if (u == 'G')
+        {
+            return Util.convertToBytes(Unit.G, value);
+        }
+
+        return -1L;
+    }
+
     // Attributes --------------------------------------------------------------------------------------------------------------------------
 
     // Constructors ------------------------------------------------------------------------------------------------------------------------
@@ -36,6 +101,11 @@ public class ShutdownParser extends GCEventParserBase
      *  PSPermGen       total 265536K, used 265525K [0x0000000660000000, 0x0000000670350000, 0x0000000680000000)
      *   object space 265536K, 99% used [0x0000000660000000,0x000000067034d518,0x0000000670350000)
      *
+     * JDK 8 and newer replace the permanent generation with the metaspace, which is decoded into fields:
+     *
+     *  Metaspace       used 2994K, capacity 4486K, committed 4864K, reserved 1056768K
+     *   class space    used 327K, capacity 386K, committed 512K, reserved 1048576K
+     *
      * @see com.novaordis.gc.parser.GCEventParser#parse(com.novaordis.gc.model.Timestamp, String, long, GCEvent)
      */
     @Override
@@ -57,7 +127,7 @@ public class ShutdownParser extends GCEventParserBase
                     "we identified a Shutdown event on line " + lineNumber + ", but the timestamp is not null: " + ts, lineNumber);
             }
 
-            return new Shutdown(this);
+            return new Shutdown();
         }
         else
         {
@@ -70,10 +140,29 @@ public class ShutdownParser extends GCEventParserBase
 
             Shutdown crt = (Shutdown)event;
 
-            // TODO for the time being we ignore the content of all lines
-
             crt.addLine(line);
 
+            // the summary has the same format as the -XX:+PrintHeapAtGC blocks
+            if (!crt.getHeapSnapshot().parseLine(line))
+            {
+                log.warn("invalid heap summary line " + lineNumber + ": \"" + line + "\"");
+            }
+
+            String trimmed = line.trim();
+
+            if (trimmed.startsWith(METASPACE_PREFIX))
+            {
+                set(crt, FieldType.METASPACE, parseMemory(trimmed, "used "));
+                set(crt, FieldType.METASPACE_COMMITTED, parseMemory(trimmed, "committed "));
+                set(crt, FieldType.METASPACE_RESERVED, parseMemory(trimmed, "reserved "));
+            }
+            else if (trimmed.startsWith(CLASS_SPACE_PREFIX))
+            {
+                set(crt, FieldType.CLASS_SPACE, parseMemory(trimmed, "used "));
+                set(crt, FieldType.CLASS_SPACE_COMMITTED, parseMemory(trimmed, "committed "));
+                set(crt, FieldType.CLASS_SPACE_RESERVED, parseMemory(trimmed, "reserved "));
+            }
+
             return crt;
         }
     }
@@ -86,6 +175,14 @@ public class ShutdownParser extends GCEventParserBase
 
     // Private -----------------------------------------------------------------------------------------------------------------------------
 
+    private static void set(Shutdown s, FieldType t, long bytes)
+    {
+        if (bytes >= 0)
+        {
+            s.setField(t, new Field(t, bytes));
+        }
+    }
+
     // Inner classes -----------------------------------------------------------------------------------------------------------------------
 }
 
@@ -0,0 +1,65 @@
+package com.novaordis.gc.parser.linear;
+
+/**
+ * Claims the remainder of a ParNew or DefNew collection interrupted by its tenuring distribution, which starts with the
+ * young generation occupancy transition: ": 58943K->6528K(58944K), 0.0234560 secs] ...".
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TransitionContinuationRule implements ContinuationRule
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final String ARROW = "K->";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // ContinuationRule implementation -----------------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean continues(String line)
+    {
+        if (line.length() == 0 || line.charAt(0) != ':')
+        {
+            return false;
+        }
+
+        int i = 1;
+
+        while(i < line.length() && Character.isWhitespace(line.charAt(i)))
+        {
+            i ++;
+        }
+
+        int digits = i;
+
+        while(i < line.length() && line.charAt(i) >= '0' && line.charAt(i) <= '9')
+        {
+            i ++;
+        }
+
+        return i > digits && line.startsWith(ARROW, i);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "TransitionContinuationRule";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,12 +1,18 @@
 package com.novaordis.gc.parser.linear.cms;
 
+import com.novaordis.gc.model.CollectionType;
 import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.cms.CMSConcurrentAbortablePreclean;
 import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
 import com.novaordis.gc.model.event.cms.CMSConcurrentMarkStart;
 import com.novaordis.gc.model.event.cms.CMSConcurrentPreclean;
+import com.novaordis.gc.model.event.cms.CMSConcurrentReset;
+import com.novaordis.gc.model.event.cms.CMSConcurrentSweep;
 import com.novaordis.gc.model.event.cms.CMSInitialMark;
+import com.novaordis.gc.model.event.cms.CMSRemark;
 import com.novaordis.gc.model.event.GCEvent;
 import com.novaordis.gc.parser.CurrentMax;
+import com.novaordis.gc.parser.DiscardedEvent;
 import com.novaordis.gc.parser.Duration;
 import com.novaordis.gc.parser.GCEventParserBase;
 import com.novaordis.gc.parser.ParserException;
@@ -23,6 +29,16 @@ public class CMSParser extends GCEventParserBase
 {
     // Constants -------------------------------------------------------------------------------------------------------
 
+    /**
+     * The phases logged between the beginning of a remark and the "CMS-remark" fragment. They are preceded by their own
+     * timestamps, so they are passed to the parser as separate fragments.
+     */
+    private static final String[] REMARK_PHASE_PREFIXES = new String[]
+        {
+            "[Rescan", "[grey object rescan", "[root rescan", "[weak refs processing", "[class unloading",
+            "[scrub symbol", "[scrub string table"
+        };
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     /**
@@ -70,8 +86,112 @@ public class CMSParser extends GCEventParserBase
         return new CMSInitialMark(ts, duration, og, heap);
     }
 
+    /**
+     * This method is invoked on a line after it was established that line contains "CMS-remark". Example:
+     *
+     * [GC[YG occupancy: 296321 K (690432 K)]23.555: [Rescan (non-parallel) ...] [1 CMS-remark: 36911K(1841152K)]
+     *     333233K(2531584K), 0.1679630 secs] [Times: user=0.17 sys=0.00, real=0.17 secs]
+     *
+     * @param ng the young generation occupancy, if it was logged on a previous fragment. The occupancy from the line,
+     *        if present, takes precedence. May be null.
+     */
+    public static CMSRemark parseCMSRemark(Timestamp ts, CurrentMax ng, String line, long lineNumber)
+        throws ParserException
+    {
+        CurrentMax yg = parseYoungGenerationOccupancy(line, lineNumber);
+
+        if (yg != null)
+        {
+            ng = yg;
+        }
+
+        int i = line.indexOf("CMS-remark:");
+        int j = line.indexOf(']', i);
+
+        if (j == -1)
+        {
+            throw new ParserException("unterminated CMS-remark", lineNumber);
+        }
+
+        CurrentMax og = new CurrentMax(line.substring(i + "CMS-remark:".length(), j).trim(), lineNumber);
+
+        // " 333233K(2531584K), 0.1679630 secs] ..."
+        int comma = line.indexOf(',', j);
+        int end = comma == -1 ? -1 : line.indexOf(']', comma);
+
+        if (end == -1)
+        {
+            throw new ParserException("CMS-remark line does not contain heap occupancy and duration", lineNumber);
+        }
+
+        CurrentMax heap = new CurrentMax(line.substring(j + 1, comma).trim(), lineNumber);
+        long duration = Duration.toLongMilliseconds(line.substring(comma + 1, end).trim(), lineNumber);
+
+        return new CMSRemark(ts, duration, ng, og, heap);
+    }
+
+    /**
+     * @return the young generation occupancy logged as "YG occupancy: 296321 K (690432 K)", or null if the line does
+     *         not contain it.
+     */
+    static CurrentMax parseYoungGenerationOccupancy(String line, long lineNumber) throws ParserException
+    {
+        int i = line.indexOf("YG occupancy:");
+
+        if (i == -1)
+        {
+            return null;
+        }
+
+        int j = line.indexOf(']', i);
+
+        if (j == -1)
+        {
+            throw new ParserException("unterminated YG occupancy", lineNumber);
+        }
+
+        return new CurrentMax(line.substring(i + "YG occupancy:".length(), j).replace(" ", ""), lineNumber);
+    }
+
+    /**
+     * Parses the CPU and wall clock times of a concurrent phase end: "[CMS-concurrent-sweep: 0.010/0.012 secs]".
+     *
+     * @param phase the phase name, for example "CMS-concurrent-sweep".
+     *
+     * @return a two element array containing the CPU and the wall clock times, in milliseconds, or null if the line
+     *         does not contain the end of the given phase (it is the "-start" line, for example).
+     */
+    static long[] parseConcurrentPhaseTimes(String line, String phase, long lineNumber) throws ParserException
+    {
+        String prefix = phase + ":";
+
+        int i = line.indexOf(prefix);
+
+        if (i == -1)
+        {
+            return null;
+        }
+
+        int slash = line.indexOf('/', i);
+        int end = line.indexOf(" secs", i);
+
+        if (slash == -1 || end == -1 || slash > end)
+        {
+            throw new ParserException(phase + " line does not contain \"cpu/wall secs\"", lineNumber);
+        }
+
+        long cpu = Duration.toLongMilliseconds(line.substring(i + prefix.length(), slash).trim() + " secs", lineNumber);
+        long wall = Duration.toLongMilliseconds(line.substring(slash + 1, end).trim() + " secs", lineNumber);
+
+        return new long[] { cpu, wall };
+    }
+
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    // the beginning of a remark whose "CMS-remark" fragment was not seen yet
+    private Timestamp remarkTimestamp;
+    private CurrentMax remarkYoungGenerationOccupancy;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     // GCEventParser ---------------------------------------------------------------------------------------------------
@@ -92,22 +212,100 @@ public class CMSParser extends GCEventParserBase
 
         try
         {
-            if (line.contains("CMS-initial-mark"))
+            if (line.contains("(concurrent mode failure)"))
             {
+                // concurrent phase output interleaved with a concurrent mode failure, the full collection parser handles
+                // it
+                return null;
+            }
+            else if (line.contains("CMS-initial-mark"))
+            {
+                if (isFilteredOut(CollectionType.CMS_INITIAL_MARK, null))
+                {
+                    return DiscardedEvent.INSTANCE;
+                }
+
                 // this is the beginning of a CMS cycle
                 return parseCMSInitialMark(ts, line, lineNumber);
             }
+            else if (line.contains("CMS-remark"))
+            {
+                // the remark starts at the "YG occupancy" fragment, if it was logged separately
+                Timestamp start = remarkTimestamp != null ? remarkTimestamp : ts;
+                CurrentMax ng = remarkYoungGenerationOccupancy;
+                remarkTimestamp = null;
+                remarkYoungGenerationOccupancy = null;
+
+                return isFilteredOut(CollectionType.CMS_REMARK, null) ?
+                    DiscardedEvent.INSTANCE : parseCMSRemark(start, ng, line, lineNumber);
+            }
+            else if (line.startsWith("[GC[YG occupancy:") || line.startsWith("[GC [YG occupancy:"))
+            {
+                // the beginning of a remark, the rest comes in the following fragments. JDK 8 logs
+                // "[GC (CMS Final Remark) [YG occupancy: ...", which reaches here without the cause
+                remarkTimestamp = ts;
+                remarkYoungGenerationOccupancy = parseYoungGenerationOccupancy(line, lineNumber);
+                return DiscardedEvent.INSTANCE;
+            }
+            else if (remarkTimestamp != null && isRemarkPhase(line))
+            {
+                return DiscardedEvent.INSTANCE;
+            }
             else if (line.startsWith("[CMS-concurrent-mark-start"))
             {
-                return new CMSConcurrentMarkStart(ts);
+                return isFilteredOut(CollectionType.CMS_CONCURRENT_MARK_START, null) ?
+                    DiscardedEvent.INSTANCE : new CMSConcurrentMarkStart(ts);
+            }
+            else if (line.contains("CMS-concurrent-abortable-preclean"))
+            {
+                if (isFilteredOut(CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN, null))
+                {
+                    return DiscardedEvent.INSTANCE;
+                }
+
+                long[] t = parseConcurrentPhaseTimes(line, "CMS-concurrent-abortable-preclean", lineNumber);
+                return t == null ?
+                    new CMSConcurrentAbortablePreclean(ts) : new CMSConcurrentAbortablePreclean(ts, t[0], t[1]);
             }
             else if (line.contains("CMS-concurrent-preclean"))
             {
-                return new CMSConcurrentPreclean(ts);
+                if (isFilteredOut(CollectionType.CMS_CONCURRENT_PRECLEAN, null))
+                {
+                    return DiscardedEvent.INSTANCE;
+                }
+
+                long[] t = parseConcurrentPhaseTimes(line, "CMS-concurrent-preclean", lineNumber);
+                return t == null ? new CMSConcurrentPreclean(ts) : new CMSConcurrentPreclean(ts, t[0], t[1]);
             }
             else if (line.contains("CMS-concurrent-mark"))
             {
-                return new CMSConcurrentMark(ts);
+                if (isFilteredOut(CollectionType.CMS_CONCURRENT_MARK, null))
+                {
+                    return DiscardedEvent.INSTANCE;
+                }
+
+                long[] t = parseConcurrentPhaseTimes(line, "CMS-concurrent-mark", lineNumber);
+                return t == null ? new CMSConcurrentMark(ts) : new CMSConcurrentMark(ts, t[0], t[1]);
+            }
+            else if (line.contains("CMS-concurrent-sweep"))
+            {
+                if (isFilteredOut(CollectionType.CMS_CONCURRENT_SWEEP, null))
+                {
+                    return DiscardedEvent.INSTANCE;
+                }
+
+                long[] t = parseConcurrentPhaseTimes(line, "CMS-concurrent-sweep", lineNumber);
+                return t == null ? new CMSConcurrentSweep(ts) : new CMSConcurrentSweep(ts, t[0], t[1]);
+            }
+            else if (line.contains("CMS-concurrent-reset"))
+            {
+                if (isFilteredOut(CollectionType.CMS_CONCURRENT_RESET, null))
+                {
+                    return DiscardedEvent.INSTANCE;
+                }
+
+                long[] t = parseConcurrentPhaseTimes(line, "CMS-concurrent-reset", lineNumber);
+                return t == null ? new CMSConcurrentReset(ts) : new CMSConcurrentReset(ts, t[0], t[1]);
             }
             else
             {
@@ -126,12 +324,41 @@ public class CMSParser extends GCEventParserBase
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    @Override
+    public CollectionType[] getCollectionTypes()
+    {
+        return new CollectionType[]
+            {
+                CollectionType.CMS_INITIAL_MARK,
+                CollectionType.CMS_CONCURRENT_MARK_START,
+                CollectionType.CMS_CONCURRENT_PRECLEAN,
+                CollectionType.CMS_CONCURRENT_MARK,
+                CollectionType.CMS_REMARK,
+                CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN,
+                CollectionType.CMS_CONCURRENT_SWEEP,
+                CollectionType.CMS_CONCURRENT_RESET
+            };
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private static boolean isRemarkPhase(String line)
+    {
+        for(String prefix: REMARK_PHASE_PREFIXES)
+        {
+            if (line.startsWith(prefix))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 }
 
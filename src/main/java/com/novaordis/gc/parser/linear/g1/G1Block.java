@@ -0,0 +1,182 @@
+package com.novaordis.gc.parser.linear.g1;
+
+import com.novaordis.gc.model.G1PhaseTimes;
+import com.novaordis.gc.model.G1Regions;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.linear.LineUtil;
+
+/**
+ * The indented lines G1 logs after a pause header (-XX:+PrintGCDetails, JDK 7 and 8):
+ *
+ * 0.269: [GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]
+ *    [Parallel Time: 3.1 ms, GC Workers: 4]
+ *       ...
+ *    [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->6320.1K(256.0M)]
+ *  [Times: user=0.01 sys=0.00, real=0.00 secs]
+ *
+ * The lines are decoded as they are read, and only the decoded values are kept until the header is parsed, so the
+ * parser never holds more than one block, and never holds its lines. A single instance is reused for all the blocks of
+ * a log.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1Block
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final String TIMES_PREFIX = "[Times: ";
+
+    private static final String METASPACE_PREFIX = "[Metaspace: ";
+
+    // JDK 7 logs the per-worker values of a phase on one line and the average on the next
+    private static final String AVERAGE_PREFIX = "Avg:";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the line is indented and starts a block, or continues a JDK 7 phase. Such lines never start an
+     *         event.
+     */
+    public static boolean isBlockLine(String line)
+    {
+        if (line.length() == 0 || !Character.isWhitespace(line.charAt(0)))
+        {
+            return false;
+        }
+
+        int i = 1;
+
+        while(i < line.length() && Character.isWhitespace(line.charAt(i)))
+        {
+            i ++;
+        }
+
+        return i < line.length() && (line.charAt(i) == '[' || line.startsWith(AVERAGE_PREFIX, i));
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private G1PhaseTimes phaseTimes;
+    private G1Regions regions;
+    private BeforeAfterMax metaspace;
+    private long[] times;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes a block line.
+     *
+     * @return false if the line is malformed or unknown, in which case it is ignored.
+     */
+    public boolean add(String line, long lineNumber)
+    {
+        int i = 0;
+
+        while(i < line.length() && Character.isWhitespace(line.charAt(i)))
+        {
+            i ++;
+        }
+
+        if (line.startsWith(TIMES_PREFIX, i))
+        {
+            times = LineUtil.parseTimes(line);
+            return times != null;
+        }
+
+        if (line.startsWith(G1Regions.PREFIX, i))
+        {
+            regions = G1Regions.parse(line, i);
+
+            // the full collections also log the metaspace: "[Eden: ...], [Metaspace: 2647K->2647K(1056768K)]"
+            int m = line.indexOf(METASPACE_PREFIX, i);
+            int end = m == -1 ? -1 : line.indexOf(']', m);
+
+            if (end != -1)
+            {
+                try
+                {
+                    metaspace = new BeforeAfterMax(line.substring(m + METASPACE_PREFIX.length(), end).trim(), lineNumber);
+                }
+                catch(ParserException e)
+                {
+                    return false;
+                }
+            }
+
+            return regions != null;
+        }
+
+        if (phaseTimes == null)
+        {
+            phaseTimes = new G1PhaseTimes();
+        }
+
+        return phaseTimes.parseLine(line);
+    }
+
+    /**
+     * @return true if nothing was decoded since the last clear().
+     */
+    public boolean isEmpty()
+    {
+        return phaseTimes == null && regions == null && metaspace == null && times == null;
+    }
+
+    /**
+     * Adds the decoded values to the event produced by the block header, and clears the block.
+     */
+    public void applyTo(GCEventBase event)
+    {
+        if (regions != null)
+        {
+            event.setRegions(regions);
+        }
+
+        if (times != null)
+        {
+            event.setTimes(times[0], times[1], times[2]);
+        }
+
+        if (metaspace != null && event instanceof FullCollection)
+        {
+            ((FullCollection)event).setMetaspace(metaspace);
+        }
+
+        if (phaseTimes != null && event instanceof G1Pause)
+        {
+            ((G1Pause)event).setPhaseTimes(phaseTimes);
+        }
+
+        clear();
+    }
+
+    public void clear()
+    {
+        phaseTimes = null;
+        regions = null;
+        metaspace = null;
+        times = null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "G1Block[" + regions + ", " + phaseTimes + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
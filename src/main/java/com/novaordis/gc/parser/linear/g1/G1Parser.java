@@ -0,0 +1,458 @@
+package com.novaordis.gc.parser.linear.g1;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.G1Regions;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.g1.G1Cleanup;
+import com.novaordis.gc.model.event.g1.G1MixedCollection;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.model.event.g1.G1Remark;
+import com.novaordis.gc.model.event.g1.G1YoungCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.DiscardedEvent;
+import com.novaordis.gc.parser.Duration;
+import com.novaordis.gc.parser.GCEventParserBase;
+import com.novaordis.gc.parser.ParserException;
+import org.apache.log4j.Logger;
+
+/**
+ * Parses the G1 pause headers (-XX:+UseG1GC -XX:+PrintGCDetails, JDK 7 and 8). The region occupancy and the phase
+ * times are logged on the lines that follow the header, they are decoded by G1Block and added to the event by the
+ * linear scan parser.
+ *
+ * @see G1Block
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1Parser extends GCEventParserBase
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(G1Parser.class);
+
+    private static final String PAUSE_PREFIX = "[GC pause";
+    private static final String REMARK_PREFIX = "[GC remark";
+    private static final String CLEANUP_PREFIX = "[GC cleanup";
+    private static final String CONCURRENT_PREFIX = "[GC concurrent-";
+    private static final String FULL_PREFIX = "[Full GC";
+
+    /**
+     * The remark sub-phases logged by JDK 8 between "[GC remark" and the remark duration. They are preceded by their own
+     * timestamps, so they are passed to the parser as separate fragments.
+     */
+    private static final String[] REMARK_PHASE_PREFIXES = new String[]
+        {
+            "[Finalize Marking", "[GC ref-proc", "[Unloading", "[GC aggregate-data"
+        };
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses the heap occupancy logged in a header: "24M->6320K(256M)", "255.9M->120.4M(256.0M)". The units may differ
+     * from value to value, so the values are converted to bytes.
+     *
+     * @param to the index that follows the occupancy.
+     */
+    static BeforeAfterMax parseHeap(String line, int from, int to, long lineNumber) throws ParserException
+    {
+        while(from < to && line.charAt(from) == ' ')
+        {
+            from ++;
+        }
+
+        int arrow = line.indexOf("->", from);
+        int parenthesis = arrow == -1 ? -1 : line.indexOf('(', arrow);
+
+        long before = G1Regions.parseMemory(line, from);
+        long after = arrow == -1 ? -1L : G1Regions.parseMemory(line, arrow + 2);
+        long max = parenthesis == -1 ? -1L : G1Regions.parseMemory(line, parenthesis + 1);
+
+        if (before < 0 || after < 0 || max < 0 || parenthesis > to)
+        {
+            throw new ParserException("\"" + line.substring(from, to) + "\" not in before->after(capacity) format", lineNumber);
+        }
+
+        return new BeforeAfterMax(before, after, max, Unit.b);
+    }
+
+    /**
+     * @param depth the bracket nesting depth at the given index.
+     *
+     * @return the duration of the block that closes in the given string, in milliseconds: the duration that precedes
+     *         the first closing bracket that brings the nesting depth to zero ("..., 0.0021 secs]"). Returns -1 if the
+     *         block does not close in the string.
+     */
+    static long parseClosingDuration(String s, int from, int depth, long lineNumber) throws ParserException
+    {
+        for(int i = from; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c == '[')
+            {
+                depth ++;
+            }
+            else if (c == ']' && -- depth == 0)
+            {
+                int comma = s.lastIndexOf(',', i);
+
+                if (comma == -1)
+                {
+                    throw new ParserException("G1 remark does not contain the duration", lineNumber);
+                }
+
+                return Duration.toLongMilliseconds(s.substring(comma + 1, i).trim(), lineNumber);
+            }
+        }
+
+        return -1L;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // the beginning of a remark whose duration was not seen yet, and the nesting depth of its brackets
+    private Timestamp remarkTimestamp;
+    private int remarkDepth;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // GCEventParser -----------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Examples of recognized lines (the cause was already cut out of the full collection header):
+     *
+     * [GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]
+     * [GC remark [Finalize Marking, 0.0001 secs] [GC ref-proc, 0.0001 secs] [Unloading, 0.0010 secs], 0.0021 secs]
+     * [GC cleanup 9458K->9458K(256M), 0.0002304 secs]
+     * [GC concurrent-mark-start]
+     * [Full GC  255M->120M(256M), 0.5064520 secs]
+     *
+     * @see com.novaordis.gc.parser.GCEventParser#parse(com.novaordis.gc.model.Timestamp, String, long, GCEvent)
+     */
+    @Override
+    public GCEvent parse(Timestamp ts, String line, long lineNumber, GCEvent current) throws ParserException
+    {
+        if (line.startsWith(PAUSE_PREFIX))
+        {
+            return isExcluded() ? DiscardedEvent.INSTANCE : parsePause(ts, line, lineNumber);
+        }
+        else if (line.startsWith(REMARK_PREFIX))
+        {
+            remarkTimestamp = ts;
+            return remark(line, 1, 1, lineNumber);
+        }
+        else if (remarkTimestamp != null && isRemarkPhase(line))
+        {
+            return remark(line, 0, remarkDepth, lineNumber);
+        }
+        else if (line.startsWith(CLEANUP_PREFIX))
+        {
+            return isExcluded() ? DiscardedEvent.INSTANCE : parseCleanup(ts, line, lineNumber);
+        }
+        else if (line.startsWith(CONCURRENT_PREFIX))
+        {
+            // the concurrent marking phases do not stop the application threads, they are recognized so they are not
+            // reported as unknown lines, but they are not recorded
+            return DiscardedEvent.INSTANCE;
+        }
+        else if (line.startsWith(FULL_PREFIX) && isHeapOnlyFullCollection(line))
+        {
+            return isExcluded() ? DiscardedEvent.INSTANCE : parseFullCollection(ts, line, lineNumber);
+        }
+
+        return null;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public CollectionType[] getCollectionTypes()
+    {
+        return new CollectionType[]
+            {
+                CollectionType.G1_YOUNG, CollectionType.G1_MIXED, CollectionType.G1_REMARK, CollectionType.G1_CLEANUP,
+                CollectionType.FULL_COLLECTION
+            };
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses an evacuation pause header:
+     *
+     * [GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]
+     * [GC pause (G1 Humongous Allocation) (young) (initial-mark), 0.0041890 secs]
+     * [GC pause (G1 Evacuation Pause) (mixed) (to-space exhausted), 0.0712150 secs]
+     * [GC pause (young) 24M->6320K(256M), 0.0041890 secs] (JDK 7, without PrintGCDetails)
+     *
+     * @return the pause, or DiscardedEvent.INSTANCE if the filter rejects it.
+     */
+    private GCEvent parsePause(Timestamp ts, String line, long lineNumber) throws ParserException
+    {
+        boolean mixed = false;
+        boolean initialMark = false;
+        String notes = null;
+        String cause = null;
+
+        int i = PAUSE_PREFIX.length();
+
+        // the parenthesized labels: the cause, the pause type and the flags, in this order
+        while(true)
+        {
+            while(i < line.length() && line.charAt(i) == ' ')
+            {
+                i ++;
+            }
+
+            if (i == line.length() || line.charAt(i) != '(')
+            {
+                break;
+            }
+
+            int close = closingParenthesis(line, i);
+
+            if (close == -1)
+            {
+                throw new ParserException("unbalanced parentheses in G1 pause header", lineNumber);
+            }
+
+            int from = i + 1;
+
+            if (matches(line, from, close, "young"))
+            {
+                mixed = false;
+            }
+            else if (matches(line, from, close, "mixed") || matches(line, from, close, "partial"))
+            {
+                mixed = true;
+            }
+            else if (matches(line, from, close, "initial-mark"))
+            {
+                initialMark = true;
+            }
+            else if (matches(line, from, close, "to-space exhausted") || matches(line, from, close, "to-space overflow"))
+            {
+                notes = G1Pause.TO_SPACE_EXHAUSTED;
+            }
+            else if (cause == null)
+            {
+                cause = GCCause.intern(line, from, close);
+            }
+
+            i = close + 1;
+        }
+
+        CollectionType type = mixed ? CollectionType.G1_MIXED : CollectionType.G1_YOUNG;
+
+        int comma = line.indexOf(',', i);
+        int end = comma == -1 ? -1 : line.indexOf(']', comma);
+
+        if (end == -1)
+        {
+            throw new ParserException("G1 pause header does not contain the duration", lineNumber);
+        }
+
+        long duration = Duration.toLongMilliseconds(line.substring(comma + 1, end).trim(), lineNumber);
+
+        if (isFilteredOut(type, duration))
+        {
+            return DiscardedEvent.INSTANCE;
+        }
+
+        BeforeAfterMax heap = comma > i ? parseHeap(line, i, comma, lineNumber) : null;
+
+        G1Pause pause = mixed ?
+            new G1MixedCollection(ts, duration, notes, heap) :
+            new G1YoungCollection(ts, duration, notes, initialMark, heap);
+
+        if (cause != null)
+        {
+            pause.setCause(cause);
+        }
+
+        return pause;
+    }
+
+    /**
+     * @param from the index the fragment is scanned from.
+     * @param depth the bracket nesting depth at that index.
+     *
+     * @return the remark, if the fragment closes it, DiscardedEvent.INSTANCE otherwise.
+     */
+    private GCEvent remark(String fragment, int from, int depth, long lineNumber) throws ParserException
+    {
+        long duration = parseClosingDuration(fragment, from, depth, lineNumber);
+
+        if (duration == -1)
+        {
+            // the remark continues on the next fragment
+            remarkDepth = depth + depth(fragment, from);
+            return DiscardedEvent.INSTANCE;
+        }
+
+        Timestamp start = remarkTimestamp;
+        remarkTimestamp = null;
+        remarkDepth = 0;
+
+        if (isExcluded() || isFilteredOut(CollectionType.G1_REMARK, duration))
+        {
+            return DiscardedEvent.INSTANCE;
+        }
+
+        G1Remark event = new G1Remark(start, duration);
+        log.debug(event);
+        return event;
+    }
+
+    /**
+     * "[GC cleanup 9458K->9458K(256M), 0.0002304 secs]"
+     */
+    private GCEvent parseCleanup(Timestamp ts, String line, long lineNumber) throws ParserException
+    {
+        int comma = line.indexOf(',');
+        int end = comma == -1 ? -1 : line.indexOf(']', comma);
+
+        if (end == -1)
+        {
+            throw new ParserException("G1 cleanup does not contain the heap occupancy and the duration", lineNumber);
+        }
+
+        long duration = Duration.toLongMilliseconds(line.substring(comma + 1, end).trim(), lineNumber);
+
+        if (isFilteredOut(CollectionType.G1_CLEANUP, duration))
+        {
+            return DiscardedEvent.INSTANCE;
+        }
+
+        return new G1Cleanup(ts, duration, parseHeap(line, CLEANUP_PREFIX.length(), comma, lineNumber));
+    }
+
+    /**
+     * "[Full GC  255M->120M(256M), 0.5064520 secs]". The generations are logged on the next lines, in the block.
+     */
+    private GCEvent parseFullCollection(Timestamp ts, String line, long lineNumber) throws ParserException
+    {
+        int comma = line.indexOf(',');
+        int end = comma == -1 ? -1 : line.indexOf(']', comma);
+
+        if (end == -1)
+        {
+            throw new ParserException("G1 full collection does not contain the heap occupancy and the duration", lineNumber);
+        }
+
+        long duration = Duration.toLongMilliseconds(line.substring(comma + 1, end).trim(), lineNumber);
+
+        if (isFilteredOut(CollectionType.FULL_COLLECTION, duration))
+        {
+            return DiscardedEvent.INSTANCE;
+        }
+
+        BeforeAfterMax heap = parseHeap(line, FULL_PREFIX.length(), comma, lineNumber);
+
+        FullCollection event = new FullCollection(ts, duration, null, null, null, heap, false);
+        log.debug(event);
+        return event;
+    }
+
+    /**
+     * @return true if the full collection header is followed by the heap occupancy, rather than by the generations, as
+     *         the other collectors log it.
+     */
+    private static boolean isHeapOnlyFullCollection(String line)
+    {
+        int i = FULL_PREFIX.length();
+
+        while(i < line.length() && line.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        // "255M->", as opposed to an embedded timestamp ("[Full GC 58.577: [CMS: ...")
+        int j = i;
+
+        while(j < line.length() && (Character.isDigit(line.charAt(j)) || line.charAt(j) == '.'))
+        {
+            j ++;
+        }
+
+        return j > i && line.startsWith("->", j + 1);
+    }
+
+    private static boolean isRemarkPhase(String line)
+    {
+        for(String p: REMARK_PHASE_PREFIXES)
+        {
+            if (line.startsWith(p))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the index of the parenthesis that closes the one at the given index, or -1.
+     */
+    private static int closingParenthesis(String s, int open)
+    {
+        int depth = 0;
+
+        for(int i = open; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c == '(')
+            {
+                depth ++;
+            }
+            else if (c == ')' && -- depth == 0)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean matches(String s, int from, int to, String label)
+    {
+        return to - from == label.length() && s.regionMatches(from, label, 0, label.length());
+    }
+
+    /**
+     * @return the number of opening brackets minus the number of closing brackets that follow the given index.
+     */
+    private static int depth(String s, int from)
+    {
+        int depth = 0;
+
+        for(int i = from; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c == '[')
+            {
+                depth ++;
+            }
+            else if (c == ']')
+            {
+                depth --;
+            }
+        }
+
+        return depth;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
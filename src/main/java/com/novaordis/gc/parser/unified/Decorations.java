@@ -0,0 +1,441 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.model.Timestamp;
+
+/**
+ * The decorations that prefix a unified logging line (-Xlog, JDK 9 and newer):
+ *
+ * [2026-10-01T12:00:00.123+0000][12.345s][info][gc,heap     ] GC(42) Eden regions: 24->0(13)
+ *
+ * The decorations are configurable (-Xlog:gc*:file=gc.log:time,uptime,level,tags), so they are recognized by their
+ * content, not by their position: time and utctime, uptime, uptimemillis, timemillis, level and tags. The others (pid,
+ * tid, hostname, the nanosecond variants) are skipped. A line must be decorated with the tags to be recognized.
+ *
+ * The decorations are decoded in place, without regular expressions and without creating intermediate objects. A single
+ * instance is reused for all the lines of a log, so the values are only valid until the next parse().
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class Decorations
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    public static final String TRACE = "trace";
+    public static final String DEBUG = "debug";
+    public static final String INFO = "info";
+    public static final String WARNING = "warning";
+    public static final String ERROR = "error";
+
+    private static final String[] LEVELS = new String[] { INFO, DEBUG, TRACE, WARNING, ERROR };
+
+    // timemillis and uptimemillis are both logged as "<n>ms"; the values larger than this are times, not uptimes
+    private static final long TIME_MILLIS_THRESHOLD = 100000000000L;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the line starts with unified logging decorations.
+     */
+    public static boolean isDecorated(String line)
+    {
+        return new Decorations().parse(line) != -1;
+    }
+
+    /**
+     * Converts an ISO 8601 date stamp ("2026-10-01T12:00:00.123+0000", "2026-10-01T12:00:00.123+00:00") to a UTC time
+     * in milliseconds, without a date format.
+     *
+     * @return the time, or -1 if the region does not contain a date stamp.
+     */
+    static long parseTime(String s, int from, int to)
+    {
+        // yyyy-MM-ddTHH:mm:ss.SSS+ZZZZ
+        if (to - from < 28 || s.charAt(from + 4) != '-' || s.charAt(from + 7) != '-' || s.charAt(from + 10) != 'T' ||
+            s.charAt(from + 13) != ':' || s.charAt(from + 16) != ':' || s.charAt(from + 19) != '.')
+        {
+            return -1L;
+        }
+
+        int year = digits(s, from, 4);
+        int month = digits(s, from + 5, 2);
+        int day = digits(s, from + 8, 2);
+        int hour = digits(s, from + 11, 2);
+        int minute = digits(s, from + 14, 2);
+        int second = digits(s, from + 17, 2);
+        int millis = digits(s, from + 20, 3);
+
+        char sign = s.charAt(from + 23);
+        int zoneHours = digits(s, from + 24, 2);
+        int zoneMinutes = digits(s, s.charAt(from + 26) == ':' ? from + 27 : from + 26, 2);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || minute < 0 || second < 0 || millis < 0 ||
+            (sign != '+' && sign != '-') || zoneHours < 0 || zoneMinutes < 0)
+        {
+            return -1L;
+        }
+
+        long zone = (zoneHours * 60L + zoneMinutes) * 60000L;
+
+        long time = ((daysFromEpoch(year, month, day) * 24L + hour) * 60L + minute) * 60000L + second * 1000L + millis;
+
+        return sign == '+' ? time - zone : time + zone;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String line;
+
+    // -1 if not logged
+    private long time;
+    private long uptime;
+
+    private int timeStart;
+    private int timeEnd;
+
+    // one of the level constants, null if not logged
+    private String level;
+
+    // the tags, without the padding; -1 if not logged
+    private int tagsStart;
+    private int tagsEnd;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    public Decorations()
+    {
+        clear();
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Decodes the decorations of the given line.
+     *
+     * @return the index of the message that follows the decorations, or -1 if the line is not decorated, in which case
+     *         the decorations are cleared.
+     */
+    public int parse(String line)
+    {
+        clear();
+
+        this.line = line;
+
+        int i = 0;
+
+        while(i < line.length() && line.charAt(i) == '[')
+        {
+            int end = line.indexOf(']', i);
+
+            if (end == -1 || !decode(line, i + 1, end))
+            {
+                clear();
+                return -1;
+            }
+
+            i = end + 1;
+        }
+
+        if (tagsStart == -1)
+        {
+            clear();
+            return -1;
+        }
+
+        if (i < line.length() && line.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        return i;
+    }
+
+    /**
+     * @return the time decoration, in milliseconds, or -1 if not logged.
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    /**
+     * @return the uptime decoration, in milliseconds, or -1 if not logged.
+     */
+    public long getUptime()
+    {
+        return uptime;
+    }
+
+    /**
+     * @return one of the level constants, or null if not logged.
+     */
+    public String getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * @return true if the line was decorated with exactly the given tag set ("gc,heap").
+     */
+    public boolean hasTags(String tags)
+    {
+        int length = tagsEnd - tagsStart;
+        return tagsStart != -1 && tags.length() == length && line.regionMatches(tagsStart, tags, 0, length);
+    }
+
+    /**
+     * @return the tag set, or null if the line was not decorated with tags. Creates a new string, so it is not
+     *         intended for the hot path.
+     */
+    public String getTags()
+    {
+        return tagsStart == -1 ? null : line.substring(tagsStart, tagsEnd);
+    }
+
+    /**
+     * @return the timestamp built from the time and the uptime decorations, or null if the line was decorated with
+     *         neither.
+     */
+    public Timestamp getTimestamp()
+    {
+        if (time == -1 && uptime == -1)
+        {
+            return null;
+        }
+
+        if (time == -1)
+        {
+            return Timestamp.decoded(null, null, uptime);
+        }
+
+        // the date stamp literal is kept only for the time decoration, timemillis has none
+        String literal = timeStart == -1 ? Timestamp.timeToDateStamp(time) : line.substring(timeStart, timeEnd);
+
+        return Timestamp.decoded(literal, time, uptime == -1 ? null : uptime);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Decorations[time=" + time + ", uptime=" + uptime + ", level=" + level + ", tags=" + getTags() + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private void clear()
+    {
+        line = null;
+        time = -1L;
+        uptime = -1L;
+        timeStart = -1;
+        timeEnd = -1;
+        level = null;
+        tagsStart = -1;
+        tagsEnd = -1;
+    }
+
+    /**
+     * Identifies a decoration by its content.
+     *
+     * @return false if the content cannot be a decoration.
+     */
+    private boolean decode(String s, int from, int to)
+    {
+        // the tags are padded with spaces
+        int end = to;
+
+        while(end > from && s.charAt(end - 1) == ' ')
+        {
+            end --;
+        }
+
+        if (end == from)
+        {
+            return false;
+        }
+
+        char first = s.charAt(from);
+
+        if (first >= '0' && first <= '9')
+        {
+            return decodeNumeric(s, from, end);
+        }
+
+        for(String l: LEVELS)
+        {
+            if (l.length() == end - from && s.regionMatches(from, l, 0, end - from))
+            {
+                level = l;
+                return true;
+            }
+        }
+
+        // tags: "gc", "gc,heap", "gc,phases,start"; anything else (a hostname) is skipped, as long as it is one word
+        boolean tags = true;
+
+        for(int i = from; i < end; i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c == ' ' || c == '[' || c == '(')
+            {
+                return false;
+            }
+
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == ','))
+            {
+                tags = false;
+            }
+        }
+
+        // the tags are the last decoration, a hostname that looks like tags is overwritten
+        if (tags)
+        {
+            tagsStart = from;
+            tagsEnd = end;
+        }
+
+        return true;
+    }
+
+    /**
+     * time, utctime ("2026-10-01T12:00:00.123+0000"), uptime ("12.345s"), uptimemillis and timemillis ("12345ms"),
+     * the nanosecond variants ("12345ns"), pid and tid ("1234").
+     */
+    private boolean decodeNumeric(String s, int from, int to)
+    {
+        if (to - from >= 28 && s.charAt(from + 10) == 'T')
+        {
+            long t = parseTime(s, from, to);
+
+            if (t == -1)
+            {
+                return false;
+            }
+
+            time = t;
+            timeStart = from;
+            timeEnd = to;
+            return true;
+        }
+
+        long integer = 0L;
+        long fraction = 0L;
+        int fractionDigits = 0;
+        boolean decimal = false;
+        int i = from;
+
+        for(; i < to; i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                if (!decimal)
+                {
+                    integer = integer * 10 + (c - '0');
+                }
+                else if (fractionDigits < 3)
+                {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits ++;
+                }
+            }
+            else if (c == '.' && !decimal)
+            {
+                decimal = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if (i == to)
+        {
+            // pid, tid
+            return !decimal;
+        }
+
+        if (i == to - 1 && s.charAt(i) == 's')
+        {
+            // uptime, "12.345s"
+            while(fractionDigits < 3)
+            {
+                fraction *= 10;
+                fractionDigits ++;
+            }
+
+            uptime = integer * 1000L + fraction;
+            return true;
+        }
+
+        if (i == to - 2 && s.charAt(i + 1) == 's' && !decimal)
+        {
+            if (s.charAt(i) == 'm')
+            {
+                if (integer >= TIME_MILLIS_THRESHOLD)
+                {
+                    if (time == -1)
+                    {
+                        time = integer;
+                    }
+                }
+                else
+                {
+                    uptime = integer;
+                }
+
+                return true;
+            }
+
+            // the nanosecond variants are skipped
+            return s.charAt(i) == 'n';
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the value of the given number of decimal digits, or -1 if one of the characters is not a digit.
+     */
+    private static int digits(String s, int from, int count)
+    {
+        int value = 0;
+
+        for(int i = from; i < from + count; i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c < '0' || c > '9')
+            {
+                return -1;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the number of days since 1970-01-01 of the given date, proleptic Gregorian calendar.
+     */
+    private static long daysFromEpoch(int year, int month, int day)
+    {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,87 @@
+package com.novaordis.gc.parser.unified;
+
+import java.util.Arrays;
+
+/**
+ * The phase and thread names of a log, maintained as interned strings: there is only one instance per distinct name,
+ * shared by all the cycles that reference it. The lookup works on a region of the line, so no intermediate string is
+ * created for a name that was seen before.
+ *
+ * A log only contains a few dozen distinct phase names and as many thread names as threads that stalled, so the lookup
+ * is linear, most recently added names first.
+ *
+ * Not thread safe.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+class NameTable
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private String[] names;
+    private int size;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    NameTable()
+    {
+        this.names = new String[16];
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "NameTable[" + size + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param from the index of the first character of the name.
+     * @param to the index after the last character of the name.
+     *
+     * @return the canonical instance of the name found in the given region of the string.
+     */
+    String intern(String s, int from, int to)
+    {
+        int length = to - from;
+
+        for(int i = size - 1; i >= 0; i --)
+        {
+            String n = names[i];
+
+            if (n.length() == length && s.regionMatches(from, n, 0, length))
+            {
+                return n;
+            }
+        }
+
+        if (size == names.length)
+        {
+            names = Arrays.copyOf(names, size * 2);
+        }
+
+        String n = s.substring(from, to);
+        names[size ++] = n;
+        return n;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,391 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.G1PhaseTimes;
+import com.novaordis.gc.model.G1Regions;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.parser.BeforeAfterMax;
+
+/**
+ * The detail lines logged with the same GC id ("GC(42)"), correlated until the collection they describe is complete.
+ * The detail lines precede the summary line of the pause, except the CPU times, which follow it:
+ *
+ * [0.350s][info][gc,phases    ] GC(0)   Evacuate Collection Set: 4.1ms
+ * [0.350s][info][gc,heap      ] GC(0) Eden regions: 24->0(13)
+ * [0.350s][info][gc,heap      ] GC(0) Survivor regions: 0->3(3)
+ * [0.350s][info][gc,metaspace ] GC(0) Metaspace: 2647K->2647K(1056768K)
+ * [0.350s][info][gc           ] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->6M(256M) 4.689ms
+ * [0.350s][info][gc,cpu       ] GC(0) User=0.01s Sys=0.00s Real=0.00s
+ *
+ * The lines are decoded as they are read, only the decoded values are kept. The instances are recycled.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+class PendingCollection
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final String EDEN_REGIONS = "Eden regions: ";
+    private static final String SURVIVOR_REGIONS = "Survivor regions: ";
+
+    // the young generation of the parallel scavenge, serial and CMS collectors
+    private static final String[] NEW_GENERATIONS = new String[] { "PSYoungGen: ", "DefNew: ", "ParNew: " };
+
+    // the old generation of the parallel scavenge, serial and CMS collectors
+    private static final String[] OLD_GENERATIONS = new String[] { "ParOldGen: ", "Tenured: ", "CMS: " };
+
+    private static final String METASPACE = "Metaspace: ";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parses an occupancy transition: "24->0(13)" (region counts), "65536K->10720K(76288K)", or the JDK 17 form that
+     * also logs the capacity before "6144K(9216K)->1008K(9216K)". The capacity after is optional ("0->1").
+     *
+     * @param memory true if the values are memory values followed by their unit, which are converted to bytes, false
+     *               if the values are plain counts.
+     * @param values receives the value before, the value after, the capacity after and the capacity before, the
+     *               capacities are -1 if not logged.
+     *
+     * @return false if there is no transition at the given position.
+     */
+    static boolean parseTransition(String s, int from, boolean memory, long[] values)
+    {
+        long before = parseValue(s, from, memory);
+
+        if (before < 0)
+        {
+            return false;
+        }
+
+        int i = skipValue(s, from, memory);
+
+        long capacityBefore = -1L;
+
+        if (i < s.length() && s.charAt(i) == '(')
+        {
+            capacityBefore = parseValue(s, i + 1, memory);
+            i = s.indexOf(')', i);
+
+            if (i == -1)
+            {
+                return false;
+            }
+
+            i ++;
+        }
+
+        if (!s.startsWith("->", i))
+        {
+            return false;
+        }
+
+        i += 2;
+
+        long after = parseValue(s, i, memory);
+
+        if (after < 0)
+        {
+            return false;
+        }
+
+        i = skipValue(s, i, memory);
+
+        long capacity = -1L;
+
+        if (i < s.length() && s.charAt(i) == '(')
+        {
+            capacity = parseValue(s, i + 1, memory);
+        }
+
+        values[0] = before;
+        values[1] = after;
+        values[2] = capacity;
+        values[3] = capacityBefore;
+        return true;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private int id;
+
+    // region counts, -1 if not logged
+    private long edenBefore;
+    private long edenAfter;
+    private long edenCapacity;
+    private long survivorBefore;
+    private long survivorAfter;
+
+    private BeforeAfterMax ng;
+    private BeforeAfterMax og;
+    private BeforeAfterMax metaspace;
+
+    private G1PhaseTimes phaseTimes;
+    private int workers;
+
+    private String notes;
+
+    // the collection built from the summary line, waiting for the CPU times
+    private GCEventBase event;
+
+    private final long[] values;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    PendingCollection()
+    {
+        this.values = new long[4];
+        reset(-1);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "PendingCollection[GC(" + id + ")" + (event == null ? "" : ", " + event) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    void reset(int id)
+    {
+        this.id = id;
+        this.edenBefore = -1L;
+        this.edenAfter = -1L;
+        this.edenCapacity = -1L;
+        this.survivorBefore = -1L;
+        this.survivorAfter = -1L;
+        this.ng = null;
+        this.og = null;
+        this.metaspace = null;
+        this.phaseTimes = null;
+        this.workers = -1;
+        this.notes = null;
+        this.event = null;
+    }
+
+    int getId()
+    {
+        return id;
+    }
+
+    GCEventBase getEvent()
+    {
+        return event;
+    }
+
+    String getNotes()
+    {
+        return notes;
+    }
+
+    void setNotes(String notes)
+    {
+        this.notes = notes;
+    }
+
+    /**
+     * Decodes a "gc,heap" line message.
+     *
+     * @return false if the message does not contain an occupancy we know about.
+     */
+    boolean addHeap(String s, int from)
+    {
+        if (s.startsWith(EDEN_REGIONS, from))
+        {
+            if (!parseTransition(s, from + EDEN_REGIONS.length(), false, values))
+            {
+                return false;
+            }
+
+            edenBefore = values[0];
+            edenAfter = values[1];
+            edenCapacity = values[2];
+            return true;
+        }
+
+        if (s.startsWith(SURVIVOR_REGIONS, from))
+        {
+            if (!parseTransition(s, from + SURVIVOR_REGIONS.length(), false, values))
+            {
+                return false;
+            }
+
+            survivorBefore = values[0];
+            survivorAfter = values[1];
+            return true;
+        }
+
+        for(String g: NEW_GENERATIONS)
+        {
+            if (s.startsWith(g, from))
+            {
+                BeforeAfterMax b = parseMemoryTransition(s, from + g.length());
+                ng = b == null ? ng : b;
+                return b != null;
+            }
+        }
+
+        for(String g: OLD_GENERATIONS)
+        {
+            if (s.startsWith(g, from))
+            {
+                BeforeAfterMax b = parseMemoryTransition(s, from + g.length());
+                og = b == null ? og : b;
+                return b != null;
+            }
+        }
+
+        // the old, humongous and archive region counts are implied by the heap occupancy
+        return s.indexOf(" regions: ", from) != -1;
+    }
+
+    /**
+     * Decodes a "gc,metaspace" line message: "Metaspace: 2647K->2647K(1056768K)", where the value in parentheses is
+     * the reserved metaspace. JDK 17 and newer log the committed metaspace in parentheses instead
+     * ("Metaspace: 2647K(2816K)->2647K(2816K) NonClass: ..."), which is not recorded, and the class space after it,
+     * which is ignored.
+     */
+    boolean addMetaspace(String s, int from)
+    {
+        if (!s.startsWith(METASPACE, from) || !parseTransition(s, from + METASPACE.length(), true, values))
+        {
+            return false;
+        }
+
+        metaspace = new BeforeAfterMax(values[0], values[1], values[3] == -1 ? values[2] : -1L, Unit.b);
+        return true;
+    }
+
+    /**
+     * Decodes a "gc,phases" line message.
+     */
+    boolean addPhase(String s, int from)
+    {
+        if (phaseTimes == null)
+        {
+            phaseTimes = new G1PhaseTimes();
+        }
+
+        return phaseTimes.parseUnifiedLine(s, from);
+    }
+
+    void setWorkers(int workers)
+    {
+        this.workers = workers;
+    }
+
+    /**
+     * Adds the decoded values to the event built from the summary line, which is kept until the collection is
+     * complete.
+     *
+     * @param regionSize the G1 region size in bytes, -1 if not known, in which case the region counts cannot be
+     *                   converted to occupancies.
+     */
+    void complete(GCEventBase event, long regionSize)
+    {
+        this.event = event;
+
+        if (edenBefore >= 0 && survivorBefore >= 0 && regionSize > 0 && event.get(FieldType.HEAP_BEFORE) != null)
+        {
+            long heapBefore = (Long)event.get(FieldType.HEAP_BEFORE).getValue();
+            long heapAfter = (Long)event.get(FieldType.HEAP_AFTER).getValue();
+            long heapCapacity = (Long)event.get(FieldType.HEAP_CAPACITY).getValue();
+
+            event.setRegions(new G1Regions(new long[]
+                {
+                    edenBefore * regionSize, -1L, edenAfter * regionSize, edenCapacity * regionSize,
+                    survivorBefore * regionSize, survivorAfter * regionSize,
+                    heapBefore, heapCapacity, heapAfter, heapCapacity
+                }));
+        }
+
+        if (metaspace != null && event instanceof FullCollection)
+        {
+            ((FullCollection)event).setMetaspace(metaspace);
+        }
+
+        if (event instanceof G1Pause && (phaseTimes != null || workers >= 0))
+        {
+            if (phaseTimes == null)
+            {
+                phaseTimes = new G1PhaseTimes();
+            }
+
+            if (workers >= 0)
+            {
+                phaseTimes.setWorkers(workers);
+            }
+
+            ((G1Pause)event).setPhaseTimes(phaseTimes);
+        }
+    }
+
+    BeforeAfterMax getNewGeneration()
+    {
+        return ng;
+    }
+
+    BeforeAfterMax getOldGeneration()
+    {
+        return og;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private BeforeAfterMax parseMemoryTransition(String s, int from)
+    {
+        if (!parseTransition(s, from, true, values) || values[2] < 0)
+        {
+            return null;
+        }
+
+        return new BeforeAfterMax(values[0], values[1], values[2], Unit.b);
+    }
+
+    /**
+     * @return the value at the given position, in bytes if it is a memory value, or -1 if there is no value.
+     */
+    private static long parseValue(String s, int from, boolean memory)
+    {
+        if (memory)
+        {
+            return G1Regions.parseMemory(s, from);
+        }
+
+        long value = 0L;
+        int i = from;
+
+        for(; i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i ++)
+        {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+
+        return i == from ? -1L : value;
+    }
+
+    /**
+     * @return the index that follows the value (and its unit) at the given position.
+     */
+    private static int skipValue(String s, int from, boolean memory)
+    {
+        int i = from;
+
+        while(i < s.length() && ((s.charAt(i) >= '0' && s.charAt(i) <= '9') || s.charAt(i) == '.'))
+        {
+            i ++;
+        }
+
+        return memory && i < s.length() ? i + 1 : i;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,447 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.G1Regions;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+
+import java.util.Arrays;
+
+/**
+ * The lines of a ZGC or Shenandoah cycle, logged with the same GC id, correlated until the cycle is complete:
+ *
+ * [1.000s][info][gc,start    ] GC(3) Garbage Collection (Allocation Rate)
+ * [1.001s][info][gc,phases   ] GC(3) Pause Mark Start 0.012ms
+ * [1.020s][info][gc,phases   ] GC(3) Concurrent Mark 18.456ms
+ * [1.025s][info][gc          ] Allocation Stall (main) 5.123ms
+ * [1.040s][info][gc,heap     ] GC(3)      Used:      410M (80%)         ...
+ * [1.040s][info][gc          ] GC(3) Garbage Collection (Allocation Rate) 410M(80%)->102M(20%)
+ *
+ * [2.000s][info][gc          ] GC(4) Pause Init Mark (unload classes) 0.123ms
+ * [2.012s][info][gc          ] GC(4) Concurrent marking (unload classes) 12.345ms
+ * [2.016s][info][gc          ] GC(4) Concurrent evacuation 500M->510M(1024M) 3.456ms
+ * [2.030s][info][gc,stats    ]   Allocation pacing accrued:
+ * [2.030s][info][gc,stats    ]       12 of   30 ms ( 40.0%): main
+ *
+ * The lines are decoded as they are read into growable arrays, which are trimmed when the cycle is built. A single
+ * instance is reused for all the cycles of a log.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+class PendingCycle
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    static final String ALLOCATION_STALL = "Allocation Stall ";
+    static final String PACING_HEADER = "Allocation pacing accrued:";
+    static final String GARBAGE_COLLECTION = "Garbage Collection ";
+
+    private static final String PAUSE_PREFIX = "Pause ";
+    private static final String CONCURRENT_PREFIX = "Concurrent ";
+
+    // the ZGC heap table rows, the first column is the occupancy at mark start
+    private static final String CAPACITY = "Capacity:";
+    private static final String USED = "Used:";
+
+    private static final String PACING_OF = " of ";
+    private static final String PACING_NAME_SEPARATOR = "): ";
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the message is a phase that ends with its duration ("Pause Mark Start 0.012ms",
+     *         "Concurrent marking (unload classes) 12.345ms").
+     */
+    static boolean isPhase(String s, int from)
+    {
+        return s.startsWith(PAUSE_PREFIX, from) || s.startsWith(CONCURRENT_PREFIX, from);
+    }
+
+    /**
+     * @return the index after the phase name: the name ends before the first parenthesized label, heap transition or
+     *         duration ("Concurrent evacuation 500M->510M(1024M) 3.456ms").
+     */
+    static int phaseNameEnd(String s, int from, int to)
+    {
+        for(int i = from; i < to && i < s.length() - 1; i ++)
+        {
+            if (s.charAt(i) == ' ')
+            {
+                char c = s.charAt(i + 1);
+
+                if (c == '(' || (c >= '0' && c <= '9'))
+                {
+                    return i;
+                }
+            }
+        }
+
+        int end = to;
+
+        while(end > from && s.charAt(end - 1) == ' ')
+        {
+            end --;
+        }
+
+        return end;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private int id;
+
+    private Timestamp timestamp;
+    private long start;
+    private long end;
+
+    private String cause;
+
+    private String[] phases;
+    private int[] phaseMicroseconds;
+    private int phaseCount;
+
+    private String[] stallThreads;
+    private int[] stallMicroseconds;
+    private int stallCount;
+
+    private String[] pacingThreads;
+    private int[] pacingMicroseconds;
+    private int pacingCount;
+
+    // bytes, -1 if not logged
+    private long heapUsed;
+    private long heapCapacity;
+
+    private final long[] values;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    PendingCycle()
+    {
+        this.values = new long[4];
+        this.phases = new String[INITIAL_CAPACITY];
+        this.phaseMicroseconds = new int[INITIAL_CAPACITY];
+        this.stallThreads = new String[INITIAL_CAPACITY];
+        this.stallMicroseconds = new int[INITIAL_CAPACITY];
+        this.pacingThreads = new String[INITIAL_CAPACITY];
+        this.pacingMicroseconds = new int[INITIAL_CAPACITY];
+        reset(-1, null, -1L);
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        return "PendingCycle[GC(" + id + "), " + phaseCount + " phases, " + stallCount + " stalls]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param timestamp the timestamp of the first line of the cycle.
+     * @param millis the time or the uptime of the first line of the cycle, in milliseconds.
+     */
+    void reset(int id, Timestamp timestamp, long millis)
+    {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.start = millis;
+        this.end = millis;
+        this.cause = null;
+        this.heapUsed = -1L;
+        this.heapCapacity = -1L;
+
+        // the names are interned, no need to clear the references
+        this.phaseCount = 0;
+        this.stallCount = 0;
+        this.pacingCount = 0;
+    }
+
+    int getId()
+    {
+        return id;
+    }
+
+    Timestamp getTimestamp()
+    {
+        return timestamp;
+    }
+
+    String getCause()
+    {
+        return cause;
+    }
+
+    /**
+     * Extends the cycle to the time of the given line.
+     */
+    void touch(long millis)
+    {
+        end = Math.max(end, millis);
+    }
+
+    /**
+     * Decodes a phase: "Pause Mark Start 0.012ms", "Concurrent cleanup 512M->500M(1024M) 0.045ms". The first heap
+     * transition logged with a phase is the occupancy at the start of the cycle, if the collector does not log it
+     * otherwise.
+     *
+     * @return false if the message does not end with a duration, as the phase start lines do.
+     */
+    boolean addPhase(String s, int from, NameTable names)
+    {
+        int d = UnifiedLogParser.durationStart(s, from);
+
+        if (d == -1)
+        {
+            return false;
+        }
+
+        int nameEnd = phaseNameEnd(s, from, d);
+
+        // the parenthesized labels are not part of the name, the heap transition follows them
+        int i = nameEnd;
+
+        while(i < d && (s.charAt(i) == ' ' || s.charAt(i) == '('))
+        {
+            if (s.charAt(i) == '(')
+            {
+                int close = s.indexOf(')', i);
+                i = close == -1 ? d : close;
+            }
+
+            i ++;
+        }
+
+        if (i < d && heapUsed == -1L && PendingCollection.parseTransition(s, i, true, values) && values[2] >= 0)
+        {
+            heapUsed = values[0];
+            heapCapacity = values[3] >= 0 ? values[3] : values[2];
+        }
+
+        if (phaseCount == phases.length)
+        {
+            phases = Arrays.copyOf(phases, phaseCount * 2);
+            phaseMicroseconds = Arrays.copyOf(phaseMicroseconds, phaseCount * 2);
+        }
+
+        phases[phaseCount] = names.intern(s, from, nameEnd);
+        phaseMicroseconds[phaseCount ++] = toInt(UnifiedLogParser.parseThousandths(s, d));
+        return true;
+    }
+
+    /**
+     * Decodes an allocation stall: "Allocation Stall (main) 5.123ms".
+     *
+     * @return false if the message is malformed.
+     */
+    boolean addStall(String s, int from, NameTable names)
+    {
+        int d = UnifiedLogParser.durationStart(s, from);
+        int open = s.indexOf('(', from);
+        int close = d == -1 ? -1 : s.lastIndexOf(')', d);
+
+        if (d == -1 || open == -1 || close <= open)
+        {
+            return false;
+        }
+
+        if (stallCount == stallThreads.length)
+        {
+            stallThreads = Arrays.copyOf(stallThreads, stallCount * 2);
+            stallMicroseconds = Arrays.copyOf(stallMicroseconds, stallCount * 2);
+        }
+
+        stallThreads[stallCount] = names.intern(s, open + 1, close);
+        stallMicroseconds[stallCount ++] = toInt(UnifiedLogParser.parseThousandths(s, d));
+        return true;
+    }
+
+    /**
+     * Decodes a pacing line that follows the "Allocation pacing accrued:" header: "   12 of   30 ms ( 40.0%): main".
+     * The totals ("<total>", "<average total>") are not recorded.
+     *
+     * @return false if the message is not a pacing line, which ends the pacing section.
+     */
+    boolean addPacing(String s, int from, NameTable names)
+    {
+        int i = from;
+
+        while(i < s.length() && s.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        long micros = UnifiedLogParser.parseThousandths(s, i);
+        int separator = s.indexOf(PACING_NAME_SEPARATOR, i);
+
+        if (micros < 0 || !s.startsWith(PACING_OF, skipDigits(s, i)) || separator == -1)
+        {
+            return false;
+        }
+
+        int name = separator + PACING_NAME_SEPARATOR.length();
+
+        if (name < s.length() && s.charAt(name) == '<')
+        {
+            return true;
+        }
+
+        if (pacingCount == pacingThreads.length)
+        {
+            pacingThreads = Arrays.copyOf(pacingThreads, pacingCount * 2);
+            pacingMicroseconds = Arrays.copyOf(pacingMicroseconds, pacingCount * 2);
+        }
+
+        pacingThreads[pacingCount] = names.intern(s, name, s.length());
+        pacingMicroseconds[pacingCount ++] = toInt(micros);
+        return true;
+    }
+
+    /**
+     * Decodes a ZGC heap table row. The first column is the occupancy at mark start:
+     *
+     *                Mark Start          Mark End        Relocate Start      Relocate End           High               Low
+     *  Capacity:      512M (100%)        512M (100%)        512M (100%)        512M (100%)        512M (100%)        512M (100%)
+     *      Used:      410M (80%)         430M (84%)         440M (86%)         102M (20%)         440M (86%)         102M (20%)
+     */
+    void addHeap(String s, int from)
+    {
+        int i = from;
+
+        while(i < s.length() && s.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        boolean capacity = s.startsWith(CAPACITY, i);
+
+        if (!capacity && !s.startsWith(USED, i))
+        {
+            return;
+        }
+
+        i += capacity ? CAPACITY.length() : USED.length();
+
+        while(i < s.length() && s.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        long value = G1Regions.parseMemory(s, i);
+
+        if (value < 0)
+        {
+            return;
+        }
+
+        if (capacity)
+        {
+            heapCapacity = value;
+        }
+        else
+        {
+            heapUsed = value;
+        }
+    }
+
+    /**
+     * Decodes the ZGC cycle summary: "Garbage Collection (Allocation Rate) 410M(80%)->102M(20%)". The occupancy before
+     * and its percentage of the capacity are used if the heap table was not logged.
+     */
+    void addSummary(String s, int from)
+    {
+        int open = s.indexOf('(', from);
+        int close = open == -1 ? -1 : s.indexOf(')', open);
+
+        if (close == -1)
+        {
+            return;
+        }
+
+        cause = GCCause.intern(s, open + 1, close);
+
+        int i = close + 1;
+
+        while(i < s.length() && s.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        long used = G1Regions.parseMemory(s, i);
+        int percent = used < 0 ? -1 : s.indexOf('(', i);
+
+        if (percent == -1 || heapUsed != -1L)
+        {
+            return;
+        }
+
+        long p = 0L;
+        int j = percent + 1;
+
+        for(; j < s.length() && s.charAt(j) >= '0' && s.charAt(j) <= '9'; j ++)
+        {
+            p = p * 10 + (s.charAt(j) - '0');
+        }
+
+        if (p > 0 && j < s.length() && s.charAt(j) == '%')
+        {
+            heapUsed = used;
+            heapCapacity = used * 100 / p;
+        }
+    }
+
+    /**
+     * @return true if nothing but the start of the cycle was logged.
+     */
+    boolean isEmpty()
+    {
+        return phaseCount == 0 && stallCount == 0 && pacingCount == 0;
+    }
+
+    ConcurrentCycle build(CollectionType type)
+    {
+        ConcurrentCycle c = new ConcurrentCycle(timestamp, end - start, type,
+            Arrays.copyOf(phases, phaseCount), Arrays.copyOf(phaseMicroseconds, phaseCount),
+            stallCount == 0 ? null : Arrays.copyOf(stallThreads, stallCount),
+            stallCount == 0 ? null : Arrays.copyOf(stallMicroseconds, stallCount),
+            pacingCount == 0 ? null : Arrays.copyOf(pacingThreads, pacingCount),
+            pacingCount == 0 ? null : Arrays.copyOf(pacingMicroseconds, pacingCount),
+            heapUsed, heapUsed == -1L ? -1L : heapCapacity);
+
+        if (cause != null)
+        {
+            c.setCause(cause);
+        }
+
+        return c;
+    }
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static int skipDigits(String s, int from)
+    {
+        int i = from;
+
+        while(i < s.length() && ((s.charAt(i) >= '0' && s.charAt(i) <= '9') || s.charAt(i) == '.'))
+        {
+            i ++;
+        }
+
+        return i;
+    }
+
+    private static int toInt(long micros)
+    {
+        return micros > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)micros;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
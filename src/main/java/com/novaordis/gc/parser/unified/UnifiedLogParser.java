@@ -0,0 +1,1100 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.G1Regions;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+import com.novaordis.gc.model.event.g1.G1Cleanup;
+import com.novaordis.gc.model.event.g1.G1MixedCollection;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.model.event.g1.G1Remark;
+import com.novaordis.gc.model.event.g1.G1YoungCollection;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the GC logs written with unified logging (-Xlog:gc*, JDK 9 and newer):
+ *
+ * [2026-10-01T12:00:00.123+0000][12.345s][info][gc] GC(42) Pause Young (Normal) (G1 Evacuation Pause) 512M->128M(2048M) 12.345ms
+ *
+ * The decorations are decoded by Decorations. The pauses are built from their summary line (tags "gc"), and the detail
+ * lines logged with the same GC id ("gc,heap", "gc,metaspace", "gc,phases", "gc,task" and "gc,cpu") are correlated
+ * with them by a PendingCollection, and mapped on the same fields as the ones of the legacy logs. Only the collections
+ * whose detail lines are being logged are kept in memory, and their number is bounded.
+ *
+ * The G1, parallel scavenge and serial pauses are recognized. The concurrent phases of these collectors are not
+ * recorded.
+ *
+ * The ZGC and Shenandoah cycles are recorded as one ConcurrentCycle event per cycle, assembled by a PendingCycle from
+ * the pauses, the concurrent phases, the heap occupancy at the start of the cycle, the allocation stalls and the
+ * pacing delays. The stalls and the pacing delays are not always logged with a GC id, those are attributed to the
+ * latest cycle, which is kept open until the next one starts.
+ *
+ * Like the linear scan parser, the parser can be used only a single time, and it closes the reader when parsing
+ * completes.
+ *
+ * @see com.novaordis.gc.parser.linear.LinearScanParser
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class UnifiedLogParser implements GCLogParser
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(UnifiedLogParser.class);
+
+    public static final String GC_TAGS = "gc";
+    public static final String HEAP_TAGS = "gc,heap";
+    public static final String METASPACE_TAGS = "gc,metaspace";
+    public static final String PHASES_TAGS = "gc,phases";
+    public static final String TASK_TAGS = "gc,task";
+    public static final String CPU_TAGS = "gc,cpu";
+    public static final String INIT_TAGS = "gc,init";
+
+    private static final String USING_ZGC = "Using The Z Garbage Collector";
+    private static final String USING_SHENANDOAH = "Using Shenandoah";
+
+    // the first pause of a cycle, for the logs that do not start with the collector configuration
+    private static final String ZGC_FIRST_PAUSE = "Pause Mark Start";
+    private static final String SHENANDOAH_FIRST_PAUSE = "Pause Init Mark";
+
+    private static final String GC_ID_PREFIX = "GC(";
+
+    private static final String USING_G1 = "Using G1";
+
+    // JDK 9 to 16 log it with "gc,heap", JDK 17 and newer with "gc,init"
+    private static final String REGION_SIZE_PREFIX = "Heap region size: ";
+    private static final String REGION_SIZE_PREFIX_2 = "Heap Region Size: ";
+
+    private static final String TO_SPACE_EXHAUSTED = "To-space exhausted";
+
+    private static final String WORKERS_PREFIX = "Using ";
+
+    private static final String PAUSE_PREFIX = "Pause ";
+    private static final String YOUNG = "Young";
+    private static final String FULL = "Full";
+    private static final String REMARK = "Remark";
+    private static final String CLEANUP = "Cleanup";
+    private static final String INITIAL_MARK = "Initial Mark";
+
+    // the G1 young pause kinds, logged in parentheses after "Pause Young"
+    private static final String NORMAL = "Normal";
+    private static final String MIXED = "Mixed";
+    private static final String CONCURRENT_START = "Concurrent Start";
+    private static final String PREPARE_MIXED = "Prepare Mixed";
+    private static final String CONCURRENT_END = "Concurrent End";
+    private static final String EVACUATION_FAILURE = "Evacuation Failure";
+
+    private static final String USER_LABEL = "User=";
+    private static final String SYS_LABEL = "Sys=";
+    private static final String REAL_LABEL = "Real=";
+
+    // the number of collections whose detail lines can be logged at the same time (a G1 concurrent cycle spans several
+    // young pauses)
+    private static final int MAX_PENDING = 8;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the GC id that starts the message at the given position ("GC(42) ..."), or -1 if the message does not
+     *         start with a GC id.
+     */
+    static int parseGCId(String s, int from)
+    {
+        if (!s.startsWith(GC_ID_PREFIX, from))
+        {
+            return -1;
+        }
+
+        int id = 0;
+        int i = from + GC_ID_PREFIX.length();
+        int start = i;
+
+        for(; i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i ++)
+        {
+            id = id * 10 + (s.charAt(i) - '0');
+        }
+
+        return i == start || i == s.length() || s.charAt(i) != ')' ? -1 : id;
+    }
+
+    /**
+     * @return the seconds value that follows the given label ("User=0.01s"), in milliseconds, or -1 if the label is
+     *         not found.
+     */
+    static long parseSeconds(String s, String label, int from)
+    {
+        int i = s.indexOf(label, from);
+
+        if (i == -1)
+        {
+            return -1L;
+        }
+
+        return parseThousandths(s, i + label.length());
+    }
+
+    /**
+     * Parses a decimal value ("0.01", "4.689") without creating intermediate objects.
+     *
+     * @return the value multiplied by 1000, the digits beyond the third decimal are ignored; -1 if there is no value at
+     *         the given position.
+     */
+    static long parseThousandths(String s, int from)
+    {
+        long value = 0L;
+        int fractionDigits = -1;
+        int i = from;
+
+        for(; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c >= '0' && c <= '9')
+            {
+                if (fractionDigits < 3)
+                {
+                    value = value * 10 + (c - '0');
+
+                    if (fractionDigits >= 0)
+                    {
+                        fractionDigits ++;
+                    }
+                }
+            }
+            else if (c == '.' && fractionDigits == -1)
+            {
+                fractionDigits = 0;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if (i == from)
+        {
+            return -1L;
+        }
+
+        for(int d = Math.max(fractionDigits, 0); d < 3; d ++)
+        {
+            value *= 10;
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the index of the duration in milliseconds that ends the line ("4.689ms"), or -1 if the line does not end
+     *         with a duration. The value can be read with parseThousandths(), in microseconds.
+     */
+    static int durationStart(String s, int from)
+    {
+        int end = s.length();
+
+        while(end > from && s.charAt(end - 1) == ' ')
+        {
+            end --;
+        }
+
+        int start = end - 2;
+
+        if (start <= from || !s.startsWith("ms", start))
+        {
+            return -1;
+        }
+
+        while(start > from && ((s.charAt(start - 1) >= '0' && s.charAt(start - 1) <= '9') || s.charAt(start - 1) == '.'))
+        {
+            start --;
+        }
+
+        return start == end - 2 || start == from || s.charAt(start - 1) != ' ' ? -1 : start;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    private Reader reader;
+
+    // the parser may be created for a file, in which case the reader is created when parsing starts
+    private File file;
+
+    // null means no range restriction
+    private TimeRange timeRange;
+
+    // null means all events are kept
+    private Predicate filter;
+
+    private Decorations decorations;
+
+    // the collections whose detail lines are being logged, recycled
+    private PendingCollection[] pending;
+
+    // the pause whose summary line was parsed, and which waits for its CPU times, null if none
+    private PendingCollection open;
+
+    private boolean g1;
+
+    // in bytes, -1 if not logged
+    private long regionSize;
+
+    // ZGC_CYCLE or SHENANDOAH_CYCLE, null for the other collectors
+    private CollectionType concurrent;
+
+    // the latest concurrent cycle, kept open until the next one starts
+    private PendingCycle cycle;
+
+    // the phase and thread names of the concurrent cycles
+    private NameTable names;
+
+    // true while the lines of an "Allocation pacing accrued:" section are being read
+    private boolean pacing;
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The parse() method will close the reader upon completion, whether the execution is successful or not.
+     */
+    public UnifiedLogParser(Reader reader)
+    {
+        this.reader = reader;
+        this.decorations = new Decorations();
+    }
+
+    /**
+     * The file is opened when parse() is invoked.
+     *
+     * @param timeRange null means no restriction.
+     */
+    public UnifiedLogParser(File file, TimeRange timeRange)
+    {
+        this.file = file;
+        this.timeRange = timeRange;
+        this.decorations = new Decorations();
+    }
+
+    // GCLogParser implementation ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * This method will close the reader upon completion, successful or not.
+     *
+     * @see com.novaordis.gc.parser.GCLogParser#parse(com.novaordis.gc.parser.TimeOrigin)
+     */
+    @Override
+    public List<GCEvent> parse(TimeOrigin timeOrigin) throws Exception
+    {
+        if (timeOrigin == null)
+        {
+            throw new IllegalArgumentException("null time origin wrapper");
+        }
+
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        pending = new PendingCollection[MAX_PENDING];
+        open = null;
+        g1 = false;
+        regionSize = -1L;
+        concurrent = null;
+        cycle = new PendingCycle();
+        names = new NameTable();
+        pacing = false;
+
+        BufferedReader br = null;
+
+        try
+        {
+            br = new BufferedReader(reader != null ? reader : new FileReader(file));
+
+            long lineNumber = 0;
+            String line;
+            ParserException lastLineException = null;
+
+            while((line = br.readLine()) != null)
+            {
+                lineNumber ++;
+
+                if (lastLineException != null)
+                {
+                    // the previous line generated an exception, and it is not the last line, stop parsing
+                    throw lastLineException;
+                }
+
+                int message = decorations.parse(line);
+
+                if (message == -1)
+                {
+                    if (line.length() > 0)
+                    {
+                        log.debug("line " + lineNumber + " is not a unified logging line, ignoring it");
+                    }
+
+                    continue;
+                }
+
+                int id = parseGCId(line, message);
+
+                int from = message;
+
+                if (id != -1)
+                {
+                    // "GC(42) "
+                    from = line.indexOf(')', message) + 1;
+
+                    if (from < line.length() && line.charAt(from) == ' ')
+                    {
+                        from ++;
+                    }
+
+                    if (concurrent == null && !g1 && line.startsWith(PAUSE_PREFIX, from))
+                    {
+                        concurrent = line.startsWith(ZGC_FIRST_PAUSE, from) ? CollectionType.ZGC_CYCLE :
+                            line.startsWith(SHENANDOAH_FIRST_PAUSE, from) ? CollectionType.SHENANDOAH_CYCLE : null;
+                    }
+                }
+
+                if (concurrent != null)
+                {
+                    if (!concurrentLine(id, line, from, lineNumber, timeOrigin, events))
+                    {
+                        log.debug("line " + lineNumber + " follows the time range " + timeRange + ", parsing done");
+                        break;
+                    }
+
+                    continue;
+                }
+
+                if (id == -1)
+                {
+                    configure(line, message);
+                    continue;
+                }
+
+                try
+                {
+                    if (!processLine(id, line, from, lineNumber, timeOrigin, events))
+                    {
+                        log.debug("line " + lineNumber + " follows the time range " + timeRange + ", parsing done");
+                        break;
+                    }
+                }
+                catch(ParserException e)
+                {
+                    // we don't bubble the exception up right away, the JVM might not have finished writing the last line
+                    lastLineException = e;
+                }
+            }
+
+            if (lastLineException != null)
+            {
+                log.warn(lastLineException.getMessage());
+            }
+
+            complete(events);
+            completeCycle(timeOrigin, events);
+
+            log.debug("parsing done");
+        }
+        finally
+        {
+            if (br != null)
+            {
+                br.close();
+            }
+        }
+
+        return events;
+    }
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param timeRange null means no restriction.
+     */
+    public void setTimeRange(TimeRange timeRange)
+    {
+        this.timeRange = timeRange;
+    }
+
+    public TimeRange getTimeRange()
+    {
+        return timeRange;
+    }
+
+    /**
+     * @param filter null means all events are kept.
+     */
+    public void setFilter(Predicate filter)
+    {
+        this.filter = filter;
+    }
+
+    public Predicate getFilter()
+    {
+        return filter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "UnifiedLogParser[" + (file != null ? file : reader) + "]";
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The lines without a GC id that describe the configuration of the collector.
+     */
+    private void configure(String line, int from)
+    {
+        if (decorations.hasTags(GC_TAGS) || decorations.hasTags(INIT_TAGS))
+        {
+            if (line.startsWith(USING_G1, from))
+            {
+                g1 = true;
+                return;
+            }
+
+            if (line.startsWith(USING_ZGC, from))
+            {
+                concurrent = CollectionType.ZGC_CYCLE;
+                return;
+            }
+
+            if (line.startsWith(USING_SHENANDOAH, from))
+            {
+                concurrent = CollectionType.SHENANDOAH_CYCLE;
+                return;
+            }
+        }
+
+        if (decorations.hasTags(HEAP_TAGS) || decorations.hasTags(INIT_TAGS))
+        {
+            int i = line.startsWith(REGION_SIZE_PREFIX, from) ? from + REGION_SIZE_PREFIX.length() :
+                line.startsWith(REGION_SIZE_PREFIX_2, from) ? from + REGION_SIZE_PREFIX_2.length() : -1;
+
+            if (i != -1)
+            {
+                regionSize = G1Regions.parseMemory(line, i);
+                g1 = true;
+            }
+        }
+    }
+
+    /**
+     * @param from the index of the message that follows the GC id.
+     *
+     * @return false if the line follows the time range, so parsing can stop.
+     */
+    private boolean processLine(int id, String line, int from, long lineNumber, TimeOrigin timeOrigin,
+                                List<GCEvent> events) throws Exception
+    {
+        if (decorations.hasTags(CPU_TAGS))
+        {
+            if (open != null && open.getId() == id)
+            {
+                long user = parseSeconds(line, USER_LABEL, from);
+                long sys = parseSeconds(line, SYS_LABEL, from);
+                long real = parseSeconds(line, REAL_LABEL, from);
+
+                if (user >= 0 && sys >= 0 && real >= 0)
+                {
+                    open.getEvent().setTimes(user, sys, real);
+                }
+
+                complete(events);
+            }
+
+            return true;
+        }
+
+        if (decorations.hasTags(GC_TAGS))
+        {
+            if (line.startsWith(PAUSE_PREFIX, from))
+            {
+                return pause(id, line, from, lineNumber, timeOrigin, events);
+            }
+
+            if (line.startsWith(TO_SPACE_EXHAUSTED, from))
+            {
+                pending(id).setNotes(G1Pause.TO_SPACE_EXHAUSTED);
+            }
+
+            // the concurrent phases are not recorded
+            return true;
+        }
+
+        boolean valid;
+
+        if (decorations.hasTags(HEAP_TAGS))
+        {
+            // the heap summaries logged at debug level ("Heap before GC invocations=...") are not decoded
+            valid = !Decorations.INFO.equals(decorations.getLevel()) || pending(id).addHeap(line, from);
+        }
+        else if (decorations.hasTags(METASPACE_TAGS))
+        {
+            valid = pending(id).addMetaspace(line, from);
+        }
+        else if (decorations.hasTags(PHASES_TAGS))
+        {
+            // the counters are not recorded, nor are the phases of the other collectors ("Phase 1: Mark live objects")
+            if (g1)
+            {
+                pending(id).addPhase(line, from);
+            }
+
+            valid = true;
+        }
+        else if (decorations.hasTags(TASK_TAGS))
+        {
+            // "Using 4 workers of 4 for evacuation"
+            if (line.startsWith(WORKERS_PREFIX, from))
+            {
+                long workers = parseCount(line, from + WORKERS_PREFIX.length());
+
+                if (workers >= 0)
+                {
+                    pending(id).setWorkers((int)workers);
+                }
+            }
+
+            valid = true;
+        }
+        else
+        {
+            valid = true;
+        }
+
+        if (!valid)
+        {
+            log.warn("invalid " + decorations.getTags() + " line " + lineNumber + ": \"" + line + "\"");
+        }
+
+        return true;
+    }
+
+    /**
+     * Builds the pause described by a summary line:
+     *
+     * Pause Young (Normal) (G1 Evacuation Pause) 24M->6M(256M) 4.689ms
+     * Pause Young (Allocation Failure) 64M->10M(245M) 7.123ms
+     * Pause Full (System.gc()) 12M->8M(256M) 23.456ms
+     * Pause Remark 20M->20M(256M) 1.234ms
+     *
+     * @param from the index of "Pause ".
+     *
+     * @return false if the pause follows the time range.
+     */
+    private boolean pause(int id, String line, int from, long lineNumber, TimeOrigin timeOrigin, List<GCEvent> events)
+        throws Exception
+    {
+        // the previous pause did not log its CPU times
+        complete(events);
+
+        PendingCollection p = find(id);
+
+        int i = from + PAUSE_PREFIX.length();
+
+        String kind = line.startsWith(YOUNG, i) ? YOUNG : line.startsWith(FULL, i) ? FULL :
+            line.startsWith(REMARK, i) ? REMARK : line.startsWith(CLEANUP, i) ? CLEANUP :
+                line.startsWith(INITIAL_MARK, i) ? INITIAL_MARK : null;
+
+        if (kind == null)
+        {
+            // the pauses of the concurrent collectors
+            log.debug("pause not recognized on line " + lineNumber + ": \"" + line + "\"");
+            release(p);
+            return true;
+        }
+
+        i += kind.length();
+
+        String cause = null;
+        String notes = p == null ? null : p.getNotes();
+        boolean mixed = false;
+        boolean initialMark = INITIAL_MARK == kind;
+
+        // the parenthesized labels
+        while(true)
+        {
+            while(i < line.length() && line.charAt(i) == ' ')
+            {
+                i ++;
+            }
+
+            if (i == line.length() || line.charAt(i) != '(')
+            {
+                break;
+            }
+
+            int close = closingParenthesis(line, i);
+
+            if (close == -1)
+            {
+                throw new ParserException("unbalanced parentheses in \"" + line.substring(from) + "\"", lineNumber);
+            }
+
+            int start = i + 1;
+
+            if (matches(line, start, close, MIXED) || matches(line, start, close, PREPARE_MIXED))
+            {
+                // "Prepare Mixed" is the last young only pause before the mixed ones, but it is logged as such by
+                // JDK 12 and newer
+                mixed = matches(line, start, close, MIXED);
+                g1 = true;
+            }
+            else if (matches(line, start, close, CONCURRENT_START) || matches(line, start, close, INITIAL_MARK))
+            {
+                initialMark = true;
+                g1 = true;
+            }
+            else if (matches(line, start, close, NORMAL) || matches(line, start, close, CONCURRENT_END))
+            {
+                g1 = true;
+            }
+            else if (matches(line, start, close, EVACUATION_FAILURE))
+            {
+                notes = G1Pause.TO_SPACE_EXHAUSTED;
+            }
+            else if (cause == null)
+            {
+                cause = GCCause.intern(line, start, close);
+            }
+
+            i = close + 1;
+        }
+
+        // the heap occupancy is optional, the duration is not
+        BeforeAfterMax heap = null;
+        long[] values = new long[4];
+
+        if (PendingCollection.parseTransition(line, i, true, values) && values[2] >= 0)
+        {
+            heap = new BeforeAfterMax(values[0], values[1], values[2], Unit.b);
+            i = line.indexOf(' ', i);
+            i = i == -1 ? line.length() : i;
+        }
+
+        long duration = parseDuration(line, i, lineNumber);
+
+        Timestamp ts = decorations.getTimestamp();
+
+        if (ts == null)
+        {
+            log.warn("line " + lineNumber + " is not decorated with time or uptime, ignoring it");
+            release(p);
+            return true;
+        }
+
+        applyTimeOrigin(timeOrigin, ts, lineNumber);
+
+        if (timeRange != null)
+        {
+            int position = timeRange.position(ts, timeOrigin.get());
+
+            if (position == TimeRange.AFTER)
+            {
+                return false;
+            }
+
+            if (position == TimeRange.BEFORE)
+            {
+                release(p);
+                return true;
+            }
+        }
+
+        GCEventBase event;
+
+        if (FULL == kind)
+        {
+            event = new FullCollection(ts, duration, p == null ? null : p.getNewGeneration(),
+                p == null ? null : p.getOldGeneration(), null, heap, false, notes);
+        }
+        else if (g1 && YOUNG == kind)
+        {
+            event = mixed ?
+                new G1MixedCollection(ts, duration, notes, heap) :
+                new G1YoungCollection(ts, duration, notes, initialMark, heap);
+        }
+        else if (g1 && INITIAL_MARK == kind)
+        {
+            // JDK 9 and 10
+            event = new G1YoungCollection(ts, duration, notes, true, heap);
+        }
+        else if (g1 && REMARK == kind)
+        {
+            event = new G1Remark(ts, duration);
+        }
+        else if (g1 && CLEANUP == kind)
+        {
+            event = new G1Cleanup(ts, duration, heap);
+        }
+        else if (YOUNG == kind)
+        {
+            event = new NewGenerationCollection(ts, duration, p == null ? null : p.getNewGeneration(), heap);
+        }
+        else
+        {
+            // the CMS initial mark and remark (JDK 9 to 13) do not log the old generation occupancy
+            log.debug("pause not recorded on line " + lineNumber + ": \"" + line + "\"");
+            release(p);
+            return true;
+        }
+
+        if (cause != null)
+        {
+            event.setCause(cause);
+        }
+
+        if (p == null)
+        {
+            p = pending(id);
+        }
+
+        p.complete(event, regionSize);
+        open = p;
+
+        return true;
+    }
+
+    /**
+     * The lines of the ZGC and Shenandoah logs. A line with a new GC id completes the current cycle and starts the next
+     * one. The lines without a GC id (allocation stalls, pacing) are added to the current cycle.
+     *
+     * @param id the GC id, -1 if the line is not logged with one.
+     * @param from the index of the message that follows the GC id, if any.
+     *
+     * @return false if the cycle that was completed follows the time range, so parsing can stop.
+     */
+    private boolean concurrentLine(int id, String line, int from, long lineNumber, TimeOrigin timeOrigin,
+                                   List<GCEvent> events) throws Exception
+    {
+        if (id != -1 && id != cycle.getId())
+        {
+            if (!completeCycle(timeOrigin, events))
+            {
+                return false;
+            }
+
+            Timestamp ts = decorations.getTimestamp();
+
+            if (ts == null)
+            {
+                log.warn("line " + lineNumber + " is not decorated with time or uptime, ignoring it");
+                return true;
+            }
+
+            applyTimeOrigin(timeOrigin, ts, lineNumber);
+            cycle.reset(id, ts, millis());
+        }
+
+        if (cycle.getId() == -1)
+        {
+            log.debug("line " + lineNumber + " precedes the first cycle, ignoring it");
+            return true;
+        }
+
+        if (pacing)
+        {
+            if (cycle.addPacing(line, from, names))
+            {
+                return true;
+            }
+
+            pacing = false;
+        }
+
+        int i = from;
+
+        while(i < line.length() && line.charAt(i) == ' ')
+        {
+            i ++;
+        }
+
+        boolean valid = true;
+
+        if (line.startsWith(PendingCycle.PACING_HEADER, i))
+        {
+            pacing = true;
+        }
+        else if (line.startsWith(PendingCycle.ALLOCATION_STALL, i))
+        {
+            valid = cycle.addStall(line, i, names);
+        }
+        else if (id != -1)
+        {
+            // the stalls logged after the end of the cycle do not extend it
+            cycle.touch(millis());
+
+            if (decorations.hasTags(GC_TAGS) || decorations.hasTags(PHASES_TAGS))
+            {
+                if (PendingCycle.isPhase(line, from))
+                {
+                    // the phase start lines, logged without a duration, are not recorded
+                    cycle.addPhase(line, from, names);
+                }
+                else if (line.startsWith(PendingCycle.GARBAGE_COLLECTION, from))
+                {
+                    cycle.addSummary(line, from);
+                }
+            }
+            else if (decorations.hasTags(HEAP_TAGS) && Decorations.INFO.equals(decorations.getLevel()))
+            {
+                cycle.addHeap(line, from);
+            }
+        }
+
+        if (!valid)
+        {
+            log.warn("invalid " + decorations.getTags() + " line " + lineNumber + ": \"" + line + "\"");
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the current concurrent cycle to the list, unless it is outside the time range or the filter rejects it.
+     *
+     * @return false if the cycle follows the time range.
+     */
+    private boolean completeCycle(TimeOrigin timeOrigin, List<GCEvent> events) throws Exception
+    {
+        if (cycle.getId() == -1 || cycle.isEmpty())
+        {
+            cycle.reset(-1, null, -1L);
+            return true;
+        }
+
+        Timestamp ts = cycle.getTimestamp();
+
+        if (timeRange != null)
+        {
+            int position = timeRange.position(ts, timeOrigin.get());
+
+            if (position == TimeRange.AFTER)
+            {
+                cycle.reset(-1, null, -1L);
+                return false;
+            }
+
+            if (position == TimeRange.BEFORE)
+            {
+                cycle.reset(-1, null, -1L);
+                return true;
+            }
+        }
+
+        ConcurrentCycle c = cycle.build(concurrent);
+        cycle.reset(-1, null, -1L);
+
+        if (filter == null || filter.accepts(c))
+        {
+            events.add(c);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the time decoration of the current line, or its uptime if the time is not logged, in milliseconds.
+     */
+    private long millis()
+    {
+        return decorations.getTime() != -1 ? decorations.getTime() : decorations.getUptime();
+    }
+
+    /**
+     * Adds the open pause to the list, unless the filter rejects it, and recycles its pending collection.
+     */
+    private void complete(List<GCEvent> events) throws Exception
+    {
+        if (open == null)
+        {
+            return;
+        }
+
+        GCEventBase event = open.getEvent();
+
+        if (filter == null || filter.accepts(event))
+        {
+            events.add(event);
+        }
+
+        release(open);
+        open = null;
+    }
+
+    /**
+     * @return the pending collection for the given GC id, created if necessary. If all are in use, the one with the
+     *         smallest GC id is recycled, its detail lines are lost.
+     */
+    private PendingCollection pending(int id)
+    {
+        PendingCollection p = find(id);
+
+        if (p != null)
+        {
+            return p;
+        }
+
+        int free = -1;
+
+        for(int i = 0; i < pending.length; i ++)
+        {
+            if (pending[i] == null || pending[i].getId() == -1)
+            {
+                free = i;
+                break;
+            }
+
+            if (pending[i] != open && (free == -1 || pending[i].getId() < pending[free].getId()))
+            {
+                free = i;
+            }
+        }
+
+        if (pending[free] == null)
+        {
+            pending[free] = new PendingCollection();
+        }
+        else if (pending[free].getId() != -1)
+        {
+            log.debug("dropping the detail lines of GC(" + pending[free].getId() + ")");
+        }
+
+        pending[free].reset(id);
+        return pending[free];
+    }
+
+    /**
+     * @return the pending collection for the given GC id, or null if there is none.
+     */
+    private PendingCollection find(int id)
+    {
+        for(PendingCollection p: pending)
+        {
+            if (p != null && p.getId() == id && p != open)
+            {
+                return p;
+            }
+        }
+
+        return null;
+    }
+
+    private static void release(PendingCollection p)
+    {
+        if (p != null)
+        {
+            p.reset(-1);
+        }
+    }
+
+    private static void applyTimeOrigin(TimeOrigin timeOrigin, Timestamp ts, long lineNumber) throws UserErrorException
+    {
+        if (ts.getTime() != null)
+        {
+            // the time origin can be inferred from the first line decorated with both the time and the uptime
+            Long origin = ts.getTimeOrigin();
+
+            if (origin != null)
+            {
+                timeOrigin.initialize(origin);
+            }
+
+            return;
+        }
+
+        if (!timeOrigin.isInitialized())
+        {
+            throw new UserErrorException("the GC event specified on line " + lineNumber + " needs a time origin, which is not specified. See the 'Time Origin' section of the documentation");
+        }
+
+        ts.applyTimeOrigin(timeOrigin.get());
+    }
+
+    /**
+     * @return the duration that ends the line ("4.689ms"), in milliseconds, rounded.
+     */
+    private static long parseDuration(String line, int from, long lineNumber) throws ParserException
+    {
+        int start = durationStart(line, from);
+
+        if (start == -1)
+        {
+            throw new ParserException("the pause does not end with its duration: \"" + line.substring(from) + "\"", lineNumber);
+        }
+
+        return (parseThousandths(line, start) + 500) / 1000;
+    }
+
+    /**
+     * @return the integer at the given position, or -1 if there is none.
+     */
+    private static long parseCount(String s, int from)
+    {
+        long value = 0L;
+        int i = from;
+
+        for(; i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i ++)
+        {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+
+        return i == from ? -1L : value;
+    }
+
+    private static int closingParenthesis(String s, int open)
+    {
+        int depth = 0;
+
+        for(int i = open; i < s.length(); i ++)
+        {
+            char c = s.charAt(i);
+
+            if (c == '(')
+            {
+                depth ++;
+            }
+            else if (c == ')' && -- depth == 0)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean matches(String s, int from, int to, String label)
+    {
+        return to - from == label.length() && s.startsWith(label, from);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
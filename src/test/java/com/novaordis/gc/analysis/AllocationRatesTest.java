@@ -0,0 +1,158 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class AllocationRatesTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(AllocationRatesTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void invalidBucketSize() throws Exception
+    {
+        try
+        {
+            new AllocationRates(0L);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void ratesAndPromotion() throws Exception
+    {
+        AllocationRates r = new AllocationRates(10000L);
+
+        r.record(ng(0L, 1000L, 100L, 1500L, 700L));
+        r.record(ng(10000L, 2100L, 100L, 2700L, 900L));
+        r.record(new CMSConcurrentMark(new Timestamp(15000L)));
+        r.record(ng(20000L, 4100L, 100L, 4900L, 1100L));
+        r.record(new FullCollection(new Timestamp(25000L), 1000L,
+            kb(500L, 0L), kb(1000L, 700L), null, kb(1500L, 700L), false));
+        r.close();
+
+        assertEquals(3L, r.getNewGenerationCollectionCount());
+        assertEquals(6400L * 1024, r.getTotalAllocated());
+        assertEquals(500L * 1024, r.getTotalPromoted());
+        assertEquals(256d * 1024, r.getAverageAllocationRate(), 0.001);
+        assertEquals(20d * 1024, r.getAveragePromotionRate(), 0.001);
+
+        PauseHistogram allocation = r.getAllocationRates();
+        assertEquals(3L, allocation.getCount());
+        assertEquals(80L, allocation.getMin());
+        assertEquals(200L, allocation.getValueAtPercentile(50d));
+        assertEquals(400L, allocation.getMax());
+
+        PauseHistogram promotion = r.getPromotionRates();
+        assertEquals(3L, promotion.getCount());
+        assertEquals(10L, promotion.getMin());
+        assertEquals(40L, promotion.getMax());
+
+        assertEquals(500d / 6400, r.getPromotionRatio(), 0.0001);
+        assertEquals(500d / 6900, r.getSurvivalRatio(), 0.0001);
+        assertEquals(0.6d, r.getPromotedReclaimedRatio(), 0.0001);
+        assertEquals(0L, r.getPrematurePromotionCount());
+
+        String table = r.toTable();
+        log.info("\n" + table);
+        assertTrue(table.contains("allocation"));
+        assertTrue(table.contains("peak"));
+    }
+
+    @Test
+    public void prematurePromotion() throws Exception
+    {
+        AllocationRates r = new AllocationRates();
+
+        r.record(ng(0L, 1000L, 100L, 1500L, 700L));
+        r.record(ng(1000L, 1100L, 100L, 1700L, 1200L));
+        r.close();
+
+        // 1000K left the young generation, 500K of it was promoted
+        assertEquals(1L, r.getPrematurePromotionCount());
+        assertNull(r.getPromotedReclaimedRatio());
+    }
+
+    @Test
+    public void heapOnly() throws Exception
+    {
+        AllocationRates r = new AllocationRates();
+
+        r.record(new NewGenerationCollection(new Timestamp(0L), 10L, null, kb(1000L, 200L)));
+        r.record(new NewGenerationCollection(new Timestamp(2000L), 10L, null, kb(1200L, 300L)));
+        r.close();
+
+        assertEquals(1000L * 1024, r.getTotalAllocated());
+        assertEquals(500d * 1024, r.getAverageAllocationRate(), 0.001);
+        assertEquals(0L, r.getTotalPromoted());
+        assertNull(r.getSurvivalRatio());
+    }
+
+    @Test
+    public void timeGoingBackwardsStartsNewSequence() throws Exception
+    {
+        AllocationRates r = new AllocationRates();
+
+        r.record(ng(5000L, 1000L, 100L, 1500L, 700L));
+        r.record(ng(1000L, 900L, 100L, 1500L, 700L));
+        r.record(ng(2000L, 1100L, 100L, 1500L, 500L));
+        r.close();
+
+        assertEquals(1000L * 1024, r.getTotalAllocated());
+    }
+
+    @Test
+    public void empty() throws Exception
+    {
+        AllocationRates r = new AllocationRates();
+        r.close();
+
+        assertEquals(0L, r.getTotalAllocated());
+        assertEquals(0d, r.getAverageAllocationRate(), 0d);
+        assertNull(r.getPromotionRatio());
+        assertEquals(0L, r.getAllocationRates().getCount());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static BeforeAfterMax kb(long before, long after)
+    {
+        return new BeforeAfterMax(before, after, 100000L, Unit.K);
+    }
+
+    private static NewGenerationCollection ng(long offset, long ngBefore, long ngAfter, long heapBefore, long heapAfter)
+    {
+        return new NewGenerationCollection(new Timestamp(offset), 10L, kb(ngBefore, ngAfter), kb(heapBefore, heapAfter));
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
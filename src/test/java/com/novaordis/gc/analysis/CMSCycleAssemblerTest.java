@@ -0,0 +1,163 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMarkStart;
+import com.novaordis.gc.model.event.cms.CMSConcurrentReset;
+import com.novaordis.gc.model.event.cms.CMSConcurrentSweep;
+import com.novaordis.gc.model.event.cms.CMSInitialMark;
+import com.novaordis.gc.model.event.cms.CMSRemark;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.CurrentMax;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSCycleAssemblerTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void noEvents() throws Exception
+    {
+        CMSCycleAssembler a = new CMSCycleAssembler();
+        a.close();
+
+        assertEquals(0L, a.getCycleCount());
+        assertNull(a.getAverageInterval());
+        assertNull(a.getCyclesPerHour());
+        assertNull(a.getAverageInitiatingOccupancyFraction());
+        assertEquals(0d, a.getAverageStopTheWorldTime(), 0d);
+    }
+
+    @Test
+    public void completedCycles() throws Exception
+    {
+        CMSCycleAssembler a = new CMSCycleAssembler();
+
+        recordCompletedCycle(a, 0L, "600M(1000M)");
+        recordCompletedCycle(a, 60000L, "800M(1000M)");
+        a.close();
+
+        assertEquals(2L, a.getCycleCount());
+        assertEquals(2L, a.getCount(CMSCycleOutcome.COMPLETED));
+        assertEquals(0L, a.getCount(CMSCycleOutcome.INCOMPLETE));
+        assertFalse(a.isAbsolute());
+
+        CMSCycle c = a.getCycles().get(0);
+        assertEquals(0L, c.getStart());
+        assertEquals(10000L, c.getEnd());
+        assertEquals(30L, c.getStopTheWorldTime());
+        assertEquals(0.6d, c.getInitiatingOccupancyFraction(), 0.0001d);
+        assertEquals(1000L, c.getWallTime(CMSPhase.MARK));
+        assertEquals(800L, c.getCpuTime(CMSPhase.MARK));
+        assertEquals(-1L, c.getWallTime(CMSPhase.PRECLEAN));
+
+        assertEquals(60000d, a.getAverageInterval(), 0d);
+        assertEquals(60d, a.getCyclesPerHour(), 0.0001d);
+        assertEquals(0.6d, a.getMinInitiatingOccupancyFraction(), 0.0001d);
+        assertEquals(0.7d, a.getAverageInitiatingOccupancyFraction(), 0.0001d);
+        assertEquals(0.8d, a.getMaxInitiatingOccupancyFraction(), 0.0001d);
+        assertEquals(30d, a.getAverageStopTheWorldTime(), 0d);
+        assertEquals(30L, a.getMaxStopTheWorldTime());
+        assertEquals(1000d, a.getAverageWallTime(CMSPhase.MARK), 0d);
+        assertEquals(20d, a.getAverageWallTime(CMSPhase.REMARK), 0d);
+        assertNull(a.getAverageCpuTime(CMSPhase.REMARK));
+        assertNull(a.getAverageWallTime(CMSPhase.PRECLEAN));
+    }
+
+    @Test
+    public void concurrentModeFailure() throws Exception
+    {
+        CMSCycleAssembler a = new CMSCycleAssembler();
+
+        a.record(new CMSInitialMark(new Timestamp(1000L), 10L, new CurrentMax("900M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+        a.record(new CMSConcurrentMarkStart(new Timestamp(1010L)));
+        a.record(new NewGenerationCollection(new Timestamp(2000L), 500L,
+            new BeforeAfterMax(100L, 100L, 100L, Unit.M), new BeforeAfterMax(1000L, 1000L, 2000L, Unit.M),
+            NewGenerationCollection.PROMOTION_FAILED, null));
+        a.record(new FullCollection(new Timestamp(2500L), 5000L,
+            null, new BeforeAfterMax(1000L, 500L, 1000L, Unit.M), null, new BeforeAfterMax(1100L, 500L, 2000L, Unit.M),
+            false, FullCollection.CONCURRENT_MODE_FAILURE));
+
+        // belongs to no cycle
+        a.record(new CMSConcurrentMark(new Timestamp(3000L), 100L, 200L));
+        a.close();
+
+        assertEquals(1L, a.getCycleCount());
+        assertEquals(1L, a.getCount(CMSCycleOutcome.CONCURRENT_MODE_FAILURE));
+        assertEquals(1L, a.getPromotionFailureCount());
+
+        CMSCycle c = a.getCycles().get(0);
+        assertEquals(CMSCycleOutcome.CONCURRENT_MODE_FAILURE, c.getOutcome());
+        assertFalse(c.isOpen());
+        assertTrue(c.isPromotionFailure());
+        assertEquals(5000L, c.getFailureTime());
+        assertEquals(5010L, c.getStopTheWorldTime());
+        assertEquals(7500L, c.getEnd());
+        assertEquals(-1L, c.getWallTime(CMSPhase.MARK));
+    }
+
+    @Test
+    public void interruptedAndIncomplete() throws Exception
+    {
+        CMSCycleAssembler a = new CMSCycleAssembler();
+
+        // an explicit full collection interrupts the first cycle
+        a.record(new CMSInitialMark(new Timestamp(0L), 10L, new CurrentMax("500M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+        a.record(new FullCollection(new Timestamp(500L), 300L,
+            null, new BeforeAfterMax(500L, 100L, 1000L, Unit.M), null, new BeforeAfterMax(600L, 100L, 2000L, Unit.M),
+            true));
+
+        // the second cycle is interrupted by the third
+        a.record(new CMSInitialMark(new Timestamp(1000L), 10L, new CurrentMax("500M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+        a.record(new CMSInitialMark(new Timestamp(2000L), 10L, new CurrentMax("500M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+
+        // the JVM restarted
+        a.record(new CMSInitialMark(new Timestamp(100L), 10L, new CurrentMax("500M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+        a.close();
+
+        assertEquals(4L, a.getCycleCount());
+        assertEquals(2L, a.getCount(CMSCycleOutcome.INTERRUPTED));
+        assertEquals(2L, a.getCount(CMSCycleOutcome.INCOMPLETE));
+        assertEquals(0L, a.getCount(CMSCycleOutcome.COMPLETED));
+
+        // the interval across the restart is not counted
+        assertEquals(1000d, a.getAverageInterval(), 0d);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static void recordCompletedCycle(CMSCycleAssembler a, long start, String og) throws Exception
+    {
+        a.record(new CMSInitialMark(new Timestamp(start), 10L, new CurrentMax(og, 1L), new CurrentMax("1500M(2000M)", 1L)));
+        a.record(new CMSConcurrentMarkStart(new Timestamp(start + 10)));
+        a.record(new CMSConcurrentMark(new Timestamp(start + 1010), 800L, 1000L));
+        a.record(new CMSRemark(new Timestamp(start + 2000), 20L, null, new CurrentMax(og, 1L), new CurrentMax("1500M(2000M)", 1L)));
+        a.record(new CMSConcurrentSweep(new Timestamp(start + 2020)));
+        a.record(new CMSConcurrentSweep(new Timestamp(start + 9000), 6000L, 6980L));
+        a.record(new CMSConcurrentReset(new Timestamp(start + 9000)));
+        a.record(new CMSConcurrentReset(new Timestamp(start + 10000), 900L, 1000L));
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,137 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CauseDistributionTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(CauseDistributionTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void causesAreOrderedByTotalPauseTime() throws Exception
+    {
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        for(int i = 1; i <= 100; i ++)
+        {
+            events.add(ng(i * 1000L, i, GCCause.ALLOCATION_FAILURE));
+        }
+
+        events.add(full(200000L, 3000L, GCCause.SYSTEM_GC));
+        events.add(full(300000L, 4000L, GCCause.SYSTEM_GC));
+        events.add(full(400000L, 2000L, "Last ditch collection"));
+        events.add(ng(500000L, 50L, null));
+
+        // not a pause
+        events.add(new CMSConcurrentMark(new Timestamp(600000L)));
+
+        CauseDistribution d = new CauseDistribution();
+        d.recordAll(events);
+
+        // 7000, 5050, 2000
+        assertEquals(Arrays.asList(GCCause.SYSTEM_GC, GCCause.ALLOCATION_FAILURE, "Last ditch collection"), d.getCauses());
+
+        PauseHistogram h = d.getHistogram(GCCause.ALLOCATION_FAILURE);
+        assertEquals(100L, h.getCount());
+        assertEquals(5050L, h.getTotal());
+        assertEquals(50L, h.getValueAtPercentile(50d));
+        assertEquals(100L, h.getMax());
+
+        assertEquals(2L, d.getHistogram(GCCause.SYSTEM_GC).getCount());
+        assertNull(d.getHistogram(GCCause.ERGONOMICS));
+
+        assertEquals(1L, d.getUnknownCount());
+        assertEquals(50L, d.getUnknownTime());
+        assertEquals(14100L, d.getTotalTime());
+
+        String table = d.toTable();
+        log.info("\n" + table);
+
+        String[] lines = table.split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[1].startsWith("System.gc()"));
+        assertTrue(lines[1].contains(" 7000 "));
+        assertTrue(lines[1].contains(String.format(" %.1f ", 49.6d)));
+        assertTrue(lines[4].startsWith("(not logged)"));
+    }
+
+    @Test
+    public void merge() throws Exception
+    {
+        CauseDistribution d = new CauseDistribution();
+        d.record(ng(1000L, 10L, GCCause.ALLOCATION_FAILURE));
+        d.record(ng(2000L, 20L, null));
+
+        CauseDistribution d2 = new CauseDistribution();
+        d2.record(ng(3000L, 30L, GCCause.ALLOCATION_FAILURE));
+        d2.record(full(4000L, 100L, GCCause.ERGONOMICS));
+
+        d.merge(d2);
+
+        assertEquals(Arrays.asList(GCCause.ERGONOMICS, GCCause.ALLOCATION_FAILURE), d.getCauses());
+        assertEquals(2L, d.getHistogram(GCCause.ALLOCATION_FAILURE).getCount());
+        assertEquals(40L, d.getHistogram(GCCause.ALLOCATION_FAILURE).getTotal());
+        assertEquals(1L, d.getUnknownCount());
+
+        // the other distribution is not modified
+        assertEquals(1L, d2.getHistogram(GCCause.ALLOCATION_FAILURE).getCount());
+    }
+
+    @Test
+    public void noCause() throws Exception
+    {
+        CauseDistribution d = new CauseDistribution();
+        d.record(ng(1000L, 10L, null));
+
+        assertTrue(d.getCauses().isEmpty());
+        assertEquals(1L, d.getUnknownCount());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static GCEvent ng(long offset, long duration, String cause)
+    {
+        NewGenerationCollection e = new NewGenerationCollection(new Timestamp(offset), duration, null, null);
+        e.setCause(cause);
+        return e;
+    }
+
+    private static GCEvent full(long offset, long duration, String cause)
+    {
+        FullCollection e = new FullCollection(new Timestamp(offset), duration, null, null, null, null, false);
+        e.setCause(cause);
+        return e;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
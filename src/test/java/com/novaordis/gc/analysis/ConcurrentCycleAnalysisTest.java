@@ -0,0 +1,150 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ConcurrentCycleAnalysisTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long M = 1024L * 1024;
+
+    private static final String PAUSE_MARK_START = "Pause Mark Start";
+    private static final String CONCURRENT_MARK = "Concurrent Mark";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void noCycles() throws Exception
+    {
+        ConcurrentCycleAnalysis a = new ConcurrentCycleAnalysis();
+        a.recordAll(Collections.<GCEvent>emptyList());
+
+        assertEquals(0L, a.getCycleCount());
+        assertNull(a.getCollectionType());
+        assertNull(a.getAverageDuration());
+        assertNull(a.getAverageInterval());
+        assertNull(a.getAverageHeadroomFraction());
+        assertEquals(-1L, a.getMinHeadroom());
+        assertTrue(a.getPhases().isEmpty());
+        assertTrue(a.getStalledThreads().isEmpty());
+    }
+
+    @Test
+    public void cycles() throws Exception
+    {
+        ConcurrentCycleAnalysis a = new ConcurrentCycleAnalysis();
+
+        a.record(cycle(10000L, 40L, 12, 18000, null, null, 400L * M));
+        a.record(cycle(20000L, 60L, 20, 30000, new String[] { "main", "worker", "main" }, new int[] { 5000, 1000, 2000 },
+            480L * M));
+        a.record(cycle(32000L, 50L, 10, 20000, new String[] { "worker" }, new int[] { 7000 }, -1L));
+
+        assertEquals(CollectionType.ZGC_CYCLE, a.getCollectionType());
+        assertFalse(a.isAbsolute());
+        assertEquals(3L, a.getCycleCount());
+        assertEquals(50d, a.getAverageDuration(), 0.0001d);
+        assertEquals(60L, a.getMaxDuration());
+        assertEquals(11000d, a.getAverageInterval(), 0.0001d);
+
+        assertEquals(3L, a.getPauseCount());
+        assertEquals(42L, a.getPauseTime());
+        assertEquals(20L, a.getMaxPause());
+
+        assertEquals(Arrays.asList(PAUSE_MARK_START, CONCURRENT_MARK), a.getPhases());
+        assertEquals(3L, a.getPhaseCount(CONCURRENT_MARK));
+        assertEquals(68000L, a.getPhaseTime(CONCURRENT_MARK));
+        assertEquals(30000L, a.getMaxPhaseTime(CONCURRENT_MARK));
+        assertEquals(0L, a.getPhaseCount("Concurrent Relocate"));
+
+        assertEquals(4L, a.getStallCount());
+        assertEquals(15000L, a.getStallTime());
+        assertEquals(7000L, a.getMaxStall());
+        assertEquals(2L, a.getStalledCycleCount());
+
+        // in descending order of the stall time
+        assertEquals(Arrays.asList("worker", "main"), a.getStalledThreads());
+        assertEquals(2L, a.getStallCount("main"));
+        assertEquals(7000L, a.getStallTime("main"));
+        assertEquals(5000L, a.getMaxStall("main"));
+        assertEquals(8000L, a.getStallTime("worker"));
+
+        // 512M capacity
+        assertEquals(32L * M, a.getMinHeadroom());
+        assertEquals(0.0625d, a.getMinHeadroomFraction(), 0.0001d);
+        assertEquals((0.21875d + 0.0625d) / 2, a.getAverageHeadroomFraction(), 0.0001d);
+        assertEquals(0.0625d, a.getAverageStalledHeadroomFraction(), 0.0001d);
+
+        assertTrue(a.getCycles().isEmpty());
+    }
+
+    @Test
+    public void pacing() throws Exception
+    {
+        ConcurrentCycleAnalysis a = new ConcurrentCycleAnalysis(true);
+
+        a.record(new ConcurrentCycle(new Timestamp(1000L), 10L, CollectionType.SHENANDOAH_CYCLE,
+            new String[0], new int[0], null, null, new String[] { "main", "io" }, new int[] { 2000, 5000 }, 900L * M, 1024L * M));
+        a.record(new ConcurrentCycle(new Timestamp(2000L), 10L, CollectionType.SHENANDOAH_CYCLE,
+            new String[0], new int[0], null, null, new String[] { "main" }, new int[] { 4000 }, 1000L * M, 1024L * M));
+
+        assertEquals(CollectionType.SHENANDOAH_CYCLE, a.getCollectionType());
+        assertEquals(0L, a.getStallCount());
+        assertEquals(11000L, a.getPacingTime());
+        assertEquals(Arrays.asList("main", "io"), a.getPacedThreads());
+        assertEquals(2L, a.getPacingCount("main"));
+        assertEquals(6000L, a.getPacingTime("main"));
+        assertEquals(5000L, a.getPacingTime("io"));
+
+        // the paced cycles count as stalled
+        assertEquals(a.getAverageHeadroomFraction(), a.getAverageStalledHeadroomFraction(), 0.0001d);
+        assertEquals(2, a.getCycles().size());
+    }
+
+    @Test
+    public void restartedJvm() throws Exception
+    {
+        ConcurrentCycleAnalysis a = new ConcurrentCycleAnalysis();
+
+        a.record(cycle(10000L, 40L, 12, 18000, null, null, -1L));
+        a.record(cycle(20000L, 40L, 12, 18000, null, null, -1L));
+        a.record(cycle(5000L, 40L, 12, 18000, null, null, -1L));
+        a.record(cycle(9000L, 40L, 12, 18000, null, null, -1L));
+
+        assertEquals(7000d, a.getAverageInterval(), 0.0001d);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static ConcurrentCycle cycle(long start, long duration, int pause, int mark, String[] stallThreads,
+                                         int[] stalls, long used)
+    {
+        return new ConcurrentCycle(new Timestamp(start), duration, CollectionType.ZGC_CYCLE,
+            new String[] { PAUSE_MARK_START, CONCURRENT_MARK }, new int[] { pause, mark },
+            stallThreads, stalls, null, null, used, used < 0 ? -1L : 512L * M);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
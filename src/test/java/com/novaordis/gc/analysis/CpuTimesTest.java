@@ -0,0 +1,129 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.GCEventBase;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CpuTimesTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void noTimes() throws Exception
+    {
+        CpuTimes t = new CpuTimes();
+
+        t.record(new NewGenerationCollection(new Timestamp(1000L), 10L, null, null));
+
+        assertEquals(0L, t.getCount());
+        assertNull(t.getParallelism());
+        assertNull(t.getMinParallelism());
+        assertNull(t.getSysFraction());
+    }
+
+    @Test
+    public void parallelismAndOutliers() throws Exception
+    {
+        CpuTimes t = new CpuTimes();
+
+        // parallelism 4
+        t.record(pause(1000L, 300L, 100L, 100L));
+
+        // sys-heavy, parallelism 2
+        t.record(pause(2000L, 100L, 100L, 100L));
+
+        // starved, excess 400
+        t.record(pause(3000L, 50L, 50L, 500L));
+
+        // starved, excess 900
+        t.record(pause(4000L, 60L, 40L, 1000L));
+
+        // too short to be considered starved
+        t.record(pause(5000L, 0L, 0L, 60L));
+
+        // not a pause
+        CMSConcurrentMark m = new CMSConcurrentMark(new Timestamp(6000L), 100L, 5000L);
+        m.setTimes(100L, 0L, 5000L);
+        t.record(m);
+
+        assertEquals(5L, t.getCount());
+        assertEquals(510L, t.getUserTime());
+        assertEquals(290L, t.getSysTime());
+        assertEquals(1760L, t.getRealTime());
+        assertEquals(800d / 1760, t.getParallelism(), 0.0001d);
+        assertEquals(0d, t.getMinParallelism(), 0.0001d);
+        assertEquals(4d, t.getMaxParallelism(), 0.0001d);
+        assertEquals(290d / 800, t.getSysFraction(), 0.0001d);
+        assertEquals(3L, t.getSysHeavyCount());
+        assertEquals(2L, t.getStarvedCount());
+
+        assertEquals(2, t.getStarvedPauses().size());
+
+        CpuTimes.Pause p = t.getStarvedPauses().get(0);
+        assertEquals(4000L, p.getTime());
+        assertFalse(p.isAbsolute());
+        assertEquals(CollectionType.NEW_GENERATION_COLLECTION, p.getCollectionType());
+        assertEquals(900L, p.getExcess());
+
+        assertEquals(3000L, t.getStarvedPauses().get(1).getTime());
+    }
+
+    @Test
+    public void starvedPausesAreBounded() throws Exception
+    {
+        CpuTimes t = new CpuTimes();
+
+        for(int i = 0; i < CpuTimes.MAX_REPORTED_PAUSES * 3; i ++)
+        {
+            t.record(pause(i * 1000L, 0L, 0L, 100L + i));
+        }
+
+        assertEquals(CpuTimes.MAX_REPORTED_PAUSES * 3, t.getStarvedCount());
+        assertEquals(CpuTimes.MAX_REPORTED_PAUSES, t.getStarvedPauses().size());
+
+        long previous = Long.MAX_VALUE;
+
+        for(CpuTimes.Pause p: t.getStarvedPauses())
+        {
+            assertTrue(p.getExcess() <= previous);
+            previous = p.getExcess();
+        }
+
+        assertEquals(100L + CpuTimes.MAX_REPORTED_PAUSES * 3 - 1, t.getStarvedPauses().get(0).getReal());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static GCEventBase pause(long offset, long user, long sys, long real) throws Exception
+    {
+        NewGenerationCollection e = new NewGenerationCollection(new Timestamp(offset), real,
+            new BeforeAfterMax(100L, 10L, 200L, Unit.M), new BeforeAfterMax(500L, 410L, 1000L, Unit.M));
+        e.setTimes(user, sys, real);
+        return e;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
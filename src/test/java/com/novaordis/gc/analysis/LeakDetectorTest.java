@@ -0,0 +1,66 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSRemark;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import com.novaordis.gc.parser.CurrentMax;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LeakDetectorTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fullCollectionsAndRemarks() throws Exception
+    {
+        LeakDetector d = new LeakDetector();
+
+        d.record(new FullCollection(new Timestamp(1000L), 100L,
+            null, new BeforeAfterMax(900L, 300L, 1000L, Unit.M), null, new BeforeAfterMax(1000L, 350L, 1500L, Unit.M),
+            false));
+
+        // ignored
+        d.record(new NewGenerationCollection(new Timestamp(1500L), 10L, null, null));
+
+        d.record(new CMSRemark(new Timestamp(2000L), 20L,
+            null, new CurrentMax("400M(1000M)", 1L), new CurrentMax("600M(1500M)", 1L)));
+
+        assertFalse(d.isAbsolute());
+
+        LiveSetTrend og = d.getOldGeneration();
+        assertEquals(2L, og.getSampleCount());
+        assertEquals(1000L, og.getFirstTime());
+        assertEquals(2000L, og.getLastTime());
+        assertEquals(400L * 1024 * 1024, og.getLastValue());
+        assertEquals(1000L * 1024 * 1024, og.getCapacity().longValue());
+
+        LiveSetTrend heap = d.getHeap();
+        assertEquals(1L, heap.getSampleCount());
+        assertEquals(350L * 1024 * 1024, heap.getLastValue());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,122 @@
+package com.novaordis.gc.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LinearRegressionTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void empty() throws Exception
+    {
+        LinearRegression r = new LinearRegression();
+
+        assertEquals(0L, r.getCount());
+        assertEquals(0d, r.getSlope(), 0d);
+        assertEquals(0d, r.getRSquared(), 0d);
+        assertEquals(0d, r.getResidualStandardDeviation(), 0d);
+    }
+
+    @Test
+    public void exactLine() throws Exception
+    {
+        LinearRegression r = new LinearRegression();
+
+        for(int i = 0; i < 10; i ++)
+        {
+            r.add(i, 3 + 2 * i);
+        }
+
+        assertEquals(2d, r.getSlope(), 1e-9);
+        assertEquals(3d, r.getIntercept(), 1e-9);
+        assertEquals(1d, r.getRSquared(), 1e-9);
+        assertEquals(0d, r.getResidualStandardDeviation(), 1e-6);
+        assertEquals(43d, r.predict(20), 1e-9);
+    }
+
+    @Test
+    public void largeOffsetsDoNotLosePrecision() throws Exception
+    {
+        LinearRegression r = new LinearRegression();
+
+        // UTC milliseconds, a slope of 1 byte/ms over values of about 1 GB
+        long t0 = 1430000000000L;
+
+        for(int i = 0; i < 1000; i ++)
+        {
+            r.add(t0 + i * 1000L, 1000000000d + i * 1000d + (i % 2 == 0 ? 10 : -10));
+        }
+
+        assertEquals(1d, r.getSlope(), 1e-6);
+        assertTrue(r.getRSquared() > 0.999);
+    }
+
+    @Test
+    public void againstClosedForm() throws Exception
+    {
+        Random random = new Random(5L);
+        LinearRegression r = new LinearRegression();
+
+        int n = 500;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double sx = 0, sy = 0;
+
+        for(int i = 0; i < n; i ++)
+        {
+            x[i] = random.nextDouble() * 100;
+            y[i] = 5 - 0.5 * x[i] + random.nextGaussian();
+            r.add(x[i], y[i]);
+            sx += x[i];
+            sy += y[i];
+        }
+
+        double mx = sx / n, my = sy / n, sxx = 0, sxy = 0;
+
+        for(int i = 0; i < n; i ++)
+        {
+            sxx += (x[i] - mx) * (x[i] - mx);
+            sxy += (x[i] - mx) * (y[i] - my);
+        }
+
+        assertEquals(sxy / sxx, r.getSlope(), 1e-9);
+        assertEquals(my - sxy / sxx * mx, r.getIntercept(), 1e-9);
+        assertEquals(1d, r.getResidualStandardDeviation(), 0.1);
+    }
+
+    @Test
+    public void reset() throws Exception
+    {
+        LinearRegression r = new LinearRegression();
+        r.add(1, 1);
+        r.add(2, 2);
+        r.reset();
+
+        assertEquals(0L, r.getCount());
+        assertEquals(0d, r.getSlope(), 0d);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,152 @@
+package com.novaordis.gc.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LiveSetTrendTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long MB = 1024L * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void flat() throws Exception
+    {
+        LiveSetTrend t = new LiveSetTrend("test");
+        Random r = new Random(1L);
+
+        for(int i = 0; i < 100; i ++)
+        {
+            t.record(i * 60000L, 500 * MB + r.nextInt((int)MB), 1000 * MB);
+        }
+
+        assertEquals(100L, t.getSampleCount());
+        assertFalse(t.isGrowing());
+        assertNull(t.getTimeToExhaustion());
+        assertEquals(0L, t.getStepCount());
+    }
+
+    @Test
+    public void sustainedGrowthAndTimeToExhaustion() throws Exception
+    {
+        LiveSetTrend t = new LiveSetTrend("test");
+        Random r = new Random(2L);
+
+        // 100 MB to 199 MB over 99 minutes, 1 MB/minute, 1000 MB capacity
+        for(int i = 0; i < 100; i ++)
+        {
+            t.record(i * 60000L, (100 + i) * MB + r.nextInt(100000), 1000 * MB);
+        }
+
+        assertTrue(t.isGrowing());
+        assertEquals(60d * MB, t.getGrowthRate(), MB);
+
+        // about 801 MB left, at 1 MB/minute
+        Long tte = t.getTimeToExhaustion();
+        assertNotNull(tte);
+        assertEquals(801 * 60000L, tte, 60000L);
+    }
+
+    @Test
+    public void stepIsNotALeak() throws Exception
+    {
+        LiveSetTrend t = new LiveSetTrend("test");
+        Random r = new Random(3L);
+
+        for(int i = 0; i < 50; i ++)
+        {
+            t.record(i * 60000L, 200 * MB + r.nextInt((int)MB), 1000 * MB);
+        }
+
+        for(int i = 50; i < 100; i ++)
+        {
+            t.record(i * 60000L, 400 * MB + r.nextInt((int)MB), 1000 * MB);
+        }
+
+        assertEquals(1L, t.getStepCount());
+
+        List<LiveSetStep> steps = t.getSteps();
+        assertEquals(1, steps.size());
+        assertEquals(50 * 60000L, steps.get(0).getTime());
+        assertEquals(200d * MB, steps.get(0).getSize(), 2 * MB);
+        assertEquals(50 * 60000L, t.getSegmentStart());
+
+        // the overall fit is growing, the current segment is not
+        assertTrue(t.getOverall().getSlope() > 0);
+        assertFalse(t.isGrowing());
+    }
+
+    @Test
+    public void outlierIsNotAStep() throws Exception
+    {
+        LiveSetTrend t = new LiveSetTrend("test");
+
+        for(int i = 0; i < 20; i ++)
+        {
+            t.record(i * 60000L, (i == 10 ? 600 : 200) * MB + (i % 3) * 1000, 1000 * MB);
+        }
+
+        assertEquals(0L, t.getStepCount());
+        assertEquals(20L, t.getSegment().getCount());
+    }
+
+    @Test
+    public void boundedSteps() throws Exception
+    {
+        LiveSetTrend t = new LiveSetTrend("test");
+        long time = 0L;
+
+        for(int step = 0; step < LiveSetTrend.MAX_REPORTED_STEPS + 10; step ++)
+        {
+            long level = (step % 2 == 0 ? 200 : 500) * MB;
+
+            for(int i = 0; i < 5; i ++)
+            {
+                t.record(time, level + i * 1000, 1000 * MB);
+                time += 60000L;
+            }
+        }
+
+        assertEquals(LiveSetTrend.MAX_REPORTED_STEPS + 9, t.getStepCount());
+        assertEquals(LiveSetTrend.MAX_REPORTED_STEPS, t.getSteps().size());
+    }
+
+    @Test
+    public void noCapacity() throws Exception
+    {
+        LiveSetTrend t = new LiveSetTrend("test");
+
+        for(int i = 0; i < 10; i ++)
+        {
+            t.record(i * 60000L, (100 + 10 * i) * MB, null);
+        }
+
+        assertNull(t.getCapacity());
+        assertTrue(t.isGrowing());
+        assertNull(t.getTimeToExhaustion());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
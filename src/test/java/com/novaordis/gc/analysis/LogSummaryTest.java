@@ -0,0 +1,118 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Restart;
+import com.novaordis.gc.model.event.Shutdown;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSummaryTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LogSummaryTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void empty() throws Exception
+    {
+        LogSummary s = new LogSummary();
+
+        assertEquals(0L, s.getPauseCount());
+        assertEquals(0L, s.getFullCollectionCount());
+        assertEquals(0L, s.getElapsed());
+        assertNull(s.getOverhead());
+    }
+
+    @Test
+    public void pausesFullCollectionsAndOverhead() throws Exception
+    {
+        List<GCEvent> events = Arrays.<GCEvent>asList(
+            new NewGenerationCollection(new Timestamp(1000L), 10L, null, null),
+            new NewGenerationCollection(new Timestamp(2000L), 30L, null, null),
+            new FullCollection(new Timestamp(3000L), 900L, null, null, null, null, false),
+            new NewGenerationCollection(new Timestamp(10000L), 60L, null, null),
+            new Shutdown());
+
+        LogSummary s = new LogSummary();
+        s.recordAll(events);
+
+        log.info(s);
+
+        assertEquals(4L, s.getPauseCount());
+        assertEquals(1L, s.getFullCollectionCount());
+        assertEquals(900L, s.getPauses().getAll().getMax());
+
+        // from the beginning of the first collection to the end of the last
+        assertEquals(9060L, s.getElapsed());
+        assertEquals(1000d / 9060, s.getOverhead(), 0.000001d);
+    }
+
+    @Test
+    public void restart_ElapsedSummedOverRuns() throws Exception
+    {
+        LogSummary s = new LogSummary();
+
+        s.record(new NewGenerationCollection(new Timestamp(1000L), 100L, null, null));
+        s.record(new NewGenerationCollection(new Timestamp(5000L), 100L, null, null));
+        s.record(new Restart(2, "offset reset", null));
+        s.record(new NewGenerationCollection(new Timestamp(500L), 100L, null, null));
+        s.record(new NewGenerationCollection(new Timestamp(1500L), 100L, null, null));
+
+        assertEquals(4L, s.getPauseCount());
+        assertEquals(4100L + 1100L, s.getElapsed());
+        assertEquals(400d / 5200, s.getOverhead(), 0.000001d);
+    }
+
+    @Test
+    public void merge() throws Exception
+    {
+        LogSummary s = new LogSummary();
+        s.record(new NewGenerationCollection(new Timestamp(1000L), 10L, null, null));
+        s.record(new NewGenerationCollection(new Timestamp(2000L), 10L, null, null));
+
+        LogSummary s2 = new LogSummary();
+        s2.record(new FullCollection(new Timestamp(1000L), 500L, null, null, null, null, false));
+        s2.record(new NewGenerationCollection(new Timestamp(3000L), 10L, null, null));
+
+        LogSummary total = new LogSummary();
+        total.merge(s);
+        total.merge(s2);
+
+        assertEquals(4L, total.getPauseCount());
+        assertEquals(1L, total.getFullCollectionCount());
+        assertEquals(1010L + 2010L, total.getElapsed());
+        assertEquals(530d / 3020, total.getOverhead(), 0.000001d);
+
+        // the merged summaries are not modified
+        assertEquals(2L, s.getPauseCount());
+        assertEquals(1010L, s.getElapsed());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,112 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MetaspaceAnalysisTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void noMetaspace() throws Exception
+    {
+        MetaspaceAnalysis a = new MetaspaceAnalysis();
+
+        a.record(new FullCollection(new Timestamp(1000L), 100L, null, null, pg(10L, 9L), null, false));
+
+        assertEquals(1L, a.getFullCollectionCount());
+        assertEquals(0L, a.getMetaspaceCount());
+        assertNull(a.getMinAfter());
+        assertNull(a.getLastAfter());
+        assertNull(a.getLastReserved());
+        assertEquals(0L, a.getTriggeredCount());
+        assertEquals(0d, a.getTriggeredTimeFraction(), 0.0001d);
+        assertNull(a.getMinThreshold());
+    }
+
+    @Test
+    public void metadataTriggered() throws Exception
+    {
+        MetaspaceAnalysis a = new MetaspaceAnalysis();
+
+        // the young collection the parallel collector runs before the full collection
+        NewGenerationCollection y = new NewGenerationCollection(new Timestamp(500L), 20L, null, null);
+        y.setCause(GCCause.METADATA_GC_THRESHOLD);
+        a.record(y);
+
+        a.record(full(1000L, 300L, GCCause.METADATA_GC_THRESHOLD, 20L, 18L, 100L));
+        a.record(full(2000L, 100L, GCCause.ERGONOMICS, 19L, 19L, 100L));
+        a.record(full(3000L, 600L, GCCause.LAST_DITCH_COLLECTION, 30L, 21L, 120L));
+
+        assertEquals(3L, a.getFullCollectionCount());
+        assertEquals(3L, a.getMetaspaceCount());
+        assertEquals(18L * 1024 * 1024, a.getMinAfter().longValue());
+        assertEquals(21L * 1024 * 1024, a.getMaxAfter().longValue());
+        assertEquals(21L * 1024 * 1024, a.getLastAfter().longValue());
+        assertEquals(120L * 1024 * 1024, a.getLastReserved().longValue());
+        assertEquals(11L * 1024 * 1024, a.getReclaimed());
+
+        assertEquals(2L, a.getTriggeredCount());
+        assertEquals(900L, a.getTriggeredTime());
+        assertEquals(0.9d, a.getTriggeredTimeFraction(), 0.0001d);
+        assertEquals(20L * 1024 * 1024, a.getMinThreshold().longValue());
+        assertEquals(30L * 1024 * 1024, a.getMaxThreshold().longValue());
+
+        assertEquals(1L, a.getYoungTriggeredCount());
+        assertEquals(20L, a.getYoungTriggeredTime());
+    }
+
+    @Test
+    public void permGenerationFull() throws Exception
+    {
+        MetaspaceAnalysis a = new MetaspaceAnalysis();
+
+        FullCollection f = new FullCollection(new Timestamp(1000L), 100L, null, null, pg(64L, 60L), null, false);
+        f.setCause(GCCause.PERM_GENERATION_FULL);
+        a.record(f);
+
+        assertEquals(0L, a.getMetaspaceCount());
+        assertEquals(1L, a.getTriggeredCount());
+        assertEquals(64L * 1024 * 1024, a.getMinThreshold().longValue());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static BeforeAfterMax pg(long before, long after)
+    {
+        return new BeforeAfterMax(before, after, 128L, Unit.M);
+    }
+
+    private static FullCollection full(long time, long duration, String cause, long before, long after, long reserved)
+    {
+        FullCollection f = new FullCollection(new Timestamp(time), duration, null, null, null, null, false);
+        f.setMetaspace(new BeforeAfterMax(before, after, reserved, Unit.M));
+        f.setCause(cause);
+        return f;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
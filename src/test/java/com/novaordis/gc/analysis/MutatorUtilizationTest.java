@@ -0,0 +1,207 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MutatorUtilizationTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(MutatorUtilizationTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void empty() throws Exception
+    {
+        MutatorUtilization mu = new MutatorUtilization();
+
+        assertNull(mu.getLogStart());
+        assertNull(mu.getLogEnd());
+        assertEquals(0, mu.getPauseCount());
+        assertEquals(0L, mu.getTotalGcTime());
+        assertNull(mu.getWorstWindow(1000L));
+        assertTrue(mu.getCurve(new long[] { 1000L }).isEmpty());
+    }
+
+    @Test
+    public void invalidWindowSize() throws Exception
+    {
+        MutatorUtilization mu = new MutatorUtilization();
+        mu.record(0L, 10L);
+
+        try
+        {
+            mu.getWorstWindow(0L);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void events() throws Exception
+    {
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        events.add(new NewGenerationCollection(new Timestamp(1000L), 100L, null, null));
+        events.add(new NewGenerationCollection(new Timestamp(1500L), 200L, null, null));
+        events.add(new CMSConcurrentMark(new Timestamp(5000L)));
+        events.add(new FullCollection(new Timestamp(10000L), 2000L, null, null, null, null, false));
+        events.add(new CMSConcurrentMark(new Timestamp(20000L)));
+
+        MutatorUtilization mu = new MutatorUtilization();
+        mu.recordAll(events);
+
+        assertFalse(mu.isAbsolute());
+        assertEquals(3, mu.getPauseCount());
+        assertEquals(2300L, mu.getTotalGcTime());
+        assertEquals(1000L, mu.getLogStart().longValue());
+        assertEquals(20000L, mu.getLogEnd().longValue());
+
+        WorstWindow w = mu.getWorstWindow(1000L);
+        assertEquals(1000L, w.getGcTime());
+        assertEquals(1.0d, w.getOverhead(), 0.0001);
+        assertEquals(0.0d, w.getMutatorUtilization(), 0.0001);
+
+        w = mu.getWorstWindow(5000L);
+        assertEquals(2000L, w.getGcTime());
+        assertEquals(0.6d, w.getMutatorUtilization(), 0.0001);
+
+        w = mu.getWorstWindow(10500L);
+        assertEquals(2200L, w.getGcTime());
+        assertEquals(1500L, w.getStart());
+        assertEquals(12000L, w.getEnd());
+
+        // larger than the log span
+        w = mu.getWorstWindow(100000L);
+        assertEquals(2300L, w.getGcTime());
+        assertEquals(1000L, w.getStart());
+    }
+
+    @Test
+    public void overlappingAndOutOfOrderPauses() throws Exception
+    {
+        MutatorUtilization mu = new MutatorUtilization();
+
+        mu.record(100L, 50L);
+        mu.record(0L, 20L);
+        mu.record(120L, 50L);
+        mu.record(10L, 5L);
+
+        assertEquals(2, mu.getPauseCount());
+        assertEquals(90L, mu.getTotalGcTime());
+        assertEquals(70L, mu.getWorstWindow(70L).getGcTime());
+        assertEquals(100L, mu.getWorstWindow(70L).getStart());
+    }
+
+    @Test
+    public void worstWindowAgainstBruteForce() throws Exception
+    {
+        Random r = new Random(7L);
+
+        for(int run = 0; run < 50; run ++)
+        {
+            MutatorUtilization mu = new MutatorUtilization();
+            int span = 2000;
+            boolean[] paused = new boolean[span];
+
+            for(int i = 0; i < 30; i ++)
+            {
+                int start = r.nextInt(span - 50);
+                int duration = r.nextInt(50);
+                mu.record(start, duration);
+
+                for(int t = start; t < start + duration; t ++)
+                {
+                    paused[t] = true;
+                }
+            }
+
+            long logStart = mu.getLogStart();
+            long logEnd = mu.getLogEnd();
+
+            for(long w: new long[] { 1L, 7L, 50L, 333L, 1000L, 1999L })
+            {
+                long expected = 0L;
+                long latestStart = Math.max(logStart, logEnd - w);
+
+                for(long a = logStart; a <= latestStart; a ++)
+                {
+                    long gcTime = 0L;
+
+                    for(long t = a; t < a + w && t < span; t ++)
+                    {
+                        if (paused[(int)t])
+                        {
+                            gcTime ++;
+                        }
+                    }
+
+                    expected = Math.max(expected, gcTime);
+                }
+
+                WorstWindow ww = mu.getWorstWindow(w);
+                assertEquals("run " + run + ", window " + w, expected, ww.getGcTime());
+                assertTrue(ww.getStart() >= logStart);
+                assertTrue(ww.getStart() <= latestStart);
+            }
+        }
+    }
+
+    @Test
+    public void trailingOverhead() throws Exception
+    {
+        MutatorUtilization mu = new MutatorUtilization();
+
+        mu.record(0L, 100L);
+        mu.record(900L, 100L);
+        mu.record(5000L, 500L);
+
+        int n = mu.getPauseCount();
+        long[] times = new long[n];
+        double[] overheads = new double[n];
+
+        assertEquals(3, mu.getTrailingOverhead(1000L, times, overheads));
+
+        assertEquals(100L, times[0]);
+        assertEquals(1.0d, overheads[0], 0.0001);
+
+        assertEquals(1000L, times[1]);
+        assertEquals(0.2d, overheads[1], 0.0001);
+
+        assertEquals(5500L, times[2]);
+        assertEquals(0.5d, overheads[2], 0.0001);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,107 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Shutdown;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PauseDistributionTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(PauseDistributionTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void onlyStopTheWorldEventsAreRecorded() throws Exception
+    {
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        for(int i = 1; i <= 100; i ++)
+        {
+            events.add(new NewGenerationCollection(new Timestamp(i * 1000L), i, null, null));
+        }
+
+        events.add(new FullCollection(new Timestamp(200000L), 2000L, null, null, null, null, false));
+        events.add(new CMSConcurrentMark(new Timestamp(300000L)));
+        events.add(new Shutdown());
+
+        PauseDistribution d = new PauseDistribution();
+        d.recordAll(events);
+
+        assertEquals(
+            Arrays.asList(CollectionType.FULL_COLLECTION, CollectionType.NEW_GENERATION_COLLECTION), d.getCollectionTypes());
+
+        PauseHistogram ng = d.getHistogram(CollectionType.NEW_GENERATION_COLLECTION);
+        assertEquals(100L, ng.getCount());
+        assertEquals(50L, ng.getValueAtPercentile(50d));
+        assertEquals(100L, ng.getMax());
+
+        PauseHistogram full = d.getHistogram(CollectionType.FULL_COLLECTION);
+        assertEquals(1L, full.getCount());
+        assertEquals(2000L, full.getValueAtPercentile(99.9d));
+
+        assertNull(d.getHistogram(CollectionType.SHUTDOWN));
+        assertNull(d.getHistogram(CollectionType.CMS_CONCURRENT_MARK));
+
+        PauseHistogram all = d.getAll();
+        assertEquals(101L, all.getCount());
+        assertEquals(2000L, all.getMax());
+
+        String table = d.toTable();
+        log.info("\n" + table);
+        assertTrue(table.contains("p99.9"));
+        assertTrue(table.contains(CollectionType.NEW_GENERATION_COLLECTION.label));
+        assertTrue(table.contains("ALL"));
+    }
+
+    @Test
+    public void merge() throws Exception
+    {
+        PauseDistribution a = new PauseDistribution();
+        a.record(new NewGenerationCollection(new Timestamp(1000L), 10L, null, null));
+
+        PauseDistribution b = new PauseDistribution();
+        b.record(new NewGenerationCollection(new Timestamp(2000L), 30L, null, null));
+        b.record(new FullCollection(new Timestamp(3000L), 500L, null, null, null, null, false));
+
+        a.merge(b);
+
+        assertEquals(2L, a.getHistogram(CollectionType.NEW_GENERATION_COLLECTION).getCount());
+        assertEquals(30L, a.getHistogram(CollectionType.NEW_GENERATION_COLLECTION).getMax());
+        assertEquals(1L, a.getHistogram(CollectionType.FULL_COLLECTION).getCount());
+
+        // b is not modified
+        assertEquals(1L, b.getHistogram(CollectionType.NEW_GENERATION_COLLECTION).getCount());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,251 @@
+package com.novaordis.gc.analysis;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PauseHistogramTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(PauseHistogramTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void invalidConfiguration() throws Exception
+    {
+        try
+        {
+            new PauseHistogram(0, 1000L);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+
+        try
+        {
+            new PauseHistogram(7, 100L);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void empty() throws Exception
+    {
+        PauseHistogram h = new PauseHistogram();
+
+        assertEquals(0L, h.getCount());
+        assertEquals(0L, h.getMin());
+        assertEquals(0L, h.getMax());
+        assertEquals(0L, h.getValueAtPercentile(99d));
+    }
+
+    @Test
+    public void negativeValue() throws Exception
+    {
+        try
+        {
+            new PauseHistogram().record(-1L);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void indexRoundTrip() throws Exception
+    {
+        PauseHistogram h = new PauseHistogram();
+
+        for(long v = 0; v < 1000000L; v ++)
+        {
+            int i = h.countsIndex(v);
+            assertTrue(i < h.getCountsLength());
+            assertTrue(v + " -> " + i, h.lowestEquivalentValue(i) <= v);
+            assertTrue(v + " -> " + i, h.highestEquivalentValue(i) >= v);
+        }
+
+        // small values are exact
+        for(int i = 0; i < 256; i ++)
+        {
+            assertEquals(i, h.lowestEquivalentValue(i));
+            assertEquals(i, h.highestEquivalentValue(i));
+        }
+
+        // the highest trackable value fits
+        assertTrue(h.countsIndex(PauseHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE) < h.getCountsLength());
+    }
+
+    @Test
+    public void fixedFootprint() throws Exception
+    {
+        PauseHistogram h = new PauseHistogram();
+        int length = h.getCountsLength();
+
+        for(int i = 0; i < 100000; i ++)
+        {
+            h.record(i);
+        }
+
+        assertEquals(length, h.getCountsLength());
+        assertTrue(length < 4096);
+    }
+
+    @Test
+    public void exactPercentilesForSmallValues() throws Exception
+    {
+        PauseHistogram h = new PauseHistogram();
+
+        for(long v = 1; v <= 100; v ++)
+        {
+            h.record(v);
+        }
+
+        assertEquals(100L, h.getCount());
+        assertEquals(5050L, h.getTotal());
+        assertEquals(50.5d, h.getMean(), 0.0001);
+        assertEquals(1L, h.getMin());
+        assertEquals(100L, h.getMax());
+        assertEquals(50L, h.getValueAtPercentile(50d));
+        assertEquals(90L, h.getValueAtPercentile(90d));
+        assertEquals(99L, h.getValueAtPercentile(99d));
+        assertEquals(100L, h.getValueAtPercentile(99.9d));
+        assertEquals(100L, h.getValueAtPercentile(100d));
+        assertEquals(1L, h.getValueAtPercentile(0d));
+    }
+
+    @Test
+    public void relativeErrorAgainstSortedValues() throws Exception
+    {
+        Random r = new Random(11L);
+        PauseHistogram h = new PauseHistogram();
+        long[] values = new long[50000];
+
+        for(int i = 0; i < values.length; i ++)
+        {
+            // long tailed, from a few ms to several minutes
+            values[i] = (long)Math.exp(r.nextDouble() * 13);
+            h.record(values[i]);
+        }
+
+        Arrays.sort(values);
+
+        for(double p: new double[] { 50d, 90d, 99d, 99.9d, 100d })
+        {
+            long expected = values[(int)Math.ceil(p / 100 * values.length) - 1];
+            long actual = h.getValueAtPercentile(p);
+
+            assertTrue(p + ": " + actual + " < " + expected, actual >= expected);
+            assertTrue(p + ": " + actual + " vs " + expected, actual - expected <= expected / 128);
+        }
+
+        assertEquals(values[values.length - 1], h.getMax());
+    }
+
+    @Test
+    public void valuesAboveHighestTrackable() throws Exception
+    {
+        PauseHistogram h = new PauseHistogram(7, 1000L);
+
+        h.record(10L);
+        h.record(5000L);
+
+        assertEquals(5000L, h.getMax());
+        assertEquals(5000L, h.getValueAtPercentile(100d));
+        assertEquals(10L, h.getValueAtPercentile(50d));
+    }
+
+    @Test
+    public void merge() throws Exception
+    {
+        PauseHistogram all = new PauseHistogram();
+        PauseHistogram a = new PauseHistogram();
+        PauseHistogram b = new PauseHistogram();
+
+        Random r = new Random(3L);
+
+        for(int i = 0; i < 10000; i ++)
+        {
+            long v = r.nextInt(100000);
+            all.record(v);
+            (i % 3 == 0 ? a : b).record(v);
+        }
+
+        PauseHistogram merged = new PauseHistogram();
+        merged.merge(a);
+        merged.merge(b);
+
+        assertEquals(all.getCount(), merged.getCount());
+        assertEquals(all.getTotal(), merged.getTotal());
+        assertEquals(all.getMin(), merged.getMin());
+        assertEquals(all.getMax(), merged.getMax());
+
+        for(double p: new double[] { 1d, 50d, 90d, 99d, 99.9d })
+        {
+            assertEquals(all.getValueAtPercentile(p), merged.getValueAtPercentile(p));
+        }
+
+        // a is not modified
+        assertTrue(a.getCount() < all.getCount());
+    }
+
+    @Test
+    public void merge_DifferentConfiguration() throws Exception
+    {
+        try
+        {
+            new PauseHistogram().merge(new PauseHistogram(8, PauseHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE));
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void reset() throws Exception
+    {
+        PauseHistogram h = new PauseHistogram();
+        h.record(7L);
+        h.reset();
+
+        assertEquals(0L, h.getCount());
+        assertEquals(0L, h.getMax());
+
+        h.record(3L);
+        assertEquals(3L, h.getMin());
+        assertEquals(3L, h.getValueAtPercentile(50d));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
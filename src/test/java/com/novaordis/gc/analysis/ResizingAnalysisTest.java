@@ -0,0 +1,133 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.AdaptiveSizePolicy;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ResizingAnalysisTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param young the young generation capacity, K.
+     * @param heap the heap capacity, K.
+     * @param oldEden the eden size before the policy decision, -1 if the decision is not logged.
+     */
+    public static NewGenerationCollection collection(long offset, long young, long heap, long oldEden, long desiredEden,
+                                                     long survivor)
+    {
+        NewGenerationCollection c = new NewGenerationCollection(
+            new Timestamp(offset), 10L, new BeforeAfterMax(young, 0L, young, Unit.K),
+            new BeforeAfterMax(heap, 0L, heap, Unit.K));
+
+        if (oldEden >= 0)
+        {
+            AdaptiveSizePolicy p = new AdaptiveSizePolicy();
+            p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.021553 major_cost: " +
+                "0.000000 mutator_cost: 0.978447 throughput_goal: 0.990000 live_space: 279413136 free_space: " +
+                "201326592 old_eden_size: " + oldEden + " desired_eden_size: " + desiredEden);
+            p.parseLine("  avg_survived_padded_avg: 728176.250000  avg_promoted_padded_avg: 0.000000  " +
+                "avg_pretenured_padded_avg: 0.000000  tenuring_thresh: 7  target_size: " + survivor);
+            c.setAdaptiveSizePolicy(p);
+        }
+
+        return c;
+    }
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void empty() throws Exception
+    {
+        ResizingAnalysis a = new ResizingAnalysis();
+        assertEquals(0L, a.getCollectionCount());
+        assertTrue(a.getResizes().isEmpty());
+        assertNull(a.getYoungReversalRate());
+    }
+
+    @Test
+    public void noPolicy() throws Exception
+    {
+        ResizingAnalysis a = new ResizingAnalysis();
+
+        a.record(collection(1000L, 1024L, 4096L, -1L, -1L, -1L));
+        a.record(collection(2000L, 1024L, 4096L, -1L, -1L, -1L));
+        a.record(collection(3000L, 2048L, 4096L, -1L, -1L, -1L));
+
+        assertEquals(3L, a.getCollectionCount());
+        assertEquals(0L, a.getPolicyCount());
+        assertEquals(1, a.getResizes().size());
+
+        Resize r = a.getResizes().get(0);
+        assertEquals(3000L, r.getTime());
+        assertEquals(1024L * 1024, r.getYoungBefore());
+        assertEquals(2048L * 1024, r.getYoungAfter());
+
+        // the old generation capacity is derived from the heap capacity
+        assertEquals(3072L * 1024, r.getOldBefore());
+        assertEquals(2048L * 1024, r.getOldAfter());
+        assertTrue(r.isOldResized());
+        assertFalse(r.isSurvivorResized());
+        assertNull(r.getReason());
+
+        assertEquals(1L, a.getYoungGrowCount());
+        assertEquals(1L, a.getOldShrinkCount());
+        assertEquals(1L, a.getYoungResizeCount(null));
+        assertEquals(1024L * 1024, a.getMinYoung());
+        assertEquals(2048L * 1024, a.getMaxYoung());
+        assertFalse(a.isAbsolute());
+    }
+
+    @Test
+    public void oscillation() throws Exception
+    {
+        ResizingAnalysis a = new ResizingAnalysis();
+
+        a.record(collection(1000L, 1024L, 8192L, 100L, 100L, 256L));
+        a.record(collection(2000L, 2048L, 8192L, 100L, 200L, 256L));
+        a.record(collection(3000L, 1024L, 8192L, 200L, 100L, 512L));
+        a.record(collection(4000L, 2048L, 8192L, 100L, 200L, 512L));
+        a.record(collection(5000L, 4096L, 8192L, 200L, 400L, 512L));
+
+        assertEquals(5L, a.getPolicyCount());
+        assertEquals(4, a.getResizes().size());
+        assertEquals(3L, a.getYoungGrowCount());
+        assertEquals(1L, a.getYoungShrinkCount());
+        assertEquals(2L, a.getYoungReversalCount());
+        assertEquals(2d / 3, a.getYoungReversalRate(), 0.0001);
+        assertEquals(1L, a.getSurvivorResizeCount());
+
+        assertEquals(3L, a.getYoungResizeCount(AdaptiveSizePolicy.THROUGHPUT));
+        assertEquals(1L, a.getYoungResizeCount(AdaptiveSizePolicy.PAUSE));
+        assertEquals(0L, a.getYoungResizeCount(AdaptiveSizePolicy.FOOTPRINT));
+        assertEquals(0L, a.getYoungResizeCount(null));
+
+        Resize r = a.getResizes().get(1);
+        assertEquals(256L, r.getSurvivorBefore());
+        assertEquals(512L, r.getSurvivorAfter());
+        assertEquals(AdaptiveSizePolicy.PAUSE, r.getReason());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,112 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Restart;
+import com.novaordis.gc.model.event.Shutdown;
+import com.novaordis.gc.parser.LogSegment;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class RunAnalysisTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(RunAnalysisTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void singleRun() throws Exception
+    {
+        List<GCEvent> events = new ArrayList<GCEvent>();
+        events.add(new NewGenerationCollection(new Timestamp(1000L).applyTimeOrigin(0L), 10L, null, null));
+        events.add(new NewGenerationCollection(new Timestamp(2000L).applyTimeOrigin(0L), 30L, null, null));
+
+        RunAnalysis a = new RunAnalysis();
+        a.recordAll(events);
+
+        assertEquals(1, a.getRunCount());
+
+        RunAnalysis.RunSummary r = a.getRuns().get(0);
+        assertEquals(0, r.getIndex());
+        assertNull(r.getBoundary());
+        assertEquals(1000L, r.getBeginning().longValue());
+        assertEquals(2000L, r.getEnd().longValue());
+        assertEquals(1000L, r.getElapsed().longValue());
+        assertEquals(2, r.getNewGenerationCollectionCount());
+        assertEquals(2, r.getPauseCount());
+        assertEquals(40L, r.getPauseTime());
+        assertEquals(30L, r.getMaxPause());
+        assertFalse(r.isShutdown());
+    }
+
+    @Test
+    public void restarts() throws Exception
+    {
+        List<GCEvent> events = new ArrayList<GCEvent>();
+        events.add(new NewGenerationCollection(new Timestamp(1000L).applyTimeOrigin(0L), 10L, null, null));
+        events.add(new FullCollection(new Timestamp(5000L).applyTimeOrigin(0L), 500L, null, null, null, null, false));
+        events.add(new Shutdown());
+        events.add(new Restart(1, LogSegment.JVM_BANNER, 100000L));
+        events.add(new NewGenerationCollection(new Timestamp(1000L).applyTimeOrigin(100000L), 20L, null, null));
+        events.add(new Restart(2, LogSegment.OFFSET_RESET, 200000L));
+
+        RunAnalysis a = new RunAnalysis();
+        a.recordAll(events);
+
+        assertEquals(3, a.getRunCount());
+
+        RunAnalysis.RunSummary r = a.getRuns().get(0);
+        assertEquals(3, r.getEventCount());
+        assertEquals(1, r.getNewGenerationCollectionCount());
+        assertEquals(1, r.getFullCollectionCount());
+        assertEquals(510L, r.getPauseTime());
+        assertEquals(500L, r.getMaxPause());
+        assertEquals(4000L, r.getElapsed().longValue());
+        assertTrue(r.isShutdown());
+
+        r = a.getRuns().get(1);
+        assertEquals(1, r.getIndex());
+        assertEquals(LogSegment.JVM_BANNER, r.getBoundary());
+        assertEquals(101000L, r.getBeginning().longValue());
+        assertEquals(0L, r.getElapsed().longValue());
+        assertFalse(r.isShutdown());
+
+        r = a.getRuns().get(2);
+        assertEquals(LogSegment.OFFSET_RESET, r.getBoundary());
+        assertEquals(0, r.getEventCount());
+        assertNull(r.getBeginning());
+        assertNull(r.getElapsed());
+
+        String table = a.toTable();
+        log.info("\n" + table);
+        assertEquals(4, table.split("\n").length);
+        assertTrue(table.contains(LogSegment.OFFSET_RESET));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,173 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.ApplicationConcurrentTime;
+import com.novaordis.gc.model.event.ApplicationStoppedTime;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class SafepointAccountingTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void empty() throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting();
+        a.close();
+
+        assertEquals(0L, a.getCount());
+        assertNull(a.getStoppedFraction());
+        assertNull(a.getAverageTimeToSafepoint());
+        assertTrue(a.getWorstNonGcStops().isEmpty());
+    }
+
+    @Test
+    public void attribution() throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting(true);
+
+        a.record(new ApplicationConcurrentTime(new Timestamp(1000L), 990000L));
+        a.record(new NewGenerationCollection(new Timestamp(1001L), 51L, null, null));
+        a.record(new ApplicationStoppedTime(new Timestamp(1053L), 52345L, 123L));
+
+        // a non-GC stop
+        a.record(new ApplicationConcurrentTime(new Timestamp(2000L), 947000L));
+        a.record(new ApplicationStoppedTime(new Timestamp(2010L), 10200L, 200L));
+
+        // a young generation collection followed by a full collection, in the same stop; concurrent events are ignored
+        a.record(new ApplicationConcurrentTime(new Timestamp(3000L), 990000L));
+        a.record(new NewGenerationCollection(new Timestamp(3001L), 100L, null, null));
+        a.record(new CMSConcurrentMark(new Timestamp(3050L), 10L, 20L));
+        a.record(new FullCollection(new Timestamp(3101L), 800L, null, null, null, null, false));
+        a.record(new ApplicationStoppedTime(new Timestamp(3902L), 902000L, -1L));
+
+        // a non-GC stop, shorter than the first
+        a.record(new ApplicationStoppedTime(new Timestamp(4000L), 500L, 100L));
+
+        a.close();
+
+        assertEquals(4L, a.getCount());
+        assertEquals(52345L + 10200L + 902000L + 500L, a.getStoppedTime());
+        assertEquals(902000L, a.getMaxStoppedTime());
+
+        assertEquals(2L, a.getGcCount());
+        assertEquals(52345L + 902000L, a.getGcStoppedTime());
+        assertEquals(951L, a.getGcCollectionTime());
+
+        assertEquals(2L, a.getNonGcCount());
+        assertEquals(10700L, a.getNonGcStoppedTime());
+        assertEquals(10200L, a.getMaxNonGcStoppedTime());
+
+        assertEquals(141d, a.getAverageTimeToSafepoint(), 0.0001d);
+        assertEquals(200L, a.getMaxTimeToSafepoint());
+
+        assertEquals(2927000L, a.getApplicationTime());
+        assertEquals((double)a.getStoppedTime() / (a.getStoppedTime() + 2927000L), a.getStoppedFraction(), 0.0001d);
+
+        assertEquals(0L, a.getUnattributedCollectionCount());
+        assertFalse(a.isAbsolute());
+
+        assertEquals(4, a.getStops().size());
+
+        Safepoint s = a.getStops().get(0);
+        assertEquals(CollectionType.NEW_GENERATION_COLLECTION, s.getCause());
+        assertEquals(1, s.getCollectionCount());
+        assertEquals(1000L, s.getStart());
+
+        s = a.getStops().get(1);
+        assertFalse(s.isGc());
+        assertNull(s.getCause());
+
+        s = a.getStops().get(2);
+        assertEquals(CollectionType.NEW_GENERATION_COLLECTION, s.getCause());
+        assertEquals(2, s.getCollectionCount());
+        assertEquals(900L, s.getCollectionTime());
+
+        assertEquals(2, a.getWorstNonGcStops().size());
+        assertEquals(2010L, a.getWorstNonGcStops().get(0).getEnd());
+        assertEquals(4000L, a.getWorstNonGcStops().get(1).getEnd());
+    }
+
+    @Test
+    public void stopsAreNotKeptByDefault() throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting();
+
+        a.record(new ApplicationStoppedTime(new Timestamp(1000L), 500L, -1L));
+        a.close();
+
+        assertEquals(1L, a.getCount());
+        assertTrue(a.getStops().isEmpty());
+        assertEquals(1, a.getWorstNonGcStops().size());
+    }
+
+    @Test
+    public void unattributedCollections() throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting();
+
+        // the stop was not logged for the first collection
+        a.record(new NewGenerationCollection(new Timestamp(1000L), 50L, null, null));
+        a.record(new NewGenerationCollection(new Timestamp(5000L), 50L, null, null));
+        a.record(new ApplicationStoppedTime(new Timestamp(5051L), 51000L, -1L));
+
+        // nor for the last
+        a.record(new NewGenerationCollection(new Timestamp(9000L), 50L, null, null));
+
+        a.close();
+
+        assertEquals(1L, a.getGcCount());
+        assertEquals(2L, a.getUnattributedCollectionCount());
+    }
+
+    @Test
+    public void worstNonGcStopsAreBounded() throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting();
+
+        for(int i = 0; i < SafepointAccounting.MAX_REPORTED_STOPS * 3; i ++)
+        {
+            a.record(new ApplicationStoppedTime(new Timestamp(i * 1000L), 100L + i, -1L));
+        }
+
+        a.close();
+
+        assertEquals(SafepointAccounting.MAX_REPORTED_STOPS, a.getWorstNonGcStops().size());
+        assertEquals(100L + SafepointAccounting.MAX_REPORTED_STOPS * 3 - 1,
+            a.getWorstNonGcStops().get(0).getStoppedMicroseconds());
+
+        long previous = Long.MAX_VALUE;
+
+        for(Safepoint s: a.getWorstNonGcStops())
+        {
+            assertTrue(s.getStoppedMicroseconds() <= previous);
+            previous = s.getStoppedMicroseconds();
+        }
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,145 @@
+package com.novaordis.gc.analysis;
+
+import com.novaordis.gc.model.TenuringDistribution;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuringAnalysisTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void noDistribution() throws Exception
+    {
+        TenuringAnalysis a = new TenuringAnalysis();
+
+        a.record(new NewGenerationCollection(new Timestamp(1000L), 10L, null, null));
+
+        assertEquals(0L, a.getCount());
+        assertNull(a.getOverflowRate());
+        assertNull(a.getAverageThreshold());
+        assertNull(a.getThresholdTrend());
+        assertEquals(0, a.getMaxAge());
+    }
+
+    @Test
+    public void analysis() throws Exception
+    {
+        TenuringAnalysis a = new TenuringAnalysis();
+
+        // 1000 bytes at age 1, half of them survive to age 2, a quarter of those to age 3
+        a.record(collection(0L, 2000L, 15, 1000L));
+        a.record(collection(3600000L, 2000L, 15, 1000L, 500L));
+        a.record(collection(7200000L, 2000L, 7, 1000L, 500L, 125L));
+
+        // overflow
+        a.record(collection(10800000L, 2000L, 1, 2500L));
+
+        assertEquals(4L, a.getCount());
+        assertEquals(4L, a.getAgedCount());
+        assertEquals(1L, a.getOverflowCount());
+        assertEquals(0.25d, a.getOverflowRate(), 0.0001d);
+        assertEquals(0.25d, a.getRecentOverflowRate(), 0.0001d);
+
+        assertEquals(15, a.getMaxTenuringThreshold());
+        assertEquals(1, a.getMinThreshold());
+        assertEquals(15, a.getMaxThreshold());
+        assertEquals(38d / 4, a.getAverageThreshold(), 0.0001d);
+        assertEquals(2L, a.getThresholdCount(15));
+        assertEquals(1L, a.getThresholdCount(7));
+        assertEquals(2L, a.getBelowMaxThresholdCount());
+        assertEquals(2L, a.getThresholdChangeCount());
+        assertTrue(a.getThresholdTrend() < 0);
+        assertFalse(a.isAbsolute());
+
+        assertEquals(2000d, a.getAverageDesiredSurvivorSize(), 0.0001d);
+        assertEquals((1000d + 1500 + 1625 + 2500) / 4, a.getAverageSurvivor(), 0.0001d);
+        assertEquals(2500L, a.getMaxSurvivor());
+
+        assertEquals(3, a.getMaxAge());
+        assertEquals(5500d / 4, a.getAverageBytes(1), 0.0001d);
+        assertEquals(1000d / 4, a.getAverageBytes(2), 0.0001d);
+
+        // age 1 -> 2: (500 + 500 + 0) / (1000 + 1000 + 1000)
+        assertEquals(1000d / 3000, a.getSurvivalRate(1), 0.0001d);
+
+        // age 2 -> 3: (125 + 0) / (500 + 500)
+        assertEquals(0.125d, a.getSurvivalRate(2), 0.0001d);
+
+        assertEquals(0d, a.getSurvivalRate(3), 0.0001d);
+        assertNull(a.getSurvivalRate(4));
+    }
+
+    @Test
+    public void recentOverflowRate() throws Exception
+    {
+        TenuringAnalysis a = new TenuringAnalysis();
+
+        for(int i = 0; i < TenuringAnalysis.RECENT_COLLECTIONS; i ++)
+        {
+            a.record(collection(i * 1000L, 1000L, 15, 2000L));
+        }
+
+        for(int i = 0; i < TenuringAnalysis.RECENT_COLLECTIONS; i ++)
+        {
+            a.record(collection((TenuringAnalysis.RECENT_COLLECTIONS + i) * 1000L, 1000L, 15, 500L));
+        }
+
+        assertEquals(0.5d, a.getOverflowRate(), 0.0001d);
+        assertEquals(0d, a.getRecentOverflowRate(), 0.0001d);
+    }
+
+    @Test
+    public void thresholdOnly() throws Exception
+    {
+        TenuringAnalysis a = new TenuringAnalysis();
+
+        // parallel scavenge
+        a.record(collection(0L, 1000L, 7));
+
+        assertEquals(1L, a.getCount());
+        assertEquals(0L, a.getAgedCount());
+        assertNull(a.getOverflowRate());
+        assertNull(a.getAverageSurvivor());
+        assertEquals(7d, a.getAverageThreshold(), 0.0001d);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static NewGenerationCollection collection(long offset, long desired, int threshold, long... ages)
+        throws Exception
+    {
+        NewGenerationCollection c = new NewGenerationCollection(new Timestamp(offset), 10L, null, null);
+
+        TenuringDistribution d = new TenuringDistribution(desired, threshold, 15);
+
+        for(int i = 0; i < ages.length; i ++)
+        {
+            d.setBytes(i + 1, ages[i]);
+        }
+
+        c.setTenuringDistribution(d);
+        return c;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -2,6 +2,10 @@ package com.novaordis.gc.cli;
 
 import com.novaordis.gc.UserErrorException;
 import com.novaordis.gc.cli.command.TestCommand;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.TimeRange;
 import com.novaordis.utilities.Files;
 import com.novaordis.utilities.testing.Tests;
 import org.apache.log4j.Logger;
@@ -356,6 +360,203 @@ public class ConfigurationTest extends Assert
         }
     }
 
+    // time range ------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void timeRange_NotSpecified() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        Configuration c = new Configuration(new String[] { f.getAbsolutePath(), "test" });
+
+        assertNull(c.getTimeRange());
+    }
+
+    @Test
+    public void timeRange_Offsets() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        String[] args = new String[] {"--from", "3600", "--to", "3600.25", f.getAbsolutePath(), "test"};
+
+        Configuration c = new Configuration(args);
+
+        TimeRange r = c.getTimeRange();
+        assertEquals(3600000L, r.getFromOffset().longValue());
+        assertEquals(3600250L, r.getToOffset().longValue());
+        assertNull(r.getFromTime());
+        assertNull(r.getToTime());
+    }
+
+    @Test
+    public void timeRange_AbsoluteTimes() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        String[] args = new String[]
+            {"--from", "12/20/11", "00:01:02,004", "--to", "2011-12-20T00:05:00.000-0800", f.getAbsolutePath(), "test"};
+
+        Configuration c = new Configuration(args);
+
+        TimeRange r = c.getTimeRange();
+        assertEquals(Configuration.COMMAND_LINE_TIME_ORIGIN_FORMAT2.parse("12/20/11 00:01:02,004").getTime(), r.getFromTime().longValue());
+        assertEquals(Timestamp.DATESTAMP_FORMAT.parse("2011-12-20T00:05:00.000-0800").getTime(), r.getToTime().longValue());
+        assertNull(r.getFromOffset());
+    }
+
+    @Test
+    public void timeRange_OnlyUpperBound() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        Configuration c = new Configuration(new String[] {"--to", "10", f.getAbsolutePath(), "test"});
+
+        TimeRange r = c.getTimeRange();
+        assertFalse(r.hasLowerBound());
+        assertEquals(10000L, r.getToOffset().longValue());
+    }
+
+    @Test
+    public void timeRange_FromFollowsTo() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        try
+        {
+            new Configuration(new String[] {"--from", "20", "--to", "10", f.getAbsolutePath(), "test"});
+            fail("should have failed because --from follows --to");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void timeRange_InvalidValue() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        try
+        {
+            new Configuration(new String[] {"--from", "blah", f.getAbsolutePath(), "test"});
+            fail("should have failed because of invalid --from value");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void timeRange_MissingValue() throws Exception
+    {
+        try
+        {
+            new Configuration(new String[] {"--to"});
+            fail("should have failed because of missing --to value");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    // filter ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void filter_NotSpecified() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        Configuration c = new Configuration(new String[] { f.getAbsolutePath(), "test" });
+
+        assertNull(c.getFilter());
+    }
+
+    @Test
+    public void filter() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        String[] args = new String[] {"--where", "duration>500 && collection-type==full", f.getAbsolutePath(), "test"};
+
+        Configuration c = new Configuration(args);
+
+        Predicate p = c.getFilter();
+        assertEquals("duration>500 && collection-type==full", p.toString());
+        assertEquals(Boolean.TRUE, p.evaluate(CollectionType.FULL_COLLECTION, 501L));
+        assertEquals(Boolean.FALSE, p.evaluate(CollectionType.NEW_GENERATION_COLLECTION, 501L));
+    }
+
+    @Test
+    public void filter_Invalid() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        try
+        {
+            new Configuration(new String[] {"--where", "duration>>500", f.getAbsolutePath(), "test"});
+            fail("should have failed because of invalid filter expression");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void filter_SpecifiedTwice() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        try
+        {
+            new Configuration(new String[] {"--where", "duration>500", "--where", "duration<1000", f.getAbsolutePath(), "test"});
+            fail("should have failed because --where was specified twice");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void filter_MissingValue() throws Exception
+    {
+        try
+        {
+            new Configuration(new String[] {"--where"});
+            fail("should have failed because of missing --where value");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    // heap at GC ------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void skipHeapAtGC() throws Exception
+    {
+        File f =  new File(Tests.getScratchDirectory(), "test.log");
+        Files.write(f, "test");
+
+        assertFalse(new Configuration(new String[] { f.getAbsolutePath(), "test" }).isSkipHeapAtGC());
+        assertTrue(new Configuration(new String[] { "--skip-heap-at-gc", f.getAbsolutePath(), "test" }).isSkipHeapAtGC());
+    }
+
     public static final String COMMAND_LINE_TIME_ORIGIN_SPEC = "MM/dd/yy HH:mm:ss,SSS";
     public static final SimpleDateFormat COMMAND_LINE_TIME_ORIGIN_FORMAT =
         new SimpleDateFormat(COMMAND_LINE_TIME_ORIGIN_SPEC);
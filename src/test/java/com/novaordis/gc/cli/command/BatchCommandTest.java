@@ -0,0 +1,322 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.parser.linear.MultiRunParser;
+import com.novaordis.utilities.Files;
+import com.novaordis.utilities.testing.Tests;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class BatchCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(BatchCommandTest.class);
+
+    // the logs carry date stamps, so they need no time origin
+    private static final String DATE = "2014-08-14T01:12:2";
+
+    private static final String NG =
+        ": [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] " +
+        "[Times: user=0.21 sys=0.09, real=0.05 secs] \n";
+
+    private static final String FULL =
+        ": [Full GC [PSYoungGen: 72890K->0K(1835008K)] [ParOldGen: 1000K->70000K(4194304K)] " +
+        "73890K->70000K(6029312K) [PSPermGen: 30000K->30000K(65536K)], 0.5000000 secs] " +
+        "[Times: user=1.00 sys=0.00, real=0.50 secs] \n";
+
+    private static final String BANNER =
+        "Java HotSpot(TM) 64-Bit Server VM (25.40-b25) for linux-amd64 JRE (1.8.0_40-b25), built on Feb 10 2015\n" +
+        "Memory: 4k page, physical 16330000k(8044092k free), swap 0k(0k free)\n" +
+        "CommandLine flags: -XX:+PrintGC -XX:+PrintGCDetails -XX:+PrintGCDateStamps\n";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @After
+    public void scratchCleanup() throws Exception
+    {
+        Tests.cleanup();
+    }
+
+    @Test
+    public void options() throws Exception
+    {
+        BatchCommand c = new BatchCommand(null, Collections.<String>emptyList().iterator());
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), c.getThreads());
+        assertTrue(c.getMemoryBudget() > 0);
+        assertNull(c.getExportDirectory());
+        assertNull(c.getExportTemplate());
+
+        c = new BatchCommand(null, Arrays.asList("--threads", "3", "--memory", "512").iterator());
+
+        assertEquals(3, c.getThreads());
+        assertEquals(512L, c.getMemoryBudget());
+    }
+
+    @Test
+    public void options_Export() throws Exception
+    {
+        BatchCommand c = new BatchCommand(null,
+            Arrays.asList("--export", "csv", "-u", "K", "-c", "ng", "--threads", "2").iterator());
+
+        assertEquals(new File("csv"), c.getExportDirectory());
+        assertEquals(2, c.getThreads());
+
+        ExportSpecification t = c.getExportTemplate();
+        assertEquals(1, t.getCollectionTypes().size());
+        assertFalse(t.getExpressions().isEmpty());
+    }
+
+    @Test
+    public void options_Invalid() throws Exception
+    {
+        List<List<String>> invalid = Arrays.asList(
+            Arrays.asList("--threads"),
+            Arrays.asList("--threads", "0"),
+            Arrays.asList("--memory", "a lot"),
+            Arrays.asList("--export"),
+            // export options are only accepted after --export
+            Arrays.asList("-u", "K"),
+            Arrays.asList("--something"));
+
+        for(List<String> args: invalid)
+        {
+            try
+            {
+                new BatchCommand(null, args.iterator());
+                fail("should have failed on " + args);
+            }
+            catch(UserErrorException e)
+            {
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void estimate() throws Exception
+    {
+        assertEquals(1, BatchCommand.estimate(0L, 100L));
+        assertEquals(1, BatchCommand.estimate(1024L, 100L));
+        assertEquals(8, BatchCommand.estimate(1024L * 1024, 100L));
+
+        // never above the budget, so the log can eventually be admitted
+        assertEquals(100, BatchCommand.estimate(1024L * 1024 * 1024, 100L));
+    }
+
+    @Test
+    public void resolve_Directory() throws Exception
+    {
+        File dir = new File(Tests.getScratchDirectory(), "logs");
+        Files.write(new File(dir, "b.log"), "1.000" + NG);
+        Files.write(new File(dir, "a.log"), "1.000" + NG);
+        Files.write(new File(dir, ".hidden"), "");
+        assertTrue(new File(dir, "subdirectory").mkdirs());
+
+        List<File> files = BatchCommand.resolve(dir);
+
+        assertEquals(Arrays.asList(new File(dir, "a.log"), new File(dir, "b.log")), files);
+    }
+
+    @Test
+    public void resolve_Manifest() throws Exception
+    {
+        File dir = Tests.getScratchDirectory();
+        File manifest = new File(dir, "fleet.txt");
+        File absolute = new File(dir, "elsewhere/c.log").getAbsoluteFile();
+
+        Files.write(manifest, "# the fleet\n\nhost1/gc.log\n  host2/gc.log  \n" + absolute + "\n");
+
+        List<File> files = BatchCommand.resolve(manifest);
+
+        assertEquals(3, files.size());
+        assertEquals(new File(dir.getAbsoluteFile(), "host1/gc.log"), files.get(0));
+        assertEquals(new File(dir.getAbsoluteFile(), "host2/gc.log"), files.get(1));
+        assertEquals(absolute, files.get(2));
+    }
+
+    @Test
+    public void resolve_Missing() throws Exception
+    {
+        try
+        {
+            BatchCommand.resolve(new File(Tests.getScratchDirectory(), "no-such-manifest.txt"));
+            fail("should have failed");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void run_FailureDoesNotAbortTheBatch() throws Exception
+    {
+        File dir = Tests.getScratchDirectory();
+        File one = new File(dir, "host1/gc.log");
+        File two = new File(dir, "host2/gc.log");
+        File missing = new File(dir, "host3/gc.log");
+
+        Files.write(one,
+            DATE + "1.000-0700: 1.000" + NG + DATE + "2.000-0700: 2.000" + NG + DATE + "3.000-0700: 3.000" + FULL);
+        Files.write(two, DATE + "1.000-0700: 1.000" + NG + DATE + "5.000-0700: 5.000" + NG);
+
+        BatchCommand c = new BatchCommand(null, Arrays.asList("--threads", "2").iterator());
+
+        List<BatchCommand.Outcome> outcomes = c.run(Arrays.asList(one, missing, two));
+
+        assertEquals(3, outcomes.size());
+
+        BatchCommand.Outcome o = outcomes.get(0);
+        assertEquals(one, o.getFile());
+        assertNull(o.getFailure());
+        assertEquals(3L, o.getSummary().getPauseCount());
+        assertEquals(1L, o.getSummary().getFullCollectionCount());
+        assertEquals(2500L, o.getSummary().getElapsed());
+
+        o = outcomes.get(1);
+        assertEquals(missing, o.getFile());
+        assertNull(o.getSummary());
+        assertNotNull(o.getFailure());
+
+        o = outcomes.get(2);
+        assertEquals(two, o.getFile());
+        assertEquals(2L, o.getSummary().getPauseCount());
+        assertEquals(0L, o.getSummary().getFullCollectionCount());
+
+        String report = BatchCommand.toReport(outcomes);
+        log.info(report);
+
+        assertTrue(report.contains(one.getPath()));
+        assertTrue(report.contains("total"));
+        assertTrue(report.contains("1 of 3 logs failed"));
+        assertTrue(report.contains(missing.getPath() + ": "));
+    }
+
+    @Test
+    public void run_ErrorDoesNotAbortTheBatch() throws Exception
+    {
+        File dir = Tests.getScratchDirectory();
+        File one = new File(dir, "host1/gc.log");
+        final File two = new File(dir, "host2/gc.log");
+        File three = new File(dir, "host3/gc.log");
+
+        Files.write(one, DATE + "1.000-0700: 1.000" + NG);
+        Files.write(two, DATE + "1.000-0700: 1.000" + NG);
+        Files.write(three, DATE + "1.000-0700: 1.000" + NG);
+
+        for(String threads: Arrays.asList("1", "2"))
+        {
+            BatchCommand c = new BatchCommand(null, Arrays.asList("--threads", threads).iterator())
+            {
+                @Override
+                void analyze(Outcome o, int parserThreads)
+                {
+                    if (two.equals(o.getFile()))
+                    {
+                        throw new StackOverflowError();
+                    }
+
+                    super.analyze(o, parserThreads);
+                }
+            };
+
+            List<BatchCommand.Outcome> outcomes = c.run(Arrays.asList(one, two, three));
+
+            assertEquals(3, outcomes.size());
+
+            assertNull(outcomes.get(0).getFailure());
+            assertEquals(1L, outcomes.get(0).getSummary().getPauseCount());
+
+            assertNull(outcomes.get(1).getSummary());
+            assertEquals(StackOverflowError.class.getName(), outcomes.get(1).getFailure());
+
+            assertNull(outcomes.get(2).getFailure());
+            assertEquals(1L, outcomes.get(2).getSummary().getPauseCount());
+        }
+    }
+
+    @Test
+    public void run_ExportNamesAreUnique() throws Exception
+    {
+        File dir = Tests.getScratchDirectory();
+        File one = new File(dir, "host1/gc.log");
+        File two = new File(dir, "host2/gc.log");
+
+        Files.write(one, "1.000" + NG);
+        Files.write(two, "1.000" + NG);
+
+        BatchCommand c = new BatchCommand(null, Arrays.asList("--threads", "1").iterator());
+
+        List<BatchCommand.Outcome> outcomes = c.run(Arrays.asList(one, two));
+
+        assertEquals("gc.log.csv", outcomes.get(0).getExportName());
+        assertEquals("gc.log-2.csv", outcomes.get(1).getExportName());
+    }
+
+    @Test
+    public void getParser_RestartedLogParsedWithinTheThreadBudget() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+
+        Files.write(f, BANNER + DATE + "1.000-0700: 1.000" + NG + BANNER + DATE + "5.000-0700: 1.000" + NG);
+
+        BatchCommand c = new BatchCommand(null, Arrays.asList("--threads", "4").iterator());
+
+        MultiRunParser p = (MultiRunParser)c.getParser(f, 1);
+        assertEquals(1, p.getThreads());
+
+        p = (MultiRunParser)c.getParser(f, 4);
+        assertEquals(4, p.getThreads());
+    }
+
+    @Test
+    public void run_RestartedLogsUnderThePool() throws Exception
+    {
+        File dir = Tests.getScratchDirectory();
+        File one = new File(dir, "host1/gc.log");
+        File two = new File(dir, "host2/gc.log");
+
+        Files.write(one, BANNER + DATE + "1.000-0700: 1.000" + NG + BANNER + DATE + "5.000-0700: 1.000" + FULL);
+        Files.write(two, BANNER + DATE + "1.000-0700: 1.000" + NG + BANNER + DATE + "5.000-0700: 1.000" + NG);
+
+        BatchCommand c = new BatchCommand(null, Arrays.asList("--threads", "2").iterator());
+
+        List<BatchCommand.Outcome> outcomes = c.run(Arrays.asList(one, two));
+
+        assertNull(outcomes.get(0).getFailure());
+        assertEquals(2L, outcomes.get(0).getSummary().getPauseCount());
+        assertEquals(1L, outcomes.get(0).getSummary().getFullCollectionCount());
+
+        assertNull(outcomes.get(1).getFailure());
+        assertEquals(2L, outcomes.get(1).getSummary().getPauseCount());
+        assertEquals(0L, outcomes.get(1).getSummary().getFullCollectionCount());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,100 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.CMSCycleAssembler;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
+import com.novaordis.gc.model.event.cms.CMSConcurrentReset;
+import com.novaordis.gc.model.event.cms.CMSInitialMark;
+import com.novaordis.gc.model.event.cms.CMSRemark;
+import com.novaordis.gc.parser.CurrentMax;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class CMSCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(CMSCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void options() throws Exception
+    {
+        assertFalse(new CMSCommand(null, Collections.<String>emptyList().iterator()).isCycles());
+        assertTrue(new CMSCommand(null, Arrays.asList("--cycles").iterator()).isCycles());
+
+        try
+        {
+            new CMSCommand(null, Arrays.asList("--something").iterator());
+            fail("should have failed");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void noCycles() throws Exception
+    {
+        String report = CMSCommand.toReport(new CMSCycleAssembler(), true);
+        log.info(report);
+        assertTrue(report.contains("No CMS cycle found"));
+    }
+
+    @Test
+    public void report() throws Exception
+    {
+        CMSCycleAssembler a = new CMSCycleAssembler();
+
+        for(int i = 0; i < 3; i ++)
+        {
+            long start = i * 120000L;
+
+            a.record(new CMSInitialMark(new Timestamp(start), 15L,
+                new CurrentMax("750M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+            a.record(new CMSConcurrentMark(new Timestamp(start + 1000), 500L, 900L));
+            a.record(new CMSRemark(new Timestamp(start + 2000), 35L,
+                null, new CurrentMax("800M(1000M)", 1L), new CurrentMax("1G(2G)", 1L)));
+            a.record(new CMSConcurrentReset(new Timestamp(start + 3000), 5L, 5L));
+        }
+
+        a.close();
+
+        String report = CMSCommand.toReport(a, true);
+        log.info(report);
+
+        assertTrue(report.contains("Cycles:                         3"));
+        assertTrue(report.contains("completed:                  3"));
+        assertTrue(report.contains("30.00 cycles/hour"));
+        assertTrue(report.contains("75.0% average, 75.0% min, 75.0% max"));
+        assertTrue(report.contains("50 ms average, 50 ms max"));
+        assertTrue(report.contains("remark (STW)"));
+        assertTrue(report.contains("75.0%"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
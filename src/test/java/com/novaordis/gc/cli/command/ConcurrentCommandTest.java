@@ -0,0 +1,101 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.ConcurrentCycleAnalysis;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ConcurrentCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ConcurrentCommandTest.class);
+
+    private static final long M = 1024L * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void options() throws Exception
+    {
+        assertFalse(new ConcurrentCommand(null, Collections.<String>emptyList().iterator()).isCycles());
+        assertTrue(new ConcurrentCommand(null, Arrays.asList("--cycles").iterator()).isCycles());
+
+        try
+        {
+            new ConcurrentCommand(null, Arrays.asList("--something").iterator());
+            fail("should have failed");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void noCycles() throws Exception
+    {
+        String report = ConcurrentCommand.toReport(new ConcurrentCycleAnalysis(), true);
+        log.info(report);
+        assertTrue(report.contains("No ZGC or Shenandoah cycle found"));
+    }
+
+    @Test
+    public void report() throws Exception
+    {
+        ConcurrentCycleAnalysis a = new ConcurrentCycleAnalysis(true);
+
+        for(int i = 0; i < 3; i ++)
+        {
+            boolean stalled = i == 2;
+
+            a.record(new ConcurrentCycle(new Timestamp(i * 10000L), 40L, CollectionType.ZGC_CYCLE,
+                new String[] { "Pause Mark Start", "Concurrent Mark", "Pause Mark End" }, new int[] { 12, 18456, 20 },
+                stalled ? new String[] { "main" } : null, stalled ? new int[] { 5123 } : null,
+                null, null, stalled ? 486L * M : 410L * M, 512L * M));
+        }
+
+        String report = ConcurrentCommand.toReport(a, true);
+        log.info(report);
+
+        assertTrue(report.contains("ZGC cycles:"));
+        assertTrue(report.contains("Cycles:                         3"));
+        assertTrue(report.contains("Pauses:                         6, 0.096 ms total, 0.020 ms max"));
+        assertTrue(report.contains("Allocation stalls:              1, 5.123 ms total, 5.123 ms max, in 1 cycles"));
+        assertTrue(report.contains("Heap headroom at cycle start:   15.0% average, 5.1% min (26.0M)"));
+        assertTrue(report.contains("of the cycles that stalled: 5.1% average"));
+        assertTrue(report.matches("(?s).*Concurrent Mark +3 +55\\.368 +18\\.456 +18\\.456\n.*"));
+        assertTrue(report.matches("(?s).*main +1 +5\\.123 +5\\.123\n.*"));
+        assertFalse(report.contains("paced thread"));
+
+        // the cycle list
+        assertTrue(report.contains("headroom"));
+        assertTrue(report.contains("19.9%"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -15,6 +15,8 @@ import com.novaordis.series.Header;
 import com.novaordis.series.Metric;
 import com.novaordis.series.Row;
 import com.novaordis.series.Series;
+import com.novaordis.series.metric.DoubleHeader;
+import com.novaordis.series.metric.DoubleMetric;
 import com.novaordis.series.metric.LongHeader;
 import com.novaordis.series.metric.LongMetric;
 import com.novaordis.series.metric.StringHeader;
@@ -475,13 +477,26 @@ public class ExportCommandTest extends Assert
         Configuration c = new Configuration(args);
 
         Set<CollectionType> cts = ((ExportCommand)c.getCommand()).getCollectionTypes();
-        assertEquals(7, cts.size());
+        assertEquals(20, cts.size());
         assertTrue(cts.contains(CollectionType.FULL_COLLECTION));
         assertTrue(cts.contains(CollectionType.NEW_GENERATION_COLLECTION));
         assertTrue(cts.contains(CollectionType.SHUTDOWN));
         assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_MARK_START));
         assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_PRECLEAN));
         assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_MARK));
+        assertTrue(cts.contains(CollectionType.CMS_REMARK));
+        assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN));
+        assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_SWEEP));
+        assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_RESET));
+        assertTrue(cts.contains(CollectionType.APPLICATION_STOPPED));
+        assertTrue(cts.contains(CollectionType.APPLICATION_CONCURRENT));
+        assertTrue(cts.contains(CollectionType.G1_YOUNG));
+        assertTrue(cts.contains(CollectionType.G1_MIXED));
+        assertTrue(cts.contains(CollectionType.G1_REMARK));
+        assertTrue(cts.contains(CollectionType.G1_CLEANUP));
+        assertTrue(cts.contains(CollectionType.ZGC_CYCLE));
+        assertTrue(cts.contains(CollectionType.SHENANDOAH_CYCLE));
+        assertTrue(cts.contains(CollectionType.RESTART));
     }
 
     @Test
@@ -505,13 +520,26 @@ public class ExportCommandTest extends Assert
         Configuration c = new Configuration(args);
 
         Set<CollectionType> cts = ((ExportCommand)c.getCommand()).getCollectionTypes();
-        assertEquals(7, cts.size());
+        assertEquals(20, cts.size());
         assertTrue(cts.contains(CollectionType.FULL_COLLECTION));
         assertTrue(cts.contains(CollectionType.NEW_GENERATION_COLLECTION));
         assertTrue(cts.contains(CollectionType.SHUTDOWN));
         assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_MARK_START));
         assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_PRECLEAN));
         assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_MARK));
+        assertTrue(cts.contains(CollectionType.CMS_REMARK));
+        assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN));
+        assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_SWEEP));
+        assertTrue(cts.contains(CollectionType.CMS_CONCURRENT_RESET));
+        assertTrue(cts.contains(CollectionType.APPLICATION_STOPPED));
+        assertTrue(cts.contains(CollectionType.APPLICATION_CONCURRENT));
+        assertTrue(cts.contains(CollectionType.G1_YOUNG));
+        assertTrue(cts.contains(CollectionType.G1_MIXED));
+        assertTrue(cts.contains(CollectionType.G1_REMARK));
+        assertTrue(cts.contains(CollectionType.G1_CLEANUP));
+        assertTrue(cts.contains(CollectionType.ZGC_CYCLE));
+        assertTrue(cts.contains(CollectionType.SHENANDOAH_CYCLE));
+        assertTrue(cts.contains(CollectionType.RESTART));
     }
 
     @Test
@@ -1102,6 +1130,202 @@ public class ExportCommandTest extends Assert
         assertEquals(2L, lm.getLong());
     }
 
+    @Test
+    public void toSeries_ConvertedMemoryKeepsTheNumericTypes() throws Exception
+    {
+        ExportCommand ec = new ExportCommand();
+
+        ec.setExpressions(Arrays.asList((Expression)FieldType.NG_AFTER, FieldType.DURATION));
+        ec.setCollectionTypes(new HashSet<CollectionType>(Arrays.asList(CollectionType.NEW_GENERATION_COLLECTION)));
+        ec.getSpecifications().get(0).setOutputMemoryUnit(Unit.M);
+
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        events.add(new NewGenerationCollection(
+            new Timestamp(101102L).applyTimeOrigin(0L), 1002L,
+            new BeforeAfterMax(-1L, 1536L * 1024, -1L, Unit.b), new BeforeAfterMax(-1L, -1L, -1L, Unit.b)));
+
+        Series s = ec.toSeries(events);
+
+        List<Header> headers = s.getHeaders();
+        assertTrue(headers.get(0) instanceof DoubleHeader);
+        assertEquals(FieldType.NG_AFTER.label + " (MB)", headers.get(0).getLabel());
+        assertTrue(headers.get(1) instanceof LongHeader);
+
+        List<Metric> metrics = s.iterator().next().getMetrics();
+
+        // rendered by the header's MemoryFormat only when the series is written
+        assertEquals(1.5d, ((DoubleMetric)metrics.get(0)).getValue());
+        assertEquals("1.5", Configuration.MEMORY_FORMAT.format(1.5d));
+        assertEquals(1002L, ((LongMetric)metrics.get(1)).getLong());
+    }
+
+    // multiple output specifications -----------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_MultipleSpecifications() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "/tmp/gc.12-Jan-11-0000");
+        Files.write(f, "some data");
+
+        String[] args = new String[]
+            {
+                f.getAbsolutePath(),
+                "export",
+                "-o", "full.csv", "-c", "full", "-f", "duration,", "og-after",
+                "+",
+                "-f", "ng-before", "-u", "K", "-o", "ng.csv", "-c", "ng",
+                "+",
+                "-o", "all.csv"
+            };
+
+        Configuration c = new Configuration(args);
+
+        ExportCommand ec = (ExportCommand)c.getCommand();
+
+        List<ExportSpecification> specs = ec.getSpecifications();
+        assertEquals(3, specs.size());
+
+        ExportSpecification full = specs.get(0);
+        assertEquals(new File("full.csv"), full.getOutputFile());
+        assertEquals(Unit.M, full.getOutputMemoryUnit());
+        assertEquals(1, full.getCollectionTypes().size());
+        assertTrue(full.getCollectionTypes().contains(CollectionType.FULL_COLLECTION));
+        assertEquals(Arrays.asList((Expression)FieldType.DURATION, FieldType.OG_AFTER), full.getExpressions());
+
+        ExportSpecification ng = specs.get(1);
+        assertEquals(new File("ng.csv"), ng.getOutputFile());
+        assertEquals(Unit.K, ng.getOutputMemoryUnit());
+        assertEquals(1, ng.getCollectionTypes().size());
+        assertTrue(ng.getCollectionTypes().contains(CollectionType.NEW_GENERATION_COLLECTION));
+        assertEquals(Arrays.asList((Expression)FieldType.NG_BEFORE), ng.getExpressions());
+
+        ExportSpecification all = specs.get(2);
+        assertEquals(new File("all.csv"), all.getOutputFile());
+        testDefaultCollectionTypes(all.getCollectionTypes());
+        assertEquals(5, all.getExpressions().size());
+
+        // the single-specification accessors refer to the first specification
+        assertEquals(new File("full.csv"), ec.getOutputFile());
+    }
+
+    @Test
+    public void constructor_MultipleSpecifications_TrailingSeparator() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "/tmp/gc.12-Jan-11-0000");
+        Files.write(f, "some data");
+
+        String[] args = new String[] { f.getAbsolutePath(), "export", "-o", "a.csv", "+" };
+
+        try
+        {
+            new Configuration(args);
+            fail("should have failed with UserErrorException, nothing follows the separator");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_MultipleSpecifications_MoreThanOneAtStdout() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "/tmp/gc.12-Jan-11-0000");
+        Files.write(f, "some data");
+
+        String[] args = new String[] { f.getAbsolutePath(), "export", "-c", "full", "+", "-c", "ng" };
+
+        try
+        {
+            new Configuration(args);
+            fail("should have failed with UserErrorException, two specifications write at stdout");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_MultipleSpecifications_SameOutputFile() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "/tmp/gc.12-Jan-11-0000");
+        Files.write(f, "some data");
+
+        String[] args = new String[] { f.getAbsolutePath(), "export", "-o", "a.csv", "-c", "full", "+", "-o", "a.csv" };
+
+        try
+        {
+            new Configuration(args);
+            fail("should have failed with UserErrorException, two specifications write into the same file");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void fanOut() throws Exception
+    {
+        File full = new File(Tests.getScratchDirectory(), "full.csv");
+        File ng = new File(Tests.getScratchDirectory(), "ng.csv");
+
+        File f = new File(Tests.getScratchDirectory(), "/tmp/gc.12-Jan-11-0000");
+        Files.write(f, "some data");
+
+        String[] args = new String[]
+            {
+                f.getAbsolutePath(),
+                "export",
+                "-o", full.getPath(), "-c", "full", "-f", "duration",
+                "+",
+                "-o", ng.getPath(), "-c", "ng", "-f", "duration"
+            };
+
+        ExportCommand ec = (ExportCommand)new Configuration(args).getCommand();
+
+        BeforeAfterMax bam = new BeforeAfterMax(1L, 1L, 1L, Unit.b);
+
+        List<GCEvent> events = new ArrayList<GCEvent>();
+
+        for(int i = 0; i < 10000; i ++)
+        {
+            Timestamp ts = new Timestamp(1000L + i).applyTimeOrigin(0L);
+
+            if (i % 3 == 0)
+            {
+                events.add(new FullCollection(ts, i, bam, bam, bam, bam, false));
+            }
+            else
+            {
+                events.add(new NewGenerationCollection(ts, i, bam, bam));
+            }
+        }
+
+        List<Series> series = ec.fanOut(events);
+
+        assertEquals(2, series.size());
+
+        Series fullSeries = series.get(0);
+        assertEquals(3334, fullSeries.getCount());
+
+        Iterator<Row> ri = fullSeries.iterator();
+        Row r = ri.next();
+        assertEquals(1000L, r.getTime());
+        assertEquals(0L, ((LongMetric)r.getMetrics().get(0)).getLong());
+        r = ri.next();
+        assertEquals(1003L, r.getTime());
+        assertEquals(3L, ((LongMetric)r.getMetrics().get(0)).getLong());
+
+        Series ngSeries = series.get(1);
+        assertEquals(6666, ngSeries.getCount());
+
+        assertTrue(full.isFile());
+        assertTrue(ng.isFile());
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -0,0 +1,147 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.TimeOrigin;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class InfoCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(InfoCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parallel() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/1.log", new TimeOrigin(0L));
+
+        assertEquals("Parallel", c.getAlgorithm());
+        assertTrue(c.getYoungCollectionCount() > 0);
+        assertTrue(c.getFullCollectionCount() > 0);
+    }
+
+    @Test
+    public void serial() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/serial-jdk8.log", new TimeOrigin());
+
+        assertEquals("Serial", c.getAlgorithm());
+        assertEquals(3, c.getYoungCollectionCount());
+        assertEquals(2, c.getFullCollectionCount());
+    }
+
+    @Test
+    public void cms_DefNew() throws Exception
+    {
+        // CMS with the serial young generation collector
+        InfoCommand.EventCounts c = count("collected/cms-clean-full-cycle.log", new TimeOrigin());
+
+        assertEquals("CMS", c.getAlgorithm());
+        assertTrue(c.getYoungCollectionCount() > 0);
+    }
+
+    @Test
+    public void cms() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/cms-clean-full-cycle.log", new TimeOrigin());
+
+        assertEquals("CMS", c.getAlgorithm());
+    }
+
+    @Test
+    public void g1_Jdk8() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/g1-jdk8.log", new TimeOrigin());
+
+        assertEquals("G1", c.getAlgorithm());
+        assertTrue(c.getYoungCollectionCount() > 0);
+    }
+
+    @Test
+    public void g1_Jdk11Unified() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/g1-jdk11-unified.log", new TimeOrigin());
+
+        assertEquals("G1", c.getAlgorithm());
+        assertTrue(c.getYoungCollectionCount() > 0);
+    }
+
+    @Test
+    public void zgc() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/zgc-jdk17-unified.log", new TimeOrigin());
+
+        assertEquals("ZGC", c.getAlgorithm());
+        assertTrue(c.getConcurrentCycleCount() > 0);
+    }
+
+    @Test
+    public void shenandoah() throws Exception
+    {
+        // uptime decorations only
+        InfoCommand.EventCounts c = count("collected/shenandoah-jdk17-unified.log", new TimeOrigin(0L));
+
+        assertEquals("Shenandoah", c.getAlgorithm());
+        assertTrue(c.getConcurrentCycleCount() > 0);
+    }
+
+    @Test
+    public void j9() throws Exception
+    {
+        InfoCommand.EventCounts c = count("collected/gencon-openj9.log", new TimeOrigin());
+
+        assertEquals("J9 gencon", c.getAlgorithm());
+        assertTrue(c.getYoungCollectionCount() > 0);
+        assertTrue(c.getFullCollectionCount() > 0);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static InfoCommand.EventCounts count(String resource, TimeOrigin timeOrigin) throws Exception
+    {
+        InputStream is = InfoCommandTest.class.getClassLoader().getResourceAsStream(resource);
+        assertNotNull(is);
+
+        GCLogParser p = GCLogParserFactory.getParser(new InputStreamReader(is));
+        List<GCEvent> events = p.parse(timeOrigin);
+
+        InfoCommand.EventCounts c = new InfoCommand.EventCounts();
+
+        for(GCEvent e: events)
+        {
+            c.record(e);
+        }
+
+        log.info(resource + ": " + c.getAlgorithm() + ", " + c.getYoungCollectionCount() + " young, " +
+            c.getFullCollectionCount() + " full");
+
+        return c;
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,68 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.analysis.LeakDetector;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LeakCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LeakCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void noSamples() throws Exception
+    {
+        String report = LeakCommand.toReport(new LeakDetector());
+        log.info(report);
+        assertTrue(report.contains("cannot be estimated"));
+    }
+
+    @Test
+    public void growingOldGeneration() throws Exception
+    {
+        LeakDetector d = new LeakDetector();
+
+        for(int i = 0; i < 20; i ++)
+        {
+            d.record(new FullCollection(new Timestamp(i * 600000L), 1000L,
+                null, new BeforeAfterMax(900L, 100L + 10 * i, 1000L, Unit.M), null,
+                new BeforeAfterMax(1200L, 150L + 10 * i, 1500L, Unit.M), false));
+        }
+
+        String report = LeakCommand.toReport(d);
+        log.info(report);
+
+        assertTrue(report.contains("old generation"));
+        assertTrue(report.contains("heap"));
+        assertTrue(report.contains("+60.00 MB/hour"));
+        assertTrue(report.contains("Sustained growth:               YES"));
+        assertTrue(report.contains("Estimated time to exhaustion"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,131 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.MutatorUtilization;
+import com.novaordis.gc.cli.Configuration;
+import com.novaordis.series.Row;
+import com.novaordis.series.Series;
+import com.novaordis.utilities.Files;
+import com.novaordis.utilities.testing.Tests;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Iterator;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class OverheadCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(OverheadCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @After
+    public void scratchCleanup() throws Exception
+    {
+        Tests.cleanup();
+    }
+
+    @Test
+    public void defaults() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, "some data");
+
+        Configuration c = new Configuration(new String[] { f.getAbsolutePath(), "overhead" });
+
+        OverheadCommand oc = (OverheadCommand)c.getCommand();
+
+        assertNull(oc.getOutputFile());
+        assertArrayEquals(OverheadCommand.DEFAULT_WINDOW_SIZES, oc.getWindowSizes());
+    }
+
+    @Test
+    public void windowsAndOutput() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, "some data");
+
+        Configuration c = new Configuration(
+            new String[] { f.getAbsolutePath(), "overhead", "-w", "500ms,10s,2,5m", "-o", "/tmp/overhead.csv" });
+
+        OverheadCommand oc = (OverheadCommand)c.getCommand();
+
+        assertEquals(new File("/tmp/overhead.csv"), oc.getOutputFile());
+        assertArrayEquals(new long[] { 500L, 10000L, 2000L, 300000L }, oc.getWindowSizes());
+    }
+
+    @Test
+    public void invalidWindowSize() throws Exception
+    {
+        for(String s: new String[] { "", "s", "-1s", "0", "10h", "blah" })
+        {
+            try
+            {
+                OverheadCommand.toWindowSize(s);
+                fail("should have failed on \"" + s + "\"");
+            }
+            catch(UserErrorException e)
+            {
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void toLabel() throws Exception
+    {
+        assertEquals("500ms", OverheadCommand.toLabel(500L));
+        assertEquals("10s", OverheadCommand.toLabel(10000L));
+        assertEquals("5m", OverheadCommand.toLabel(300000L));
+    }
+
+    @Test
+    public void toSeries() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, "some data");
+
+        Configuration c = new Configuration(new String[] { f.getAbsolutePath(), "overhead", "-w", "1s,10s" });
+        OverheadCommand oc = (OverheadCommand)c.getCommand();
+
+        MutatorUtilization mu = new MutatorUtilization();
+        mu.record(0L, 100L);
+        mu.record(900L, 100L);
+
+        Series s = oc.toSeries(mu);
+
+        assertEquals(2, s.getHeaders().size());
+        assertEquals(2, s.getCount());
+
+        Iterator<Row> i = s.iterator();
+        Row r = i.next();
+        assertEquals(100L, r.getTime());
+        r = i.next();
+        assertEquals(1000L, r.getTime());
+        assertEquals(20.0d, ((Double)r.getMetrics().get(0).getValue()).doubleValue(), 0.0001);
+        assertFalse(i.hasNext());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,105 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.ResizingAnalysis;
+import com.novaordis.gc.analysis.ResizingAnalysisTest;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ResizingCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ResizingCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void options() throws Exception
+    {
+        assertFalse(new ResizingCommand(null, Collections.<String>emptyList().iterator()).isTimeline());
+        assertTrue(new ResizingCommand(null, Arrays.asList("--timeline").iterator()).isTimeline());
+
+        try
+        {
+            new ResizingCommand(null, Arrays.asList("--something").iterator());
+            fail("should have failed");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void noCapacities() throws Exception
+    {
+        String report = ResizingCommand.toReport(new ResizingAnalysis(), false);
+        log.info(report);
+        assertTrue(report.contains("No collection logged the generation capacities"));
+    }
+
+    @Test
+    public void noPolicy() throws Exception
+    {
+        ResizingAnalysis a = new ResizingAnalysis();
+        a.record(ResizingAnalysisTest.collection(1000L, 1024L, 4096L, -1L, -1L, -1L));
+        a.record(ResizingAnalysisTest.collection(2000L, 2048L, 4096L, -1L, -1L, -1L));
+
+        String report = ResizingCommand.toReport(a, false);
+        log.info(report);
+
+        assertTrue(report.contains("Generation resizing (2 collections, 1 resizes)"));
+        assertTrue(report.contains("1 resizes (1 grown, 0 shrunk), 1.00 MB min, 2.00 MB max"));
+        assertTrue(report.contains("-XX:+PrintAdaptiveSizePolicy"));
+    }
+
+    @Test
+    public void report() throws Exception
+    {
+        ResizingAnalysis a = new ResizingAnalysis();
+        a.record(ResizingAnalysisTest.collection(1000L, 1024L, 8192L, 100L, 100L, 256L));
+        a.record(ResizingAnalysisTest.collection(2000L, 2048L, 8192L, 100L, 200L, 256L));
+        a.record(ResizingAnalysisTest.collection(3000L, 1024L, 8192L, 200L, 100L, 512L));
+        a.record(ResizingAnalysisTest.collection(4000L, 2048L, 8192L, 100L, 200L, 512L));
+
+        String report = ResizingCommand.toReport(a, false);
+        log.info(report);
+
+        assertTrue(report.contains("Direction reversals:            2 (100.0% of the resizes)"));
+        assertTrue(report.contains("the young generation oscillates"));
+        assertTrue(report.contains("Survivor spaces:                1 resizes"));
+        assertFalse(report.contains("not logged"));
+        assertFalse(report.contains("young (MB)"));
+
+        report = ResizingCommand.toReport(a, true);
+        log.info(report);
+
+        assertTrue(report.contains("young (MB)"));
+        assertTrue(report.contains("2.0 -> 1.0"));
+        assertTrue(report.contains("pause"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
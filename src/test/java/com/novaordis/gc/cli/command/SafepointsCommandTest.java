@@ -0,0 +1,83 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.SafepointAccounting;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.ApplicationConcurrentTime;
+import com.novaordis.gc.model.event.ApplicationStoppedTime;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class SafepointsCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(SafepointsCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void options() throws Exception
+    {
+        assertFalse(new SafepointsCommand(null, Collections.<String>emptyList().iterator()).isStops());
+        assertTrue(new SafepointsCommand(null, Arrays.asList("--stops").iterator()).isStops());
+
+        try
+        {
+            new SafepointsCommand(null, Arrays.asList("--something").iterator());
+            fail("should have failed");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void report() throws Exception
+    {
+        SafepointAccounting a = new SafepointAccounting(true);
+
+        a.record(new ApplicationConcurrentTime(new Timestamp(1000L), 947655L));
+        a.record(new NewGenerationCollection(new Timestamp(1001L), 51L, null, null));
+        a.record(new ApplicationStoppedTime(new Timestamp(1053L), 52345L, 123L));
+        a.record(new ApplicationStoppedTime(new Timestamp(2010L), 10200L, -1L));
+        a.close();
+
+        String report = SafepointsCommand.toReport(a, true);
+        log.info(report);
+
+        assertTrue(report.contains("(6.19% of the run time)"));
+        assertTrue(report.contains("GC stops:                       1"));
+        assertTrue(report.contains("Non-GC stops:                   1"));
+        assertTrue(report.contains("0.123 ms average, 0.123 ms max"));
+        assertTrue(report.contains("Longest non-GC stops:"));
+        assertTrue(report.contains("NEW GENERATION"));
+        assertTrue(report.contains("non-GC"));
+        assertFalse(report.contains("Collections outside any stop"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,88 @@
+package com.novaordis.gc.cli.command;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.analysis.TenuringAnalysis;
+import com.novaordis.gc.model.TenuringDistribution;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuringCommandTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(TenuringCommandTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void options() throws Exception
+    {
+        try
+        {
+            new TenuringCommand(null, Arrays.asList("--something").iterator());
+            fail("should have failed");
+        }
+        catch(UserErrorException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void noDistribution() throws Exception
+    {
+        String report = TenuringCommand.toReport(new TenuringAnalysis());
+        log.info(report);
+        assertTrue(report.contains("No tenuring distribution found"));
+    }
+
+    @Test
+    public void report() throws Exception
+    {
+        TenuringAnalysis a = new TenuringAnalysis();
+
+        for(int i = 0; i < 4; i ++)
+        {
+            NewGenerationCollection c = new NewGenerationCollection(new Timestamp(i * 1000L), 10L, null, null);
+            TenuringDistribution d = new TenuringDistribution(1024L * 1024, i == 3 ? 1 : 15, 15);
+            d.setBytes(1, 1024L * 1024 * (i == 3 ? 2 : 1) / 2);
+            d.setBytes(2, 1024L * 1024 / 4);
+            c.setTenuringDistribution(d);
+            a.record(c);
+        }
+
+        String report = TenuringCommand.toReport(a);
+        log.info(report);
+
+        assertTrue(report.contains("Tenuring distribution (4 collections)"));
+        assertTrue(report.contains("1.00 MB average"));
+        assertTrue(report.contains("1 of 4 collections (25.0%)"));
+        assertTrue(report.contains("promoted prematurely"));
+        assertTrue(report.contains("11.5 average, 1 min, 15 max (MaxTenuringThreshold 15)"));
+        assertTrue(report.contains("Threshold changes:              1"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
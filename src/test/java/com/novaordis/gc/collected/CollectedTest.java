@@ -1,12 +1,13 @@
 package com.novaordis.gc.collected;
 
 import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
 import com.novaordis.gc.model.event.*;
+import com.novaordis.gc.model.event.cms.CMSRemark;
 import com.novaordis.gc.parser.GCLogParser;
 import com.novaordis.gc.parser.GCLogParserFactory;
 import com.novaordis.gc.parser.TimeOrigin;
 import com.novaordis.gc.parser.linear.LinearScanParser;
-import com.novaordis.gc.parser.linear.ShutdownParser;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -94,10 +95,6 @@ public class CollectedTest extends Assert
         assertNull(se.getTime());
         assertNull(se.getOffset());
 
-        ShutdownParser sp = (ShutdownParser)se.getActiveParser();
-        // we test for non-null because we want to know the state we end up with - normally we should clean up the associated parser, as
-        // no more lines are expected, but we leave it there. This is a small leak.
-        assertNotNull(sp);
     }
 
     @Test
@@ -164,12 +161,14 @@ public class CollectedTest extends Assert
 
         List<GCEvent> events = p.parse(timeOrigin);
 
-        //
-        // we're skipping all the events on this line for the time being, we'll come back to it and we'll have to
-        // update the test
-        //
+        assertEquals(1, events.size());
 
-        assertTrue(events.isEmpty());
+        CMSRemark r = (CMSRemark)events.get(0);
+        assertEquals(11546L, r.getOffset().longValue());
+        assertEquals(56L, r.getDuration());
+        assertEquals(183584L * 1024, r.get(FieldType.NG).getValue());
+        assertEquals(0L, r.get(FieldType.OG).getValue());
+        assertEquals(819200L * 1024, r.get(FieldType.OG_CAPACITY).getValue());
     }
 
     @Test
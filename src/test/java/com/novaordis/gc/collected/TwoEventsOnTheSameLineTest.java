@@ -2,10 +2,9 @@ package com.novaordis.gc.collected;
 
 import com.novaordis.gc.model.Field;
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.event.FullCollection;
 import com.novaordis.gc.model.event.GCEvent;
 import com.novaordis.gc.model.event.NewGenerationCollection;
-import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
-import com.novaordis.gc.model.event.cms.CMSConcurrentPreclean;
 import com.novaordis.gc.parser.GCLogParserFactory;
 import com.novaordis.gc.parser.TimeOrigin;
 import com.novaordis.gc.parser.linear.LinearScanParser;
@@ -74,8 +73,17 @@ public class TwoEventsOnTheSameLineTest extends Assert
         f = e.get(FieldType.DURATION);
         assertEquals(393L, f.getValue());
 
-        CMSConcurrentPreclean e2 = (CMSConcurrentPreclean)events.get(1);
-        assertNotNull(e2);
+        // the CMS segment interrupted by the end of the concurrent preclean is a concurrent mode failure
+
+        FullCollection e2 = (FullCollection)events.get(1);
+        assertEquals(27037231L, e2.getOffset().longValue());
+        assertEquals(FullCollection.CONCURRENT_MODE_FAILURE, e2.get(FieldType.NOTES).getValue());
+        assertEquals(3667441L * 1024, e2.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(779130L * 1024, e2.get(FieldType.OG_AFTER).getValue());
+        assertEquals(3670016L * 1024, e2.get(FieldType.OG_CAPACITY).getValue());
+        assertEquals(4045730L * 1024, e2.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(93567L * 1024, e2.get(FieldType.PG_BEFORE).getValue());
+        assertEquals(6210L, e2.getDuration());
     }
 
     @Test
@@ -112,8 +120,11 @@ public class TwoEventsOnTheSameLineTest extends Assert
         f = e.get(FieldType.NG_CAPACITY);
         assertEquals(4478730240L, f.getValue());
 
-        CMSConcurrentMark e2 = (CMSConcurrentMark)events.get(1);
-        assertNotNull(e2);
+        FullCollection e2 = (FullCollection)events.get(1);
+        assertEquals(FullCollection.CONCURRENT_MODE_FAILURE, e2.get(FieldType.NOTES).getValue());
+        assertEquals(10735872L * 1024, e2.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(14282105L * 1024, e2.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(22510L, e2.getDuration());
     }
 
     // Package protected -----------------------------------------------------------------------------------------------
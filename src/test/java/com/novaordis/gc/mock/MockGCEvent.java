@@ -5,7 +5,6 @@ import com.novaordis.gc.model.FieldType;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.Value;
 import com.novaordis.gc.model.event.GCEvent;
-import com.novaordis.gc.parser.GCEventParser;
 
 /**
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
@@ -64,13 +63,7 @@ public class MockGCEvent implements GCEvent
     {
         throw new RuntimeException("NOT YET IMPLEMENTED");
     }
-
-    @Override
-    public GCEventParser getActiveParser()
-    {
-        return null;
-    }
-
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     public String getLine()
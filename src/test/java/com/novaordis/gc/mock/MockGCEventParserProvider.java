@@ -0,0 +1,119 @@
+package com.novaordis.gc.mock;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.parser.GCEventParser;
+import com.novaordis.gc.parser.GCEventParserProvider;
+import com.novaordis.gc.parser.linear.ContinuationRule;
+import com.novaordis.gc.parser.linear.PrefixContinuationRule;
+
+import java.util.List;
+
+/**
+ * Registered in src/test/resources/META-INF/services. Recognizes the logs of a JVM started with -XX:+PrintMockStats,
+ * and parses their "[Mock Stats ...]" lines into MockGCEvents.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MockGCEventParserProvider implements GCEventParserProvider
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String FLAG = "-XX:+PrintMockStats";
+
+    public static final String PREFIX = "[Mock Stats";
+
+    public static final String CONTINUATION_PREFIX = "[Mock Stats continued";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    private static volatile boolean threadSafe = true;
+
+    // the number of fragments handed to the parsers
+    private static int invocations;
+
+    public static void setThreadSafe(boolean b)
+    {
+        threadSafe = b;
+    }
+
+    public static synchronized int getInvocations()
+    {
+        return invocations;
+    }
+
+    public static synchronized void reset()
+    {
+        invocations = 0;
+        threadSafe = true;
+    }
+
+    private static synchronized void invoked()
+    {
+        invocations ++;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // GCEventParserProvider implementation ----------------------------------------------------------------------------
+
+    @Override
+    public String[] getPrefixes()
+    {
+        return new String[] { PREFIX };
+    }
+
+    @Override
+    public boolean detect(List<String> firstLines)
+    {
+        for(String line: firstLines)
+        {
+            if (line.startsWith("CommandLine flags: ") && line.contains(FLAG))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean isThreadSafe()
+    {
+        return threadSafe;
+    }
+
+    @Override
+    public GCEventParser newParser()
+    {
+        return new MockGCEventParser()
+        {
+            @Override
+            public GCEvent parse(Timestamp ts, String line, long lineNumber, GCEvent current) throws Exception
+            {
+                invoked();
+                return line.startsWith(PREFIX) ? new MockGCEvent(ts, line, lineNumber) : null;
+            }
+        };
+    }
+
+    @Override
+    public ContinuationRule[] getContinuationRules()
+    {
+        return new ContinuationRule[] { new PrefixContinuationRule(CONTINUATION_PREFIX) };
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,135 @@
+package com.novaordis.gc.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class AdaptiveSizePolicyTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void isPolicyLine() throws Exception
+    {
+        assertTrue(AdaptiveSizePolicy.isPolicyLine("AdaptiveSizeStart: 2.360 collection: 1 "));
+        assertTrue(AdaptiveSizePolicy.isPolicyLine("PSAdaptiveSizePolicy::compute_eden_space_size limits: desired_eden_size: 1 old_eden_size: 2"));
+        assertTrue(AdaptiveSizePolicy.isPolicyLine("  avg_survived_padded_avg: 728176.250000  avg_promoted_padded_avg: 0.000000  avg_pretenured_padded_avg: 0.000000  tenuring_thresh: 7  target_size: 1048576"));
+        assertFalse(AdaptiveSizePolicy.isPolicyLine("avg_survived"));
+        assertFalse(AdaptiveSizePolicy.isPolicyLine(" [PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K), 0.0123450 secs]"));
+        assertFalse(AdaptiveSizePolicy.isPolicyLine("2.345: [GC (Allocation Failure) AdaptiveSizeStart: 2.360 collection: 1 "));
+    }
+
+    @Test
+    public void find() throws Exception
+    {
+        assertEquals(32, AdaptiveSizePolicy.find("2.345: [GC (Allocation Failure) AdaptiveSizeStart: 2.360 collection: 1 "));
+        assertEquals(29, AdaptiveSizePolicy.find("3.000: [Full GC (Ergonomics) AdaptiveSizeStart: 3.050 collection: 2 "));
+        assertEquals(-1, AdaptiveSizePolicy.find("2.345: [GC (Allocation Failure) [PSYoungGen: 65536K->10720K(76288K)]"));
+        assertEquals(-1, AdaptiveSizePolicy.find("CommandLine flags: -XX:+PrintAdaptiveSizePolicy -XX:+UseParallelGC "));
+    }
+
+    @Test
+    public void parseLine() throws Exception
+    {
+        AdaptiveSizePolicy p = new AdaptiveSizePolicy();
+
+        assertEquals(-1L, p.getDesiredEdenSize());
+        assertNull(p.getReason());
+
+        assertTrue(p.parseLine("AdaptiveSizePolicy::update_averages:  survived: 10978712  promoted: 8192  overflow: true"));
+        assertTrue(p.parseLine("AdaptiveSizeStart: 2.360 collection: 1 "));
+        assertTrue(p.parseLine("  avg_survived_padded_avg: 728176.250000  avg_promoted_padded_avg: 0.000000  avg_pretenured_padded_avg: 0.000000  tenuring_thresh: 7  target_size: 1048576"));
+        assertTrue(p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.021553 major_cost: 0.000000 mutator_cost: 0.978447 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_eden_size: 67108864 desired_eden_size: 76546048"));
+        assertTrue(p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size limits: desired_eden_size: 76546048 old_eden_size: 67108864 eden_limit: 76546048 cur_eden: 67108864 max_eden_size: 76546048 avg_young_live: 10978712"));
+        assertTrue(p.parseLine("AdaptiveSizeStop: collection: 1 "));
+
+        assertEquals(1, p.getCollection());
+        assertEquals(10978712L, p.getSurvived());
+        assertEquals(8192L, p.getPromoted());
+        assertTrue(p.isOverflow());
+        assertEquals(1048576L, p.getTargetSurvivorSize());
+        assertEquals(7, p.getTenuringThreshold());
+        assertEquals(0.021553d, p.getMinorCost(), 0.0000001);
+        assertEquals(0.0d, p.getMajorCost(), 0.0000001);
+        assertEquals(0.978447d, p.getMutatorCost(), 0.0000001);
+        assertEquals(0.99d, p.getThroughputGoal(), 0.0000001);
+        assertEquals(67108864L, p.getOldEdenSize());
+        assertEquals(76546048L, p.getDesiredEdenSize());
+        assertTrue(p.isEdenLimited());
+        assertFalse(p.isPromoLimited());
+        assertFalse(p.isGcTimeLimitExceeded());
+
+        // grown to meet the throughput goal
+        assertEquals(AdaptiveSizePolicy.THROUGHPUT, p.getReason());
+    }
+
+    @Test
+    public void parseLine_Malformed() throws Exception
+    {
+        AdaptiveSizePolicy p = new AdaptiveSizePolicy();
+
+        assertFalse(p.parseLine("AdaptiveSizeStart: 2.360 collection: "));
+        assertFalse(p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.021553 old_eden_size: 67108864"));
+        assertFalse(p.parseLine("  avg_survived_padded_avg: 728176.250000 tenuring_thresh: 7"));
+    }
+
+    @Test
+    public void reason_Inferred() throws Exception
+    {
+        // shrunk while the throughput goal is not met: pause
+        AdaptiveSizePolicy p = new AdaptiveSizePolicy();
+        p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.021553 major_cost: 0.000000 mutator_cost: 0.978447 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_eden_size: 76546048 desired_eden_size: 67108864");
+        assertEquals(AdaptiveSizePolicy.PAUSE, p.getReason());
+
+        // shrunk once the throughput goal is met: footprint
+        p = new AdaptiveSizePolicy();
+        p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.001000 major_cost: 0.000000 mutator_cost: 0.999000 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_eden_size: 76546048 desired_eden_size: 67108864");
+        assertEquals(AdaptiveSizePolicy.FOOTPRINT, p.getReason());
+
+        // the eden size is kept, the old generation free space decides
+        p = new AdaptiveSizePolicy();
+        p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.021553 major_cost: 0.010000 mutator_cost: 0.968447 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_eden_size: 67108864 desired_eden_size: 67108864");
+        p.parseLine("PSAdaptiveSizePolicy::compute_old_gen_free_space: costs minor_time: 0.021553 major_cost: 0.010000 mutator_cost: 0.968447 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_promo_size: 50000000 desired_promo_size: 60000000");
+        assertEquals(50000000L, p.getOldPromoSize());
+        assertEquals(60000000L, p.getDesiredPromoSize());
+        assertEquals(AdaptiveSizePolicy.THROUGHPUT, p.getReason());
+    }
+
+    @Test
+    public void reason_Logged() throws Exception
+    {
+        AdaptiveSizePolicy p = new AdaptiveSizePolicy();
+        p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.001000 major_cost: 0.000000 mutator_cost: 0.999000 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_eden_size: 76546048 desired_eden_size: 67108864");
+        p.parseLine("PSAdaptiveSizePolicy::adjust_eden_for_minor_pause_time adjusting gen sizes for major pause (avg 0.050000 goal 0.020000). desired_eden_size 67108864 eden delta 9437184");
+        assertEquals(AdaptiveSizePolicy.PAUSE, p.getReason());
+    }
+
+    @Test
+    public void gcTimeLimit() throws Exception
+    {
+        AdaptiveSizePolicy p = new AdaptiveSizePolicy();
+        assertTrue(p.parseLine("PSAdaptiveSizePolicy::compute_eden_space_size: gc time limit gc_cost: 0.990000  GCTimeLimit: 98"));
+        assertTrue(p.isGcTimeLimitExceeded());
+        assertNull(p.getReason());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
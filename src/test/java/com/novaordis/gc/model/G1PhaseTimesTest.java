@@ -0,0 +1,141 @@
+package com.novaordis.gc.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1PhaseTimesTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseLine() throws Exception
+    {
+        G1PhaseTimes t = new G1PhaseTimes();
+
+        assertEquals(-1d, t.getParallelTime(), 0d);
+        assertEquals(-1, t.getWorkers());
+
+        assertTrue(t.parseLine("   [Parallel Time: 3.1 ms, GC Workers: 4]"));
+        assertTrue(t.parseLine("      [GC Worker Start (ms): Min: 269.3, Avg: 269.4, Max: 269.4, Diff: 0.1]"));
+        assertTrue(t.parseLine("      [Ext Root Scanning (ms): Min: 0.6, Avg: 0.8, Max: 1.2, Diff: 0.6, Sum: 3.1]"));
+        assertTrue(t.parseLine("         [Processed Buffers: Min: 0, Avg: 0.0, Max: 0, Diff: 0, Sum: 0]"));
+        assertTrue(t.parseLine("      [Object Copy (ms): Min: 1.6, Avg: 2.0, Max: 2.2, Diff: 0.6, Sum: 8.0]"));
+        assertTrue(t.parseLine("      [GC Worker End (ms): Min: 272.3, Avg: 272.3, Max: 272.3, Diff: 0.0]"));
+        assertTrue(t.parseLine("   [Other: 1.0 ms]"));
+        assertTrue(t.parseLine("      [Ref Proc: 0.7 ms]"));
+        assertTrue(t.parseLine("      [Something New: 0.25 ms]"));
+
+        assertEquals(3.1d, t.getParallelTime(), 0.0001d);
+        assertEquals(4, t.getWorkers());
+
+        assertEquals(5, t.size());
+        assertSame(G1PhaseTimes.EXT_ROOT_SCANNING, t.getName(0));
+        assertEquals(0.8d, t.getTime(0), 0.0001d);
+        assertSame(G1PhaseTimes.OBJECT_COPY, t.getName(1));
+        assertEquals(2.0d, t.getTime(G1PhaseTimes.OBJECT_COPY), 0.0001d);
+        assertEquals(1.0d, t.getTime(G1PhaseTimes.OTHER), 0.0001d);
+        assertEquals(0.7d, t.getTime(G1PhaseTimes.REF_PROC), 0.0001d);
+        assertEquals("Something New", t.getName(4));
+        assertEquals(0.25d, t.getTime(4), 0.0001d);
+
+        assertEquals(-1d, t.getTime(G1PhaseTimes.TERMINATION), 0d);
+    }
+
+    @Test
+    public void parseLine_JDK7() throws Exception
+    {
+        G1PhaseTimes t = new G1PhaseTimes();
+
+        assertTrue(t.parseLine("   [Parallel Time: 3.9 ms]"));
+        assertTrue(t.parseLine("      [GC Worker Start (ms):  110.0  110.0  110.1  110.1"));
+        assertTrue(t.parseLine("       Avg: 110.1, Min: 110.0, Max: 110.1, Diff:   0.1]"));
+        assertTrue(t.parseLine("      [Object Copy (ms):  2.1  2.2  2.0  2.3"));
+        assertTrue(t.parseLine("       Avg:   2.2, Min:   2.0, Max:   2.3, Diff:   0.3]"));
+        assertTrue(t.parseLine("   [Clear CT:   0.1 ms]"));
+
+        assertEquals(3.9d, t.getParallelTime(), 0.0001d);
+        assertEquals(-1, t.getWorkers());
+        assertEquals(2, t.size());
+        assertEquals(2.2d, t.getTime(G1PhaseTimes.OBJECT_COPY), 0.0001d);
+        assertEquals(0.1d, t.getTime(G1PhaseTimes.CLEAR_CT), 0.0001d);
+    }
+
+    @Test
+    public void parseUnifiedLine() throws Exception
+    {
+        G1PhaseTimes t = new G1PhaseTimes();
+
+        String prefix = "[0.350s][info][gc,phases    ] GC(0) ";
+
+        assertTrue(t.parseUnifiedLine(prefix + "  Pre Evacuate Collection Set: 0.0ms", prefix.length()));
+        assertTrue(t.parseUnifiedLine(prefix + "  Evacuate Collection Set: 4.1ms", prefix.length()));
+        assertTrue(t.parseUnifiedLine(prefix + "    GC Worker Start (ms):   Min: 344.9, Avg: 345.0, Max: 345.0, Diff:  0.1", prefix.length()));
+        assertTrue(t.parseUnifiedLine(prefix + "    Ext Root Scanning (ms):   Min:  0.6, Avg:  0.8, Max:  1.2, Diff:  0.6, Sum:  3.1, Workers: 4", prefix.length()));
+        assertFalse(t.parseUnifiedLine(prefix + "      Processed Buffers:   Min: 0, Avg:  1.5, Max: 3, Diff: 3, Sum: 6, Workers: 4", prefix.length()));
+        assertFalse(t.parseUnifiedLine(prefix + "Phase 1: Mark live objects", prefix.length()));
+        assertFalse(t.parseUnifiedLine(prefix + "   ", prefix.length()));
+
+        assertEquals(3, t.size());
+        assertSame(G1PhaseTimes.PRE_EVACUATE_COLLECTION_SET, t.getName(0));
+        assertEquals(0.0d, t.getTime(0), 0.0001d);
+        assertSame(G1PhaseTimes.EVACUATE_COLLECTION_SET, t.getName(1));
+        assertEquals(4.1d, t.getTime(1), 0.0001d);
+        assertSame(G1PhaseTimes.EXT_ROOT_SCANNING, t.getName(2));
+        assertEquals(0.8d, t.getTime(2), 0.0001d);
+
+        assertEquals(-1d, t.getParallelTime(), 0.0001d);
+        assertEquals(-1, t.getWorkers());
+        t.setWorkers(4);
+        assertEquals(4, t.getWorkers());
+    }
+
+    @Test
+    public void parseLine_Malformed() throws Exception
+    {
+        G1PhaseTimes t = new G1PhaseTimes();
+
+        assertFalse(t.parseLine("something else"));
+        assertFalse(t.parseLine("   [no colon]"));
+        assertFalse(t.parseLine("   [Object Copy (ms): Min: 1.6, Avg: , Max: 2.2]"));
+        assertFalse(t.parseLine("   [Other: ms]"));
+        assertFalse(t.parseLine("       Avg: 110.1, Min: 110.0, Max: 110.1, Diff:   0.1]"));
+
+        assertEquals(0, t.size());
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() throws Exception
+    {
+        G1PhaseTimes t = new G1PhaseTimes();
+
+        for(int i = 0; i < 50; i ++)
+        {
+            assertTrue(t.parseLine("[Phase " + i + ": " + i + ".5 ms]"));
+        }
+
+        assertEquals(50, t.size());
+        assertEquals("Phase 49", t.getName(49));
+        assertEquals(49.5d, t.getTime(49), 0.0001d);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
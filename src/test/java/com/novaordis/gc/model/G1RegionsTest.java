@@ -0,0 +1,68 @@
+package com.novaordis.gc.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1RegionsTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parse() throws Exception
+    {
+        G1Regions r = G1Regions.parse(
+            "   [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->6320.1K(256.0M)]", 0);
+
+        assertEquals(24L * 1024 * 1024, r.getEdenBefore());
+        assertEquals(24L * 1024 * 1024, r.getEdenCapacityBefore());
+        assertEquals(0L, r.getEdenAfter());
+        assertEquals(13L * 1024 * 1024, r.getEdenCapacityAfter());
+        assertEquals(0L, r.getSurvivorBefore());
+        assertEquals(3072L * 1024, r.getSurvivorAfter());
+        assertEquals(24L * 1024 * 1024, r.getHeapBefore());
+        assertEquals(256L * 1024 * 1024, r.getHeapCapacityBefore());
+        assertEquals(6471782L, r.getHeapAfter());
+        assertEquals(256L * 1024 * 1024, r.getHeapCapacityAfter());
+    }
+
+    @Test
+    public void parse_Malformed() throws Exception
+    {
+        assertNull(G1Regions.parse("something else", 0));
+        assertNull(G1Regions.parse("[Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K]", 0));
+        assertNull(G1Regions.parse("[Eden: 24.0M->0.0B Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->6320.1K(256.0M)]", 0));
+        assertNull(G1Regions.parse("[Eden: 24.0X(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->6320.1K(256.0M)]", 0));
+    }
+
+    @Test
+    public void parseMemory() throws Exception
+    {
+        assertEquals(0L, G1Regions.parseMemory("0.0B", 0));
+        assertEquals(1536L, G1Regions.parseMemory("1.5K", 0));
+        assertEquals(255L * 1024 * 1024, G1Regions.parseMemory("255M", 0));
+        assertEquals(2L * 1024 * 1024 * 1024, G1Regions.parseMemory("2.0G)", 0));
+        assertEquals(-1L, G1Regions.parseMemory("255", 0));
+        assertEquals(-1L, G1Regions.parseMemory("M", 0));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
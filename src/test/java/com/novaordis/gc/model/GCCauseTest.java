@@ -0,0 +1,68 @@
+package com.novaordis.gc.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class GCCauseTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void knownCause() throws Exception
+    {
+        String line = "[GC (Allocation Failure) [PSYoungGen: ...";
+
+        assertSame(GCCause.ALLOCATION_FAILURE, GCCause.intern(line, 5, 23));
+        assertSame(GCCause.ALLOCATION_FAILURE, GCCause.intern(new String("Allocation Failure")));
+    }
+
+    @Test
+    public void legacySystemCause() throws Exception
+    {
+        assertSame(GCCause.SYSTEM_GC, GCCause.intern("System"));
+        assertSame(GCCause.SYSTEM_GC, GCCause.intern("System.gc()"));
+    }
+
+    @Test
+    public void newCauseIsInternedOnce() throws Exception
+    {
+        int count = GCCause.getKnownCauseCount();
+
+        String line = "[Full GC (GCCauseTest Cause) [PSYoungGen: ...";
+        String c = GCCause.intern(line, 10, 27);
+
+        assertEquals("GCCauseTest Cause", c);
+        assertEquals(count + 1, GCCause.getKnownCauseCount());
+
+        assertSame(c, GCCause.intern(new String("GCCauseTest Cause")));
+        assertSame(c, GCCause.intern("x(GCCauseTest Cause)", 2, 19));
+        assertEquals(count + 1, GCCause.getKnownCauseCount());
+    }
+
+    @Test
+    public void nullCause() throws Exception
+    {
+        assertNull(GCCause.intern(null));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
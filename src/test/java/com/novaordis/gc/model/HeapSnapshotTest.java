@@ -0,0 +1,146 @@
+package com.novaordis.gc.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class HeapSnapshotTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseHeader() throws Exception
+    {
+        HeapSnapshot s = HeapSnapshot.parseHeader("{Heap before GC invocations=12 (full 3):");
+
+        assertTrue(s.isBefore());
+        assertEquals(12, s.getInvocations());
+        assertEquals(3, s.getFullInvocations());
+        assertEquals(-1L, s.getHeapUsed());
+
+        s = HeapSnapshot.parseHeader("Heap after GC invocations=13 (full 3):");
+
+        assertFalse(s.isBefore());
+        assertEquals(13, s.getInvocations());
+    }
+
+    @Test
+    public void parseHeader_Invalid() throws Exception
+    {
+        assertNull(HeapSnapshot.parseHeader("Heap"));
+        assertNull(HeapSnapshot.parseHeader("{Heap before GC invocations=x (full 3):"));
+        assertNull(HeapSnapshot.parseHeader("{Heap before GC invocations=1"));
+    }
+
+    @Test
+    public void parallelScavenge() throws Exception
+    {
+        HeapSnapshot s = new HeapSnapshot(true, 1, 0);
+
+        assertTrue(s.parseLine(" PSYoungGen      total 76288K, used 65536K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)"));
+        assertTrue(s.parseLine("  eden space 65536K, 50% used [0x000000076ab00000,0x000000076eb00000,0x000000076eb00000)"));
+        assertTrue(s.parseLine("  from space 10752K, 0% used [0x000000076f580000,0x000000076f580000,0x0000000770000000)"));
+        assertTrue(s.parseLine("  to   space 10752K, 100% used [0x000000076eb00000,0x000000076eb00000,0x000000076f580000)"));
+        assertTrue(s.parseLine(" ParOldGen       total 175104K, used 1024K [0x00000006c0000000, 0x00000006cab00000, 0x000000076ab00000)"));
+        assertTrue(s.parseLine("  object space 175104K, 0% used [0x00000006c0000000,0x00000006c0000000,0x00000006cab00000)"));
+        assertTrue(s.parseLine(" PSPermGen       total 21504K, used 2668K [0x00000006bae00000, 0x00000006bc300000, 0x00000006c0000000)"));
+        assertTrue(s.parseLine("  object space 21504K, 12% used [0x00000006bae00000,0x00000006bd09b0d0,0x00000006bc300000)"));
+
+        assertEquals(76288L * 1024, s.getYoungCapacity());
+        assertEquals(65536L * 1024, s.getYoungUsed());
+        assertEquals(65536L * 1024, s.getEdenCapacity());
+        assertEquals(32768L * 1024, s.getEdenUsed());
+        assertEquals(10752L * 1024, s.getFromCapacity());
+        assertEquals(0L, s.getFromUsed());
+        assertEquals(10752L * 1024, s.getToCapacity());
+        assertEquals(10752L * 1024, s.getToUsed());
+        assertEquals(175104L * 1024, s.getOldCapacity());
+        assertEquals(1024L * 1024, s.getOldUsed());
+        assertEquals(21504L * 1024, s.getPermCapacity());
+        assertEquals(2668L * 1024, s.getPermUsed());
+        assertEquals((76288L + 175104L) * 1024, s.getHeapCapacity());
+        assertEquals((65536L + 1024L) * 1024, s.getHeapUsed());
+    }
+
+    @Test
+    public void cms() throws Exception
+    {
+        HeapSnapshot s = new HeapSnapshot(false, 1, 0);
+
+        assertTrue(s.parseLine(" par new generation   total 59008K, used 6528K [0x00000000bae00000, 0x00000000bee00000, 0x00000000bee00000)"));
+        assertTrue(s.parseLine(" concurrent mark-sweep generation total 1048576K, used 4096K [0x00000000bee00000, 0x00000000fae00000, 0x00000000fae00000)"));
+        assertTrue(s.parseLine(" concurrent-mark-sweep perm gen total 21248K, used 5321K [0x00000000fae00000, 0x00000000fc2c0000, 0x0000000100000000)"));
+
+        assertEquals(6528L * 1024, s.getYoungUsed());
+        assertEquals(1048576L * 1024, s.getOldCapacity());
+        assertEquals(4096L * 1024, s.getOldUsed());
+        assertEquals(21248L * 1024, s.getPermCapacity());
+        assertEquals(5321L * 1024, s.getPermUsed());
+        assertEquals(-1L, s.getEdenUsed());
+    }
+
+    @Test
+    public void serialWithMetaspace() throws Exception
+    {
+        HeapSnapshot s = new HeapSnapshot();
+
+        assertTrue(s.parseLine(" def new generation   total 4928K, used 1024K [0x00000000f0000000, 0x00000000f0550000, 0x00000000f5550000)"));
+        assertTrue(s.parseLine(" tenured generation   total 10944K, used 2048K [0x00000000f5550000, 0x00000000f6000000, 0x0000000100000000)"));
+        assertTrue(s.parseLine("   the space 10944K,  18% used [0x00000000f5550000, 0x00000000f5750000, 0x00000000f5750200, 0x00000000f6000000)"));
+        assertTrue(s.parseLine(" Metaspace       used 2994K, capacity 4486K, committed 4864K, reserved 1056768K"));
+        assertTrue(s.parseLine("  class space    used 327K, capacity 386K, committed 512K, reserved 1048576K"));
+
+        assertEquals(-1, s.getInvocations());
+        assertEquals(1024L * 1024, s.getYoungUsed());
+        assertEquals(2048L * 1024, s.getOldUsed());
+        assertEquals(4864L * 1024, s.getPermCapacity());
+        assertEquals(2994L * 1024, s.getPermUsed());
+    }
+
+    @Test
+    public void g1() throws Exception
+    {
+        HeapSnapshot s = new HeapSnapshot(true, 0, 0);
+
+        assertTrue(s.parseLine(" garbage-first heap   total 262144K, used 24576K [0x00000000f0000000, 0x0000000100000000, 0x0000000100000000)"));
+        assertTrue(s.parseLine("  region size 1024K, 20 young (20480K), 3 survivors (3072K)"));
+
+        assertEquals(262144L * 1024, s.getHeapCapacity());
+        assertEquals(24576L * 1024, s.getHeapUsed());
+        assertEquals(20480L * 1024, s.getYoungUsed());
+        assertEquals(3072L * 1024, s.getFromUsed());
+        assertEquals(17408L * 1024, s.getEdenUsed());
+        assertEquals(-1L, s.getOldUsed());
+    }
+
+    @Test
+    public void malformed() throws Exception
+    {
+        HeapSnapshot s = new HeapSnapshot();
+
+        assertFalse(s.parseLine(" PSYoungGen      total 76288K, used [0x000000076ab00000"));
+        assertFalse(s.parseLine("  eden space blah"));
+        assertFalse(s.parseLine("  region size 1024K, 20 young"));
+        assertTrue(s.parseLine(" PSOldGen        t"));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
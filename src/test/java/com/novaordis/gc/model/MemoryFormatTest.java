@@ -0,0 +1,466 @@
+package com.novaordis.gc.model;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Equivalence tests against DecimalFormat. The ranges are chosen so they cover complete rounding periods for each unit
+ * (1024 * 10 bytes for K with one fraction digit, etc.), so every remainder class, including all exact ties, is
+ * exercised.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MemoryFormatTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(MemoryFormatTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void invalidFractionDigits() throws Exception
+    {
+        try
+        {
+            new MemoryFormat(-1);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+
+        try
+        {
+            new MemoryFormat(MemoryFormat.MAX_FRACTION_DIGITS + 1);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void notAMemoryUnit() throws Exception
+    {
+        try
+        {
+            new MemoryFormat().format(1L, Unit.ms);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void simpleValues() throws Exception
+    {
+        MemoryFormat f = new MemoryFormat();
+
+        assertEquals(".0", f.format(0L, Unit.K));
+        assertEquals("1.0", f.format(1024L, Unit.K));
+        assertEquals(".5", f.format(512L, Unit.K));
+        assertEquals("-.0", f.format(-1L, Unit.K));
+        assertEquals("1023.9", f.format(1048524L, Unit.K));
+        assertEquals("1024.0", f.format(1048575L, Unit.K));
+        assertEquals("5.0", f.format(5L, Unit.b));
+        assertEquals("1.0", f.format(1024L * 1024 * 1024, Unit.G));
+    }
+
+    @Test
+    public void integerPathIsTaken() throws Exception
+    {
+        for(int digits = 0; digits <= MemoryFormat.MAX_FRACTION_DIGITS; digits ++)
+        {
+            MemoryFormat f = new MemoryFormat(digits);
+
+            for(Unit u: new Unit[] { Unit.b, Unit.K, Unit.M, Unit.G })
+            {
+                int shift = MemoryFormat.toShift(u);
+
+                assertTrue(digits + " digits, " + u, f.isExact(0L, shift));
+                assertTrue(digits + " digits, " + u, f.isExact(1L, shift));
+                assertTrue(digits + " digits, " + u, f.isExact(-1L, shift));
+
+                if (digits <= 4)
+                {
+                    // a 64 GB heap, rendered with at most 15 significant digits
+                    assertTrue(digits + " digits, " + u, f.isExact(64L * 1024 * 1024 * 1024, shift));
+                    assertTrue(digits + " digits, " + u, f.isExact(-64L * 1024 * 1024 * 1024, shift));
+                }
+
+                assertFalse(digits + " digits, " + u, f.isExact(Long.MAX_VALUE, shift));
+                assertFalse(digits + " digits, " + u, f.isExact(Long.MIN_VALUE + 1, shift));
+            }
+        }
+    }
+
+    @Test
+    public void bufferApi_Concurrent() throws Exception
+    {
+        final MemoryFormat f = new MemoryFormat(2);
+        final DecimalFormat reference = reference(2);
+        final String[] expected = new String[10000];
+
+        for(int i = 0; i < expected.length; i ++)
+        {
+            expected[i] = reference.format((double)(i * 1537L) / Unit.K.multiplier);
+        }
+
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        Thread[] threads = new Thread[4];
+
+        for(int t = 0; t < threads.length; t ++)
+        {
+            threads[t] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    char[] buffer = new char[MemoryFormat.MAX_LENGTH];
+
+                    for(int i = 0; i < expected.length; i ++)
+                    {
+                        String actual = new String(buffer, 0, f.format(i * 1537L, Unit.K, buffer, 0));
+
+                        if (!expected[i].equals(actual))
+                        {
+                            failures.add(i + ": expected " + expected[i] + " but got " + actual);
+                        }
+                    }
+                }
+            };
+
+            threads[t].start();
+        }
+
+        for(Thread t: threads)
+        {
+            t.join();
+        }
+
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void stringBufferApi_Concurrent() throws Exception
+    {
+        // the overrides share a per-thread scratch buffer across calls
+        final MemoryFormat f = new MemoryFormat(2);
+        final DecimalFormat reference = reference(2);
+        final String[] expected = new String[10000];
+
+        for(int i = 0; i < expected.length; i ++)
+        {
+            expected[i] = reference.format((double)(i * 1537L) / Unit.K.multiplier);
+        }
+
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        Thread[] threads = new Thread[4];
+
+        for(int t = 0; t < threads.length; t ++)
+        {
+            threads[t] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for(int i = 0; i < expected.length; i ++)
+                    {
+                        String actual = f.format((double)(i * 1537L) / Unit.K.multiplier);
+
+                        if (!expected[i].equals(actual))
+                        {
+                            failures.add(i + ": expected " + expected[i] + " but got " + actual);
+                        }
+                    }
+                }
+            };
+
+            threads[t].start();
+        }
+
+        for(Thread t: threads)
+        {
+            t.join();
+        }
+
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void configurationUsesMemoryFormat() throws Exception
+    {
+        assertTrue(com.novaordis.gc.cli.Configuration.MEMORY_FORMAT instanceof MemoryFormat);
+    }
+
+    @Test
+    public void exhaustive_Bytes() throws Exception
+    {
+        for(int digits = 0; digits <= 3; digits ++)
+        {
+            compareRange(digits, Unit.b, -100000L, 100000L);
+        }
+    }
+
+    @Test
+    public void exhaustive_K() throws Exception
+    {
+        // several complete periods, on both sides of zero
+        compareRange(1, Unit.K, -10L * 1024 * 8, 10L * 1024 * 32);
+
+        for(int digits = 0; digits <= 3; digits ++)
+        {
+            compareRange(digits, Unit.K, -20000L, 20000L);
+        }
+    }
+
+    @Test
+    public void exhaustive_M() throws Exception
+    {
+        // two complete rounding periods for one fraction digit
+        compareRange(1, Unit.M, 0L, 2L * 10 * 1024 * 1024);
+    }
+
+    @Test
+    public void ties_M_and_G() throws Exception
+    {
+        for(int digits = 0; digits <= 4; digits ++)
+        {
+            compareTies(digits, Unit.M, 10000);
+            compareTies(digits, Unit.G, 10000);
+        }
+    }
+
+    @Test
+    public void random() throws Exception
+    {
+        Random r = new Random(7L);
+
+        for(int digits = 0; digits <= MemoryFormat.MAX_FRACTION_DIGITS; digits ++)
+        {
+            DecimalFormat reference = reference(digits);
+            MemoryFormat f = new MemoryFormat(digits);
+
+            for(int i = 0; i < 20000; i ++)
+            {
+                // mostly realistic heap sizes, occasionally huge values that exercise the fallback
+                long bytes = (i % 100 == 0) ? r.nextLong() : (r.nextLong() % (1L << 45));
+
+                for(Unit u: new Unit[] { Unit.b, Unit.K, Unit.M, Unit.G })
+                {
+                    compare(reference, f, bytes, u);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void extremes() throws Exception
+    {
+        DecimalFormat reference = reference(1);
+        MemoryFormat f = new MemoryFormat();
+
+        long[] values = new long[] {
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1,
+            (1L << 53) - 1, 1L << 53, -(1L << 53), -(1L << 53) + 1, (1L << 53) + 1 };
+
+        for(long v: values)
+        {
+            for(Unit u: new Unit[] { Unit.b, Unit.K, Unit.M, Unit.G })
+            {
+                compare(reference, f, v, u);
+            }
+        }
+    }
+
+    @Test
+    public void doublePath_NonDyadicAndSpecialValues() throws Exception
+    {
+        DecimalFormat reference = reference(1);
+        MemoryFormat f = new MemoryFormat();
+
+        double[] values = new double[] {
+            0.0d, -0.0d, 0.05d, 0.15d, 0.25d, 1.25d, 999.95d, 0.95d, -0.04d, 1d/3, 1e20d, -1e20d,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE };
+
+        for(double d: values)
+        {
+            assertEquals("" + d, reference.format(d), f.format(d));
+        }
+    }
+
+    @Test
+    public void bufferApi_Offset() throws Exception
+    {
+        MemoryFormat f = new MemoryFormat();
+
+        char[] buffer = new char[3 + MemoryFormat.MAX_LENGTH];
+        buffer[0] = 'a';
+        buffer[1] = 'b';
+        buffer[2] = 'c';
+
+        int end = f.format(1536L, Unit.K, buffer, 3);
+
+        assertEquals(6, end);
+        assertEquals("abc1.5", new String(buffer, 0, end));
+    }
+
+    @Test
+    public void fieldPosition() throws Exception
+    {
+        DecimalFormat reference = reference(1);
+        MemoryFormat f = new MemoryFormat();
+
+        double[] values = new double[] { 0.0d, 0.5d, -0.5d, 12.25d, -1024.75d };
+
+        for(double d: values)
+        {
+            for(int field: new int[] { NumberFormat.INTEGER_FIELD, NumberFormat.FRACTION_FIELD })
+            {
+                FieldPosition expected = new FieldPosition(field);
+                FieldPosition actual = new FieldPosition(field);
+                StringBuffer expectedBuffer = reference.format(d, new StringBuffer("xx"), expected);
+                StringBuffer actualBuffer = f.format(d, new StringBuffer("xx"), actual);
+
+                assertEquals(expectedBuffer.toString(), actualBuffer.toString());
+                assertEquals(d + "/" + field, expected.getBeginIndex(), actual.getBeginIndex());
+                assertEquals(d + "/" + field, expected.getEndIndex(), actual.getEndIndex());
+            }
+        }
+    }
+
+    @Test
+    public void reconfiguredInstanceFallsBackToDecimalFormat() throws Exception
+    {
+        MemoryFormat f = new MemoryFormat();
+        f.setMinimumIntegerDigits(1);
+        f.setGroupingUsed(true);
+        f.setGroupingSize(3);
+
+        DecimalFormat reference = reference(1);
+        reference.setMinimumIntegerDigits(1);
+        reference.setGroupingUsed(true);
+        reference.setGroupingSize(3);
+
+        assertEquals(reference.format(0.5d), f.format(0.5d));
+        assertEquals(reference.format(123456.5d), f.format(123456.5d));
+    }
+
+    @Test
+    public void cloneDoesNotShareState() throws Exception
+    {
+        MemoryFormat f = new MemoryFormat();
+        MemoryFormat clone = (MemoryFormat)f.clone();
+
+        assertEquals("1.5", clone.format(1.5d));
+        assertEquals("2.5", f.format(2.5d));
+        assertEquals(1, clone.getFractionDigits());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static DecimalFormat reference(int digits)
+    {
+        StringBuilder pattern = new StringBuilder("#");
+
+        if (digits > 0)
+        {
+            pattern.append('.');
+        }
+
+        for(int i = 0; i < digits; i ++)
+        {
+            pattern.append('0');
+        }
+
+        return new DecimalFormat(pattern.toString());
+    }
+
+    private static void compareRange(int digits, Unit unit, long from, long to)
+    {
+        DecimalFormat reference = reference(digits);
+        MemoryFormat f = new MemoryFormat(digits);
+
+        for(long bytes = from; bytes <= to; bytes ++)
+        {
+            compare(reference, f, bytes, unit);
+        }
+    }
+
+    /**
+     * Values in the neighborhood of exact ties (bytes * 10^digits an odd multiple of half the unit).
+     */
+    private static void compareTies(int digits, Unit unit, int count)
+    {
+        DecimalFormat reference = reference(digits);
+        MemoryFormat f = new MemoryFormat(digits);
+
+        long half = unit.multiplier / 2;
+        long powerOfTen = 1;
+
+        for(int i = 0; i < digits; i ++)
+        {
+            powerOfTen *= 10;
+        }
+
+        for(long k = 0; k < count; k ++)
+        {
+            // the smallest byte count that lands at or right past the k-th tie
+            long tie = ((2 * k + 1) * half + powerOfTen - 1) / powerOfTen;
+
+            for(long bytes = tie - 2; bytes <= tie + 2; bytes ++)
+            {
+                compare(reference, f, bytes, unit);
+                compare(reference, f, -bytes, unit);
+            }
+        }
+    }
+
+    private static void compare(DecimalFormat reference, MemoryFormat f, long bytes, Unit unit)
+    {
+        double converted = (double)bytes / unit.multiplier;
+        String expected = reference.format(converted);
+
+        String actual = f.format(bytes, unit);
+
+        if (!expected.equals(actual))
+        {
+            fail(bytes + " bytes in " + unit + ": expected " + expected + " but got " + actual);
+        }
+
+        actual = f.format(converted);
+
+        if (!expected.equals(actual))
+        {
+            fail(converted + " (double): expected " + expected + " but got " + actual);
+        }
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
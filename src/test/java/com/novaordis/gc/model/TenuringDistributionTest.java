@@ -0,0 +1,82 @@
+package com.novaordis.gc.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TenuringDistributionTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parse() throws Exception
+    {
+        TenuringDistribution d = TenuringDistribution.parseHeader("Desired survivor size 3342336 bytes, new threshold 1 (max 6)");
+
+        assertEquals(3342336L, d.getDesiredSurvivorSize());
+        assertEquals(1, d.getThreshold());
+        assertEquals(6, d.getMaxThreshold());
+        assertEquals(0, d.getMaxAge());
+        assertEquals(0L, d.getTotal());
+        assertFalse(d.isOverflow());
+
+        assertTrue(d.parseAge("- age   1:    3048496 bytes,    3048496 total"));
+        assertTrue(d.parseAge("- age   2:     524288 bytes,    3572784 total"));
+
+        assertEquals(2, d.getMaxAge());
+        assertEquals(3048496L, d.getBytes(1));
+        assertEquals(524288L, d.getBytes(2));
+        assertEquals(0L, d.getBytes(3));
+        assertEquals(0L, d.getBytes(0));
+        assertEquals(3572784L, d.getTotal());
+        assertTrue(d.isOverflow());
+    }
+
+    @Test
+    public void parse_Malformed() throws Exception
+    {
+        assertNull(TenuringDistribution.parseHeader("Desired survivor size bytes, new threshold 1 (max 6)"));
+        assertNull(TenuringDistribution.parseHeader("Desired survivor size 3342336 bytes, new threshold 1"));
+        assertNull(TenuringDistribution.parseHeader("something else"));
+
+        TenuringDistribution d = new TenuringDistribution(100L, 1, 15);
+
+        assertFalse(d.parseAge("- age   1:"));
+        assertFalse(d.parseAge("- age :    3048496 bytes,    3048496 total"));
+        assertFalse(d.parseAge("something else"));
+        assertEquals(0, d.getMaxAge());
+    }
+
+    @Test
+    public void ageBeyondInitialCapacity() throws Exception
+    {
+        TenuringDistribution d = new TenuringDistribution(100L, 16, 16);
+
+        d.setBytes(16, 10L);
+        d.setBytes(1, 5L);
+
+        assertEquals(16, d.getMaxAge());
+        assertEquals(10L, d.getBytes(16));
+        assertEquals(15L, d.getTotal());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
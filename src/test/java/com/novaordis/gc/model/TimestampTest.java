@@ -830,6 +830,43 @@ public class TimestampTest
         assertEquals("1.001", ts.getOffsetLiteral());
     }
 
+    @Test
+    public void decoded() throws Exception
+    {
+        Timestamp ts = Timestamp.decoded("2026-10-01T12:00:00.123+0000", 1790856000123L, 12345L);
+
+        assertEquals(1790856000123L, ts.getTime().longValue());
+        assertEquals(12345L, ts.getOffset().longValue());
+        assertEquals("12.345", ts.getOffsetLiteral());
+        assertEquals("2026-10-01T12:00:00.123+0000", ts.getDateStampLiteral());
+        assertEquals("2026-10-01T12:00:00.123+0000 12.345", ts.getLiteral());
+        assertEquals(1790856000123L - 12345L, ts.getTimeOrigin().longValue());
+    }
+
+    @Test
+    public void decoded_OffsetOnly() throws Exception
+    {
+        Timestamp ts = Timestamp.decoded(null, null, 5L);
+
+        assertNull(ts.getTime());
+        assertEquals("0.005", ts.getLiteral());
+        assertEquals(1005L, ts.applyTimeOrigin(1000L).getTime().longValue());
+    }
+
+    @Test
+    public void decoded_NoTimeNoOffset() throws Exception
+    {
+        try
+        {
+            Timestamp.decoded(null, null, null);
+            fail("should have failed");
+        }
+        catch(IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
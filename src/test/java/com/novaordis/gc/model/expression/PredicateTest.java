@@ -0,0 +1,178 @@
+package com.novaordis.gc.model.expression;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.Unit;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Shutdown;
+import com.novaordis.gc.parser.BeforeAfterMax;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PredicateTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(PredicateTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void invalidExpressions() throws Exception
+    {
+        String[] invalid = new String[]
+            {
+                null, "", "  ", "duration", "duration>", ">500", "duration>>500", "duration>500 &&", "(duration>500",
+                "duration>500)", "duration>500 & og-after>0", "collection-type>full", "collection-type==blah",
+                "no-such-field>1", "duration>500 duration<600", "og-after>1X", "cause>Ergonomics", "cause=='System.gc()",
+                "duration=='500'", "cause==notes", "cause==System.gc()"
+            };
+
+        for(String s: invalid)
+        {
+            try
+            {
+                Predicate.parse(s);
+                fail("should have failed on \"" + s + "\"");
+            }
+            catch(UserErrorException e)
+            {
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void partialEvaluation_CollectionTypeAndDuration() throws Exception
+    {
+        Predicate p = Predicate.parse("duration>500 && collection-type==full");
+
+        assertEquals(Boolean.FALSE, p.evaluate(CollectionType.NEW_GENERATION_COLLECTION, null));
+        assertNull(p.evaluate(CollectionType.FULL_COLLECTION, null));
+        assertEquals(Boolean.FALSE, p.evaluate(CollectionType.FULL_COLLECTION, 500L));
+        assertEquals(Boolean.TRUE, p.evaluate(CollectionType.FULL_COLLECTION, 501L));
+
+        assertTrue(p.admits(CollectionType.FULL_COLLECTION));
+        assertFalse(p.admits(CollectionType.NEW_GENERATION_COLLECTION));
+        assertFalse(p.admits(CollectionType.SHUTDOWN));
+    }
+
+    @Test
+    public void partialEvaluation_UnknownFields() throws Exception
+    {
+        Predicate p = Predicate.parse("og-after>1G || collection-type!=ng");
+
+        assertEquals(Boolean.TRUE, p.evaluate(CollectionType.FULL_COLLECTION, null));
+        assertNull(p.evaluate(CollectionType.NEW_GENERATION_COLLECTION, 10L));
+        assertTrue(p.admits(CollectionType.NEW_GENERATION_COLLECTION));
+    }
+
+    @Test
+    public void partialEvaluation_Not() throws Exception
+    {
+        Predicate p = Predicate.parse("!(collection-type==ng || duration<100)");
+
+        assertEquals(Boolean.FALSE, p.evaluate(CollectionType.NEW_GENERATION_COLLECTION, null));
+        assertNull(p.evaluate(CollectionType.FULL_COLLECTION, null));
+        assertEquals(Boolean.FALSE, p.evaluate(CollectionType.FULL_COLLECTION, 99L));
+        assertEquals(Boolean.TRUE, p.evaluate(CollectionType.FULL_COLLECTION, 100L));
+    }
+
+    @Test
+    public void precedence() throws Exception
+    {
+        // && binds tighter than ||
+        Predicate p = Predicate.parse("collection-type==ng || collection-type==full && duration>1000");
+
+        assertEquals(Boolean.TRUE, p.evaluate(CollectionType.NEW_GENERATION_COLLECTION, 1L));
+        assertEquals(Boolean.FALSE, p.evaluate(CollectionType.FULL_COLLECTION, 1L));
+        assertEquals(Boolean.TRUE, p.evaluate(CollectionType.FULL_COLLECTION, 1001L));
+    }
+
+    @Test
+    public void completeEvaluation() throws Exception
+    {
+        GCEvent full = new FullCollection(
+            new Timestamp(1L), 700L, null, new BeforeAfterMax(1, 2, 8, Unit.G), null, null, false);
+        GCEvent ng = new NewGenerationCollection(new Timestamp(2L), 10L, null, null);
+
+        Predicate p = Predicate.parse("duration>500 && collection-type==full");
+        assertTrue(p.accepts(full));
+        assertFalse(p.accepts(ng));
+
+        p = Predicate.parse("og-after >= 2G");
+        assertTrue(p.accepts(full));
+
+        // ng does not have the field
+        assertFalse(p.accepts(ng));
+
+        p = Predicate.parse("og-after > 2.5G");
+        assertFalse(p.accepts(full));
+
+        p = Predicate.parse("og-after/og-capacity<0.3");
+        assertTrue(p.accepts(full));
+
+        p = Predicate.parse("duration=0.7s");
+        assertTrue(p.accepts(full));
+    }
+
+    @Test
+    public void shutdown() throws Exception
+    {
+        GCEvent shutdown = new Shutdown();
+
+        assertTrue(Predicate.parse("collection-type==shutdown").accepts(shutdown));
+        assertFalse(Predicate.parse("og-after>0").accepts(shutdown));
+        assertTrue(Predicate.parse("!(og-after>0)").accepts(shutdown));
+    }
+
+    @Test
+    public void cause() throws Exception
+    {
+        FullCollection system = new FullCollection(new Timestamp(1L), 700L, null, null, null, null, false);
+        system.setCause("System.gc()");
+        FullCollection ergonomics = new FullCollection(new Timestamp(2L), 800L, null, null, null, null, false);
+        ergonomics.setCause("Ergonomics");
+        GCEvent noCause = new NewGenerationCollection(new Timestamp(3L), 10L, null, null);
+
+        Predicate p = Predicate.parse("cause=='System.gc()'");
+        assertTrue(p.accepts(system));
+        assertFalse(p.accepts(ergonomics));
+        assertFalse(p.accepts(noCause));
+
+        // the cause is not known before the event is parsed
+        assertNull(p.evaluate(CollectionType.FULL_COLLECTION, 700L));
+        assertTrue(p.admits(CollectionType.FULL_COLLECTION));
+
+        p = Predicate.parse("cause!=Ergonomics && duration>=700");
+        assertTrue(p.accepts(system));
+        assertFalse(p.accepts(ergonomics));
+
+        p = Predicate.parse("\"Allocation Failure\"!=cause");
+        assertTrue(p.accepts(system));
+        assertTrue(p.accepts(noCause));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -1,16 +1,27 @@
 package com.novaordis.gc.parser;
 
+import com.novaordis.gc.mock.MockGCEvent;
+import com.novaordis.gc.mock.MockGCEventParserProvider;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Restart;
+import com.novaordis.gc.parser.linear.ContinuationRule;
 import com.novaordis.gc.parser.linear.LinearScanParser;
+import com.novaordis.gc.parser.linear.MultiRunParser;
 import com.novaordis.utilities.Files;
 import com.novaordis.utilities.testing.Tests;
 import org.junit.After;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -22,6 +33,15 @@ public class GCLogParserFactoryTest
 {
     // Constants -------------------------------------------------------------------------------------------------------
 
+    private static final String BANNER =
+        "Java HotSpot(TM) 64-Bit Server VM (25.40-b25) for linux-amd64 JRE (1.8.0_40-b25), built on Feb 10 2015\n" +
+        "Memory: 4k page, physical 16330000k(8044092k free), swap 0k(0k free)\n" +
+        "CommandLine flags: -XX:+PrintGC -XX:+PrintGCDetails " + MockGCEventParserProvider.FLAG + "\n";
+
+    private static final String NG =
+        ": [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] " +
+        "[Times: user=0.21 sys=0.09, real=0.05 secs] \n";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -34,6 +54,7 @@ public class GCLogParserFactoryTest
     public void scratchCleanup() throws Exception
     {
         Tests.cleanup();
+        MockGCEventParserProvider.reset();
     }
 
     @Test
@@ -49,12 +70,96 @@ public class GCLogParserFactoryTest
 
         LinearScanParser lsp = (LinearScanParser)p;
 
-        // verify the patterns
+        // verify the continuation rules
+
+        List<ContinuationRule> rules = lsp.getContinuationRules();
+        assertEquals(3, rules.size());
+
+        assertTrue(lsp.isContinuation(" (concurrent mode failure): 3667441K->779130K(3670016K), 6.2096720 secs] 4045730K->779130K(4141888K), [CMS Perm : 93567K->92821K(131072K)] icms_dc=100 , 6.6030840 secs] [Times: user=2.31 sys=0.23, real=6.61 secs]"));
+        assertTrue(lsp.isContinuation(": 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs] [Times: user=0.08 sys=0.01, real=0.02 secs]"));
+        assertTrue(lsp.isContinuation(" [PSYoungGen: 58943K->6528K(58944K)] 58943K->12345K(1042048K), 0.0235670 secs] [Times: user=0.08 sys=0.01, real=0.02 secs]"));
+        assertFalse(lsp.isContinuation("12.123: [GC [PSYoungGen: 58943K->6528K(58944K)] 58943K->12345K(1042048K), 0.0235670 secs]"));
+    }
+
+    @Test
+    public void providersAreDiscovered() throws Exception
+    {
+        List<GCEventParserProvider> providers = GCLogParserFactory.getProviders();
+
+        GCEventParserProvider mock = null;
+
+        for(GCEventParserProvider p: providers)
+        {
+            if (p instanceof MockGCEventParserProvider)
+            {
+                mock = p;
+            }
+        }
+
+        assertNotNull(mock);
+
+        // discovered once
+        assertTrue(providers == GCLogParserFactory.getProviders());
+
+        assertTrue(GCLogParserFactory.detectProviders(Arrays.asList(BANNER.split("\n"))).contains(mock));
+        assertFalse(GCLogParserFactory.detectProviders(Collections.<String>emptyList()).contains(mock));
+    }
+
+    @Test
+    public void providerNotDetected_ParserNotInstalled() throws Exception
+    {
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader("1.000: [Mock Stats a=1]\n2.000" + NG));
+
+        assertEquals(3, ((LinearScanParser)p).getContinuationRules().size());
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof NewGenerationCollection);
+        assertEquals(0, MockGCEventParserProvider.getInvocations());
+    }
+
+    @Test
+    public void providerDetected_OnlyClaimedFragmentsAreHandedOver() throws Exception
+    {
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader(
+            BANNER + "1.000: [Mock Stats a=1]\n" + "[Mock Stats continued b=2]\n" + "2.000" + NG + "3.000" + NG));
+
+        // the provider's continuation rule is installed
+        assertEquals(4, ((LinearScanParser)p).getContinuationRules().size());
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(3, events.size());
+
+        MockGCEvent e = (MockGCEvent)events.get(0);
+        assertEquals("[Mock Stats a=1][Mock Stats continued b=2]", e.getLine());
+        assertEquals(1000L, e.getTime().longValue());
+
+        assertTrue(events.get(1) instanceof NewGenerationCollection);
+        assertTrue(events.get(2) instanceof NewGenerationCollection);
+
+        // the new generation collections were not handed to the provided parser
+        assertEquals(1, MockGCEventParserProvider.getInvocations());
+    }
+
+    @Test
+    public void providerDetected_NotThreadSafe_OneParserPerRun() throws Exception
+    {
+        MockGCEventParserProvider.setThreadSafe(false);
+
+        File f = new File(Tests.getScratchDir(), "gc.log");
+        Files.write(f, BANNER + "1.000: [Mock Stats a=1]\n" + "2.000" + NG + BANNER + "1.000: [Mock Stats a=2]\n");
+
+        MultiRunParser p = (MultiRunParser)GCLogParserFactory.getParser(f);
+        p.setThreads(2);
 
-        List<Pattern> patterns = lsp.getSecondLinePatterns();
-        assertEquals(1, patterns.size());
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
 
-        assertTrue(lsp.isTheSecondLineOfTheEvent(" (concurrent mode failure): 3667441K->779130K(3670016K), 6.2096720 secs] 4045730K->779130K(4141888K), [CMS Perm : 93567K->92821K(131072K)] icms_dc=100 , 6.6030840 secs] [Times: user=2.31 sys=0.23, real=6.61 secs]"));
+        assertEquals(4, events.size());
+        assertEquals("[Mock Stats a=1]", ((MockGCEvent)events.get(0)).getLine());
+        assertTrue(events.get(2) instanceof Restart);
+        assertEquals("[Mock Stats a=2]", ((MockGCEvent)events.get(3)).getLine());
     }
 
     // Package protected -----------------------------------------------------------------------------------------------
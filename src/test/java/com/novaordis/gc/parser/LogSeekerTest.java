@@ -0,0 +1,216 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.utilities.Files;
+import com.novaordis.utilities.testing.Tests;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSeekerTest extends Assert
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LogSeekerTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * One NG collection per second, with a non-timestamped line every tenth event.
+     */
+    public static String generateLog(int events)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(int i = 0; i < events; i ++)
+        {
+            sb.append(Timestamp.longToOffsetLiteral(i * 1000L + 7)).
+                append(": [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] ").
+                append("[Times: user=0.21 sys=0.09, real=0.05 secs] \n");
+
+            if (i % 10 == 0)
+            {
+                sb.append("no timestamp here\n");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @After
+    public void scratchCleanup() throws Exception
+    {
+        Tests.cleanup();
+    }
+
+    @Test
+    public void noLowerBound() throws Exception
+    {
+        LogSeeker s = new LogSeeker(ByteBuffer.wrap(generateLog(100).getBytes()));
+
+        assertEquals(0L, s.seek(null, null));
+
+        TimeRange r = new TimeRange();
+        r.setToOffset(5000L);
+        assertEquals(0L, s.seek(r, null));
+    }
+
+    @Test
+    public void nextLineStart() throws Exception
+    {
+        LogSeeker s = new LogSeeker(ByteBuffer.wrap("abc\ndef\n\nx".getBytes()));
+
+        assertEquals(0L, s.nextLineStart(0L));
+        assertEquals(4L, s.nextLineStart(1L));
+        assertEquals(4L, s.nextLineStart(4L));
+        assertEquals(8L, s.nextLineStart(5L));
+        assertEquals(9L, s.nextLineStart(9L));
+        assertEquals(10L, s.nextLineStart(10L));
+    }
+
+    @Test
+    public void seek_Buffer() throws Exception
+    {
+        String content = generateLog(5000);
+        LogSeeker s = new LogSeeker(ByteBuffer.wrap(content.getBytes()));
+        s.setLinearScanThreshold(256);
+
+        for(long from: new long[] { 0L, 1L, 7L, 8L, 1234567L, 2500007L, 4999007L, 4999008L, 10000000L })
+        {
+            verifySeek(content, s, from);
+        }
+    }
+
+    @Test
+    public void seek_ChannelAndMappedFile() throws Exception
+    {
+        String content = generateLog(20000);
+
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, content);
+
+        RandomAccessFile raf = new RandomAccessFile(f, "r");
+
+        try
+        {
+            FileChannel channel = raf.getChannel();
+
+            LogSeeker channelSeeker = new LogSeeker(channel);
+            channelSeeker.setLinearScanThreshold(1024);
+
+            LogSeeker mappedSeeker = new LogSeeker(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            mappedSeeker.setLinearScanThreshold(1024);
+
+            for(long from: new long[] { 1L, 5000007L, 12345678L, 19999007L })
+            {
+                long p = verifySeek(content, channelSeeker, from);
+                assertEquals(p, verifySeek(content, mappedSeeker, from));
+            }
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void seek_AbsoluteTime_OffsetTimestamps_NoTimeOrigin() throws Exception
+    {
+        String content = generateLog(5000);
+        LogSeeker s = new LogSeeker(ByteBuffer.wrap(content.getBytes()));
+        s.setLinearScanThreshold(256);
+
+        TimeRange r = new TimeRange();
+        r.setFromTime(1000000L);
+
+        // we can't compare, so we don't seek
+        assertEquals(0L, s.seek(r, null));
+
+        // with a time origin we can
+        assertTrue(s.seek(r, 0L) > 0L);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Verifies that the position is a line start, no timestamp preceding it is in the range and that the linear scan
+     * that follows does not have to read more than a few lines before reaching the range.
+     *
+     * @return the position.
+     */
+    private static long verifySeek(String content, LogSeeker s, long fromOffset) throws Exception
+    {
+        TimeRange r = new TimeRange();
+        r.setFromOffset(fromOffset);
+
+        long p = s.seek(r, null);
+
+        assertTrue(p >= 0 && p <= content.length());
+        assertTrue(p == 0 || content.charAt((int)p - 1) == '\n');
+
+        // all timestamps before the position precede the range
+
+        String before = content.substring(0, (int)p);
+
+        for(String line: before.split("\n"))
+        {
+            Timestamp ts = Timestamp.find(line, 0, null);
+
+            if (ts != null)
+            {
+                assertTrue(ts.getOffset() < fromOffset);
+            }
+        }
+
+        // the distance to the first line in the range is small
+
+        int firstInRange = -1;
+        int lineStart = 0;
+
+        for(String line: content.split("\n"))
+        {
+            Timestamp ts = Timestamp.find(line, 0, null);
+
+            if (ts != null && ts.getOffset() >= fromOffset)
+            {
+                firstInRange = lineStart;
+                break;
+            }
+
+            lineStart += line.length() + 1;
+        }
+
+        if (firstInRange == -1)
+        {
+            firstInRange = content.length();
+        }
+
+        assertTrue(p <= firstInRange);
+        assertTrue("seeked to " + p + ", first in range " + firstInRange, firstInRange - p <= 2 * 1024 + 512);
+
+        return p;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,203 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.model.Timestamp;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class LogSegmenterTest extends Assert
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(LogSegmenterTest.class);
+
+    private static final String NG =
+        ": [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] " +
+        "[Times: user=0.21 sys=0.09, real=0.05 secs] \n";
+
+    private static final String BANNER =
+        "Java HotSpot(TM) 64-Bit Server VM (25.40-b25) for linux-amd64 JRE (1.8.0_40-b25), built on Feb 10 2015\n" +
+        "Memory: 4k page, physical 16330000k(8044092k free), swap 0k(0k free)\n" +
+        "CommandLine flags: -XX:+PrintGC -XX:+PrintGCDetails -XX:+PrintGCTimeStamps\n";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void singleRun() throws Exception
+    {
+        String content = BANNER + "1.000" + NG + "no timestamp here\n" + "2.000" + NG + "2.000" + NG + "3.000" + NG;
+
+        List<LogSegment> segments = split(content);
+
+        assertEquals(1, segments.size());
+
+        LogSegment s = segments.get(0);
+        assertEquals(0, s.getIndex());
+        assertNull(s.getBoundary());
+        assertEquals(0L, s.getStart());
+        assertEquals(content.length(), s.getEnd());
+        assertEquals(1L, s.getFirstLineNumber());
+        assertEquals(3000L, s.getLastOffset().longValue());
+        assertNull(s.getTimeOrigin());
+    }
+
+    @Test
+    public void emptyLog() throws Exception
+    {
+        List<LogSegment> segments = split("");
+
+        assertEquals(1, segments.size());
+        assertEquals(0L, segments.get(0).getEnd());
+        assertNull(segments.get(0).getLastOffset());
+    }
+
+    @Test
+    public void offsetReset() throws Exception
+    {
+        String first = "27035.100" + NG + "27036.837" + NG;
+        String content = first + "4.911" + NG + "5.000" + NG;
+
+        List<LogSegment> segments = split(content);
+
+        assertEquals(2, segments.size());
+
+        assertEquals(first.length(), segments.get(0).getEnd());
+        assertEquals(27036837L, segments.get(0).getLastOffset().longValue());
+
+        LogSegment s = segments.get(1);
+        assertEquals(1, s.getIndex());
+        assertEquals(LogSegment.OFFSET_RESET, s.getBoundary());
+        assertEquals(first.length(), s.getStart());
+        assertEquals(content.length(), s.getEnd());
+        assertEquals(3L, s.getFirstLineNumber());
+        assertEquals(5000L, s.getLastOffset().longValue());
+    }
+
+    @Test
+    public void banner() throws Exception
+    {
+        String first = BANNER + "1.000" + NG + "2.000" + NG;
+
+        // the second run logs later offsets than the first, only the banner tells the runs apart
+        String content = first + BANNER + "3.000" + NG;
+
+        List<LogSegment> segments = split(content);
+
+        assertEquals(2, segments.size());
+
+        LogSegment s = segments.get(1);
+        assertEquals(LogSegment.JVM_BANNER, s.getBoundary());
+        assertEquals(first.length(), s.getStart());
+        assertEquals(6L, s.getFirstLineNumber());
+    }
+
+    @Test
+    public void bannerAndOffsetReset_SingleBoundary() throws Exception
+    {
+        String content = "10.000" + NG + BANNER + "1.000" + NG;
+
+        List<LogSegment> segments = split(content);
+
+        assertEquals(2, segments.size());
+        assertEquals(LogSegment.JVM_BANNER, segments.get(1).getBoundary());
+        assertEquals(2L, segments.get(1).getFirstLineNumber());
+    }
+
+    @Test
+    public void dateStampDiscontinuity() throws Exception
+    {
+        String first =
+            "2014-08-14T01:00:01.000-0700: 1.000" + NG +
+            "2014-08-14T01:00:10.001-0700: 10.000" + NG;
+
+        // restarted an hour later, the first collection happens after a longer time than the previous run lasted
+        String content = first +
+            "2014-08-14T02:00:30.000-0700: 20.000" + NG +
+            "2014-08-14T02:00:40.000-0700: 30.000" + NG;
+
+        List<LogSegment> segments = split(content);
+
+        assertEquals(2, segments.size());
+
+        long origin = Timestamp.dateStampToTime("2014-08-14T01:00:00.000-0700", null);
+        assertEquals(origin, segments.get(0).getTimeOrigin().longValue());
+
+        LogSegment s = segments.get(1);
+        assertEquals(LogSegment.DATE_STAMP_DISCONTINUITY, s.getBoundary());
+        assertEquals(first.length(), s.getStart());
+        assertEquals(origin + 3600 * 1000L + 10 * 1000L, s.getTimeOrigin().longValue());
+    }
+
+    @Test
+    public void dateStampJitterIsNotARestart() throws Exception
+    {
+        String content =
+            "2014-08-14T01:00:01.000-0700: 1.000" + NG +
+            "2014-08-14T01:00:12.000-0700: 10.000" + NG;
+
+        assertEquals(1, split(content).size());
+    }
+
+    @Test
+    public void parseDateStamp() throws Exception
+    {
+        for(String s: new String[] {
+            "2014-08-14T01:12:28.621-0700: ", "2015-06-02T15:41:31.851+0200: ", "2016-02-29T23:59:59.999+0530: ",
+            "1999-12-31T00:00:00.000+0000: "})
+        {
+            long expected = Timestamp.dateStampToTime(s.substring(0, s.length() - 2), null);
+            assertEquals(s, expected, LogSegmenter.parseDateStamp(s.toCharArray(), s.length()));
+        }
+
+        String s = "2014-08-14T01:12:28.621X0700: ";
+        assertEquals(-1L, LogSegmenter.parseDateStamp(s.toCharArray(), s.length()));
+
+        s = "27036.837: [GC";
+        assertEquals(-1L, LogSegmenter.parseDateStamp(s.toCharArray(), s.length()));
+    }
+
+    @Test
+    public void parseOffset() throws Exception
+    {
+        char[] c = "27036.837: [GC".toCharArray();
+        assertEquals(27036837L, LogSegmenter.parseOffset(c, 0, c.length));
+
+        c = "27036.837:".toCharArray();
+        assertEquals(-1L, LogSegmenter.parseOffset(c, 0, c.length));
+
+        c = "27036.83: ".toCharArray();
+        assertEquals(-1L, LogSegmenter.parseOffset(c, 0, c.length));
+
+        c = ".837: ".toCharArray();
+        assertEquals(-1L, LogSegmenter.parseOffset(c, 0, c.length));
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static List<LogSegment> split(String content) throws Exception
+    {
+        List<LogSegment> segments = LogSegmenter.split(new ByteArrayInputStream(content.getBytes()));
+        log.debug(segments);
+        return segments;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
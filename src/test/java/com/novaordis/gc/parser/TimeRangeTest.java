@@ -0,0 +1,96 @@
+package com.novaordis.gc.parser;
+
+import com.novaordis.gc.model.Timestamp;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class TimeRangeTest extends Assert
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(TimeRangeTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void unbounded() throws Exception
+    {
+        TimeRange r = new TimeRange();
+
+        assertFalse(r.hasLowerBound());
+        assertFalse(r.hasUpperBound());
+        assertEquals(TimeRange.WITHIN, r.position(new Timestamp(10L), null));
+        assertEquals(TimeRange.WITHIN, r.position(null, null));
+    }
+
+    @Test
+    public void offsets() throws Exception
+    {
+        TimeRange r = new TimeRange();
+        r.setFromOffset(1000L);
+        r.setToOffset(2000L);
+
+        assertEquals(TimeRange.BEFORE, r.position(new Timestamp(999L), null));
+        assertEquals(TimeRange.WITHIN, r.position(new Timestamp(1000L), null));
+        assertEquals(TimeRange.WITHIN, r.position(new Timestamp(2000L), null));
+        assertEquals(TimeRange.AFTER, r.position(new Timestamp(2001L), null));
+    }
+
+    @Test
+    public void absoluteTimes_OffsetTimestampsAndTimeOrigin() throws Exception
+    {
+        TimeRange r = new TimeRange();
+        r.setFromTime(11000L);
+        r.setToTime(12000L);
+
+        assertEquals(TimeRange.BEFORE, r.position(new Timestamp(999L), 10000L));
+        assertEquals(TimeRange.WITHIN, r.position(new Timestamp(1500L), 10000L));
+        assertEquals(TimeRange.AFTER, r.position(new Timestamp(2001L), 10000L));
+    }
+
+    @Test
+    public void absoluteTimes_NoTimeOrigin_CannotCompare() throws Exception
+    {
+        TimeRange r = new TimeRange();
+        r.setFromTime(11000L);
+
+        assertEquals(TimeRange.WITHIN, r.position(new Timestamp(1L), null));
+    }
+
+    @Test
+    public void settersReplaceTheOtherKind() throws Exception
+    {
+        TimeRange r = new TimeRange();
+        r.setFromTime(1L);
+        r.setFromOffset(2L);
+
+        assertNull(r.getFromTime());
+        assertEquals(2L, r.getFromOffset().longValue());
+
+        r.setToOffset(3L);
+        r.setToTime(4L);
+
+        assertNull(r.getToOffset());
+        assertEquals(4L, r.getToTime().longValue());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
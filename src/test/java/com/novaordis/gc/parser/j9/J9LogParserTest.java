@@ -0,0 +1,207 @@
+package com.novaordis.gc.parser.j9;
+
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.j9.J9Collection;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class J9LogParserTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long M = 1024L * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseMicros() throws Exception
+    {
+        assertEquals(10345L, J9LogParser.parseMicros("10.345"));
+        assertEquals(10345L, J9LogParser.parseMicros("10.3456"));
+        assertEquals(30000L, J9LogParser.parseMicros("30"));
+        assertEquals(500L, J9LogParser.parseMicros("0.5"));
+        assertEquals(-1L, J9LogParser.parseMicros("1.2.3"));
+        assertEquals(-1L, J9LogParser.parseMicros(""));
+        assertEquals(-1L, J9LogParser.parseMicros(null));
+    }
+
+    @Test
+    public void parseLong() throws Exception
+    {
+        assertEquals(536870912L, J9LogParser.parseLong("536870912"));
+        assertEquals(-1L, J9LogParser.parseLong("0x20000000"));
+        assertEquals(-1L, J9LogParser.parseLong(null));
+    }
+
+    @Test
+    public void isJ9Log() throws Exception
+    {
+        assertTrue(J9LogParser.isJ9Log(Arrays.asList("", "<?xml version=\"1.0\" ?>")));
+        assertTrue(J9LogParser.isJ9Log(Arrays.asList("<verbosegc xmlns=\"http://www.ibm.com/j9/verbosegc\">")));
+        assertTrue(J9LogParser.isJ9Log(Arrays.asList("\uFEFF<?xml version=\"1.0\" ?>")));
+        assertFalse(J9LogParser.isJ9Log(Arrays.asList("1.000: [GC 1K->1K(2K), 0.001 secs]")));
+        assertFalse(J9LogParser.isJ9Log(Arrays.<String>asList()));
+    }
+
+    @Test
+    public void gencon() throws Exception
+    {
+        List<GCEvent> events = parse(new TimeOrigin());
+
+        // the log ends while the JVM is still writing it
+        assertEquals(3, events.size());
+
+        long start = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").parse("2020-03-05T11:47:10.505").getTime();
+
+        NewGenerationCollection ng = (NewGenerationCollection)events.get(0);
+        assertEquals(start + 1612L, ng.getTime().longValue());
+        assertEquals(1612L, ng.getOffset().longValue());
+        assertEquals(11L, ng.getDuration());
+        assertEquals(GCCause.ALLOCATION_FAILURE, ng.getCause());
+        assertEquals(128L * M, ng.get(FieldType.NG_BEFORE).getValue());
+        assertEquals(128L * M - 94371840L, ng.get(FieldType.NG_AFTER).getValue());
+        assertEquals(128L * M, ng.get(FieldType.NG_CAPACITY).getValue());
+        assertEquals(128L * M, ng.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(512L * M - 497025024L, ng.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(512L * M, ng.get(FieldType.HEAP_CAPACITY).getValue());
+        assertEquals(30L, ng.get(FieldType.USER_TIME).getValue());
+        assertEquals(4L, ng.get(FieldType.SYS_TIME).getValue());
+        assertEquals(11L, ng.get(FieldType.REAL_TIME).getValue());
+        assertEquals("gencon", ((J9Collection)ng).getGcPolicy());
+
+        FullCollection fc = (FullCollection)events.get(1);
+        assertEquals(4495L, fc.getOffset().longValue());
+        assertEquals(23L, fc.getDuration());
+        assertTrue(fc.isSystem());
+        assertEquals(GCCause.SYSTEM_GC, fc.getCause());
+        assertEquals(0L, fc.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(384L * M - 390070272L, fc.get(FieldType.OG_AFTER).getValue());
+        assertEquals(384L * M, fc.get(FieldType.OG_CAPACITY).getValue());
+        assertEquals(0L, fc.get(FieldType.NG_AFTER).getValue());
+        assertEquals("gencon", ((J9Collection)fc).getGcPolicy());
+
+        // the scavenge was not triggered by an allocation failure
+        ng = (NewGenerationCollection)events.get(2);
+        assertEquals(6L, ng.getDuration());
+        assertNull(ng.getCause());
+    }
+
+    @Test
+    public void timeOriginSpecified() throws Exception
+    {
+        List<GCEvent> events = parse(new TimeOrigin(0L));
+
+        // the initialization timestamp does not override the time origin
+        GCEvent e = events.get(0);
+        assertEquals(e.getTime(), e.getOffset());
+    }
+
+    @Test
+    public void filterAndTimeRange() throws Exception
+    {
+        InputStream is = J9LogParserTest.class.getClassLoader().getResourceAsStream("collected/gencon-openj9.log");
+        J9LogParser p = (J9LogParser)GCLogParserFactory.getParser(new InputStreamReader(is));
+
+        TimeRange r = new TimeRange();
+        r.setToOffset(5000L);
+        p.setTimeRange(r);
+        p.setFilter(Predicate.parse("collection-type==ng"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin());
+
+        assertEquals(1, events.size());
+        assertEquals(1612L, events.get(0).getOffset().longValue());
+    }
+
+    @Test
+    public void gcOperationsOnly() throws Exception
+    {
+        String s =
+            "<verbosegc>\n" +
+            "<cycle-start id=\"4\" type=\"scavenge\" contextid=\"0\" timestamp=\"2020-03-05T11:47:12.117\" />\n" +
+            "<gc-op id=\"7\" type=\"scavenge\" timems=\"10.345\" contextid=\"4\" timestamp=\"2020-03-05T11:47:12.128\" />\n" +
+            "<cycle-end id=\"10\" type=\"scavenge\" contextid=\"4\" timestamp=\"2020-03-05T11:47:12.128\" />\n" +
+            "<cycle-start id=\"11\" type=\"partial gc\" contextid=\"0\" timestamp=\"2020-03-05T11:47:13.000\" />\n" +
+            "<gc-op id=\"12\" type=\"copy forward\" timems=\"1.000\" contextid=\"11\" timestamp=\"2020-03-05T11:47:13.001\" />\n" +
+            "<cycle-end id=\"13\" type=\"partial gc\" contextid=\"11\" timestamp=\"2020-03-05T11:47:13.001\" />\n" +
+            "</verbosegc>\n";
+
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader(s));
+        assertTrue(p instanceof J9LogParser);
+
+        List<GCEvent> events = p.parse(new TimeOrigin());
+
+        // the balanced policy cycles are not recorded
+        assertEquals(1, events.size());
+
+        NewGenerationCollection ng = (NewGenerationCollection)events.get(0);
+        assertEquals(10L, ng.getDuration());
+
+        // no initialization, the offsets are relative to the first collection
+        assertEquals(0L, ng.getOffset().longValue());
+        assertNull(ng.get(FieldType.NG_BEFORE));
+    }
+
+    @Test
+    public void notWellFormed() throws Exception
+    {
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader("<?xml version=\"1.0\" ?>\n<<verbosegc>\n"));
+
+        try
+        {
+            p.parse(new TimeOrigin());
+            fail("should have failed");
+        }
+        catch(ParserException e)
+        {
+            assertEquals(2L, e.getLineNumber());
+        }
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static List<GCEvent> parse(TimeOrigin timeOrigin) throws Exception
+    {
+        InputStream is = J9LogParserTest.class.getClassLoader().getResourceAsStream("collected/gencon-openj9.log");
+        assertNotNull(is);
+
+        GCLogParser p = GCLogParserFactory.getParser(new InputStreamReader(is));
+        assertTrue(p instanceof J9LogParser);
+
+        return p.parse(timeOrigin);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
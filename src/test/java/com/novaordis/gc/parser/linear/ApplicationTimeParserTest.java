@@ -0,0 +1,152 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.ApplicationConcurrentTime;
+import com.novaordis.gc.model.event.ApplicationStoppedTime;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.DiscardedEvent;
+import com.novaordis.gc.parser.ParserException;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ApplicationTimeParserTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(ApplicationTimeParserTest.class);
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void notASafepointRecord() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+
+        assertNull(p.parse(new Timestamp(1000L),
+            "[GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs]", 1L, null));
+    }
+
+    @Test
+    public void stopped() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+
+        GCEvent e = p.parse(new Timestamp(2010L),
+            "Total time for which application threads were stopped: 0.0102345 seconds", 1L, null);
+
+        ApplicationStoppedTime ast = (ApplicationStoppedTime)e;
+
+        assertEquals(CollectionType.APPLICATION_STOPPED, ast.getCollectionType());
+        assertEquals(2010L, ast.getOffset().longValue());
+        assertEquals(10235L, ast.getStoppedMicroseconds());
+        assertEquals(10L, ast.getDuration());
+        assertEquals(-1L, ast.getTimeToSafepointMicroseconds());
+        assertEquals(10.235d, (Double)ast.get(FieldType.STOPPED_TIME).getValue(), 0.0001d);
+        assertNull(ast.get(FieldType.TIME_TO_SAFEPOINT));
+    }
+
+    @Test
+    public void stopped_TimeToSafepoint() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+
+        GCEvent e = p.parse(new Timestamp(1053L),
+            "Total time for which application threads were stopped: 0.0523450 seconds, Stopping threads took: 0.0001230 seconds",
+            1L, null);
+
+        ApplicationStoppedTime ast = (ApplicationStoppedTime)e;
+
+        assertEquals(52345L, ast.getStoppedMicroseconds());
+        assertEquals(52L, ast.getDuration());
+        assertEquals(123L, ast.getTimeToSafepointMicroseconds());
+        assertEquals(0.123d, (Double)ast.get(FieldType.TIME_TO_SAFEPOINT).getValue(), 0.0001d);
+    }
+
+    @Test
+    public void concurrent() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+
+        GCEvent e = p.parse(new Timestamp(2000L), "Application time: 0.9470000 seconds", 1L, null);
+
+        ApplicationConcurrentTime act = (ApplicationConcurrentTime)e;
+
+        assertEquals(CollectionType.APPLICATION_CONCURRENT, act.getCollectionType());
+        assertEquals(947000L, act.getApplicationMicroseconds());
+        assertEquals(0L, act.getDuration());
+        assertEquals(947d, (Double)act.get(FieldType.APPLICATION_TIME).getValue(), 0.0001d);
+    }
+
+    @Test
+    public void noTimestamp() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+
+        try
+        {
+            p.parse(null, "Application time: 0.9470000 seconds", 7L, null);
+            fail("should have failed");
+        }
+        catch(ParserException e)
+        {
+            log.info(e.getMessage());
+            assertEquals(7L, e.getLineNumber());
+        }
+    }
+
+    @Test
+    public void invalidTime() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+
+        try
+        {
+            p.parse(new Timestamp(1000L), "Total time for which application threads were stopped: seconds", 7L, null);
+            fail("should have failed");
+        }
+        catch(ParserException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void filter() throws Exception
+    {
+        ApplicationTimeParser p = new ApplicationTimeParser();
+        p.setFilter(Predicate.parse("duration>20"));
+
+        assertEquals(DiscardedEvent.INSTANCE, p.parse(new Timestamp(2010L),
+            "Total time for which application threads were stopped: 0.0102345 seconds", 1L, null));
+
+        assertNotNull(p.parse(new Timestamp(1053L),
+            "Total time for which application threads were stopped: 0.0523450 seconds", 1L, null));
+
+        p.setFilter(Predicate.parse("collection-type==full"));
+
+        assertEquals(DiscardedEvent.INSTANCE, p.parse(new Timestamp(2000L), "Application time: 0.9470000 seconds", 1L, null));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
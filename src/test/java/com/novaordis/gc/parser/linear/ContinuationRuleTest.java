@@ -0,0 +1,73 @@
+package com.novaordis.gc.parser.linear;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the ContinuationRule implementations.
+ *
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class ContinuationRuleTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void prefix() throws Exception
+    {
+        ContinuationRule r = new PrefixContinuationRule("[PSYoungGen: ");
+
+        assertTrue(r.continues("[PSYoungGen: 58943K->6528K(58944K)]"));
+        assertTrue(r.continues(" \t[PSYoungGen: 58943K->6528K(58944K)]"));
+        assertFalse(r.continues("12.123: [GC [PSYoungGen: 58943K->6528K(58944K)]"));
+        assertFalse(r.continues(" [PSYoungGen:58943K"));
+        assertFalse(r.continues(""));
+        assertFalse(r.continues("   "));
+    }
+
+    @Test
+    public void prefix_Invalid() throws Exception
+    {
+        try
+        {
+            new PrefixContinuationRule("");
+            fail("should throw IllegalArgumentException");
+        }
+        catch(IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void transition() throws Exception
+    {
+        ContinuationRule r = new TransitionContinuationRule();
+
+        assertTrue(r.continues(": 58943K->6528K(58944K), 0.0234560 secs]"));
+        assertTrue(r.continues(":58943K->6528K(58944K), 0.0234560 secs]"));
+        assertFalse(r.continues(": K->6528K(58944K)"));
+        assertFalse(r.continues(": 58943M->6528M(58944M)"));
+        assertFalse(r.continues(" : 58943K->6528K(58944K)"));
+        assertFalse(r.continues(":"));
+        assertFalse(r.continues(""));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
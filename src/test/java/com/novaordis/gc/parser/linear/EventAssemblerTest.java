@@ -0,0 +1,303 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.HeapSnapshot;
+import com.novaordis.gc.model.TenuringDistribution;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class EventAssemblerTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final String HEAP_AT_GC_LOG =
+        "{Heap before GC invocations=1 (full 0):\n" +
+        " PSYoungGen      total 76288K, used 65536K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+        "  eden space 65536K, 100% used [0x000000076ab00000,0x000000076eb00000,0x000000076eb00000)\n" +
+        " ParOldGen       total 175104K, used 0K [0x00000006c0000000, 0x00000006cab00000, 0x000000076ab00000)\n" +
+        " PSPermGen       total 21504K, used 2668K [0x00000006bae00000, 0x00000006bc300000, 0x00000006c0000000)\n" +
+        "2.345: [GC [PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K), 0.0123450 secs]\n" +
+        "Heap after GC invocations=1 (full 0):\n" +
+        " PSYoungGen      total 76288K, used 10720K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+        "  eden space 65536K, 0% used [0x000000076ab00000,0x000000076ab00000,0x000000076eb00000)\n" +
+        "  from space 10752K, 100% used [0x000000076eb00000,0x000000076f578020,0x000000076f580000)\n" +
+        " ParOldGen       total 175104K, used 8K [0x00000006c0000000, 0x00000006c0002000, 0x000000076ab00000)\n" +
+        " PSPermGen       total 21504K, used 2668K [0x00000006bae00000, 0x00000006bc300000, 0x00000006c0000000)\n" +
+        "}\n" +
+        "{Heap before GC invocations=2 (full 0):\n" +
+        " PSYoungGen      total 76288K, used 76256K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+        " ParOldGen       total 175104K, used 8K [0x00000006c0000000, 0x00000006c0002000, 0x000000076ab00000)\n" +
+        "3.000: [GC [PSYoungGen: 76256K->10720K(76288K)] 76264K->20000K(251392K), 0.0200000 secs]\n";
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void isHeapHeader() throws Exception
+    {
+        assertTrue(EventAssembler.isHeapHeader("Heap"));
+        assertTrue(EventAssembler.isHeapHeader("Heap  "));
+        assertFalse(EventAssembler.isHeapHeader(" Heap"));
+        assertFalse(EventAssembler.isHeapHeader("Heap after GC invocations=2 (full 0):"));
+        assertFalse(EventAssembler.isHeapHeader(""));
+    }
+
+    @Test
+    public void singleLineRecords() throws Exception
+    {
+        EventAssembler a = assembler("a\nb\n\nc");
+
+        assertTrue(a.next());
+        assertEquals("a", a.getText());
+        assertEquals(1L, a.getLineNumber());
+        assertNull(a.getTenuringDistribution());
+        assertTrue(a.getG1Block().isEmpty());
+        assertEquals(0, a.getDetailCount());
+
+        assertTrue(a.next());
+        assertEquals("b", a.getText());
+        assertEquals(2L, a.getLineNumber());
+
+        assertTrue(a.next());
+        assertEquals("", a.getText());
+        assertEquals(3L, a.getLineNumber());
+
+        assertTrue(a.next());
+        assertEquals("c", a.getText());
+        assertEquals(4L, a.getLineNumber());
+
+        assertFalse(a.next());
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void emptyInput() throws Exception
+    {
+        assertFalse(assembler("").next());
+    }
+
+    @Test
+    public void unboundedContinuation() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("a\n");
+        StringBuilder expected = new StringBuilder("a");
+
+        for(int i = 0; i < 1000; i ++)
+        {
+            sb.append(" (concurrent mode failure)").append(i).append('\n');
+            expected.append(" (concurrent mode failure)").append(i);
+        }
+
+        sb.append("b\n");
+
+        EventAssembler a = assembler(sb.toString(), new PrefixContinuationRule("(concurrent mode failure)"));
+
+        assertTrue(a.next());
+        assertEquals(expected.toString(), a.getText());
+        assertEquals(1L, a.getLineNumber());
+
+        assertTrue(a.next());
+        assertEquals("b", a.getText());
+        assertEquals(1002L, a.getLineNumber());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void tenuringDistribution() throws Exception
+    {
+        EventAssembler a = assembler(
+            "10.123: [GC 10.123: [ParNew\n" +
+            "Desired survivor size 3342336 bytes, new threshold 6 (max 6)\n" +
+            "- age   1:    1048496 bytes,    1048496 total\n" +
+            ": 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs]\n" +
+            "11.000: [GC 11.000: [ParNew: 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs]\n",
+            new TransitionContinuationRule());
+
+        assertTrue(a.next());
+        assertEquals("10.123: [GC 10.123: [ParNew: 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs]",
+            a.getText());
+
+        TenuringDistribution d = a.getTenuringDistribution();
+        assertNotNull(d);
+        assertEquals(3342336L, d.getDesiredSurvivorSize());
+
+        assertTrue(a.next());
+        assertEquals(5L, a.getLineNumber());
+        assertNull(a.getTenuringDistribution());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void g1Block() throws Exception
+    {
+        EventAssembler a = assembler(
+            "1.000: [GC pause (G1 Evacuation Pause) (young), 0.0100000 secs]\n" +
+            "   [Parallel Time: 9.5 ms, GC Workers: 4]\n" +
+            "   [Eden: 24.0M(24.0M)->0.0B(20.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->4096.0K(256.0M)]\n" +
+            "2.000: [GC pause (G1 Evacuation Pause) (young), 0.0100000 secs]\n");
+
+        assertTrue(a.next());
+        assertFalse(a.getG1Block().isEmpty());
+
+        assertTrue(a.next());
+        assertEquals(4L, a.getLineNumber());
+        assertTrue(a.getG1Block().isEmpty());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void heapSummary() throws Exception
+    {
+        EventAssembler a = assembler(
+            "5.585: [GC [PSYoungGen: 660620K->72778K(1835008K)] 660620K->72778K(6029312K), 0.0751010 secs]\n" +
+            "Heap\n" +
+            " PSYoungGen      total 76288K, used 1966K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+            "  eden space 65536K, 3% used [0x000000076ab00000,0x000000076aceb9e0,0x000000076eb00000)\n" +
+            " Metaspace       used 2994K, capacity 4486K, committed 4864K, reserved 1056768K\n" +
+            "6.000: something else\n");
+
+        assertTrue(a.next());
+        assertEquals(0, a.getDetailCount());
+
+        assertTrue(a.next());
+        assertEquals("Heap", a.getText());
+        assertEquals(2L, a.getLineNumber());
+        assertEquals(3, a.getDetailCount());
+        assertEquals("  eden space 65536K, 3% used [0x000000076ab00000,0x000000076aceb9e0,0x000000076eb00000)", a.getDetail(1));
+        assertEquals(3L, a.getDetailLineNumber(0));
+        assertEquals(5L, a.getDetailLineNumber(2));
+
+        assertTrue(a.next());
+        assertEquals("6.000: something else", a.getText());
+        assertEquals(0, a.getDetailCount());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void indentedLinesAreNotDetailsOutsideTheHeapSummary() throws Exception
+    {
+        EventAssembler a = assembler("a\n PSYoungGen      total 76288K, used 1966K\n");
+
+        assertTrue(a.next());
+        assertEquals(0, a.getDetailCount());
+
+        assertTrue(a.next());
+        assertEquals(" PSYoungGen      total 76288K, used 1966K", a.getText());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void restartInTheMiddleOfARecord() throws Exception
+    {
+        // the reader is positioned after the first line of a record, as it would be after seeking
+
+        EventAssembler a = assembler(
+            " (concurrent mode failure): 3667441K->779130K(3670016K), 6.2096720 secs]\n" +
+            "- age   1:    1048496 bytes,    1048496 total\n" +
+            "   [Parallel Time: 9.5 ms, GC Workers: 4]\n" +
+            "7.000: a\n" +
+            " (concurrent mode failure) b\n",
+            new PrefixContinuationRule("(concurrent mode failure)"));
+
+        assertTrue(a.next());
+        assertEquals("7.000: a (concurrent mode failure) b", a.getText());
+        assertEquals(4L, a.getLineNumber());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void heapAtGC() throws Exception
+    {
+        EventAssembler a = assembler(HEAP_AT_GC_LOG);
+
+        assertTrue(a.next());
+        assertEquals("2.345: [GC [PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K), 0.0123450 secs]", a.getText());
+        assertEquals(6L, a.getLineNumber());
+        assertEquals(0, a.getDetailCount());
+
+        HeapSnapshot before = a.getHeapBefore();
+        assertTrue(before.isBefore());
+        assertEquals(1, before.getInvocations());
+        assertEquals(65536L * 1024, before.getYoungUsed());
+        assertEquals(0L, before.getOldUsed());
+
+        HeapSnapshot after = a.getHeapAfter();
+        assertFalse(after.isBefore());
+        assertEquals(10720L * 1024, after.getYoungUsed());
+        assertEquals(10752L * 1024, after.getFromUsed());
+        assertEquals(8L * 1024, after.getOldUsed());
+
+        assertTrue(a.next());
+        assertEquals("3.000: [GC [PSYoungGen: 76256K->10720K(76288K)] 76264K->20000K(251392K), 0.0200000 secs]", a.getText());
+        assertEquals(17L, a.getLineNumber());
+        assertEquals(2, a.getHeapBefore().getInvocations());
+        assertNull(a.getHeapAfter());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void heapAtGC_Skipped() throws Exception
+    {
+        EventAssembler a = assembler(HEAP_AT_GC_LOG);
+        a.setDecodeHeapAtGC(false);
+
+        assertTrue(a.next());
+        assertEquals("2.345: [GC [PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K), 0.0123450 secs]", a.getText());
+        assertNull(a.getHeapBefore());
+        assertNull(a.getHeapAfter());
+
+        assertTrue(a.next());
+        assertEquals(17L, a.getLineNumber());
+        assertNull(a.getHeapBefore());
+
+        assertFalse(a.next());
+    }
+
+    @Test
+    public void heapAtGC_RestartAfterTheCollection() throws Exception
+    {
+        EventAssembler a = assembler(HEAP_AT_GC_LOG.substring(HEAP_AT_GC_LOG.indexOf("Heap after")));
+
+        assertTrue(a.next());
+        assertEquals("3.000: [GC [PSYoungGen: 76256K->10720K(76288K)] 76264K->20000K(251392K), 0.0200000 secs]", a.getText());
+        assertEquals(11L, a.getLineNumber());
+
+        assertFalse(a.next());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static EventAssembler assembler(String content, ContinuationRule... rules)
+    {
+        List<ContinuationRule> l = new ArrayList<ContinuationRule>(Arrays.asList(rules));
+        return new EventAssembler(new BufferedReader(new StringReader(content)), l);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
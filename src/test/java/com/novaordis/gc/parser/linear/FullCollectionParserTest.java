@@ -1,9 +1,12 @@
 package com.novaordis.gc.parser.linear;
 
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.GCCause;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.event.FullCollection;
 import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.DiscardedEvent;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -214,8 +217,7 @@ public class FullCollectionParserTest extends Assert
 
         FullCollection e = (FullCollection)p.parse(ts, line, -1, null);
 
-        // for the time being, the parser simply ignores
-        // [CMS-concurrent-mark: 5.274/5.371 secs] [Times: user=12.80 sys=0.36, real=5.37 secs] (concurrent mode failure): 11628290K->11661304K(11666432K), 23.5081640 secs]
+        // the end of the concurrent mark interleaved in the CMS segment is ignored
 
         assertNotNull(e);
 
@@ -226,9 +228,9 @@ public class FullCollectionParserTest extends Assert
         assertNull(e.get(FieldType.NG_AFTER));
         assertNull(e.get(FieldType.NG_CAPACITY));
 
-        assertNull(e.get(FieldType.OG_BEFORE));
-        assertNull(e.get(FieldType.OG_AFTER));
-        assertNull(e.get(FieldType.OG_CAPACITY));
+        assertEquals(11628290L * 1024, e.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(11661304L * 1024, e.get(FieldType.OG_AFTER).getValue());
+        assertEquals(11666432L * 1024, e.get(FieldType.OG_CAPACITY).getValue());
 
         assertEquals(117651L * 1024, e.get(FieldType.PG_BEFORE).getValue());
         assertEquals(117651L * 1024, e.get(FieldType.PG_AFTER).getValue());
@@ -241,6 +243,241 @@ public class FullCollectionParserTest extends Assert
         assertEquals(23509, e.getDuration());
 
         assertFalse(e.isSystem());
+        assertEquals(FullCollection.CONCURRENT_MODE_FAILURE, e.get(FieldType.NOTES).getValue());
+    }
+
+    @Test
+    public void concurrentModeFailure_InterruptedCMSSegment() throws Exception
+    {
+        // the remainder of a "ParNew (promotion failed)" collection, after the read-ahead merged the two lines
+
+        String line = "[CMS598318.636: [CMS-concurrent-sweep: 30.176/31.191 secs] [Times: user=47.43 sys=3.72, real=31.18 secs] (concurrent mode failure): 8527958K->7765164K(12049408K), 35.8110060 secs] 12653057K->7765164K(16567552K), [CMS Perm : 130459K->122567K(216772K)], 36.4568820 secs] [Times: user=37.22 sys=0.00, real=36.46 secs]";
+
+        FullCollectionParser p = new FullCollectionParser();
+
+        FullCollection e = (FullCollection)p.parse(new Timestamp(1000L).applyTimeOrigin(0L), line, 1, null);
+
+        assertEquals(1000L, e.getOffset().longValue());
+
+        // only the CMS segment, the young generation collection was reported separately
+        assertEquals(35811L, e.getDuration());
+        assertEquals(FullCollection.CONCURRENT_MODE_FAILURE, e.get(FieldType.NOTES).getValue());
+
+        assertNull(e.get(FieldType.NG_BEFORE));
+        assertEquals(8527958L * 1024, e.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(7765164L * 1024, e.get(FieldType.OG_AFTER).getValue());
+        assertEquals(12049408L * 1024, e.get(FieldType.OG_CAPACITY).getValue());
+        assertEquals(12653057L * 1024, e.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(7765164L * 1024, e.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(16567552L * 1024, e.get(FieldType.HEAP_CAPACITY).getValue());
+        assertEquals(130459L * 1024, e.get(FieldType.PG_BEFORE).getValue());
+        assertEquals(216772L * 1024, e.get(FieldType.PG_CAPACITY).getValue());
+    }
+
+    @Test
+    public void concurrentModeFailure_Icms() throws Exception
+    {
+        String line = "[CMS2014-08-14T01:12:29.867-0700: 27038.083: [CMS-concurrent-preclean: 4.167/17.484 secs] [Times: user=21.55 sys=2.82, real=17.48 secs]  (concurrent mode failure): 3667441K->779130K(3670016K), 6.2096720 secs] 4045730K->779130K(4141888K), [CMS Perm : 93567K->92821K(131072K)] icms_dc=100 , 6.6030840 secs] [Times: user=2.31 sys=0.23, real=6.61 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(
+            new Timestamp(1000L).applyTimeOrigin(0L), line, 1, null);
+
+        assertEquals(6210L, e.getDuration());
+        assertEquals(92821L * 1024, e.get(FieldType.PG_AFTER).getValue());
+    }
+
+    @Test
+    public void concurrentModeFailure_NotAFullCollection() throws Exception
+    {
+        assertNull(new FullCollectionParser().parse(
+            new Timestamp(1000L).applyTimeOrigin(0L), "[CMS-concurrent-sweep: 0.010/0.010 secs]", 1, null));
+    }
+
+    @Test
+    public void metaspace_ParallelCollector() throws Exception
+    {
+        // JDK 8, the cause was already extracted by the linear scan parser
+        String line = "[Full GC [PSYoungGen: 5104K->0K(71680K)] [ParOldGen: 96528K->61214K(131072K)] 101632K->61214K(202752K), [Metaspace: 20948K->20948K(1067008K)], 0.2470610 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(
+            new Timestamp(1000L).applyTimeOrigin(0L), line, 1, null);
+
+        assertEquals(247L, e.getDuration());
+        assertEquals(96528L * 1024, e.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(20948L * 1024, e.get(FieldType.METASPACE_BEFORE).getValue());
+        assertEquals(20948L * 1024, e.get(FieldType.METASPACE_AFTER).getValue());
+        assertEquals(1067008L * 1024, e.get(FieldType.METASPACE_RESERVED).getValue());
+        assertNull(e.get(FieldType.PG_BEFORE));
+        assertNull(e.get(FieldType.PG_CAPACITY));
+    }
+
+    @Test
+    public void metaspace_CMS() throws Exception
+    {
+        String line = "[Full GC 4.000: [CMS: 20480K->17563K(40960K), 0.0801230 secs] 25600K->17563K(59392K), [Metaspace: 30118K->29876K(1075200K)], 0.0803270 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(
+            new Timestamp(1000L).applyTimeOrigin(0L), line, 1, null);
+
+        assertEquals(80L, e.getDuration());
+        assertEquals(17563L * 1024, e.get(FieldType.OG_AFTER).getValue());
+        assertEquals(30118L * 1024, e.get(FieldType.METASPACE_BEFORE).getValue());
+        assertEquals(29876L * 1024, e.get(FieldType.METASPACE_AFTER).getValue());
+        assertEquals(1075200L * 1024, e.get(FieldType.METASPACE_RESERVED).getValue());
+        assertNull(e.get(FieldType.PG_AFTER));
+    }
+
+    @Test
+    public void metaspace_ConcurrentModeFailure() throws Exception
+    {
+        String line = "[CMS2015-03-02T10:15:42.114-0800: 12.345: [CMS-concurrent-mark: 0.120/0.130 secs] [Times: user=0.30 sys=0.01, real=0.13 secs] (concurrent mode failure): 40959K->20112K(40960K), 0.2100000 secs] 59391K->20112K(59392K), [Metaspace: 30118K->30118K(1075200K)], 0.2110000 secs] [Times: user=0.21 sys=0.00, real=0.21 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(
+            new Timestamp(1000L).applyTimeOrigin(0L), line, 1, null);
+
+        assertEquals(210L, e.getDuration());
+        assertEquals(FullCollection.CONCURRENT_MODE_FAILURE, e.get(FieldType.NOTES).getValue());
+        assertEquals(30118L * 1024, e.get(FieldType.METASPACE_AFTER).getValue());
+        assertEquals(1075200L * 1024, e.get(FieldType.METASPACE_RESERVED).getValue());
+        assertNull(e.get(FieldType.PG_BEFORE));
+    }
+
+    @Test
+    public void metadataTriggered() throws Exception
+    {
+        String line = "[Full GC [PSYoungGen: 5104K->0K(71680K)] [ParOldGen: 96528K->61214K(131072K)] 101632K->61214K(202752K), [Metaspace: 20948K->20948K(1067008K)], 0.2470610 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(
+            new Timestamp(1000L).applyTimeOrigin(0L), line, 1, null);
+
+        assertFalse(e.isMetadataTriggered());
+
+        e.setCause(GCCause.METADATA_GC_THRESHOLD);
+        assertTrue(e.isMetadataTriggered());
+
+        e.setCause(GCCause.LAST_DITCH_COLLECTION);
+        assertTrue(e.isMetadataTriggered());
+
+        e.setCause(GCCause.ERGONOMICS);
+        assertFalse(e.isMetadataTriggered());
+    }
+
+    @Test
+    public void filter_RejectedByDuration() throws Exception
+    {
+        String line = "[Full GC (System) [PSYoungGen: 32861K->0K(1722048K)] [PSOldGen: 1663616K->1696127K(4194304K)] 1696478K->1696127K(5916352K) [PSPermGen: 292408K->292408K(292416K)], 2.4516460 secs] [Times: user=2.54 sys=0.00, real=2.45 secs]";
+
+        FullCollectionParser p = new FullCollectionParser();
+        Timestamp ts = new Timestamp(1000L).applyTimeOrigin(0L);
+
+        p.setFilter(Predicate.parse("duration>3000"));
+        assertSame(DiscardedEvent.INSTANCE, p.parse(ts, line, 1, null));
+
+        p.setFilter(Predicate.parse("duration>2000"));
+        FullCollection e = (FullCollection)p.parse(ts, line, 1, null);
+        assertEquals(2452L, e.getDuration());
+    }
+
+    @Test
+    public void filter_Excluded() throws Exception
+    {
+        FullCollectionParser p = new FullCollectionParser();
+        p.setFilter(Predicate.parse("collection-type==ng"));
+
+        // the line is claimed without being looked at
+        assertSame(DiscardedEvent.INSTANCE, p.parse(null, "[Full GC this would not parse]", 1, null));
+
+        // lines that do not belong to the parser are still not claimed
+        assertNull(p.parse(null, "[GC something else]", 1, null));
+    }
+
+    @Test
+    public void serial() throws Exception
+    {
+        String line = "[Full GC 2.345: [Tenured: 7836K->1254K(10944K), 0.0124210 secs] 9876K->1254K(15872K), [Perm : 2062K->2062K(12288K)], 0.0124880 secs] [Times: user=0.01 sys=0.00, real=0.01 secs]";
+
+        FullCollectionParser p = new FullCollectionParser();
+
+        Timestamp ts = new Timestamp(2345L).applyTimeOrigin(0L);
+
+        FullCollection e = (FullCollection)p.parse(ts, line, -1, null);
+
+        assertEquals(2345L, e.getTime().longValue());
+        assertEquals(12L, e.getDuration());
+        assertFalse(e.isSystem());
+
+        assertNull(e.get(FieldType.NG_BEFORE));
+
+        assertEquals(7836L * 1024, e.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(1254L * 1024, e.get(FieldType.OG_AFTER).getValue());
+        assertEquals(10944L * 1024, e.get(FieldType.OG_CAPACITY).getValue());
+
+        assertEquals(9876L * 1024, e.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(1254L * 1024, e.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(15872L * 1024, e.get(FieldType.HEAP_CAPACITY).getValue());
+
+        assertEquals(2062L * 1024, e.get(FieldType.PG_BEFORE).getValue());
+        assertEquals(2062L * 1024, e.get(FieldType.PG_AFTER).getValue());
+        assertEquals(12288L * 1024, e.get(FieldType.PG_CAPACITY).getValue());
+    }
+
+    @Test
+    public void serial_Metaspace() throws Exception
+    {
+        // the cause was already cut out of the header
+        String line = "[Full GC 1.234: [Tenured: 10112K->10944K(10944K), 0.0330420 secs] 14528K->14487K(15872K), [Metaspace: 2600K->2600K(1056768K)], 0.0331070 secs] [Times: user=0.03 sys=0.00, real=0.03 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(new Timestamp(1234L), line, -1, null);
+
+        assertEquals(33L, e.getDuration());
+        assertEquals(10112L * 1024, e.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(14487L * 1024, e.get(FieldType.HEAP_AFTER).getValue());
+        assertNull(e.get(FieldType.PG_BEFORE));
+        assertEquals(2600L * 1024, e.get(FieldType.METASPACE_BEFORE).getValue());
+        assertEquals(1056768L * 1024, e.get(FieldType.METASPACE_RESERVED).getValue());
+    }
+
+    @Test
+    public void serial_TenuredRemainderOfAFailedYoungCollection() throws Exception
+    {
+        String line = "[Tenured: 803557K->495014K(819200K), 1.5640840 secs] 1043502K->495014K(1126400K), [Perm : 50323K->50323K(50432K)], 1.6629090 secs] [Times: user=1.55 sys=0.01, real=1.66 secs]";
+
+        FullCollection e = (FullCollection)new FullCollectionParser().parse(new Timestamp(1080280L), line, -1, null);
+
+        assertEquals(1080280L, e.getOffset().longValue());
+
+        // the young generation segment is reported separately
+        assertEquals(1564L, e.getDuration());
+
+        assertNull(e.get(FieldType.NG_BEFORE));
+        assertEquals(803557L * 1024, e.get(FieldType.OG_BEFORE).getValue());
+        assertEquals(495014L * 1024, e.get(FieldType.OG_AFTER).getValue());
+        assertEquals(819200L * 1024, e.get(FieldType.OG_CAPACITY).getValue());
+        assertEquals(1043502L * 1024, e.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(1126400L * 1024, e.get(FieldType.HEAP_CAPACITY).getValue());
+        assertEquals(50432L * 1024, e.get(FieldType.PG_CAPACITY).getValue());
+
+        line = "[Tenured: 10868K->10943K(10944K), 0.0232430 secs] 15796K->11246K(15872K), [Metaspace: 2062K->2062K(1056768K)], 0.0233120 secs]";
+
+        e = (FullCollection)new FullCollectionParser().parse(new Timestamp(10123L), line, -1, null);
+
+        assertEquals(23L, e.getDuration());
+        assertEquals(2062L * 1024, e.get(FieldType.METASPACE_AFTER).getValue());
+    }
+
+    @Test
+    public void serial_TenuredRemainder_Invalid() throws Exception
+    {
+        try
+        {
+            new FullCollectionParser().parse(null, "[Tenured: 803557K->495014K(819200K)] 1043502K->495014K(1126400K)", 7, null);
+            fail("should have failed on the missing duration");
+        }
+        catch(ParserException e)
+        {
+            assertEquals(7, e.getLineNumber());
+            log.info(e.getMessage());
+        }
     }
 
     // Package protected -------------------------------------------------------------------------------------------------------------------
@@ -122,6 +122,89 @@ public class LineUtilTest extends Assert
         assertEquals("[[B]]", tokens.get(1));
     }
 
+    @Test
+    public void parseTimes() throws Exception
+    {
+        long[] t = LineUtil.parseTimes(
+            "[GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] [Times: user=0.64 sys=0.30, real=0.17 secs]");
+
+        assertEquals(640L, t[0]);
+        assertEquals(300L, t[1]);
+        assertEquals(170L, t[2]);
+    }
+
+    @Test
+    public void parseTimes_LastBlock() throws Exception
+    {
+        // the first block belongs to the concurrent phase interleaved in the event
+        long[] t = LineUtil.parseTimes(
+            "[CMS53369.873: [CMS-concurrent-mark: 5.274/5.371 secs] [Times: user=12.80 sys=0.36, real=5.37 secs] (concurrent mode failure): 11628290K->11661304K(11666432K), 23.5081640 secs] 15947092K->12535361K(16040192K), [CMS Perm : 117651K->117651K(208152K)], 23.5087140 secs] [Times: user=27.85 sys=0.31, real=23.51 secs]");
+
+        assertEquals(27850L, t[0]);
+        assertEquals(310L, t[1]);
+        assertEquals(23510L, t[2]);
+    }
+
+    @Test
+    public void parseTimes_CommaDecimalSeparator() throws Exception
+    {
+        long[] t = LineUtil.parseTimes("[Times: user=1,234 sys=0,0005, real=10 secs]");
+
+        assertEquals(1234L, t[0]);
+        assertEquals(1L, t[1]);
+        assertEquals(10000L, t[2]);
+    }
+
+    @Test
+    public void parseTimes_NoBlock() throws Exception
+    {
+        assertNull(LineUtil.parseTimes("[CMS-concurrent-mark-start]"));
+        assertNull(LineUtil.parseTimes("[Times: user=0.64 sys=, real=0.17 secs]"));
+        assertNull(LineUtil.parseTimes("[Times: user=0.64 sys=0.30"));
+    }
+
+    @Test
+    public void findCause() throws Exception
+    {
+        String s = "[GC (Allocation Failure) [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs]";
+        int[] c = LineUtil.findCause(s);
+        assertEquals("Allocation Failure", s.substring(c[0], c[1]));
+
+        // nested parentheses
+        s = "[Full GC (System.gc()) [PSYoungGen: 32861K->0K(1722048K)] [ParOldGen: 1663616K->1696127K(4194304K)]";
+        c = LineUtil.findCause(s);
+        assertEquals("System.gc()", s.substring(c[0], c[1]));
+
+        s = "[GC (CMS Final Remark) [YG occupancy: 16817 K (613440 K)]";
+        c = LineUtil.findCause(s);
+        assertEquals("CMS Final Remark", s.substring(c[0], c[1]));
+    }
+
+    @Test
+    public void findCause_NoCause() throws Exception
+    {
+        assertNull(LineUtil.findCause("[GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs]"));
+        assertNull(LineUtil.findCause("[GC 1.985: [ParNew: 136320K->6357K(153344K), 0.0083580 secs]"));
+        assertNull(LineUtil.findCause("[GC[YG occupancy: 296321 K (690432 K)]"));
+        assertNull(LineUtil.findCause("[CMS-concurrent-mark: 0.123/0.456 secs] (concurrent mode failure)"));
+        assertNull(LineUtil.findCause("[GC ("));
+        assertNull(LineUtil.findCause("[GC () [PSYoungGen: 1K->0K(2K)]"));
+        assertNull(LineUtil.findCause("[GC (unterminated [PSYoungGen: 1K->0K(2K)]"));
+    }
+
+    @Test
+    public void parseSecondsAsMicroseconds() throws Exception
+    {
+        String s = "stopped: 0.0523450 seconds";
+        int i = s.indexOf("stopped: ");
+
+        assertEquals(52345L, LineUtil.parseSecondsAsMicroseconds(s, i, "stopped: ".length()));
+        assertEquals(1500000L, LineUtil.parseSecondsAsMicroseconds("t=1,5", 0, "t=".length()));
+        assertEquals(2L, LineUtil.parseSecondsAsMicroseconds("t=0.0000015", 0, "t=".length()));
+        assertEquals(-1L, LineUtil.parseSecondsAsMicroseconds("t=x", 0, "t=".length()));
+        assertEquals(-1L, LineUtil.parseSecondsAsMicroseconds(s, -1, 0));
+    }
+
     @Test
     public void tesToSquareBracketTokens_UnbalancedBrackets() throws Exception
     {
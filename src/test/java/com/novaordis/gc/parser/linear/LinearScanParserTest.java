@@ -5,25 +5,42 @@ import com.novaordis.gc.mock.MockGCEvent;
 import com.novaordis.gc.mock.MockGCEventParser;
 import com.novaordis.gc.mock.MockReader;
 import com.novaordis.gc.mock.PassThroughEventParser;
+import com.novaordis.gc.model.AdaptiveSizePolicy;
 import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.HeapSnapshot;
+import com.novaordis.gc.model.TenuringDistribution;
 import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.ApplicationConcurrentTime;
+import com.novaordis.gc.model.event.ApplicationStoppedTime;
 import com.novaordis.gc.model.event.FullCollection;
 import com.novaordis.gc.model.event.GCEvent;
 import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.cms.CMSConcurrentAbortablePreclean;
+import com.novaordis.gc.model.event.serial.SerialCollection;
 import com.novaordis.gc.parser.GCEventParser;
 import com.novaordis.gc.parser.GCLogParser;
 import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.LogSeekerTest;
 import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
 import com.novaordis.gc.parser.linear.cms.CMSParser;
+import com.novaordis.gc.parser.linear.g1.G1Parser;
+import com.novaordis.utilities.Files;
+import com.novaordis.utilities.testing.Tests;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.model.CollectionType;
 import org.apache.log4j.Logger;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
@@ -44,6 +61,12 @@ public class LinearScanParserTest extends Assert
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    @After
+    public void scratchCleanup() throws Exception
+    {
+        Tests.cleanup();
+    }
+
     @Test
     public void fullAndNewGenerationCollectionCombination() throws Exception
     {
@@ -90,6 +113,99 @@ public class LinearScanParserTest extends Assert
         log.debug(".");
     }
 
+    @Test
+    public void parallelCollector_AdaptiveSizePolicy() throws Exception
+    {
+        String s =
+            "CommandLine flags: -XX:+PrintAdaptiveSizePolicy -XX:+PrintGCDetails -XX:+UseParallelGC \n" +
+            "2.345: [GC (Allocation Failure) AdaptiveSizePolicy::update_averages:  survived: 10978712  promoted: 8192  overflow: false\n" +
+            "AdaptiveSizeStart: 2.360 collection: 1 \n" +
+            "  avg_survived_padded_avg: 728176.250000  avg_promoted_padded_avg: 0.000000  avg_pretenured_padded_avg: 0.000000  tenuring_thresh: 7  target_size: 11010048\n" +
+            "PSAdaptiveSizePolicy::compute_eden_space_size: costs minor_time: 0.021553 major_cost: 0.000000 mutator_cost: 0.978447 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_eden_size: 67108864 desired_eden_size: 76546048\n" +
+            "AdaptiveSizeStop: collection: 1 \n" +
+            "[PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K), 0.0123450 secs] [Times: user=0.04 sys=0.00, real=0.01 secs] \n" +
+            "3.000: [Full GC (Ergonomics) AdaptiveSizeStart: 3.050 collection: 2 \n" +
+            "PSAdaptiveSizePolicy::compute_old_gen_free_space: costs minor_time: 0.021553 major_cost: 0.010000 mutator_cost: 0.968447 throughput_goal: 0.990000 live_space: 279413136 free_space: 201326592 old_promo_size: 179306496 desired_promo_size: 160000000\n" +
+            "AdaptiveSizeStop: collection: 2 \n" +
+            "[PSYoungGen: 76256K->0K(76288K)] [ParOldGen: 8K->20000K(175104K)] 76264K->20000K(251392K), [Metaspace: 2668K->2668K(1056768K)], 0.0500000 secs] [Times: user=0.10 sys=0.00, real=0.05 secs] \n";
+
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader(s));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+
+        NewGenerationCollection ng = (NewGenerationCollection)events.get(0);
+        assertEquals(GCCause.ALLOCATION_FAILURE, ng.getCause());
+        assertEquals(12L, ng.getDuration());
+        assertEquals(76288L * 1024, ng.get(FieldType.NG_CAPACITY).getValue());
+        assertEquals(76546048L, ng.get(FieldType.DESIRED_EDEN_SIZE).getValue());
+        assertEquals(11010048L, ng.get(FieldType.TARGET_SURVIVOR_SIZE).getValue());
+        assertNull(ng.get(FieldType.DESIRED_PROMO_SIZE));
+
+        AdaptiveSizePolicy policy = ng.getAdaptiveSizePolicy();
+        assertEquals(1, policy.getCollection());
+        assertEquals(10978712L, policy.getSurvived());
+        assertEquals(AdaptiveSizePolicy.THROUGHPUT, policy.getReason());
+
+        FullCollection fc = (FullCollection)events.get(1);
+        assertEquals(50L, fc.getDuration());
+        assertEquals(20000L * 1024, fc.get(FieldType.OG_AFTER).getValue());
+        assertEquals(160000000L, fc.get(FieldType.DESIRED_PROMO_SIZE).getValue());
+        assertEquals(2, fc.getAdaptiveSizePolicy().getCollection());
+        assertEquals(AdaptiveSizePolicy.PAUSE, fc.getAdaptiveSizePolicy().getReason());
+    }
+
+    @Test
+    public void serialCollector() throws Exception
+    {
+        String s =
+            "4.993: [GC 4.993: [DefNew: 204800K->20403K(307200K), 0.0417850 secs] 204800K->20403K(1126400K), 0.0418540 secs] [Times: user=0.02 sys=0.02, real=0.04 secs] \n" +
+            "1080.181: [GC 1080.181: [DefNew (promotion failed) : 256020K->243246K(307200K), 0.0986650 secs]1080.280: [Tenured: 803557K->495014K(819200K), 1.5640840 secs] 1043502K->495014K(1126400K), [Perm : 50323K->50323K(50432K)], 1.6629090 secs] [Times: user=1.55 sys=0.01, real=1.66 secs] \n" +
+            "1100.000: [GC (Allocation Failure) 1100.000: [DefNew: 307200K->307200K(307200K), 0.0000160 secs]1100.000: [Tenured: 810000K->500000K(819200K), 1.2000000 secs] 1117200K->500000K(1126400K), [Metaspace: 50323K->50323K(1097728K)], 1.2001000 secs] [Times: user=1.19 sys=0.00, real=1.20 secs] \n" +
+            "1200.000: [Full GC (System.gc()) 1200.000: [Tenured: 500000K->400000K(819200K), 1.0000000 secs] 600000K->400000K(1126400K), [Metaspace: 50323K->50323K(1097728K)], 1.0001000 secs] [Times: user=1.00 sys=0.00, real=1.00 secs] \n";
+
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader(s));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(6, events.size());
+
+        for(GCEvent e: events)
+        {
+            assertTrue(e instanceof SerialCollection);
+        }
+
+        NewGenerationCollection ng = (NewGenerationCollection)events.get(0);
+        assertEquals(42L, ng.getDuration());
+        assertEquals(204800L * 1024, ng.get(FieldType.HEAP_BEFORE).getValue());
+
+        ng = (NewGenerationCollection)events.get(1);
+        assertEquals(NewGenerationCollection.PROMOTION_FAILED, ng.get(FieldType.NOTES).getValue());
+        assertEquals(99L, ng.getDuration());
+
+        FullCollection fc = (FullCollection)events.get(2);
+        assertEquals(1080280L, fc.getTime().longValue());
+        assertEquals(1564L, fc.getDuration());
+        assertEquals(495014L * 1024, fc.get(FieldType.OG_AFTER).getValue());
+        assertEquals(50323L * 1024, fc.get(FieldType.PG_AFTER).getValue());
+        assertEquals(1660L, fc.get(FieldType.REAL_TIME).getValue());
+
+        // the young generation collection was not attempted, the cause belongs to it
+        ng = (NewGenerationCollection)events.get(3);
+        assertEquals(0L, ng.getDuration());
+        assertEquals(GCCause.ALLOCATION_FAILURE, ng.getCause());
+
+        fc = (FullCollection)events.get(4);
+        assertEquals(1200L, fc.getDuration());
+        assertEquals(50323L * 1024, fc.get(FieldType.METASPACE_AFTER).getValue());
+
+        fc = (FullCollection)events.get(5);
+        assertTrue(fc.isSystem());
+        assertEquals(1000L, fc.getDuration());
+        assertEquals(400000L * 1024, fc.get(FieldType.OG_AFTER).getValue());
+    }
+
     @Test
     public void fullAndNewGenerationCollectionCombination_ExplicitTimeStamps() throws Exception
     {
@@ -162,6 +278,143 @@ public class LinearScanParserTest extends Assert
         assertEquals(1, events.size());
     }
 
+    @Test
+    public void times() throws Exception
+    {
+        MockReader r = new MockReader(
+            "4.751: [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] [Times: user=0.21 sys=0.09, real=0.05 secs]\n" +
+            "5.751: [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs]");
+
+        List<GCEvent> events = GCLogParserFactory.getParser(r).parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+
+        GCEvent e = events.get(0);
+        assertEquals(210L, e.get(FieldType.USER_TIME).getValue());
+        assertEquals(90L, e.get(FieldType.SYS_TIME).getValue());
+        assertEquals(50L, e.get(FieldType.REAL_TIME).getValue());
+        assertEquals(6.0d, (Double)e.get(FieldType.PARALLELISM).getValue(), 0.0001d);
+
+        e = events.get(1);
+        assertNull(e.get(FieldType.USER_TIME));
+        assertNull(e.get(FieldType.PARALLELISM));
+    }
+
+    @Test
+    public void times_Filter() throws Exception
+    {
+        MockReader r = new MockReader(
+            "4.751: [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] [Times: user=0.21 sys=0.09, real=0.05 secs]\n" +
+            "5.751: [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] [Times: user=0.02 sys=0.01, real=0.05 secs]");
+
+        LinearScanParser p = (LinearScanParser)GCLogParserFactory.getParser(r);
+        p.setFilter(Predicate.parse("parallelism<1 && real-time>=50"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(1, events.size());
+        assertEquals(5751L, events.get(0).getOffset().longValue());
+    }
+
+    @Test
+    public void applicationStoppedAndConcurrentTime() throws Exception
+    {
+        MockReader r = new MockReader(
+            "1.000: Application time: 0.9876540 seconds\n" +
+            "1.001: [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] [Times: user=0.21 sys=0.09, real=0.05 secs]\n" +
+            "1.053: Total time for which application threads were stopped: 0.0523450 seconds, Stopping threads took: 0.0001230 seconds\n" +
+            "2.000: Application time: 0.9470000 seconds\n" +
+            "2.010: Total time for which application threads were stopped: 0.0102000 seconds");
+
+        List<GCEvent> events = GCLogParserFactory.getParser(r).parse(new TimeOrigin(0L));
+
+        assertEquals(5, events.size());
+
+        assertTrue(events.get(0) instanceof ApplicationConcurrentTime);
+        assertTrue(events.get(1) instanceof NewGenerationCollection);
+
+        ApplicationStoppedTime ast = (ApplicationStoppedTime)events.get(2);
+        assertEquals(1053L, ast.getOffset().longValue());
+        assertEquals(52345L, ast.getStoppedMicroseconds());
+        assertEquals(123L, ast.getTimeToSafepointMicroseconds());
+
+        assertTrue(events.get(3) instanceof ApplicationConcurrentTime);
+
+        ast = (ApplicationStoppedTime)events.get(4);
+        assertEquals(10200L, ast.getStoppedMicroseconds());
+        assertEquals(-1L, ast.getTimeToSafepointMicroseconds());
+    }
+
+    @Test
+    public void gcCause() throws Exception
+    {
+        MockReader r = new MockReader(
+            "1.000: [GC (Allocation Failure) [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] [Times: user=0.21 sys=0.09, real=0.05 secs]\n" +
+            "2.000: [Full GC (System.gc()) [PSYoungGen: 32861K->0K(1722048K)] [ParOldGen: 1663616K->1696127K(4194304K)] 1696478K->1696127K(5916352K) [PSPermGen: 292408K->292408K(292416K)], 2.4516460 secs] [Times: user=2.54 sys=0.00, real=2.45 secs]\n" +
+            "3.000: [Full GC (System) [PSYoungGen: 32861K->0K(1722048K)] [PSOldGen: 1663616K->1696127K(4194304K)] 1696478K->1696127K(5916352K) [PSPermGen: 292408K->292408K(292416K)], 2.4516460 secs] [Times: user=2.54 sys=0.00, real=2.45 secs]\n" +
+            "4.000: [GC (Allocation Failure) 4.000: [ParNew: 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs] [Times: user=0.08 sys=0.01, real=0.02 secs]\n" +
+            "5.000: [GC 5.000: [ParNew: 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs]");
+
+        List<GCEvent> events = GCLogParserFactory.getParser(r).parse(new TimeOrigin(0L));
+
+        assertEquals(5, events.size());
+
+        // the causes are interned
+        assertSame(GCCause.ALLOCATION_FAILURE, events.get(0).get(FieldType.CAUSE).getValue());
+        assertEquals(660640L * 1024, events.get(0).get(FieldType.NG_BEFORE).getValue());
+
+        FullCollection full = (FullCollection)events.get(1);
+        assertSame(GCCause.SYSTEM_GC, full.getCause());
+        assertTrue(full.isSystem());
+
+        // JDK 6 "Full GC (System)"
+        full = (FullCollection)events.get(2);
+        assertSame(GCCause.SYSTEM_GC, full.getCause());
+        assertTrue(full.isSystem());
+
+        assertSame(GCCause.ALLOCATION_FAILURE, events.get(3).get(FieldType.CAUSE).getValue());
+        assertEquals(24L, events.get(3).getDuration());
+
+        assertNull(events.get(4).get(FieldType.CAUSE));
+    }
+
+    @Test
+    public void gcCause_CMS() throws Exception
+    {
+        MockReader r = new MockReader(
+            "1.000: [GC (CMS Initial Mark) [1 CMS-initial-mark: 1084574K(1398144K)] 1101210K(2027264K), 0.0123450 secs] [Times: user=0.01 sys=0.00, real=0.01 secs]\n" +
+            "2.000: [GC (CMS Final Remark) [YG occupancy: 16817 K (613440 K)]2.000: [Rescan (parallel) , 0.0062660 secs]2.006: [weak refs processing, 0.0000200 secs]2.007: [scrub string table, 0.0001000 secs][1 CMS-remark: 1084574K(1398144K)] 1101391K(2011584K), 0.0085120 secs] [Times: user=0.03 sys=0.00, real=0.01 secs]");
+
+        List<GCEvent> events = GCLogParserFactory.getParser(r).parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+
+        assertEquals(CollectionType.CMS_INITIAL_MARK, events.get(0).getCollectionType());
+        assertSame(GCCause.CMS_INITIAL_MARK, events.get(0).get(FieldType.CAUSE).getValue());
+
+        // the cause is logged on the first fragment of the remark
+        assertEquals(CollectionType.CMS_REMARK, events.get(1).getCollectionType());
+        assertEquals(2000L, events.get(1).getOffset().longValue());
+        assertSame(GCCause.CMS_FINAL_REMARK, events.get(1).get(FieldType.CAUSE).getValue());
+    }
+
+    @Test
+    public void gcCause_Filter() throws Exception
+    {
+        MockReader r = new MockReader(
+            "1.000: [GC (Allocation Failure) [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs]\n" +
+            "2.000: [Full GC (Ergonomics) [PSYoungGen: 32861K->0K(1722048K)] [ParOldGen: 1663616K->1696127K(4194304K)] 1696478K->1696127K(5916352K) [PSPermGen: 292408K->292408K(292416K)], 2.4516460 secs]\n" +
+            "3.000: [Full GC (System.gc()) [PSYoungGen: 32861K->0K(1722048K)] [ParOldGen: 1663616K->1696127K(4194304K)] 1696478K->1696127K(5916352K) [PSPermGen: 292408K->292408K(292416K)], 2.4516460 secs]");
+
+        LinearScanParser p = (LinearScanParser)GCLogParserFactory.getParser(r);
+        p.setFilter(Predicate.parse("cause!='System.gc()' && duration>1s"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(1, events.size());
+        assertSame(GCCause.ERGONOMICS, events.get(0).get(FieldType.CAUSE).getValue());
+    }
+
     @Test
     public void nonTimestampedCMSAbortLine() throws Exception
     {
@@ -175,8 +428,13 @@ public class LinearScanParserTest extends Assert
 
         assertTrue(r.isClosed());
 
-        // the parser will issue a warning, but won't throw exception
-        assertEquals(0, events.size());
+        // the abort reason is dropped and the abortable preclean end is parsed
+        assertEquals(1, events.size());
+
+        CMSConcurrentAbortablePreclean e = (CMSConcurrentAbortablePreclean)events.get(0);
+        assertEquals(29020L, e.getOffset().longValue());
+        assertEquals(4456L, e.getCpuTime().longValue());
+        assertEquals(5072L, e.getWallTime().longValue());
     }
 
     // pipeline installation tests -------------------------------------------------------------------------------------
@@ -272,6 +530,9 @@ public class LinearScanParserTest extends Assert
 
         GCEventParser ep = p.getPipeline();
 
+        assertTrue(ep instanceof G1Parser);
+
+        ep = ep.getNext();
         assertTrue(ep instanceof CMSParser);
 
         ep = ep.getNext();
@@ -283,6 +544,9 @@ public class LinearScanParserTest extends Assert
         ep = ep.getNext();
         assertTrue(ep instanceof ShutdownParser);
 
+        ep = ep.getNext();
+        assertTrue(ep instanceof ApplicationTimeParser);
+
         assertNull(ep.getNext());
     }
 
@@ -333,7 +597,7 @@ public class LinearScanParserTest extends Assert
 
         LinearScanParser p = new LinearScanParser(r);
         p.installPipeline(new PassThroughEventParser());
-        p.addSecondLinePattern(Pattern.compile("^\\s*continuation of the previous line"));
+        p.addContinuationRule(new PrefixContinuationRule("continuation of the previous line"));
 
         List<GCEvent> events = p.parse(new TimeOrigin(0L));
 
@@ -369,7 +633,7 @@ public class LinearScanParserTest extends Assert
 
         LinearScanParser p = new LinearScanParser(r);
         p.installPipeline(new PassThroughEventParser());
-        p.addSecondLinePattern(Pattern.compile("^\\s*continuation of the previous line"));
+        p.addContinuationRule(new PrefixContinuationRule("continuation of the previous line"));
 
         List<GCEvent> events = p.parse(new TimeOrigin(0L));
 
@@ -406,7 +670,7 @@ public class LinearScanParserTest extends Assert
 
         LinearScanParser p = new LinearScanParser(r);
         p.installPipeline(new PassThroughEventParser());
-        p.addSecondLinePattern(Pattern.compile("^\\s*continuation of the previous line"));
+        p.addContinuationRule(new PrefixContinuationRule("continuation of the previous line"));
 
         List<GCEvent> events = p.parse(new TimeOrigin(0L));
 
@@ -434,7 +698,7 @@ public class LinearScanParserTest extends Assert
 
         LinearScanParser p = new LinearScanParser(r);
         p.installPipeline(new PassThroughEventParser());
-        p.addSecondLinePattern(Pattern.compile("^\\s*continuation of the previous line"));
+        p.addContinuationRule(new PrefixContinuationRule("continuation of the previous line"));
 
         List<GCEvent> events = p.parse(new TimeOrigin(0L));
 
@@ -453,64 +717,231 @@ public class LinearScanParserTest extends Assert
         String s =
             "a\n" +
                 " continuation of the previous line\n" +
-                " continuation of the previous line";
+                " continuation of the previous line\n" +
+                "b";
 
         Reader r = new InputStreamReader(new ByteArrayInputStream(s.getBytes()));
 
         LinearScanParser p = new LinearScanParser(r);
         p.installPipeline(new PassThroughEventParser());
-        p.addSecondLinePattern(Pattern.compile("^\\s*continuation of the previous line"));
+        p.addContinuationRule(new PrefixContinuationRule("continuation of the previous line"));
 
-        assertTrue(p.isTheSecondLineOfTheEvent(" continuation of the previous line"));
+        assertTrue(p.isContinuation(" continuation of the previous line"));
 
-        try
-        {
-            p.parse(new TimeOrigin(0L));
-            fail("should have failed with UserErrorException, two successive 'multi-lines'");
-        }
-        catch(UserErrorException e)
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        r.close();
+
+        assertEquals(2, events.size());
+
+        MockGCEvent e = (MockGCEvent)events.get(0);
+        assertEquals("a continuation of the previous line continuation of the previous line", e.getLine());
+        assertEquals(1, e.getLineNumber());
+
+        MockGCEvent e2 = (MockGCEvent)events.get(1);
+        assertEquals("b", e2.getLine());
+        assertEquals(4, e2.getLineNumber());
+    }
+
+    // tenuring distribution -------------------------------------------------------------------------------------------
+
+    @Test
+    public void tenuringDistribution_ParNew() throws Exception
+    {
+        MockReader r = new MockReader(
+            "10.123: [GC 10.123: [ParNew\n" +
+            "Desired survivor size 3342336 bytes, new threshold 6 (max 6)\n" +
+            "- age   1:    1048496 bytes,    1048496 total\n" +
+            "- age   2:     524288 bytes,    1572784 total\n" +
+            ": 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs] [Times: user=0.08 sys=0.01, real=0.02 secs]\n" +
+            "11.123: [GC 11.123: [ParNew: 58943K->6528K(58944K), 0.0234560 secs] 58943K->12345K(1042048K), 0.0235670 secs]");
+
+        List<GCEvent> events = GCLogParserFactory.getParser(r).parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+
+        NewGenerationCollection c = (NewGenerationCollection)events.get(0);
+        assertEquals(10123L, c.getOffset().longValue());
+        assertEquals(24L, c.getDuration());
+        assertEquals(58943L * 1024, c.get(FieldType.NG_BEFORE).getValue());
+        assertEquals(80L, c.get(FieldType.USER_TIME).getValue());
+
+        TenuringDistribution d = c.getTenuringDistribution();
+        assertEquals(3342336L, d.getDesiredSurvivorSize());
+        assertEquals(6, d.getThreshold());
+        assertEquals(6, d.getMaxThreshold());
+        assertEquals(2, d.getMaxAge());
+        assertEquals(524288L, d.getBytes(2));
+
+        assertEquals(6L, c.get(FieldType.TENURING_THRESHOLD).getValue());
+        assertEquals(1572784L, c.get(FieldType.SURVIVOR).getValue());
+
+        c = (NewGenerationCollection)events.get(1);
+        assertEquals(11123L, c.getOffset().longValue());
+        assertNull(c.getTenuringDistribution());
+        assertNull(c.get(FieldType.TENURING_THRESHOLD));
+    }
+
+    @Test
+    public void tenuringDistribution_ParallelScavenge() throws Exception
+    {
+        MockReader r = new MockReader(
+            "12.123: [GC\n" +
+            "Desired survivor size 1048576 bytes, new threshold 7 (max 15)\n" +
+            " [PSYoungGen: 58943K->6528K(58944K)] 58943K->12345K(1042048K), 0.0235670 secs] [Times: user=0.08 sys=0.01, real=0.02 secs]");
+
+        List<GCEvent> events = GCLogParserFactory.getParser(r).parse(new TimeOrigin(0L));
+
+        assertEquals(1, events.size());
+
+        NewGenerationCollection c = (NewGenerationCollection)events.get(0);
+        assertEquals(12123L, c.getOffset().longValue());
+
+        TenuringDistribution d = c.getTenuringDistribution();
+        assertEquals(7, d.getThreshold());
+        assertEquals(15, d.getMaxThreshold());
+        assertEquals(0, d.getMaxAge());
+        assertNull(c.get(FieldType.SURVIVOR));
+    }
+
+    // heap at GC ------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void heapAtGC() throws Exception
+    {
+        List<GCEvent> events = heapAtGC(true);
+
+        assertEquals(2, events.size());
+
+        NewGenerationCollection c = (NewGenerationCollection)events.get(0);
+        assertEquals(2345L, c.getOffset().longValue());
+
+        HeapSnapshot before = c.getHeapBefore();
+        assertEquals(1, before.getInvocations());
+        assertEquals(65536L * 1024, before.getEdenUsed());
+
+        HeapSnapshot after = c.getHeapAfter();
+        assertEquals(1, after.getInvocations());
+        assertEquals(8L * 1024, after.getOldUsed());
+
+        // the tenuring distribution logged within the same record is still attached
+        assertEquals(3342336L, c.getTenuringDistribution().getDesiredSurvivorSize());
+
+        FullCollection f = (FullCollection)events.get(1);
+        assertEquals(2, f.getHeapBefore().getInvocations());
+        assertNull(f.getHeapAfter());
+    }
+
+    @Test
+    public void heapAtGC_Skipped() throws Exception
+    {
+        List<GCEvent> events = heapAtGC(false);
+
+        assertEquals(2, events.size());
+
+        NewGenerationCollection c = (NewGenerationCollection)events.get(0);
+        assertNull(c.getHeapBefore());
+        assertNull(c.getHeapAfter());
+        assertEquals(3342336L, c.getTenuringDistribution().getDesiredSurvivorSize());
+        assertEquals(65536L * 1024, c.get(FieldType.NG_BEFORE).getValue());
+
+        assertNull(((FullCollection)events.get(1)).getHeapBefore());
+    }
+
+    // time range ------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void timeRange_Reader_SkipsAndStops() throws Exception
+    {
+        String s = LogSeekerTest.generateLog(100);
+
+        LinearScanParser p = (LinearScanParser)GCLogParserFactory.getParser(new StringReader(s));
+
+        TimeRange r = new TimeRange();
+        r.setFromOffset(10007L);
+        r.setToOffset(20007L);
+        p.setTimeRange(r);
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(11, events.size());
+        assertEquals(10007L, events.get(0).getOffset().longValue());
+        assertEquals(20007L, events.get(10).getOffset().longValue());
+    }
+
+    @Test
+    public void timeRange_File_Seeks() throws Exception
+    {
+        String s = LogSeekerTest.generateLog(20000);
+
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, s);
+
+        TimeRange r = new TimeRange();
+        r.setFromOffset(12345000L);
+        r.setToOffset(12350000L);
+
+        GCLogParser p = GCLogParserFactory.getParser(f, r);
+
+        List<GCEvent> events = p.parse(new TimeOrigin(1000L));
+
+        assertEquals(5, events.size());
+
+        for(int i = 0; i < events.size(); i ++)
         {
-            log.info(e.getMessage());
+            assertEquals(12345007L + i * 1000, events.get(i).getOffset().longValue());
+            assertEquals(12346007L + i * 1000, events.get(i).getTime().longValue());
         }
     }
 
-    // isTheSecondLineOfTheEvent() tests -------------------------------------------------------------------------------
+    @Test
+    public void timeRange_File_NoRange() throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, LogSeekerTest.generateLog(50));
+
+        List<GCEvent> events = GCLogParserFactory.getParser(f, null).parse(new TimeOrigin(0L));
+
+        assertEquals(50, events.size());
+    }
+
+    // isContinuation() tests -----------------------------------------------------------------------------------------
 
     @Test
-    public void isTheSecondLineOfTheEvent_NullString() throws Exception
+    public void isContinuation_NullString() throws Exception
     {
         LinearScanParser p = new LinearScanParser(null);
 
-        assertTrue(p.getSecondLinePatterns().isEmpty());
+        assertTrue(p.getContinuationRules().isEmpty());
 
-        assertFalse(p.isTheSecondLineOfTheEvent(null));
+        assertFalse(p.isContinuation(null));
     }
 
     @Test
-    public void isTheSecondLineOfTheEvent_ValidMatchAndNoMatch() throws Exception
+    public void isContinuation_ValidMatchAndNoMatch() throws Exception
     {
         LinearScanParser p = new LinearScanParser(null);
 
-        p.addSecondLinePattern(Pattern.compile("^ [abc] $"));
-        p.addSecondLinePattern(Pattern.compile("^ [xyz] $"));
+        p.addContinuationRule(new PrefixContinuationRule("b"));
+        p.addContinuationRule(new PrefixContinuationRule("z"));
 
-        assertEquals(2, p.getSecondLinePatterns().size());
+        assertEquals(2, p.getContinuationRules().size());
 
-        assertTrue(p.isTheSecondLineOfTheEvent(" b "));
-        assertFalse(p.isTheSecondLineOfTheEvent(" m "));
-        assertTrue(p.isTheSecondLineOfTheEvent(" z "));
+        assertTrue(p.isContinuation(" b "));
+        assertFalse(p.isContinuation(" m "));
+        assertTrue(p.isContinuation(" z "));
     }
 
     @Test
-    public void isTheSecondLineOfTheEvent_Match() throws Exception
+    public void isContinuation_Match() throws Exception
     {
         LinearScanParser p = new LinearScanParser(null);
 
-        p.addSecondLinePattern(Pattern.compile("\\s*\\(concurrent mode failure\\).*"));
+        p.addContinuationRule(new PrefixContinuationRule("(concurrent mode failure)"));
 
-        assertEquals(1, p.getSecondLinePatterns().size());
+        assertEquals(1, p.getContinuationRules().size());
 
-        assertTrue(p.isTheSecondLineOfTheEvent(" (concurrent mode failure): 3667441K->779130K(3670016K), 6.2096720 secs] 4045730K->779130K(4141888K), [CMS Perm : 93567K->92821K(131072K)] icms_dc=100 , 6.6030840 secs] [Times: user=2.31 sys=0.23, real=6.61 secs]"));
+        assertTrue(p.isContinuation(" (concurrent mode failure): 3667441K->779130K(3670016K), 6.2096720 secs] 4045730K->779130K(4141888K), [CMS Perm : 93567K->92821K(131072K)] icms_dc=100 , 6.6030840 secs] [Times: user=2.31 sys=0.23, real=6.61 secs]"));
 
         log.debug(".");
     }
@@ -563,12 +994,76 @@ public class LinearScanParserTest extends Assert
         assertEquals(time2After, Timestamp.DATESTAMP_FORMAT.parse("2015-01-01T01:01:02.111-0700").getTime());
     }
 
+    @Test
+    public void filter() throws Exception
+    {
+        String s =
+            "1.000: [GC [PSYoungGen: 1000K->100K(2000K)] 3000K->2100K(10000K), 0.0100000 secs]\n" +
+            "2.000: [Full GC [PSYoungGen: 100K->0K(2000K)] [PSOldGen: 2000K->1500K(8000K)] 2100K->1500K(10000K) [PSPermGen: 100K->100K(200K)], 0.6000000 secs]\n" +
+            "3.000: [GC [PSYoungGen: 1000K->100K(2000K)] 2500K->1600K(10000K), 0.7000000 secs]\n" +
+            "4.000: [Full GC [PSYoungGen: 100K->0K(2000K)] [PSOldGen: 1500K->1000K(8000K)] 1600K->1000K(10000K) [PSPermGen: 100K->100K(200K)], 0.2000000 secs]\n" +
+            "Heap\n" +
+            " PSYoungGen      total 2000K, used 100K\n";
+
+        LinearScanParser p = (LinearScanParser)GCLogParserFactory.getParser(new StringReader(s));
+        p.setFilter(Predicate.parse("duration>500 && collection-type==full"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(1, events.size());
+        FullCollection e = (FullCollection)events.get(0);
+        assertEquals(2000L, e.getOffset().longValue());
+        assertEquals(600L, e.getDuration());
+    }
+
+    @Test
+    public void filter_FieldsKnownOnlyAfterParsing() throws Exception
+    {
+        String s =
+            "1.000: [Full GC [PSYoungGen: 100K->0K(2000K)] [PSOldGen: 2000K->1500K(8000K)] 2100K->1500K(10000K) [PSPermGen: 100K->100K(200K)], 0.6000000 secs]\n" +
+            "2.000: [Full GC [PSYoungGen: 100K->0K(2000K)] [PSOldGen: 1500K->1000K(8000K)] 1600K->1000K(10000K) [PSPermGen: 100K->100K(200K)], 0.2000000 secs]\n" +
+            "Heap\n" +
+            " PSYoungGen      total 2000K, used 100K\n";
+
+        LinearScanParser p = (LinearScanParser)GCLogParserFactory.getParser(new StringReader(s));
+        p.setFilter(Predicate.parse("og-after>=1500K || collection-type==shutdown"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+        assertEquals(1000L, events.get(0).getOffset().longValue());
+        assertEquals(CollectionType.SHUTDOWN, events.get(1).getCollectionType());
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private static List<GCEvent> heapAtGC(boolean decode) throws Exception
+    {
+        MockReader r = new MockReader(
+            "{Heap before GC invocations=1 (full 0):\n" +
+            " PSYoungGen      total 76288K, used 65536K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+            "  eden space 65536K, 100% used [0x000000076ab00000,0x000000076eb00000,0x000000076eb00000)\n" +
+            " ParOldGen       total 175104K, used 0K [0x00000006c0000000, 0x00000006cab00000, 0x000000076ab00000)\n" +
+            "2.345: [GC\n" +
+            "Desired survivor size 3342336 bytes, new threshold 7 (max 15)\n" +
+            " [PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K), 0.0123450 secs] [Times: user=0.04 sys=0.00, real=0.01 secs]\n" +
+            "Heap after GC invocations=1 (full 0):\n" +
+            " PSYoungGen      total 76288K, used 10720K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+            " ParOldGen       total 175104K, used 8K [0x00000006c0000000, 0x00000006c0002000, 0x000000076ab00000)\n" +
+            "}\n" +
+            "{Heap before GC invocations=2 (full 0):\n" +
+            " PSYoungGen      total 76288K, used 76256K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)\n" +
+            "3.000: [Full GC [PSYoungGen: 76256K->0K(76288K)] [ParOldGen: 8K->20000K(175104K)] 76264K->20000K(251392K) [PSPermGen: 2668K->2668K(21504K)], 0.0500000 secs]\n");
+
+        LinearScanParser p = (LinearScanParser)GCLogParserFactory.getParser(r);
+        p.setDecodeHeapAtGC(decode);
+        return p.parse(new TimeOrigin(0L));
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 }
 
@@ -0,0 +1,196 @@
+package com.novaordis.gc.parser.linear;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.Restart;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.LogSegment;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
+import com.novaordis.utilities.Files;
+import com.novaordis.utilities.testing.Tests;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class MultiRunParserTest extends Assert
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(MultiRunParserTest.class);
+
+    private static final String NG =
+        ": [GC [PSYoungGen: 660640K->72890K(1835008K)] 660640K->72890K(6029312K), 0.0515050 secs] " +
+        "[Times: user=0.21 sys=0.09, real=0.05 secs] \n";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @After
+    public void scratchCleanup() throws Exception
+    {
+        Tests.cleanup();
+    }
+
+    @Test
+    public void singleRun_NotSegmented() throws Exception
+    {
+        File f = write("1.000" + NG + "2.000" + NG);
+
+        GCLogParser p = GCLogParserFactory.getParser(f);
+
+        assertTrue(p instanceof LinearScanParser);
+        assertNull(((LinearScanParser)p).getSegment());
+    }
+
+    @Test
+    public void offsetReset_TimeOriginEstimated() throws Exception
+    {
+        File f = write("1.000" + NG + "100.000" + NG + "4.911" + NG + "5.000" + NG);
+
+        MultiRunParser p = (MultiRunParser)GCLogParserFactory.getParser(f);
+        p.setThreads(2);
+
+        assertEquals(2, p.getSegments().size());
+
+        List<GCEvent> events = p.parse(new TimeOrigin(1000000L));
+
+        assertEquals(5, events.size());
+
+        assertEquals(1001000L, events.get(0).getTime().longValue());
+        assertEquals(1100000L, events.get(1).getTime().longValue());
+
+        Restart r = (Restart)events.get(2);
+        assertEquals(1, r.getRun());
+        assertEquals(LogSegment.OFFSET_RESET, r.getBoundary());
+        assertEquals(CollectionType.RESTART, r.getCollectionType());
+
+        // the second run is estimated to start when the first one logged its last line
+        assertEquals(1100000L, r.getTime().longValue());
+
+        NewGenerationCollection ng = (NewGenerationCollection)events.get(3);
+        assertEquals(4911L, ng.getOffset().longValue());
+        assertEquals(1104911L, ng.getTime().longValue());
+        assertEquals(1105000L, events.get(4).getTime().longValue());
+    }
+
+    @Test
+    public void dateStamped_EachRunHasItsOwnTimeOrigin() throws Exception
+    {
+        File f = write(
+            "2014-08-14T01:00:01.000-0700: 1.000" + NG +
+            "2014-08-14T01:00:10.000-0700: 10.000" + NG +
+            "2014-08-14T02:00:05.000-0700: 5.000" + NG);
+
+        MultiRunParser p = (MultiRunParser)GCLogParserFactory.getParser(f);
+
+        TimeOrigin origin = new TimeOrigin();
+        List<GCEvent> events = p.parse(origin);
+
+        long t0 = Timestamp.dateStampToTime("2014-08-14T01:00:00.000-0700", null);
+
+        assertEquals(t0, origin.get().longValue());
+        assertEquals(4, events.size());
+
+        Restart r = (Restart)events.get(2);
+        assertEquals(t0 + 3600 * 1000L, r.getTime().longValue());
+        assertEquals(t0 + 3605 * 1000L, events.get(3).getTime().longValue());
+        assertEquals(5000L, events.get(3).getOffset().longValue());
+    }
+
+    @Test
+    public void parallelAndSequentialParsingProduceTheSameEvents() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(int run = 0; run < 5; run ++)
+        {
+            for(int i = 0; i < 1000; i ++)
+            {
+                sb.append(Timestamp.longToOffsetLiteral(i * 1000L + run)).append(NG);
+            }
+        }
+
+        File f = write(sb.toString());
+
+        MultiRunParser parallel = (MultiRunParser)GCLogParserFactory.getParser(f);
+        parallel.setThreads(5);
+        List<GCEvent> expected = parallel.parse(new TimeOrigin(0L));
+
+        MultiRunParser sequential = (MultiRunParser)GCLogParserFactory.getParser(f);
+        sequential.setThreads(1);
+        List<GCEvent> actual = sequential.parse(new TimeOrigin(0L));
+
+        assertEquals(5000 + 4, expected.size());
+        assertEquals(expected.size(), actual.size());
+
+        for(int i = 0; i < expected.size(); i ++)
+        {
+            assertEquals(expected.get(i).getCollectionType(), actual.get(i).getCollectionType());
+            assertEquals(expected.get(i).getTime(), actual.get(i).getTime());
+        }
+    }
+
+    @Test
+    public void timeRange_SeeksWithinEachSegment() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(int run = 0; run < 2; run ++)
+        {
+            for(int i = 0; i < 5000; i ++)
+            {
+                sb.append(Timestamp.longToOffsetLiteral(i * 1000L + 7)).append(NG);
+            }
+        }
+
+        File f = write(sb.toString());
+
+        TimeRange r = new TimeRange();
+        r.setFromOffset(4000000L);
+        r.setToOffset(4010000L);
+
+        GCLogParser p = GCLogParserFactory.getParser(f, r);
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        // ten events from each run, the offset range applies to each of them
+        assertEquals(21, events.size());
+        assertEquals(4000007L, events.get(0).getOffset().longValue());
+        assertEquals(4009007L, events.get(9).getOffset().longValue());
+        assertTrue(events.get(10) instanceof Restart);
+        assertEquals(4000007L, events.get(11).getOffset().longValue());
+        assertEquals(4009007L, events.get(20).getOffset().longValue());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static File write(String content) throws Exception
+    {
+        File f = new File(Tests.getScratchDirectory(), "gc.log");
+        Files.write(f, content);
+        return f;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -8,6 +8,8 @@ import com.novaordis.gc.model.event.NewGenerationCollection;
 import com.novaordis.gc.parser.GCLogParser;
 import com.novaordis.gc.parser.GCLogParserFactory;
 import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.DiscardedEvent;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -144,15 +146,14 @@ public class NewGenerationCollectionParserTest extends Assert
         GCLogParser p = GCLogParserFactory.getParser(r);
         assertTrue(p instanceof LinearScanParser);
 
-        try
-        {
-            p.parse(new TimeOrigin(0L));
-            fail("should fail with IllegalStateException because 598272.976 does not precede or equal with 598272.975");
-        }
-        catch(IllegalStateException e)
-        {
-            log.info(e.getMessage());
-        }
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+        assertEquals(1, events.size());
+
+        NewGenerationCollection ng = (NewGenerationCollection)events.get(0);
+
+        // the line start offset is kept, the embedded one is available as a field
+        assertEquals(598272976L, ng.getOffset().longValue());
+        assertEquals("598272.975", ng.get(FieldType.EMBEDDED_TIMESTAMP_LITERAL).getValue());
 
         r.close();
     }
@@ -181,17 +182,12 @@ public class NewGenerationCollectionParserTest extends Assert
 
         NewGenerationCollectionParser p = new NewGenerationCollectionParser();
 
-        Timestamp ts = new Timestamp(1986L);
-
-        try
-        {
-            p.parse(ts, line, 10, null);
-            fail("should fail with IllegalStateException e");
-        }
-        catch(IllegalStateException e)
-        {
-            log.info(e.getMessage());
-        }
+        Timestamp ts = new Timestamp(1986L).applyTimeOrigin(0L);
+
+        NewGenerationCollection ng = (NewGenerationCollection)p.parse(ts, line, 10, null);
+
+        assertEquals(1986L, ng.getOffset().longValue());
+        assertEquals("1.985", ng.get(FieldType.EMBEDDED_TIMESTAMP_LITERAL).getValue());
     }
 
     @Test
@@ -391,6 +387,28 @@ public class NewGenerationCollectionParserTest extends Assert
         assertEquals(99, e.getDuration(), 0.01);
     }
 
+    @Test
+    public void filter() throws Exception
+    {
+        String line = "[GC [PSYoungGen: 1868896K->53713K(1973376K)] 2794287K->979111K(6167680K), 0.0251580 secs] [Times: user=0.14 sys=0.00, real=0.02 secs]";
+
+        NewGenerationCollectionParser p = new NewGenerationCollectionParser();
+        Timestamp ts = new Timestamp(1000L).applyTimeOrigin(0L);
+
+        p.setFilter(Predicate.parse("duration>=26"));
+        assertSame(DiscardedEvent.INSTANCE, p.parse(ts, line, 1, null));
+
+        p.setFilter(Predicate.parse("duration>=25 && og-after>1G"));
+        NewGenerationCollection e = (NewGenerationCollection)p.parse(ts, line, 1, null);
+        assertEquals(25L, e.getDuration());
+
+        p.setFilter(Predicate.parse("collection-type==full"));
+        assertSame(DiscardedEvent.INSTANCE, p.parse(ts, line, 1, null));
+
+        p.setFilter(null);
+        assertNotNull(p.parse(ts, line, 1, null));
+    }
+
     // Package protected -------------------------------------------------------------------------------------------------------------------
 
     // Protected ---------------------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,67 @@
+package com.novaordis.gc.parser.linear;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PrefixTableTest extends Assert
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = Logger.getLogger(PrefixTableTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void matches() throws Exception
+    {
+        PrefixTable t = new PrefixTable("[GC", "[Full GC", "[Compiler Stats", "Total time", "été");
+
+        assertEquals(5, t.size());
+
+        assertTrue(t.matches("[GC [PSYoungGen: 660640K->72890K(1835008K)]"));
+        assertTrue(t.matches("[Full GC [PSYoungGen: 660640K->72890K(1835008K)]"));
+        assertTrue(t.matches("[Compiler Stats: 10 methods]"));
+        assertTrue(t.matches("Total time for which application threads were stopped: 0.0102000 seconds"));
+        assertTrue(t.matches("été 2014"));
+
+        assertFalse(t.matches(""));
+        assertFalse(t.matches("[G"));
+        assertFalse(t.matches("[CMS-concurrent-mark: 0.123/0.456 secs]"));
+        assertFalse(t.matches("Application time: 0.9470000 seconds"));
+        assertFalse(t.matches("é"));
+    }
+
+    @Test
+    public void emptyPrefix() throws Exception
+    {
+        try
+        {
+            new PrefixTable("[GC", "");
+            fail("should have failed on the empty prefix");
+        }
+        catch(IllegalArgumentException e)
+        {
+            log.info(e.getMessage());
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+}
@@ -1,6 +1,8 @@
 package com.novaordis.gc.parser.linear;
 
 import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.HeapSnapshot;
 import com.novaordis.gc.model.Timestamp;
 import com.novaordis.gc.model.event.*;
 import com.novaordis.gc.parser.TimeOrigin;
@@ -62,7 +64,6 @@ public class ShutdownParserTest extends Assert
 
         Shutdown se = (Shutdown)p.parse(null, lines[0], 7L, null);
 
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -73,7 +74,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[1], 11L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -82,7 +82,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[2], 21L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -91,7 +90,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[3], 31L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -100,7 +98,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[4], 41L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -109,7 +106,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[5], 51L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -118,7 +114,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[6], 61L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -127,7 +122,6 @@ public class ShutdownParserTest extends Assert
 
         gce = p.parse(null, lines[7], 71L, se);
         assertEquals(se, gce);
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -142,11 +136,6 @@ public class ShutdownParserTest extends Assert
         assertNull(se.getTime());
         assertEquals(0L, se.getDuration());
         assertEquals(8, se.getLines().size());
-
-        ShutdownParser parser = (ShutdownParser)se.getActiveParser();
-        // we test for non-null because we want to know the state we end up with - normally we should clean up the associated parser, as
-        // no more lines are expected, but we leave it there. This is a small leak.
-        assertNotNull(parser);
     }
 
     @Test
@@ -169,7 +158,6 @@ public class ShutdownParserTest extends Assert
 
         Shutdown se = (Shutdown)p.parse(null, lines[0], 7L, null);
 
-        assertEquals(p, se.getActiveParser());
         assertEquals(CollectionType.SHUTDOWN, se.getCollectionType());
         assertNull(se.getOffset());
         assertNull(se.getTime());
@@ -229,14 +217,60 @@ public class ShutdownParserTest extends Assert
         assertNull(se.getOffset());
         assertNull(se.getTime());
 
-        ShutdownParser parser = (ShutdownParser)se.getActiveParser();
-        // we test for non-null because we want to know the state we end up with - normally we should clean up the associated parser, as
-        // no more lines are expected, but we leave it there. This is a small leak.
-        assertNotNull(parser);
+        assertEquals(5, se.getLines().size());
 
         fis.close();
     }
 
+    @Test
+    public void metaspace() throws Exception
+    {
+        String[] lines = new String[]
+                {
+                        "Heap",
+                        " PSYoungGen      total 76288K, used 1966K [0x000000076ab00000, 0x0000000770000000, 0x00000007c0000000)",
+                        "  eden space 65536K, 3% used [0x000000076ab00000,0x000000076aceb9e0,0x000000076eb00000)",
+                        "  from space 10752K, 0% used [0x000000076f580000,0x000000076f580000,0x0000000770000000)",
+                        "  to   space 10752K, 0% used [0x000000076eb00000,0x000000076eb00000,0x000000076f580000)",
+                        " ParOldGen       total 175104K, used 0K [0x00000006c0000000, 0x00000006cab00000, 0x000000076ab00000)",
+                        "  object space 175104K, 0% used [0x00000006c0000000,0x00000006c0000000,0x00000006cab00000)",
+                        " Metaspace       used 2994K, capacity 4486K, committed 4864K, reserved 1056768K",
+                        "  class space    used 327K, capacity 386K, committed 512K, reserved 1048576K"
+                };
+
+        ShutdownParser p = new ShutdownParser();
+
+        Shutdown se = (Shutdown)p.parse(null, lines[0], 1L, null);
+
+        for(int i = 1; i < lines.length; i ++)
+        {
+            assertEquals(se, p.parse(null, lines[i], i + 1, se));
+        }
+
+        assertEquals(2994L * 1024, se.get(FieldType.METASPACE).getValue());
+        assertEquals(4864L * 1024, se.get(FieldType.METASPACE_COMMITTED).getValue());
+        assertEquals(1056768L * 1024, se.get(FieldType.METASPACE_RESERVED).getValue());
+        assertEquals(327L * 1024, se.get(FieldType.CLASS_SPACE).getValue());
+        assertEquals(512L * 1024, se.get(FieldType.CLASS_SPACE_COMMITTED).getValue());
+        assertEquals(1048576L * 1024, se.get(FieldType.CLASS_SPACE_RESERVED).getValue());
+        assertNull(se.get(FieldType.PG_BEFORE));
+
+        HeapSnapshot heap = se.getHeapSnapshot();
+        assertEquals(76288L * 1024, heap.getYoungCapacity());
+        assertEquals(1966L * 1024, heap.getYoungUsed());
+        assertEquals(2994L * 1024, heap.getPermUsed());
+    }
+
+    @Test
+    public void parseMemory() throws Exception
+    {
+        assertEquals(2994L * 1024, ShutdownParser.parseMemory("Metaspace used 2994K, capacity 4486K", "used "));
+        assertEquals(4486L * 1024, ShutdownParser.parseMemory("Metaspace used 2994K, capacity 4486K", "capacity "));
+        assertEquals(3L * 1024 * 1024, ShutdownParser.parseMemory("used 3M", "used "));
+        assertEquals(-1L, ShutdownParser.parseMemory("Metaspace used 2994K", "reserved "));
+        assertEquals(-1L, ShutdownParser.parseMemory("Metaspace used K", "used "));
+    }
+
     // Package protected -------------------------------------------------------------------------------------------------------------------
 
     // Protected ---------------------------------------------------------------------------------------------------------------------------
@@ -1,10 +1,26 @@
 package com.novaordis.gc.parser.linear.cms;
 
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
 import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.analysis.CMSCycle;
+import com.novaordis.gc.analysis.CMSCycleAssembler;
+import com.novaordis.gc.analysis.CMSCycleOutcome;
+import com.novaordis.gc.analysis.CMSPhase;
 import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.cms.CMSConcurrentAbortablePreclean;
+import com.novaordis.gc.model.event.cms.CMSConcurrentMark;
 import com.novaordis.gc.model.event.cms.CMSConcurrentMarkStart;
+import com.novaordis.gc.model.event.cms.CMSConcurrentPhase;
+import com.novaordis.gc.model.event.cms.CMSConcurrentPreclean;
+import com.novaordis.gc.model.event.cms.CMSConcurrentReset;
+import com.novaordis.gc.model.event.cms.CMSConcurrentSweep;
+import com.novaordis.gc.model.event.cms.CMSInitialMark;
+import com.novaordis.gc.model.event.cms.CMSRemark;
 import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.DiscardedEvent;
 import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.ParserException;
 import com.novaordis.gc.parser.TimeOrigin;
 import com.novaordis.gc.parser.linear.LinearScanParser;
 import org.apache.log4j.Logger;
@@ -54,6 +70,159 @@ public class CMSParserTest extends Assert
         log.debug(".");
     }
 
+    // concurrent phase tests ------------------------------------------------------------------------------------------
+
+    @Test
+    public void concurrentMark() throws Exception
+    {
+        CMSConcurrentMark e = (CMSConcurrentMark)new CMSParser().parse(
+            new Timestamp(14383L), "[CMS-concurrent-mark: 0.049/0.072 secs] [Times: user=0.07 sys=0.00, real=0.07 secs]",
+            1L, null);
+
+        assertTrue(e.isEnd());
+        assertEquals(49L, e.getCpuTime().longValue());
+        assertEquals(72L, e.getWallTime().longValue());
+        assertEquals(0L, e.getDuration());
+    }
+
+    @Test
+    public void concurrentPhaseStart() throws Exception
+    {
+        CMSParser p = new CMSParser();
+
+        CMSConcurrentPhase e = (CMSConcurrentPhase)p.parse(
+            new Timestamp(1L), "[CMS-concurrent-abortable-preclean-start]", 1L, null);
+        assertTrue(e instanceof CMSConcurrentAbortablePreclean);
+        assertFalse(e.isEnd());
+        assertNull(e.getCpuTime());
+        assertNull(e.getWallTime());
+
+        e = (CMSConcurrentPhase)p.parse(new Timestamp(1L), "[CMS-concurrent-sweep-start]", 1L, null);
+        assertTrue(e instanceof CMSConcurrentSweep);
+        assertFalse(e.isEnd());
+
+        e = (CMSConcurrentPhase)p.parse(new Timestamp(1L), "[CMS-concurrent-reset-start]", 1L, null);
+        assertTrue(e instanceof CMSConcurrentReset);
+        assertFalse(e.isEnd());
+    }
+
+    @Test
+    public void concurrentAbortablePreclean() throws Exception
+    {
+        CMSConcurrentAbortablePreclean e = (CMSConcurrentAbortablePreclean)new CMSParser().parse(
+            new Timestamp(1L), "[CMS-concurrent-abortable-preclean: 0.616/9.149 secs] [Times: user=8.41 sys=0.24, real=9.15 secs]",
+            1L, null);
+
+        assertEquals(CollectionType.CMS_CONCURRENT_ABORTABLE_PRECLEAN, e.getCollectionType());
+        assertEquals(616L, e.getCpuTime().longValue());
+        assertEquals(9149L, e.getWallTime().longValue());
+    }
+
+    @Test
+    public void concurrentPhase_Malformed() throws Exception
+    {
+        try
+        {
+            new CMSParser().parse(new Timestamp(1L), "[CMS-concurrent-sweep: 0.010 secs]", 3L, null);
+            fail("should have failed");
+        }
+        catch(ParserException e)
+        {
+            log.info(e.getMessage());
+            assertEquals(3L, e.getLineNumber());
+        }
+    }
+
+    @Test
+    public void concurrentModeFailure_NotClaimed() throws Exception
+    {
+        String line = "[CMS598318.636: [CMS-concurrent-sweep: 30.176/31.191 secs] [Times: user=47.43 sys=3.72, real=31.18 secs] (concurrent mode failure): 8527958K->7765164K(12049408K), 35.8110060 secs] 12653057K->7765164K(16567552K), [CMS Perm : 130459K->122567K(216772K)], 36.4568820 secs]";
+
+        assertNull(new CMSParser().parse(new Timestamp(1L), line, 1L, null));
+    }
+
+    // CMS-remark tests ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void remark() throws Exception
+    {
+        String line =
+            "[GC[YG occupancy: 296321 K (690432 K)]23.555: [Rescan (non-parallel) 23.555: [grey object rescan, " +
+                "0.0024100 secs]23.558: [root rescan, 0.1642160 secs], 0.1666760 secs]23.722: [weak refs processing, " +
+                "0.0000070 secs]23.722: [scrub string table, 0.0012270 secs] [1 CMS-remark: 36911K(1841152K)] " +
+                "333233K(2531584K), 0.1679630 secs] [Times: user=0.17 sys=0.00, real=0.17 secs]";
+
+        CMSRemark r = (CMSRemark)new CMSParser().parse(new Timestamp(23555L), line, 1L, null);
+
+        assertEquals(CollectionType.CMS_REMARK, r.getCollectionType());
+        assertEquals(168L, r.getDuration());
+        assertEquals(296321L * 1024, r.get(FieldType.NG).getValue());
+        assertEquals(690432L * 1024, r.get(FieldType.NG_CAPACITY).getValue());
+        assertEquals(36911L * 1024, r.get(FieldType.OG).getValue());
+        assertEquals(1841152L * 1024, r.get(FieldType.OG_CAPACITY).getValue());
+        assertEquals(333233L * 1024, r.get(FieldType.HEAP).getValue());
+        assertEquals(2531584L * 1024, r.get(FieldType.HEAP_CAPACITY).getValue());
+    }
+
+    @Test
+    public void remark_Parallel() throws Exception
+    {
+        String line =
+            "[GC[YG occupancy: 2108465 K (4518144 K)]598285.842: [Rescan (parallel) , 0.3122640 secs]598286.155: " +
+                "[weak refs processing, 1.2856380 secs]598287.440: [scrub string table, 0.0041470 secs] [1 CMS-remark: " +
+                "9968457K(12049408K)] 12076923K(16567552K), 1.6025190 secs] [Times: user=3.31 sys=0.01, real=1.61 secs] ";
+
+        CMSRemark r = (CMSRemark)new CMSParser().parse(new Timestamp(598285842L), line, 1L, null);
+
+        assertEquals(1603L, r.getDuration());
+        assertEquals(9968457L * 1024, r.get(FieldType.OG).getValue());
+    }
+
+    @Test
+    public void remark_Fragments() throws Exception
+    {
+        CMSParser p = new CMSParser();
+
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(11546L), "[GC[YG occupancy: 183584 K (307200 K)]", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(11546L), "[Rescan (non-parallel) ", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(11546L), "[grey object rescan, 0.0124160 secs]", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(11558L), "[root rescan, 0.0427710 secs], 0.0552490 secs]", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(11601L), "[weak refs processing, 0.0000110 secs]", 1L, null));
+
+        CMSRemark r = (CMSRemark)p.parse(new Timestamp(11601L),
+            "[scrub string table, 0.0003170 secs] [1 CMS-remark: 0K(819200K)] 183584K(1126400K), 0.0556200 secs] " +
+                "[Times: user=0.05 sys=0.00, real=0.05 secs]", 1L, null);
+
+        // the remark starts at the first fragment
+        assertEquals(11546L, r.getOffset().longValue());
+        assertEquals(56L, r.getDuration());
+        assertEquals(183584L * 1024, r.get(FieldType.NG).getValue());
+        assertEquals(0L, r.get(FieldType.OG).getValue());
+
+        // the phase fragments are not claimed outside a remark
+        assertNull(p.parse(new Timestamp(12000L), "[weak refs processing, 0.0000110 secs]", 2L, null));
+    }
+
+    @Test
+    public void remark_Malformed() throws Exception
+    {
+        try
+        {
+            new CMSParser().parse(new Timestamp(1L), "[GC [1 CMS-remark: 36911K(1841152K) 333233K(2531584K)", 7L, null);
+            fail("should have failed");
+        }
+        catch(ParserException e)
+        {
+            log.info(e.getMessage());
+            assertEquals(7L, e.getLineNumber());
+        }
+    }
+
     // cms full cycle --------------------------------------------------------------------------------------------------
 
     @Test
@@ -68,7 +237,102 @@ public class CMSParserTest extends Assert
 
         List<GCEvent> events = p.parse(new TimeOrigin(0L));
 
-        fail("RETURN HERE");
+        assertEquals(14, events.size());
+
+        CMSInitialMark im = (CMSInitialMark)events.get(0);
+        assertEquals(14117L, im.getOffset().longValue());
+        assertEquals(193L, im.getDuration());
+
+        assertEquals(CollectionType.CMS_CONCURRENT_MARK_START, events.get(1).getCollectionType());
+
+        CMSConcurrentMark m = (CMSConcurrentMark)events.get(2);
+        assertEquals(49L, m.getCpuTime().longValue());
+        assertEquals(72L, m.getWallTime().longValue());
+
+        CMSConcurrentPreclean pc = (CMSConcurrentPreclean)events.get(3);
+        assertFalse(pc.isEnd());
+        pc = (CMSConcurrentPreclean)events.get(4);
+        assertEquals(19L, pc.getCpuTime().longValue());
+        assertEquals(23L, pc.getWallTime().longValue());
+
+        CMSConcurrentAbortablePreclean apc = (CMSConcurrentAbortablePreclean)events.get(5);
+        assertFalse(apc.isEnd());
+
+        assertEquals(CollectionType.NEW_GENERATION_COLLECTION, events.get(6).getCollectionType());
+
+        // " CMS: abort preclean due to time 2015-04-29T17:11:20.919-0400: 23.554: [CMS-concurrent-abortable-preclean: ..."
+        apc = (CMSConcurrentAbortablePreclean)events.get(7);
+        assertEquals(23554L, apc.getOffset().longValue());
+        assertEquals(616L, apc.getCpuTime().longValue());
+        assertEquals(9149L, apc.getWallTime().longValue());
+
+        CMSRemark r = (CMSRemark)events.get(8);
+        assertEquals(23555L, r.getOffset().longValue());
+        assertEquals(168L, r.getDuration());
+
+        assertFalse(((CMSConcurrentSweep)events.get(9)).isEnd());
+        CMSConcurrentSweep sw = (CMSConcurrentSweep)events.get(10);
+        assertEquals(10L, sw.getCpuTime().longValue());
+        assertEquals(10L, sw.getWallTime().longValue());
+
+        assertFalse(((CMSConcurrentReset)events.get(11)).isEnd());
+        CMSConcurrentReset rs = (CMSConcurrentReset)events.get(12);
+        assertEquals(23737L, rs.getOffset().longValue());
+        assertEquals(4L, rs.getCpuTime().longValue());
+        assertEquals(4L, rs.getWallTime().longValue());
+
+        assertEquals(CollectionType.NEW_GENERATION_COLLECTION, events.get(13).getCollectionType());
+
+        CMSCycleAssembler a = new CMSCycleAssembler();
+        a.recordAll(events);
+        a.close();
+
+        assertEquals(1L, a.getCycleCount());
+
+        CMSCycle c = a.getCycles().get(0);
+
+        assertEquals(CMSCycleOutcome.COMPLETED, c.getOutcome());
+        // the cycle uses the absolute time, 2015-04-29T17:11:11.481-0400 to 2015-04-29T17:11:21.102-0400
+        assertTrue(a.isAbsolute());
+        assertEquals(im.getTime().longValue(), c.getStart());
+        assertEquals(rs.getTime().longValue(), c.getEnd());
+        assertEquals(9621L, c.getDuration());
+        assertEquals(193L + 168L, c.getStopTheWorldTime());
+        assertEquals(0L, c.getInitiatingOccupancy().longValue());
+        assertEquals(1841152L * 1024, c.getInitiatingCapacity().longValue());
+        assertEquals(9149L, c.getWallTime(CMSPhase.ABORTABLE_PRECLEAN));
+        assertEquals(616L, c.getCpuTime(CMSPhase.ABORTABLE_PRECLEAN));
+        assertEquals(-1L, c.getCpuTime(CMSPhase.REMARK));
+        assertFalse(c.isPromotionFailure());
+    }
+
+    @Test
+    public void promotionFailureAndConcurrentModeFailure() throws Exception
+    {
+        InputStream is = CMSParserTest.class.getClassLoader().
+            getResourceAsStream("collected/cms-promotion-failure-and-concurrent-mode-failure.log");
+        assertNotNull(is);
+
+        GCLogParser p = GCLogParserFactory.getParser(new InputStreamReader(is));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        CMSCycleAssembler a = new CMSCycleAssembler();
+        a.recordAll(events);
+        a.close();
+
+        assertEquals(1L, a.getCycleCount());
+        assertEquals(1L, a.getPromotionFailureCount());
+
+        CMSCycle c = a.getCycles().get(0);
+
+        assertEquals(CMSCycleOutcome.CONCURRENT_MODE_FAILURE, c.getOutcome());
+        assertTrue(c.isPromotionFailure());
+        assertEquals(35811L, c.getFailureTime());
+        assertEquals(149L + 1603L + 35811L, c.getStopTheWorldTime());
+        assertEquals(9421375L * 1024, c.getInitiatingOccupancy().longValue());
+        assertEquals(5471L, c.getWallTime(CMSPhase.ABORTABLE_PRECLEAN));
+        assertEquals(-1L, c.getWallTime(CMSPhase.SWEEP));
     }
 
     // Package protected -----------------------------------------------------------------------------------------------
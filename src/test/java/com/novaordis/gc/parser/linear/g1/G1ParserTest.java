@@ -0,0 +1,327 @@
+package com.novaordis.gc.parser.linear.g1;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.G1PhaseTimes;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.g1.G1Cleanup;
+import com.novaordis.gc.model.event.g1.G1MixedCollection;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.model.event.g1.G1Remark;
+import com.novaordis.gc.model.event.g1.G1YoungCollection;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.DiscardedEvent;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.ParserException;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.linear.LinearScanParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class G1ParserTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long M = 1024L * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    // pause headers -----------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void youngPause() throws Exception
+    {
+        G1YoungCollection e = (G1YoungCollection)new G1Parser().parse(
+            new Timestamp(1000L), "[GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]", 1L, null);
+
+        assertEquals(CollectionType.G1_YOUNG, e.getCollectionType());
+        assertEquals(CollectionType.G1_YOUNG, e.get(FieldType.COLLECTION_TYPE).getValue());
+        assertEquals(4L, e.getDuration());
+        assertSame(GCCause.G1_EVACUATION_PAUSE, e.getCause());
+        assertFalse(e.isInitialMark());
+        assertNull(e.get(FieldType.NOTES));
+        assertNull(e.get(FieldType.HEAP_AFTER));
+    }
+
+    @Test
+    public void youngPause_InitialMark() throws Exception
+    {
+        G1YoungCollection e = (G1YoungCollection)new G1Parser().parse(
+            new Timestamp(1000L), "[GC pause (G1 Humongous Allocation) (young) (initial-mark), 0.0052230 secs]", 1L, null);
+
+        assertTrue(e.isInitialMark());
+        assertSame(GCCause.G1_HUMONGOUS_ALLOCATION, e.getCause());
+        assertEquals(5L, e.getDuration());
+    }
+
+    @Test
+    public void mixedPause_ToSpaceExhausted() throws Exception
+    {
+        G1MixedCollection e = (G1MixedCollection)new G1Parser().parse(
+            new Timestamp(1000L), "[GC pause (G1 Evacuation Pause) (mixed) (to-space exhausted), 0.0712150 secs]", 1L, null);
+
+        assertEquals(CollectionType.G1_MIXED, e.getCollectionType());
+        assertEquals(71L, e.getDuration());
+        assertEquals(G1Pause.TO_SPACE_EXHAUSTED, e.get(FieldType.NOTES).getValue());
+    }
+
+    @Test
+    public void pause_JDK7_NoDetails() throws Exception
+    {
+        G1MixedCollection e = (G1MixedCollection)new G1Parser().parse(
+            new Timestamp(1000L), "[GC pause (partial) 24M->6320K(256M), 0.0041890 secs]", 1L, null);
+
+        assertNull(e.getCause());
+        assertEquals(24L * M, e.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(6320L * 1024, e.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(256L * M, e.get(FieldType.HEAP_CAPACITY).getValue());
+    }
+
+    @Test
+    public void pause_NoDuration() throws Exception
+    {
+        try
+        {
+            new G1Parser().parse(new Timestamp(1000L), "[GC pause (G1 Evacuation Pause) (young)", 1L, null);
+            fail("should have failed, the header is incomplete");
+        }
+        catch(ParserException e)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void pause_Filter() throws Exception
+    {
+        G1Parser p = new G1Parser();
+
+        p.setFilter(Predicate.parse("duration>10"));
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(1000L), "[GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]", 1L, null));
+
+        p.setFilter(Predicate.parse("collection-type==full"));
+        assertSame(DiscardedEvent.INSTANCE,
+            p.parse(new Timestamp(1000L), "[GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]", 1L, null));
+
+        p.setFilter(Predicate.parse("collection-type==g1-young"));
+        assertTrue(p.parse(new Timestamp(1000L), "[GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]", 1L, null)
+            instanceof G1YoungCollection);
+    }
+
+    // remark and cleanup ------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void remark_SingleFragment() throws Exception
+    {
+        G1Remark e = (G1Remark)new G1Parser().parse(
+            new Timestamp(1000L), "[GC remark [Finalize Marking, 0.0001360 secs] [GC ref-proc, 0.0000890 secs], 0.0021180 secs]",
+            1L, null);
+
+        assertEquals(CollectionType.G1_REMARK, e.getCollectionType());
+        assertEquals(2L, e.getDuration());
+        assertEquals(1000L, e.getOffset().longValue());
+    }
+
+    @Test
+    public void remark_Fragments() throws Exception
+    {
+        G1Parser p = new G1Parser();
+
+        assertSame(DiscardedEvent.INSTANCE, p.parse(new Timestamp(1000L), "[GC remark ", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE, p.parse(new Timestamp(1001L), "[Finalize Marking, 0.0001360 secs] ", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE, p.parse(new Timestamp(1001L), "[GC ref-proc, 0.0000890 secs] ", 1L, null));
+
+        G1Remark e = (G1Remark)p.parse(new Timestamp(1002L), "[Unloading, 0.0010470 secs], 0.0021180 secs]", 1L, null);
+
+        // the remark starts at the first fragment
+        assertEquals(1000L, e.getOffset().longValue());
+        assertEquals(2L, e.getDuration());
+
+        // not a remark fragment anymore
+        assertNull(p.parse(new Timestamp(1003L), "[Unloading, 0.0010470 secs], 0.0021180 secs]", 1L, null));
+    }
+
+    @Test
+    public void cleanup() throws Exception
+    {
+        G1Cleanup e = (G1Cleanup)new G1Parser().parse(
+            new Timestamp(1000L), "[GC cleanup 141M->139M(256M), 0.0004520 secs]", 1L, null);
+
+        assertEquals(CollectionType.G1_CLEANUP, e.getCollectionType());
+        assertEquals(0L, e.getDuration());
+        assertEquals(141L * M, e.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(139L * M, e.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(256L * M, e.get(FieldType.HEAP_CAPACITY).getValue());
+    }
+
+    @Test
+    public void concurrentPhasesAreClaimed() throws Exception
+    {
+        G1Parser p = new G1Parser();
+
+        assertSame(DiscardedEvent.INSTANCE, p.parse(new Timestamp(1000L), "[GC concurrent-mark-start]", 1L, null));
+        assertSame(DiscardedEvent.INSTANCE, p.parse(new Timestamp(1000L), "[GC concurrent-mark-end, 0.0131750 secs]", 1L, null));
+    }
+
+    // full collections --------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fullCollection() throws Exception
+    {
+        // the cause was cut out by the linear scan parser
+        FullCollection e = (FullCollection)new G1Parser().parse(
+            new Timestamp(1000L), "[Full GC  255M->120M(256M), 0.5064520 secs]", 1L, null);
+
+        assertEquals(CollectionType.FULL_COLLECTION, e.getCollectionType());
+        assertEquals(506L, e.getDuration());
+        assertEquals(255L * M, e.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(120L * M, e.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(256L * M, e.get(FieldType.HEAP_CAPACITY).getValue());
+    }
+
+    @Test
+    public void fullCollection_OtherCollectorsAreNotClaimed() throws Exception
+    {
+        G1Parser p = new G1Parser();
+
+        assertNull(p.parse(new Timestamp(1000L), "[Full GC [PSYoungGen: 1080K->1K(1398144K)] ...", 1L, null));
+        assertNull(p.parse(new Timestamp(1000L), "[Full GC 58.577: [CMS: 468402K->442325K(2516608K), 2.3616630 secs] ...", 1L, null));
+        assertNull(p.parse(new Timestamp(1000L), "[GC [PSYoungGen: 1080K->1K(1398144K)] ...", 1L, null));
+    }
+
+    // block -------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void isBlockLine() throws Exception
+    {
+        assertTrue(G1Block.isBlockLine("   [Parallel Time: 3.1 ms, GC Workers: 4]"));
+        assertTrue(G1Block.isBlockLine(" [Times: user=0.01 sys=0.00, real=0.01 secs] "));
+        assertTrue(G1Block.isBlockLine("       Avg: 110.1, Min: 110.0, Max: 110.1, Diff:   0.1]"));
+        assertFalse(G1Block.isBlockLine("1.126: [GC concurrent-root-region-scan-start]"));
+        assertFalse(G1Block.isBlockLine("   "));
+        assertFalse(G1Block.isBlockLine(""));
+    }
+
+    // log ---------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void jdk8Log() throws Exception
+    {
+        InputStream is = G1ParserTest.class.getClassLoader().getResourceAsStream("collected/g1-jdk8.log");
+        assertNotNull(is);
+
+        GCLogParser p = GCLogParserFactory.getParser(new InputStreamReader(is));
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(6, events.size());
+
+        G1YoungCollection young = (G1YoungCollection)events.get(0);
+
+        assertEquals(269L, young.getOffset().longValue());
+        assertEquals(24L * M, young.get(FieldType.EDEN_BEFORE).getValue());
+        assertEquals(0L, young.get(FieldType.EDEN_AFTER).getValue());
+        assertEquals(13L * M, young.get(FieldType.EDEN_CAPACITY).getValue());
+        assertEquals(0L, young.get(FieldType.SURVIVOR_BEFORE).getValue());
+        assertEquals(3072L * 1024, young.get(FieldType.SURVIVOR_AFTER).getValue());
+        assertEquals(24L * M, young.get(FieldType.NG_BEFORE).getValue());
+        assertEquals(3072L * 1024, young.get(FieldType.NG_AFTER).getValue());
+        assertEquals(16L * M, young.get(FieldType.NG_CAPACITY).getValue());
+        assertEquals(24L * M, young.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(6471782L, young.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(256L * M, young.get(FieldType.HEAP_CAPACITY).getValue());
+        assertEquals(10L, young.get(FieldType.REAL_TIME).getValue());
+        assertEquals(4L, young.get(FieldType.GC_WORKERS).getValue());
+
+        G1PhaseTimes t = young.getPhaseTimes();
+        assertEquals(3.1d, t.getParallelTime(), 0.0001d);
+        assertEquals(19, t.size());
+        assertEquals(2.0d, t.getTime(G1PhaseTimes.OBJECT_COPY), 0.0001d);
+        assertEquals(0.1d, t.getTime(G1PhaseTimes.REDIRTY_CARDS), 0.0001d);
+
+        G1YoungCollection initialMark = (G1YoungCollection)events.get(1);
+        assertTrue(initialMark.isInitialMark());
+        assertEquals(2, initialMark.getPhaseTimes().size());
+
+        G1Remark remark = (G1Remark)events.get(2);
+        assertEquals(1141L, remark.getOffset().longValue());
+        assertEquals(2L, remark.getDuration());
+        assertEquals(0L, remark.get(FieldType.REAL_TIME).getValue());
+        assertNull(remark.getPhaseTimes());
+
+        assertTrue(events.get(3) instanceof G1Cleanup);
+        assertTrue(events.get(4) instanceof G1MixedCollection);
+
+        FullCollection full = (FullCollection)events.get(5);
+        assertSame(GCCause.ALLOCATION_FAILURE, full.getCause());
+        assertEquals(506L, full.getDuration());
+        assertEquals(0L, full.get(FieldType.EDEN_BEFORE).getValue());
+        assertEquals(126248550L, full.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(2647L * 1024, full.get(FieldType.METASPACE_AFTER).getValue());
+        assertEquals(1056768L * 1024, full.get(FieldType.METASPACE_RESERVED).getValue());
+        assertNull(full.get(FieldType.PG_AFTER));
+        assertEquals(510L, full.get(FieldType.REAL_TIME).getValue());
+    }
+
+    @Test
+    public void jdk8Log_FilterOnRegionFields() throws Exception
+    {
+        InputStream is = G1ParserTest.class.getClassLoader().getResourceAsStream("collected/g1-jdk8.log");
+        assertNotNull(is);
+
+        GCLogParser p = GCLogParserFactory.getParser(new InputStreamReader(is));
+
+        // the eden is only known from the block, so the block must be added before the filter is applied
+        ((LinearScanParser)p).setFilter(Predicate.parse("eden-before>12000000"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+        assertEquals(269L, events.get(0).getOffset().longValue());
+        assertEquals(1120L, events.get(1).getOffset().longValue());
+    }
+
+    @Test
+    public void blockLinesDoNotLeakIntoTheNextEvent() throws Exception
+    {
+        String log =
+            "1.000: [GC pause (G1 Evacuation Pause) (young), 0.0041890 secs]\n" +
+            "   [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->6320.1K(256.0M)]\n" +
+            "2.000: [GC cleanup 141M->139M(256M), 0.0004520 secs]\n";
+
+        List<GCEvent> events = GCLogParserFactory.getParser(new StringReader(log)).parse(new TimeOrigin(0L));
+
+        assertEquals(2, events.size());
+        assertNotNull(events.get(0).get(FieldType.EDEN_BEFORE));
+        assertNull(events.get(1).get(FieldType.EDEN_BEFORE));
+        assertEquals(139L * M, events.get(1).get(FieldType.HEAP_AFTER).getValue());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
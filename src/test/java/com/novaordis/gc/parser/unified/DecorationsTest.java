@@ -0,0 +1,137 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.model.Timestamp;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class DecorationsTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parse_TimeUptimeLevelTags() throws Exception
+    {
+        Decorations d = new Decorations();
+
+        String line = "[2026-10-01T12:00:00.123+0000][12.345s][info][gc] GC(42) Pause Young (Normal) (G1 Evacuation Pause) 512M->128M(2048M) 12.345ms";
+
+        int i = d.parse(line);
+
+        assertEquals(line.indexOf("GC(42)"), i);
+        assertEquals(1790856000123L, d.getTime());
+        assertEquals(12345L, d.getUptime());
+        assertSame(Decorations.INFO, d.getLevel());
+        assertTrue(d.hasTags("gc"));
+        assertFalse(d.hasTags("gc,heap"));
+        assertEquals("gc", d.getTags());
+
+        Timestamp ts = d.getTimestamp();
+        assertEquals(1790856000123L, ts.getTime().longValue());
+        assertEquals(12345L, ts.getOffset().longValue());
+        assertEquals("2026-10-01T12:00:00.123+0000", ts.getDateStampLiteral());
+    }
+
+    @Test
+    public void parse_DefaultDecorations_PaddedTags() throws Exception
+    {
+        Decorations d = new Decorations();
+
+        String line = "[0.350s][debug][gc,heap      ] GC(0) Eden regions: 24->0(13)";
+
+        assertEquals(line.indexOf("GC(0)"), d.parse(line));
+        assertEquals(-1L, d.getTime());
+        assertEquals(350L, d.getUptime());
+        assertSame(Decorations.DEBUG, d.getLevel());
+        assertTrue(d.hasTags("gc,heap"));
+        assertFalse(d.hasTags("gc"));
+
+        Timestamp ts = d.getTimestamp();
+        assertNull(ts.getTime());
+        assertEquals(350L, ts.getOffset().longValue());
+    }
+
+    @Test
+    public void parse_MillisPidTidHostname() throws Exception
+    {
+        Decorations d = new Decorations();
+
+        String line = "[1790856000123ms][12345ms][99999ns][host1][1234][5678][warning][gc,cpu] GC(1) User=0.01s Sys=0.00s Real=0.01s";
+
+        assertEquals(line.indexOf("GC(1)"), d.parse(line));
+        assertEquals(1790856000123L, d.getTime());
+        assertEquals(12345L, d.getUptime());
+        assertSame(Decorations.WARNING, d.getLevel());
+        assertTrue(d.hasTags("gc,cpu"));
+        assertNotNull(d.getTimestamp().getDateStampLiteral());
+    }
+
+    @Test
+    public void parse_NoTags() throws Exception
+    {
+        Decorations d = new Decorations();
+
+        assertEquals(-1, d.parse("[0.350s][info] something"));
+        assertEquals(-1L, d.getUptime());
+        assertNull(d.getTimestamp());
+    }
+
+    @Test
+    public void parse_LegacyLines() throws Exception
+    {
+        Decorations d = new Decorations();
+
+        assertEquals(-1, d.parse("1.000: [GC (Allocation Failure) [PSYoungGen: 1080K->1K(1398144K)] 1080K->1K(4194304K), 0.0019870 secs]"));
+        assertEquals(-1, d.parse("[GC (Allocation Failure) [PSYoungGen: 1080K->1K(1398144K)] 1080K->1K(4194304K), 0.0019870 secs]"));
+        assertEquals(-1, d.parse("[Full GC [PSYoungGen: 1080K->1K(1398144K)] ...]"));
+        assertEquals(-1, d.parse(" [Times: user=0.01 sys=0.00, real=0.01 secs] "));
+        assertEquals(-1, d.parse("Java HotSpot(TM) 64-Bit Server VM (25.45-b02) for linux-amd64 JRE (1.8.0_45-b14)"));
+        assertEquals(-1, d.parse(""));
+        assertEquals(-1, d.parse("[0.350s"));
+
+        assertFalse(Decorations.isDecorated("2014-08-14T01:12:28.620-0700: 1.000: [GC ..."));
+        assertTrue(Decorations.isDecorated("[0.005s][info][gc] Using G1"));
+    }
+
+    @Test
+    public void parseTime() throws Exception
+    {
+        String s = "2026-10-01T12:00:00.123+0000";
+        assertEquals(1790856000123L, Decorations.parseTime(s, 0, s.length()));
+
+        s = "2026-10-01T14:00:00.123+02:00";
+        assertEquals(1790856000123L, Decorations.parseTime(s, 0, s.length()));
+
+        s = "2026-10-01T05:00:00.123-0700";
+        assertEquals(1790856000123L, Decorations.parseTime(s, 0, s.length()));
+
+        s = "2024-02-29T00:00:00.000+0000";
+        assertEquals(1709164800000L, Decorations.parseTime(s, 0, s.length()));
+
+        s = "2026-10-01 12:00:00.123+0000";
+        assertEquals(-1L, Decorations.parseTime(s, 0, s.length()));
+
+        s = "2026-1a-01T12:00:00.123+0000";
+        assertEquals(-1L, Decorations.parseTime(s, 0, s.length()));
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,100 @@
+package com.novaordis.gc.parser.unified;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PendingCollectionTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseTransition_Counts() throws Exception
+    {
+        long[] v = new long[4];
+
+        assertTrue(PendingCollection.parseTransition("24->0(13)", 0, false, v));
+        assertEquals(24L, v[0]);
+        assertEquals(0L, v[1]);
+        assertEquals(13L, v[2]);
+        assertEquals(-1L, v[3]);
+
+        assertTrue(PendingCollection.parseTransition("Old regions: 0->1", 13, false, v));
+        assertEquals(0L, v[0]);
+        assertEquals(1L, v[1]);
+        assertEquals(-1L, v[2]);
+    }
+
+    @Test
+    public void parseTransition_Memory() throws Exception
+    {
+        long[] v = new long[4];
+
+        assertTrue(PendingCollection.parseTransition("65536K->10720K(76288K)", 0, true, v));
+        assertEquals(65536L * 1024, v[0]);
+        assertEquals(10720L * 1024, v[1]);
+        assertEquals(76288L * 1024, v[2]);
+        assertEquals(-1L, v[3]);
+
+        // JDK 17
+        assertTrue(PendingCollection.parseTransition("6144K(9216K)->1008K(9216K) Eden: ...", 0, true, v));
+        assertEquals(6144L * 1024, v[0]);
+        assertEquals(1008L * 1024, v[1]);
+        assertEquals(9216L * 1024, v[2]);
+        assertEquals(9216L * 1024, v[3]);
+    }
+
+    @Test
+    public void parseTransition_Invalid() throws Exception
+    {
+        long[] v = new long[4];
+
+        assertFalse(PendingCollection.parseTransition("", 0, true, v));
+        assertFalse(PendingCollection.parseTransition("24", 0, false, v));
+        assertFalse(PendingCollection.parseTransition("24->", 0, false, v));
+        assertFalse(PendingCollection.parseTransition("24-0(13)", 0, false, v));
+        assertFalse(PendingCollection.parseTransition("1K(2K->1K(2K)", 0, true, v));
+    }
+
+    @Test
+    public void addHeap() throws Exception
+    {
+        PendingCollection p = new PendingCollection();
+        p.reset(7);
+
+        assertEquals(7, p.getId());
+        assertTrue(p.addHeap("Eden regions: 24->0(13)", 0));
+        assertTrue(p.addHeap("Humongous regions: 0->0", 0));
+        assertTrue(p.addHeap("PSYoungGen: 65536K->10720K(76288K)", 0));
+        assertTrue(p.addHeap("ParOldGen: 0K->8K(175104K)", 0));
+        assertFalse(p.addHeap("PSYoungGen: 65536K->10720K", 0));
+        assertFalse(p.addHeap("Something else", 0));
+
+        assertEquals(65536L * 1024, p.getNewGeneration().getBefore());
+        assertEquals(8L * 1024, p.getOldGeneration().getAfter());
+
+        p.reset(-1);
+        assertEquals(-1, p.getId());
+        assertNull(p.getOldGeneration());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
@@ -0,0 +1,180 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.Timestamp;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class PendingCycleTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long M = 1024L * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void phaseNameEnd() throws Exception
+    {
+        String s = "Pause Mark Start 0.012ms";
+        assertEquals("Pause Mark Start", s.substring(0, PendingCycle.phaseNameEnd(s, 0, s.length())));
+
+        s = "Concurrent marking (unload classes) 12.345ms";
+        assertEquals("Concurrent marking", s.substring(0, PendingCycle.phaseNameEnd(s, 0, s.length())));
+
+        s = "Concurrent evacuation 500M->510M(1024M) 3.456ms";
+        assertEquals("Concurrent evacuation", s.substring(0, PendingCycle.phaseNameEnd(s, 0, s.length())));
+
+        s = "Concurrent Process Non-Strong References";
+        assertEquals(s.length(), PendingCycle.phaseNameEnd(s, 0, s.length()));
+    }
+
+    @Test
+    public void phases() throws Exception
+    {
+        NameTable names = new NameTable();
+        PendingCycle c = new PendingCycle();
+        c.reset(3, new Timestamp(1000L), 1000L);
+
+        assertTrue(c.isEmpty());
+        assertTrue(c.addPhase("GC(3) Pause Init Mark (unload classes) 0.123ms", 6, names));
+        assertTrue(c.addPhase("GC(3) Concurrent cleanup 130M->120M(1024M) 0.045ms", 6, names));
+        assertTrue(c.addPhase("GC(3) Pause Degenerated GC (Mark) 900M->500M(1024M) 120.5ms", 6, names));
+
+        // the phase start lines
+        assertFalse(c.addPhase("GC(3) Pause Init Mark (unload classes)", 6, names));
+
+        assertFalse(c.isEmpty());
+        c.touch(1200L);
+        c.touch(1100L);
+
+        ConcurrentCycle cycle = c.build(CollectionType.SHENANDOAH_CYCLE);
+
+        assertEquals(CollectionType.SHENANDOAH_CYCLE, cycle.getCollectionType());
+        assertEquals(1000L, cycle.getOffset().longValue());
+        assertEquals(200L, cycle.getDuration());
+        assertEquals(3, cycle.getPhaseCount());
+        assertEquals("Pause Init Mark", cycle.getPhase(0));
+        assertEquals(123, cycle.getPhaseMicroseconds(0));
+        assertEquals("Concurrent cleanup", cycle.getPhase(1));
+        assertEquals(45, cycle.getPhaseMicroseconds(1));
+        assertEquals("Pause Degenerated GC", cycle.getPhase(2));
+        assertEquals(120500, cycle.getPhaseMicroseconds(2));
+        assertEquals(120623L, cycle.getPauseMicroseconds());
+
+        // the first transition
+        assertEquals(130L * M, cycle.getHeapUsedAtStart());
+        assertEquals(1024L * M, cycle.getHeapCapacityAtStart());
+        assertEquals(894L * M, cycle.getHeadroomAtStart());
+
+        // the names are interned
+        c.reset(4, new Timestamp(2000L), 2000L);
+        assertTrue(c.isEmpty());
+        assertTrue(c.addPhase("GC(4) Pause Init Mark 0.100ms", 6, names));
+        assertSame(cycle.getPhase(0), c.build(CollectionType.SHENANDOAH_CYCLE).getPhase(0));
+        assertEquals(3, names.size());
+    }
+
+    @Test
+    public void stalls() throws Exception
+    {
+        NameTable names = new NameTable();
+        PendingCycle c = new PendingCycle();
+        c.reset(1, new Timestamp(1000L), 1000L);
+
+        assertTrue(c.addStall("Allocation Stall (main) 5.123ms", 0, names));
+        assertTrue(c.addStall("Allocation Stall (pool-1 (io)) 2ms", 0, names));
+        assertTrue(c.addStall("Allocation Stall (main) 1.000ms", 0, names));
+        assertFalse(c.addStall("Allocation Stall (main)", 0, names));
+        assertFalse(c.addStall("Allocation Stall 1.000ms", 0, names));
+
+        ConcurrentCycle cycle = c.build(CollectionType.ZGC_CYCLE);
+
+        assertEquals(0, cycle.getPhaseCount());
+        assertEquals(3, cycle.getStallCount());
+        assertEquals("main", cycle.getStallThread(0));
+        assertEquals(5123, cycle.getStallMicroseconds(0));
+        assertEquals("pool-1 (io)", cycle.getStallThread(1));
+        assertEquals(2000, cycle.getStallMicroseconds(1));
+        assertSame(cycle.getStallThread(0), cycle.getStallThread(2));
+        assertEquals(-1L, cycle.getHeadroomAtStart());
+    }
+
+    @Test
+    public void pacing() throws Exception
+    {
+        NameTable names = new NameTable();
+        PendingCycle c = new PendingCycle();
+        c.reset(1, new Timestamp(1000L), 1000L);
+
+        assertTrue(c.addPacing("     12 of    49 ms ( 24.5%): main", 0, names));
+        assertTrue(c.addPacing("      3 of    49 ms (  6.1%): http-nio-8080-exec-1", 0, names));
+        assertTrue(c.addPacing("     15 of    49 ms ( 30.6%): <total>", 0, names));
+        assertFalse(c.addPacing("", 0, names));
+        assertFalse(c.addPacing("Concurrent reset 1M->1M(2M) 0.1ms", 0, names));
+
+        ConcurrentCycle cycle = c.build(CollectionType.SHENANDOAH_CYCLE);
+
+        assertEquals(2, cycle.getPacingCount());
+        assertEquals("main", cycle.getPacingThread(0));
+        assertEquals(12000, cycle.getPacingMicroseconds(0));
+        assertEquals("http-nio-8080-exec-1", cycle.getPacingThread(1));
+        assertEquals(3000, cycle.getPacingMicroseconds(1));
+    }
+
+    @Test
+    public void heap() throws Exception
+    {
+        PendingCycle c = new PendingCycle();
+        c.reset(1, new Timestamp(1000L), 1000L);
+
+        c.addHeap(" Min Capacity: 8M(2%)", 0);
+        c.addHeap("  Capacity:      512M (100%)        512M (100%)", 0);
+        c.addHeap("      Used:      410M (80%)         430M (84%)", 0);
+        c.addSummary("Garbage Collection (Warmup) 256M(50%)->102M(20%)", 0);
+        c.addPhase("Pause Mark Start 0.012ms", 0, new NameTable());
+
+        ConcurrentCycle cycle = c.build(CollectionType.ZGC_CYCLE);
+
+        // the heap table takes precedence over the summary
+        assertEquals(410L * M, cycle.getHeapUsedAtStart());
+        assertEquals(512L * M, cycle.getHeapCapacityAtStart());
+        assertEquals("Warmup", cycle.getCause());
+    }
+
+    @Test
+    public void heap_SummaryOnly() throws Exception
+    {
+        PendingCycle c = new PendingCycle();
+        c.reset(1, new Timestamp(1000L), 1000L);
+
+        c.addSummary("Garbage Collection (Proactive) 256M(50%)->100M(19%)", 0);
+        c.addPhase("Pause Mark Start 0.012ms", 0, new NameTable());
+
+        ConcurrentCycle cycle = c.build(CollectionType.ZGC_CYCLE);
+
+        assertEquals(256L * M, cycle.getHeapUsedAtStart());
+        assertEquals(512L * M, cycle.getHeapCapacityAtStart());
+        assertEquals("Proactive", cycle.getCause());
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}
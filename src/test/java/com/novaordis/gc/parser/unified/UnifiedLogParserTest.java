@@ -0,0 +1,419 @@
+package com.novaordis.gc.parser.unified;
+
+import com.novaordis.gc.UserErrorException;
+import com.novaordis.gc.model.CollectionType;
+import com.novaordis.gc.model.FieldType;
+import com.novaordis.gc.model.G1PhaseTimes;
+import com.novaordis.gc.model.GCCause;
+import com.novaordis.gc.model.event.FullCollection;
+import com.novaordis.gc.model.event.GCEvent;
+import com.novaordis.gc.model.event.NewGenerationCollection;
+import com.novaordis.gc.model.event.concurrent.ConcurrentCycle;
+import com.novaordis.gc.model.event.g1.G1Cleanup;
+import com.novaordis.gc.model.event.g1.G1MixedCollection;
+import com.novaordis.gc.model.event.g1.G1Pause;
+import com.novaordis.gc.model.event.g1.G1Remark;
+import com.novaordis.gc.model.event.g1.G1YoungCollection;
+import com.novaordis.gc.model.expression.Predicate;
+import com.novaordis.gc.parser.GCLogParser;
+import com.novaordis.gc.parser.GCLogParserFactory;
+import com.novaordis.gc.parser.TimeOrigin;
+import com.novaordis.gc.parser.TimeRange;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:ovidiu@novaordis.com">Ovidiu Feodorov</a>
+ *
+ * Copyright 2013 Nova Ordis LLC
+ */
+public class UnifiedLogParserTest extends Assert
+{
+    // Constants ---------------------------------------------------------------------------------------------------------------------------
+
+    private static final long K = 1024L;
+    private static final long M = 1024L * 1024;
+
+    // Static ------------------------------------------------------------------------------------------------------------------------------
+
+    // Attributes --------------------------------------------------------------------------------------------------------------------------
+
+    // Constructors ------------------------------------------------------------------------------------------------------------------------
+
+    // Public ------------------------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseGCId() throws Exception
+    {
+        assertEquals(42, UnifiedLogParser.parseGCId("GC(42) Pause Young", 0));
+        assertEquals(0, UnifiedLogParser.parseGCId("xx GC(0) Pause Young", 3));
+        assertEquals(-1, UnifiedLogParser.parseGCId("GC() Pause Young", 0));
+        assertEquals(-1, UnifiedLogParser.parseGCId("GC(42", 0));
+        assertEquals(-1, UnifiedLogParser.parseGCId("Using G1", 0));
+    }
+
+    @Test
+    public void parseSeconds() throws Exception
+    {
+        String s = "User=0.01s Sys=1.5s Real=12.3456s";
+
+        assertEquals(10L, UnifiedLogParser.parseSeconds(s, "User=", 0));
+        assertEquals(1500L, UnifiedLogParser.parseSeconds(s, "Sys=", 0));
+        assertEquals(12345L, UnifiedLogParser.parseSeconds(s, "Real=", 0));
+        assertEquals(-1L, UnifiedLogParser.parseSeconds(s, "Other=", 0));
+        assertEquals(-1L, UnifiedLogParser.parseThousandths("x", 0));
+    }
+
+    @Test
+    public void durationStart() throws Exception
+    {
+        String s = "Pause Mark Start 0.012ms";
+        assertEquals(17, UnifiedLogParser.durationStart(s, 0));
+        assertEquals(12L, UnifiedLogParser.parseThousandths(s, 17));
+
+        assertEquals(4, UnifiedLogParser.durationStart("abc 4ms  ", 0));
+        assertEquals(-1, UnifiedLogParser.durationStart("Pause Init Mark (unload classes)", 0));
+        assertEquals(-1, UnifiedLogParser.durationStart("Pause ms", 0));
+        assertEquals(-1, UnifiedLogParser.durationStart("5ms", 0));
+    }
+
+    @Test
+    public void g1() throws Exception
+    {
+        List<GCEvent> events = parse("collected/g1-jdk11-unified.log", new TimeOrigin());
+
+        assertEquals(7, events.size());
+
+        G1YoungCollection young = (G1YoungCollection)events.get(0);
+
+        assertEquals(CollectionType.G1_YOUNG, young.getCollectionType());
+        assertEquals(350L, young.getOffset().longValue());
+        assertEquals(1790856000350L, young.getTime().longValue());
+        assertEquals(5L, young.getDuration());
+        assertSame(GCCause.G1_EVACUATION_PAUSE, young.getCause());
+        assertFalse(young.isInitialMark());
+        assertEquals(24L * M, young.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(6L * M, young.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(256L * M, young.get(FieldType.HEAP_CAPACITY).getValue());
+        assertEquals(24L * M, young.get(FieldType.EDEN_BEFORE).getValue());
+        assertEquals(0L, young.get(FieldType.EDEN_AFTER).getValue());
+        assertEquals(13L * M, young.get(FieldType.EDEN_CAPACITY).getValue());
+        assertEquals(0L, young.get(FieldType.SURVIVOR_BEFORE).getValue());
+        assertEquals(3L * M, young.get(FieldType.SURVIVOR_AFTER).getValue());
+        assertEquals(3L * M, young.get(FieldType.NG_AFTER).getValue());
+        assertEquals(10L, young.get(FieldType.USER_TIME).getValue());
+        assertEquals(10L, young.get(FieldType.REAL_TIME).getValue());
+        assertEquals(4L, young.get(FieldType.GC_WORKERS).getValue());
+
+        G1PhaseTimes t = young.getPhaseTimes();
+        assertEquals(5, t.size());
+        assertEquals(4.1d, t.getTime(G1PhaseTimes.EVACUATE_COLLECTION_SET), 0.0001d);
+        assertEquals(0.8d, t.getTime(G1PhaseTimes.EXT_ROOT_SCANNING), 0.0001d);
+        assertEquals(0.2d, t.getTime(G1PhaseTimes.OTHER), 0.0001d);
+
+        G1YoungCollection concurrentStart = (G1YoungCollection)events.get(1);
+        assertTrue(concurrentStart.isInitialMark());
+        assertSame(GCCause.G1_HUMONGOUS_ALLOCATION, concurrentStart.getCause());
+        assertEquals(12L * M, concurrentStart.get(FieldType.EDEN_CAPACITY).getValue());
+
+        // logged while the concurrent cycle is in progress
+        G1YoungCollection exhausted = (G1YoungCollection)events.get(2);
+        assertEquals(1133L, exhausted.getOffset().longValue());
+        assertEquals(G1Pause.TO_SPACE_EXHAUSTED, exhausted.get(FieldType.NOTES).getValue());
+        assertNull(exhausted.getPhaseTimes());
+
+        G1Remark remark = (G1Remark)events.get(3);
+        assertEquals(1143L, remark.getOffset().longValue());
+        assertEquals(2L, remark.getDuration());
+        assertEquals(0L, remark.get(FieldType.REAL_TIME).getValue());
+
+        G1Cleanup cleanup = (G1Cleanup)events.get(4);
+        assertEquals(0L, cleanup.getDuration());
+        assertEquals(139L * M, cleanup.get(FieldType.HEAP_AFTER).getValue());
+
+        G1MixedCollection mixed = (G1MixedCollection)events.get(5);
+        assertEquals(12L, mixed.getDuration());
+        assertNull(mixed.get(FieldType.NOTES));
+
+        FullCollection full = (FullCollection)events.get(6);
+        assertEquals(506L, full.getDuration());
+        assertTrue(full.isSystem());
+        assertEquals(5L * M, full.get(FieldType.EDEN_BEFORE).getValue());
+        assertEquals(120L * M, full.get(FieldType.HEAP_AFTER).getValue());
+        assertEquals(2600L * K, full.get(FieldType.METASPACE_AFTER).getValue());
+        assertEquals(1056768L * K, full.get(FieldType.METASPACE_RESERVED).getValue());
+        assertEquals(510L, full.get(FieldType.REAL_TIME).getValue());
+    }
+
+    @Test
+    public void parallel_UptimeOnly() throws Exception
+    {
+        List<GCEvent> events = parse("collected/parallel-jdk17-unified.log", new TimeOrigin(1000L));
+
+        assertEquals(2, events.size());
+
+        NewGenerationCollection young = (NewGenerationCollection)events.get(0);
+
+        assertEquals(CollectionType.NEW_GENERATION_COLLECTION, young.getCollectionType());
+        assertEquals(1130L, young.getTime().longValue());
+        assertEquals(7L, young.getDuration());
+        assertSame(GCCause.ALLOCATION_FAILURE, young.getCause());
+        assertEquals(65536L * K, young.get(FieldType.NG_BEFORE).getValue());
+        assertEquals(10720L * K, young.get(FieldType.NG_AFTER).getValue());
+        assertEquals(76288L * K, young.get(FieldType.NG_CAPACITY).getValue());
+        assertEquals(64L * M, young.get(FieldType.HEAP_BEFORE).getValue());
+        assertEquals(20L, young.get(FieldType.USER_TIME).getValue());
+        assertEquals(10L, young.get(FieldType.SYS_TIME).getValue());
+
+        // the last line of the log, without CPU times
+        FullCollection full = (FullCollection)events.get(1);
+
+        assertSame(GCCause.ERGONOMICS, full.getCause());
+        assertEquals(61L, full.getDuration());
+        assertEquals(90000L * K, full.get(FieldType.OG_AFTER).getValue());
+        assertEquals(0L, full.get(FieldType.NG_AFTER).getValue());
+        assertEquals(2647L * K, full.get(FieldType.METASPACE_AFTER).getValue());
+
+        // JDK 17 logs the committed metaspace, not the reserved one
+        assertNull(full.get(FieldType.METASPACE_RESERVED));
+        assertNull(full.get(FieldType.REAL_TIME));
+    }
+
+    @Test
+    public void zgc() throws Exception
+    {
+        List<GCEvent> events = parse("collected/zgc-jdk17-unified.log", new TimeOrigin());
+
+        assertEquals(3, events.size());
+
+        ConcurrentCycle c = (ConcurrentCycle)events.get(0);
+
+        assertEquals(CollectionType.ZGC_CYCLE, c.getCollectionType());
+        assertFalse(c.getCollectionType().stopTheWorld);
+        assertEquals(1790856001000L, c.getTime().longValue());
+        assertEquals(40L, c.getDuration());
+        assertEquals("Warmup", c.getCause());
+        assertEquals(9, c.getPhaseCount());
+        assertEquals("Pause Mark Start", c.getPhase(0));
+        assertEquals(12, c.getPhaseMicroseconds(0));
+        assertEquals("Concurrent Mark", c.getPhase(1));
+        assertEquals(18456, c.getPhaseMicroseconds(1));
+        assertEquals("Concurrent Process Non-Strong References", c.getPhase(4));
+        assertEquals("Concurrent Relocate", c.getPhase(8));
+        assertEquals(42L, c.getPauseMicroseconds());
+        assertEquals(0, c.getStallCount());
+        assertEquals(410L * M, c.getHeapUsedAtStart());
+        assertEquals(512L * M, c.getHeapCapacityAtStart());
+        assertEquals(410L * M, c.get(FieldType.HEAP_BEFORE).getValue());
+
+        // the stalls are logged without a GC id, the last one after the end of the cycle
+        c = (ConcurrentCycle)events.get(1);
+
+        assertEquals(50L, c.getDuration());
+        assertEquals(7, c.getPhaseCount());
+        assertEquals(3, c.getStallCount());
+        assertEquals("main", c.getStallThread(0));
+        assertEquals(5123, c.getStallMicroseconds(0));
+        assertEquals("worker-1", c.getStallThread(1));
+        assertEquals("main", c.getStallThread(2));
+        assertEquals(1000, c.getStallMicroseconds(2));
+        assertEquals(26L * M, c.getHeadroomAtStart());
+
+        // no start line, no heap table
+        c = (ConcurrentCycle)events.get(2);
+
+        assertEquals(1790856003000L, c.getTime().longValue());
+        assertEquals(20L, c.getDuration());
+        assertEquals(3, c.getPhaseCount());
+        assertSame(((ConcurrentCycle)events.get(0)).getPhase(1), c.getPhase(1));
+        assertEquals(256L * M, c.getHeapUsedAtStart());
+        assertEquals(512L * M, c.getHeapCapacityAtStart());
+    }
+
+    @Test
+    public void shenandoah_UptimeOnly() throws Exception
+    {
+        List<GCEvent> events = parse("collected/shenandoah-jdk17-unified.log", new TimeOrigin(1000L));
+
+        assertEquals(2, events.size());
+
+        ConcurrentCycle c = (ConcurrentCycle)events.get(0);
+
+        assertEquals(CollectionType.SHENANDOAH_CYCLE, c.getCollectionType());
+        assertEquals(2000L, c.getTime().longValue());
+        assertEquals(30L, c.getDuration());
+        assertEquals(12, c.getPhaseCount());
+        assertEquals("Concurrent reset", c.getPhase(0));
+        assertEquals("Pause Init Mark", c.getPhase(1));
+        assertEquals(123, c.getPhaseMicroseconds(1));
+        assertEquals("Concurrent marking roots", c.getPhase(2));
+        assertEquals("Concurrent marking", c.getPhase(3));
+        assertEquals(629L, c.getPauseMicroseconds());
+        assertEquals(124L * M, c.getHeapUsedAtStart());
+        assertEquals(1024L * M, c.getHeapCapacityAtStart());
+
+        // only the totals were logged
+        assertEquals(0, c.getPacingCount());
+
+        c = (ConcurrentCycle)events.get(1);
+
+        assertEquals(3000L, c.getTime().longValue());
+        assertEquals(9, c.getPhaseCount());
+        assertEquals(80L * M, c.getHeadroomAtStart());
+        assertEquals(2, c.getPacingCount());
+        assertEquals("main", c.getPacingThread(0));
+        assertEquals(12000, c.getPacingMicroseconds(0));
+        assertEquals("http-nio-8080-exec-1", c.getPacingThread(1));
+    }
+
+    @Test
+    public void zgc_FilterAndTimeRange() throws Exception
+    {
+        InputStream is = UnifiedLogParserTest.class.getClassLoader().getResourceAsStream("collected/zgc-jdk17-unified.log");
+        UnifiedLogParser p = new UnifiedLogParser(new InputStreamReader(is));
+
+        TimeRange r = new TimeRange();
+        r.setFromOffset(1500L);
+        p.setTimeRange(r);
+        p.setFilter(Predicate.parse("heap-before>300000000"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin());
+
+        assertEquals(1, events.size());
+        assertEquals(2000L, events.get(0).getOffset().longValue());
+        assertEquals(3, ((ConcurrentCycle)events.get(0)).getStallCount());
+    }
+
+    @Test
+    public void uptimeOnly_NoTimeOrigin() throws Exception
+    {
+        try
+        {
+            parse("collected/parallel-jdk17-unified.log", new TimeOrigin());
+            fail("should have failed, the time origin is needed");
+        }
+        catch(UserErrorException e)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void filter() throws Exception
+    {
+        InputStream is = UnifiedLogParserTest.class.getClassLoader().getResourceAsStream("collected/g1-jdk11-unified.log");
+        UnifiedLogParser p = new UnifiedLogParser(new InputStreamReader(is));
+
+        // the eden is only known from the detail lines, so the filter must be applied after they are correlated
+        p.setFilter(Predicate.parse("eden-before>20000000"));
+
+        List<GCEvent> events = p.parse(new TimeOrigin());
+
+        assertEquals(1, events.size());
+        assertEquals(350L, events.get(0).getOffset().longValue());
+    }
+
+    @Test
+    public void timeRange() throws Exception
+    {
+        InputStream is = UnifiedLogParserTest.class.getClassLoader().getResourceAsStream("collected/g1-jdk11-unified.log");
+        UnifiedLogParser p = new UnifiedLogParser(new InputStreamReader(is));
+
+        TimeRange r = new TimeRange();
+        r.setFromOffset(1000L);
+        r.setToOffset(1145L);
+        p.setTimeRange(r);
+
+        List<GCEvent> events = p.parse(new TimeOrigin());
+
+        assertEquals(3, events.size());
+        assertEquals(1125L, events.get(0).getOffset().longValue());
+        assertEquals(1133L, events.get(1).getOffset().longValue());
+        assertTrue(events.get(2) instanceof G1Remark);
+
+        // the detail lines of the skipped pauses do not leak into the ones that are kept
+        assertEquals(13L * M, events.get(0).get(FieldType.EDEN_BEFORE).getValue());
+    }
+
+    @Test
+    public void interleavedDetailLines() throws Exception
+    {
+        String log =
+            "[0.001s][info][gc] Using G1\n" +
+            "[0.002s][info][gc,heap] Heap region size: 2M\n" +
+            "[1.000s][info][gc,heap] GC(1) Eden regions: 10->0(10)\n" +
+            "[1.000s][info][gc,heap] GC(2) Eden regions: 5->0(6)\n" +
+            "[1.000s][info][gc,heap] GC(1) Survivor regions: 1->1(2)\n" +
+            "[1.000s][info][gc,heap] GC(2) Survivor regions: 1->2(2)\n" +
+            "[1.001s][info][gc] GC(2) Pause Young (Normal) (G1 Evacuation Pause) 20M->10M(100M) 1.000ms\n" +
+            "[1.002s][info][gc] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 30M->10M(100M) 2.000ms\n" +
+            "[1.003s][info][gc,cpu] GC(1) User=0.01s Sys=0.00s Real=0.00s\n" +
+            "[1.004s][info][gc] GC(3) Concurrent Cycle\n" +
+            "[1.005s][info][gc] GC(3) Pause Mark Start 1.000ms\n" +
+            "garbage\n" +
+            "\n" +
+            "[1.006s][info][gc] GC(4) Pause Young (Normal) (G1 Evacuation Pause) 30M->10M(100M) 2.499ms\n";
+
+        List<GCEvent> events = new UnifiedLogParser(new StringReader(log)).parse(new TimeOrigin(0L));
+
+        assertEquals(3, events.size());
+
+        assertEquals(10L * M, events.get(0).get(FieldType.EDEN_BEFORE).getValue());
+        assertEquals(4L * M, events.get(0).get(FieldType.SURVIVOR_AFTER).getValue());
+        assertNull(events.get(0).get(FieldType.USER_TIME));
+
+        assertEquals(20L * M, events.get(1).get(FieldType.EDEN_BEFORE).getValue());
+        assertEquals(2L * M, events.get(1).get(FieldType.SURVIVOR_AFTER).getValue());
+        assertEquals(10L, events.get(1).get(FieldType.USER_TIME).getValue());
+
+        assertNull(events.get(2).get(FieldType.EDEN_BEFORE));
+        assertEquals(2L, events.get(2).getDuration());
+    }
+
+    @Test
+    public void incompleteLastLine() throws Exception
+    {
+        String log =
+            "[1.001s][info][gc] GC(2) Pause Young (Normal) (G1 Evacuation Pause) 20M->10M(100M) 1.000ms\n" +
+            "[1.002s][info][gc] GC(3) Pause Young (Normal) (G1 Evacuation Pause) 20M->1";
+
+        List<GCEvent> events = new UnifiedLogParser(new StringReader(log)).parse(new TimeOrigin(0L));
+
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void factory() throws Exception
+    {
+        GCLogParser p = GCLogParserFactory.getParser(new StringReader("[0.005s][info][gc] Using G1\n"));
+        assertTrue(p instanceof UnifiedLogParser);
+        assertTrue(p.parse(new TimeOrigin()).isEmpty());
+
+        p = GCLogParserFactory.getParser(new StringReader("\n1.000: [GC 1K->1K(2K), 0.001 secs]\n"));
+        assertFalse(p instanceof UnifiedLogParser);
+    }
+
+    // Package protected -------------------------------------------------------------------------------------------------------------------
+
+    // Protected ---------------------------------------------------------------------------------------------------------------------------
+
+    // Private -----------------------------------------------------------------------------------------------------------------------------
+
+    private static List<GCEvent> parse(String resource, TimeOrigin timeOrigin) throws Exception
+    {
+        InputStream is = UnifiedLogParserTest.class.getClassLoader().getResourceAsStream(resource);
+        assertNotNull(is);
+
+        GCLogParser p = GCLogParserFactory.getParser(new InputStreamReader(is));
+        assertTrue(p instanceof UnifiedLogParser);
+
+        return p.parse(timeOrigin);
+    }
+
+    // Inner classes -----------------------------------------------------------------------------------------------------------------------
+}